@@ -0,0 +1,143 @@
+package com.ainovel.server.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 章节内容指纹工具
+ *
+ * - 精确指纹：归一化文本（NFKC、去除空白）的 SHA-256，重新导入未修改的章节时完全相同
+ * - 近似指纹：64 位 SimHash（按字符 4-gram 计算），少量改字的章节汉明距离很小
+ * - SimHash 拆成 7 个 9~10 位分块，汉明距离不超过 5 的两个指纹至少有两个分块完全相同；
+ *   存储全部 21 个"两分块组合"键（约 18~19 位），用索引查找候选。单个分段只有约 11 位，
+ *   一批几百个场景的分段键就会命中用户已有场景的很大一部分，组合键把随机命中率降低约两个数量级
+ *
+ * 在 3000 字的章节上，改动 3 处时汉明距离几乎都不超过 5，而无关章节的距离通常在 20 以上。
+ */
+public final class ContentFingerprintUtil {
+
+    /** 近似重复的最大汉明距离 */
+    public static final int NEAR_DUPLICATE_DISTANCE = 5;
+
+    /** 参与近似匹配的最小归一化长度，过短的文本 SimHash 不可靠 */
+    public static final int MIN_SIMHASH_LENGTH = 200;
+
+    private static final int SHINGLE_SIZE = 4;
+    /** 分块数：汉明距离不超过 NEAR_DUPLICATE_DISTANCE 时至少两个分块未被改动 */
+    private static final int BLOCK_COUNT = NEAR_DUPLICATE_DISTANCE + 2;
+    /** 组合键中分块取值所占的位数（两个分块最多 20 位） */
+    private static final int PAIR_VALUE_BITS = 20;
+
+    private ContentFingerprintUtil() {
+    }
+
+    /**
+     * 归一化文本：全角/半角统一，去除所有空白
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c) && !Character.isSpaceChar(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 精确内容指纹（输入为已归一化的文本）
+     */
+    public static String contentHash(String normalized) {
+        return sha256Hex(normalized);
+    }
+
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 64 位 SimHash（输入为已归一化的文本）
+     */
+    public static long simHash(String normalized) {
+        if (normalized.isEmpty()) {
+            return 0L;
+        }
+        int[] weights = new int[64];
+        int shingles = Math.max(1, normalized.length() - SHINGLE_SIZE + 1);
+        for (int i = 0; i < shingles; i++) {
+            long hash = hash64(normalized, i, Math.min(normalized.length(), i + SHINGLE_SIZE));
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+        long result = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                result |= 1L << bit;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * SimHash 分块组合键：高位为分块组合序号，低 20 位为两个分块拼接后的取值
+     */
+    public static List<Integer> simHashBands(long simHash) {
+        int[] values = new int[BLOCK_COUNT];
+        int[] widths = new int[BLOCK_COUNT];
+        for (int block = 0; block < BLOCK_COUNT; block++) {
+            int from = block * 64 / BLOCK_COUNT;
+            widths[block] = (block + 1) * 64 / BLOCK_COUNT - from;
+            values[block] = (int) ((simHash >>> from) & ((1L << widths[block]) - 1));
+        }
+        List<Integer> keys = new ArrayList<>(BLOCK_COUNT * (BLOCK_COUNT - 1) / 2);
+        int pair = 0;
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            for (int j = i + 1; j < BLOCK_COUNT; j++) {
+                int value = (values[i] << widths[j]) | values[j];
+                keys.add((pair++ << PAIR_VALUE_BITS) | value);
+            }
+        }
+        return keys;
+    }
+
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public static boolean isNearDuplicate(long a, long b) {
+        return hammingDistance(a, b) <= NEAR_DUPLICATE_DISTANCE;
+    }
+
+    /**
+     * FNV-1a 后接 fmix64，保证相近的 shingle 也能得到充分打散的哈希
+     */
+    private static long hash64(String text, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
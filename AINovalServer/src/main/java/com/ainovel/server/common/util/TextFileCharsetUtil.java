@@ -0,0 +1,259 @@
+package com.ainovel.server.common.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文本文件编码探测与流式读取工具
+ *
+ * 只读取文件前缀判断编码（候选顺序与原 readFileLinesWithAutoCharset 一致：UTF-8 → GBK → GB18030 → ISO-8859-1），
+ * 之后通过 FileChannel 惰性逐行读取，避免把整个文件读成 List&lt;String&gt;。
+ */
+@Slf4j
+public final class TextFileCharsetUtil {
+
+    /** 探测编码时读取的前缀大小 */
+    private static final int PROBE_SIZE = 64 * 1024;
+
+    /** 前缀全为 ASCII 时继续向后探测的上限 */
+    private static final int MAX_PROBE_SIZE = 1024 * 1024;
+
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private static final List<Charset> CHARSET_CANDIDATES = List.of(
+            StandardCharsets.UTF_8,
+            Charset.forName("GBK"),
+            Charset.forName("GB18030"),
+            StandardCharsets.ISO_8859_1
+    );
+
+    private TextFileCharsetUtil() {
+    }
+
+    /**
+     * 根据文件前缀探测编码
+     */
+    public static Charset detectCharset(Path file) throws IOException {
+        ByteBuffer prefix = readProbe(file);
+        for (Charset charset : CHARSET_CANDIDATES) {
+            if (decodesCleanly(prefix.duplicate(), charset)) {
+                log.debug("文件 {} 探测到编码: {}", file.getFileName(), charset);
+                return charset;
+            }
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * 以指定编码惰性读取文件行。返回的流需要关闭（或被完整消费后由调用方关闭）以释放文件句柄。
+     * 探测后仍出现的个别非法字节以替换字符处理，不会中断整个导入。
+     */
+    public static Stream<String> lines(Path file, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, decoder, -1), READ_BUFFER_CHARS);
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 探测编码后惰性读取文件行
+     */
+    public static Stream<String> lines(Path file) throws IOException {
+        return lines(file, detectCharset(file));
+    }
+
+    /**
+     * 带字节偏移的逐行回调
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        /**
+         * @param line 行内容（不含换行符）
+         * @param start 行首字节偏移
+         * @param end 行尾（含换行符）之后的字节偏移
+         */
+        void accept(String line, long start, long end);
+    }
+
+    /**
+     * 逐行读取文件并报告每行的字节偏移，断行规则与 {@link java.io.BufferedReader#readLine()} 一致（\n、\r、\r\n）。
+     * 仅适用于换行符不会出现在多字节字符中的编码（UTF-8、GBK、GB18030、ISO-8859-1）。
+     */
+    public static void forEachLine(Path file, Charset charset, LineConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            forEachLine(channel, charset, 0, channel.size(), consumer);
+        }
+    }
+
+    /**
+     * 逐行读取文件的字节区间 [from, to)，区间边界应位于行首（见 {@link #splitAtLineBoundaries}）
+     */
+    public static void forEachLine(Path file, Charset charset, long from, long to, LineConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            forEachLine(channel, charset, from, to, consumer);
+        }
+    }
+
+    /**
+     * 把文件切分为大约 targetSize 字节的区间，每个边界都紧跟在 \n 之后，保证不会切断行或 \r\n
+     *
+     * @return 边界偏移，首个为 0，末个为文件大小
+     */
+    public static long[] splitAtLineBoundaries(Path file, long targetSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = new long[(int) Math.min(Integer.MAX_VALUE - 1, size / Math.max(1, targetSize) + 2)];
+            int count = 0;
+            boundaries[count++] = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            long position = targetSize;
+            while (position < size) {
+                long boundary = -1;
+                long scan = position;
+                while (boundary < 0 && scan < size) {
+                    buffer.clear();
+                    int read = channel.read(buffer, scan);
+                    if (read <= 0) {
+                        break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (buffer.get(i) == '\n') {
+                            boundary = scan + i + 1;
+                            break;
+                        }
+                    }
+                    scan += read;
+                }
+                if (boundary < 0 || boundary >= size) {
+                    break;
+                }
+                boundaries[count++] = boundary;
+                position = boundary + targetSize;
+            }
+            boundaries[count++] = size;
+            return Arrays.copyOf(boundaries, count);
+        }
+    }
+
+    private static void forEachLine(FileChannel channel, Charset charset, long from, long to, LineConsumer consumer)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_CHARS);
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        long lineStart = from;
+        long position = from;
+        boolean pendingCarriageReturn = false;
+        while (position < to) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), to - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                position++;
+                if (pendingCarriageReturn) {
+                    pendingCarriageReturn = false;
+                    if (b == '\n') {
+                        // \r\n 视为同一个换行符，下一行从 \n 之后开始
+                        lineStart = position;
+                        continue;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    // \r\n 时行尾偏移停在 \n 之前，切片多出的 \n 只会读成一个空行
+                    consumer.accept(new String(line, 0, lineLength, charset), lineStart, position);
+                    lineLength = 0;
+                    lineStart = position;
+                    pendingCarriageReturn = b == '\r';
+                    continue;
+                }
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[lineLength++] = b;
+            }
+        }
+        if (lineLength > 0) {
+            consumer.accept(new String(line, 0, lineLength, charset), lineStart, position);
+        }
+    }
+
+    private static ByteBuffer readProbe(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int limit = (int) Math.min(channel.size(), MAX_PROBE_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(limit);
+            int target = Math.min(limit, PROBE_SIZE);
+            while (buffer.position() < limit) {
+                buffer.limit(target);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // 读满目标长度
+                }
+                if (buffer.position() < target || !isAscii(buffer, buffer.position())) {
+                    break;
+                }
+                // 前缀全部是 ASCII，无法区分编码，继续向后读取
+                target = Math.min(limit, target * 2);
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 严格解码前缀；末尾被截断的多字节字符不算错误
+     */
+    private static boolean decodesCleanly(ByteBuffer bytes, Charset charset) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(8 * 1024);
+        while (true) {
+            CoderResult result = decoder.decode(bytes, out, false);
+            if (result.isError()) {
+                return false;
+            }
+            if (result.isOverflow()) {
+                out.clear();
+                continue;
+            }
+            return true;
+        }
+    }
+}
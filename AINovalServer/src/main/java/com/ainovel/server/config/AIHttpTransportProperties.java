@@ -0,0 +1,86 @@
+package com.ainovel.server.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * AI供应商共享HTTP传输层配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ai.http-transport")
+public class AIHttpTransportProperties {
+
+    /**
+     * 是否优先协商HTTP/2（TLS ALPN），服务端不支持时回退HTTP/1.1
+     */
+    private boolean http2 = true;
+
+    /**
+     * 建立连接超时
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 每个远端主机的最大连接数
+     */
+    private int maxConnectionsPerHost = 50;
+
+    /**
+     * Reactor Netty 连接池中空闲连接的保活时间。
+     * JDK HttpClient 的空闲超时是 JVM 级系统属性（jdk.httpclient.keepalive.timeout），不在此处修改，需要时在启动参数中设置
+     */
+    private Duration keepAlive = Duration.ofSeconds(120);
+
+    /**
+     * 连接最长存活时间，到期后重建以感知DNS变化
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(10);
+
+    /**
+     * 连接池满时等待可用连接的超时
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+
+    /**
+     * 预热间隔，需小于 keepAlive 才能让空闲连接不被回收
+     */
+    private Duration warmupInterval = Duration.ofSeconds(60);
+
+    /**
+     * 启动后即预热并持续保活的主机，如 https://api.openai.com
+     */
+    private List<String> warmupHosts = new ArrayList<>();
+
+    /**
+     * 是否对最近访问过的主机持续保活
+     */
+    private boolean warmupRecentHosts = true;
+
+    /**
+     * 最近访问多久以内的主机参与保活
+     */
+    private Duration recentHostWindow = Duration.ofMinutes(10);
+
+    /**
+     * 指标中单独打标签的主机，其余主机（如用户自定义端点）统一记为 "other"；预热主机自动包含在内
+     */
+    private List<String> metricHosts = new ArrayList<>(List.of(
+            "https://api.openai.com",
+            "https://api.anthropic.com",
+            "https://generativelanguage.googleapis.com",
+            "https://openrouter.ai",
+            "https://api.siliconflow.cn",
+            "https://api.siliconflow.com",
+            "https://api.together.xyz",
+            "https://ark.cn-beijing.volces.com",
+            "https://open.bigmodel.cn",
+            "https://dashscope.aliyuncs.com",
+            "https://api.x.ai"));
+}
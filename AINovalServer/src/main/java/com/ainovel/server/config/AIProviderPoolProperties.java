@@ -0,0 +1,32 @@
+package com.ainovel.server.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * AI供应商实例池配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ai.provider-pool")
+public class AIProviderPoolProperties {
+
+    /**
+     * 是否复用供应商实例，关闭后每次请求都新建
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的供应商实例数
+     */
+    private long maxSize = 500;
+
+    /**
+     * 实例空闲多久后回收
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,52 @@
+package com.ainovel.server.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * 编辑器章节预取配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "novel.prefetch")
+public class ChapterPrefetchProperties {
+
+    /**
+     * 是否启用章节场景缓存与预取
+     */
+    private boolean enabled = true;
+
+    /**
+     * 沿浏览方向预取的章节数
+     */
+    private int aheadChapters = 3;
+
+    /**
+     * 反方向预取的章节数
+     */
+    private int behindChapters = 1;
+
+    /**
+     * 单次预取的并发加载数
+     */
+    private int concurrency = 2;
+
+    /**
+     * 每个用户最多缓存的章节数，超出后按最近最少使用淘汰
+     */
+    private long maxChaptersPerUser = 30;
+
+    /**
+     * 最多保留缓存的用户数
+     */
+    private long maxUsers = 2000;
+
+    /**
+     * 缓存章节的有效期（其他节点的写入只能靠过期生效）
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
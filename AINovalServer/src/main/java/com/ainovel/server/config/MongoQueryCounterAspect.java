@@ -10,6 +10,7 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import reactor.core.publisher.Flux;
@@ -95,15 +96,15 @@ public class MongoQueryCounterAspect {
                 }
             });
 
-            // 如果结果是Flux，添加日志记录
+            // 如果结果是Flux，添加日志记录，并在订阅时累加当前请求的查询数
             if (result instanceof Flux) {
-                return ((Flux<?>) result).doOnComplete(() ->
-                        logResultCount(queryKey, counter.get()));
+                return countPerRequest(((Flux<?>) result).doOnComplete(() ->
+                        logResultCount(queryKey, counter.get())));
             }
-            // 如果结果是Mono，添加日志记录
+            // 如果结果是Mono，添加日志记录，并在订阅时累加当前请求的查询数
             else if (result instanceof Mono) {
-                return ((Mono<?>) result).doOnSuccess(value ->
-                        logResultValue(queryKey, value));
+                return countPerRequest(((Mono<?>) result).doOnSuccess(value ->
+                        logResultValue(queryKey, value)));
             }
 
             return result;
@@ -113,6 +114,37 @@ public class MongoQueryCounterAspect {
         }
     }
 
+    /**
+     * 上报单次请求发出的MongoDB查询数量
+     * @param scope 请求范围（如 ai_context）
+     * @param queryCount 查询数量
+     */
+    public void recordRequestQueries(String scope, int queryCount) {
+        DistributionSummary.builder("mongodb.queries.per_request")
+                .description("单次请求发出的MongoDB查询数量")
+                .tag("scope", scope)
+                .register(meterRegistry)
+                .record(queryCount);
+        logger.debug("请求范围 {} 共发出MongoDB查询 {} 次", scope, queryCount);
+    }
+
+    /**
+     * 查询被订阅时（而非组装时）累加Reactor Context中的请求级计数器
+     */
+    private static <T> Flux<T> countPerRequest(Flux<T> flux) {
+        return Flux.deferContextual(ctx -> {
+            MongoRequestQueryCounter.incrementIfPresent(ctx);
+            return flux;
+        });
+    }
+
+    private static <T> Mono<T> countPerRequest(Mono<T> mono) {
+        return Mono.deferContextual(ctx -> {
+            MongoRequestQueryCounter.incrementIfPresent(ctx);
+            return mono;
+        });
+    }
+
     /**
      * 记录Flux结果数量
      * @param queryKey 查询键
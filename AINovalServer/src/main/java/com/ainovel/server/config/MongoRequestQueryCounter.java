@@ -0,0 +1,33 @@
+package com.ainovel.server.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.util.context.ContextView;
+
+/**
+ * 单次请求内的MongoDB查询计数器
+ * 由请求入口放入Reactor Context，MongoQueryCounterAspect 在查询被订阅时累加，
+ * 请求结束后以 mongodb.queries.per_request 分布指标上报
+ */
+public final class MongoRequestQueryCounter {
+
+    /** Reactor Context 中的键 */
+    public static final String CONTEXT_KEY = MongoRequestQueryCounter.class.getName();
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    public void increment() {
+        count.incrementAndGet();
+    }
+
+    public int get() {
+        return count.get();
+    }
+
+    /**
+     * 若上下文中存在计数器则累加
+     */
+    static void incrementIfPresent(ContextView context) {
+        context.<MongoRequestQueryCounter>getOrEmpty(CONTEXT_KEY).ifPresent(MongoRequestQueryCounter::increment);
+    }
+}
@@ -456,4 +456,14 @@ public class RabbitMQConfig {
                 .to(tasksExchange())
                 .with(TASK_TYPE_PREFIX + "GENERATE_SINGLE_SUMMARY"); // 添加这个子任务的绑定(虽然冗余)
     }
-}
\ No newline at end of file
+
+    /**
+     * 创建打包生成摘要任务类型的绑定 (子任务)
+     */
+    @Bean
+    public Binding generateSummaryPackBinding() {
+        return BindingBuilder.bind(tasksQueue())
+                .to(tasksExchange())
+                .with(TASK_TYPE_PREFIX + "GENERATE_SUMMARY_PACK");
+    }
+}
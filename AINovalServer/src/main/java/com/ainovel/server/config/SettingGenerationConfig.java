@@ -1,8 +1,16 @@
 package com.ainovel.server.config;
 
 import com.ainovel.server.service.setting.generation.SettingGenerationStrategy;
+import com.ainovel.server.service.setting.generation.cluster.GenerationEventBus;
+import com.ainovel.server.service.setting.generation.cluster.LocalGenerationEventBus;
+import com.ainovel.server.service.setting.generation.cluster.RedisGenerationEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
 
 import java.util.List;
 import java.util.Map;
@@ -13,6 +21,7 @@ import java.util.stream.Collectors;
  * 设定生成配置
  * 配置策略Bean和相关组件
  */
+@Slf4j
 @Configuration
 public class SettingGenerationConfig {
     
@@ -29,4 +38,23 @@ public class SettingGenerationConfig {
                 Function.identity()
             ));
     }
-}
\ No newline at end of file
+
+    /**
+     * 设定生成事件总线
+     * setting.generation.session.event-bus=redis 且存在 Redis 连接时通过 Redis 发布订阅跨节点转发，否则只在本节点内分发
+     */
+    @Bean
+    public GenerationEventBus generationEventBus(SettingGenerationSessionProperties properties,
+                                                 ObjectProvider<ReactiveRedisConnectionFactory> connectionFactory) {
+        if (properties.getEventBus() == SettingGenerationSessionProperties.EventBus.REDIS) {
+            ReactiveRedisConnectionFactory factory = connectionFactory.getIfAvailable();
+            if (factory != null) {
+                log.info("设定生成事件总线: redis, 节点={}", GenerationEventBus.LOCAL_NODE_ID);
+                return new RedisGenerationEventBus(new ReactiveStringRedisTemplate(factory),
+                        new ReactiveRedisMessageListenerContainer(factory), properties.getChannelPrefix());
+            }
+            log.warn("设定生成事件总线配置为 redis，但未找到 Redis 连接，退回本节点分发");
+        }
+        return new LocalGenerationEventBus();
+    }
+}
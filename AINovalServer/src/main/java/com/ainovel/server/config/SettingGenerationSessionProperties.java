@@ -0,0 +1,72 @@
+package com.ainovel.server.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * 设定生成会话与事件流配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "setting.generation.session")
+public class SettingGenerationSessionProperties {
+
+    /**
+     * 会话存储：LOCAL 仅保存在本节点内存；MONGO 持久化到 MongoDB，任意节点都能接续会话
+     */
+    private Store store = Store.LOCAL;
+
+    /**
+     * 事件总线：LOCAL 事件只在本节点内分发；REDIS 通过 Redis 发布订阅在节点间转发事件
+     */
+    private EventBus eventBus = EventBus.LOCAL;
+
+    /**
+     * 会话有效期
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * 本节点内存中最多缓存的会话数，超出后按最近最少使用淘汰（MONGO 存储下可从库中重新加载）
+     */
+    private long localMaxSessions = 2000;
+
+    /**
+     * 会话在本节点内存中的空闲回收时间
+     */
+    private Duration localIdleTimeout = Duration.ofHours(2);
+
+    /**
+     * 会话变更批量写回存储的间隔（状态变化立即写回）
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * 每个会话事件流保留用于重放的最近事件数；更早的历史由当前设定树快照代替
+     */
+    private int replayLimit = 256;
+
+    /**
+     * 事件流无活动多久后回收
+     */
+    private Duration channelIdleTimeout = Duration.ofMinutes(30);
+
+    /**
+     * 事件总线频道前缀
+     */
+    private String channelPrefix = "setting-generation:";
+
+    public enum Store {
+        LOCAL,
+        MONGO
+    }
+
+    public enum EventBus {
+        LOCAL,
+        REDIS
+    }
+}
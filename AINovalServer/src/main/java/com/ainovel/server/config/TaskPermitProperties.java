@@ -0,0 +1,57 @@
+package com.ainovel.server.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * 任务执行许可配置（集群级并发上限）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "task.permits")
+public class TaskPermitProperties {
+
+    /**
+     * 许可存储：LOCAL 仅限制本节点；MONGO 通过租约限制整个集群
+     */
+    private Store store = Store.MONGO;
+
+    /**
+     * 租约有效期，持有节点定期续约，节点宕机后租约过期自动归还
+     */
+    private Duration leaseTtl = Duration.ofMinutes(2);
+
+    /**
+     * 集群许可已满时重新尝试的间隔
+     */
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    /**
+     * 默认的获取许可超时时间
+     */
+    private Duration acquireTimeout = Duration.ofMinutes(30);
+
+    /**
+     * 按任务类型的并发上限，未配置的任务类型不限制
+     * 拆书父任务等待子任务时不持有许可，提取组子任务（LLM调用）单独限制
+     */
+    private Map<String, Integer> taskTypes = new HashMap<>(Map.of(
+            "KNOWLEDGE_EXTRACTION", 5,
+            "KNOWLEDGE_EXTRACTION_GROUP", 10));
+
+    /**
+     * 按AI供应商的并发上限，未配置的供应商不限制
+     */
+    private Map<String, Integer> providers = new HashMap<>();
+
+    public enum Store {
+        LOCAL,
+        MONGO
+    }
+}
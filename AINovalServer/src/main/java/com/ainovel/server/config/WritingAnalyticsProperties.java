@@ -0,0 +1,48 @@
+package com.ainovel.server.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * 写作统计配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analytics.writing")
+public class WritingAnalyticsProperties {
+
+    /**
+     * 写作事件缓冲的刷新周期
+     */
+    private Duration flushInterval = Duration.ofSeconds(2);
+
+    /**
+     * 单批写入的事件数，缓冲达到该数量时立即刷新
+     */
+    private int batchSize = 500;
+
+    /**
+     * 缓冲的最大事件数，超出后新事件不再进入缓冲，由记录方直接写入
+     */
+    private int maxBufferedEvents = 50_000;
+
+    /**
+     * 原始写作事件的保留时长，到期由 TTL 索引删除；统计数据保存在日桶中不受影响
+     */
+    private Duration eventRetention = Duration.ofDays(90);
+
+    /**
+     * 汇总认领的超时时间：认领后超过该时长仍未汇总（日桶写入失败或节点退出）的事件会被重新认领，
+     * 同时也是未汇总事件的检查周期
+     */
+    private Duration claimTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 启动时是否将历史事件（无过期时间）汇总到日桶
+     */
+    private boolean backfillOnStartup = true;
+}
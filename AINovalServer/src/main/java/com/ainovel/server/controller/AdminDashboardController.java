@@ -54,6 +54,7 @@ public class AdminDashboardController {
         private java.util.List<UserNovelStats> userNovelStats; // 用户创作小说统计
         private int newUsersToday; // 今日新注册用户数
         private int loginsToday; // 今日登录用户数
+        private java.util.Map<String, java.time.LocalDateTime> metricUpdatedAt; // 各指标最后刷新时间
         
         public DashboardStats() {}
         
@@ -121,6 +122,9 @@ public class AdminDashboardController {
         
         public int getLoginsToday() { return loginsToday; }
         public void setLoginsToday(int loginsToday) { this.loginsToday = loginsToday; }
+        
+        public java.util.Map<String, java.time.LocalDateTime> getMetricUpdatedAt() { return metricUpdatedAt; }
+        public void setMetricUpdatedAt(java.util.Map<String, java.time.LocalDateTime> metricUpdatedAt) { this.metricUpdatedAt = metricUpdatedAt; }
     }
     
     /**
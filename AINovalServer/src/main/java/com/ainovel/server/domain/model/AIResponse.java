@@ -106,6 +106,16 @@ public class AIResponse {
         @Builder.Default
         private Integer completionTokens = 0;
 
+        /**
+         * 命中提供商提示词缓存的提示令牌数（提供商未返回时为null）
+         */
+        private Integer cachedPromptTokens;
+
+        public TokenUsage(Integer promptTokens, Integer completionTokens) {
+            this.promptTokens = promptTokens;
+            this.completionTokens = completionTokens;
+        }
+
         /**
          * 总令牌数
          */
@@ -0,0 +1,51 @@
+package com.ainovel.server.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.ainovel.server.controller.AdminDashboardController.DashboardStats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 管理员仪表板快照
+ * 由后台定期物化的统计数据（单文档），仪表板读取时直接返回
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "admin_dashboard_snapshots")
+public class AdminDashboardSnapshot {
+
+    /**
+     * 全局快照ID
+     */
+    public static final String GLOBAL_ID = "global";
+
+    @Id
+    private String id;
+
+    /**
+     * 统计数据
+     */
+    private DashboardStats stats;
+
+    /**
+     * 各指标最后刷新时间（指标名 -> 时间）
+     */
+    @Builder.Default
+    private Map<String, LocalDateTime> metricUpdatedAt = new HashMap<>();
+
+    /**
+     * 最近一次刷新时间
+     */
+    private LocalDateTime refreshedAt;
+}
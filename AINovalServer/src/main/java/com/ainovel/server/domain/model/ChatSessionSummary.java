@@ -0,0 +1,57 @@
+package com.ainovel.server.domain.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AI聊天会话滚动总结
+ *
+ * 每个会话一条记录（ID即会话ID），增量折叠已移出保留窗口的消息：
+ * 新总结 = 旧总结 + coveredUntil 之后新被移出的消息。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ai_chat_session_summaries")
+public class ChatSessionSummary {
+
+    /**
+     * 会话ID
+     */
+    @Id
+    private String id;
+
+    @Indexed
+    private String userId;
+
+    // 总结内容
+    private String content;
+
+    // 已折叠进总结的最后一条消息的创建时间
+    private LocalDateTime coveredUntil;
+
+    // 已折叠进总结的最后一条消息ID
+    private String lastCoveredMessageId;
+
+    // 累计折叠的消息数
+    private Integer coveredMessageCount;
+
+    // 总结内容的token数
+    private Integer tokenCount;
+
+    // 生成总结使用的模型
+    private String modelName;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -23,6 +25,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "novels")
+@CompoundIndexes({
+    @CompoundIndex(name = "author_updated_idx", def = "{'author._id': 1, 'updatedAt': -1, '_id': -1}")
+})
 public class Novel {
 
     @Id
@@ -149,6 +154,8 @@ public class Novel {
         private int wordCount;
         private int readTime;
         private LocalDateTime lastEditedAt;
+        /** 有尚未重算确认的字数变更时的标记时间，重算后清除 */
+        private LocalDateTime dirtyAt;
         private int version;
         @Builder.Default
         private List<String> contributors = new ArrayList<>();
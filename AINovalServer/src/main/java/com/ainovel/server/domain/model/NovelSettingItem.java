@@ -19,7 +19,7 @@ import lombok.experimental.SuperBuilder;
  * 用于存储小说的设定信息，如世界观、人物、地点、物品、纪年史等
  */
 @Data
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "novel_setting_items")
@@ -98,6 +98,9 @@ public class NovelSettingItem {
     
     // ==================== AI上下文追踪字段 ====================
     
+    // 别名列表（名称/别名追踪时与名称一起匹配）
+    private List<String> aliases;
+    
     // 名称/别名追踪设置 (track, no_track)
     private String nameAliasTracking;
     
@@ -20,7 +20,7 @@ import lombok.NoArgsConstructor;
  * 场景领域模型
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "scenes")
@@ -44,6 +44,11 @@ public class Scene {
 
     private String summary;
 
+    /**
+     * 当前摘要的生成依据（正文指纹、模型、提示词版本），三者未变时批量摘要直接跳过
+     */
+    private SummaryProvenance summaryProvenance;
+
     /**
      * 场景字数
      */
@@ -59,6 +64,23 @@ public class Scene {
      */
     private String sceneType;
 
+    /**
+     * 正文精确指纹（归一化文本的 SHA-256），用于重复导入时复用摘要
+     */
+    @Indexed
+    private String contentHash;
+
+    /**
+     * 正文 SimHash，用于识别少量改动的近似重复章节
+     */
+    private Long simHash;
+
+    /**
+     * SimHash 分块组合键，支持按索引查找近似重复候选
+     */
+    @Indexed
+    private List<Integer> simHashBands;
+
     private VectorEmbedding vectorEmbedding;
 
     @Builder.Default
@@ -83,6 +105,21 @@ public class Scene {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
     private LocalDateTime lastEdited;
 
+    /**
+     * 摘要生成依据
+     */
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SummaryProvenance {
+
+        private String contentHash;
+        private String modelName;
+        private String promptVersion;
+        private LocalDateTime generatedAt;
+    }
+
     /**
      * 向量嵌入
      */
@@ -100,7 +137,7 @@ public class Scene {
      * 历史记录条目
      */
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class HistoryEntry {
@@ -0,0 +1,73 @@
+package com.ainovel.server.domain.model.analytics;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 写作统计日桶
+ * 按 用户 + 日期 + 小说 预聚合的写作事件，写作事件入库时增量累加；统计查询只读日桶
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "writing_daily_buckets")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_day_idx", def = "{'userId': 1, 'day': 1}")
+})
+public class WritingDailyBucket {
+
+    /**
+     * 桶ID：userId:day:novelId
+     */
+    @Id
+    private String id;
+
+    private String userId;
+
+    /**
+     * 日期（yyyy-MM-dd，按字典序即时间序）
+     */
+    private String day;
+
+    private String novelId;
+
+    /**
+     * 净新增字数（deltaWords 之和）
+     */
+    private long netWords;
+
+    /**
+     * 新增字数（正增量之和）
+     */
+    private long addedWords;
+
+    /**
+     * 删除字数（负增量绝对值之和）
+     */
+    private long removedWords;
+
+    /**
+     * 事件数
+     */
+    private long eventCount;
+
+    /**
+     * 各编辑来源的净新增字数
+     */
+    @Builder.Default
+    private Map<String, Long> wordsBySource = new HashMap<>();
+
+    private LocalDateTime updatedAt;
+}
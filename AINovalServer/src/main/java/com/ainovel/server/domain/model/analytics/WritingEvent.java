@@ -74,5 +74,21 @@ public class WritingEvent {
      */
     @Indexed
     private LocalDateTime timestamp;
+
+    /**
+     * 过期时间，到期后由 MongoDB TTL 索引删除；只在事件汇总到日桶后设置，没有过期时间的事件尚待汇总
+     */
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expiresAt;
+
+    /**
+     * 汇总认领标记：认领该事件进行日桶汇总的批次
+     */
+    private String claimToken;
+
+    /**
+     * 认领时间，超过认领超时仍未汇总的事件可被重新认领
+     */
+    private LocalDateTime claimedAt;
 }
 
@@ -404,6 +404,9 @@ public class LLMTrace {
             if (u.getTotalTokenCount() != null) {
                 map.put("totalTokens", u.getTotalTokenCount());
             }
+            if (u.getCachedInputTokenCount() != null) {
+                map.put("cachedTokens", u.getCachedInputTokenCount());
+            }
             return map.isEmpty() ? null : map;
         }
     }
@@ -542,6 +545,11 @@ public class LLMTrace {
         private Integer inputTokenCount;
         private Integer outputTokenCount;
         private Integer totalTokenCount;
+
+        /**
+         * 命中提供商提示词缓存的输入Token数（OpenAI cached_tokens / Anthropic cache_read_input_tokens / Gemini cachedContentTokenCount）
+         */
+        private Integer cachedInputTokenCount;
         
         // 提供商特定Token信息
         @Builder.Default
@@ -553,10 +561,12 @@ public class LLMTrace {
             @JsonProperty("inputTokenCount") Integer inputTokenCount,
             @JsonProperty("outputTokenCount") Integer outputTokenCount,
             @JsonProperty("totalTokenCount") Integer totalTokenCount,
+            @JsonProperty("cachedInputTokenCount") Integer cachedInputTokenCount,
             @JsonProperty("providerSpecific") Object providerSpecific) {
             this.inputTokenCount = inputTokenCount;
             this.outputTokenCount = outputTokenCount;
             this.totalTokenCount = totalTokenCount;
+            this.cachedInputTokenCount = cachedInputTokenCount;
             this.providerSpecific = safeConvertToMap(providerSpecific);
         }
         
@@ -774,6 +784,7 @@ public class LLMTrace {
                     .inputTokenCount(aiResponse.getTokenUsage().getPromptTokens())
                     .outputTokenCount(aiResponse.getTokenUsage().getCompletionTokens())
                     .totalTokenCount(aiResponse.getTokenUsage().getTotalTokens())
+                    .cachedInputTokenCount(aiResponse.getTokenUsage().getCachedPromptTokens())
                     .build();
         }
 
@@ -815,6 +826,7 @@ public class LLMTrace {
                     .inputTokenCount(aiResponseUsage.getPromptTokens())
                     .outputTokenCount(aiResponseUsage.getCompletionTokens())
                     .totalTokenCount(aiResponseUsage.getTotalTokens())
+                    .cachedInputTokenCount(aiResponseUsage.getCachedPromptTokens())
                     .build();
             metadataBuilder.tokenUsage(tokenUsageInfo);
         } else if (tokenUsage != null && hasTokenUsageMethods(tokenUsage)) {
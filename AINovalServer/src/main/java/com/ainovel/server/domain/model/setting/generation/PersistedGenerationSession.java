@@ -0,0 +1,45 @@
+package com.ainovel.server.domain.model.setting.generation;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 持久化的设定生成会话，供多节点共享会话状态
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "setting_generation_sessions")
+public class PersistedGenerationSession {
+
+    /**
+     * 会话ID
+     */
+    @Id
+    private String id;
+
+    /**
+     * 会话内容（元数据只保留可序列化的简单值）
+     */
+    private SettingGenerationSession session;
+
+    /**
+     * 最后写入的节点
+     */
+    private String writtenBy;
+
+    /**
+     * 过期时间，到期后由 MongoDB TTL 索引删除
+     */
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
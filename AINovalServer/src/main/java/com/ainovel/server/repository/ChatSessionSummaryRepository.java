@@ -0,0 +1,8 @@
+package com.ainovel.server.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.ainovel.server.domain.model.ChatSessionSummary;
+
+public interface ChatSessionSummaryRepository extends ReactiveMongoRepository<ChatSessionSummary, String> {
+}
@@ -35,10 +35,18 @@ public interface MetadataService {
     Mono<Novel> updateNovelMetadata(String novelId);
 
     /**
-     * 根据场景内容变更触发小说元数据更新
+     * 根据场景内容变更触发小说元数据更新（增量未知，合并后整本重算）
      *
      * @param scene 已更新的场景
      * @return 操作完成指示
      */
     Mono<Void> triggerNovelMetadataUpdate(Scene scene);
+
+    /**
+     * 登记场景字数变化，合并后原子累加到小说字数
+     *
+     * @param novelId 小说ID
+     * @param delta 字数增量（写入后字数 - 写入前字数）
+     */
+    void recordWordCountDelta(String novelId, int delta);
 }
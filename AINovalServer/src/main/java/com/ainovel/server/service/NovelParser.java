@@ -1,7 +1,9 @@
 package com.ainovel.server.service;
 
 import com.ainovel.server.domain.dto.ParsedNovelData;
+import com.ainovel.server.domain.dto.ParsedSceneData;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.stream.Stream;
@@ -19,6 +21,17 @@ public interface NovelParser {
      * @return 解析后的小说数据
      */
     ParsedNovelData parseStream(Stream<String> lines);
+
+    /**
+     * 增量解析：按需拉取文本行并逐章发出，适用于大文件的流式导入。
+     * 默认实现退化为整体解析后再逐章发出。
+     *
+     * @param lines 文本行流（惰性）
+     * @return 按顺序发出的章节
+     */
+    default Flux<ParsedSceneData> parseIncrementally(Stream<String> lines) {
+        return Flux.defer(() -> Flux.fromIterable(parseStream(lines).getScenes()));
+    }
     
     /**
      * 获取支持的文件扩展名
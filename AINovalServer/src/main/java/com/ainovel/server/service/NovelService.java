@@ -13,6 +13,8 @@ import com.ainovel.server.web.dto.CreatedChapterInfo;
 import com.ainovel.server.web.dto.NovelWithScenesDto;
 import com.ainovel.server.web.dto.NovelWithSummariesDto;
 import com.ainovel.server.web.dto.ChaptersForPreloadDto;
+import com.ainovel.server.web.dto.NovelSummaryOverviewDto;
+import com.ainovel.server.web.dto.NovelSummaryPageDto;
 import com.ainovel.server.service.cache.NovelStructureCache.ContainIndex;
 
 import reactor.core.publisher.Flux;
@@ -126,6 +128,24 @@ public interface NovelService {
      */
     Flux<Novel> findNovelsByAuthorId(String authorId);
 
+    /**
+     * 游标分页查询作者的小说摘要（不含卷/章节结构），按最近更新时间倒序
+     *
+     * @param authorId 作者ID
+     * @param cursor 上一页返回的游标，首页为null
+     * @param limit 每页数量
+     * @return 小说摘要分页
+     */
+    Mono<NovelSummaryPageDto> findNovelSummaries(String authorId, String cursor, int limit);
+
+    /**
+     * 获取作者的小说概览统计（小说数、总字数、总章节数）
+     *
+     * @param authorId 作者ID
+     * @return 概览统计
+     */
+    Mono<NovelSummaryOverviewDto> getNovelSummaryOverview(String authorId);
+
     /**
      * 根据标题搜索小说
      *
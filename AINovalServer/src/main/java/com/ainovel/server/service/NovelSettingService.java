@@ -189,6 +189,18 @@ public interface NovelSettingService {
     Flux<NovelSettingItem> findRelevantSettings(String novelId, String contextText, String currentSceneId,
                                                 List<String> activeGroupIds, int topK);
 
+    /**
+     * 获取应注入AI上下文的设定：always 的设定与文本中提及名称/别名的 detected 设定，
+     * 由名称匹配得出，不调用向量检索；文本中没有检测到提及时，always 的设定之后以向量检索结果补充
+     *
+     * @param novelId 小说ID
+     * @param contextText 上下文文本
+     * @param currentSceneId 当前场景ID（回退检索时用于重排序）
+     * @param topK 返回的最大数量
+     * @return 设定条目列表
+     */
+    Flux<NovelSettingItem> findContextSettings(String novelId, String contextText, String currentSceneId, int topK);
+
     /**
      * 从文本中提取设定条目
      * 
@@ -3,12 +3,16 @@ package com.ainovel.server.service.ai;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.springframework.web.reactive.function.client.WebClient;
+
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.AIResponse;
 import com.ainovel.server.domain.model.AIResponse.TokenUsage;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import lombok.Getter;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
 
 /**
  * 抽象AI模型提供商基类
@@ -25,6 +29,8 @@ public abstract class AbstractAIModelProvider implements AIModelProvider {
     
     protected final String apiEndpoint;
     
+    protected final AIHttpTransport httpTransport;
+    
     // 代理配置
     @Getter
     protected String proxyHost;
@@ -42,13 +48,41 @@ public abstract class AbstractAIModelProvider implements AIModelProvider {
      * @param apiEndpoint API端点
      */
     protected AbstractAIModelProvider(String providerName, String modelName, String apiKey, String apiEndpoint) {
+        this(providerName, modelName, apiKey, apiEndpoint, null);
+    }
+    
+    /**
+     * 构造函数
+     * @param providerName 提供商名称
+     * @param modelName 模型名称
+     * @param apiKey API密钥
+     * @param apiEndpoint API端点
+     * @param httpTransport 共享HTTP传输层，为 null 时使用默认客户端
+     */
+    protected AbstractAIModelProvider(String providerName, String modelName, String apiKey, String apiEndpoint,
+                                      AIHttpTransport httpTransport) {
         this.providerName = providerName;
         this.modelName = modelName;
         this.apiKey = apiKey;
         this.apiEndpoint = apiEndpoint;
+        this.httpTransport = httpTransport;
         this.proxyEnabled = false;
     }
     
+    /**
+     * WebClient 构建器，优先复用共享连接池
+     */
+    protected WebClient.Builder webClientBuilder() {
+        return httpTransport != null ? httpTransport.webClientBuilder() : WebClient.builder();
+    }
+    
+    /**
+     * 需要自定义超时、代理的 Reactor Netty 客户端，优先复用共享连接池
+     */
+    protected HttpClient nettyHttpClient() {
+        return httpTransport != null ? httpTransport.nettyHttpClient() : HttpClient.create();
+    }
+    
     /**
      * 设置HTTP代理
      * @param host 代理主机
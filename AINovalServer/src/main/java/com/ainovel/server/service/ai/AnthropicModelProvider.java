@@ -14,6 +14,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.AIResponse;
 import com.ainovel.server.domain.model.AIResponse.TokenUsage;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
@@ -46,7 +47,18 @@ public class AnthropicModelProvider extends AbstractAIModelProvider {
      * @param apiEndpoint API端点
      */
     public AnthropicModelProvider(String modelName, String apiKey, String apiEndpoint) {
-        super("anthropic", modelName, apiKey, apiEndpoint);
+        this(modelName, apiKey, apiEndpoint, null);
+    }
+    
+    /**
+     * 构造函数
+     * @param modelName 模型名称
+     * @param apiKey API密钥
+     * @param apiEndpoint API端点
+     * @param httpTransport 共享HTTP传输层
+     */
+    public AnthropicModelProvider(String modelName, String apiKey, String apiEndpoint, AIHttpTransport httpTransport) {
+        super("anthropic", modelName, apiKey, apiEndpoint, httpTransport);
         initWebClient();
     }
     
@@ -54,7 +66,7 @@ public class AnthropicModelProvider extends AbstractAIModelProvider {
      * 初始化WebClient
      */
     private void initWebClient() {
-        WebClient.Builder builder = WebClient.builder()
+        WebClient.Builder builder = webClientBuilder()
                 .baseUrl(getApiEndpoint(DEFAULT_API_ENDPOINT))
                 .defaultHeader("x-api-key", apiKey)
                 .defaultHeader("anthropic-version", "2023-06-01")
@@ -69,7 +81,7 @@ public class AnthropicModelProvider extends AbstractAIModelProvider {
                         .build();
                 
                 // 配置HTTP客户端
-                HttpClient httpClient = HttpClient.create()
+                HttpClient httpClient = nettyHttpClient()
                         .secure(t -> t.sslContext(sslContext))
                         .proxy(spec -> spec
                                 .type(ProxyProvider.Proxy.HTTP)
@@ -54,7 +54,7 @@ public class GeminiModelProvider extends AbstractAIModelProvider {
      * 初始化WebClient
      */
     private void initWebClient() {
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = nettyHttpClient()
                 .responseTimeout(Duration.ofSeconds(5)) // 设置响应超时
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000); // 设置连接超时
         
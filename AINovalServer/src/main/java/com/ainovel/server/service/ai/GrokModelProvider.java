@@ -36,6 +36,7 @@ import reactor.netty.transport.ProxyProvider;
 import reactor.util.retry.Retry;
 
 import com.ainovel.server.config.ProxyConfig;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 /**
  * X.AI的Grok模型提供商
@@ -79,8 +80,7 @@ public class GrokModelProvider extends AbstractAIModelProvider {
      * @param apiEndpoint API端点
      */
     public GrokModelProvider(String modelName, String apiKey, String apiEndpoint) {
-        super("x-ai", modelName, apiKey, apiEndpoint);
-        initWebClient();
+        this(modelName, apiKey, apiEndpoint, null, null);
     }
     
     /**
@@ -89,9 +89,11 @@ public class GrokModelProvider extends AbstractAIModelProvider {
      * @param apiKey API密钥
      * @param apiEndpoint API端点
      * @param proxyConfig 代理配置
+     * @param httpTransport 共享HTTP传输层
      */
-    public GrokModelProvider(String modelName, String apiKey, String apiEndpoint, ProxyConfig proxyConfig) {
-        super("x-ai", modelName, apiKey, apiEndpoint);
+    public GrokModelProvider(String modelName, String apiKey, String apiEndpoint, ProxyConfig proxyConfig,
+                             AIHttpTransport httpTransport) {
+        super("x-ai", modelName, apiKey, apiEndpoint, httpTransport);
         this.proxyConfig = proxyConfig;
         this.proxyEnabled = (proxyConfig != null && proxyConfig.isEnabled());
         if (proxyEnabled) {
@@ -105,7 +107,7 @@ public class GrokModelProvider extends AbstractAIModelProvider {
      * 初始化WebClient
      */
     private void initWebClient() {
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = nettyHttpClient()
                 .responseTimeout(Duration.ofSeconds(120)) // 设置响应超时
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000); // 设置连接超时
         
@@ -555,7 +557,7 @@ public class GrokModelProvider extends AbstractAIModelProvider {
                     apiEndpoint : DEFAULT_API_ENDPOINT;
             
             // 创建WebClient
-            WebClient tempWebClient = WebClient.builder()
+            WebClient tempWebClient = webClientBuilder()
                     .baseUrl(baseUrl)
                     .build();
             
@@ -56,7 +56,7 @@ public class OpenAIModelProvider extends AbstractAIModelProvider {
      * 初始化WebClient
      */
     private void initWebClient() {
-        WebClient.Builder builder = WebClient.builder()
+        WebClient.Builder builder = webClientBuilder()
                 .baseUrl(getApiEndpoint(DEFAULT_API_ENDPOINT))
                 .defaultHeader("Authorization", "Bearer " + apiKey)
                 .defaultHeader("Content-Type", "application/json");
@@ -70,7 +70,7 @@ public class OpenAIModelProvider extends AbstractAIModelProvider {
                         .build();
                 
                 // 配置HTTP客户端
-                HttpClient httpClient = HttpClient.create()
+                HttpClient httpClient = nettyHttpClient()
                         .secure(t -> t.sslContext(sslContext))
                         .proxy(spec -> spec
                                 .type(ProxyProvider.Proxy.HTTP)
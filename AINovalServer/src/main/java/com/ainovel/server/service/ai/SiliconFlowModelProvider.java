@@ -55,7 +55,7 @@ public class SiliconFlowModelProvider extends AbstractAIModelProvider {
      * 初始化WebClient
      */
     private void initWebClient() {
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = nettyHttpClient()
                 .responseTimeout(Duration.ofSeconds(30)) // 设置响应超时
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000); // 设置连接超时
         
@@ -9,7 +9,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.domain.model.ModelListingCapability;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,10 +21,13 @@ import reactor.core.publisher.Mono;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class AnthropicCapabilityDetector implements ProviderCapabilityDetector {
 
     private static final String DEFAULT_API_ENDPOINT = "https://api.anthropic.com";
 
+    private final AIHttpTransport httpTransport;
+
     @Override
     public String getProviderName() {
         return "anthropic";
@@ -127,7 +132,7 @@ public class AnthropicCapabilityDetector implements ProviderCapabilityDetector {
         String baseUrl = apiEndpoint != null && !apiEndpoint.trim().isEmpty() ?
                 apiEndpoint : DEFAULT_API_ENDPOINT;
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = httpTransport.webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
@@ -9,7 +9,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.domain.model.ModelListingCapability;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,10 +21,13 @@ import reactor.core.publisher.Mono;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class ZhipuCapabilityDetector implements ProviderCapabilityDetector {
 
     private static final String DEFAULT_API_ENDPOINT = "https://open.bigmodel.cn/api/paas/v4";
 
+    private final AIHttpTransport httpTransport;
+
     @Override
     public String getProviderName() {
         return "zhipu";
@@ -181,7 +186,7 @@ public class ZhipuCapabilityDetector implements ProviderCapabilityDetector {
             return Mono.just(false);
         }
         String baseUrl = apiEndpoint != null && !apiEndpoint.trim().isEmpty() ? apiEndpoint : DEFAULT_API_ENDPOINT;
-        WebClient webClient = WebClient.builder().baseUrl(baseUrl).build();
+        WebClient webClient = httpTransport.webClientBuilder().baseUrl(baseUrl).build();
         return webClient.get()
             .uri("/models")
             .header("Authorization", "Bearer " + apiKey)
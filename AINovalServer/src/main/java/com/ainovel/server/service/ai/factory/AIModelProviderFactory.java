@@ -20,6 +20,7 @@ import com.ainovel.server.service.ai.langchain4j.QwenLangChain4jModelProvider;
 import com.ainovel.server.service.ai.genai.GoogleGenAIGeminiModelProvider;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
 import com.ainovel.server.service.ai.observability.TraceContextManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 import org.springframework.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,16 +40,19 @@ public class AIModelProviderFactory {
     private final ApplicationEventPublisher eventPublisher;
     private final ChatModelListenerManager listenerManager;
     private final TraceContextManager traceContextManager;
+    private final AIHttpTransport httpTransport;
 
     @Autowired
     public AIModelProviderFactory(ProxyConfig proxyConfig, 
                                  ApplicationEventPublisher eventPublisher,
                                  ChatModelListenerManager listenerManager,
-                                 TraceContextManager traceContextManager) {
+                                 TraceContextManager traceContextManager,
+                                 AIHttpTransport httpTransport) {
         this.proxyConfig = proxyConfig;
         this.eventPublisher = eventPublisher;
         this.listenerManager = listenerManager;
         this.traceContextManager = traceContextManager;
+        this.httpTransport = httpTransport;
         
         log.info("🚀 AIModelProviderFactory 初始化完成，监听器管理器: {}", listenerManager.getListenerInfo());
     }
@@ -90,24 +94,24 @@ public class AIModelProviderFactory {
         String endpoint = StringUtils.hasText(apiEndpoint) ? apiEndpoint : null;
 
         AIModelProvider concreteProvider = switch (providerName.toLowerCase()) {
-            case "openai" -> new OpenAILangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
-            case "anthropic" -> new AnthropicLangChain4jModelProvider(modelName, apiKey, endpoint, lm);
+            case "openai" -> new OpenAILangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
+            case "anthropic" -> new AnthropicLangChain4jModelProvider(modelName, apiKey, endpoint, lm, httpTransport);
             case "gemini" -> {
                 // LangChain4j Gemini 不支持自定义 baseUrl；有端点时改用 REST Provider 以尊重用户端点
                 if (StringUtils.hasText(endpoint)) {
                     yield new GoogleGenAIGeminiModelProvider(modelName, apiKey, endpoint);
                 }
-                yield new GeminiLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
+                yield new GeminiLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
             }
             //case "gemini-rest" -> new com.ainovel.server.service.ai.genai.GoogleGenAIGeminiModelProvider(modelName, apiKey, apiEndpoint);
-            case "openrouter" -> new OpenRouterLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
-            case "siliconflow" -> new SiliconFlowLangChain4jModelProvider(modelName, apiKey, endpoint, lm);
-            case "togetherai" -> new TogetherAILangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
-            case "doubao", "ark", "volcengine", "bytedance" -> new DoubaoLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
-            case "zhipu", "glm" -> new ZhipuLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
-            case "qwen", "dashscope", "tongyi", "alibaba" -> new QwenLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm);
-            case "x-ai", "grok" -> new GrokModelProvider(modelName, apiKey, endpoint, proxyConfig);
-            case "anthropic-native" -> new AnthropicModelProvider(modelName, apiKey, endpoint);
+            case "openrouter" -> new OpenRouterLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
+            case "siliconflow" -> new SiliconFlowLangChain4jModelProvider(modelName, apiKey, endpoint, lm, httpTransport);
+            case "togetherai" -> new TogetherAILangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
+            case "doubao", "ark", "volcengine", "bytedance" -> new DoubaoLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
+            case "zhipu", "glm" -> new ZhipuLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
+            case "qwen", "dashscope", "tongyi", "alibaba" -> new QwenLangChain4jModelProvider(modelName, apiKey, endpoint, proxyConfig, lm, httpTransport);
+            case "x-ai", "grok" -> new GrokModelProvider(modelName, apiKey, endpoint, proxyConfig, httpTransport);
+            case "anthropic-native" -> new AnthropicModelProvider(modelName, apiKey, endpoint, httpTransport);
             default -> throw new IllegalArgumentException("不支持的AI提供商: " + providerName);
         };
 
@@ -146,7 +150,7 @@ public class AIModelProviderFactory {
             if (StringUtils.hasText(apiEndpoint)) {
                 concrete = new GoogleGenAIGeminiModelProvider(modelName, apiKey, apiEndpoint);
             } else {
-                concrete = new GeminiLangChain4jModelProvider(modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+                concrete = new GeminiLangChain4jModelProvider(modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
             }
             TracingAIModelProviderDecorator decorated = new TracingAIModelProviderDecorator(
                     concrete, eventPublisher, traceContextManager, true /* is LangChain4j */);
@@ -0,0 +1,178 @@
+package com.ainovel.server.service.ai.factory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.ainovel.server.config.AIProviderPoolProperties;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AI供应商实例池
+ *
+ * 构建供应商需要创建 LangChain4j 模型对象和 HTTP 客户端，按请求新建代价较高。
+ * 池中保存工厂产出的（已带追踪装饰的）供应商实例，按配置指纹复用：
+ * - 指纹由供应商、模型、端点、API Key 哈希与是否工具调用组成，任一项变化都会得到新实例
+ * - 容量有上限，空闲超时后回收
+ * - 用户或公共配置修改、删除时按配置ID主动失效
+ *
+ * 计费装饰器带有请求级状态，仍由调用方每次请求单独包裹。
+ * 指标：cache.gets{cache=ai-provider-pool}（命中率）、ai.provider.pool.construction（构建耗时）。
+ */
+@Slf4j
+@Component
+public class AIProviderPool {
+
+    static final String CACHE_NAME = "ai-provider-pool";
+
+    private final AIModelProviderFactory providerFactory;
+    private final AIProviderPoolProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<ProviderFingerprint, PooledProvider> pool;
+
+    public AIProviderPool(AIModelProviderFactory providerFactory, AIProviderPoolProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.providerFactory = providerFactory;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.pool = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterAccess(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .removalListener((ProviderFingerprint key, PooledProvider value, RemovalCause cause) ->
+                        log.debug("供应商实例移出池: {}:{}, 原因: {}", key.provider(), key.modelName(), cause))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pool, CACHE_NAME);
+    }
+
+    /**
+     * 配置指纹；API Key 只保存哈希
+     */
+    public record ProviderFingerprint(String provider, String modelName, String apiEndpoint, String apiKeyHash,
+                                      boolean toolCall) {
+
+        static ProviderFingerprint of(String provider, String modelName, String apiKey, String apiEndpoint,
+                                      boolean toolCall) {
+            return new ProviderFingerprint(
+                    provider != null ? provider.toLowerCase() : "",
+                    modelName,
+                    StringUtils.hasText(apiEndpoint) ? apiEndpoint.trim() : null,
+                    hash(apiKey),
+                    toolCall);
+        }
+    }
+
+    /**
+     * @param configIds 引用该实例的配置ID，配置变化时据此失效
+     */
+    private record PooledProvider(AIModelProvider provider, Set<String> configIds) {
+    }
+
+    /**
+     * 获取供应商实例
+     */
+    public AIModelProvider getProvider(String providerName, String modelName, String apiKey, String apiEndpoint) {
+        return getProvider(null, providerName, modelName, apiKey, apiEndpoint);
+    }
+
+    /**
+     * 获取由某个用户/公共配置解析出的供应商实例，配置变化时会被失效
+     */
+    public AIModelProvider getProvider(String configId, String providerName, String modelName, String apiKey,
+                                       String apiEndpoint) {
+        return acquire(configId, ProviderFingerprint.of(providerName, modelName, apiKey, apiEndpoint, false),
+                () -> providerFactory.createProvider(providerName, modelName, apiKey, apiEndpoint));
+    }
+
+    /**
+     * 获取工具调用专用的供应商实例
+     */
+    public AIModelProvider getToolCallProvider(String providerName, String modelName, String apiKey,
+                                               String apiEndpoint) {
+        return acquire(null, ProviderFingerprint.of(providerName, modelName, apiKey, apiEndpoint, true),
+                () -> providerFactory.createToolCallProvider(providerName, modelName, apiKey, apiEndpoint));
+    }
+
+    /**
+     * 使某个配置解析出的实例失效
+     */
+    public void invalidateConfig(String configId) {
+        if (!StringUtils.hasText(configId)) {
+            return;
+        }
+        boolean removed = pool.asMap().values().removeIf(pooled -> pooled.configIds().contains(configId));
+        if (removed) {
+            log.info("配置 {} 已变更，移除对应的供应商实例", configId);
+        }
+    }
+
+    /**
+     * 清空实例池
+     */
+    public void invalidateAll() {
+        pool.invalidateAll();
+    }
+
+    long size() {
+        pool.cleanUp();
+        return pool.estimatedSize();
+    }
+
+    private AIModelProvider acquire(String configId, ProviderFingerprint fingerprint,
+                                    Supplier<AIModelProvider> constructor) {
+        if (!properties.isEnabled()) {
+            return construct(fingerprint, constructor);
+        }
+        PooledProvider pooled = pool.get(fingerprint, key -> {
+            AIModelProvider provider = construct(key, constructor);
+            return provider != null ? new PooledProvider(provider, ConcurrentHashMap.newKeySet()) : null;
+        });
+        if (pooled == null) {
+            return null;
+        }
+        if (configId != null) {
+            pooled.configIds().add(configId);
+        }
+        return pooled.provider();
+    }
+
+    private AIModelProvider construct(ProviderFingerprint fingerprint, Supplier<AIModelProvider> constructor) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return constructor.get();
+        } finally {
+            sample.stop(Timer.builder("ai.provider.pool.construction")
+                    .description("AI供应商实例构建耗时")
+                    .tag("provider", fingerprint.provider())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String hash(String apiKey) {
+        if (apiKey == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -993,6 +993,7 @@ public class GoogleGenAIGeminiModelProvider extends AbstractAIModelProvider {
             AIResponse.TokenUsage u = new AIResponse.TokenUsage();
             u.setPromptTokens(resp.getUsage().getPromptTokenCount());
             u.setCompletionTokens(resp.getUsage().getCandidatesTokenCount());
+            u.setCachedPromptTokens(resp.getUsage().getCachedContentTokenCount());
             ai.setTokenUsage(u);
         }
 
@@ -1051,6 +1052,8 @@ public class GoogleGenAIGeminiModelProvider extends AbstractAIModelProvider {
             private int candidatesTokenCount;
             @JsonProperty("totalTokenCount")
             private int totalTokenCount;
+            @JsonProperty("cachedContentTokenCount")
+            private Integer cachedContentTokenCount;
         }
     }
 }
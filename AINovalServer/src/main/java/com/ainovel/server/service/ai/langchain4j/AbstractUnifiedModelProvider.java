@@ -11,6 +11,7 @@ import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.capability.ProviderCapabilityDetector;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
 import com.ainovel.server.service.ai.pricing.TokenPricingCalculator;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
@@ -30,8 +31,8 @@ public abstract class AbstractUnifiedModelProvider extends LangChain4jModelProvi
 
     public AbstractUnifiedModelProvider(String providerName, String modelName, String apiKey, 
                                       String apiEndpoint, ProxyConfig proxyConfig, 
-                                      ChatModelListenerManager listenerManager) {
-        super(providerName, modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+                                      ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super(providerName, modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     /**
@@ -11,6 +11,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import dev.langchain4j.model.anthropic.AnthropicChatModel;
 import dev.langchain4j.model.anthropic.AnthropicStreamingChatModel;
@@ -36,10 +37,11 @@ public class AnthropicLangChain4jModelProvider extends AbstractUnifiedModelProvi
      * @param apiKey API密钥
      * @param apiEndpoint API端点
      * @param listenerManager 监听器管理器
+     * @param httpTransport 共享HTTP传输层
      */
     public AnthropicLangChain4jModelProvider(String modelName, String apiKey, String apiEndpoint, 
-                                           ChatModelListenerManager listenerManager) {
-        super("anthropic", modelName, apiKey, apiEndpoint, null, listenerManager);
+                                           ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super("anthropic", modelName, apiKey, apiEndpoint, null, listenerManager, httpTransport);
     }
 
     @Override
@@ -55,10 +57,12 @@ public class AnthropicLangChain4jModelProvider extends AbstractUnifiedModelProvi
             List<dev.langchain4j.model.chat.listener.ChatModelListener> listeners = getListeners();
 
             // 创建非流式模型
+            // 系统提示词在组装时保证稳定内容在前，标记为缓存断点以命中 Anthropic 提示词缓存
             var chatBuilder = AnthropicChatModel.builder()
                     .apiKey(apiKey)
                     .modelName(modelName)
                     .baseUrl(baseUrl)
+                    .cacheSystemMessages(true)
                     .timeout(Duration.ofSeconds(300));
             
             if (!listeners.isEmpty()) {
@@ -71,6 +75,7 @@ public class AnthropicLangChain4jModelProvider extends AbstractUnifiedModelProvi
                     .apiKey(apiKey)
                     .modelName(modelName)
                     .baseUrl(baseUrl)
+                    .cacheSystemMessages(true)
                     .timeout(Duration.ofSeconds(300));
             
             if (!listeners.isEmpty()) {
@@ -127,7 +132,7 @@ public class AnthropicLangChain4jModelProvider extends AbstractUnifiedModelProvi
         String baseUrl = apiEndpoint != null && !apiEndpoint.trim().isEmpty() ?
                 apiEndpoint : DEFAULT_API_ENDPOINT;
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
@@ -12,7 +12,9 @@ import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import lombok.extern.slf4j.Slf4j;
@@ -53,9 +55,10 @@ public class DoubaoLangChain4jModelProvider extends AbstractUnifiedModelProvider
             String apiKey,
             String apiEndpoint,
             ProxyConfig proxyConfig,
-            ChatModelListenerManager listenerManager
+            ChatModelListenerManager listenerManager,
+            AIHttpTransport httpTransport
     ) {
-        super("doubao", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+        super("doubao", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -82,6 +85,11 @@ public class DoubaoLangChain4jModelProvider extends AbstractUnifiedModelProvider
             if (!listeners.isEmpty()) {
                 chatBuilder.listeners(listeners);
             }
+            // 接入共享HTTP传输层，同一主机的请求复用连接
+            HttpClientBuilder chatHttpClient = sharedHttpClientBuilder();
+            if (chatHttpClient != null) {
+                chatBuilder.httpClientBuilder(chatHttpClient);
+            }
             this.chatModel = chatBuilder.build();
 
             var streamingBuilder = OpenAiStreamingChatModel.builder()
@@ -94,6 +102,10 @@ public class DoubaoLangChain4jModelProvider extends AbstractUnifiedModelProvider
             if (!listeners.isEmpty()) {
                 streamingBuilder.listeners(listeners);
             }
+            HttpClientBuilder streamingHttpClient = sharedHttpClientBuilder();
+            if (streamingHttpClient != null) {
+                streamingBuilder.httpClientBuilder(streamingHttpClient);
+            }
             this.streamingChatModel = streamingBuilder.build();
 
             log.info("Doubao(Ark) 模型初始化成功: {} @ {}", modelName, baseUrl);
@@ -108,7 +120,7 @@ public class DoubaoLangChain4jModelProvider extends AbstractUnifiedModelProvider
      * 初始化豆包专用WebClient
      */
     private void initDoubaoWebClient(String baseUrl) {
-        HttpClient httpClient = HttpClient.create()
+        HttpClient httpClient = nettyHttpClient()
                 .responseTimeout(Duration.ofSeconds(120))
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000);
         
@@ -402,7 +414,7 @@ public class DoubaoLangChain4jModelProvider extends AbstractUnifiedModelProvider
                 ? apiEndpoint
                 : DEFAULT_API_ENDPOINT;
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
@@ -10,6 +10,7 @@ import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.AIResponse;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
@@ -45,9 +46,10 @@ public class GeminiLangChain4jModelProvider extends AbstractUnifiedModelProvider
             String apiKey,
             String apiEndpoint,
             ProxyConfig proxyConfig,
-            ChatModelListenerManager listenerManager
+            ChatModelListenerManager listenerManager,
+            AIHttpTransport httpTransport
     ) {
-        super("gemini", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+        super("gemini", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -329,7 +331,7 @@ public class GeminiLangChain4jModelProvider extends AbstractUnifiedModelProvider
                 apiEndpoint : DEFAULT_API_ENDPOINT;
 
         // 创建WebClient
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
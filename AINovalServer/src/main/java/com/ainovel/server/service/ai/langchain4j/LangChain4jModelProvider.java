@@ -34,7 +34,11 @@ import com.ainovel.server.domain.model.AIResponse;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.AIModelProvider;
 import com.ainovel.server.service.ai.capability.ToolCallCapable;
+import com.ainovel.server.service.ai.observability.CachedTokenUsageExtractor;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
+
+import org.springframework.web.reactive.function.client.WebClient;
 
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.data.message.AiMessage;
@@ -42,6 +46,7 @@ import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.chat.request.ChatRequest;
@@ -53,6 +58,7 @@ import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
 import reactor.util.retry.Retry;
 
 /**
@@ -95,6 +101,9 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
     @Getter
     protected final ChatModelListenerManager listenerManager;
 
+    // 共享HTTP传输层 - 由工厂注入，为 null 时使用各客户端的默认实现
+    protected final AIHttpTransport httpTransport;
+
     /**
      * 构造函数
      *
@@ -106,19 +115,28 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
      */
     protected LangChain4jModelProvider(String providerName, String modelName, String apiKey, String apiEndpoint, 
                                      ChatModelListenerManager listenerManager) {
-        this.providerName = providerName;
-        this.modelName = modelName;
-        this.apiKey = apiKey;
-        this.apiEndpoint = apiEndpoint;
-        this.proxyEnabled = true;
-        this.listenerManager = listenerManager;
-
-        // 初始化模型
-        initModels();
+        this(providerName, modelName, apiKey, apiEndpoint, null, listenerManager, null);
     }
 
     protected LangChain4jModelProvider(String providerName, String modelName, String apiKey, String apiEndpoint, 
                                      ProxyConfig proxyConfig, ChatModelListenerManager listenerManager) {
+        this(providerName, modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param providerName 提供商名称
+     * @param modelName 模型名称
+     * @param apiKey API密钥
+     * @param apiEndpoint API端点
+     * @param proxyConfig 代理配置
+     * @param listenerManager 监听器管理器
+     * @param httpTransport 共享HTTP传输层
+     */
+    protected LangChain4jModelProvider(String providerName, String modelName, String apiKey, String apiEndpoint, 
+                                     ProxyConfig proxyConfig, ChatModelListenerManager listenerManager,
+                                     AIHttpTransport httpTransport) {
         this.providerName = providerName;
         this.modelName = modelName;
         this.apiKey = apiKey;
@@ -126,6 +144,7 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
         this.proxyEnabled = true;
         this.proxyConfig = proxyConfig;
         this.listenerManager = listenerManager;
+        this.httpTransport = httpTransport;
 
         // 初始化模型
         initModels();
@@ -136,6 +155,27 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
      */
     protected abstract void initModels();
     
+    /**
+     * LangChain4j 模型使用的共享 HTTP 客户端构建器；未注入传输层时返回 null，由模型使用默认客户端
+     */
+    protected HttpClientBuilder sharedHttpClientBuilder() {
+        return httpTransport != null ? httpTransport.langChain4jHttpClientBuilder() : null;
+    }
+
+    /**
+     * 模型列表等辅助请求使用的 WebClient 构建器，优先复用共享连接池
+     */
+    protected WebClient.Builder webClientBuilder() {
+        return httpTransport != null ? httpTransport.webClientBuilder() : WebClient.builder();
+    }
+
+    /**
+     * 需要自定义超时、代理的 Reactor Netty 客户端，优先复用共享连接池
+     */
+    protected HttpClient nettyHttpClient() {
+        return httpTransport != null ? httpTransport.nettyHttpClient() : HttpClient.create();
+    }
+
     /**
      * 获取监听器列表 - 统一的监听器管理
      * 子类可以直接使用此方法，避免重复代码
@@ -1034,6 +1074,7 @@ public abstract class LangChain4jModelProvider implements AIModelProvider, ToolC
                 
                 tokenUsage.setPromptTokens(inputTokens != null ? inputTokens : 0);
                 tokenUsage.setCompletionTokens(outputTokens != null ? outputTokens : 0);
+                tokenUsage.setCachedPromptTokens(CachedTokenUsageExtractor.cachedInputTokens(langchainTokenUsage));
                 
                 log.debug("转换Token使用情况: 输入={}, 输出={}, 总计={}", 
                     tokenUsage.getPromptTokens(), 
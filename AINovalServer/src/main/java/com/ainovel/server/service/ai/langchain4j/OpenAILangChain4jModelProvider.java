@@ -14,7 +14,9 @@ import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import lombok.extern.slf4j.Slf4j;
@@ -40,10 +42,11 @@ public class OpenAILangChain4jModelProvider extends AbstractUnifiedModelProvider
      * @param apiEndpoint API端点
      * @param proxyConfig 代理配置
      * @param listenerManager 监听器管理器
+     * @param httpTransport 共享HTTP传输层
      */
     public OpenAILangChain4jModelProvider(String modelName, String apiKey, String apiEndpoint,
-                                          ProxyConfig proxyConfig, ChatModelListenerManager listenerManager) {
-        super("openai", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+                                          ProxyConfig proxyConfig, ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super("openai", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -81,6 +84,11 @@ public class OpenAILangChain4jModelProvider extends AbstractUnifiedModelProvider
             if (!listeners.isEmpty()) {
                 chatBuilder.listeners(listeners);
             }
+            // 接入共享HTTP传输层，同一主机的请求复用连接
+            HttpClientBuilder chatHttpClient = sharedHttpClientBuilder();
+            if (chatHttpClient != null) {
+                chatBuilder.httpClientBuilder(chatHttpClient);
+            }
             this.chatModel = chatBuilder.build();
 
             // 创建流式模型
@@ -95,6 +103,10 @@ public class OpenAILangChain4jModelProvider extends AbstractUnifiedModelProvider
             if (!listeners.isEmpty()) {
                 streamingBuilder.listeners(listeners);
             }
+            HttpClientBuilder streamingHttpClient = sharedHttpClientBuilder();
+            if (streamingHttpClient != null) {
+                streamingBuilder.httpClientBuilder(streamingHttpClient);
+            }
             this.streamingChatModel = streamingBuilder.build();
 
             log.info("OpenAI模型初始化成功: {}", modelName);
@@ -199,7 +211,7 @@ public class OpenAILangChain4jModelProvider extends AbstractUnifiedModelProvider
                 .codecs(cfg -> cfg.defaultCodecs().maxInMemorySize(5 * 1024 * 1024)) // 5MB
                 .build();
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .exchangeStrategies(strategies)
                 .build();
@@ -18,9 +18,11 @@ import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import lombok.extern.slf4j.Slf4j;
@@ -62,10 +64,11 @@ public class OpenRouterLangChain4jModelProvider extends AbstractUnifiedModelProv
      * @param apiEndpoint API端点
      * @param proxyConfig 代理配置
      * @param listenerManager 监听器管理器
+     * @param httpTransport 共享HTTP传输层
      */
     public OpenRouterLangChain4jModelProvider(String modelName, String apiKey, String apiEndpoint,
-                                          ProxyConfig proxyConfig, ChatModelListenerManager listenerManager) {
-        super("openrouter", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+                                          ProxyConfig proxyConfig, ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super("openrouter", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -101,6 +104,11 @@ public class OpenRouterLangChain4jModelProvider extends AbstractUnifiedModelProv
             if (!listeners.isEmpty()) {
                 chatBuilder.listeners(listeners);
             }
+            // 接入共享HTTP传输层，同一主机的请求复用连接
+            HttpClientBuilder chatHttpClient = sharedHttpClientBuilder();
+            if (chatHttpClient != null) {
+                chatBuilder.httpClientBuilder(chatHttpClient);
+            }
             this.chatModel = chatBuilder.build();
 
             // 创建流式模型
@@ -115,6 +123,10 @@ public class OpenRouterLangChain4jModelProvider extends AbstractUnifiedModelProv
             if (!listeners.isEmpty()) {
                 streamingBuilder.listeners(listeners);
             }
+            HttpClientBuilder streamingHttpClient = sharedHttpClientBuilder();
+            if (streamingHttpClient != null) {
+                streamingBuilder.httpClientBuilder(streamingHttpClient);
+            }
             this.streamingChatModel = streamingBuilder.build();
 
             log.info("OpenRouter模型初始化成功: {}", modelName);
@@ -238,7 +250,7 @@ public class OpenRouterLangChain4jModelProvider extends AbstractUnifiedModelProv
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(5 * 1024 * 1024)) // 5MB
                 .build();
         
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl("https://openrouter.ai/api")
                 .exchangeStrategies(strategies)
                 .build();
@@ -9,6 +9,7 @@ import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import dev.langchain4j.community.model.dashscope.QwenChatModel;
 import dev.langchain4j.community.model.dashscope.QwenStreamingChatModel;
@@ -46,8 +47,8 @@ public class QwenLangChain4jModelProvider extends AbstractUnifiedModelProvider {
 
 
     public QwenLangChain4jModelProvider(String modelName, String apiKey, String apiEndpoint, ProxyConfig proxyConfig,
-                                        ChatModelListenerManager listenerManager) {
-        super("qwen", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+                                        ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super("qwen", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -182,7 +183,7 @@ public class QwenLangChain4jModelProvider extends AbstractUnifiedModelProvider {
                 ? (apiEndpoint.contains("/compatible-mode/") ? apiEndpoint : COMPATIBLE_MODE_BASE)
                 : COMPATIBLE_MODE_BASE;
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
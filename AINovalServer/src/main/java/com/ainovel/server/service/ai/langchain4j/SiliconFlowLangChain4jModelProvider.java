@@ -12,7 +12,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import lombok.extern.slf4j.Slf4j;
@@ -37,10 +39,11 @@ public class SiliconFlowLangChain4jModelProvider extends AbstractUnifiedModelPro
      * @param apiKey API密钥
      * @param apiEndpoint API端点
      * @param listenerManager 监听器管理器
+     * @param httpTransport 共享HTTP传输层
      */
     public SiliconFlowLangChain4jModelProvider(String modelName, String apiKey, String apiEndpoint, 
-                                             ChatModelListenerManager listenerManager) {
-        super("siliconflow", modelName, apiKey, apiEndpoint, null, listenerManager);
+                                             ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super("siliconflow", modelName, apiKey, apiEndpoint, null, listenerManager, httpTransport);
     }
 
     @Override
@@ -67,6 +70,11 @@ public class SiliconFlowLangChain4jModelProvider extends AbstractUnifiedModelPro
             if (!listeners.isEmpty()) {
                 chatBuilder.listeners(listeners);
             }
+            // 接入共享HTTP传输层，同一主机的请求复用连接
+            HttpClientBuilder chatHttpClient = sharedHttpClientBuilder();
+            if (chatHttpClient != null) {
+                chatBuilder.httpClientBuilder(chatHttpClient);
+            }
             this.chatModel = chatBuilder.build();
 
             // 创建流式模型
@@ -81,6 +89,10 @@ public class SiliconFlowLangChain4jModelProvider extends AbstractUnifiedModelPro
             if (!listeners.isEmpty()) {
                 streamingBuilder.listeners(listeners);
             }
+            HttpClientBuilder streamingHttpClient = sharedHttpClientBuilder();
+            if (streamingHttpClient != null) {
+                streamingBuilder.httpClientBuilder(streamingHttpClient);
+            }
             this.streamingChatModel = streamingBuilder.build();
 
             log.info("SiliconFlow模型初始化成功: {}", modelName);
@@ -176,7 +188,7 @@ public class SiliconFlowLangChain4jModelProvider extends AbstractUnifiedModelPro
         String baseUrl = apiEndpoint != null && !apiEndpoint.trim().isEmpty() ?
                 apiEndpoint : DEFAULT_API_ENDPOINT;
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
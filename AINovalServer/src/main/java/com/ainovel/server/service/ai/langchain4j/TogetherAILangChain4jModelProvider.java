@@ -15,7 +15,9 @@ import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
+import dev.langchain4j.http.client.HttpClientBuilder;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import lombok.extern.slf4j.Slf4j;
@@ -51,15 +53,17 @@ public class TogetherAILangChain4jModelProvider extends LangChain4jModelProvider
      * @param apiEndpoint API端点
      * @param proxyConfig 代理配置
      * @param listenerManager 监听器管理器
+     * @param httpTransport 共享HTTP传输层
      */
     public TogetherAILangChain4jModelProvider(
             String modelName,
             String apiKey,
             String apiEndpoint,
             ProxyConfig proxyConfig,
-            ChatModelListenerManager listenerManager
+            ChatModelListenerManager listenerManager,
+            AIHttpTransport httpTransport
     ) {
-        super("togetherai", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+        super("togetherai", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -88,6 +92,11 @@ public class TogetherAILangChain4jModelProvider extends LangChain4jModelProvider
             if (!listeners.isEmpty()) {
                 chatBuilder.listeners(listeners);
             }
+            // 接入共享HTTP传输层，同一主机的请求复用连接
+            HttpClientBuilder chatHttpClient = sharedHttpClientBuilder();
+            if (chatHttpClient != null) {
+                chatBuilder.httpClientBuilder(chatHttpClient);
+            }
             this.chatModel = chatBuilder.build();
 
             // 创建流式模型
@@ -102,6 +111,10 @@ public class TogetherAILangChain4jModelProvider extends LangChain4jModelProvider
             if (!listeners.isEmpty()) {
                 streamingBuilder.listeners(listeners);
             }
+            HttpClientBuilder streamingHttpClient = sharedHttpClientBuilder();
+            if (streamingHttpClient != null) {
+                streamingBuilder.httpClientBuilder(streamingHttpClient);
+            }
             this.streamingChatModel = streamingBuilder.build();
 
             log.info("TogetherAI模型初始化成功: {}", modelName);
@@ -148,7 +161,7 @@ public class TogetherAILangChain4jModelProvider extends LangChain4jModelProvider
                 apiEndpoint : DEFAULT_API_ENDPOINT;
 
         // 创建WebClient
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
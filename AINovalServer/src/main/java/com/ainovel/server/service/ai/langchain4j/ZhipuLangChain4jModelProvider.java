@@ -11,6 +11,7 @@ import com.ainovel.server.config.ProxyConfig;
 import com.ainovel.server.domain.model.AIRequest;
 import com.ainovel.server.domain.model.ModelInfo;
 import com.ainovel.server.service.ai.observability.ChatModelListenerManager;
+import com.ainovel.server.service.ai.transport.AIHttpTransport;
 
 import dev.langchain4j.community.model.zhipu.ZhipuAiChatModel;
 import dev.langchain4j.community.model.zhipu.ZhipuAiStreamingChatModel;
@@ -36,8 +37,8 @@ public class ZhipuLangChain4jModelProvider extends AbstractUnifiedModelProvider
 
 
     public ZhipuLangChain4jModelProvider(String modelName, String apiKey, String apiEndpoint, ProxyConfig proxyConfig,
-                                         ChatModelListenerManager listenerManager) {
-        super("zhipu", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager);
+                                         ChatModelListenerManager listenerManager, AIHttpTransport httpTransport) {
+        super("zhipu", modelName, apiKey, apiEndpoint, proxyConfig, listenerManager, httpTransport);
     }
 
     @Override
@@ -129,7 +130,7 @@ public class ZhipuLangChain4jModelProvider extends AbstractUnifiedModelProvider
                 ? apiEndpoint
                 : DEFAULT_API_ENDPOINT;
 
-        WebClient webClient = WebClient.builder()
+        WebClient webClient = webClientBuilder()
                 .baseUrl(baseUrl)
                 .build();
 
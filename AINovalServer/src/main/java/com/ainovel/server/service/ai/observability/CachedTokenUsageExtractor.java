@@ -0,0 +1,38 @@
+package com.ainovel.server.service.ai.observability;
+
+import dev.langchain4j.model.anthropic.AnthropicTokenUsage;
+import dev.langchain4j.model.openai.OpenAiTokenUsage;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * 从各提供商的Token使用对象中提取命中提示词缓存的输入Token数
+ * OpenAI: input_tokens_details.cached_tokens；Anthropic: cache_read_input_tokens
+ */
+public final class CachedTokenUsageExtractor {
+
+    private CachedTokenUsageExtractor() {
+    }
+
+    /**
+     * @return 命中缓存的输入Token数；提供商未返回该信息时返回null
+     */
+    public static Integer cachedInputTokens(TokenUsage tokenUsage) {
+        if (tokenUsage instanceof OpenAiTokenUsage openAiUsage) {
+            return openAiUsage.inputTokensDetails() != null ? openAiUsage.inputTokensDetails().cachedTokens() : null;
+        }
+        if (tokenUsage instanceof AnthropicTokenUsage anthropicUsage) {
+            return anthropicUsage.cacheReadInputTokens();
+        }
+        return null;
+    }
+
+    /**
+     * @return 本次写入缓存的输入Token数（仅Anthropic返回），否则返回null
+     */
+    public static Integer cacheCreationInputTokens(TokenUsage tokenUsage) {
+        if (tokenUsage instanceof AnthropicTokenUsage anthropicUsage) {
+            return anthropicUsage.cacheCreationInputTokens();
+        }
+        return null;
+    }
+}
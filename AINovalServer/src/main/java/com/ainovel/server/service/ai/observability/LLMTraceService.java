@@ -606,7 +606,9 @@ public class LLMTraceService {
                     .sum(ConditionalOperators.when(Criteria.where("error").is(null)).then(1).otherwise(0)).as("successfulCalls")
                     .sum(ConditionalOperators.when(Criteria.where("error").ne(null)).then(1).otherwise(0)).as("failedCalls")
                     .avg("performance.requestLatencyMs").as("averageLatency")
-                    .sum("response.metadata.tokenUsage.totalTokenCount").as("totalTokens"));
+                    .sum("response.metadata.tokenUsage.totalTokenCount").as("totalTokens")
+                    .sum("response.metadata.tokenUsage.inputTokenCount").as("inputTokens")
+                    .sum("response.metadata.tokenUsage.cachedInputTokenCount").as("cachedInputTokens"));
             
             Aggregation aggregation = Aggregation.newAggregation(operations);
             
@@ -624,6 +626,11 @@ public class LLMTraceService {
                         stats.put("successRate", totalCalls == 0 ? 0.0 : (double) successfulCalls / totalCalls * 100);
                         stats.put("averageLatency", result.getOrDefault("averageLatency", 0.0));
                         stats.put("totalTokens", ((Number) result.getOrDefault("totalTokens", 0)).intValue());
+                        // 提示词缓存命中：用于衡量确定性上下文组装带来的成本与延迟收益
+                        long inputTokens = ((Number) result.getOrDefault("inputTokens", 0)).longValue();
+                        long cachedInputTokens = ((Number) result.getOrDefault("cachedInputTokens", 0)).longValue();
+                        stats.put("cachedInputTokens", cachedInputTokens);
+                        stats.put("promptCacheHitRate", inputTokens == 0 ? 0.0 : (double) cachedInputTokens / inputTokens * 100);
                         
                         log.info("✅ 聚合统计完成: totalCalls={}, successfulCalls={}, failedCalls={}", 
                                 totalCalls, successfulCalls, failedCalls);
@@ -695,6 +702,8 @@ public class LLMTraceService {
         stats.put("successRate", 0.0);
         stats.put("averageLatency", 0.0);
         stats.put("totalTokens", 0);
+        stats.put("cachedInputTokens", 0L);
+        stats.put("promptCacheHitRate", 0.0);
         return stats;
     }
 
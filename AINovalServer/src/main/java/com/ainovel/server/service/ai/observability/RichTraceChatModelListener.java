@@ -234,8 +234,17 @@ public class RichTraceChatModelListener implements ChatModelListener {
                             .inputTokenCount(metadata.tokenUsage().inputTokenCount())
                             .outputTokenCount(metadata.tokenUsage().outputTokenCount())
                             .totalTokenCount(metadata.tokenUsage().totalTokenCount())
+                            .cachedInputTokenCount(CachedTokenUsageExtractor.cachedInputTokens(metadata.tokenUsage()))
                             .build();
 
+                    // Anthropic 缓存写入量，便于评估缓存写入成本
+                    Integer cacheCreationTokens = CachedTokenUsageExtractor.cacheCreationInputTokens(metadata.tokenUsage());
+                    if (cacheCreationTokens != null) {
+                        Map<String, Object> tokenSpecific = new HashMap<>();
+                        tokenSpecific.put("cacheCreationInputTokens", cacheCreationTokens);
+                        tokenUsage.setProviderSpecific(tokenSpecific);
+                    }
+
                     // OpenAI特定的Token信息
                     if (metadata.tokenUsage() instanceof OpenAiTokenUsage openAiUsage) {
                         Map<String, Object> tokenSpecific = new HashMap<>();
@@ -253,10 +262,11 @@ public class RichTraceChatModelListener implements ChatModelListener {
                     }
 
                     trace.getResponse().getMetadata().setTokenUsage(tokenUsage);
-                    log.debug("已设置Token使用信息: input={}, output={}, total={}", 
+                    log.debug("已设置Token使用信息: input={}, output={}, total={}, cached={}", 
                              tokenUsage.getInputTokenCount(), 
                              tokenUsage.getOutputTokenCount(), 
-                             tokenUsage.getTotalTokenCount());
+                             tokenUsage.getTotalTokenCount(),
+                             tokenUsage.getCachedInputTokenCount());
                 }
 
                 // 额外：从请求参数的providerSpecific中读取业务标识，补充businessType与关联信息
@@ -0,0 +1,141 @@
+package com.ainovel.server.service.ai.tokenizer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地Token计数器
+ *
+ * 使用随 jtokkit 打包的BPE词表在本地计数，替代"中文/1.5 + 其他/4"之类的字符比例估算：
+ * - 词表按需懒加载，每种编码只加载一次
+ * - 计数只统计数量，不构建 token 列表，也不切分子串
+ * - 长文本按 (编码, 内容哈希, 长度) 缓存计数结果，同一章节/上下文重复预估时无需再次编码
+ * - 词表加载失败时退回到字符比例估算，保证调用方始终有结果
+ */
+@Slf4j
+@Component
+public class TokenCounter {
+
+    /** 短文本直接计数比查缓存更快，低于该长度不缓存 */
+    private static final int CACHE_MIN_LENGTH = 256;
+
+    /** 词表不可用时的估算：中日韩字符平均约 1.5 字符/token（常用字单 token，生僻字拆为多个字节 token） */
+    private static final double HEURISTIC_CJK_CHARS_PER_TOKEN = 1.5;
+
+    /** 词表不可用时的估算：英文等其他字符平均约 4 字符/token（OpenAI 公布的英文经验值） */
+    private static final double HEURISTIC_OTHER_CHARS_PER_TOKEN = 4.0;
+
+    private final EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+    /** 已加载的词表；加载失败记为 empty，不再重试 */
+    private final Map<EncodingType, Optional<Encoding>> encodings = new ConcurrentHashMap<>();
+
+    private final Cache<CountKey, Integer> countCache = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    /**
+     * 使用默认词表计数
+     */
+    public int countTokens(String text) {
+        return countTokens(text, TokenizerFamily.DEFAULT);
+    }
+
+    /**
+     * 按模型名称选择词表计数
+     */
+    public int countTokens(String text, String modelName) {
+        return countTokens(text, TokenizerFamily.forModel(modelName));
+    }
+
+    public int countTokens(String text, TokenizerFamily family) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        if (text.length() < CACHE_MIN_LENGTH) {
+            return count(text, family);
+        }
+        CountKey key = new CountKey(family, contentHash(text), text.length());
+        Integer cached = countCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        int count = count(text, family);
+        countCache.put(key, count);
+        return count;
+    }
+
+    private int count(String text, TokenizerFamily family) {
+        Encoding encoding = encodings.computeIfAbsent(family.getEncodingType(), this::loadEncoding).orElse(null);
+        // 用户文本中的 <|endoftext|> 等特殊标记按普通文本计数（countTokens 遇到特殊标记会抛出异常）
+        int raw = encoding != null ? encoding.countTokensOrdinary(text) : heuristicCount(text);
+        double cjkScale = family.getCjkScale();
+        if (cjkScale == TokenizerFamily.CjkScale.EXACT) {
+            return raw;
+        }
+        double cjkRatio = (double) countCjk(text) / text.length();
+        return (int) Math.round(raw * (1.0 + (cjkScale - 1.0) * cjkRatio));
+    }
+
+    private Optional<Encoding> loadEncoding(EncodingType type) {
+        try {
+            Encoding encoding = registry.getEncoding(type);
+            log.info("已加载本地BPE词表: {}", type.getName());
+            return Optional.of(encoding);
+        } catch (Exception | LinkageError e) {
+            log.warn("加载BPE词表 {} 失败，退回字符比例估算: {}", type.getName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 64位内容哈希（FNV-1a 变体），单次线性扫描、不分配对象
+     */
+    static long contentHash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static int countCjk(String text) {
+        int cjk = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (isCjk(text.charAt(i))) {
+                cjk++;
+            }
+        }
+        return cjk;
+    }
+
+    private static boolean isCjk(char c) {
+        return (c >= 0x4e00 && c <= 0x9fff) || (c >= 0x3400 && c <= 0x4dbf)
+                || (c >= 0x3040 && c <= 0x30ff) || (c >= 0xac00 && c <= 0xd7af);
+    }
+
+    /**
+     * 词表不可用时的字符比例估算（与原实现一致）
+     */
+    static int heuristicCount(String text) {
+        int cjk = countCjk(text);
+        return (int) (cjk / HEURISTIC_CJK_CHARS_PER_TOKEN + (text.length() - cjk) / HEURISTIC_OTHER_CHARS_PER_TOKEN);
+    }
+
+    private record CountKey(TokenizerFamily family, long hash, int length) {
+    }
+}
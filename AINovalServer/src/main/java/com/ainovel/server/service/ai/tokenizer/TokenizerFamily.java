@@ -0,0 +1,99 @@
+package com.ainovel.server.service.ai.tokenizer;
+
+import java.util.Locale;
+
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * 模型族与本地BPE词表的对应关系
+ *
+ * 词表随 jtokkit 打包在 classpath 资源中（cl100k_base / o200k_base），无需联网。
+ * Claude、Gemini、Qwen、DeepSeek 等未公开词表的模型族使用对中文切分最接近的 o200k_base，
+ * 并通过 cjkScale 对中日韩字符部分做校准。
+ */
+public enum TokenizerFamily {
+
+    /** GPT-4o / o 系列 / GPT-4.1 / GPT-5 */
+    OPENAI_O200K(EncodingType.O200K_BASE, CjkScale.EXACT),
+    /** GPT-3.5 / GPT-4 / GPT-4-turbo / text-embedding */
+    OPENAI_CL100K(EncodingType.CL100K_BASE, CjkScale.EXACT),
+    /** Anthropic Claude：中文切分比 o200k 更细 */
+    CLAUDE(EncodingType.O200K_BASE, CjkScale.CLAUDE),
+    /** Google Gemini（SentencePiece，中文切分与 o200k 相近） */
+    GEMINI(EncodingType.O200K_BASE, CjkScale.EXACT),
+    /** 国产模型（Qwen、DeepSeek、GLM、豆包等），中文词表更大 */
+    CHINESE_NATIVE(EncodingType.O200K_BASE, CjkScale.CHINESE_NATIVE),
+    /** 未识别的模型 */
+    DEFAULT(EncodingType.O200K_BASE, CjkScale.EXACT);
+
+    /**
+     * 中日韩字符部分的校准系数（模型实际 token 数 / o200k_base 计数），均为经验估计值，
+     * 只用于预估与限额判断，计费仍以提供商返回的用量为准
+     */
+    static final class CjkScale {
+        /** 词表即模型实际词表，或中文切分与之相近，不做校准 */
+        static final double EXACT = 1.0;
+        /** Claude 词表中文合并较少，同一段中文约比 o200k 多 25% */
+        static final double CLAUDE = 1.25;
+        /** 国产模型中文词表更大，常用词合并为单个 token，约比 o200k 少 15% */
+        static final double CHINESE_NATIVE = 0.85;
+
+        private CjkScale() {
+        }
+    }
+
+    private final EncodingType encodingType;
+    private final double cjkScale;
+
+    TokenizerFamily(EncodingType encodingType, double cjkScale) {
+        this.encodingType = encodingType;
+        this.cjkScale = cjkScale;
+    }
+
+    public EncodingType getEncodingType() {
+        return encodingType;
+    }
+
+    /**
+     * 中日韩字符部分 token 数相对所用词表的校准系数
+     */
+    public double getCjkScale() {
+        return cjkScale;
+    }
+
+    /**
+     * 根据模型名称（或 provider/model 形式的ID）识别模型族
+     */
+    public static TokenizerFamily forModel(String modelName) {
+        if (modelName == null || modelName.isBlank()) {
+            return DEFAULT;
+        }
+        String name = modelName.toLowerCase(Locale.ROOT);
+        int slash = name.lastIndexOf('/');
+        if (slash >= 0 && slash < name.length() - 1) {
+            name = name.substring(slash + 1);
+        }
+
+        if (name.startsWith("gpt-4o") || name.startsWith("chatgpt-4o") || name.startsWith("gpt-4.1")
+                || name.startsWith("gpt-4.5") || name.startsWith("gpt-5") || name.startsWith("o1")
+                || name.startsWith("o3") || name.startsWith("o4") || name.startsWith("gpt-oss")) {
+            return OPENAI_O200K;
+        }
+        if (name.startsWith("gpt-3.5") || name.startsWith("gpt-4") || name.startsWith("text-embedding")) {
+            return OPENAI_CL100K;
+        }
+        if (name.contains("claude")) {
+            return CLAUDE;
+        }
+        if (name.contains("gemini") || name.contains("gemma")) {
+            return GEMINI;
+        }
+        if (name.contains("qwen") || name.contains("deepseek") || name.contains("glm")
+                || name.contains("doubao") || name.contains("moonshot") || name.contains("kimi")
+                || name.contains("yi-") || name.contains("ernie") || name.contains("hunyuan")
+                || name.contains("minimax") || name.contains("abab")) {
+            return CHINESE_NATIVE;
+        }
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,173 @@
+package com.ainovel.server.service.ai.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 单轮工具调用的执行计划
+ * 同一轮模型输出中的调用，仅在一个调用引用（parentId）另一个调用声明的临时ID（tempId）时存在依赖；
+ * 不支持并发的工具与其前后所有调用保持原顺序。依赖成环时整轮退化为按原顺序串行。
+ */
+final class ToolCallPlan {
+
+    private final List<Set<Integer>> dependencies;
+    private final List<Integer> order;
+
+    private ToolCallPlan(List<Set<Integer>> dependencies, List<Integer> order) {
+        this.dependencies = dependencies;
+        this.order = order;
+    }
+
+    /**
+     * 根据调用参数构建执行计划
+     * @param requests 本轮的工具调用
+     * @param concurrencySafe 判断调用是否允许并发
+     * @param objectMapper 用于解析参数
+     */
+    static ToolCallPlan build(List<ToolExecutionRequest> requests,
+                              Predicate<ToolExecutionRequest> concurrencySafe,
+                              ObjectMapper objectMapper) {
+        int size = requests.size();
+        List<Set<String>> declared = new ArrayList<>(size);
+        List<Set<String>> referenced = new ArrayList<>(size);
+        boolean[] barrier = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Set<String> tempIds = new HashSet<>();
+            Set<String> parentIds = new HashSet<>();
+            ToolExecutionRequest request = requests.get(i);
+            try {
+                collectTempIds(objectMapper.readValue(request.arguments(), Object.class), tempIds, parentIds);
+                barrier[i] = !concurrencySafe.test(request);
+            } catch (Exception e) {
+                // 参数无法解析时不做推断，按屏障处理
+                barrier[i] = true;
+            }
+            declared.add(tempIds);
+            referenced.add(parentIds);
+        }
+
+        List<Set<Integer>> dependencies = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            Set<Integer> deps = new LinkedHashSet<>();
+            for (int i = 0; i < size; i++) {
+                if (i == j) {
+                    continue;
+                }
+                boolean ordered = i < j && (barrier[i] || barrier[j]);
+                if (ordered || !Collections.disjoint(referenced.get(j), declared.get(i))) {
+                    deps.add(i);
+                }
+            }
+            dependencies.add(deps);
+        }
+
+        List<Integer> order = topologicalOrder(dependencies);
+        if (order == null) {
+            return sequential(size);
+        }
+        return new ToolCallPlan(dependencies, order);
+    }
+
+    /**
+     * 按原顺序串行的计划
+     */
+    static ToolCallPlan sequential(int size) {
+        List<Set<Integer>> dependencies = new ArrayList<>(size);
+        List<Integer> order = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dependencies.add(i == 0 ? Set.of() : Set.of(i - 1));
+            order.add(i);
+        }
+        return new ToolCallPlan(dependencies, order);
+    }
+
+    /**
+     * 必须在第 index 个调用之前完成的调用
+     */
+    Set<Integer> dependenciesOf(int index) {
+        return dependencies.get(index);
+    }
+
+    /**
+     * 满足依赖的调度顺序（依赖总在被依赖者之后）
+     */
+    List<Integer> order() {
+        return order;
+    }
+
+    /**
+     * 计划中是否存在可以并发的调用
+     */
+    boolean hasParallelism() {
+        for (int i = 1; i < dependencies.size(); i++) {
+            if (!dependencies.get(i).contains(i - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectTempIds(Object value, Set<String> tempIds, Set<String> parentIds) {
+        if (value instanceof Map<?, ?> map) {
+            Object tempId = map.get("tempId");
+            if (tempId instanceof String s && !s.isBlank()) {
+                tempIds.add(s);
+            }
+            Object parentId = map.get("parentId");
+            if (parentId instanceof String s && !s.isBlank()) {
+                parentIds.add(s);
+            }
+            for (Object child : ((Map<String, Object>) map).values()) {
+                collectTempIds(child, tempIds, parentIds);
+            }
+        } else if (value instanceof List<?> list) {
+            for (Object child : list) {
+                collectTempIds(child, tempIds, parentIds);
+            }
+        }
+    }
+
+    private static List<Integer> topologicalOrder(List<Set<Integer>> dependencies) {
+        int size = dependencies.size();
+        int[] remaining = new int[size];
+        List<List<Integer>> dependents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int j = 0; j < size; j++) {
+            remaining[j] = dependencies.get(j).size();
+            for (int i : dependencies.get(j)) {
+                dependents.get(i).add(j);
+            }
+        }
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            if (remaining[i] == 0) {
+                ready.add(i);
+            }
+        }
+        List<Integer> order = new ArrayList<>(size);
+        while (!ready.isEmpty()) {
+            int next = ready.poll();
+            order.add(next);
+            for (int dependent : dependents.get(next)) {
+                if (--remaining[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return order.size() == size ? order : null;
+    }
+}
@@ -40,6 +40,14 @@ public interface ToolDefinition {
         return ValidationResult.success();
     }
     
+    /**
+     * 是否允许与同一轮的其他工具调用并发执行
+     * 默认不允许：此类调用会等待之前的调用完成，之后的调用也会等待它完成
+     */
+    default boolean isConcurrencySafe() {
+        return false;
+    }
+    
     /**
      * 验证结果
      */
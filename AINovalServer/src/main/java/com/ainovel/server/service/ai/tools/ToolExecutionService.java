@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import com.ainovel.server.service.ai.tools.events.ToolEvent;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
@@ -12,6 +13,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * 工具执行服务
@@ -25,8 +29,10 @@ public class ToolExecutionService {
     private final ToolRegistry toolRegistry;
     private final ObjectMapper objectMapper;
     // 按 contextId 维护流式事件通道（仅用于“纯数据工具编排”场景）
-    private final Map<String, Sinks.Many<ToolEvent>> contextEventSinks = new HashMap<>();
-    private final Map<String, Long> contextSequences = new HashMap<>();
+    private final Map<String, Sinks.Many<ToolEvent>> contextEventSinks = new ConcurrentHashMap<>();
+    private final Map<String, Long> contextSequences = new ConcurrentHashMap<>();
+    // 同一轮并发工具调用的执行线程（工具内部可能阻塞）
+    private static final Executor TOOL_CALL_EXECUTOR = task -> Schedulers.boundedElastic().schedule(task);
     
     /**
      * 执行AI消息中的工具调用
@@ -38,6 +44,8 @@ public class ToolExecutionService {
     
     /**
      * 执行AI消息中的工具调用（支持上下文）
+     * 同一轮的多个调用按依赖并发执行：只有引用了其他调用所声明临时ID的调用需要等待，
+     * 不支持并发的工具保持原顺序；结果按请求顺序返回
      */
     public List<ChatMessage> executeToolCalls(AiMessage aiMessage, String contextId) {
         List<ChatMessage> results = new ArrayList<>();
@@ -47,66 +55,103 @@ public class ToolExecutionService {
             return results;
         }
         
-        log.info("处理工具调用请求: 数量={}", aiMessage.toolExecutionRequests().size());
+        List<ToolExecutionRequest> requests = aiMessage.toolExecutionRequests();
+        log.info("处理工具调用请求: 数量={}", requests.size());
         
-        for (ToolExecutionRequest request : aiMessage.toolExecutionRequests()) {
-            log.debug("处理工具调用: id={} 工具={} 上下文={} 参数={} ", 
-                request.id(), request.name(), contextId, request.arguments());
-            
-            try {
-                // 事件：收到调用
-                emitEvent(contextId, ToolEvent.builder()
-                    .contextId(contextId)
-                    .eventType("CALL_RECEIVED")
-                    .toolName(request.name())
-                    .argumentsJson(request.arguments())
-                    .timestamp(java.time.LocalDateTime.now())
-                    .sequence(nextSequence(contextId))
-                    .build());
-                String result = executeToolCallInContext(contextId, request.name(), request.arguments());
-                results.add(new ToolExecutionResultMessage(
-                    request.id(),
-                    request.name(),
-                    result
-                ));
-                log.info("工具执行成功: 工具={} 结果长度={}", 
-                    request.name(), result.length());
-                // 事件：结果
-                emitEvent(contextId, ToolEvent.builder()
-                    .contextId(contextId)
-                    .eventType("CALL_RESULT")
-                    .toolName(request.name())
-                    .argumentsJson(request.arguments())
-                    .resultJson(result)
-                    .success(true)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .sequence(nextSequence(contextId))
-                    .build());
-            } catch (Exception e) {
-                log.error("工具执行失败: 工具={} 参数={}", 
-                    request.name(), request.arguments(), e);
-                results.add(new ToolExecutionResultMessage(
-                    request.id(),
-                    request.name(),
-                    createErrorResponse(e.getMessage())
-                ));
-                // 事件：错误
-                emitEvent(contextId, ToolEvent.builder()
-                    .contextId(contextId)
-                    .eventType("CALL_ERROR")
-                    .toolName(request.name())
-                    .argumentsJson(request.arguments())
-                    .errorMessage(e.getMessage())
-                    .success(false)
-                    .timestamp(java.time.LocalDateTime.now())
-                    .sequence(nextSequence(contextId))
-                    .build());
+        if (requests.size() > 1) {
+            ToolCallPlan plan = ToolCallPlan.build(requests,
+                request -> resolveTool(contextId, request.name()).map(ToolDefinition::isConcurrencySafe).orElse(false),
+                objectMapper);
+            if (plan.hasParallelism()) {
+                return executeConcurrently(requests, plan, contextId);
             }
         }
         
+        for (ToolExecutionRequest request : requests) {
+            results.add(executeRequest(request, contextId));
+        }
+        return results;
+    }
+    
+    /**
+     * 按执行计划并发执行，每个调用在其依赖全部完成后开始
+     */
+    private List<ChatMessage> executeConcurrently(List<ToolExecutionRequest> requests, ToolCallPlan plan, String contextId) {
+        log.debug("并发执行工具调用: 上下文={} 数量={}", contextId, requests.size());
+        List<CompletableFuture<ChatMessage>> futures = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        for (int index : plan.order()) {
+            CompletableFuture<?>[] dependencies = plan.dependenciesOf(index).stream()
+                .map(futures::get)
+                .toArray(CompletableFuture[]::new);
+            ToolExecutionRequest request = requests.get(index);
+            futures.set(index, CompletableFuture.allOf(dependencies)
+                .thenApplyAsync(ignored -> executeRequest(request, contextId), TOOL_CALL_EXECUTOR));
+        }
+        List<ChatMessage> results = new ArrayList<>(requests.size());
+        for (CompletableFuture<ChatMessage> future : futures) {
+            results.add(future.join());
+        }
         return results;
     }
     
+    /**
+     * 执行单个调用并发出事件；失败时返回错误结果而不抛出
+     */
+    private ChatMessage executeRequest(ToolExecutionRequest request, String contextId) {
+        log.debug("处理工具调用: id={} 工具={} 上下文={} 参数={} ", 
+            request.id(), request.name(), contextId, request.arguments());
+        
+        try {
+            // 事件：收到调用
+            emitEvent(contextId, ToolEvent.builder()
+                .contextId(contextId)
+                .eventType("CALL_RECEIVED")
+                .toolName(request.name())
+                .argumentsJson(request.arguments())
+                .timestamp(java.time.LocalDateTime.now())
+                .sequence(nextSequence(contextId))
+                .build());
+            String result = executeToolCallInContext(contextId, request.name(), request.arguments());
+            log.info("工具执行成功: 工具={} 结果长度={}", 
+                request.name(), result.length());
+            // 事件：结果
+            emitEvent(contextId, ToolEvent.builder()
+                .contextId(contextId)
+                .eventType("CALL_RESULT")
+                .toolName(request.name())
+                .argumentsJson(request.arguments())
+                .resultJson(result)
+                .success(true)
+                .timestamp(java.time.LocalDateTime.now())
+                .sequence(nextSequence(contextId))
+                .build());
+            return new ToolExecutionResultMessage(
+                request.id(),
+                request.name(),
+                result
+            );
+        } catch (Exception e) {
+            log.error("工具执行失败: 工具={} 参数={}", 
+                request.name(), request.arguments(), e);
+            // 事件：错误
+            emitEvent(contextId, ToolEvent.builder()
+                .contextId(contextId)
+                .eventType("CALL_ERROR")
+                .toolName(request.name())
+                .argumentsJson(request.arguments())
+                .errorMessage(e.getMessage())
+                .success(false)
+                .timestamp(java.time.LocalDateTime.now())
+                .sequence(nextSequence(contextId))
+                .build());
+            return new ToolExecutionResultMessage(
+                request.id(),
+                request.name(),
+                createErrorResponse(e.getMessage())
+            );
+        }
+    }
+    
     /**
      * 执行单个工具调用（修复版本：支持上下文工具执行）
      */
@@ -127,27 +172,7 @@ public class ToolExecutionService {
     private String executeToolCallInContext(String context, String toolName, String argumentsJson) throws Exception {
         log.debug("执行工具(解析前): 工具={} 上下文={} 参数原文={}", toolName, context, argumentsJson);
         
-        // 尝试直接查找
-        Optional<ToolDefinition> toolOpt = context != null ? 
-            toolRegistry.getToolForContext(context, toolName) : 
-            toolRegistry.getTool(toolName);
-
-        // 如果直接未命中，执行多格式匹配
-        if (toolOpt.isEmpty()) {
-            String normalizedRequested = normalizeToolName(toolName);
-            Set<String> availableToolNames = context != null ? 
-                toolRegistry.getToolNamesForContext(context) : 
-                toolRegistry.getAvailableToolNames();
-                
-            for (String registeredName : availableToolNames) {
-                if (normalizeToolName(registeredName).equals(normalizedRequested)) {
-                    toolOpt = context != null ? 
-                        toolRegistry.getToolForContext(context, registeredName) : 
-                        toolRegistry.getTool(registeredName);
-                    break;
-                }
-            }
-        }
+        Optional<ToolDefinition> toolOpt = resolveTool(context, toolName);
 
         if (toolOpt.isEmpty()) {
             Set<String> availableTools = context != null ? 
@@ -180,6 +205,30 @@ public class ToolExecutionService {
         return serializedResult;
     }
 
+    /**
+     * 查找工具：先精确匹配，未命中时按标准化名称匹配
+     */
+    private Optional<ToolDefinition> resolveTool(String context, String toolName) {
+        Optional<ToolDefinition> toolOpt = context != null ? 
+            toolRegistry.getToolForContext(context, toolName) : 
+            toolRegistry.getTool(toolName);
+        if (toolOpt.isPresent()) {
+            return toolOpt;
+        }
+        String normalizedRequested = normalizeToolName(toolName);
+        Set<String> availableToolNames = context != null ? 
+            toolRegistry.getToolNamesForContext(context) : 
+            toolRegistry.getAvailableToolNames();
+        for (String registeredName : availableToolNames) {
+            if (normalizeToolName(registeredName).equals(normalizedRequested)) {
+                return context != null ? 
+                    toolRegistry.getToolForContext(context, registeredName) : 
+                    toolRegistry.getTool(registeredName);
+            }
+        }
+        return Optional.empty();
+    }
+
     // ==================== 事件流（纯数据直通编排使用） ====================
     public reactor.core.publisher.Flux<ToolEvent> subscribeToContext(String contextId) {
         Sinks.Many<ToolEvent> sink = contextEventSinks.computeIfAbsent(contextId, k -> Sinks.many().multicast().onBackpressureBuffer());
@@ -198,15 +247,16 @@ public class ToolExecutionService {
         if (contextId == null) return; // 非流式直通场景可忽略
         Sinks.Many<ToolEvent> sink = contextEventSinks.get(contextId);
         if (sink != null) {
-            sink.tryEmitNext(event);
+            // 同一轮的调用可能并发完成，Sinks 不允许并发发射
+            synchronized (sink) {
+                sink.tryEmitNext(event);
+            }
         }
     }
 
     private long nextSequence(String contextId) {
         if (contextId == null) return -1L;
-        long next = contextSequences.getOrDefault(contextId, 0L) + 1L;
-        contextSequences.put(contextId, next);
-        return next;
+        return contextSequences.merge(contextId, 1L, Long::sum);
     }
 
     /**
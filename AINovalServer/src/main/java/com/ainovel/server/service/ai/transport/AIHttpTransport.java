@@ -0,0 +1,339 @@
+package com.ainovel.server.service.ai.transport;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.ainovel.server.config.AIHttpTransportProperties;
+
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.jdk.JdkHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * AI供应商共享HTTP传输层
+ *
+ * 供应商实例按用户配置频繁创建，过去每个实例各自新建 HTTP 客户端，连接无法复用，
+ * 每次调用都要重新做 TCP/TLS 握手。这里为整个进程提供两套共享客户端：
+ * - JDK HttpClient：供 LangChain4j 的 OpenAI 兼容模型使用，HTTP/2 多路复用，同一主机的请求共享连接；
+ *   模型指定的连接超时各用一个客户端（取值只有少数几种），代理跟随系统默认 ProxySelector
+ * - Reactor Netty HttpClient：供各处 WebClient 使用，按远端地址分池，开启内置连接池与请求指标
+ *   （reactor.netty.connection.provider.active.connections、reactor.netty.http.client.tls.handshake.time 等）
+ *
+ * 定时对配置的主机和最近访问过的主机发送 HEAD 请求，使空闲连接不被回收。
+ * 由 AIModelProviderFactory 与各能力检测器注入使用；在 Spring 上下文之外直接创建的供应商不持有本组件，使用默认客户端。
+ */
+@Slf4j
+@Component
+public class AIHttpTransport {
+
+    private final AIHttpTransportProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HostMetrics hostMetrics;
+    private final InstrumentedHttpClient jdkClient;
+    /** 连接超时与默认值不同的模型使用的客户端，按超时复用 */
+    private final Map<Duration, InstrumentedHttpClient> jdkClientsByTimeout = new ConcurrentHashMap<>();
+    private final ConnectionProvider connectionProvider;
+    private final reactor.netty.http.client.HttpClient nettyClient;
+
+    public AIHttpTransport(AIHttpTransportProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hostMetrics = new HostMetrics(meterRegistry, this::knownHosts);
+        this.jdkClient = newJdkClient(properties.getConnectTimeout());
+
+        this.connectionProvider = ConnectionProvider.builder("ai-providers")
+                .maxConnections(properties.getMaxConnectionsPerHost())
+                .maxIdleTime(properties.getKeepAlive())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+        this.nettyClient = reactor.netty.http.client.HttpClient.create(connectionProvider)
+                .protocol(properties.isHttp2()
+                        ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                // 指标只按远端地址区分，URI统一为"/"避免标签基数膨胀
+                .metrics(true, uri -> "/");
+    }
+
+    @PostConstruct
+    void start() {
+        log.info("AI共享HTTP传输层已启用: http2={}, maxConnectionsPerHost={}, keepAlive={}, warmupHosts={}",
+                properties.isHttp2(), properties.getMaxConnectionsPerHost(), properties.getKeepAlive(),
+                properties.getWarmupHosts());
+        keepWarm();
+    }
+
+    @PreDestroy
+    void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+        executor.shutdown();
+    }
+
+    /**
+     * LangChain4j 模型使用的 HTTP 客户端构建器
+     */
+    public HttpClientBuilder langChain4jHttpClientBuilder() {
+        return JdkHttpClient.builder().httpClientBuilder(new SharedClientBuilder(this));
+    }
+
+    /**
+     * 基于共享连接池的 Reactor Netty 客户端，可在其上继续配置超时、代理等（配置不同的客户端仍共享连接池）
+     */
+    public reactor.netty.http.client.HttpClient nettyHttpClient() {
+        return nettyClient;
+    }
+
+    /**
+     * 基于共享连接池的 WebClient 构建器
+     */
+    public WebClient.Builder webClientBuilder() {
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(nettyClient));
+    }
+
+    /**
+     * 保活预热：对配置的主机和最近访问过的主机各发一个 HEAD 请求。
+     * 冷连接上的预热耗时包含 TCP/TLS 握手，可作为握手耗时的参考（ai.http.client.warmup）。
+     */
+    @Scheduled(fixedDelayString = "${ai.http-transport.warmup-interval:PT60S}",
+            initialDelayString = "${ai.http-transport.warmup-interval:PT60S}")
+    public void keepWarm() {
+        Set<String> hosts = warmupTargets();
+        for (String host : hosts) {
+            warmUp(host);
+        }
+    }
+
+    Set<String> warmupTargets() {
+        Set<String> hosts = new LinkedHashSet<>();
+        for (String configured : properties.getWarmupHosts()) {
+            String host = normalizeHost(configured);
+            if (host != null) {
+                hosts.add(host);
+            } else {
+                log.warn("忽略无效的预热主机: {}", configured);
+            }
+        }
+        if (properties.isWarmupRecentHosts()) {
+            long cutoff = System.currentTimeMillis() - properties.getRecentHostWindow().toMillis();
+            hostMetrics.lastUsed().entrySet().removeIf(entry -> entry.getValue() < cutoff);
+            hosts.addAll(hostMetrics.lastUsed().keySet());
+        }
+        return hosts;
+    }
+
+    CompletableFuture<Void> warmUp(String host) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(host + "/"))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(properties.getConnectTimeout().plusSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        // 直接使用底层客户端，预热请求不计入业务指标，也不刷新最近访问时间
+        return jdkClient.delegate().sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    hostMetrics.recordWarmup(host, error == null, System.nanoTime() - start);
+                    if (error != null) {
+                        log.debug("预热主机 {} 失败: {}", host, error.getMessage());
+                    }
+                    return null;
+                });
+    }
+
+    InstrumentedHttpClient jdkClient() {
+        return jdkClient;
+    }
+
+    /**
+     * 指定连接超时的共享客户端；未指定或与默认值相同时返回默认客户端
+     */
+    InstrumentedHttpClient jdkClient(Duration connectTimeout) {
+        if (connectTimeout == null || connectTimeout.equals(properties.getConnectTimeout())) {
+            return jdkClient;
+        }
+        return jdkClientsByTimeout.computeIfAbsent(connectTimeout, this::newJdkClient);
+    }
+
+    Map<String, Long> lastUsed() {
+        return hostMetrics.lastUsed();
+    }
+
+    private InstrumentedHttpClient newJdkClient(Duration connectTimeout) {
+        return new InstrumentedHttpClient(java.net.http.HttpClient.newBuilder()
+                .version(properties.isHttp2() ? java.net.http.HttpClient.Version.HTTP_2 : java.net.http.HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .proxy(new DefaultProxySelectorDelegate())
+                .executor(executor)
+                .build(), hostMetrics);
+    }
+
+    /**
+     * 指标中单独打标签的主机：配置的指标主机与预热主机
+     */
+    private Set<String> knownHosts() {
+        Set<String> hosts = new HashSet<>();
+        for (String configured : properties.getMetricHosts()) {
+            String host = normalizeHost(configured);
+            if (host != null) {
+                hosts.add(host);
+            }
+        }
+        for (String configured : properties.getWarmupHosts()) {
+            String host = normalizeHost(configured);
+            if (host != null) {
+                hosts.add(host);
+            }
+        }
+        return hosts;
+    }
+
+    /**
+     * 把配置的地址归一为 scheme://authority，无效地址返回 null
+     */
+    private static String normalizeHost(String configured) {
+        try {
+            URI uri = URI.create(configured.trim());
+            if (uri.getScheme() != null && uri.getRawAuthority() != null) {
+                return InstrumentedHttpClient.hostOf(uri);
+            }
+        } catch (IllegalArgumentException e) {
+            // 无效地址
+        }
+        return null;
+    }
+
+    /**
+     * 每次选择代理时读取当前的默认 ProxySelector，供应商运行时配置的系统代理对共享客户端同样生效
+     */
+    private static final class DefaultProxySelectorDelegate extends ProxySelector {
+
+        @Override
+        public List<Proxy> select(URI uri) {
+            ProxySelector current = ProxySelector.getDefault();
+            return current != null ? current.select(uri) : List.of(Proxy.NO_PROXY);
+        }
+
+        @Override
+        public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+            ProxySelector current = ProxySelector.getDefault();
+            if (current != null) {
+                current.connectFailed(uri, sa, ioe);
+            }
+        }
+    }
+
+    /**
+     * 交给 LangChain4j JdkHttpClientBuilder 的构建器：按模型指定的连接超时返回对应的共享客户端。
+     * 读超时由 LangChain4j 按请求设置，不受影响；代理跟随系统默认 ProxySelector。
+     * 其余客户端级设置无法在共享客户端上生效，直接拒绝而不是静默忽略。
+     */
+    static final class SharedClientBuilder implements java.net.http.HttpClient.Builder {
+
+        private final AIHttpTransport transport;
+        private Duration connectTimeout;
+
+        SharedClientBuilder(AIHttpTransport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder connectTimeout(Duration duration) {
+            this.connectTimeout = duration;
+            return this;
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
+            throw unsupported("cookieHandler");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder sslContext(SSLContext sslContext) {
+            throw unsupported("sslContext");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder sslParameters(SSLParameters sslParameters) {
+            throw unsupported("sslParameters");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder executor(Executor executor) {
+            throw unsupported("executor");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder followRedirects(java.net.http.HttpClient.Redirect policy) {
+            throw unsupported("followRedirects");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder version(java.net.http.HttpClient.Version version) {
+            throw unsupported("version");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder priority(int priority) {
+            throw unsupported("priority");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder proxy(ProxySelector proxySelector) {
+            throw unsupported("proxy");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder authenticator(Authenticator authenticator) {
+            throw unsupported("authenticator");
+        }
+
+        @Override
+        public java.net.http.HttpClient.Builder localAddress(InetAddress localAddr) {
+            throw unsupported("localAddress");
+        }
+
+        @Override
+        public java.net.http.HttpClient build() {
+            return transport.jdkClient(connectTimeout);
+        }
+
+        private static UnsupportedOperationException unsupported(String setting) {
+            return new UnsupportedOperationException("共享HTTP客户端不支持单独设置 " + setting
+                    + "，请改用 ai.http-transport 配置或系统默认代理");
+        }
+    }
+}
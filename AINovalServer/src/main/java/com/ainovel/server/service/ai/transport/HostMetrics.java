@@ -0,0 +1,80 @@
+package com.ainovel.server.service.ai.transport;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 共享 JDK 客户端的按主机指标与最近访问记录
+ *
+ * 用户可以配置任意自定义端点，主机标签只保留已知主机（官方端点与预热主机），其余统一记为 "other"，
+ * 避免指标标签随端点数量无限增长。最近访问记录保留真实主机，供预热使用。
+ */
+final class HostMetrics {
+
+    /** 未知主机的指标标签 */
+    static final String OTHER_HOST = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Supplier<Set<String>> knownHosts;
+    private final Map<String, AtomicInteger> activeRequests = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastUsed = new ConcurrentHashMap<>();
+
+    HostMetrics(MeterRegistry meterRegistry, Supplier<Set<String>> knownHosts) {
+        this.meterRegistry = meterRegistry;
+        this.knownHosts = knownHosts;
+    }
+
+    /**
+     * 主机（scheme://authority）对应的指标标签
+     */
+    String tag(String host) {
+        return knownHosts.get().contains(host) ? host : OTHER_HOST;
+    }
+
+    /**
+     * 主机到最近一次请求时间（毫秒）的映射
+     */
+    Map<String, Long> lastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * 记录一次请求开始，返回该主机标签下的活跃请求计数
+     */
+    AtomicInteger begin(String host) {
+        lastUsed.put(host, System.currentTimeMillis());
+        AtomicInteger active = activeRequests.computeIfAbsent(tag(host), t ->
+                meterRegistry.gauge("ai.http.client.requests.active", Tags.of("host", t), new AtomicInteger()));
+        active.incrementAndGet();
+        return active;
+    }
+
+    void recordTtfb(String host, String version, long nanos) {
+        Timer.builder("ai.http.client.ttfb")
+                .description("AI供应商请求首字节耗时")
+                .tags(Tags.of("host", tag(host), "version", version))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void count(String host, String status) {
+        meterRegistry.counter("ai.http.client.requests", "host", tag(host), "status", status).increment();
+    }
+
+    void recordWarmup(String host, boolean success, long nanos) {
+        Timer.builder("ai.http.client.warmup")
+                .description("AI供应商连接预热耗时")
+                .tag("host", tag(host))
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
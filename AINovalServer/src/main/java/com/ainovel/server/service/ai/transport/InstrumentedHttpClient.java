@@ -0,0 +1,167 @@
+package com.ainovel.server.service.ai.transport;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+/**
+ * 带按主机指标的 JDK HttpClient 包装
+ *
+ * 所有请求委托给底层客户端（连接池、HTTP/2多路复用均由其负责），这里只补充指标：
+ * - ai.http.client.ttfb：从发出请求到收到响应头的耗时
+ * - ai.http.client.requests.active：已发出、尚未收到响应头的请求数
+ * - ai.http.client.requests：按状态码统计的请求数
+ * 主机标签的归并与最近访问记录由 HostMetrics 负责，多个客户端共用同一份。
+ */
+class InstrumentedHttpClient extends java.net.http.HttpClient {
+
+    private final java.net.http.HttpClient delegate;
+    private final HostMetrics metrics;
+
+    InstrumentedHttpClient(java.net.http.HttpClient delegate, HostMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    java.net.http.HttpClient delegate() {
+        return delegate;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler)
+            throws IOException, InterruptedException {
+        String host = hostOf(request.uri());
+        ActiveToken active = begin(host);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = delegate.send(request, timed(responseBodyHandler, host, start, active));
+            count(host, String.valueOf(response.statusCode()));
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            count(host, "error");
+            throw e;
+        } finally {
+            active.release();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler) {
+        return sendAsync(request, responseBodyHandler, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        String host = hostOf(request.uri());
+        ActiveToken active = begin(host);
+        long start = System.nanoTime();
+        return delegate.sendAsync(request, timed(responseBodyHandler, host, start, active), pushPromiseHandler)
+                .whenComplete((response, error) -> {
+                    count(host, error != null ? "error" : String.valueOf(response.statusCode()));
+                    active.release();
+                });
+    }
+
+    /**
+     * 收到响应头时记录首字节耗时；流式响应此时即开始读取正文
+     */
+    private <T> HttpResponse.BodyHandler<T> timed(HttpResponse.BodyHandler<T> handler, String host, long start,
+                                                  ActiveToken active) {
+        return responseInfo -> {
+            metrics.recordTtfb(host, responseInfo.version().name(), System.nanoTime() - start);
+            active.release();
+            return handler.apply(responseInfo);
+        };
+    }
+
+    private ActiveToken begin(String host) {
+        return new ActiveToken(metrics.begin(host));
+    }
+
+    private void count(String host, String status) {
+        metrics.count(host, status);
+    }
+
+    static String hostOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    /**
+     * 单次请求持有的活跃计数；收到响应头与请求结束都会释放，只递减一次
+     */
+    private static final class ActiveToken extends AtomicInteger {
+
+        private final AtomicInteger gauge;
+
+        ActiveToken(AtomicInteger gauge) {
+            super(1);
+            this.gauge = gauge;
+        }
+
+        void release() {
+            if (compareAndSet(1, 0)) {
+                gauge.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return delegate.executor();
+    }
+}
@@ -1,30 +1,232 @@
 package com.ainovel.server.service.analytics;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.ainovel.server.config.WritingAnalyticsProperties;
+import com.ainovel.server.domain.model.analytics.WritingDailyBucket;
 import com.ainovel.server.domain.model.analytics.WritingEvent;
 import com.ainovel.server.repository.WritingEventRepository;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+/**
+ * 写作统计服务
+ *
+ * 写作事件先进入内存缓冲，按批写入：原始事件批量插入，同时按 用户 + 日期 + 小说 汇总后以 $inc 累加到日桶，
+ * 日桶写入后才为事件设置 TTL 过期时间，没有过期时间的事件即尚待汇总。
+ * 插入失败的批次重新入队；日桶写入失败的批次保持认领状态，认领超时后由定期检查重新汇总（至少一次）。
+ * 每日字数、来源占比、写作天数与连续天数只读日桶；按章节/场景细分的查询读取保留期内的原始事件。
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class WritingAnalyticsService {
 
+    /** 插入原始事件、释放认领的重试次数与初始间隔 */
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final Duration WRITE_BACKOFF = Duration.ofMillis(200);
+
+    /** 关闭时写入缓冲事件的最长等待时间 */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
     private final WritingEventRepository repository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final WritingAnalyticsProperties properties;
+
+    private final Queue<WritingEvent> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    /**
+     * 插入失败、等待下一次刷新重试的事件（不受缓冲上限限制）
+     */
+    private final Queue<WritingEvent> requeued = new ConcurrentLinkedQueue<>();
 
+    /**
+     * 记录写作事件：放入缓冲，由批量刷新写入；缓冲已满时直接写入
+     */
     public Mono<Void> recordEvent(WritingEvent event) {
-        return repository.save(event).then();
+        return Mono.defer(() -> enqueue(event) ? Mono.<Void>empty() : writeBatch(List.of(event)));
+    }
+
+    /**
+     * 缓冲中尚未写入的事件数（含等待重试的事件）
+     */
+    public int getBufferedCount() {
+        return buffered.get() + requeued.size();
+    }
+
+    /**
+     * 定期刷新缓冲
+     */
+    @Scheduled(fixedDelayString = "${analytics.writing.flush-interval:PT2S}")
+    public void flushBufferedEvents() {
+        flush().subscribe();
+    }
+
+    /**
+     * 关闭前写入缓冲中的全部事件
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+        while (getBufferedCount() > 0 && System.nanoTime() < deadline) {
+            log.info("关闭前写入 {} 条写作事件", getBufferedCount());
+            try {
+                flush().block(SHUTDOWN_TIMEOUT);
+                if (getBufferedCount() > 0) {
+                    // 正在进行的刷新结束或失败批次重试前稍作等待
+                    Thread.sleep(WRITE_BACKOFF.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("关闭前写入写作事件失败: {}", e.getMessage());
+                break;
+            }
+        }
+    }
+
+    /**
+     * 写入缓冲中的全部事件；已有刷新在进行时直接返回
+     * 上次插入失败的事件在本次刷新开始时重新进入缓冲，本次再失败的留到下一次，避免在一次刷新中反复重试
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (getBufferedCount() == 0 || !flushing.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            WritingEvent retry;
+            while ((retry = requeued.poll()) != null) {
+                buffer.offer(retry);
+                buffered.incrementAndGet();
+            }
+            return Flux.<List<WritingEvent>>generate(sink -> {
+                        List<WritingEvent> batch = drain(Math.max(1, properties.getBatchSize()));
+                        if (batch.isEmpty()) {
+                            sink.complete();
+                        } else {
+                            sink.next(batch);
+                        }
+                    })
+                    .concatMap(this::writeBatch)
+                    .then()
+                    .doFinally(signal -> flushing.set(false));
+        });
+    }
+
+    /**
+     * 启动时将历史事件汇总到日桶
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!properties.isBackfillOnStartup()) {
+            return;
+        }
+        rollUpPendingEvents()
+                .subscribe(count -> {
+                    if (count > 0) {
+                        log.info("历史写作事件已汇总到日桶: {} 条", count);
+                    }
+                }, e -> log.warn("历史写作事件汇总失败: {}", e.getMessage()));
+    }
+
+    /**
+     * 定期汇总认领超时的事件（日桶写入失败或节点退出时遗留）
+     */
+    @Scheduled(fixedDelayString = "${analytics.writing.claim-timeout:PT10M}",
+            initialDelayString = "${analytics.writing.claim-timeout:PT10M}")
+    public void rollUpStaleEvents() {
+        rollUpPendingEvents()
+                .subscribe(count -> {
+                    if (count > 0) {
+                        log.info("认领超时的写作事件已重新汇总: {} 条", count);
+                    }
+                }, e -> log.warn("重新汇总写作事件失败: {}", e.getMessage()));
+    }
+
+    /**
+     * 将尚未汇总的事件（没有过期时间的历史事件与认领超时的事件）汇总到日桶
+     * 按范围认领：一次为一批事件写入同一认领标记，再按标记读回本节点实际认领到的事件，
+     * 多节点同时执行也不会重复计入；日桶写入后才设置过期时间并清除标记
+     *
+     * @return 汇总的事件数
+     */
+    public Mono<Long> rollUpPendingEvents() {
+        Mono<Integer> nextRange = Mono.defer(this::rollUpNextRange);
+        return nextRange.expand(count -> nextRange)
+                .reduce(0L, (total, count) -> total + count);
+    }
+
+    /**
+     * 认领并汇总下一批待汇总事件；没有待汇总事件时为空，其他节点抢先认领时为 0
+     */
+    private Mono<Integer> rollUpNextRange() {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria pending = new Criteria().andOperator(
+                Criteria.where("expiresAt").exists(false),
+                new Criteria().orOperator(
+                        Criteria.where("claimToken").exists(false),
+                        Criteria.where("claimedAt").lt(now.minus(properties.getClaimTimeout()))));
+        Query candidates = Query.query(pending).limit(Math.max(1, properties.getBatchSize()));
+        candidates.fields().include("id");
+        String token = UUID.randomUUID().toString();
+        Update claim = Update.update("claimToken", token).set("claimedAt", now);
+        Update expiry = new Update()
+                .set("expiresAt", now.plus(properties.getEventRetention()))
+                .unset("claimToken")
+                .unset("claimedAt");
+        return reactiveMongoTemplate.find(candidates, WritingEvent.class)
+                .map(WritingEvent::getId)
+                .collectList()
+                .filter(ids -> !ids.isEmpty())
+                .flatMap(ids -> reactiveMongoTemplate.updateMulti(
+                                Query.query(new Criteria().andOperator(Criteria.where("id").in(ids), pending)),
+                                claim, WritingEvent.class)
+                        .then(reactiveMongoTemplate.find(Query.query(Criteria.where("claimToken").is(token)), WritingEvent.class)
+                                .collectList()))
+                .flatMap(claimed -> upsertBuckets(claimed)
+                        .then(release(token, expiry))
+                        .thenReturn(claimed.size()));
     }
 
     public Flux<WritingEvent> listUserEvents(String userId, int page, int size) {
@@ -33,47 +235,38 @@ public class WritingAnalyticsService {
 
     public Mono<Map<String, Object>> aggregateUserDaily(String userId, LocalDate start, LocalDate end,
                                                         String novelId, String chapterId, String sceneId) {
-        LocalDateTime from = start != null ? start.atStartOfDay() : LocalDate.now().minusDays(30).atStartOfDay();
-        LocalDateTime to = end != null ? end.atTime(LocalTime.MAX) : LocalDateTime.now();
-
-        return repository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(
-                userId, from, to, PageRequest.of(0, Integer.MAX_VALUE))
-            .filter(e -> novelId == null || novelId.isBlank() || novelId.equals(e.getNovelId()))
-            .filter(e -> chapterId == null || chapterId.isBlank() || chapterId.equals(e.getChapterId()))
-            .filter(e -> sceneId == null || sceneId.isBlank() || sceneId.equals(e.getSceneId()))
+        if (hasText(chapterId) || hasText(sceneId)) {
+            return aggregateRawDaily(userId, start, end, novelId, chapterId, sceneId);
+        }
+        return findBuckets(userId, start, end, novelId)
             .collectList()
-            .map(list -> {
-                Map<LocalDate, Integer> words = new HashMap<>();
-                for (WritingEvent e : list) {
-                    LocalDate d = e.getTimestamp().toLocalDate();
-                    words.merge(d, e.getDeltaWords() != null ? e.getDeltaWords() : 0, Integer::sum);
+            .map(buckets -> {
+                Map<String, Long> words = new TreeMap<>();
+                long total = 0;
+                for (WritingDailyBucket bucket : buckets) {
+                    words.merge(bucket.getDay(), bucket.getNetWords(), Long::sum);
+                    total += bucket.getNetWords();
                 }
-                Map<String, Integer> series = words.entrySet().stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .collect(Collectors.toMap(k -> k.getKey().toString(), Map.Entry::getValue, (a,b)->a, HashMap::new));
                 Map<String, Object> res = new HashMap<>();
-                res.put("dailyWords", series);
-                res.put("totalWords", list.stream().mapToInt(e -> e.getDeltaWords() != null ? e.getDeltaWords() : 0).sum());
+                res.put("dailyWords", new LinkedHashMap<>(words));
+                res.put("totalWords", total);
                 return res;
             });
     }
 
     public Mono<Map<String, Object>> aggregateBySource(String userId, LocalDate start, LocalDate end,
                                                        String novelId, String chapterId, String sceneId) {
-        LocalDateTime from = start != null ? start.atStartOfDay() : LocalDate.now().minusDays(30).atStartOfDay();
-        LocalDateTime to = end != null ? end.atTime(LocalTime.MAX) : LocalDateTime.now();
-
-        return repository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(
-                userId, from, to, PageRequest.of(0, Integer.MAX_VALUE))
-            .filter(e -> novelId == null || novelId.isBlank() || novelId.equals(e.getNovelId()))
-            .filter(e -> chapterId == null || chapterId.isBlank() || chapterId.equals(e.getChapterId()))
-            .filter(e -> sceneId == null || sceneId.isBlank() || sceneId.equals(e.getSceneId()))
+        if (hasText(chapterId) || hasText(sceneId)) {
+            return aggregateRawBySource(userId, start, end, novelId, chapterId, sceneId);
+        }
+        return findBuckets(userId, start, end, novelId)
             .collectList()
-            .map(list -> {
-                Map<String, Integer> bySource = new HashMap<>();
-                for (WritingEvent e : list) {
-                    String src = e.getSource() != null ? e.getSource() : "MANUAL";
-                    bySource.merge(src, e.getDeltaWords() != null ? e.getDeltaWords() : 0, Integer::sum);
+            .map(buckets -> {
+                Map<String, Long> bySource = new HashMap<>();
+                for (WritingDailyBucket bucket : buckets) {
+                    if (bucket.getWordsBySource() != null) {
+                        bucket.getWordsBySource().forEach((src, words) -> bySource.merge(src, words, Long::sum));
+                    }
                 }
                 Map<String, Object> res = new HashMap<>();
                 res.put("wordsBySource", bySource);
@@ -85,19 +278,15 @@ public class WritingAnalyticsService {
      * 统计用户的写作天数（去重后的日期数，跨全量数据）
      */
     public Mono<Long> countUniqueWritingDays(String userId) {
-        return repository.findByUserIdOrderByTimestampDesc(userId, PageRequest.of(0, Integer.MAX_VALUE))
-                .map(e -> e.getTimestamp().toLocalDate())
-                .distinct()
-                .count();
+        return writingDays(userId).count();
     }
 
     /**
-     * 计算连续写作天数（基于写作事件日期，按天连续计数）
+     * 计算连续写作天数（基于写作日期，按天连续计数）
      */
     public Mono<Long> calculateConsecutiveWritingDays(String userId) {
-        return repository.findByUserIdOrderByTimestampDesc(userId, PageRequest.of(0, Integer.MAX_VALUE))
-                .map(e -> e.getTimestamp().toLocalDate())
-                .distinct()
+        return writingDays(userId)
+                .map(LocalDate::parse)
                 .sort((d1, d2) -> d2.compareTo(d1))
                 .collectList()
                 .map(dates -> {
@@ -116,6 +305,259 @@ public class WritingAnalyticsService {
                     return consecutive;
                 });
     }
-}
 
+    private Flux<String> writingDays(String userId) {
+        return reactiveMongoTemplate.findDistinct(Query.query(Criteria.where("userId").is(userId)),
+                "day", WritingDailyBucket.class, String.class);
+    }
 
+    private Flux<WritingDailyBucket> findBuckets(String userId, LocalDate start, LocalDate end, String novelId) {
+        LocalDate from = start != null ? start : LocalDate.now().minusDays(30);
+        LocalDate to = end != null ? end : LocalDate.now();
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("day").gte(from.toString()).lte(to.toString());
+        if (hasText(novelId)) {
+            criteria = criteria.and("novelId").is(novelId);
+        }
+        return reactiveMongoTemplate.find(Query.query(criteria), WritingDailyBucket.class);
+    }
+
+    private Mono<Map<String, Object>> aggregateRawDaily(String userId, LocalDate start, LocalDate end,
+                                                        String novelId, String chapterId, String sceneId) {
+        return findRawEvents(userId, start, end, novelId, chapterId, sceneId)
+            .collectList()
+            .map(list -> {
+                Map<LocalDate, Integer> words = new TreeMap<>();
+                for (WritingEvent e : list) {
+                    LocalDate d = e.getTimestamp().toLocalDate();
+                    words.merge(d, e.getDeltaWords() != null ? e.getDeltaWords() : 0, Integer::sum);
+                }
+                Map<String, Integer> series = new LinkedHashMap<>();
+                words.forEach((day, count) -> series.put(day.toString(), count));
+                Map<String, Object> res = new HashMap<>();
+                res.put("dailyWords", series);
+                res.put("totalWords", list.stream().mapToInt(e -> e.getDeltaWords() != null ? e.getDeltaWords() : 0).sum());
+                return res;
+            });
+    }
+
+    private Mono<Map<String, Object>> aggregateRawBySource(String userId, LocalDate start, LocalDate end,
+                                                           String novelId, String chapterId, String sceneId) {
+        return findRawEvents(userId, start, end, novelId, chapterId, sceneId)
+            .collectList()
+            .map(list -> {
+                Map<String, Integer> bySource = new HashMap<>();
+                for (WritingEvent e : list) {
+                    String src = e.getSource() != null ? e.getSource() : "MANUAL";
+                    bySource.merge(src, e.getDeltaWords() != null ? e.getDeltaWords() : 0, Integer::sum);
+                }
+                Map<String, Object> res = new HashMap<>();
+                res.put("wordsBySource", bySource);
+                return res;
+            });
+    }
+
+    /**
+     * 按章节/场景细分的查询：原始事件只在保留期内可查
+     */
+    private Flux<WritingEvent> findRawEvents(String userId, LocalDate start, LocalDate end,
+                                             String novelId, String chapterId, String sceneId) {
+        LocalDateTime from = start != null ? start.atStartOfDay() : LocalDate.now().minusDays(30).atStartOfDay();
+        LocalDateTime to = end != null ? end.atTime(LocalTime.MAX) : LocalDateTime.now();
+
+        return repository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(
+                userId, from, to, PageRequest.of(0, Integer.MAX_VALUE))
+            .filter(e -> !hasText(novelId) || novelId.equals(e.getNovelId()))
+            .filter(e -> !hasText(chapterId) || chapterId.equals(e.getChapterId()))
+            .filter(e -> !hasText(sceneId) || sceneId.equals(e.getSceneId()));
+    }
+
+    /**
+     * 放入缓冲；缓冲已满时返回 false，由调用方直接写入
+     */
+    private boolean enqueue(WritingEvent event) {
+        if (event == null || event.getUserId() == null) {
+            return true;
+        }
+        if (event.getTimestamp() == null) {
+            event.setTimestamp(LocalDateTime.now());
+        }
+        if (buffered.get() >= properties.getMaxBufferedEvents()) {
+            long count = overflowed.incrementAndGet();
+            if (count % 1000 == 1) {
+                log.warn("写作事件缓冲已满，由记录方直接写入: 累计 {} 条", count);
+            }
+            return false;
+        }
+        buffer.offer(event);
+        if (buffered.incrementAndGet() >= properties.getBatchSize()) {
+            flush().subscribe();
+        }
+        return true;
+    }
+
+    private List<WritingEvent> drain(int max) {
+        List<WritingEvent> batch = new ArrayList<>(Math.min(max, Math.max(buffered.get(), 1)));
+        WritingEvent event;
+        while (batch.size() < max && (event = buffer.poll()) != null) {
+            buffered.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    /**
+     * 批量插入原始事件并累加日桶，统计数据不影响写作主流程：
+     * 插入失败的批次重新入队；日桶写入失败的批次保持认领状态，认领超时后重新汇总
+     */
+    private Mono<Void> writeBatch(List<WritingEvent> events) {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        for (WritingEvent event : events) {
+            if (event.getId() == null) {
+                // 预先分配ID，部分插入后重试时可以跳过已写入的事件
+                event.setId(new ObjectId().toHexString());
+            }
+            event.setClaimToken(token);
+            event.setClaimedAt(now);
+        }
+        AggregationUpdate expiry = AggregationUpdate.update()
+                .set("expiresAt").toValue(ArithmeticOperators.valueOf("timestamp").add(properties.getEventRetention().toMillis()))
+                .unset("claimToken", "claimedAt");
+        return insertEvents(events)
+                .then(Mono.defer(() -> upsertBuckets(events)
+                        .then(release(token, expiry))
+                        .onErrorResume(e -> {
+                            log.warn("汇总写作事件失败: {} 条, 认领超时后重新汇总, 错误={}", events.size(), e.getMessage());
+                            return Mono.empty();
+                        })))
+                .onErrorResume(e -> {
+                    log.warn("写入写作事件失败: {} 条, 重新入队, 错误={}", events.size(), e.getMessage());
+                    requeued.addAll(events);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 插入原始事件，失败时重试；重试只插入尚未写入的事件
+     */
+    private Mono<Void> insertEvents(List<WritingEvent> events) {
+        AtomicBoolean retrying = new AtomicBoolean();
+        return Mono.defer(() -> retrying.getAndSet(true)
+                        ? insertMissing(events)
+                        : reactiveMongoTemplate.insert(events, WritingEvent.class).then())
+                .retryWhen(Retry.backoff(WRITE_ATTEMPTS, WRITE_BACKOFF));
+    }
+
+    /**
+     * 插入库中还没有的事件，已写入的事件改为本批的认领标记（它们可能来自此前插入失败的批次）
+     */
+    private Mono<Void> insertMissing(List<WritingEvent> events) {
+        WritingEvent first = events.get(0);
+        Query existing = Query.query(Criteria.where("id").in(events.stream().map(WritingEvent::getId).toList()));
+        existing.fields().include("id");
+        return reactiveMongoTemplate.find(existing, WritingEvent.class)
+                .map(WritingEvent::getId)
+                .collect(Collectors.toSet())
+                .flatMap(written -> {
+                    List<WritingEvent> missing = events.stream().filter(e -> !written.contains(e.getId())).toList();
+                    Mono<Void> restamp = written.isEmpty() ? Mono.empty() : reactiveMongoTemplate.updateMulti(
+                                    Query.query(Criteria.where("id").in(written)),
+                                    Update.update("claimToken", first.getClaimToken()).set("claimedAt", first.getClaimedAt()),
+                                    WritingEvent.class)
+                            .then();
+                    return missing.isEmpty()
+                            ? restamp
+                            : restamp.then(reactiveMongoTemplate.insert(missing, WritingEvent.class).then());
+                });
+    }
+
+    /**
+     * 日桶写入后为认领标记下的事件设置过期时间并清除标记
+     */
+    private Mono<Void> release(String token, UpdateDefinition expiry) {
+        return reactiveMongoTemplate.updateMulti(Query.query(Criteria.where("claimToken").is(token)), expiry, WritingEvent.class)
+                .retryWhen(Retry.backoff(WRITE_ATTEMPTS, WRITE_BACKOFF))
+                .then();
+    }
+
+    private Mono<Void> upsertBuckets(List<WritingEvent> events) {
+        Map<String, BucketDelta> deltas = rollUp(events);
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ReactiveBulkOperations bulk = reactiveMongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WritingDailyBucket.class);
+        deltas.forEach((bucketId, delta) -> bulk.upsert(Query.query(Criteria.where("id").is(bucketId)), delta.toUpdate(now)));
+        return bulk.execute().then();
+    }
+
+    /**
+     * 按 用户 + 日期 + 小说 汇总一批事件
+     */
+    static Map<String, BucketDelta> rollUp(List<WritingEvent> events) {
+        Map<String, BucketDelta> deltas = new LinkedHashMap<>();
+        for (WritingEvent event : events) {
+            if (event.getUserId() == null || event.getTimestamp() == null) {
+                continue;
+            }
+            String day = event.getTimestamp().toLocalDate().toString();
+            String bucketId = event.getUserId() + ":" + day + ":" + (event.getNovelId() != null ? event.getNovelId() : "-");
+            deltas.computeIfAbsent(bucketId, id -> new BucketDelta(event.getUserId(), day, event.getNovelId()))
+                    .add(event);
+        }
+        return deltas;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * 一个日桶在本批中的增量
+     */
+    static final class BucketDelta {
+        final String userId;
+        final String day;
+        final String novelId;
+        long netWords;
+        long addedWords;
+        long removedWords;
+        long eventCount;
+        final Map<String, Long> wordsBySource = new HashMap<>();
+
+        BucketDelta(String userId, String day, String novelId) {
+            this.userId = userId;
+            this.day = day;
+            this.novelId = novelId;
+        }
+
+        void add(WritingEvent event) {
+            int delta = event.getDeltaWords() != null ? event.getDeltaWords() : 0;
+            netWords += delta;
+            if (delta > 0) {
+                addedWords += delta;
+            } else {
+                removedWords -= delta;
+            }
+            eventCount++;
+            // 来源作为字段名，去掉 Mongo 字段名中不允许的字符
+            String source = event.getSource() != null ? event.getSource().replaceAll("[.$]", "_") : "MANUAL";
+            wordsBySource.merge(source, (long) delta, Long::sum);
+        }
+
+        Update toUpdate(LocalDateTime now) {
+            Update update = new Update()
+                    .setOnInsert("userId", userId)
+                    .setOnInsert("day", day)
+                    .setOnInsert("novelId", novelId)
+                    .inc("netWords", netWords)
+                    .inc("addedWords", addedWords)
+                    .inc("removedWords", removedWords)
+                    .inc("eventCount", eventCount)
+                    .set("updatedAt", now);
+            wordsBySource.forEach((source, words) -> update.inc("wordsBySource." + source, words));
+            return update;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ainovel.server.service.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.ChapterPrefetchProperties;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.repository.SceneRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 编辑器章节预取
+ *
+ * 按用户+小说记录最近一次导航到的章节位置，据此判断浏览方向：
+ * 沿方向预取 aheadChapters 章、反方向预取 behindChapters 章，由近及远放入 ChapterSceneCache。
+ * 之后的预加载/滚动加载请求直接从内存返回。
+ */
+@Slf4j
+@Component
+public class ChapterPrefetcher {
+
+    private final SceneRepository sceneRepository;
+    private final NovelOrderIndexCache orderIndexCache;
+    private final ChapterSceneCache chapterSceneCache;
+    private final ChapterPrefetchProperties properties;
+
+    /** userId:novelId -> 最近一次导航到的章节下标 */
+    private final Cache<String, Integer> lastPositions = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    public ChapterPrefetcher(SceneRepository sceneRepository, NovelOrderIndexCache orderIndexCache,
+                             ChapterSceneCache chapterSceneCache, ChapterPrefetchProperties properties) {
+        this.sceneRepository = sceneRepository;
+        this.orderIndexCache = orderIndexCache;
+        this.chapterSceneCache = chapterSceneCache;
+        this.properties = properties;
+    }
+
+    /**
+     * 获取章节场景（原始内容），优先从缓存返回
+     */
+    public Mono<List<Scene>> scenes(Novel novel, String chapterId) {
+        return chapterSceneCache.scenes(userKey(novel), novel.getId(), chapterId, () -> loadChapter(chapterId));
+    }
+
+    /**
+     * 获取章节场景（内容为纯文本），优先从缓存返回
+     */
+    public Mono<List<Scene>> plainTextScenes(Novel novel, String chapterId) {
+        return chapterSceneCache.plainTextScenes(userKey(novel), novel.getId(), chapterId, () -> loadChapter(chapterId));
+    }
+
+    /**
+     * 用户切换到某章节：根据与上次位置的相对方向预取前后章节
+     */
+    public void onNavigate(Novel novel, String chapterId) {
+        if (!properties.isEnabled() || novel == null || chapterId == null) {
+            return;
+        }
+        NovelOrderIndex orderIndex = orderIndexCache.get(novel);
+        int index = orderIndex.indexOf(chapterId);
+        if (index < 0) {
+            return;
+        }
+        String positionKey = userKey(novel) + ":" + novel.getId();
+        Integer previous = lastPositions.getIfPresent(positionKey);
+        lastPositions.put(positionKey, index);
+        boolean forward = previous == null || index >= previous;
+        prefetch(novel, orderIndex, predict(index, forward, orderIndex.size()));
+    }
+
+    /**
+     * 用户滚动加载到某章节边缘：继续沿滚动方向预取
+     */
+    public void onScroll(Novel novel, String edgeChapterId, boolean forward) {
+        if (!properties.isEnabled() || novel == null || edgeChapterId == null) {
+            return;
+        }
+        NovelOrderIndex orderIndex = orderIndexCache.get(novel);
+        int index = orderIndex.indexOf(edgeChapterId);
+        if (index < 0) {
+            return;
+        }
+        List<Integer> targets = new ArrayList<>();
+        int step = forward ? 1 : -1;
+        for (int i = 1; i <= properties.getAheadChapters(); i++) {
+            int target = index + step * i;
+            if (target >= 0 && target < orderIndex.size()) {
+                targets.add(target);
+            }
+        }
+        prefetch(novel, orderIndex, targets);
+    }
+
+    /**
+     * 预测接下来可能访问的章节下标（含当前章节），由近及远，方向一致的优先
+     */
+    List<Integer> predict(int index, boolean forward, int size) {
+        int step = forward ? 1 : -1;
+        List<Integer> targets = new ArrayList<>();
+        int distance = Math.max(properties.getAheadChapters(), properties.getBehindChapters());
+        for (int d = 0; d <= distance; d++) {
+            if (d == 0) {
+                addIfInRange(targets, index, size);
+                continue;
+            }
+            if (d <= properties.getAheadChapters()) {
+                addIfInRange(targets, index + step * d, size);
+            }
+            if (d <= properties.getBehindChapters()) {
+                addIfInRange(targets, index - step * d, size);
+            }
+        }
+        return targets;
+    }
+
+    private void prefetch(Novel novel, NovelOrderIndex orderIndex, List<Integer> targets) {
+        String userId = userKey(novel);
+        List<String> chapterIds = new ArrayList<>();
+        for (int target : targets) {
+            String chapterId = orderIndex.chapterIdAt(target);
+            if (chapterId != null && !chapterSceneCache.contains(userId, chapterId)) {
+                chapterIds.add(chapterId);
+            }
+        }
+        if (chapterIds.isEmpty()) {
+            return;
+        }
+        log.debug("预取章节: novelId={}, 章节数={}", novel.getId(), chapterIds.size());
+        Flux.fromIterable(chapterIds)
+                .flatMapSequential(chapterId -> chapterSceneCache.warm(userId, novel.getId(), chapterId, () -> loadChapter(chapterId))
+                        .onErrorResume(e -> {
+                            log.warn("预取章节失败: chapterId={}, 错误={}", chapterId, e.getMessage());
+                            return Mono.empty();
+                        }), Math.max(1, properties.getConcurrency()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    private Mono<List<Scene>> loadChapter(String chapterId) {
+        return sceneRepository.findByChapterId(chapterId).collectList();
+    }
+
+    private static void addIfInRange(List<Integer> targets, int index, int size) {
+        if (index >= 0 && index < size) {
+            targets.add(index);
+        }
+    }
+
+    /**
+     * 缓存归属用户：编辑器只对作者开放，按作者隔离
+     */
+    private static String userKey(Novel novel) {
+        return novel.getAuthor() != null && novel.getAuthor().getId() != null
+                ? novel.getAuthor().getId()
+                : novel.getId();
+    }
+}
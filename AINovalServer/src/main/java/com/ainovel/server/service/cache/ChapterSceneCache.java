@@ -0,0 +1,283 @@
+package com.ainovel.server.service.cache;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.config.ChapterPrefetchProperties;
+import com.ainovel.server.domain.model.Scene;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 按用户隔离的章节场景缓存
+ *
+ * 每个用户一份有界缓存（章节ID -> 场景及其纯文本），由预取和正常加载共同填充；
+ * 同一章节的并发加载共享一次数据库查询。对外返回的始终是副本，调用方可以自由修改。
+ * 命中率与章节加载耗时（含 p95）通过 novel.chapter.* 指标暴露。
+ */
+@Slf4j
+@Component
+public class ChapterSceneCache {
+
+    private final ChapterPrefetchProperties properties;
+    private final Cache<String, AsyncCache<String, ChapterScenes>> userCaches;
+    /** novelId -> 缓存了该小说章节的用户，场景写入时据此定位需要失效的缓存 */
+    private final Map<String, Set<String>> novelUsers = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter prefetched;
+    private final Counter unusedPrefetches;
+    private final Timer loadTimer;
+
+    public ChapterSceneCache(ChapterPrefetchProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.userCaches = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(properties.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .removalListener((String userId, AsyncCache<String, ChapterScenes> cache, RemovalCause cause) ->
+                        novelUsers.values().forEach(users -> users.remove(userId)))
+                .build();
+        this.hits = Counter.builder("novel.chapter.cache.requests")
+                .description("章节场景加载的缓存命中次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("novel.chapter.cache.requests")
+                .description("章节场景加载的缓存未命中次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.prefetched = Counter.builder("novel.chapter.prefetch")
+                .description("预取的章节数")
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.unusedPrefetches = Counter.builder("novel.chapter.prefetch")
+                .description("预取后未被读取即淘汰的章节数")
+                .tag("result", "unused")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("novel.chapter.load")
+                .description("单个章节场景的加载耗时")
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+        Gauge.builder("novel.chapter.cache.hit.ratio", this, ChapterSceneCache::hitRatio)
+                .description("章节场景加载的缓存命中率")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取章节场景（原始内容）
+     */
+    public Mono<List<Scene>> scenes(String userId, String novelId, String chapterId, Supplier<Mono<List<Scene>>> loader) {
+        return load(userId, novelId, chapterId, loader).map(entry -> entry.copies(false));
+    }
+
+    /**
+     * 获取章节场景，内容已转换为纯文本
+     */
+    public Mono<List<Scene>> plainTextScenes(String userId, String novelId, String chapterId, Supplier<Mono<List<Scene>>> loader) {
+        return load(userId, novelId, chapterId, loader).map(entry -> entry.copies(true));
+    }
+
+    /**
+     * 预取章节；已缓存或正在加载时直接返回
+     */
+    public Mono<Void> warm(String userId, String novelId, String chapterId, Supplier<Mono<List<Scene>>> loader) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            AsyncCache<String, ChapterScenes> cache = userCache(userId, novelId);
+            if (cache.getIfPresent(chapterId) != null) {
+                return Mono.empty();
+            }
+            CompletableFuture<ChapterScenes> future = cache.get(chapterId, (key, executor) ->
+                    loader.get().map(scenes -> ChapterScenes.of(novelId, scenes, true)).toFuture());
+            return Mono.fromFuture(future, true)
+                    .doOnNext(entry -> prefetched.increment())
+                    .then();
+        });
+    }
+
+    /**
+     * 章节是否已在该用户的缓存中（含正在加载）
+     */
+    public boolean contains(String userId, String chapterId) {
+        AsyncCache<String, ChapterScenes> cache = userCaches.getIfPresent(userId);
+        return cache != null && cache.getIfPresent(chapterId) != null;
+    }
+
+    /**
+     * 场景写入后失效：该场景当前所在章节，以及缓存中仍包含该场景的旧章节
+     */
+    public void evictScene(String novelId, String chapterId, String sceneId) {
+        Set<String> users = novelId != null ? novelUsers.get(novelId) : null;
+        if (users != null) {
+            users.forEach(userId -> evict(userCaches.getIfPresent(userId), chapterId, sceneId));
+        } else if (novelId == null) {
+            userCaches.asMap().values().forEach(cache -> evict(cache, chapterId, sceneId));
+        }
+    }
+
+    /**
+     * 失效某本小说的全部缓存章节
+     */
+    public void evictNovel(String novelId) {
+        Set<String> users = novelUsers.get(novelId);
+        if (users == null) {
+            return;
+        }
+        for (String userId : users) {
+            AsyncCache<String, ChapterScenes> cache = userCaches.getIfPresent(userId);
+            if (cache != null) {
+                cache.synchronous().asMap().values().removeIf(entry -> novelId.equals(entry.novelId()));
+            }
+        }
+    }
+
+    /**
+     * 失效全部缓存（无法定位受影响章节的写入）
+     */
+    public void evictAll() {
+        userCaches.asMap().values().forEach(cache -> cache.synchronous().invalidateAll());
+    }
+
+    /**
+     * 缓存命中率
+     */
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * 章节加载耗时 p95（毫秒）
+     */
+    public double p95LoadMillis() {
+        for (ValueAtPercentile percentile : loadTimer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    private Mono<ChapterScenes> load(String userId, String novelId, String chapterId, Supplier<Mono<List<Scene>>> loader) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<ChapterScenes> result;
+            if (!properties.isEnabled()) {
+                misses.increment();
+                result = loader.get().map(scenes -> ChapterScenes.of(novelId, scenes, false));
+            } else {
+                AsyncCache<String, ChapterScenes> cache = userCache(userId, novelId);
+                CompletableFuture<ChapterScenes> existing = cache.getIfPresent(chapterId);
+                if (existing != null) {
+                    hits.increment();
+                } else {
+                    misses.increment();
+                }
+                CompletableFuture<ChapterScenes> future = existing != null ? existing : cache.get(chapterId, (key, executor) ->
+                        loader.get().map(scenes -> ChapterScenes.of(novelId, scenes, false)).toFuture());
+                // 共享的加载结果不随单个订阅者取消
+                result = Mono.fromFuture(future, true).doOnNext(entry -> entry.read().set(true));
+            }
+            return result.doOnNext(entry -> loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private AsyncCache<String, ChapterScenes> userCache(String userId, String novelId) {
+        novelUsers.computeIfAbsent(novelId, k -> ConcurrentHashMap.newKeySet()).add(userId);
+        return userCaches.get(userId, k -> Caffeine.newBuilder()
+                .maximumSize(properties.getMaxChaptersPerUser())
+                .expireAfterWrite(properties.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .removalListener((String chapterId, ChapterScenes entry, RemovalCause cause) -> {
+                    if (entry != null && cause.wasEvicted() && entry.prefetched() && !entry.read().get()) {
+                        unusedPrefetches.increment();
+                    }
+                })
+                .buildAsync());
+    }
+
+    private static void evict(AsyncCache<String, ChapterScenes> cache, String chapterId, String sceneId) {
+        if (cache == null) {
+            return;
+        }
+        if (chapterId != null) {
+            cache.synchronous().invalidate(chapterId);
+        }
+        if (sceneId != null) {
+            cache.synchronous().asMap().values().removeIf(entry -> entry.sceneIds().contains(sceneId));
+        }
+    }
+
+    /**
+     * 缓存的章节：场景原文及预先转换好的纯文本
+     */
+    record ChapterScenes(String novelId, List<Scene> scenes, List<String> plainTexts, Set<String> sceneIds,
+                         boolean prefetched, AtomicBoolean read) {
+
+        static ChapterScenes of(String novelId, List<Scene> scenes, boolean prefetched) {
+            List<String> plainTexts = new ArrayList<>(scenes.size());
+            Set<String> sceneIds = new HashSet<>();
+            for (Scene scene : scenes) {
+                plainTexts.add(RichTextUtil.deltaJsonToPlainText(scene.getContent()));
+                sceneIds.add(scene.getId());
+            }
+            return new ChapterScenes(novelId, List.copyOf(scenes), plainTexts, sceneIds, prefetched, new AtomicBoolean());
+        }
+
+        List<Scene> copies(boolean plainText) {
+            List<Scene> copies = new ArrayList<>(scenes.size());
+            for (int i = 0; i < scenes.size(); i++) {
+                Scene copy = copy(scenes.get(i));
+                if (plainText) {
+                    copy.setContent(plainTexts.get(i));
+                }
+                copies.add(copy);
+            }
+            return copies;
+        }
+
+        /**
+         * 深拷贝场景：列表与嵌套对象都是可变的，浅拷贝会让调用方的修改写回缓存
+         */
+        static Scene copy(Scene scene) {
+            Scene.SummaryProvenance provenance = scene.getSummaryProvenance();
+            Scene.VectorEmbedding embedding = scene.getVectorEmbedding();
+            return scene.toBuilder()
+                    .summaryProvenance(provenance == null ? null : provenance.toBuilder().build())
+                    .vectorEmbedding(embedding == null ? null : Scene.VectorEmbedding.builder()
+                            .vector(embedding.getVector() == null ? null : embedding.getVector().clone())
+                            .model(embedding.getModel())
+                            .build())
+                    .simHashBands(scene.getSimHashBands() == null ? null : new ArrayList<>(scene.getSimHashBands()))
+                    .characterIds(scene.getCharacterIds() == null ? null : new ArrayList<>(scene.getCharacterIds()))
+                    .locations(scene.getLocations() == null ? null : new ArrayList<>(scene.getLocations()))
+                    .history(scene.getHistory() == null ? null : scene.getHistory().stream()
+                            .map(entry -> entry.toBuilder().build())
+                            .collect(Collectors.toCollection(ArrayList::new)))
+                    .build();
+        }
+    }
+}
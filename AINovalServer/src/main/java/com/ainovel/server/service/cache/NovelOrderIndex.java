@@ -0,0 +1,304 @@
+package com.ainovel.server.service.cache;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Novel.Act;
+import com.ainovel.server.domain.model.Novel.Chapter;
+import com.ainovel.server.domain.model.Novel.Structure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 小说章节顺序索引（不可变）。
+ *
+ * 按结构版本构建一次，之后所有"按章节范围切片"的操作都直接在数组上完成：
+ * - chapterIds: 按结构列表顺序（与前端目录一致）排列的章节ID
+ * - ordinals: 每个章节按卷/章节 order 字段稳定排序后的全局序号，用于全书有序遍历
+ * - chapterIndex: chapterId -> 结构位置
+ * - sceneOffsets: 场景前缀和，sceneOffsets[i] 为第 i 章之前的场景总数
+ * - actIds / actChapterOffsets: 卷到章节区间的映射，供按卷约束切片
+ */
+public final class NovelOrderIndex {
+
+    private static final NovelOrderIndex EMPTY = new NovelOrderIndex(
+            0L, new String[0], new int[0], new int[] {0}, new String[0], new int[] {0}, Collections.emptyMap());
+
+    private final long version;
+    private final String[] chapterIds;
+    private final int[] ordinals;
+    private final int[] sceneOffsets;
+    private final String[] actIds;
+    private final int[] actChapterOffsets;
+    private final Map<String, Integer> chapterIndex;
+
+    private NovelOrderIndex(long version, String[] chapterIds, int[] ordinals, int[] sceneOffsets,
+                            String[] actIds, int[] actChapterOffsets, Map<String, Integer> chapterIndex) {
+        this.version = version;
+        this.chapterIds = chapterIds;
+        this.ordinals = ordinals;
+        this.sceneOffsets = sceneOffsets;
+        this.actIds = actIds;
+        this.actChapterOffsets = actChapterOffsets;
+        this.chapterIndex = chapterIndex;
+    }
+
+    /**
+     * 根据小说结构构建索引。
+     */
+    public static NovelOrderIndex build(Novel novel) {
+        Structure structure = novel != null ? novel.getStructure() : null;
+        if (structure == null || structure.getActs() == null || structure.getActs().isEmpty()) {
+            return EMPTY;
+        }
+        List<Act> acts = structure.getActs();
+
+        int chapterCount = 0;
+        for (Act act : acts) {
+            if (act != null && act.getChapters() != null) {
+                chapterCount += act.getChapters().size();
+            }
+        }
+
+        String[] chapterIds = new String[chapterCount];
+        int[] sceneOffsets = new int[chapterCount + 1];
+        String[] actIds = new String[acts.size()];
+        int[] actChapterOffsets = new int[acts.size() + 1];
+        Map<String, Integer> chapterIndex = new HashMap<>(Math.max(16, (int) (chapterCount / 0.75f) + 1));
+
+        // 卷按 order 稳定排序后的名次
+        long[] actKeys = new long[acts.size()];
+        for (int a = 0; a < acts.size(); a++) {
+            actKeys[a] = acts.get(a) != null ? acts.get(a).getOrder() : 0;
+        }
+        int[] actRanks = computeOrdinals(actKeys);
+
+        // 排序键：高32位为卷名次，低32位为章节order；同键保持结构顺序（稳定排序）
+        long[] sortKeys = new long[chapterCount];
+
+        int pos = 0;
+        for (int a = 0; a < acts.size(); a++) {
+            Act act = acts.get(a);
+            actIds[a] = act != null ? act.getId() : null;
+            actChapterOffsets[a] = pos;
+            if (act == null || act.getChapters() == null) {
+                continue;
+            }
+            for (Chapter chapter : act.getChapters()) {
+                String chapterId = chapter != null ? chapter.getId() : null;
+                chapterIds[pos] = chapterId;
+                if (chapterId != null) {
+                    chapterIndex.putIfAbsent(chapterId, pos);
+                }
+                int sceneCount = chapter != null && chapter.getSceneIds() != null ? chapter.getSceneIds().size() : 0;
+                sceneOffsets[pos + 1] = sceneOffsets[pos] + sceneCount;
+                int chapterOrder = chapter != null ? chapter.getOrder() : 0;
+                sortKeys[pos] = ((long) actRanks[a] << 32) | ((chapterOrder ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+                pos++;
+            }
+        }
+        actChapterOffsets[acts.size()] = pos;
+
+        return new NovelOrderIndex(fingerprint(structure), chapterIds, computeOrdinals(sortKeys),
+                sceneOffsets, actIds, actChapterOffsets, Collections.unmodifiableMap(chapterIndex));
+    }
+
+    /**
+     * 计算结构指纹（不分配对象），用于判断缓存的索引是否仍对应当前结构版本。
+     */
+    public static long fingerprint(Structure structure) {
+        if (structure == null || structure.getActs() == null) {
+            return 0L;
+        }
+        long h = 1125899906842597L;
+        for (Act act : structure.getActs()) {
+            if (act == null) {
+                h = 31 * h;
+                continue;
+            }
+            h = 31 * h + (act.getId() != null ? act.getId().hashCode() : 0);
+            h = 31 * h + act.getOrder();
+            if (act.getChapters() == null) {
+                continue;
+            }
+            for (Chapter chapter : act.getChapters()) {
+                if (chapter == null) {
+                    h = 31 * h;
+                    continue;
+                }
+                h = 31 * h + (chapter.getId() != null ? chapter.getId().hashCode() : 0);
+                h = 31 * h + chapter.getOrder();
+                h = 31 * h + (chapter.getSceneIds() != null ? chapter.getSceneIds().size() : 0);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 稳定排序得到每个结构位置的全局序号。
+     * 绝大多数小说的 order 字段已与结构顺序一致，此时直接返回恒等序号，避免排序。
+     */
+    private static int[] computeOrdinals(long[] sortKeys) {
+        int n = sortKeys.length;
+        int[] ordinals = new int[n];
+        boolean alreadySorted = true;
+        for (int i = 1; i < n; i++) {
+            if (sortKeys[i] < sortKeys[i - 1]) {
+                alreadySorted = false;
+                break;
+            }
+        }
+        if (alreadySorted) {
+            for (int i = 0; i < n; i++) {
+                ordinals[i] = i;
+            }
+            return ordinals;
+        }
+        Integer[] positions = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = i;
+        }
+        // Arrays.sort 对对象数组是稳定的（TimSort）
+        Arrays.sort(positions, (x, y) -> Long.compare(sortKeys[x], sortKeys[y]));
+        for (int rank = 0; rank < n; rank++) {
+            ordinals[positions[rank]] = rank;
+        }
+        return ordinals;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return chapterIds.length;
+    }
+
+    public boolean isEmpty() {
+        return chapterIds.length == 0;
+    }
+
+    /**
+     * 章节在结构顺序中的位置，不存在返回 -1。
+     */
+    public int indexOf(String chapterId) {
+        if (chapterId == null) {
+            return -1;
+        }
+        Integer idx = chapterIndex.get(chapterId);
+        return idx != null ? idx : -1;
+    }
+
+    public String chapterIdAt(int index) {
+        return chapterIds[index];
+    }
+
+    /**
+     * 章节的全局有序序号（按卷/章节 order 排序后），不存在返回 Integer.MAX_VALUE。
+     */
+    public int ordinalOf(String chapterId) {
+        int idx = indexOf(chapterId);
+        return idx >= 0 ? ordinals[idx] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 第 index 章之前的场景数量（基于结构中的 sceneIds）。
+     */
+    public int sceneOffset(int index) {
+        return sceneOffsets[index];
+    }
+
+    public int totalSceneCount() {
+        return sceneOffsets[chapterIds.length];
+    }
+
+    /**
+     * 结构顺序下 [fromIndex, toIndex) 区间的章节ID。
+     */
+    public List<String> slice(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(chapterIds.length, toIndex);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(chapterIds).subList(from, to));
+    }
+
+    /**
+     * 从与本索引同版本的小说结构中取出 [fromIndex, toIndex) 区间的章节对象。
+     * 借助卷偏移量二分定位起始卷，只遍历目标区间。
+     */
+    public List<Chapter> chapters(Novel novel, int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(chapterIds.length, toIndex);
+        if (from >= to || novel == null || novel.getStructure() == null || novel.getStructure().getActs() == null) {
+            return new ArrayList<>();
+        }
+        List<Act> acts = novel.getStructure().getActs();
+        List<Chapter> result = new ArrayList<>(to - from);
+        int a = actOf(from);
+        int pos = from;
+        while (pos < to && a < acts.size()) {
+            Act act = acts.get(a);
+            int actEnd = actChapterOffsets[a + 1];
+            if (act != null && act.getChapters() != null) {
+                List<Chapter> actChapters = act.getChapters();
+                int localEnd = Math.min(to, actEnd);
+                for (; pos < localEnd; pos++) {
+                    result.add(actChapters.get(pos - actChapterOffsets[a]));
+                }
+            }
+            pos = Math.max(pos, actEnd);
+            a++;
+        }
+        return result;
+    }
+
+    /**
+     * 结构位置 index 所属卷的下标（actChapterOffsets 上的二分查找）。
+     */
+    private int actOf(int index) {
+        int lo = 0;
+        int hi = actIds.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (actChapterOffsets[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 指定卷包含的章节区间，返回 [start, end)；卷不存在返回 null。
+     */
+    public int[] actRange(String actId) {
+        if (actId == null) {
+            return null;
+        }
+        for (int a = 0; a < actIds.length; a++) {
+            if (actId.equals(actIds[a])) {
+                return new int[] {actChapterOffsets[a], actChapterOffsets[a + 1]};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按全局序号排列的章节ID（即按卷/章节 order 排序后的全书顺序）。
+     */
+    public List<String> chapterIdsInOrdinalOrder() {
+        String[] ordered = new String[chapterIds.length];
+        for (int i = 0; i < chapterIds.length; i++) {
+            ordered[ordinals[i]] = chapterIds[i];
+        }
+        List<String> result = new ArrayList<>(ordered.length);
+        Collections.addAll(result, ordered);
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ainovel.server.service.cache;
+
+import com.ainovel.server.domain.model.Novel;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 缓存每本小说的章节顺序索引（NovelOrderIndex）。
+ * 以小说的 updatedAt 与结构指纹共同作为版本：updatedAt 不同直接重建；updatedAt 相同时再比较结构指纹，
+ * 避免未刷新 updatedAt 的结构写入（如场景回填）命中旧索引。指纹只做一次无分配的线性扫描，
+ * 远比重建索引便宜。
+ */
+@Component
+public class NovelOrderIndexCache {
+
+    /** key=novelId -> 最近一次构建的索引及其版本 */
+    private final Cache<String, Entry> cache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    /**
+     * 获取与当前小说版本一致的索引；版本不一致或不存在时重建。
+     */
+    public NovelOrderIndex get(Novel novel) {
+        if (novel == null || novel.getId() == null) {
+            return NovelOrderIndex.build(novel);
+        }
+        LocalDateTime updatedAt = novel.getUpdatedAt();
+        Entry existing = cache.getIfPresent(novel.getId());
+        if (existing != null && isCurrent(existing, novel, updatedAt)) {
+            return existing.index();
+        }
+        NovelOrderIndex index = NovelOrderIndex.build(novel);
+        cache.put(novel.getId(), new Entry(updatedAt, index));
+        return index;
+    }
+
+    /**
+     * 在小说结构发生变更时显式失效。
+     */
+    public void evict(String novelId) {
+        cache.invalidate(novelId);
+    }
+
+    private static boolean isCurrent(Entry entry, Novel novel, LocalDateTime updatedAt) {
+        return Objects.equals(entry.updatedAt(), updatedAt)
+                && entry.index().getVersion() == NovelOrderIndex.fingerprint(novel.getStructure());
+    }
+
+    private record Entry(LocalDateTime updatedAt, NovelOrderIndex index) {
+    }
+}
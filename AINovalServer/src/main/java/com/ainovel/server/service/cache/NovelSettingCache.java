@@ -0,0 +1,156 @@
+package com.ainovel.server.service.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 按小说缓存设定检索命中过的设定条目，供设定检索批量回填使用。
+ *
+ * 条目按需加载：缓存中没有的ID合并为一次查询（不读取向量字段），
+ * 之后同一小说的检索直接从内存取。设定写入时由设定服务显式失效，
+ * 写入后过期兜底绕过设定服务的写入。
+ * 每部小说带一个失效代数：查询开始后发生过失效的，查询结果只返回给本次调用、不写回缓存，
+ * 避免失效前读到的旧条目被重新放入缓存。返回的是条目的浅拷贝，调用方修改不会影响缓存。
+ */
+@Slf4j
+@Component
+public class NovelSettingCache {
+
+    /** key=novelId -> 该小说已加载的条目 */
+    private final Cache<String, NovelEntries> cache = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public NovelSettingCache(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 批量获取设定条目，按传入ID顺序返回，不存在的ID被跳过
+     */
+    public Mono<List<NovelSettingItem>> getAll(String novelId, Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        NovelEntries entries = cache.get(novelId, key -> new NovelEntries());
+        Map<String, NovelSettingItem> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : ids) {
+            NovelSettingItem item = entries.items.get(id);
+            if (item != null) {
+                found.put(id, item);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(collect(found, ids));
+        }
+        long generation = entries.generation();
+        Query query = Query.query(Criteria.where("_id").in(missing).and("novelId").is(novelId));
+        query.fields().exclude("vector");
+        return mongoTemplate.find(query, NovelSettingItem.class)
+                .doOnNext(item -> {
+                    found.put(item.getId(), item);
+                    entries.putIfCurrent(item, generation);
+                })
+                .then(Mono.fromSupplier(() -> {
+                    log.debug("回填小说 {} 的设定条目: 命中缓存 {} 个, 查询 {} 个", novelId,
+                            ids.size() - missing.size(), missing.size());
+                    return collect(found, ids);
+                }));
+    }
+
+    /**
+     * 单个设定写入或删除后失效
+     */
+    public void evict(String novelId, String settingId) {
+        if (novelId == null || settingId == null) {
+            return;
+        }
+        NovelEntries entries = cache.getIfPresent(novelId);
+        if (entries != null) {
+            entries.remove(settingId);
+        }
+    }
+
+    /**
+     * 批量写入后失效整部小说
+     */
+    public void evict(String novelId) {
+        if (novelId == null) {
+            return;
+        }
+        NovelEntries entries = cache.asMap().remove(novelId);
+        if (entries != null) {
+            // 进行中的查询仍持有旧实例，推进代数使其不再写入
+            entries.clear();
+        }
+    }
+
+    private static List<NovelSettingItem> collect(Map<String, NovelSettingItem> items, Collection<String> ids) {
+        Map<String, NovelSettingItem> ordered = new LinkedHashMap<>();
+        for (String id : ids) {
+            NovelSettingItem item = items.get(id);
+            if (item != null) {
+                ordered.putIfAbsent(id, item.toBuilder().build());
+            }
+        }
+        return new ArrayList<>(ordered.values());
+    }
+
+    /**
+     * 一部小说的缓存条目与失效代数
+     */
+    private static final class NovelEntries {
+
+        private final Map<String, NovelSettingItem> items = new ConcurrentHashMap<>();
+        private long generation;
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        /**
+         * 自查询开始后没有发生失效时才写入
+         */
+        synchronized void putIfCurrent(NovelSettingItem item, long startedAt) {
+            if (generation == startedAt) {
+                items.put(item.getId(), item);
+            }
+        }
+
+        synchronized void remove(String settingId) {
+            generation++;
+            items.remove(settingId);
+        }
+
+        synchronized void clear() {
+            generation++;
+            items.clear();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ainovel.server.service.cache;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.domain.model.Scene;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 场景写入后失效章节场景缓存
+ *
+ * 通过 Mongo 映射事件覆盖经由仓库/模板保存和删除场景的所有入口；
+ * 按条件的原子更新（updateFirst 等）不触发事件，由写入方直接调用 ChapterSceneCache 失效（如 SceneSummaryCache.saveSummary）。
+ */
+@Component
+@RequiredArgsConstructor
+public class SceneCacheInvalidator extends AbstractMongoEventListener<Scene> {
+
+    private final ChapterSceneCache chapterSceneCache;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Scene> event) {
+        Scene scene = event.getSource();
+        chapterSceneCache.evictScene(scene.getNovelId(), scene.getChapterId(), scene.getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Scene> event) {
+        Document query = event.getSource();
+        String novelId = stringValue(query.get("novelId"));
+        String chapterId = stringValue(query.get("chapterId"));
+        String sceneId = stringValue(query.get("_id"));
+        if (chapterId == null && sceneId == null) {
+            if (novelId != null) {
+                chapterSceneCache.evictNovel(novelId);
+            } else {
+                chapterSceneCache.evictAll();
+            }
+            return;
+        }
+        chapterSceneCache.evictScene(novelId, chapterId, sceneId);
+    }
+
+    private static String stringValue(Object value) {
+        if (value instanceof String s) {
+            return s;
+        }
+        if (value instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        return null;
+    }
+}
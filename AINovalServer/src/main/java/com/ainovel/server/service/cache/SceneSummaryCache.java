@@ -0,0 +1,153 @@
+package com.ainovel.server.service.cache;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.common.util.ContentFingerprintUtil;
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.domain.model.UserAIModelConfig;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.UserPromptService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 场景摘要缓存判定
+ *
+ * 摘要与生成它的正文指纹、模型、提示词版本一起保存（Scene.summaryProvenance）。
+ * 三者都未变化时，重新生成得到的只是同一输入的另一次采样，批量/单个摘要任务直接复用已有摘要。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SceneSummaryCache {
+
+    /** 场景摘要的系统提示词，修改后提示词版本随之变化，已有摘要自动失效 */
+    public static final String SYSTEM_PROMPT = "你是一个专业的小说编辑。请根据用户提供的场景内容和上下文信息，生成一个简洁的场景摘要。你的任务是只输出摘要本身，不包含任何标题、小标题、格式标记（如Markdown）、或其他解释性文字。";
+
+    /** 打包模式（一次请求总结多个场景）的系统提示词，不使用用户的单场景模板 */
+    public static final String PACKED_SYSTEM_PROMPT = "你是一个专业的小说编辑。用户会提供多个带编号的场景，请为每个场景分别生成一个简洁的场景摘要。"
+            + "只输出一个JSON数组，每个元素形如 {\"id\": 场景编号, \"summary\": \"摘要\"}，不要遗漏任何场景，不要输出其他文字。";
+
+    private static final String PACKED_PROMPT_VERSION = ContentFingerprintUtil.sha256Hex(PACKED_SYSTEM_PROMPT).substring(0, 16);
+
+    private final UserAIModelConfigService userAIModelConfigService;
+    private final UserPromptService userPromptService;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ChapterSceneCache chapterSceneCache;
+
+    /**
+     * 一次摘要生成的配置：实际使用的模型与提示词版本
+     */
+    public record SummaryKey(String provider, String modelName, String promptVersion) {
+    }
+
+    /**
+     * 解析本次摘要会使用的模型与提示词版本（与 NovelAIService.summarizeScene 的解析方式一致）
+     */
+    public Mono<SummaryKey> resolveKey(String userId, String aiConfigId) {
+        return resolveKey(userId, aiConfigId, false);
+    }
+
+    /**
+     * 解析本次摘要会使用的模型与提示词版本
+     *
+     * @param packed 是否为打包模式，两种模式的提示词不同，生成的摘要互不视为未变化
+     * @return 解析结果；找不到可用的AI模型配置时以 IllegalStateException 失败，不会静默完成
+     */
+    public Mono<SummaryKey> resolveKey(String userId, String aiConfigId, boolean packed) {
+        Mono<UserAIModelConfig> config = aiConfigId != null && !aiConfigId.isBlank()
+                ? userAIModelConfigService.getConfigurationById(userId, aiConfigId)
+                : userAIModelConfigService.getValidatedDefaultConfiguration(userId);
+        config = config.switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                "无法解析摘要使用的AI模型配置，用户: " + userId + ", 配置ID: " + aiConfigId)));
+        if (packed) {
+            return config.map(c -> new SummaryKey(c.getProvider(), c.getModelName(), PACKED_PROMPT_VERSION));
+        }
+        return Mono.zip(config, userPromptService.getPromptTemplate(userId, AIFeatureType.SCENE_TO_SUMMARY).defaultIfEmpty(""))
+                .map(tuple -> new SummaryKey(tuple.getT1().getProvider(), tuple.getT1().getModelName(),
+                        promptVersion(tuple.getT2())));
+    }
+
+    /**
+     * 场景已有的摘要是否由当前正文、同一模型和同一提示词版本生成
+     */
+    public boolean isFresh(Scene scene, SummaryKey key) {
+        Scene.SummaryProvenance provenance = scene.getSummaryProvenance();
+        if (provenance == null || scene.getSummary() == null || scene.getSummary().isBlank()) {
+            return false;
+        }
+        return Objects.equals(provenance.getContentHash(), contentHash(scene))
+                && Objects.equals(provenance.getModelName(), key.modelName())
+                && Objects.equals(provenance.getPromptVersion(), key.promptVersion());
+    }
+
+    /**
+     * 为基于给定场景正文生成的摘要构建生成依据
+     */
+    public Scene.SummaryProvenance provenance(Scene scene, SummaryKey key) {
+        return Scene.SummaryProvenance.builder()
+                .contentHash(contentHash(scene))
+                .modelName(key.modelName())
+                .promptVersion(key.promptVersion())
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 按版本号原子写入摘要及其生成依据
+     *
+     * 条件更新不触发 Mongo 映射事件，写入成功后需自行失效章节场景缓存
+     *
+     * @return 版本号匹配并写入成功时为true
+     */
+    public Mono<Boolean> saveSummary(Scene scene, int expectedVersion, String summary, Scene.SummaryProvenance provenance) {
+        String sceneId = scene.getId();
+        Query query = Query.query(Criteria.where("_id").is(sceneId)
+                .and("version").is(expectedVersion));
+
+        Update update = new Update()
+                .set("summary", summary)
+                .set("summaryProvenance", provenance)
+                .inc("version", 1);
+
+        return reactiveMongoTemplate.updateFirst(query, update, Scene.class)
+                .map(updateResult -> updateResult.getModifiedCount() > 0)
+                .doOnNext(updated -> {
+                    if (updated) {
+                        chapterSceneCache.evictScene(scene.getNovelId(), scene.getChapterId(), sceneId);
+                    }
+                })
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    log.warn("原子更新场景 {} 摘要时发生乐观锁冲突 (期望版本: {})", sceneId, expectedVersion);
+                    return Mono.just(false);
+                })
+                .onErrorResume(e -> {
+                    log.error("原子更新场景 {} 摘要时发生其他错误", sceneId, e);
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * 按当前正文计算指纹（不依赖 Scene.contentHash，避免绕过元数据更新的写入导致误判）
+     */
+    static String contentHash(Scene scene) {
+        String normalized = ContentFingerprintUtil.normalize(RichTextUtil.deltaJsonToPlainText(scene.getContent()));
+        return ContentFingerprintUtil.contentHash(normalized);
+    }
+
+    static String promptVersion(String userTemplate) {
+        return ContentFingerprintUtil.sha256Hex(SYSTEM_PROMPT + "\n" + userTemplate).substring(0, 16);
+    }
+}
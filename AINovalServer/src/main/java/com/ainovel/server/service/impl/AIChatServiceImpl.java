@@ -40,6 +40,7 @@ public class AIChatServiceImpl implements AIChatService {
     private final UserAIModelConfigService userAIModelConfigService;
     private final AIService aiService;
     private final ChatMemoryService chatMemoryService;
+    private final MongoChatMemoryStore chatMemoryStore;
     private final StringEncryptor encryptor;
     private final com.ainovel.server.service.impl.content.ContentProviderFactory contentProviderFactory;
     // 已移除上游公共模型分支逻辑
@@ -53,6 +54,7 @@ public class AIChatServiceImpl implements AIChatService {
             UserAIModelConfigService userAIModelConfigService,
             AIService aiService,
             ChatMemoryService chatMemoryService,
+            MongoChatMemoryStore chatMemoryStore,
             StringEncryptor encryptor,
             com.ainovel.server.service.impl.content.ContentProviderFactory contentProviderFactory) {
         this.sessionRepository = sessionRepository;
@@ -60,6 +62,7 @@ public class AIChatServiceImpl implements AIChatService {
         this.userAIModelConfigService = userAIModelConfigService;
         this.aiService = aiService;
         this.chatMemoryService = chatMemoryService;
+        this.chatMemoryStore = chatMemoryStore;
         this.encryptor = encryptor;
         this.contentProviderFactory = contentProviderFactory;
     }
@@ -150,7 +153,7 @@ public class AIChatServiceImpl implements AIChatService {
     @Override
     public Mono<Void> deleteSession(String userId, String novelId, String sessionId) {
         log.warn("准备删除会话及其消息（支持novelId隔离） - userId: {}, novelId: {}, sessionId: {}", userId, novelId, sessionId);
-        return messageRepository.deleteBySessionId(sessionId)
+        return chatMemoryService.clearMemory(sessionId)
                 .then(sessionRepository.deleteByUserIdAndNovelIdAndSessionId(userId, novelId, sessionId))
                 .doOnSuccess(v -> log.info("成功删除会话及其消息（支持novelId隔离） - userId: {}, novelId: {}, sessionId: {}", userId, novelId, sessionId))
                 .doOnError(e -> log.error("删除会话时出错（支持novelId隔离） - userId: {}, novelId: {}, sessionId: {}", userId, novelId, sessionId, e));
@@ -249,7 +252,7 @@ public class AIChatServiceImpl implements AIChatService {
     @Deprecated
     public Mono<Void> deleteSession(String userId, String sessionId) {
         log.warn("准备删除会话及其消息: userId={}, sessionId={}", userId, sessionId);
-        return messageRepository.deleteBySessionId(sessionId)
+        return chatMemoryService.clearMemory(sessionId)
                 .then(sessionRepository.deleteByUserIdAndSessionId(userId, sessionId))
                 .doOnSuccess(v -> log.info("成功删除会话及其消息: userId={}, sessionId={}", userId, sessionId))
                 .doOnError(e -> log.error("删除会话时出错: userId={}, sessionId={}", userId, sessionId, e));
@@ -323,7 +326,7 @@ public class AIChatServiceImpl implements AIChatService {
                                                             .createdAt(LocalDateTime.now())
                                                             .build();
 
-                                                    return messageRepository.save(userMessage)
+                                                    return chatMemoryStore.append(userMessage)
                                                             .flatMap(savedUserMessage -> {
                                                                 // 保存AI响应消息
                                                                 AIChatMessage aiMessage = AIChatMessage.builder()
@@ -340,7 +343,7 @@ public class AIChatServiceImpl implements AIChatService {
                                                                         .createdAt(LocalDateTime.now())
                                                                         .build();
 
-                                                                return messageRepository.save(aiMessage)
+                                                                return chatMemoryStore.append(aiMessage)
                                                                         .flatMap(savedAiMessage -> {
                                                                             // 更新会话统计
                                                                             updatedSession.setMessageCount(updatedSession.getMessageCount() + 2); // 用户消息 + AI消息
@@ -475,7 +478,7 @@ public class AIChatServiceImpl implements AIChatService {
                                         .createdAt(LocalDateTime.now())
                                         .build();
 
-                                return messageRepository.save(userMessage)
+                                return chatMemoryStore.append(userMessage)
                                         .flatMapMany(savedUserMessage -> {
                                             session.setMessageCount(session.getMessageCount() + 1);
 
@@ -518,7 +521,7 @@ public class AIChatServiceImpl implements AIChatService {
                                                             .createdAt(LocalDateTime.now())
                                                             .build();
                                                     log.debug("流式传输完成，保存完整AI消息: sessionId={}, length={}", sessionId, fullContent.length());
-                                                    return messageRepository.save(aiMessage)
+                                                    return chatMemoryStore.append(aiMessage)
                                                             .flatMap(savedMsg -> {
                                                                 session.setLastMessageAt(LocalDateTime.now());
                                                                 session.setMessageCount(session.getMessageCount() + 1);
@@ -622,7 +625,8 @@ public class AIChatServiceImpl implements AIChatService {
                 .switchIfEmpty(Mono.error(new RuntimeException("消息不存在: " + messageId)))
                 .flatMap(message -> sessionRepository.findByUserIdAndSessionId(userId, message.getSessionId())
                 .switchIfEmpty(Mono.error(new SecurityException("无权删除此消息")))
-                .then(messageRepository.deleteById(messageId)));
+                .then(messageRepository.deleteById(messageId))
+                .doOnSuccess(v -> chatMemoryStore.invalidate(message.getSessionId())));
     }
 
     @Override
@@ -756,7 +760,7 @@ public class AIChatServiceImpl implements AIChatService {
                             .createdAt(LocalDateTime.now())
                             .build();
 
-                    return messageRepository.save(userMessage)
+                    return chatMemoryStore.append(userMessage)
                             .flatMap(savedUserMessage -> {
                                 session.setMessageCount(session.getMessageCount() + 1);
 
@@ -778,7 +782,7 @@ public class AIChatServiceImpl implements AIChatService {
                                                     .createdAt(LocalDateTime.now())
                                                     .build();
 
-                                            return messageRepository.save(aiMessage)
+                                            return chatMemoryStore.append(aiMessage)
                                                     .flatMap(savedAiMessage -> {
                                                         session.setLastMessageAt(LocalDateTime.now());
                                                         session.setMessageCount(session.getMessageCount() + 1);
@@ -831,7 +835,7 @@ public class AIChatServiceImpl implements AIChatService {
                             .createdAt(LocalDateTime.now())
                             .build();
 
-                    return messageRepository.save(userMessage)
+                    return chatMemoryStore.append(userMessage)
                             .flatMapMany(savedUserMessage -> {
                                 session.setMessageCount(session.getMessageCount() + 1);
                                 return buildAIRequestWithMemory(session, actualModelName, content, savedUserMessage.getId(), finalMemoryConfig)
@@ -972,7 +976,7 @@ public class AIChatServiceImpl implements AIChatService {
                                         .createdAt(LocalDateTime.now())
                                         .build();
 
-                                return messageRepository.save(userMessage)
+                                return chatMemoryStore.append(userMessage)
                                         .flatMap(savedUserMessage -> {
                                             session.setMessageCount(session.getMessageCount() + 1);
 
@@ -1001,7 +1005,7 @@ public class AIChatServiceImpl implements AIChatService {
                                                                 .createdAt(LocalDateTime.now())
                                                                 .build();
 
-                                                        return messageRepository.save(aiMessage)
+                                                        return chatMemoryStore.append(aiMessage)
                                                                 .flatMap(savedAiMessage -> {
                                                                     session.setLastMessageAt(LocalDateTime.now());
                                                                     session.setMessageCount(session.getMessageCount() + 1);
@@ -1075,7 +1079,7 @@ public class AIChatServiceImpl implements AIChatService {
                                 .createdAt(LocalDateTime.now())
                                 .build();
 
-                        return messageRepository.save(userMessage)
+                        return chatMemoryStore.append(userMessage)
                                 .flatMapMany(savedUserMessage -> {
                                     session.setMessageCount(session.getMessageCount() + 1);
 
@@ -1130,7 +1134,7 @@ public class AIChatServiceImpl implements AIChatService {
                                                     .build();
                                             log.info("💾 流式传输完成，保存完整AI消息: sessionId={}, length={}", 
                                                     sessionId, fullContent.length());
-                                            return messageRepository.save(aiMessage)
+                                            return chatMemoryStore.append(aiMessage)
                                                     .flatMap(savedMsg -> {
                                                         session.setLastMessageAt(LocalDateTime.now());
                                                         session.setMessageCount(session.getMessageCount() + 1);
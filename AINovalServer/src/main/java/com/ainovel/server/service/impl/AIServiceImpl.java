@@ -26,7 +26,7 @@ import com.ainovel.server.service.NovelService;
 import com.ainovel.server.service.ai.AIModelProvider;
 import com.ainovel.server.service.ai.capability.ToolCallCapable;
 import com.ainovel.server.service.ai.tools.ToolExecutionService;
-import com.ainovel.server.service.ai.factory.AIModelProviderFactory;
+import com.ainovel.server.service.ai.factory.AIProviderPool;
 import com.ainovel.server.service.UserAIModelConfigService;
 import com.ainovel.server.service.PublicModelConfigService;
 import com.ainovel.server.service.CreditService;
@@ -70,7 +70,7 @@ public class AIServiceImpl implements AIService {
     private final NovelService novelService;
     private final AIProviderRegistryService providerRegistryService;
 
-    private final AIModelProviderFactory providerFactory;
+    private final AIProviderPool providerPool;
     // 直接注入所需 Bean，避免在运行时从 ApplicationContext 动态查找
     @Autowired(required = false)
     private ApplicationEventPublisher eventPublisher;
@@ -94,7 +94,7 @@ public class AIServiceImpl implements AIService {
     public AIServiceImpl(
             NovelService novelService,
             AIProviderRegistryService providerRegistryService,
-            AIModelProviderFactory providerFactory,
+            AIProviderPool providerPool,
             ProviderCapabilityService capabilityService,
             ToolExecutionService toolExecutionService,
             ToolFallbackRegistry toolFallbackRegistry,
@@ -102,7 +102,7 @@ public class AIServiceImpl implements AIService {
             List<ProviderCapabilityDetector> capabilityDetectors) {
         this.novelService = novelService;
         this.providerRegistryService = providerRegistryService;
-        this.providerFactory = providerFactory;
+        this.providerPool = providerPool;
         this.capabilityService = capabilityService;
         this.toolExecutionService = toolExecutionService;
         this.toolFallbackRegistry = toolFallbackRegistry;
@@ -171,7 +171,7 @@ public class AIServiceImpl implements AIService {
             return Mono.error(new IllegalArgumentException("API密钥不能为空"));
         }
         String providerName = getProviderForModel(request.getModel());
-        AIModelProvider provider = providerFactory.createProvider(providerName, request.getModel(), apiKey, apiEndpoint);
+        AIModelProvider provider = providerPool.getProvider(providerName, request.getModel(), apiKey, apiEndpoint);
         provider = wrapWithBilling(provider);
 
         if (provider == null) {
@@ -190,7 +190,7 @@ public class AIServiceImpl implements AIService {
 
         // 将Provider创建与底层调用延迟到订阅时执行，避免装配阶段的副作用
         return reactor.core.publisher.Flux.defer(() -> {
-            AIModelProvider provider = providerFactory.createProvider(providerName, request.getModel(), apiKey, apiEndpoint);
+            AIModelProvider provider = providerPool.getProvider(providerName, request.getModel(), apiKey, apiEndpoint);
             provider = wrapWithBilling(provider);
 
             if (provider == null) {
@@ -215,7 +215,7 @@ public class AIServiceImpl implements AIService {
             return Mono.error(new IllegalArgumentException("API密钥不能为空"));
         }
         String providerName = getProviderForModel(request.getModel());
-        AIModelProvider provider = providerFactory.createProvider(providerName, request.getModel(), apiKey, apiEndpoint);
+        AIModelProvider provider = providerPool.getProvider(providerName, request.getModel(), apiKey, apiEndpoint);
         provider = wrapWithBilling(provider);
 
         if (provider == null) {
@@ -301,7 +301,7 @@ public class AIServiceImpl implements AIService {
                                 .take(1)  // 只取第一个模型，用于创建临时实例
                                 .flatMap(firstModel -> {
                                     // 创建临时提供商实例用于获取模型列表
-                                    AIModelProvider providerInstance = providerFactory.createProvider(
+                                    AIModelProvider providerInstance = providerPool.getProvider(
                                             lowerCaseProvider,
                                             firstModel.getId(),
                                             "dummy-key-for-listing",
@@ -391,7 +391,7 @@ public class AIServiceImpl implements AIService {
                     log.info("为提供商 '{}' 创建Provider实例，使用模型 '{}'", lowerCaseProvider, defaultModel.getId());
                     
                     // 创建Provider实例
-                    AIModelProvider providerInstance = providerFactory.createProvider(
+                    AIModelProvider providerInstance = providerPool.getProvider(
                         lowerCaseProvider,
                         defaultModel.getId(),
                         apiKey,
@@ -445,7 +445,7 @@ public class AIServiceImpl implements AIService {
                     } catch (Exception ignore) {
                         log.warn("解密用户配置API Key失败: configId={}", configId);
                     }
-                    AIModelProvider provider = providerFactory.createProvider(
+                    AIModelProvider provider = providerPool.getProvider(configId,
                             userCfg.getProvider(), userCfg.getModelName(), apiKey, userCfg.getApiEndpoint());
                     return Mono.just(wrapWithBilling(provider));
                 })
@@ -457,7 +457,7 @@ public class AIServiceImpl implements AIService {
                             .flatMap(pub -> publicModelConfigService
                                     .getActiveDecryptedApiKey(pub.getProvider(), pub.getModelId())
                                     .map(apiKey -> {
-                                        AIModelProvider provider = providerFactory.createProvider(
+                                        AIModelProvider provider = providerPool.getProvider(configId,
                                                 pub.getProvider(), pub.getModelId(), apiKey, pub.getApiEndpoint());
                                         return wrapWithBilling(provider);
                                     }));
@@ -698,7 +698,7 @@ public class AIServiceImpl implements AIService {
             }
             
             // 创建AI提供者（工具调用分支使用可调用工具的Provider）
-            AIModelProvider aiProvider = providerFactory.createToolCallProvider(provider, modelName, apiKey, apiEndpoint);
+            AIModelProvider aiProvider = providerPool.getToolCallProvider(provider, modelName, apiKey, apiEndpoint);
             
             // 尝试获取工具可调用能力（对非LangChain4j实现，如GenAI REST，允许走适配器路径）
             // 标识能力（此方法中chatModel暂未直接使用，保留以兼容后续分支或上游变更）
@@ -771,17 +771,13 @@ public class AIServiceImpl implements AIService {
             }
             log.debug("使用提供商: {} 模型={}", provider, modelName);
             
-            // 创建AI提供者（工具调用分支使用可调用工具的Provider）
-            // 优化：使用缓存键避免重复创建相同配置的提供者
-            String cacheKey = String.format("%s:%s:%s", provider, modelName, 
-                apiEndpoint != null ? apiEndpoint.hashCode() : "default");
-            
-            AIModelProvider aiProvider = providerFactory.createToolCallProvider(provider, modelName, apiKey, apiEndpoint);
+            // 获取AI提供者（工具调用分支使用可调用工具的Provider，按配置指纹从实例池复用）
+            AIModelProvider aiProvider = providerPool.getToolCallProvider(provider, modelName, apiKey, apiEndpoint);
             if (aiProvider == null) {
                 log.error("Failed to create AI provider for model: {}, provider: {}", modelName, provider);
                 throw new IllegalArgumentException("Failed to create AI provider for model: " + modelName);
             }
-            log.debug("使用AI提供者: {} (缓存键={})", aiProvider.getClass().getSimpleName(), cacheKey);
+            log.debug("使用AI提供者: {}", aiProvider.getClass().getSimpleName());
             
             // 非强依赖LangChain4j能力：统一走AIRequest路径，适配REST实现
             // 执行工具调用循环
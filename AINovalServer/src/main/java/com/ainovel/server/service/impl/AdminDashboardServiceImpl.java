@@ -1,6 +1,8 @@
 package com.ainovel.server.service.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,19 +15,29 @@ import com.ainovel.server.repository.UserLoginLogRepository;
 import com.ainovel.server.service.AdminDashboardService;
 import com.ainovel.server.domain.model.User;
 import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.AdminDashboardSnapshot;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.*;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 管理员仪表板服务实现
@@ -43,6 +55,19 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
     @Autowired(required = false)
     private ReactiveMongoTemplate mongoTemplate;
     
+    @Value("${admin.dashboard.fast-refresh-interval:PT1M}")
+    private Duration fastRefreshInterval = Duration.ofMinutes(1);
+    
+    @Value("${admin.dashboard.slow-refresh-interval:PT10M}")
+    private Duration slowRefreshInterval = Duration.ofMinutes(10);
+    
+    private final Map<String, DashboardMetric> metrics = buildMetrics();
+    
+    /**
+     * 正在进行的首次刷新，尚无快照时的并发请求共享同一次刷新
+     */
+    private final AtomicReference<Mono<AdminDashboardSnapshot>> initialRefresh = new AtomicReference<>();
+    
     @Autowired
     public AdminDashboardServiceImpl(UserRepository userRepository, 
                                    NovelRepository novelRepository,
@@ -56,86 +81,154 @@ public class AdminDashboardServiceImpl implements AdminDashboardService {
     
     @Override
     public Mono<DashboardStats> getDashboardStats() {
-        long startTime = System.currentTimeMillis();
-        logger.info("⏰ [性能监控] 开始获取管理员仪表板统计数据");
-        
-        // 并行获取各种统计数据，并添加性能监控
-        Mono<Long> totalUsersMono = userRepository.count()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] totalUsers 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<Long> activeUsersMono = getActiveUsersCount()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] activeUsers 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<Long> totalNovelsMono = novelRepository.count()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] totalNovels 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<Long> aiRequestsTodayMono = getAiRequestsToday()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] aiRequestsToday 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<Double> creditsConsumedMono = getTotalCreditsConsumed()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] creditsConsumed 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<List<ChartData>> userGrowthDataMono = getUserGrowthData()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] userGrowthData 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<List<ChartData>> requestsDataMono = getRequestsData()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] requestsData 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<List<ActivityItem>> recentActivitiesMono = getRecentActivities()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] recentActivities 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<List<ChartData>> dailyLoginDataMono = getDailyLoginData()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] dailyLoginData 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<List<ChartData>> dailyRegistrationDataMono = getDailyRegistrationData()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] dailyRegistrationData 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<List<UserNovelStats>> userNovelStatsMono = getUserNovelStats()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] userNovelStats 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<Long> newUsersTodayMono = getNewUsersToday()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] newUsersToday 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        Mono<Long> loginsTodayMono = getLoginsToday()
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] loginsToday 查询完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        
-        // Mono.zip最多支持8个参数，需要分两批
-        Mono<?> firstBatch = Mono.zip(totalUsersMono, activeUsersMono, totalNovelsMono, 
-                                      aiRequestsTodayMono, creditsConsumedMono, userGrowthDataMono,
-                                      requestsDataMono, recentActivitiesMono)
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] firstBatch 完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        
-        Mono<?> secondBatch = Mono.zip(dailyLoginDataMono, dailyRegistrationDataMono, 
-                                       userNovelStatsMono, newUsersTodayMono, loginsTodayMono)
-                .doOnSuccess(v -> logger.info("⏱️ [性能监控] secondBatch 完成，耗时: {}ms", System.currentTimeMillis() - startTime));
-        
-        return Mono.zip(firstBatch, secondBatch)
-                .map(tuple -> {
-                    @SuppressWarnings("unchecked")
-                    var first = (reactor.util.function.Tuple8<Long, Long, Long, Long, Double, 
-                                 List<ChartData>, List<ChartData>, List<ActivityItem>>) tuple.getT1();
-                    @SuppressWarnings("unchecked")
-                    var second = (reactor.util.function.Tuple5<List<ChartData>, List<ChartData>, 
-                                  List<UserNovelStats>, Long, Long>) tuple.getT2();
-                    
-                    DashboardStats stats = new DashboardStats(
-                        first.getT1().intValue(),  // totalUsers
-                        first.getT2().intValue(),  // activeUsers
-                        first.getT3().intValue(),  // totalNovels
-                        first.getT4().intValue(),  // aiRequestsToday
-                        first.getT5(),             // creditsConsumed
-                        first.getT6(),             // userGrowthData
-                        first.getT7(),             // requestsData
-                        first.getT8(),             // recentActivities
-                        second.getT1(),            // dailyLoginData
-                        second.getT2(),            // dailyRegistrationData
-                        second.getT3(),            // userNovelStats
-                        second.getT4().intValue(), // newUsersToday
-                        second.getT5().intValue()  // loginsToday
-                    );
-                    
-                    long totalTime = System.currentTimeMillis() - startTime;
-                    logger.info("✅ [性能监控] 成功获取管理员仪表板统计数据，总耗时: {}ms", totalTime);
-                    logger.debug("仪表板数据: totalUsers={}, activeUsers={}, totalNovels={}, newUsersToday={}, loginsToday={}",
-                            stats.getTotalUsers(), stats.getActiveUsers(), stats.getTotalNovels(), 
-                            stats.getNewUsersToday(), stats.getLoginsToday());
-                    
+        if (mongoTemplate == null) {
+            return loadMetrics(metrics.keySet()).map(values -> toStats(values, Map.of()));
+        }
+        // 直接读取物化快照，缺失的指标按已有数据返回，由定时刷新补齐；尚无快照（首次启动）时先同步刷新一次
+        return mongoTemplate.findById(AdminDashboardSnapshot.GLOBAL_ID, AdminDashboardSnapshot.class)
+                .switchIfEmpty(Mono.defer(this::refreshInitialSnapshot))
+                .map(snapshot -> {
+                    DashboardStats stats = snapshot.getStats() != null ? snapshot.getStats() : new DashboardStats();
+                    stats.setMetricUpdatedAt(snapshot.getMetricUpdatedAt() != null ? snapshot.getMetricUpdatedAt() : Map.of());
                     return stats;
                 })
-                .doOnError(e -> {
-                    long totalTime = System.currentTimeMillis() - startTime;
-                    logger.error("❌ [性能监控] 获取管理员仪表板统计数据失败，耗时: {}ms", totalTime, e);
+                .doOnError(e -> logger.error("获取管理员仪表板统计数据失败", e));
+    }
+    
+    /**
+     * 定期刷新变化快的指标（计数与今日数据）
+     */
+    @Scheduled(fixedDelayString = "${admin.dashboard.fast-refresh-interval:PT1M}", initialDelayString = "PT30S")
+    public void refreshFastMetrics() {
+        refreshDueMetrics(true, fastRefreshInterval).subscribe();
+    }
+    
+    /**
+     * 定期刷新开销大的指标（活跃用户、积分汇总与趋势图表）
+     */
+    @Scheduled(fixedDelayString = "${admin.dashboard.slow-refresh-interval:PT10M}", initialDelayString = "PT1M")
+    public void refreshSlowMetrics() {
+        refreshDueMetrics(false, slowRefreshInterval).subscribe();
+    }
+    
+    /**
+     * 刷新一组指标中已到期的部分；多个节点共享同一份快照，其他节点刚刷新过的指标跳过
+     */
+    Mono<AdminDashboardSnapshot> refreshDueMetrics(boolean fast, Duration interval) {
+        if (mongoTemplate == null) {
+            return Mono.empty();
+        }
+        LocalDateTime dueBefore = LocalDateTime.now().minus(interval.dividedBy(2));
+        return mongoTemplate.findById(AdminDashboardSnapshot.GLOBAL_ID, AdminDashboardSnapshot.class)
+                .map(snapshot -> snapshot.getMetricUpdatedAt() != null ? snapshot.getMetricUpdatedAt() : Map.<String, LocalDateTime>of())
+                .defaultIfEmpty(Map.of())
+                .flatMap(updatedAt -> {
+                    List<String> due = metrics.values().stream()
+                            .filter(metric -> metric.fast() == fast)
+                            .map(DashboardMetric::name)
+                            .filter(name -> updatedAt.get(name) == null || updatedAt.get(name).isBefore(dueBefore))
+                            .collect(Collectors.toList());
+                    return due.isEmpty() ? Mono.empty() : refreshMetrics(due);
+                })
+                .onErrorResume(e -> {
+                    logger.warn("刷新仪表板快照失败: {}", e.getMessage());
+                    return Mono.empty();
                 });
     }
     
+    /**
+     * 首次启动时同步刷新全部指标；并发请求共享同一次刷新，结束后清除，失败时由下一次请求重新刷新
+     */
+    private Mono<AdminDashboardSnapshot> refreshInitialSnapshot() {
+        return initialRefresh.updateAndGet(current -> current != null ? current
+                : refreshMetrics(metrics.keySet())
+                        .doOnTerminate(() -> initialRefresh.set(null))
+                        .cache());
+    }
+    
+    /**
+     * 计算指定指标并以一次原子更新写入快照，每个指标同时记录刷新时间
+     */
+    Mono<AdminDashboardSnapshot> refreshMetrics(Collection<String> names) {
+        long startTime = System.currentTimeMillis();
+        return loadMetrics(names)
+                .flatMap(values -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    Update update = new Update().set("refreshedAt", now);
+                    values.forEach((name, value) -> update
+                            .set("stats." + name, value)
+                            .set("metricUpdatedAt." + name, now));
+                    return mongoTemplate.findAndModify(
+                            Query.query(Criteria.where("_id").is(AdminDashboardSnapshot.GLOBAL_ID)), update,
+                            FindAndModifyOptions.options().upsert(true).returnNew(true), AdminDashboardSnapshot.class);
+                })
+                .doOnSuccess(snapshot -> logger.info("仪表板快照已刷新: 指标={}, 耗时: {}ms", names, System.currentTimeMillis() - startTime));
+    }
+    
+    /**
+     * 并行计算指定指标；单个指标失败时跳过，保留快照中的旧值
+     */
+    private Mono<Map<String, Object>> loadMetrics(Collection<String> names) {
+        return Flux.fromIterable(names)
+                .map(metrics::get)
+                .flatMap(metric -> Mono.defer(() -> metric.loader().get())
+                        .map(value -> Map.entry(metric.name(), (Object) value))
+                        .onErrorResume(e -> {
+                            logger.warn("计算仪表板指标 {} 失败: {}", metric.name(), e.getMessage());
+                            return Mono.empty();
+                        }), 4)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+    
+    private DashboardStats toStats(Map<String, Object> values, Map<String, LocalDateTime> updatedAt) {
+        DashboardStats stats = new DashboardStats();
+        values.forEach((name, value) -> metrics.get(name).setter().accept(stats, value));
+        stats.setMetricUpdatedAt(updatedAt);
+        return stats;
+    }
+    
+    /**
+     * 仪表板指标：名称与 DashboardStats 字段一致
+     */
+    private record DashboardMetric(String name, boolean fast, Supplier<Mono<?>> loader,
+                                   BiConsumer<DashboardStats, Object> setter) {
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, DashboardMetric> buildMetrics() {
+        Map<String, DashboardMetric> registry = new LinkedHashMap<>();
+        List<DashboardMetric> list = List.of(
+            new DashboardMetric("totalUsers", true, () -> userRepository.count().map(Long::intValue),
+                    (stats, v) -> stats.setTotalUsers((Integer) v)),
+            new DashboardMetric("totalNovels", true, () -> novelRepository.count().map(Long::intValue),
+                    (stats, v) -> stats.setTotalNovels((Integer) v)),
+            new DashboardMetric("aiRequestsToday", true, () -> getAiRequestsToday().map(Long::intValue),
+                    (stats, v) -> stats.setAiRequestsToday((Integer) v)),
+            new DashboardMetric("newUsersToday", true, () -> getNewUsersToday().map(Long::intValue),
+                    (stats, v) -> stats.setNewUsersToday((Integer) v)),
+            new DashboardMetric("loginsToday", true, () -> getLoginsToday().map(Long::intValue),
+                    (stats, v) -> stats.setLoginsToday((Integer) v)),
+            new DashboardMetric("recentActivities", true, this::getRecentActivities,
+                    (stats, v) -> stats.setRecentActivities((List<ActivityItem>) v)),
+            new DashboardMetric("activeUsers", false, () -> getActiveUsersCount().map(Long::intValue),
+                    (stats, v) -> stats.setActiveUsers((Integer) v)),
+            new DashboardMetric("creditsConsumed", false, this::getTotalCreditsConsumed,
+                    (stats, v) -> stats.setCreditsConsumed((Double) v)),
+            new DashboardMetric("userGrowthData", false, this::getUserGrowthData,
+                    (stats, v) -> stats.setUserGrowthData((List<ChartData>) v)),
+            new DashboardMetric("requestsData", false, this::getRequestsData,
+                    (stats, v) -> stats.setRequestsData((List<ChartData>) v)),
+            new DashboardMetric("dailyLoginData", false, this::getDailyLoginData,
+                    (stats, v) -> stats.setDailyLoginData((List<ChartData>) v)),
+            new DashboardMetric("dailyRegistrationData", false, this::getDailyRegistrationData,
+                    (stats, v) -> stats.setDailyRegistrationData((List<ChartData>) v)),
+            new DashboardMetric("userNovelStats", false, this::getUserNovelStats,
+                    (stats, v) -> stats.setUserNovelStats((List<UserNovelStats>) v))
+        );
+        list.forEach(metric -> registry.put(metric.name(), metric));
+        return registry;
+    }
+    
     /**
      * 创建安全的ActivityItem，确保所有字段都非空
      */
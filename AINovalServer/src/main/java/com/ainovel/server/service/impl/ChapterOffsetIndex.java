@@ -0,0 +1,164 @@
+package com.ainovel.server.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 章节偏移索引
+ *
+ * 记录每个章节在原始文件中的字节区间、标题与字数，以紧凑的二进制边车文件保存在临时文件旁边。
+ * 预览接口按索引对单个章节做内存映射读取，内存占用与索引大小成正比，而不是与文件大小成正比。
+ */
+@Getter
+public final class ChapterOffsetIndex {
+
+    /** 边车文件后缀 */
+    public static final String SIDECAR_SUFFIX = ".chapters.idx";
+
+    private static final int MAGIC = 0x41494349; // "AICI"
+    private static final int VERSION = 1;
+
+    private final Charset charset;
+    private final long fileSize;
+    private final long fileLastModified;
+    private final List<Entry> entries;
+
+    /**
+     * 单个章节
+     *
+     * @param offset 章节在文件中的起始字节偏移
+     * @param length 章节字节长度
+     * @param order 章节顺序（与解析器输出一致）
+     * @param title 章节标题
+     * @param charCount 归一化后的正文字数
+     */
+    public record Entry(long offset, int length, int order, String title, int charCount) {
+    }
+
+    public ChapterOffsetIndex(Charset charset, long fileSize, long fileLastModified, List<Entry> entries) {
+        this.charset = charset;
+        this.fileSize = fileSize;
+        this.fileLastModified = fileLastModified;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Entry get(int index) {
+        return entries.get(index);
+    }
+
+    /**
+     * 全部章节的字数之和
+     */
+    public long totalCharCount() {
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.charCount();
+        }
+        return total;
+    }
+
+    /**
+     * 索引是否仍对应给定文件（大小与修改时间一致）
+     */
+    public boolean matches(Path file) throws IOException {
+        return Files.size(file) == fileSize && Files.getLastModifiedTime(file).toMillis() == fileLastModified;
+    }
+
+    /**
+     * 以内存映射方式读取单个章节的原始文本
+     */
+    public String readRaw(Path file, int index) throws IOException {
+        Entry entry = entries.get(index);
+        if (entry.length() == 0) {
+            return "";
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, entry.offset(), entry.length());
+            byte[] bytes = new byte[entry.length()];
+            slice.get(bytes);
+            return new String(bytes, charset);
+        }
+    }
+
+    public static Path sidecarOf(Path file) {
+        return file.resolveSibling(file.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * 写入边车文件（先写临时文件再原子替换，避免并发读到半个索引）
+     */
+    public void write(Path sidecar) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(charset.name());
+            out.writeLong(fileSize);
+            out.writeLong(fileLastModified);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeLong(entry.offset());
+                out.writeInt(entry.length());
+                out.writeInt(entry.order());
+                writeString(out, entry.title());
+                out.writeInt(entry.charCount());
+            }
+        }
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 读取边车文件，格式不符时返回 null
+     */
+    public static ChapterOffsetIndex read(Path sidecar) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            Charset charset = Charset.forName(in.readUTF());
+            long fileSize = in.readLong();
+            long lastModified = in.readLong();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new Entry(in.readLong(), in.readInt(), in.readInt(), readString(in), in.readInt()));
+            }
+            return new ChapterOffsetIndex(charset, fileSize, lastModified, entries);
+        }
+    }
+
+    /**
+     * 标题可能是较长的整行文本，不使用 writeUTF（上限 64KB）
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,20 +1,20 @@
 package com.ainovel.server.service.impl;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.domain.model.AIChatMessage;
 import com.ainovel.server.domain.model.ChatMemoryConfig;
 import com.ainovel.server.domain.model.ChatMemoryMode;
-import com.ainovel.server.repository.AIChatMessageRepository;
+import com.ainovel.server.domain.model.ChatSessionSummary;
 import com.ainovel.server.service.AIService;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
 import com.ainovel.server.service.ChatMemoryService;
 
 import lombok.RequiredArgsConstructor;
@@ -30,19 +30,19 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class ChatMemoryServiceImpl implements ChatMemoryService {
 
-    private final AIChatMessageRepository messageRepository;
+    private final MongoChatMemoryStore chatMemoryStore;
     private final AIService aiService;
+    private final TokenCounter tokenCounter;
+    private final ChatSessionSummarizer sessionSummarizer;
 
     @Override
     public Flux<AIChatMessage> getMemoryMessages(String sessionId, ChatMemoryConfig config, int limit) {
         log.debug("获取会话记忆消息: sessionId={}, mode={}, limit={}", sessionId, config.getMode(), limit);
         
-        return messageRepository.findBySessionIdOrderByCreatedAtDesc(sessionId, limit)
+        // 会话热窗口已按时间正序排列，命中时无需查询数据库
+        return chatMemoryStore.recentMessages(sessionId, limit)
                 .collectList()
                 .flatMapMany(messages -> {
-                    // 按时间正序排列
-                    messages.sort(Comparator.comparing(AIChatMessage::getCreatedAt));
-                    
                     switch (config.getMode()) {
                         case HISTORY:
                             return Flux.fromIterable(messages);
@@ -65,21 +65,22 @@ public class ChatMemoryServiceImpl implements ChatMemoryService {
         log.debug("添加消息到记忆: sessionId={}, messageId={}, mode={}", sessionId, message.getId(), config.getMode());
         
         // 对于记忆模式，我们可能需要在添加新消息后进行清理
-        return messageRepository.save(message)
+        return chatMemoryStore.append(message)
                 .then(performMemoryCleanup(sessionId, config));
     }
 
     @Override
     public Mono<Void> clearMemory(String sessionId) {
         log.info("清除会话记忆: sessionId={}", sessionId);
-        return messageRepository.deleteBySessionId(sessionId);
+        return chatMemoryStore.clear(sessionId)
+                .then(sessionSummarizer.clear(sessionId));
     }
 
     @Override
     public Mono<Integer> calculateTokens(List<AIChatMessage> messages, String modelName) {
         // 简单的令牌估算：每个字符约0.25个令牌（针对中文），英文单词约1-1.5个令牌
         int totalTokens = messages.stream()
-                .mapToInt(msg -> estimateTokens(msg.getContent()))
+                .mapToInt(this::messageTokens)
                 .sum();
         
         log.debug("估算令牌数: messages={}, tokens={}, model={}", messages.size(), totalTokens, modelName);
@@ -159,50 +160,46 @@ public class ChatMemoryServiceImpl implements ChatMemoryService {
     public Mono<List<AIChatMessage>> applyTokenWindowStrategy(List<AIChatMessage> messages, int maxTokens, boolean preserveSystemMessages, String modelName) {
         log.debug("应用令牌窗口策略: messages={}, maxTokens={}, preserveSystem={}, model={}", messages.size(), maxTokens, preserveSystemMessages, modelName);
         
-        return calculateTokens(messages, modelName)
-                .map(totalTokens -> {
-                    if (totalTokens <= maxTokens) {
-                        return new ArrayList<>(messages);
-                    }
-                    
-                    List<AIChatMessage> result = new ArrayList<>();
-                    List<AIChatMessage> systemMessages = new ArrayList<>();
-                    List<AIChatMessage> nonSystemMessages = new ArrayList<>();
-                    
-                    // 分离系统消息和非系统消息
-                    for (AIChatMessage message : messages) {
-                        if ("system".equals(message.getRole()) && preserveSystemMessages) {
-                            systemMessages.add(message);
-                        } else {
-                            nonSystemMessages.add(message);
-                        }
-                    }
-                    
-                    // 添加系统消息
-                    result.addAll(systemMessages);
-                    int usedTokens = systemMessages.stream()
-                            .mapToInt(msg -> estimateTokens(msg.getContent()))
-                            .sum();
-                    
-                    // 从后向前添加非系统消息，直到达到令牌限制
-                    for (int i = nonSystemMessages.size() - 1; i >= 0; i--) {
-                        AIChatMessage message = nonSystemMessages.get(i);
-                        int messageTokens = estimateTokens(message.getContent());
-                        
-                        if (usedTokens + messageTokens <= maxTokens) {
-                            result.add(0, message); // 插入到开头保持时间顺序
-                            usedTokens += messageTokens;
-                        } else {
-                            break;
-                        }
-                    }
-                    
-                    // 重新排序
-                    result.sort(Comparator.comparing(AIChatMessage::getCreatedAt));
-                    
-                    log.debug("令牌窗口策略结果: 原始={}, 结果={}, 使用令牌={}", messages.size(), result.size(), usedTokens);
-                    return result;
-                });
+        // 单次从后向前累加，不再先对全量求和
+        return Mono.fromSupplier(() -> {
+            List<AIChatMessage> systemMessages = new ArrayList<>();
+            List<AIChatMessage> nonSystemMessages = new ArrayList<>();
+
+            // 分离系统消息和非系统消息
+            for (AIChatMessage message : messages) {
+                if ("system".equals(message.getRole()) && preserveSystemMessages) {
+                    systemMessages.add(message);
+                } else {
+                    nonSystemMessages.add(message);
+                }
+            }
+
+            int usedTokens = systemMessages.stream()
+                    .mapToInt(this::messageTokens)
+                    .sum();
+
+            // 从后向前保留非系统消息，直到达到令牌限制
+            int start = nonSystemMessages.size();
+            while (start > 0) {
+                int messageTokens = messageTokens(nonSystemMessages.get(start - 1));
+                if (usedTokens + messageTokens > maxTokens) {
+                    break;
+                }
+                usedTokens += messageTokens;
+                start--;
+            }
+
+            if (systemMessages.size() + nonSystemMessages.size() - start == messages.size()) {
+                return new ArrayList<>(messages);
+            }
+
+            List<AIChatMessage> result = new ArrayList<>(systemMessages);
+            result.addAll(nonSystemMessages.subList(start, nonSystemMessages.size()));
+            result.sort(Comparator.comparing(AIChatMessage::getCreatedAt));
+
+            log.debug("令牌窗口策略结果: 原始={}, 结果={}, 使用令牌={}", messages.size(), result.size(), usedTokens);
+            return result;
+        });
     }
 
     @Override
@@ -213,42 +210,57 @@ public class ChatMemoryServiceImpl implements ChatMemoryService {
             return Mono.just(new ArrayList<>(messages));
         }
         
-        // 保留最后的retainCount条消息
-        List<AIChatMessage> recentMessages = messages.subList(Math.max(0, messages.size() - retainCount), messages.size());
-        
-        // 需要总结的消息
-        List<AIChatMessage> messagesToSummarize = messages.subList(0, Math.max(0, messages.size() - retainCount));
-        
-        if (messagesToSummarize.isEmpty()) {
+        // 保留最后的retainCount条消息，其余消息由持久化的滚动总结代表
+        int split = Math.max(0, messages.size() - retainCount);
+        List<AIChatMessage> recentMessages = messages.subList(split, messages.size());
+        List<AIChatMessage> evictedMessages = messages.subList(0, split);
+
+        if (evictedMessages.isEmpty()) {
             return Mono.just(new ArrayList<>(recentMessages));
         }
-        
-        // 生成总结（这里简化处理，实际应该调用AI服务）
-        return generateSummary(messagesToSummarize, modelName)
-                .map(summary -> {
+
+        String sessionId = messages.get(0).getSessionId();
+        String userId = messages.get(0).getUserId();
+        return sessionSummarizer.getSummary(sessionId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(current -> {
+                    ChatSessionSummary summary = current.orElse(null);
+                    List<AIChatMessage> pending = ChatSessionSummarizer.pendingMessages(summary, evictedMessages);
+
+                    // 只把新移出窗口的消息交给后台折叠，本轮不等待模型调用
+                    sessionSummarizer.foldInBackground(sessionId, userId, summary, pending);
+
                     List<AIChatMessage> result = new ArrayList<>();
-                    
-                    // 添加总结消息
-                    AIChatMessage summaryMessage = AIChatMessage.builder()
-                            .sessionId(messages.get(0).getSessionId())
-                            .userId(messages.get(0).getUserId())
-                            .role("system")
-                            .content("【对话总结】" + summary)
-                            .modelName(modelName)
-                            .metadata(Map.of("type", "summary", "originalMessageCount", messagesToSummarize.size()))
-                            .status("GENERATED")
-                            .messageType("SUMMARY")
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                    
-                    result.add(summaryMessage);
+                    if (summary != null) {
+                        result.add(toSummaryMessage(summary, userId, modelName));
+                    }
+                    // 尚未折叠的消息原样保留（最多retainCount条），折叠完成后自然移出
+                    result.addAll(pending.subList(Math.max(0, pending.size() - retainCount), pending.size()));
                     result.addAll(recentMessages);
-                    
-                    log.debug("总结策略结果: 原始={}, 总结={}, 保留={}, 结果={}", messages.size(), messagesToSummarize.size(), recentMessages.size(), result.size());
+
+                    log.debug("总结策略结果: 原始={}, 已总结={}, 待折叠={}, 保留={}, 结果={}", messages.size(),
+                            summary != null ? summary.getCoveredMessageCount() : 0, pending.size(), recentMessages.size(), result.size());
                     return result;
                 });
     }
 
+    private AIChatMessage toSummaryMessage(ChatSessionSummary summary, String userId, String modelName) {
+        return AIChatMessage.builder()
+                .sessionId(summary.getId())
+                .userId(userId)
+                .role("system")
+                .content("【对话总结】" + summary.getContent())
+                .modelName(modelName)
+                .metadata(Map.of("type", "summary", "originalMessageCount",
+                        summary.getCoveredMessageCount() != null ? summary.getCoveredMessageCount() : 0))
+                .status("GENERATED")
+                .messageType("SUMMARY")
+                .tokenCount(summary.getTokenCount())
+                .createdAt(summary.getCoveredUntil())
+                .build();
+    }
+
     /**
      * 执行记忆清理
      */
@@ -263,28 +275,22 @@ public class ChatMemoryServiceImpl implements ChatMemoryService {
     }
 
     /**
-     * 估算文本的令牌数量
+     * 估算文本的令牌数量（本地BPE词表计数）
      */
     private int estimateTokens(String text) {
-        if (text == null || text.isEmpty()) {
-            return 0;
-        }
-        
-        // 简单估算：中文字符按0.5个令牌计算，英文单词按1个令牌计算
-        int chineseChars = 0;
-        int englishWords = 0;
-        
-        for (char c : text.toCharArray()) {
-            if (Character.toString(c).matches("[\\u4e00-\\u9fa5]")) {
-                chineseChars++;
-            }
+        return tokenCounter.countTokens(text);
+    }
+
+    /**
+     * 单条消息的令牌数：优先使用消息上已有的计数，否则本地计数（长文本的计数由 TokenCounter 按内容缓存）
+     * 消息对象与会话热窗口共享，这里不回写计数
+     */
+    private int messageTokens(AIChatMessage message) {
+        Integer known = message.getTokenCount();
+        if (known != null && known > 0) {
+            return known;
         }
-        
-        // 估算英文单词数
-        String[] words = text.replaceAll("[\\u4e00-\\u9fa5]", " ").split("\\s+");
-        englishWords = words.length;
-        
-        return (int) (chineseChars * 0.5 + englishWords);
+        return estimateTokens(message.getContent());
     }
 
     /**
@@ -297,22 +303,4 @@ public class ChatMemoryServiceImpl implements ChatMemoryService {
                 .map(AIChatMessage::getModelName)
                 .orElse("gpt-3.5-turbo");
     }
-
-    /**
-     * 生成对话总结
-     */
-    private Mono<String> generateSummary(List<AIChatMessage> messages, String modelName) {
-        // 这里简化处理，返回简单的总结
-        // 实际应该调用AI服务生成智能总结
-        String conversationText = messages.stream()
-                .map(msg -> msg.getRole() + ": " + msg.getContent())
-                .collect(Collectors.joining("\n"));
-        
-        String summary = String.format("这段对话包含了%d条消息，涵盖了用户与AI助手的交互。", messages.size());
-        
-        // TODO: 实际实现应该调用AI服务生成更智能的总结
-        // return aiService.generateSummary(conversationText, modelName);
-        
-        return Mono.just(summary);
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package com.ainovel.server.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.domain.model.AIChatMessage;
+import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.ChatSessionSummary;
+import com.ainovel.server.repository.ChatSessionSummaryRepository;
+import com.ainovel.server.service.AIService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 会话滚动总结维护器
+ *
+ * - 总结持久化在 ai_chat_session_summaries，进程内缓存避免每轮查询
+ * - 只把上次总结之后新移出保留窗口的消息折叠进旧总结，单次调用的输入与会话总长度无关
+ * - 折叠在后台异步执行，同一会话同时只有一个折叠任务，请求线程只读取当前已有的总结
+ * - 每次清除递增会话的清除代数；折叠写入后代数已变化说明期间发生过清除，删除刚写入的总结且不放入缓存
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatSessionSummarizer {
+
+    /** 待折叠消息达到该数量才触发一次折叠，避免每轮都调用模型 */
+    static final int FOLD_BATCH_SIZE = 4;
+
+    /** 总结生成的最大输出token数 */
+    private static final int SUMMARY_MAX_TOKENS = 1024;
+
+    /** 缓存中表示"会话尚无总结"的占位值 */
+    private static final ChatSessionSummary NONE = new ChatSessionSummary();
+
+    private final ChatSessionSummaryRepository summaryRepository;
+    private final AIService aiService;
+    private final UserAIModelConfigService userAIModelConfigService;
+    private final TokenCounter tokenCounter;
+
+    private final AsyncCache<String, ChatSessionSummary> summaries = Caffeine.newBuilder()
+            .maximumSize(2_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .buildAsync();
+
+    private final Set<String> foldingSessions = ConcurrentHashMap.newKeySet();
+
+    /** 会话清除代数（远长于单次折叠耗时后过期，过期即视为从未清除） */
+    private final Cache<String, AtomicLong> clearEpochs = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    /**
+     * 获取会话当前总结，没有总结时返回空
+     */
+    public Mono<ChatSessionSummary> getSummary(String sessionId) {
+        return Mono.fromFuture(() -> summaries.get(sessionId, (key, executor) ->
+                        summaryRepository.findById(key).defaultIfEmpty(NONE).toFuture()))
+                .filter(summary -> summary != NONE);
+    }
+
+    /**
+     * 从移出保留窗口的消息中筛选尚未折叠进总结的部分（输入按时间正序）
+     */
+    public static List<AIChatMessage> pendingMessages(ChatSessionSummary summary, List<AIChatMessage> evicted) {
+        if (summary == null || summary.getCoveredUntil() == null) {
+            return evicted;
+        }
+        List<AIChatMessage> pending = new ArrayList<>();
+        for (AIChatMessage message : evicted) {
+            if (message.getCreatedAt() != null && message.getCreatedAt().isAfter(summary.getCoveredUntil())) {
+                pending.add(message);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 待折叠消息足够多（或会话还没有总结）时在后台折叠，立即返回
+     */
+    public void foldInBackground(String sessionId, String userId, ChatSessionSummary current, List<AIChatMessage> pending) {
+        if (pending.isEmpty() || (current != null && pending.size() < FOLD_BATCH_SIZE)) {
+            return;
+        }
+        if (userId == null || !foldingSessions.add(sessionId)) {
+            return;
+        }
+        fold(sessionId, userId, current, List.copyOf(pending))
+                .doFinally(signal -> foldingSessions.remove(sessionId))
+                .subscribe(
+                        summary -> log.debug("会话总结已更新: sessionId={}, covered={}", sessionId, summary.getCoveredMessageCount()),
+                        e -> log.warn("会话总结折叠失败，下次请求时重试: sessionId={}, error={}", sessionId, e.getMessage()));
+    }
+
+    /**
+     * 将新消息折叠进旧总结并持久化
+     */
+    Mono<ChatSessionSummary> fold(String sessionId, String userId, ChatSessionSummary current, List<AIChatMessage> pending) {
+        return Mono.defer(() -> {
+            long epoch = clearEpoch(sessionId);
+            return generateAndSave(sessionId, userId, current, pending)
+                    .flatMap(saved -> {
+                        if (clearEpoch(sessionId) != epoch) {
+                            // 折叠期间会话被清除：撤销本次写入，不让已清除的总结复活
+                            log.debug("会话总结折叠期间会话已清除，丢弃结果: sessionId={}", sessionId);
+                            return summaryRepository.deleteById(sessionId).then(Mono.<ChatSessionSummary>empty());
+                        }
+                        summaries.synchronous().put(sessionId, saved);
+                        return Mono.just(saved);
+                    });
+        });
+    }
+
+    private Mono<ChatSessionSummary> generateAndSave(String sessionId, String userId, ChatSessionSummary current,
+            List<AIChatMessage> pending) {
+        return userAIModelConfigService.getValidatedToolDefaultConfiguration(userId)
+                .onErrorResume(e -> Mono.empty())
+                .switchIfEmpty(Mono.defer(() -> userAIModelConfigService.getValidatedDefaultConfiguration(userId)))
+                .flatMap(config -> userAIModelConfigService.getDecryptedApiKey(userId, config.getId())
+                        .flatMap(apiKey -> {
+                            AIRequest request = buildFoldRequest(userId, sessionId, config.getModelName(),
+                                    current != null ? current.getContent() : null, pending);
+                            return aiService.generateContent(request, apiKey, config.getApiEndpoint());
+                        })
+                        .map(response -> merge(sessionId, userId, current, pending, response.getContent(), config.getModelName())))
+                .flatMap(summaryRepository::save);
+    }
+
+    /**
+     * 清除会话总结
+     */
+    public Mono<Void> clear(String sessionId) {
+        return Mono.defer(() -> {
+            clearEpochs.get(sessionId, key -> new AtomicLong()).incrementAndGet();
+            summaries.synchronous().invalidate(sessionId);
+            return summaryRepository.deleteById(sessionId)
+                    // 删除前并发读取可能把旧总结重新放入缓存
+                    .doFinally(signal -> summaries.synchronous().invalidate(sessionId));
+        });
+    }
+
+    private long clearEpoch(String sessionId) {
+        AtomicLong epoch = clearEpochs.getIfPresent(sessionId);
+        return epoch != null ? epoch.get() : 0L;
+    }
+
+    private ChatSessionSummary merge(String sessionId, String userId, ChatSessionSummary current,
+            List<AIChatMessage> pending, String content, String modelName) {
+        AIChatMessage last = pending.get(pending.size() - 1);
+        int covered = (current != null && current.getCoveredMessageCount() != null ? current.getCoveredMessageCount() : 0)
+                + pending.size();
+        LocalDateTime now = LocalDateTime.now();
+        return ChatSessionSummary.builder()
+                .id(sessionId)
+                .userId(userId)
+                .content(content != null ? content.trim() : "")
+                .coveredUntil(last.getCreatedAt())
+                .lastCoveredMessageId(last.getId())
+                .coveredMessageCount(covered)
+                .tokenCount(tokenCounter.countTokens(content, modelName))
+                .modelName(modelName)
+                .createdAt(current != null && current.getCreatedAt() != null ? current.getCreatedAt() : now)
+                .updatedAt(now)
+                .build();
+    }
+
+    static AIRequest buildFoldRequest(String userId, String sessionId, String modelName,
+            String previousSummary, List<AIChatMessage> pending) {
+        StringBuilder input = new StringBuilder();
+        if (previousSummary != null && !previousSummary.isBlank()) {
+            input.append("【已有总结】\n").append(previousSummary).append("\n\n");
+        }
+        input.append("【新增对话】\n");
+        for (AIChatMessage message : pending) {
+            input.append(message.getRole()).append(": ").append(message.getContent()).append('\n');
+        }
+
+        List<AIRequest.Message> messages = new ArrayList<>();
+        messages.add(AIRequest.Message.builder()
+                .role("system")
+                .content("你负责维护一段对话的滚动总结。请把【新增对话】中的关键信息合并进【已有总结】，"
+                        + "保留人物、设定、已做出的决定和未完成的请求，删除寒暄与重复内容。只输出更新后的总结正文。")
+                .build());
+        messages.add(AIRequest.Message.builder()
+                .role("user")
+                .content(input.toString())
+                .build());
+
+        AIRequest request = new AIRequest();
+        request.setUserId(userId);
+        request.setSessionId(sessionId);
+        request.setModel(modelName);
+        request.setMessages(messages);
+        request.setTemperature(0.3);
+        request.setMaxTokens(SUMMARY_MAX_TOKENS);
+        request.setFeatureType(AIFeatureType.AI_CHAT);
+        return request;
+    }
+}
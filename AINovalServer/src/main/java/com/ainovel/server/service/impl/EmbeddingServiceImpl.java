@@ -1,5 +1,6 @@
 package com.ainovel.server.service.impl;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,7 +10,10 @@ import dev.langchain4j.model.embedding.onnx.allminilml6v2q.AllMiniLmL6V2Quantize
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.ainovel.server.common.util.ContentFingerprintUtil;
 import com.ainovel.server.service.EmbeddingService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.model.embedding.EmbeddingModel;
@@ -33,6 +37,12 @@ public class EmbeddingServiceImpl implements EmbeddingService {
     
     // 是否使用量化模型（量化模型速度更快但精度略低）
     private final boolean useQuantizedModel;
+
+    // 按文本内容缓存向量：重复导入时未修改章节切出的文本段完全相同，直接复用向量
+    private final Cache<String, float[]> vectorCache = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterAccess(Duration.ofHours(6))
+            .build();
     
     public EmbeddingServiceImpl(
             @Value("${ai.embedding.default-model:all-minilm-l6-v2}") String defaultEmbeddingModel,
@@ -67,12 +77,13 @@ public class EmbeddingServiceImpl implements EmbeddingService {
             return Mono.error(new IllegalArgumentException("文本内容不能为空"));
         }
         
-        return Mono.fromCallable(() -> {
+        String cacheKey = modelName + ":" + ContentFingerprintUtil.sha256Hex(text);
+        return Mono.fromCallable(() -> vectorCache.get(cacheKey, key -> {
             EmbeddingModel embeddingModel = getOrCreateEmbeddingModel(modelName);
             log.info("生成向量模型成功");
             Embedding embedding = embeddingModel.embed(text).content();
             return embedding.vector();
-        }).onErrorResume(e -> {
+        })).onErrorResume(e -> {
             log.error("生成向量嵌入失败", e);
             return Mono.error(new RuntimeException("生成向量嵌入失败: " + e.getMessage()));
         });
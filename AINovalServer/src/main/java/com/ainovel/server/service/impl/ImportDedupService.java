@@ -0,0 +1,164 @@
+package com.ainovel.server.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.common.util.ContentFingerprintUtil;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.repository.NovelRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 导入去重：按章节内容指纹在用户已有小说中查找相同或近似的章节，复用其摘要
+ *
+ * - 精确匹配：contentHash 相同（归一化后正文一致）
+ * - 近似匹配：SimHash 任一分块组合键相同且汉明距离不超过阈值（少量改字、修订版重新导入）
+ *
+ * 复用了摘要的场景在批量摘要任务中会被跳过（overwriteExisting=false），不再调用模型。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportDedupService {
+
+    private final NovelRepository novelRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * 用户已有小说（不含本次导入的小说）的ID，作为去重的查找范围
+     */
+    public Mono<List<String>> candidateNovelIds(String userId, String excludeNovelId) {
+        return novelRepository.findByAuthorId(userId)
+                .map(Novel::getId)
+                .filter(id -> !id.equals(excludeNovelId))
+                .collectList();
+    }
+
+    /**
+     * 为一批待写入的场景复用已有章节的摘要（直接修改传入的场景）
+     *
+     * @return 复用了摘要的场景数
+     */
+    public Mono<Integer> reuseSummaries(List<String> novelIds, List<Scene> batch) {
+        if (novelIds.isEmpty() || batch.isEmpty()) {
+            return Mono.just(0);
+        }
+        Set<String> hashes = new LinkedHashSet<>();
+        for (Scene scene : batch) {
+            if (scene.getContentHash() != null) {
+                hashes.add(scene.getContentHash());
+            }
+        }
+        if (hashes.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        Query exactQuery = summaryQuery(novelIds, Criteria.where("contentHash").in(hashes));
+        exactQuery.fields().include("contentHash").include("summary");
+        return reactiveMongoTemplate.find(exactQuery, Scene.class)
+                .collectList()
+                .flatMap(matches -> {
+                    Map<String, Scene> byHash = new HashMap<>();
+                    for (Scene match : matches) {
+                        byHash.putIfAbsent(match.getContentHash(), match);
+                    }
+                    int reused = 0;
+                    List<Scene> unmatched = new ArrayList<>();
+                    for (Scene scene : batch) {
+                        Scene match = scene.getContentHash() != null ? byHash.get(scene.getContentHash()) : null;
+                        if (match != null) {
+                            scene.setSummary(match.getSummary());
+                            reused++;
+                        } else if (scene.getSimHashBands() != null) {
+                            unmatched.add(scene);
+                        }
+                    }
+                    int exact = reused;
+                    return reuseNearDuplicates(novelIds, unmatched)
+                            .map(near -> {
+                                if (exact + near > 0) {
+                                    log.info("导入去重：本批 {} 个场景中精确复用 {} 个、近似复用 {} 个摘要", batch.size(), exact, near);
+                                }
+                                return exact + near;
+                            });
+                });
+    }
+
+    private Mono<Integer> reuseNearDuplicates(List<String> novelIds, List<Scene> scenes) {
+        if (scenes.isEmpty()) {
+            return Mono.just(0);
+        }
+        Set<Integer> bands = new LinkedHashSet<>();
+        for (Scene scene : scenes) {
+            bands.addAll(scene.getSimHashBands());
+        }
+
+        // 先只取 SimHash 校验距离，再按命中的ID读取摘要
+        Query nearQuery = summaryQuery(novelIds, Criteria.where("simHashBands").in(bands));
+        nearQuery.fields().include("simHash");
+        return reactiveMongoTemplate.find(nearQuery, Scene.class)
+                .collectList()
+                .flatMap(candidates -> {
+                    Map<Scene, String> bestMatches = new IdentityHashMap<>();
+                    for (Scene scene : scenes) {
+                        String bestId = null;
+                        int bestDistance = Integer.MAX_VALUE;
+                        for (Scene candidate : candidates) {
+                            if (candidate.getSimHash() == null) {
+                                continue;
+                            }
+                            int distance = ContentFingerprintUtil.hammingDistance(scene.getSimHash(), candidate.getSimHash());
+                            if (distance <= ContentFingerprintUtil.NEAR_DUPLICATE_DISTANCE && distance < bestDistance) {
+                                bestId = candidate.getId();
+                                bestDistance = distance;
+                            }
+                        }
+                        if (bestId != null) {
+                            bestMatches.put(scene, bestId);
+                        }
+                    }
+                    if (bestMatches.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    Query summaries = new Query(Criteria.where("_id").in(new LinkedHashSet<>(bestMatches.values())));
+                    summaries.fields().include("summary");
+                    return reactiveMongoTemplate.find(summaries, Scene.class)
+                            .collectMap(Scene::getId, Scene::getSummary)
+                            .map(summaryById -> {
+                                int reused = 0;
+                                for (Map.Entry<Scene, String> match : bestMatches.entrySet()) {
+                                    String summary = summaryById.get(match.getValue());
+                                    if (summary != null && !summary.isEmpty()) {
+                                        match.getKey().setSummary(summary);
+                                        reused++;
+                                    }
+                                }
+                                return reused;
+                            });
+                });
+    }
+
+    /**
+     * 在给定小说范围内查找已有摘要的场景（调用方按需设置投影字段）
+     */
+    private Query summaryQuery(List<String> novelIds, Criteria fingerprint) {
+        return new Query(new Criteria().andOperator(
+                Criteria.where("novelId").in(novelIds),
+                fingerprint,
+                Criteria.where("summary").nin(null, "")));
+    }
+}
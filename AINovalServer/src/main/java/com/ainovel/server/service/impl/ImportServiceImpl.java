@@ -2,25 +2,34 @@ package com.ainovel.server.service.impl;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.nio.charset.MalformedInputException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 
-import com.ainovel.server.domain.dto.ParsedNovelData;
 import com.ainovel.server.domain.dto.ParsedSceneData;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Scene;
@@ -42,7 +51,11 @@ import com.ainovel.server.web.dto.ChapterPreview;
 import com.ainovel.server.web.dto.ChapterDetailDto;
 import com.ainovel.server.service.UserAIModelConfigService;
 import com.ainovel.server.common.util.PromptUtil;
+import com.ainovel.server.common.util.TextFileCharsetUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -56,6 +69,15 @@ import reactor.core.scheduler.Schedulers;
 @Service
 public class ImportServiceImpl implements ImportService {
 
+    /** 每批写入的场景数 */
+    private static final int SCENE_BATCH_SIZE = 200;
+
+    /** 同时在途的写入批次上限 */
+    private static final int MAX_IN_FLIGHT_BATCHES = 4;
+
+    /** 文件达到该大小且有多个CPU时，改用并行章节识别 */
+    private static final long PARALLEL_PARSE_THRESHOLD_BYTES = 32L * 1024 * 1024;
+
     private final NovelRepository novelRepository;
     private final SceneRepository sceneRepository;
     private final IndexingService indexingService;
@@ -64,6 +86,8 @@ public class ImportServiceImpl implements ImportService {
     private final TaskSubmissionService taskSubmissionService;
     private final UserAIModelConfigService userAIModelConfigService;
     private final TokenEstimationService tokenEstimationService;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ImportDedupService importDedupService;
 
     // 使用ConcurrentHashMap存储活跃的导入任务Sink
     private final Map<String, Sinks.Many<ServerSentEvent<ImportStatus>>> activeJobSinks = new ConcurrentHashMap<>();
@@ -83,8 +107,18 @@ public class ImportServiceImpl implements ImportService {
     // 用于存储预览会话信息
     private final Map<String, ImportSessionInfo> previewSessions = new ConcurrentHashMap<>();
 
-    // 用于存储解析后的数据（按会话ID）
-    private final Map<String, ParsedNovelData> parsedDataCache = new ConcurrentHashMap<>();
+    // 超大TXT并行解析专用线程池（按CPU核数有界），分区读取文件属于阻塞IO，不占用公共 ForkJoinPool
+    private final ForkJoinPool parsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("import-parse-" + thread.getPoolIndex());
+        return thread;
+    }, null, false);
+
+    // 预览会话的章节偏移索引（按会话ID），完整索引同时以边车文件保存在临时文件旁
+    private final Cache<String, ChapterOffsetIndex> chapterIndexCache = Caffeine.newBuilder()
+            .maximumSize(256)
+            .expireAfterAccess(Duration.ofHours(2))
+            .build();
 
     @Autowired
     public ImportServiceImpl(
@@ -95,7 +129,9 @@ public class ImportServiceImpl implements ImportService {
             List<NovelParser> parsers,
             TaskSubmissionService taskSubmissionService,
             UserAIModelConfigService userAIModelConfigService,
-            TokenEstimationService tokenEstimationService) {
+            TokenEstimationService tokenEstimationService,
+            ReactiveMongoTemplate reactiveMongoTemplate,
+            ImportDedupService importDedupService) {
         this.novelRepository = novelRepository;
         this.sceneRepository = sceneRepository;
         this.indexingService = indexingService;
@@ -104,6 +140,13 @@ public class ImportServiceImpl implements ImportService {
         this.taskSubmissionService = taskSubmissionService;
         this.userAIModelConfigService = userAIModelConfigService;
         this.tokenEstimationService = tokenEstimationService;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.importDedupService = importDedupService;
+    }
+
+    @PreDestroy
+    public void shutdownParsePool() {
+        parsePool.shutdownNow();
     }
 
     @Override
@@ -227,36 +270,41 @@ public class ImportServiceImpl implements ImportService {
 
             NovelParser parser = getParserForFile(originalFilename);
 
-            // 尝试使用多种常见编码读取，避免因未知编码导致 UTF-8 解析失败
-            List<String> fileLines;
+            // 仅读取文件前缀探测编码，之后通过 FileChannel 惰性逐行读取
+            Charset charset;
             try {
-                fileLines = readFileLinesWithAutoCharset(tempFilePath);
+                charset = TextFileCharsetUtil.detectCharset(tempFilePath);
             } catch (IOException e) {
                 log.error("Job {}: 读取文件失败", jobId, e);
                 throw new RuntimeException("读取文件失败: " + e.getMessage(), e);
             }
 
-            // 预处理：去除噪声与站点广告行，避免影响章节分割
-            fileLines = preprocessLines(fileLines);
-
-            ParsedNovelData parsedData = parser.parseStream(fileLines.stream());
-
-            // 检查是否已取消
-            if (isCancelled(jobId)) {
-                throw new InterruptedException("导入任务已被用户取消");
-            }
-
             // 始终使用文件名作为小说标题
             String title = extractTitleFromFilename(originalFilename);
-            parsedData.setNovelTitle(title);
-            log.info("Job {}: 使用文件名 '{}' 作为小说标题。", jobId, title);
-
-            log.info("Job {}: Parsed data obtained. Scene count: {}", jobId, parsedData.getScenes().size());
-            sink.tryEmitNext(createStatusEvent(jobId, "SAVING", "解析完成，发现 " + parsedData.getScenes().size() + " 个场景，正在保存小说结构..."));
+            log.info("Job {}: 使用文件名 '{}' 作为小说标题，编码: {}", jobId, title, charset);
+
+            // 边解析边保存：每识别出一章即转换为场景，按批写入
+            Flux<ParsedSceneData> chapters;
+            if (parser instanceof TxtNovelParser txtParser && useParallelParsing(tempFilePath)) {
+                // 超大TXT：先并行定位章节边界，再按章节字节区间并行读取，发出顺序不变
+                chapters = Mono.fromCallable(() -> txtParser.locateChaptersParallel(
+                                tempFilePath, charset, this::keepLine, parsePool))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMapMany(index -> Flux.range(0, index.size())
+                                .flatMapSequential(i -> Mono.fromCallable(
+                                                () -> txtParser.readChapter(tempFilePath, index, i, this::keepLine))
+                                        .subscribeOn(Schedulers.boundedElastic()),
+                                        parsePool.getParallelism()));
+            } else {
+                chapters = Flux.using(
+                        () -> preprocessLines(TextFileCharsetUtil.lines(tempFilePath, charset)),
+                        parser::parseIncrementally,
+                        Stream::close)
+                        .subscribeOn(Schedulers.boundedElastic()); // 文件读取与解析不占用数据库回调线程
+            }
 
-            log.info("Job {}: About to call saveNovelAndScenesReactive...", jobId);
-            // 现在调用 saveNovelAndScenesReactive
-            return saveNovelAndScenesReactive(parsedData, userId)
+            sink.tryEmitNext(createStatusEvent(jobId, "SAVING", "正在解析并分批保存章节..."));
+            return saveNovelAndScenesStreaming(chapters, title, userId, jobId, sink)
                     .flatMap(savedNovel -> {
                         // 检查是否已取消
                         if (isCancelled(jobId)) {
@@ -415,15 +463,25 @@ public class ImportServiceImpl implements ImportService {
     }
 
     /**
-     * 保存小说和场景（响应式方式）
+     * 保存小说和场景（流式批量写入）
+     *
+     * 1. 先保存小说本身，拿到ID；
+     * 2. 章节按顺序转换为场景（预先分配章节ID），每 SCENE_BATCH_SIZE 个一批，以无序 bulkWrite 插入，
+     *    最多 MAX_IN_FLIGHT_BATCHES 批同时在途，上游解析受下游写入速度约束；
+     * 3. 全部写完后用一次更新写入小说结构、字数等元数据；
+     * 4. 中途取消或写入失败时删除小说与已写入的场景。
+     *
+     * @param jobId 导入任务ID，用于取消检测与进度推送
+     * @param sink  导入状态SSE流，每写完一批推送一次进度
      */
-    private Mono<Novel> saveNovelAndScenesReactive(ParsedNovelData parsedData, String userId) {
-        log.info(">>> saveNovelAndScenesReactive started for novel: {} userId: {} ", parsedData.getNovelTitle(), userId);
+    private Mono<Novel> saveNovelAndScenesStreaming(Flux<ParsedSceneData> chapters, String title, String userId,
+                                                    String jobId, Sinks.Many<ServerSentEvent<ImportStatus>> sink) {
+        log.info(">>> saveNovelAndScenesStreaming started for novel: {} userId: {} ", title, userId);
         LocalDateTime novelNow = LocalDateTime.now(); // 时间戳用于 Novel
 
         // 创建Novel对象
         Novel novel = Novel.builder()
-                .title(parsedData.getNovelTitle())
+                .title(title)
                 .author(Novel.Author.builder().id(userId).build())
                 .status("draft")
                 .createdAt(novelNow) // 使用 Novel 的时间戳
@@ -431,97 +489,150 @@ public class ImportServiceImpl implements ImportService {
                 .build();
 
         // 先保存小说
-        log.info(">>> Attempting to save novel: {}", novel.getTitle());
         return novelRepository.save(novel)
                 .flatMap(savedNovel -> {
-                    log.info(">>> Novel saved successfully with ID: {}", savedNovel.getId()); // 保存成功日志
-                    List<Scene> scenes = new ArrayList<>();
-
-                    // 创建场景列表 - 每个解析出的章节单独一个章节，每个章节默认创建一个场景
-                    for (int i = 0; i < parsedData.getScenes().size(); i++) {
-                        ParsedSceneData parsedScene = parsedData.getScenes().get(i);
-                        LocalDateTime sceneNow = LocalDateTime.now(); // 为每个 Scene 获取独立的时间戳
-
-                        // 使用UUID生成场景ID，与前端保持一致
-                        String sceneId = UUID.randomUUID().toString();
-
-                        // 将普通文本转换为富文本格式 - 调用 PromptUtil
-                        String richTextContent = PromptUtil.convertPlainTextToQuillDelta(parsedScene.getSceneContent());
-
-                        Scene scene = Scene.builder()
-                                .id(sceneId)
-                                .novelId(savedNovel.getId())
-                                .title(parsedScene.getSceneTitle())
-                                .content(richTextContent)
-                                .summary("")
-                                .sequence(parsedScene.getOrder())
-                                .sceneType("NORMAL")
-                                .characterIds(new ArrayList<>())
-                                .locations(new ArrayList<>())
-                                .version(0)
-                                .history(new ArrayList<>())
-                                .createdAt(sceneNow) // 使用 Scene 的时间戳
-                                .updatedAt(sceneNow) // 使用 Scene 的时间戳
-                                .build();
-
-                        // 使用元数据服务计算并设置场景字数
-                        metadataService.updateSceneMetadata(scene);
-
-                        scenes.add(scene);
-                    }
+                    log.info(">>> Novel saved successfully with ID: {}", savedNovel.getId());
+                    // 结构与字数只在顺序的 map 阶段累加，批次写入可以乱序完成
+                    List<Novel.Chapter> structureChapters = new ArrayList<>();
+                    AtomicLong totalWordCount = new AtomicLong();
+                    AtomicInteger savedCount = new AtomicInteger();
+                    AtomicInteger reusedCount = new AtomicInteger();
+                    // 用户已有小说：未修改的章节直接复用摘要
+                    Mono<List<String>> dedupNovelIds = importDedupService
+                            .candidateNovelIds(userId, savedNovel.getId())
+                            .cache();
+
+                    return chapters
+                            .map(parsedScene -> {
+                                Scene scene = toImportedScene(parsedScene, savedNovel.getId());
+                                structureChapters.add(Novel.Chapter.builder()
+                                        .id(scene.getChapterId())
+                                        .title(scene.getTitle())
+                                        .description("")
+                                        .order(structureChapters.size())
+                                        .sceneIds(List.of(scene.getId()))
+                                        .build());
+                                totalWordCount.addAndGet(scene.getWordCount() != null ? scene.getWordCount() : 0);
+                                return scene;
+                            })
+                            .buffer(SCENE_BATCH_SIZE)
+                            .flatMap(batch -> {
+                                if (isCancelled(jobId)) {
+                                    return Mono.error(new InterruptedException("导入任务已被用户取消"));
+                                }
+                                return dedupNovelIds
+                                        .flatMap(novelIds -> importDedupService.reuseSummaries(novelIds, batch))
+                                        .onErrorResume(e -> {
+                                            log.warn("Job {}: 导入去重失败，按新章节处理: {}", jobId, e.getMessage());
+                                            return Mono.just(0);
+                                        })
+                                        .doOnNext(reusedCount::addAndGet)
+                                        // 去重会修改场景摘要，写入操作需在其之后构建
+                                        .then(Mono.defer(() -> reactiveMongoTemplate
+                                                .bulkOps(BulkOperations.BulkMode.UNORDERED, Scene.class)
+                                                .insert(batch)
+                                                .execute()))
+                                        .doOnSuccess(result -> {
+                                            int saved = savedCount.addAndGet(batch.size());
+                                            log.debug("Job {}: 批量写入 {} 个场景，累计 {}", jobId, batch.size(), saved);
+                                            sink.tryEmitNext(createStatusEvent(jobId, "SAVING", "已保存 " + saved + " 个章节..."));
+                                        });
+                            }, MAX_IN_FLIGHT_BATCHES)
+                            .then(Mono.defer(() -> {
+                                if (reusedCount.get() > 0) {
+                                    log.info("Job {}: {} 个章节与已有小说重复，已复用摘要", jobId, reusedCount.get());
+                                }
+                                return updateImportedNovelStructure(savedNovel.getId(), structureChapters, totalWordCount.get());
+                            }))
+                            // 取消或任一批写入失败时，已写入的场景与尚无结构的小说一并删除，不留下半成品
+                            .onErrorResume(e -> discardPartialImport(savedNovel.getId(), jobId).then(Mono.error(e)))
+                            .doOnCancel(() -> discardPartialImport(savedNovel.getId(), jobId).subscribe());
+                });
+    }
 
-                    // 批量保存场景
-                    return sceneRepository.saveAll(scenes)
-                            .collectList()
-                            .flatMap(savedScenes -> {
-                                // 使用元数据服务更新小说元数据
-                                return metadataService.updateNovelMetadata(savedNovel.getId())
-                                        .flatMap(updatedNovel -> {
-                                            // 创建基本结构 - 一个卷，每个场景一个章节
-                                            Novel.Act act = Novel.Act.builder()
-                                                    .id(UUID.randomUUID().toString())
-                                                    .title("第一卷")
-                                                    .description("")
-                                                    .order(0)
-                                                    .chapters(new ArrayList<>())
-                                                    .build();
-
-                                            // 创建章节并更新场景的chapterId
-                                            List<Scene> updatedScenes = new ArrayList<>();
-
-                                            for (int i = 0; i < savedScenes.size(); i++) {
-                                                Scene scene = savedScenes.get(i);
-                                                // 生成章节ID，格式为"chapter_" + UUID
-                                                String chapterId = UUID.randomUUID().toString();
-
-                                                Novel.Chapter chapter = Novel.Chapter.builder()
-                                                        .id(chapterId)
-                                                        .title(scene.getTitle())
-                                                        .description("")
-                                                        .order(i)
-                                                        .sceneIds(List.of(scene.getId()))
-                                                        .build();
-
-                                                // 更新场景的chapterId
-                                                scene.setChapterId(chapterId);
-                                                updatedScenes.add(scene);
-
-                                                // 添加章节到卷中
-                                                act.getChapters().add(chapter);
-                                                if (i == 0) {
-                                                    updatedNovel.setLastEditedChapterId(chapterId);
-                                                }
-                                            }
+    /**
+     * 删除未完成导入写入的场景与小说
+     */
+    private Mono<Void> discardPartialImport(String novelId, String jobId) {
+        return sceneRepository.deleteByNovelId(novelId)
+                .then(novelRepository.deleteById(novelId))
+                .doOnSuccess(v -> log.info("Job {}: 导入未完成，已删除小说 {} 及已写入的场景", jobId, novelId))
+                .onErrorResume(e -> {
+                    log.error("Job {}: 清理未完成导入的小说 {} 失败", jobId, novelId, e);
+                    return Mono.empty();
+                });
+    }
 
-                                            updatedNovel.getStructure().getActs().add(act);
+    /**
+     * 将解析出的章节转换为场景（每个章节一个场景），并预先分配章节ID
+     */
+    private Scene toImportedScene(ParsedSceneData parsedScene, String novelId) {
+        LocalDateTime sceneNow = LocalDateTime.now(); // 为每个 Scene 获取独立的时间戳
+
+        // 将普通文本转换为富文本格式 - 调用 PromptUtil
+        String richTextContent = PromptUtil.convertPlainTextToQuillDelta(parsedScene.getSceneContent());
+
+        Scene scene = Scene.builder()
+                .id(UUID.randomUUID().toString()) // 使用UUID生成场景ID，与前端保持一致
+                .novelId(novelId)
+                .chapterId(UUID.randomUUID().toString())
+                .title(parsedScene.getSceneTitle())
+                .content(richTextContent)
+                .summary("")
+                .sequence(parsedScene.getOrder())
+                .sceneType("NORMAL")
+                .characterIds(new ArrayList<>())
+                .locations(new ArrayList<>())
+                .version(0)
+                .history(new ArrayList<>())
+                .createdAt(sceneNow) // 使用 Scene 的时间戳
+                .updatedAt(sceneNow) // 使用 Scene 的时间戳
+                .build();
 
-                                            // 保存更新后的场景和小说
-                                            return sceneRepository.saveAll(updatedScenes)
-                                                    .collectList()
-                                                    .then(novelRepository.save(updatedNovel));
-                                        });
-                            });
-                });
+        // 使用元数据服务计算并设置场景字数
+        metadataService.updateSceneMetadata(scene);
+        return scene;
+    }
+
+    /**
+     * 一次更新写入小说结构（一个卷，每个场景一个章节）与元数据
+     */
+    private Mono<Novel> updateImportedNovelStructure(String novelId, List<Novel.Chapter> chapters, long totalWordCount) {
+        Novel.Act act = Novel.Act.builder()
+                .id(UUID.randomUUID().toString())
+                .title("第一卷")
+                .description("")
+                .order(0)
+                .chapters(chapters)
+                .build();
+        Novel.Structure structure = Novel.Structure.builder()
+                .acts(new ArrayList<>(List.of(act)))
+                .build();
+
+        // 计算估计阅读时间 (假设每分钟阅读300字)，与 MetadataService 一致
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, totalWordCount);
+        int readTime = wordCount / 300;
+        if (readTime < 1 && wordCount > 0) {
+            readTime = 1;
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        Update update = new Update()
+                .set("structure", structure)
+                .set("metadata.wordCount", wordCount)
+                .set("metadata.readTime", readTime)
+                .set("metadata.lastEditedAt", now)
+                .set("updatedAt", now);
+        if (!chapters.isEmpty()) {
+            update.set("lastEditedChapterId", chapters.get(0).getId());
+        }
+
+        log.info("小说 {} 导入完成，共 {} 个章节，总字数: {}", novelId, chapters.size(), wordCount);
+        return reactiveMongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(novelId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Novel.class);
     }
 
     /**
@@ -696,7 +807,8 @@ public class ImportServiceImpl implements ImportService {
                         .startChapterId(chapterIds[0])
                         .endChapterId(chapterIds[1])
                         .aiConfigId(aiConfigId)
-                        .overwriteExisting(true)
+                        // 导入去重时复用的摘要不再重新生成
+                        .overwriteExisting(false)
                         .build();
                     
                     log.info("为小说 {} 提交批量生成摘要任务, 用户: {}, AI配置: {}", novelId, userId, aiConfigId);
@@ -762,47 +874,30 @@ public class ImportServiceImpl implements ImportService {
 
         return Mono.fromCallable(() -> {
             try {
-                Path tempFilePath = Paths.get(sessionInfo.getTempFilePath());
-                if (!Files.exists(tempFilePath)) {
-                    throw new RuntimeException("临时文件不存在");
-                }
-
-                // 解析文件
-                NovelParser parser = getParserForFile(sessionInfo.getOriginalFileName());
-                List<String> fileLines = readFileLinesWithAutoCharset(tempFilePath);
-
-                // 预处理：去除噪声与站点广告行，避免影响章节分割
-                fileLines = preprocessLines(fileLines);
-
-                ParsedNovelData parsedData = parser.parseStream(fileLines.stream());
+                // 一遍扫描建立章节索引（已有索引时直接复用）
+                ChapterOffsetIndex chapterIndex = loadChapterIndex(sessionId, sessionInfo);
 
                 // 设置标题
                 String title = request.getCustomTitle();
                 if (title == null || title.trim().isEmpty()) {
                     title = extractTitleFromFilename(sessionInfo.getOriginalFileName());
                 }
-                parsedData.setNovelTitle(title);
-
-                // 缓存解析数据
-                parsedDataCache.put(sessionId, parsedData);
+                sessionInfo.setNovelTitle(title);
 
                 // 创建章节预览列表
                 List<ChapterPreview> chapterPreviews = new ArrayList<>();
-                List<ParsedSceneData> scenes = parsedData.getScenes();
+                int totalChapters = chapterIndex.size();
                 int previewCount = Math.min(
                         request.getPreviewChapterCount() != null ? request.getPreviewChapterCount() : 10,
-                        scenes.size()
+                        totalChapters
                 );
 
-                // ✅ 计算全本字数（所有章节）
-                int totalWordCount = 0;
-                for (ParsedSceneData scene : scenes) {
-                    totalWordCount += scene.getSceneContent().length();
-                }
+                // ✅ 全本字数（所有章节）直接取自索引
+                int totalWordCount = (int) chapterIndex.totalCharCount();
                 
-                // 创建章节预览（只预览前N章）
+                // 创建章节预览（只读取前N章）
                 for (int i = 0; i < previewCount; i++) {
-                    ParsedSceneData scene = scenes.get(i);
+                    ParsedSceneData scene = readPreviewChapter(sessionInfo, chapterIndex, i);
                     String content = scene.getSceneContent();
                     
                     int wordCount = content.length(); // 简单字数统计
@@ -823,8 +918,8 @@ public class ImportServiceImpl implements ImportService {
                 // 构建响应
                 ImportPreviewResponse.ImportPreviewResponseBuilder responseBuilder = ImportPreviewResponse.builder()
                         .previewSessionId(sessionId)
-                        .detectedTitle(parsedData.getNovelTitle())
-                        .totalChapterCount(scenes.size())
+                        .detectedTitle(title)
+                        .totalChapterCount(totalChapters)
                         .chapterPreviews(chapterPreviews)
                         .totalWordCount(totalWordCount)
                         .warnings(new ArrayList<>());
@@ -838,7 +933,7 @@ public class ImportServiceImpl implements ImportService {
                             .supported(true)
                             .estimatedTokens((long)(totalWordCount * 1.3)) // 简单估算
                             .estimatedCost(totalWordCount * 1.3 * 0.01 / 1000) // 简单成本估算
-                            .estimatedTimeMinutes(Math.max(1, scenes.size() / 10)) // 估算时间
+                            .estimatedTimeMinutes(Math.max(1, totalChapters / 10)) // 估算时间
                             .selectedModel("默认模型")
                             .limitations("这是简化估算，实际可能有差异")
                             .build());
@@ -881,36 +976,40 @@ public class ImportServiceImpl implements ImportService {
             request.setUserId(sessionInfo.getUserId());
         }
 
-        ParsedNovelData parsedData = parsedDataCache.get(sessionId);
-        if (parsedData == null) {
-            return Mono.error(new RuntimeException("预览数据不存在，请重新获取预览"));
-        }
-
         return Mono.fromCallable(() -> {
             try {
+                ChapterOffsetIndex chapterIndex = loadChapterIndex(sessionId, sessionInfo);
+
                 // 创建Sink并存储
                 Sinks.Many<ServerSentEvent<ImportStatus>> sink = Sinks.many().multicast().onBackpressureBuffer();
                 activeJobSinks.put(jobId, sink);
 
-                // 更新解析数据
-                parsedData.setNovelTitle(request.getFinalTitle());
+                String title = request.getFinalTitle();
+                if (title == null || title.isBlank()) {
+                    title = sessionInfo.getNovelTitle() != null
+                            ? sessionInfo.getNovelTitle()
+                            : extractTitleFromFilename(sessionInfo.getOriginalFileName());
+                }
                 
-                // 如果选择了特定章节，过滤数据
+                // 如果选择了特定章节，只导入选中的章节
+                List<Integer> chapterIndexes = new ArrayList<>();
                 if (request.getSelectedChapterIndexes() != null && !request.getSelectedChapterIndexes().isEmpty()) {
-                    List<ParsedSceneData> allScenes = parsedData.getScenes();
-                    List<ParsedSceneData> selectedScenes = new ArrayList<>();
-                    
                     for (Integer index : request.getSelectedChapterIndexes()) {
-                        if (index >= 0 && index < allScenes.size()) {
-                            selectedScenes.add(allScenes.get(index));
+                        if (index >= 0 && index < chapterIndex.size()) {
+                            chapterIndexes.add(index);
                         }
                     }
-                    
-                    parsedData.setScenes(selectedScenes);
+                } else {
+                    for (int i = 0; i < chapterIndex.size(); i++) {
+                        chapterIndexes.add(i);
+                    }
                 }
 
-                // 异步处理导入
-                Mono<Void> processingPipeline = saveNovelAndScenesReactive(parsedData, request.getUserId())
+                // 异步处理导入：按索引逐章读取，内存中只保留正在写入的批次
+                Flux<ParsedSceneData> chapters = Flux.fromIterable(chapterIndexes)
+                        .map(index -> readPreviewChapter(sessionInfo, chapterIndex, index));
+                Mono<Void> processingPipeline = saveNovelAndScenesStreaming(
+                                chapters, title, request.getUserId(), jobId, sink)
                         .flatMap(novel -> {
                             jobToNovelIdMap.put(jobId, novel.getId());
                             sink.tryEmitNext(createStatusEvent(jobId, "SAVING", "小说保存完成"));
@@ -970,13 +1069,14 @@ public class ImportServiceImpl implements ImportService {
         return Mono.fromRunnable(() -> {
             ImportSessionInfo sessionInfo = previewSessions.remove(previewSessionId);
             if (sessionInfo != null && !sessionInfo.getCleaned()) {
-                // 删除临时文件
+                // 删除临时文件及章节索引
                 try {
                     Path tempPath = Paths.get(sessionInfo.getTempFilePath());
                     if (Files.exists(tempPath)) {
                         Files.delete(tempPath);
                         log.info("删除临时文件: {}", tempPath);
                     }
+                    Files.deleteIfExists(ChapterOffsetIndex.sidecarOf(tempPath));
                 } catch (IOException e) {
                     log.error("删除预览临时文件失败: {}", sessionInfo.getTempFilePath(), e);
                 }
@@ -985,8 +1085,8 @@ public class ImportServiceImpl implements ImportService {
                 sessionInfo.setCleaned(true);
             }
             
-            // 清理解析数据缓存
-            parsedDataCache.remove(previewSessionId);
+            // 清理章节索引缓存
+            chapterIndexCache.invalidate(previewSessionId);
         })
         .subscribeOn(Schedulers.boundedElastic())
         .then();
@@ -1002,42 +1102,20 @@ public class ImportServiceImpl implements ImportService {
                 throw new RuntimeException("预览会话不存在或已过期");
             }
             
-            // 先尝试从缓存获取
-            ParsedNovelData parsedData = parsedDataCache.get(previewSessionId);
-            
-            if (parsedData == null) {
-                // 如果缓存中没有，重新解析文件
-                Path tempFilePath = Paths.get(sessionInfo.getTempFilePath());
-                if (!Files.exists(tempFilePath)) {
-                    throw new RuntimeException("临时文件不存在");
-                }
-                
-                NovelParser parser = getParserForFile(sessionInfo.getOriginalFileName());
-                List<String> fileLines = readFileLinesWithAutoCharset(tempFilePath);
-                fileLines = preprocessLines(fileLines);
-                
-                parsedData = parser.parseStream(fileLines.stream());
-                
-                // 设置标题
-                String title = extractTitleFromFilename(sessionInfo.getOriginalFileName());
-                parsedData.setNovelTitle(title);
-                
-                // 缓存起来
-                parsedDataCache.put(previewSessionId, parsedData);
-            }
+            // 章节索引（缓存 → 边车文件 → 一遍扫描重建）
+            ChapterOffsetIndex chapterIndex = loadChapterIndex(previewSessionId, sessionInfo);
             
             // 拼接章节内容
             StringBuilder fullContent = new StringBuilder();
-            List<ParsedSceneData> scenes = parsedData.getScenes();
             
             // 确定实际使用的章节数
-            int totalChapters = scenes.size();
+            int totalChapters = chapterIndex.size();
             int effectiveChapters = (chapterLimit != null && chapterLimit > 0) 
                     ? Math.min(chapterLimit, totalChapters) 
                     : totalChapters;
             
             for (int i = 0; i < effectiveChapters; i++) {
-                ParsedSceneData scene = scenes.get(i);
+                ParsedSceneData scene = readPreviewChapter(sessionInfo, chapterIndex, i);
                 if (i > 0) {
                     fullContent.append("\n\n");
                 }
@@ -1063,31 +1141,10 @@ public class ImportServiceImpl implements ImportService {
                 throw new RuntimeException("预览会话不存在或已过期");
             }
             
-            // 先尝试从缓存获取
-            ParsedNovelData parsedData = parsedDataCache.get(previewSessionId);
+            // 章节索引（缓存 → 边车文件 → 一遍扫描重建）
+            ChapterOffsetIndex chapterIndex = loadChapterIndex(previewSessionId, sessionInfo);
             
-            if (parsedData == null) {
-                // 如果缓存中没有，重新解析文件
-                Path tempFilePath = Paths.get(sessionInfo.getTempFilePath());
-                if (!Files.exists(tempFilePath)) {
-                    throw new RuntimeException("临时文件不存在");
-                }
-                
-                NovelParser parser = getParserForFile(sessionInfo.getOriginalFileName());
-                List<String> fileLines = readFileLinesWithAutoCharset(tempFilePath);
-                fileLines = preprocessLines(fileLines);
-                
-                parsedData = parser.parseStream(fileLines.stream());
-                
-                // 设置标题
-                String title = extractTitleFromFilename(sessionInfo.getOriginalFileName());
-                parsedData.setNovelTitle(title);
-                
-                // 缓存起来
-                parsedDataCache.put(previewSessionId, parsedData);
-            }
-            
-            int totalChapters = parsedData.getScenes().size();
+            int totalChapters = chapterIndex.size();
             log.info("获取章节数量成功: sessionId={}, totalChapters={}", previewSessionId, totalChapters);
             
             return totalChapters;
@@ -1105,33 +1162,11 @@ public class ImportServiceImpl implements ImportService {
                 throw new RuntimeException("预览会话不存在或已过期");
             }
             
-            // 先尝试从缓存获取
-            ParsedNovelData parsedData = parsedDataCache.get(previewSessionId);
-            
-            if (parsedData == null) {
-                // 如果缓存中没有，重新解析文件
-                Path tempFilePath = Paths.get(sessionInfo.getTempFilePath());
-                if (!Files.exists(tempFilePath)) {
-                    throw new RuntimeException("临时文件不存在");
-                }
-                
-                NovelParser parser = getParserForFile(sessionInfo.getOriginalFileName());
-                List<String> fileLines = readFileLinesWithAutoCharset(tempFilePath);
-                fileLines = preprocessLines(fileLines);
-                
-                parsedData = parser.parseStream(fileLines.stream());
-                
-                // 设置标题
-                String title = extractTitleFromFilename(sessionInfo.getOriginalFileName());
-                parsedData.setNovelTitle(title);
-                
-                // 缓存起来
-                parsedDataCache.put(previewSessionId, parsedData);
-            }
+            // 章节索引（缓存 → 边车文件 → 一遍扫描重建）
+            ChapterOffsetIndex chapterIndex = loadChapterIndex(previewSessionId, sessionInfo);
             
             // 获取章节列表
-            List<ParsedSceneData> scenes = parsedData.getScenes();
-            int totalChapters = scenes.size();
+            int totalChapters = chapterIndex.size();
             int effectiveChapters = (chapterLimit != null && chapterLimit > 0) 
                     ? Math.min(chapterLimit, totalChapters) 
                     : totalChapters;
@@ -1139,7 +1174,7 @@ public class ImportServiceImpl implements ImportService {
             // 转换为ChapterDetailDto
             List<ChapterDetailDto> chapterDetails = new ArrayList<>();
             for (int i = 0; i < effectiveChapters; i++) {
-                ParsedSceneData scene = scenes.get(i);
+                ParsedSceneData scene = readPreviewChapter(sessionInfo, chapterIndex, i);
                 ChapterDetailDto detail = ChapterDetailDto.builder()
                         .index(i + 1)
                         .chapterId("user_imported_ch_" + (i + 1)) // 虚拟ID，标记为用户导入
@@ -1158,43 +1193,80 @@ public class ImportServiceImpl implements ImportService {
     }
 
     /**
-     * 尝试使用多种常见编码读取文本文件，优先 UTF-8，其次 GBK/GB18030，最后 ISO-8859-1。
-     * 如果所有编码均失败，则抛出最后一次异常。
+     * 获取预览会话的章节偏移索引：进程内缓存 → 临时文件旁的边车索引 → 一遍扫描重建
      */
-    private List<String> readFileLinesWithAutoCharset(Path filePath) throws IOException {
-        List<Charset> charsetCandidates = List.of(
-                StandardCharsets.UTF_8,
-                Charset.forName("GBK"),
-                Charset.forName("GB18030"),
-                StandardCharsets.ISO_8859_1
-        );
-
-        IOException lastException = null;
-        for (Charset charset : charsetCandidates) {
+    private ChapterOffsetIndex loadChapterIndex(String sessionId, ImportSessionInfo sessionInfo) {
+        return chapterIndexCache.get(sessionId, key -> {
+            Path tempFilePath = Paths.get(sessionInfo.getTempFilePath());
+            if (!Files.exists(tempFilePath)) {
+                throw new RuntimeException("临时文件不存在");
+            }
             try {
-                return Files.readAllLines(filePath, charset);
-            } catch (MalformedInputException e) {
-                // 记录并尝试下一个编码
-                lastException = e;
-                log.debug("读取文件使用编码 {} 失败，尝试下一个...", charset);
+                Path sidecar = ChapterOffsetIndex.sidecarOf(tempFilePath);
+                if (Files.exists(sidecar)) {
+                    ChapterOffsetIndex index = ChapterOffsetIndex.read(sidecar);
+                    if (index != null && index.matches(tempFilePath)) {
+                        return index;
+                    }
+                }
+
+                TxtNovelParser parser = getIndexingParser(sessionInfo.getOriginalFileName());
+                Charset charset = TextFileCharsetUtil.detectCharset(tempFilePath);
+                ChapterOffsetIndex index = useParallelParsing(tempFilePath)
+                        ? parser.buildIndexParallel(tempFilePath, charset, this::keepLine, parsePool)
+                        : parser.buildIndex(tempFilePath, charset, this::keepLine);
+                index.write(sidecar);
+                sessionInfo.setParseStatus("INDEXED");
+                sessionInfo.setTotalChapters(index.size());
+                log.info("预览会话章节索引已建立: sessionId={}, 章节数={}", key, index.size());
+                return index;
+            } catch (IOException e) {
+                throw new RuntimeException("解析文件失败: " + e.getMessage(), e);
             }
+        });
+    }
+
+    /**
+     * 按索引读取单个章节（内存映射读取该章节的字节区间）
+     */
+    private ParsedSceneData readPreviewChapter(ImportSessionInfo sessionInfo, ChapterOffsetIndex chapterIndex, int index) {
+        try {
+            return getIndexingParser(sessionInfo.getOriginalFileName())
+                    .readChapter(Paths.get(sessionInfo.getTempFilePath()), chapterIndex, index, this::keepLine);
+        } catch (IOException e) {
+            throw new RuntimeException("读取章节失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 预览会话依赖章节偏移索引，目前只有TXT解析器支持
+     */
+    private TxtNovelParser getIndexingParser(String filename) {
+        NovelParser parser = getParserForFile(filename);
+        if (parser instanceof TxtNovelParser txtParser) {
+            return txtParser;
         }
+        throw new IllegalArgumentException("该文件类型不支持预览: " + getFileExtension(filename));
+    }
 
-        // 如果全部失败，抛出最后一次异常
-        throw lastException != null ? lastException : new IOException("无法解析文件编码");
+    /**
+     * 超大文件且有多个CPU时才值得并行（并行方式需要两遍读取）
+     */
+    private boolean useParallelParsing(Path file) throws IOException {
+        return parsePool.getParallelism() > 1 && Files.size(file) >= PARALLEL_PARSE_THRESHOLD_BYTES;
     }
 
     /**
      * 预处理文本行，去除噪声与站点广告行，避免影响章节分割
      */
-    private List<String> preprocessLines(List<String> lines) {
-        List<String> processedLines = new ArrayList<>();
-        for (String line : lines) {
-            // 去除噪声与站点广告行，避免影响章节分割
-            if (!line.trim().isEmpty() && !line.contains("广告") && !line.contains("站点")) {
-                processedLines.add(line);
-            }
-        }
-        return processedLines;
+    private Stream<String> preprocessLines(Stream<String> lines) {
+        return lines.filter(this::keepLine);
+    }
+
+    /**
+     * 是否保留该行：去除空行与站点广告行
+     */
+    private boolean keepLine(String line) {
+        return !line.trim().isEmpty() && !line.contains("广告") && !line.contains("站点");
     }
 }
@@ -5,16 +5,16 @@ import java.time.LocalDateTime;
 import org.springframework.stereotype.Service;
 
 import com.ainovel.server.common.exception.ResourceNotFoundException;
+import com.ainovel.server.common.util.ContentFingerprintUtil;
+import com.ainovel.server.common.util.RichTextUtil;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Scene;
-import com.ainovel.server.repository.NovelRepository;
-import com.ainovel.server.repository.SceneRepository;
 import com.ainovel.server.service.MetadataService;
+import com.ainovel.server.service.metadata.NovelMetadataAggregator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * 元数据服务实现类
@@ -24,8 +24,7 @@ import reactor.core.scheduler.Schedulers;
 @RequiredArgsConstructor
 public class MetadataServiceImpl implements MetadataService {
 
-    private final NovelRepository novelRepository;
-    private final SceneRepository sceneRepository;
+    private final NovelMetadataAggregator metadataAggregator;
 
     @Override
     public int calculateWordCount(String content) {
@@ -66,10 +65,11 @@ public class MetadataServiceImpl implements MetadataService {
             return null;
         }
 
-        // 计算场景字数
+        // 计算场景字数与内容指纹
         if (scene.getContent() != null) {
             int wordCount = calculateWordCount(scene.getContent());
             scene.setWordCount(wordCount);
+            updateContentFingerprint(scene, RichTextUtil.deltaJsonToPlainText(scene.getContent()));
         }
 
         // 设置更新时间
@@ -80,41 +80,30 @@ public class MetadataServiceImpl implements MetadataService {
         return scene;
     }
 
+    /**
+     * 根据纯文本正文更新场景的内容指纹
+     */
+    static void updateContentFingerprint(Scene scene, String plainText) {
+        String normalized = ContentFingerprintUtil.normalize(plainText);
+        if (normalized.isEmpty()) {
+            scene.setContentHash(null);
+            scene.setSimHash(null);
+            scene.setSimHashBands(null);
+            return;
+        }
+        long simHash = ContentFingerprintUtil.simHash(normalized);
+        scene.setContentHash(ContentFingerprintUtil.contentHash(normalized));
+        scene.setSimHash(simHash);
+        scene.setSimHashBands(normalized.length() >= ContentFingerprintUtil.MIN_SIMHASH_LENGTH
+                ? ContentFingerprintUtil.simHashBands(simHash)
+                : null);
+    }
+
     @Override
     public Mono<Novel> updateNovelMetadata(String novelId) {
         log.info("正在更新小说 {} 的元数据", novelId);
-        return novelRepository.findById(novelId)
+        return metadataAggregator.reconcile(novelId, true)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
-                .flatMap(novel -> {
-                    // 获取小说的所有场景
-                    return sceneRepository.findByNovelId(novelId)
-                            .collectList()
-                            .flatMap(scenes -> {
-                                // 计算总字数
-                                int totalWordCount = scenes.stream()
-                                        .mapToInt(scene -> scene.getWordCount() != null ? scene.getWordCount() : 0)
-                                        .sum();
-
-                                // 计算估计阅读时间 (假设每分钟阅读300字)
-                                int readTime = totalWordCount / 300;
-                                if (readTime < 1 && totalWordCount > 0) {
-                                    readTime = 1; // 最小阅读时间为1分钟
-                                }
-
-                                // 确保元数据对象存在
-                                if (novel.getMetadata() == null) {
-                                    novel.setMetadata(Novel.Metadata.builder().build());
-                                }
-
-                                // 更新元数据
-                                novel.getMetadata().setWordCount(totalWordCount);
-                                novel.getMetadata().setReadTime(readTime);
-                                novel.getMetadata().setLastEditedAt(LocalDateTime.now());
-                                novel.setUpdatedAt(LocalDateTime.now());
-
-                                return novelRepository.save(novel);
-                            });
-                })
                 .doOnSuccess(novel -> log.info("小说 {} 元数据更新成功，总字数: {}", novelId,
                 novel.getMetadata() != null ? novel.getMetadata().getWordCount() : 0))
                 .doOnError(e -> log.error("小说 {} 元数据更新失败", novelId, e));
@@ -126,15 +115,13 @@ public class MetadataServiceImpl implements MetadataService {
             return Mono.empty();
         }
 
-        // 异步更新小说元数据，不阻塞主流程
-        updateNovelMetadata(scene.getNovelId())
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe(
-                        novel -> log.debug("成功触发小说 {} 的元数据更新", scene.getNovelId()),
-                        error -> log.error("触发小说 {} 的元数据更新失败", scene.getNovelId(), error)
-                );
-
-        // 立即返回，不等待元数据更新完成
+        // 合并到下个刷新周期重算，不阻塞主流程
+        metadataAggregator.requestReconcile(scene.getNovelId());
         return Mono.empty();
     }
+
+    @Override
+    public void recordWordCountDelta(String novelId, int delta) {
+        metadataAggregator.recordDelta(novelId, delta);
+    }
 }
@@ -1,13 +1,28 @@
 package com.ainovel.server.service.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
 import org.springframework.stereotype.Component;
 
 import com.ainovel.server.domain.model.AIChatMessage;
 import com.ainovel.server.repository.AIChatMessageRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
@@ -16,66 +31,366 @@ import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
- * 基于MongoDB的LangChain4j ChatMemoryStore实现
+ * 基于MongoDB的聊天消息存储（只追加日志 + 会话热窗口）
+ *
+ * - 消息只追加写入，不再"整会话删除后逐条重写"；LangChain4j 的 updateMessages 先与热窗口比对，只批量插入新增部分
+ * - 每个会话在 Caffeine 中保留最近 {@link #WINDOW_CAPACITY} 条消息的环形窗口，读取记忆时无需回查数据库
+ * - 提供响应式接口供 ChatMemoryServiceImpl / AIChatServiceImpl 直接使用；LangChain4j 同步接口写入不阻塞，
+ *   只有冷加载窗口时等待数据库（非阻塞线程上需先调用 {@link #preload(String)}）
+ *
+ * 热窗口是进程内缓存，与 ImportServiceImpl、InMemorySessionManager 一样按单实例部署设计；
+ * 所有写入都经过本类，窗口与数据库保持一致，写入失败时丢弃窗口以便下次从数据库重建。
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class MongoChatMemoryStore implements ChatMemoryStore {
 
+    /** 每个会话窗口保留的消息数（与原 getMessages 的加载上限一致） */
+    static final int WINDOW_CAPACITY = 1000;
+
     private final AIChatMessageRepository messageRepository;
 
+    private final AsyncCache<String, SessionWindow> windows = Caffeine.newBuilder()
+            .maximumSize(2_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .buildAsync();
+
+    /** 进行中的清空操作，同会话后续写入需等待其完成，避免新消息被删除 */
+    private final ConcurrentMap<String, Mono<Void>> pendingClears = new ConcurrentHashMap<>();
+
+    // ==================== 响应式接口 ====================
+
+    /**
+     * 获取会话最近的消息（按时间正序）
+     * 窗口已覆盖所需条数或已包含整个会话时直接返回窗口内容，否则回查数据库
+     */
+    public Flux<AIChatMessage> recentMessages(String sessionId, int limit) {
+        return window(sessionId).flatMapMany(window -> {
+            List<AIChatMessage> snapshot = window.snapshot();
+            if (limit <= snapshot.size() || window.isComplete()) {
+                return Flux.fromIterable(tail(snapshot, limit));
+            }
+            return messageRepository.findBySessionIdOrderByCreatedAtDesc(sessionId, limit)
+                    .collectList()
+                    .flatMapMany(messages -> {
+                        messages.sort(Comparator.comparing(AIChatMessage::getCreatedAt));
+                        return Flux.fromIterable(messages);
+                    });
+        });
+    }
+
+    /**
+     * 预先加载会话窗口，之后 LangChain4j 同步接口的读取不再等待数据库
+     */
+    public Mono<Void> preload(String sessionId) {
+        return window(sessionId).then();
+    }
+
+    /**
+     * 追加或更新单条消息
+     * 已有ID且与窗口中记录的写入状态一致的消息（先保存、再加入记忆）直接返回，不再重复写库；
+     * 写入后又被修改的消息按ID覆盖保存，窗口中的旧记录随之替换
+     */
+    public Mono<AIChatMessage> append(AIChatMessage message) {
+        String sessionId = message.getSessionId();
+        if (message.getId() != null && isPersisted(sessionId, message)) {
+            return Mono.just(message);
+        }
+        Mono<AIChatMessage> write = message.getId() == null
+                ? messageRepository.insert(message)
+                : messageRepository.save(message);
+        return awaitPendingClear(sessionId)
+                .then(write)
+                .doOnNext(saved -> remember(sessionId, List.of(saved)))
+                .doOnError(e -> invalidate(sessionId));
+    }
+
+    /**
+     * 批量追加消息，一次 insertAll 写入
+     */
+    public Flux<AIChatMessage> appendAll(String sessionId, List<AIChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return Flux.empty();
+        }
+        return awaitPendingClear(sessionId)
+                .thenMany(messageRepository.insert(messages))
+                .collectList()
+                .doOnNext(saved -> remember(sessionId, saved))
+                .doOnError(e -> invalidate(sessionId))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    /**
+     * 清空会话消息
+     */
+    public Mono<Void> clear(String sessionId) {
+        // 订阅时才清空窗口并登记删除，未被订阅的 clear 不产生任何副作用
+        return Mono.defer(() -> {
+            windows.put(sessionId, CompletableFuture.completedFuture(SessionWindow.empty()));
+            Mono<Void> deletion = messageRepository.deleteBySessionId(sessionId).cache();
+            pendingClears.put(sessionId, deletion);
+            return deletion.doFinally(signal -> pendingClears.remove(sessionId, deletion));
+        });
+    }
+
+    /**
+     * 丢弃会话窗口（单条消息被删除等非追加修改后调用），下次读取时从数据库重建
+     */
+    public void invalidate(String sessionId) {
+        windows.synchronous().invalidate(sessionId);
+    }
+
+    // ==================== LangChain4j ChatMemoryStore ====================
+
     @Override
     public List<ChatMessage> getMessages(Object memoryId) {
         String sessionId = memoryId.toString();
-        log.debug("从持久化存储获取消息: sessionId={}", sessionId);
-        
-        List<AIChatMessage> dbMessages = messageRepository.findBySessionIdOrderByCreatedAtDesc(sessionId, 1000)
-                .collectList()
-                .block();
-        
-        if (dbMessages == null) {
-            return List.of();
-        }
-        
-        // 转换为LangChain4j ChatMessage
-        List<ChatMessage> langchainMessages = dbMessages.stream()
-                .sorted((m1, m2) -> m1.getCreatedAt().compareTo(m2.getCreatedAt())) // 按时间正序
+        List<AIChatMessage> snapshot = windowNow(sessionId).snapshot();
+        log.debug("从会话窗口获取消息: sessionId={}, count={}", sessionId, snapshot.size());
+        return snapshot.stream()
                 .map(this::convertToLangChain4jMessage)
                 .collect(Collectors.toList());
-        
-        log.debug("成功获取{}条消息", langchainMessages.size());
-        return langchainMessages;
     }
 
+    /**
+     * LangChain4j 每轮都会传入完整的记忆列表；这里与窗口尾部对齐，只批量插入新增消息
+     * 窗口立即更新，数据库写入不阻塞调用线程；写入失败时记录错误并丢弃窗口，下次读取从数据库重建
+     */
     @Override
     public void updateMessages(Object memoryId, List<ChatMessage> messages) {
         String sessionId = memoryId.toString();
-        log.debug("更新持久化存储消息: sessionId={}, messages={}", sessionId, messages.size());
-        
-        // 先删除现有消息
-        messageRepository.deleteBySessionId(sessionId).block();
-        
-        // 保存新消息
-        List<AIChatMessage> dbMessages = messages.stream()
-                .map(msg -> convertToDbMessage(msg, sessionId))
-                .collect(Collectors.toList());
-        
-        for (AIChatMessage dbMessage : dbMessages) {
-            messageRepository.save(dbMessage).block();
+        SessionWindow window = windowNow(sessionId);
+        List<AIChatMessage> additions = diff(sessionId, window.snapshot(), messages);
+        if (additions.isEmpty()) {
+            return;
         }
-        
-        log.debug("成功更新{}条消息到持久化存储", dbMessages.size());
+        log.debug("追加持久化消息: sessionId={}, total={}, new={}", sessionId, messages.size(), additions.size());
+        window.addAll(additions);
+        awaitPendingClear(sessionId)
+                .thenMany(messageRepository.insert(additions))
+                .then()
+                .subscribe(null, e -> {
+                    log.error("追加聊天消息失败: sessionId={}, count={}", sessionId, additions.size(), e);
+                    invalidate(sessionId);
+                });
     }
 
+    /**
+     * 窗口在调用返回前已清空，数据库删除异步执行；之后的写入会等待删除完成
+     */
     @Override
     public void deleteMessages(Object memoryId) {
         String sessionId = memoryId.toString();
         log.info("删除持久化存储中的所有消息: sessionId={}", sessionId);
-        
-        messageRepository.deleteBySessionId(sessionId).block();
+        clear(sessionId).subscribe(null, e -> {
+            log.error("删除聊天消息失败: sessionId={}", sessionId, e);
+            invalidate(sessionId);
+        });
+    }
+
+    // ==================== 内部实现 ====================
+
+    /**
+     * 计算需要追加的消息
+     *
+     * 非系统消息：在传入列表中找到与已知消息尾部对齐的最长前缀，之后的部分即为新增；
+     * 系统消息：LangChain4j 始终把它放在首位，仅当内容与最近一条已知系统消息不同时追加。
+     */
+    List<AIChatMessage> diff(String sessionId, List<AIChatMessage> known, List<ChatMessage> incoming) {
+        SystemMessage system = null;
+        List<ChatMessage> conversation = new ArrayList<>(incoming.size());
+        for (ChatMessage message : incoming) {
+            if (message instanceof SystemMessage systemMessage) {
+                system = systemMessage;
+            } else {
+                conversation.add(message);
+            }
+        }
+
+        List<AIChatMessage> knownConversation = new ArrayList<>(known.size());
+        AIChatMessage lastSystem = null;
+        for (AIChatMessage message : known) {
+            if ("system".equalsIgnoreCase(message.getRole())) {
+                lastSystem = message;
+            } else {
+                knownConversation.add(message);
+            }
+        }
+
+        List<ChatMessage> newMessages = new ArrayList<>();
+        if (system != null && (lastSystem == null || !Objects.equals(lastSystem.getContent(), system.text()))) {
+            newMessages.add(system);
+        }
+        int persisted = alignedPrefixLength(knownConversation, conversation);
+        newMessages.addAll(conversation.subList(persisted, conversation.size()));
+
+        // 同一批消息的创建时间逐条递增1毫秒，保证重建窗口时顺序稳定
+        LocalDateTime base = LocalDateTime.now();
+        List<AIChatMessage> additions = new ArrayList<>(newMessages.size());
+        for (int i = 0; i < newMessages.size(); i++) {
+            additions.add(convertToDbMessage(newMessages.get(i), sessionId, base.plusNanos(i * 1_000_000L)));
+        }
+        return additions;
+    }
+
+    /**
+     * 返回 incoming 中已存在于 known 尾部的前缀长度
+     * 常见情况（窗口滑动一条 + 新增一条）首个元素即可判定，整体接近线性
+     */
+    private int alignedPrefixLength(List<AIChatMessage> known, List<ChatMessage> incoming) {
+        for (int length = Math.min(known.size(), incoming.size()); length > 0; length--) {
+            int offset = known.size() - length;
+            boolean matches = true;
+            for (int i = 0; i < length; i++) {
+                if (!sameMessage(known.get(offset + i), incoming.get(i))) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    private boolean sameMessage(AIChatMessage stored, ChatMessage message) {
+        AIChatMessage converted = convertToDbMessage(message, stored.getSessionId(), null);
+        return stored.getRole() != null
+                && stored.getRole().equalsIgnoreCase(converted.getRole())
+                && Objects.equals(stored.getContent(), converted.getContent());
+    }
+
+    private Mono<SessionWindow> window(String sessionId) {
+        return Mono.fromFuture(() -> windows.get(sessionId, (key, executor) -> loadWindow(key).toFuture()));
+    }
+
+    /**
+     * 同步获取窗口；窗口已加载时不阻塞
+     * 冷加载需要等待数据库，在非阻塞线程上直接失败（与 Reactor 的 block 一致），调用方应先 {@link #preload(String)}
+     */
+    private SessionWindow windowNow(String sessionId) {
+        CompletableFuture<SessionWindow> future = windows.get(sessionId, (key, executor) -> loadWindow(key).toFuture());
+        if (!future.isDone() && Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("会话窗口未加载，不能在非阻塞线程上等待数据库: sessionId=" + sessionId
+                    + ", thread=" + Thread.currentThread().getName());
+        }
+        return future.join();
+    }
+
+    private Mono<SessionWindow> loadWindow(String sessionId) {
+        return messageRepository.findBySessionIdOrderByCreatedAtDesc(sessionId, WINDOW_CAPACITY)
+                .collectList()
+                .map(messages -> {
+                    messages.sort(Comparator.comparing(AIChatMessage::getCreatedAt));
+                    boolean complete = messages.size() < WINDOW_CAPACITY;
+                    return new SessionWindow(tail(messages, WINDOW_CAPACITY), complete);
+                });
+    }
+
+    /**
+     * 把已写入的消息加入窗口；窗口未加载时跳过，下次读取会从数据库完整加载
+     */
+    private void remember(String sessionId, List<AIChatMessage> messages) {
+        CompletableFuture<SessionWindow> future = windows.getIfPresent(sessionId);
+        if (future != null) {
+            future.thenAccept(window -> window.addAll(messages));
+        }
+    }
+
+    private boolean isPersisted(String sessionId, AIChatMessage message) {
+        CompletableFuture<SessionWindow> future = windows.getIfPresent(sessionId);
+        return future != null && future.isDone() && !future.isCompletedExceptionally()
+                && future.join().isPersisted(message);
+    }
+
+    private Mono<Void> awaitPendingClear(String sessionId) {
+        return pendingClears.getOrDefault(sessionId, Mono.empty()).onErrorResume(e -> Mono.empty());
+    }
+
+    private static List<AIChatMessage> tail(List<AIChatMessage> messages, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return messages.size() <= limit ? messages : messages.subList(messages.size() - limit, messages.size());
+    }
+
+    /**
+     * 单个会话的最近消息窗口
+     * 同时按ID记录每条消息写入时的状态指纹（hashCode），用于判断带ID的消息是否已原样写入
+     */
+    static final class SessionWindow {
+
+        private final LinkedList<AIChatMessage> messages;
+        private final Map<String, Integer> persisted = new HashMap<>();
+        /** 窗口是否包含会话的全部消息 */
+        private boolean complete;
+
+        SessionWindow(List<AIChatMessage> initial, boolean complete) {
+            this.messages = new LinkedList<>(initial);
+            this.complete = complete;
+            initial.forEach(this::recordPersisted);
+        }
+
+        static SessionWindow empty() {
+            return new SessionWindow(List.of(), true);
+        }
+
+        synchronized void addAll(List<AIChatMessage> added) {
+            for (AIChatMessage message : added) {
+                if (message.getId() != null && persisted.containsKey(message.getId())) {
+                    replace(message);
+                    recordPersisted(message);
+                    continue;
+                }
+                messages.addLast(message);
+                recordPersisted(message);
+                if (messages.size() > WINDOW_CAPACITY) {
+                    AIChatMessage evicted = messages.removeFirst();
+                    if (evicted.getId() != null) {
+                        persisted.remove(evicted.getId());
+                    }
+                    complete = false;
+                }
+            }
+        }
+
+        synchronized boolean isPersisted(AIChatMessage message) {
+            return Objects.equals(persisted.get(message.getId()), message.hashCode());
+        }
+
+        synchronized List<AIChatMessage> snapshot() {
+            return Collections.unmodifiableList(new ArrayList<>(messages));
+        }
+
+        synchronized boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * 替换窗口中同ID的消息（从尾部查找，更新的通常是最近的消息）
+         */
+        private void replace(AIChatMessage message) {
+            ListIterator<AIChatMessage> it = messages.listIterator(messages.size());
+            while (it.hasPrevious()) {
+                if (message.getId().equals(it.previous().getId())) {
+                    it.set(message);
+                    return;
+                }
+            }
+        }
+
+        private void recordPersisted(AIChatMessage message) {
+            if (message.getId() != null) {
+                persisted.put(message.getId(), message.hashCode());
+            }
+        }
     }
 
     /**
@@ -84,7 +399,7 @@ public class MongoChatMemoryStore implements ChatMemoryStore {
     private ChatMessage convertToLangChain4jMessage(AIChatMessage dbMessage) {
         String role = dbMessage.getRole().toLowerCase();
         String content = dbMessage.getContent();
-        
+
         switch (role) {
             case "user":
                 return new UserMessage(content);
@@ -100,11 +415,12 @@ public class MongoChatMemoryStore implements ChatMemoryStore {
 
     /**
      * 将LangChain4j消息转换为数据库消息
+     * ID在写入前生成，窗口中的消息与数据库记录一一对应
      */
-    private AIChatMessage convertToDbMessage(ChatMessage langchainMessage, String sessionId) {
+    private AIChatMessage convertToDbMessage(ChatMessage langchainMessage, String sessionId, LocalDateTime createdAt) {
         String role;
         String content;
-        
+
         if (langchainMessage instanceof UserMessage) {
             role = "user";
             content = ((UserMessage) langchainMessage).singleText();
@@ -119,14 +435,15 @@ public class MongoChatMemoryStore implements ChatMemoryStore {
             content = langchainMessage.toString();
             log.warn("未知的LangChain4j消息类型: {}", langchainMessage.getClass().getSimpleName());
         }
-        
+
         return AIChatMessage.builder()
+                .id(createdAt != null ? new ObjectId().toHexString() : null)
                 .sessionId(sessionId)
                 .role(role)
                 .content(content)
                 .status("DELIVERED")
                 .messageType("TEXT")
-                .createdAt(LocalDateTime.now())
+                .createdAt(createdAt)
                 .build();
     }
-} 
\ No newline at end of file
+}
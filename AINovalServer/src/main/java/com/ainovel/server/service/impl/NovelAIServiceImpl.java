@@ -35,6 +35,7 @@ import com.ainovel.server.domain.model.AIResponse;
 import com.ainovel.server.domain.model.NovelSettingItem;
 import com.ainovel.server.domain.model.SettingType;
 import com.ainovel.server.domain.model.UserAIModelConfig;
+import com.ainovel.server.service.cache.SceneSummaryCache;
 import com.ainovel.server.service.AIService;
 import com.ainovel.server.service.KnowledgeService;
 import com.ainovel.server.service.NovelAIService;
@@ -1372,7 +1373,7 @@ public class NovelAIServiceImpl implements NovelAIService {
                                 // System message
                                 AIRequest.Message systemMessage = new AIRequest.Message();
                                 systemMessage.setRole("system");
-                                systemMessage.setContent("你是一个专业的小说编辑。请根据用户提供的场景内容和上下文信息，生成一个简洁的场景摘要。你的任务是只输出摘要本身，不包含任何标题、小标题、格式标记（如Markdown）、或其他解释性文字。");
+                                systemMessage.setContent(SceneSummaryCache.SYSTEM_PROMPT);
                                 aiRequest.getMessages().add(systemMessage);
 
                                 // User message
@@ -2085,7 +2086,7 @@ public class NovelAIServiceImpl implements NovelAIService {
         String contextText = RichTextUtil.deltaJsonToPlainText(summary != null ? summary : "");
         
         // 调用设定检索服务
-        return novelSettingService.findRelevantSettings(novelId, contextText, chapterId, null, topK)
+        return novelSettingService.findContextSettings(novelId, contextText, chapterId, topK)
             .collectList()
             .map(settingItems -> {
                 if (settingItems.isEmpty()) {
@@ -1,22 +1,30 @@
 package com.ainovel.server.service.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import com.ainovel.server.common.util.ContentFingerprintUtil;
 import com.ainovel.server.common.util.PromptUtil;
 import com.ainovel.server.common.util.RichTextUtil;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
@@ -38,8 +46,15 @@ import com.ainovel.server.web.dto.NovelWithScenesDto;
 import com.ainovel.server.web.dto.NovelWithSummariesDto;
 import com.ainovel.server.web.dto.SceneSummaryDto;
 import com.ainovel.server.web.dto.ChaptersForPreloadDto;
+import com.ainovel.server.web.dto.NovelSummaryDto;
+import com.ainovel.server.web.dto.NovelSummaryOverviewDto;
+import com.ainovel.server.web.dto.NovelSummaryPageDto;
 import com.ainovel.server.service.cache.NovelStructureCache;
 import com.ainovel.server.service.cache.NovelStructureCache.ContainIndex;
+import com.ainovel.server.service.cache.NovelOrderIndex;
+import com.ainovel.server.service.cache.NovelOrderIndexCache;
+import com.ainovel.server.service.cache.ChapterPrefetcher;
+import com.ainovel.server.service.metadata.NovelMetadataAggregator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -64,6 +79,9 @@ public class NovelServiceImpl implements NovelService {
     private final SceneService sceneService;
     private final ReactiveMongoTemplate reactiveMongoTemplate;
     private final NovelStructureCache structureCache;
+    private final NovelOrderIndexCache orderIndexCache;
+    private final ChapterPrefetcher chapterPrefetcher;
+    private final NovelMetadataAggregator metadataAggregator;
 
     @Override
     public Mono<Novel> createNovel(Novel novel) {
@@ -345,6 +363,146 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findByAuthorId(authorId);
     }
 
+    /** 每页小说摘要的最大数量 */
+    private static final int MAX_SUMMARY_PAGE_SIZE = 100;
+
+    /** 章节数表达式：在数据库侧累加各卷章节数，无需取回结构 */
+    private static final Document CHAPTER_COUNT_EXPRESSION = new Document("$reduce", new Document()
+            .append("input", new Document("$ifNull", List.of("$structure.acts", List.of())))
+            .append("initialValue", 0)
+            .append("in", new Document("$add", List.of("$$value",
+                    new Document("$size", new Document("$ifNull", List.of("$$this.chapters", List.of())))))));
+
+    /** 小说摘要投影 */
+    private static final Document NOVEL_SUMMARY_PROJECTION = new Document()
+            .append("title", 1)
+            .append("coverImage", 1)
+            .append("status", 1)
+            .append("lastEditedChapterId", 1)
+            .append("isArchived", 1)
+            .append("isReady", 1)
+            .append("createdAt", 1)
+            .append("updatedAt", 1)
+            .append("wordCount", "$metadata.wordCount")
+            .append("lastEditedAt", "$metadata.lastEditedAt")
+            .append("chapterCount", CHAPTER_COUNT_EXPRESSION);
+
+    @Override
+    public Mono<NovelSummaryPageDto> findNovelSummaries(String authorId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SUMMARY_PAGE_SIZE));
+        return Mono.fromCallable(() -> SummaryCursor.decode(cursor))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(after -> {
+                    Criteria criteria = Criteria.where("author.id").is(authorId);
+                    if (after.isPresent()) {
+                        criteria = new Criteria().andOperator(criteria, after.get().keysetCriteria());
+                    }
+                    // 键集分页：按 (updatedAt, id) 倒序，多取一条判断是否还有下一页
+                    TypedAggregation<Novel> aggregation = Aggregation.newAggregation(Novel.class,
+                            Aggregation.match(criteria),
+                            Aggregation.sort(Sort.by(Sort.Direction.DESC, "updatedAt", "id")),
+                            Aggregation.limit(pageSize + 1L),
+                            context -> new Document("$project", NOVEL_SUMMARY_PROJECTION));
+                    return reactiveMongoTemplate.aggregate(aggregation, NovelSummaryDto.class).collectList();
+                })
+                .map(items -> toSummaryPage(items, pageSize));
+    }
+
+    @Override
+    public Mono<NovelSummaryOverviewDto> getNovelSummaryOverview(String authorId) {
+        TypedAggregation<Novel> aggregation = Aggregation.newAggregation(Novel.class,
+                Aggregation.match(Criteria.where("author.id").is(authorId)),
+                context -> new Document("$group", new Document("_id", null)
+                        .append("novelCount", new Document("$sum", 1))
+                        .append("totalWordCount", new Document("$sum", "$metadata.wordCount"))
+                        .append("totalChapterCount", new Document("$sum", CHAPTER_COUNT_EXPRESSION))
+                        .append("lastUpdatedAt", new Document("$max", "$updatedAt"))));
+        return reactiveMongoTemplate.aggregate(aggregation, NovelSummaryOverviewDto.class)
+                .next()
+                .defaultIfEmpty(NovelSummaryOverviewDto.builder().build())
+                .map(overview -> {
+                    overview.setVersion(ContentFingerprintUtil.sha256Hex(overview.getNovelCount() + "|"
+                            + overview.getTotalWordCount() + "|" + overview.getTotalChapterCount() + "|"
+                            + overview.getLastUpdatedAt()).substring(0, 32));
+                    return overview;
+                });
+    }
+
+    static NovelSummaryPageDto toSummaryPage(List<NovelSummaryDto> items, int pageSize) {
+        boolean hasMore = items.size() > pageSize;
+        List<NovelSummaryDto> page = hasMore ? new ArrayList<>(items.subList(0, pageSize)) : items;
+        String nextCursor = hasMore ? SummaryCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (NovelSummaryDto item : page) {
+            fingerprint.append(item.getId()).append('|')
+                    .append(item.getTitle()).append('|')
+                    .append(item.getCoverImage()).append('|')
+                    .append(item.getStatus()).append('|')
+                    .append(item.getWordCount()).append('|')
+                    .append(item.getChapterCount()).append('|')
+                    .append(item.getLastEditedChapterId()).append('|')
+                    .append(item.getIsArchived()).append('|')
+                    .append(item.getIsReady()).append('|')
+                    .append(item.getUpdatedAt()).append('\n');
+        }
+        fingerprint.append(nextCursor);
+
+        return NovelSummaryPageDto.builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .version(ContentFingerprintUtil.sha256Hex(fingerprint.toString()).substring(0, 32))
+                .build();
+    }
+
+    /**
+     * 小说摘要分页游标：上一页最后一条的 (updatedAt, id)
+     */
+    record SummaryCursor(LocalDateTime updatedAt, String id) {
+
+        static SummaryCursor of(NovelSummaryDto item) {
+            return new SummaryCursor(item.getUpdatedAt(), item.getId());
+        }
+
+        static SummaryCursor decode(String cursor) {
+            if (!StringUtils.hasText(cursor)) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                String id = raw.substring(separator + 1);
+                if (separator < 0 || id.isEmpty()) {
+                    throw new IllegalArgumentException("无效的分页游标");
+                }
+                LocalDateTime updatedAt = separator == 0 ? null : LocalDateTime.parse(raw.substring(0, separator));
+                return new SummaryCursor(updatedAt, id);
+            } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+                throw new IllegalArgumentException("无效的分页游标", e);
+            }
+        }
+
+        String encode() {
+            String raw = (updatedAt != null ? updatedAt.toString() : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * 排在游标之后的记录；倒序时 updatedAt 为空的记录排在最后
+         */
+        Criteria keysetCriteria() {
+            if (updatedAt == null) {
+                return Criteria.where("updatedAt").is(null).and("id").lt(id);
+            }
+            return new Criteria().orOperator(
+                    Criteria.where("updatedAt").lt(updatedAt),
+                    Criteria.where("updatedAt").is(updatedAt).and("id").lt(id),
+                    Criteria.where("updatedAt").is(null));
+        }
+    }
+
     @Override
     public Flux<Novel> searchNovelsByTitle(String title) {
         return novelRepository.findByTitleContaining(title);
@@ -372,7 +530,11 @@ public class NovelServiceImpl implements NovelService {
                     novel.setUpdatedAt(LocalDateTime.now());
                     return novelRepository.save(novel);
                 })
-                .doOnSuccess(updated -> log.info("更新小说最后编辑章节成功: {}, 章节: {}", novelId, chapterId));
+                .doOnSuccess(updated -> {
+                    log.info("更新小说最后编辑章节成功: {}, 章节: {}", novelId, chapterId);
+                    // 按导航方向预取前后章节，后续预加载请求直接命中内存
+                    chapterPrefetcher.onNavigate(updated, chapterId);
+                });
     }
 
     public Mono<List<Scene>> getChapterContextScenes(String novelId, String authorId) {
@@ -577,40 +739,24 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 准备一个章节的ID列表，以便确定加载范围
-                    List<String> allChapterIds = new ArrayList<>();
-                    
-                    // 如果指定了actId，只加载该卷内的章节
+                    NovelOrderIndex orderIndex = orderIndexCache.get(novel);
+
+                    // 确定加载范围：指定了actId时只在该卷的章节区间内加载
+                    int rangeStart = 0;
+                    int rangeEnd = orderIndex.size();
                     if (StringUtils.hasText(actIdConstraint)) {
-                        // 查找指定的卷
-                        Act targetAct = null;
-                        for (Act act : novel.getStructure().getActs()) {
-                            if (act.getId().equals(actIdConstraint)) {
-                                targetAct = act;
-                                break;
-                            }
-                        }
-                        
-                        if (targetAct == null) {
+                        int[] actRange = orderIndex.actRange(actIdConstraint);
+                        if (actRange == null) {
                             log.warn("找不到指定的卷: {}", actIdConstraint);
                             return Mono.just(new HashMap<>());
                         }
-                        
-                        // 从指定卷中收集章节ID
-                        for (Chapter chapter : targetAct.getChapters()) {
-                            allChapterIds.add(chapter.getId());
-                        }
-                        
-                        log.info("根据卷ID {}，找到 {} 个章节", actIdConstraint, allChapterIds.size());
+                        rangeStart = actRange[0];
+                        rangeEnd = actRange[1];
+                        log.info("根据卷ID {}，找到 {} 个章节", actIdConstraint, rangeEnd - rangeStart);
                     } else {
-                        // 没有指定actId，按照原有逻辑加载所有卷的章节
-                        for (Act act : novel.getStructure().getActs()) {
-                            for (Chapter chapter : act.getChapters()) {
-                                allChapterIds.add(chapter.getId());
-                            }
-                        }
-                        log.info("未指定卷ID，小说 {} 共有 {} 个章节", novelId, allChapterIds.size());
+                        log.info("未指定卷ID，小说 {} 共有 {} 个章节", novelId, rangeEnd - rangeStart);
                     }
+                    List<String> allChapterIds = orderIndex.slice(rangeStart, rangeEnd);
                     
                     if (allChapterIds.isEmpty()) {
                         log.info("没有可加载的章节，返回空结果");
@@ -619,7 +765,9 @@ public class NovelServiceImpl implements NovelService {
                     
                     int fromIndex = -1;
                     if (fromChapterId != null) {
-                        fromIndex = allChapterIds.indexOf(fromChapterId); // 当前章节在所有章节列表中的索引
+                        // 当前章节在加载范围内的索引
+                        int globalIndex = orderIndex.indexOf(fromChapterId);
+                        fromIndex = globalIndex >= rangeStart && globalIndex < rangeEnd ? globalIndex - rangeStart : -1;
                         if (fromIndex == -1) {
                             log.error("找不到指定的章节: {}", fromChapterId);
                             return Mono.just(new HashMap<>());
@@ -679,12 +827,11 @@ public class NovelServiceImpl implements NovelService {
                         return Mono.just(emptyResult);
                     }
 
-                    // 加载每个章节的场景
+                    // 加载每个章节的场景（保持与 chapterIdsToLoad 相同的顺序，便于按下标分组）
                     return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(chapterId -> 
-                                // 为每个章节加载场景
-                                sceneRepository.findByChapterId(chapterId)
-                                    .collectList()
+                            .flatMapSequential(chapterId -> 
+                                // 为每个章节加载场景（优先命中预取缓存）
+                                chapterPrefetcher.scenes(novel, chapterId)
                                     .doOnNext(scenes -> log.info("章节 {} 的场景数量: {}", chapterId, scenes.size()))
                             )
                             .collectList()
@@ -698,7 +845,15 @@ public class NovelServiceImpl implements NovelService {
                                 }
                                 return groupedScenes;
                             })
-                            .doOnSuccess(result -> log.info("加载更多场景成功，加载章节数: {}", result.size()));
+                            .doOnSuccess(result -> {
+                                log.info("加载更多场景成功，加载章节数: {}", result.size());
+                                // 继续沿滚动方向预取
+                                if ("up".equalsIgnoreCase(direction)) {
+                                    chapterPrefetcher.onScroll(novel, chapterIdsToLoad.get(0), false);
+                                } else if ("down".equalsIgnoreCase(direction)) {
+                                    chapterPrefetcher.onScroll(novel, chapterIdsToLoad.get(chapterIdsToLoad.size() - 1), true);
+                                }
+                            });
                 });
     }
 
@@ -1059,32 +1214,9 @@ public class NovelServiceImpl implements NovelService {
      */
     @Override
     public Mono<Novel> updateNovelWordCount(String novelId) {
-        return findNovelById(novelId)
-                .flatMap(novel -> {
-                    // 使用 SceneRepository 获取所有关联的场景
-                    return sceneRepository.findByNovelId(novelId)
-                            .flatMap(scene -> {
-                                                                // 更新小说元数据
-                                                                if (novel.getMetadata() == null) {
-                                                                    novel.setMetadata(Novel.Metadata.builder().build());
-                                                                }
-                                // 计算每个场景的字数
-                                return Mono.fromCallable(() -> calculateWordCount(scene.getContent()))
-                                        .subscribeOn(Schedulers.boundedElastic()); // 将计算放在弹性线程池
-                            })
-                            .reduce(0, Integer::sum) // 累加所有场景的字数
-                            .flatMap(totalWordCount -> {
-                                // 计算估计阅读时间 (假设每分钟阅读300字)
-                                int readTime = totalWordCount / 300;
-                                if (readTime < 1 && totalWordCount > 0) {
-                                    readTime = 1; // 最小阅读时间为1分钟
-                                }
-                                novel.getMetadata().setWordCount(totalWordCount);
-                                novel.getMetadata().setReadTime(readTime);
-                                novel.setUpdatedAt(novel.getUpdatedAt());
-                                return novelRepository.save(novel);
-                            });
-                })
+        // 按场景已存的字数汇总并原子写入，不重新解析正文，也不整文档保存
+        return metadataAggregator.reconcile(novelId, false)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .doOnSuccess(updatedNovel -> log.info("小说 {} 字数更新为: {}", novelId, updatedNovel.getMetadata().getWordCount()))
                 .onErrorResume(e -> {
                     log.error("更新小说 {} 字数失败: {}", novelId, e.getMessage(), e);
@@ -1102,47 +1234,32 @@ public class NovelServiceImpl implements NovelService {
                     return Mono.just(""); // 或者返回特定错误信息
                 }
 
-                // 获取所有章节的扁平列表，方便查找索引
-                List<Chapter> allChapters = structure.getActs().stream()
-                    .flatMap(act -> act.getChapters().stream())
-                    .collect(Collectors.toList());
-
-                if (allChapters.isEmpty()) {
+                NovelOrderIndex orderIndex = orderIndexCache.get(novel);
+                if (orderIndex.isEmpty()) {
                      log.warn("小说 {} 结构中没有章节，无法获取摘要范围", novelId);
                     return Mono.just("");
                 }
 
                 int startIndex = 0;
-                int endIndex = allChapters.size() - 1;
+                int endIndex = orderIndex.size() - 1;
 
                 // 确定起始索引
                 if (startChapterId != null) {
-                    boolean foundStart = false;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(startChapterId)) {
-                            startIndex = i;
-                            foundStart = true;
-                            break;
-                        }
-                    }
-                    if (!foundStart) {
+                    int found = orderIndex.indexOf(startChapterId);
+                    if (found >= 0) {
+                        startIndex = found;
+                    } else {
                          log.warn("未找到起始章节ID: {}, 将从第一章开始", startChapterId);
                     }
                 }
 
                 // 确定结束索引
                 if (endChapterId != null) {
-                     boolean foundEnd = false;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(endChapterId)) {
-                            endIndex = i;
-                            foundEnd = true;
-                            break;
-                        }
-                    }
-                     if (!foundEnd) {
+                    int found = orderIndex.indexOf(endChapterId);
+                    if (found >= 0) {
+                        endIndex = found;
+                    } else {
                          log.warn("未找到结束章节ID: {}, 将到最后一章结束", endChapterId);
-                         endIndex = allChapters.size() - 1; // 确保 endIndex 有效
                     }
                 }
 
@@ -1153,9 +1270,7 @@ public class NovelServiceImpl implements NovelService {
                 }
 
                 // 获取指定范围内的章节ID列表
-                List<String> targetChapterIds = allChapters.subList(startIndex, endIndex + 1).stream()
-                    .map(Chapter::getId)
-                    .collect(Collectors.toList());
+                List<String> targetChapterIds = orderIndex.slice(startIndex, endIndex + 1);
 
                  log.debug("获取小说 {} 从索引 {} 到 {} 的章节摘要, 章节ID列表: {}", novelId, startIndex, endIndex, targetChapterIds);
 
@@ -2249,27 +2364,16 @@ public class NovelServiceImpl implements NovelService {
     public Mono<String> getPreviousChapterId(String novelId, String chapterId) {
         return findNovelById(novelId)
             .flatMap(novel -> {
-                // 获取所有章节的有序列表
-                List<String> chapterIds = new ArrayList<>();
-                if (novel.getStructure() != null && novel.getStructure().getActs() != null) {
-                    for (Act act : novel.getStructure().getActs()) {
-                        if (act.getChapters() != null) {
-                            for (Chapter chapter : act.getChapters()) {
-                                chapterIds.add(chapter.getId());
-                            }
-                        }
-                    }
-                }
-                
                 // 找到当前章节的索引
-                int currentIndex = chapterIds.indexOf(chapterId);
+                NovelOrderIndex orderIndex = orderIndexCache.get(novel);
+                int currentIndex = orderIndex.indexOf(chapterId);
                 if (currentIndex <= 0) {
                     // 如果是第一章或未找到，则返回空
                     return Mono.empty();
                 }
                 
                 // 否则返回前一章的ID
-                return Mono.just(chapterIds.get(currentIndex - 1));
+                return Mono.just(orderIndex.chapterIdAt(currentIndex - 1));
             });
     }
 
@@ -2281,16 +2385,10 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 获取所有章节ID，并保持它们的顺序
-                    List<String> allChapterIds = new ArrayList<>();
-                    for (Novel.Act act : novel.getStructure().getActs()) {
-                        for (Novel.Chapter chapter : act.getChapters()) {
-                            allChapterIds.add(chapter.getId());
-                        }
-                    }
+                    NovelOrderIndex orderIndex = orderIndexCache.get(novel);
 
                     // 如果没有章节，直接返回只有小说信息的DTO
-                    if (allChapterIds.isEmpty()) {
+                    if (orderIndex.isEmpty()) {
                         return Mono.just(NovelWithScenesDto.builder()
                                 .novel(novel)
                                 .scenesByChapter(new HashMap<>())
@@ -2298,20 +2396,19 @@ public class NovelServiceImpl implements NovelService {
                     }
 
                     // 找到当前章节的索引
-                    int currentIndex = allChapterIds.indexOf(currentChapterId);
+                    int currentIndex = orderIndex.indexOf(currentChapterId);
                     if (currentIndex == -1) {
                         log.warn("找不到指定的当前章节: {}, 将从第一章开始加载", currentChapterId);
-                        currentIndex = -1; // 从第一章开始
                     }
 
                     // 确定要加载的章节范围
                     List<String> chapterIdsToLoad;
                     if (currentIndex == -1) {
                         // 从第一章开始加载
-                        int endIndex = Math.min(allChapterIds.size(), chaptersLimit);
-                        chapterIdsToLoad = allChapterIds.subList(0, endIndex);
+                        int endIndex = Math.min(orderIndex.size(), chaptersLimit);
+                        chapterIdsToLoad = orderIndex.slice(0, endIndex);
                         log.info("从第一章开始加载，加载章节数: {}", chapterIdsToLoad.size());
-                    } else if (currentIndex >= allChapterIds.size() - 1 && !includeCurrentChapter) {
+                    } else if (currentIndex >= orderIndex.size() - 1 && !includeCurrentChapter) {
                         // 已经是最后一章且不包含当前章节，没有后续章节
                         log.info("已经是最后一章且不包含当前章节，没有后续章节可加载");
                         return Mono.just(NovelWithScenesDto.builder()
@@ -2332,7 +2429,7 @@ public class NovelServiceImpl implements NovelService {
                         }
                         
                         // 检查是否有章节可加载
-                        if (startIndex >= allChapterIds.size()) {
+                        if (startIndex >= orderIndex.size()) {
                             log.info("没有更多章节可加载");
                             return Mono.just(NovelWithScenesDto.builder()
                                     .novel(novel)
@@ -2340,8 +2437,8 @@ public class NovelServiceImpl implements NovelService {
                                     .build());
                         }
                         
-                        int endIndex = Math.min(allChapterIds.size(), startIndex + chaptersLimit);
-                        chapterIdsToLoad = allChapterIds.subList(startIndex, endIndex);
+                        int endIndex = Math.min(orderIndex.size(), startIndex + chaptersLimit);
+                        chapterIdsToLoad = orderIndex.slice(startIndex, endIndex);
                         log.info("最终加载章节范围: {} 到 {}, 共{}章", startIndex, endIndex - 1, chapterIdsToLoad.size());
                     }
 
@@ -2353,17 +2450,13 @@ public class NovelServiceImpl implements NovelService {
                                 .build());
                     }
 
-                    // 查询指定章节的场景并按章节分组
+                    // 查询指定章节的场景（内容为纯文本，优先命中预取缓存）并按章节分组
                     return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(sceneRepository::findByChapterId)
+                            .flatMapSequential(chapterId -> chapterPrefetcher.plainTextScenes(novel, chapterId))
                             .collectList()
-                            .map(scenes -> {
+                            .map(sceneLists -> {
                                 // 按章节ID分组
-                                Map<String, List<Scene>> scenesByChapter = scenes.stream().map(scene -> {
-                                    scene.setContent(RichTextUtil.deltaJsonToPlainText(scene.getContent()));
-                                    return scene;
-                                })
-                                        .collect(Collectors.groupingBy(Scene::getChapterId));
+                                Map<String, List<Scene>> scenesByChapter = groupByChapter(sceneLists);
 
                                 // 构建并返回DTO
                                 return NovelWithScenesDto.builder()
@@ -2385,14 +2478,10 @@ public class NovelServiceImpl implements NovelService {
         return novelRepository.findById(novelId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("小说", novelId)))
                 .flatMap(novel -> {
-                    // 获取所有章节ID，并保持它们的顺序
-                    List<Chapter> allChapters = new ArrayList<>();
-                    for (Novel.Act act : novel.getStructure().getActs()) {
-                        allChapters.addAll(act.getChapters());
-                    }
+                    NovelOrderIndex orderIndex = orderIndexCache.get(novel);
 
                     // 如果没有章节，直接返回空结果
-                    if (allChapters.isEmpty()) {
+                    if (orderIndex.isEmpty()) {
                         return Mono.just(ChaptersForPreloadDto.builder()
                                 .chapters(new ArrayList<>())
                                 .scenesByChapter(new HashMap<>())
@@ -2400,27 +2489,19 @@ public class NovelServiceImpl implements NovelService {
                     }
 
                     // 找到当前章节的索引
-                    int currentIndex = -1;
-                    for (int i = 0; i < allChapters.size(); i++) {
-                        if (allChapters.get(i).getId().equals(currentChapterId)) {
-                            currentIndex = i;
-                            break;
-                        }
-                    }
-                    
+                    int currentIndex = orderIndex.indexOf(currentChapterId);
                     if (currentIndex == -1) {
                         log.warn("找不到指定的当前章节: {}, 将从第一章开始加载", currentChapterId);
-                        currentIndex = -1; // 从第一章开始
                     }
 
                     // 确定要加载的章节范围
                     List<Chapter> chaptersToLoad;
                     if (currentIndex == -1) {
                         // 从第一章开始加载
-                        int endIndex = Math.min(allChapters.size(), chaptersLimit);
-                        chaptersToLoad = allChapters.subList(0, endIndex);
+                        int endIndex = Math.min(orderIndex.size(), chaptersLimit);
+                        chaptersToLoad = orderIndex.chapters(novel, 0, endIndex);
                         log.info("从第一章开始加载，加载章节数: {}", chaptersToLoad.size());
-                    } else if (currentIndex >= allChapters.size() - 1 && !includeCurrentChapter) {
+                    } else if (currentIndex >= orderIndex.size() - 1 && !includeCurrentChapter) {
                         // 已经是最后一章且不包含当前章节，没有后续章节
                         log.info("已经是最后一章且不包含当前章节，没有后续章节可加载");
                         return Mono.just(ChaptersForPreloadDto.builder()
@@ -2441,7 +2522,7 @@ public class NovelServiceImpl implements NovelService {
                         }
                         
                         // 检查是否有章节可加载
-                        if (startIndex >= allChapters.size()) {
+                        if (startIndex >= orderIndex.size()) {
                             log.info("没有更多章节可加载");
                             return Mono.just(ChaptersForPreloadDto.builder()
                                     .chapters(new ArrayList<>())
@@ -2449,8 +2530,8 @@ public class NovelServiceImpl implements NovelService {
                                     .build());
                         }
                         
-                        int endIndex = Math.min(allChapters.size(), startIndex + chaptersLimit);
-                        chaptersToLoad = allChapters.subList(startIndex, endIndex);
+                        int endIndex = Math.min(orderIndex.size(), startIndex + chaptersLimit);
+                        chaptersToLoad = orderIndex.chapters(novel, startIndex, endIndex);
                         log.info("最终加载章节范围: {} 到 {}, 共{}章", startIndex, endIndex - 1, chaptersToLoad.size());
                     }
 
@@ -2467,19 +2548,13 @@ public class NovelServiceImpl implements NovelService {
                             .map(Chapter::getId)
                             .collect(Collectors.toList());
 
-                    // 查询指定章节的场景并按章节分组
+                    // 查询指定章节的场景（内容为纯文本，优先命中预取缓存）并按章节分组
                     return Flux.fromIterable(chapterIdsToLoad)
-                            .flatMap(sceneRepository::findByChapterId)
+                            .flatMapSequential(chapterId -> chapterPrefetcher.plainTextScenes(novel, chapterId))
                             .collectList()
-                            .map(scenes -> {
+                            .map(sceneLists -> {
                                 // 按章节ID分组场景
-                                Map<String, List<Scene>> scenesByChapter = scenes.stream()
-                                        .map(scene -> {
-                                            // 转换场景内容为纯文本
-                                            scene.setContent(RichTextUtil.deltaJsonToPlainText(scene.getContent()));
-                                            return scene;
-                                        })
-                                        .collect(Collectors.groupingBy(Scene::getChapterId));
+                                Map<String, List<Scene>> scenesByChapter = groupByChapter(sceneLists);
 
                                 // 构建并返回DTO
                                 return ChaptersForPreloadDto.builder()
@@ -2495,6 +2570,19 @@ public class NovelServiceImpl implements NovelService {
                 .doOnError(e -> log.error("获取章节列表用于预加载失败", e));
     }
 
+    /**
+     * 将各章节的场景列表合并为按章节ID分组的映射（没有场景的章节不出现）
+     */
+    private static Map<String, List<Scene>> groupByChapter(List<List<Scene>> sceneLists) {
+        Map<String, List<Scene>> scenesByChapter = new HashMap<>();
+        for (List<Scene> scenes : sceneLists) {
+            for (Scene scene : scenes) {
+                scenesByChapter.computeIfAbsent(scene.getChapterId(), k -> new ArrayList<>()).add(scene);
+            }
+        }
+        return scenesByChapter;
+    }
+
     @Override
     public Mono<NovelWithScenesDto> getNovelWithAllScenesText(String id) {
         return novelRepository.findById(id)
@@ -2555,49 +2643,14 @@ public class NovelServiceImpl implements NovelService {
                         return Flux.empty();
                     }
 
-                    // 按照卷顺序和章节顺序收集所有章节ID
-                    List<String> orderedChapterIds = new ArrayList<>();
-                    
-                    // 按卷的order排序（如果有的话），否则按列表顺序
-                    List<Act> sortedActs = novel.getStructure().getActs().stream()
-                            .sorted((a, b) -> {
-                                Integer orderA = a.getOrder();
-                                Integer orderB = b.getOrder();
-                                if (orderA != null && orderB != null) {
-                                    return Integer.compare(orderA, orderB);
-                                }
-                                // 如果没有order字段，保持原有顺序
-                                return 0;
-                            })
-                            .collect(Collectors.toList());
-
-                    for (Act act : sortedActs) {
-                        if (act.getChapters() != null) {
-                            // 按章节的order排序（如果有的话），否则按列表顺序
-                            List<Chapter> sortedChapters = act.getChapters().stream()
-                                    .sorted((a, b) -> {
-                                        Integer orderA = a.getOrder();
-                                        Integer orderB = b.getOrder();
-                                        if (orderA != null && orderB != null) {
-                                            return Integer.compare(orderA, orderB);
-                                        }
-                                        // 如果没有order字段，保持原有顺序
-                                        return 0;
-                                    })
-                                    .collect(Collectors.toList());
-                            
-                            for (Chapter chapter : sortedChapters) {
-                                orderedChapterIds.add(chapter.getId());
-                            }
-                        }
-                    }
-
-                    if (orderedChapterIds.isEmpty()) {
+                    // 卷顺序 -> 章节顺序 的全局序号由按结构版本缓存的顺序索引提供
+                    NovelOrderIndex orderIndex = orderIndexCache.get(novel);
+                    if (orderIndex.isEmpty()) {
                         log.info("小说 {} 没有章节，返回空场景列表", novelId);
                         return Flux.empty();
                     }
 
-                    log.debug("小说 {} 按顺序的章节ID数量: {}", novelId, orderedChapterIds.size());
+                    log.debug("小说 {} 按顺序的章节ID数量: {}", novelId, orderIndex.size());
 
                     // 🚀 单次按小说ID取回所有场景，内存中按章节顺序与场景sequence排序，避免逐章节 N 次查询
                     return sceneRepository.findByNovelId(novelId)
@@ -2607,17 +2660,10 @@ public class NovelServiceImpl implements NovelService {
                                     return Flux.empty();
                                 }
 
-                                // 章节顺序映射：chapterId -> 顺序索引
-                                Map<String, Integer> chapterOrderIndex = new HashMap<>();
-                                for (int i = 0; i < orderedChapterIds.size(); i++) {
-                                    chapterOrderIndex.put(orderedChapterIds.get(i), i);
-                                }
-
                                 // 按章节顺序索引 + 场景sequence 排序
                                 allScenes.sort((s1, s2) -> {
-                                    Integer idx1 = chapterOrderIndex.getOrDefault(s1.getChapterId(), Integer.MAX_VALUE);
-                                    Integer idx2 = chapterOrderIndex.getOrDefault(s2.getChapterId(), Integer.MAX_VALUE);
-                                    int cmp = Integer.compare(idx1, idx2);
+                                    int cmp = Integer.compare(orderIndex.ordinalOf(s1.getChapterId()),
+                                            orderIndex.ordinalOf(s2.getChapterId()));
                                     if (cmp != 0) return cmp;
                                     Integer seq1 = s1.getSequence() == null ? Integer.MAX_VALUE : s1.getSequence();
                                     Integer seq2 = s2.getSequence() == null ? Integer.MAX_VALUE : s2.getSequence();
@@ -2647,6 +2693,7 @@ public class NovelServiceImpl implements NovelService {
      */
     private void invalidateStructureCache(String novelId) {
         structureCache.evict(novelId);
+        orderIndexCache.evict(novelId);
     }
 
 }
@@ -4,9 +4,12 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Pageable;
@@ -25,6 +28,10 @@ import com.ainovel.server.repository.SettingGroupRepository;
 import com.ainovel.server.service.EmbeddingService;
 import com.ainovel.server.service.KeywordExtractionService;
 import com.ainovel.server.service.NovelSettingService;
+import com.ainovel.server.service.cache.NovelSettingCache;
+import com.ainovel.server.service.setting.mention.SettingMentionIndex;
+import com.ainovel.server.service.setting.retrieval.SettingRanker;
+import com.ainovel.server.service.vectorstore.SearchResult;
 import com.ainovel.server.service.vectorstore.VectorStore;
 
 import lombok.RequiredArgsConstructor;
@@ -46,6 +53,8 @@ public class NovelSettingServiceImpl implements NovelSettingService {
     private final ReactiveMongoTemplate mongoTemplate;
     private final EmbeddingService embeddingService;
     private final VectorStore vectorStore;
+    private final SettingMentionIndex mentionIndex;
+    private final NovelSettingCache novelSettingCache;
     
     // 关键词提取服务（可选依赖，仅当 ai.gemini.enabled=true 时可用）
     @Autowired(required = false)
@@ -54,6 +63,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
     // 默认优先级
     private static final int DEFAULT_PRIORITY = 3;
     
+    // 检索查询文本的最大长度（超出部分嵌入模型也无法有效利用）
+    private static final int MAX_QUERY_LENGTH = 2000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
     // ==================== 设定条目管理 ====================
     
     @Override
@@ -89,7 +102,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
 //                settingItem.getNovelId(), settingItem.getType(), settingItem.getName());
         
         return settingItemRepository.save(settingItem)
-                .doOnSuccess(saved -> indexSettingItem(saved).subscribe());
+                .doOnSuccess(saved -> {
+                    onSettingChanged(saved);
+                    indexSettingItem(saved).subscribe();
+                });
     }
 
     @Override
@@ -109,7 +125,8 @@ public class NovelSettingServiceImpl implements NovelSettingService {
             if (item.getGeneratedBy() == null) item.setGeneratedBy("AI_SETTING_GENERATION");
             if (item.getRelationships() == null) item.setRelationships(new ArrayList<>());
         });
-        return settingItemRepository.saveAll(items);
+        return settingItemRepository.saveAll(items)
+                .doOnNext(this::onSettingChanged);
     }
     
     @Override
@@ -172,7 +189,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                             settingItemId, settingItem.getNovelId(), settingItem.getType(), settingItem.getName());
                     
                     return settingItemRepository.save(settingItem)
-                            .doOnSuccess(saved -> indexSettingItem(saved).subscribe());
+                            .doOnSuccess(saved -> {
+                                onSettingChanged(saved);
+                                indexSettingItem(saved).subscribe();
+                            });
                 });
     }
     
@@ -191,6 +211,7 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                                 return settingGroupRepository.save(group);
                             })
                             .then(settingItemRepository.delete(settingItem))
+                            .doOnSuccess(v -> onSettingDeleted(settingItem.getNovelId(), settingItemId))
                             .then(deleteSettingItemIndex(settingItem.getNovelId(), settingItemId));
                 });
     }
@@ -217,7 +238,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                             settingItemId, settingItem.getNovelId(), settingItem.getType(), settingItem.getName());
                     
                     return settingItemRepository.save(settingItem)
-                            .doOnSuccess(saved -> indexSettingItem(saved).subscribe());
+                            .doOnSuccess(saved -> {
+                                onSettingChanged(saved);
+                                indexSettingItem(saved).subscribe();
+                            });
                 });
     }
     
@@ -236,7 +260,8 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                     log.info("拒绝AI建议的设定条目: id={}, novelId={}, type={}, name={}", 
                             settingItemId, settingItem.getNovelId(), settingItem.getType(), settingItem.getName());
                     
-                    return settingItemRepository.save(settingItem);
+                    return settingItemRepository.save(settingItem)
+                            .doOnSuccess(this::onSettingChanged);
                 });
     }
     
@@ -276,7 +301,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                                         settingItemId, relationship.getTargetItemId(), relationship.getType());
                                 
                                 return settingItemRepository.save(settingItem)
-                                        .doOnSuccess(saved -> indexSettingItem(saved).subscribe());
+                                        .doOnSuccess(saved -> {
+                                            novelSettingCache.evict(saved.getNovelId(), saved.getId());
+                                            indexSettingItem(saved).subscribe();
+                                        });
                             });
                 });
     }
@@ -315,7 +343,10 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                     log.info("删除设定条目关系: fromId={}, toId={}", settingItemId, targetItemId);
                     
                     return settingItemRepository.save(settingItem)
-                            .doOnSuccess(saved -> indexSettingItem(saved).subscribe())
+                            .doOnSuccess(saved -> {
+                                novelSettingCache.evict(saved.getNovelId(), saved.getId());
+                                indexSettingItem(saved).subscribe();
+                            })
                             .then();
                 });
     }
@@ -556,6 +587,7 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                         child.setUpdatedAt(LocalDateTime.now());
                         
                         return settingItemRepository.save(child)
+                            .doOnSuccess(savedChild -> novelSettingCache.evict(savedChild.getNovelId(), savedChild.getId()))
                             .flatMap(savedChild -> {
                                 // 更新父设定的子设定列表
                                 return updateParentChildrenList(parentId, childId, true)
@@ -589,6 +621,7 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                 child.setUpdatedAt(LocalDateTime.now());
                 
                 return settingItemRepository.save(child)
+                    .doOnSuccess(savedChild -> novelSettingCache.evict(savedChild.getNovelId(), savedChild.getId()))
                     .flatMap(savedChild -> {
                         // 更新父设定的子设定列表
                         return updateParentChildrenList(parentId, childId, false)
@@ -674,6 +707,7 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                 return settingItemRepository.save(item)
                     .doOnSuccess(savedItem -> {
                         // 重新索引设定条目以更新追踪配置
+                        onSettingChanged(savedItem);
                         indexSettingItem(savedItem).subscribe();
                     });
             });
@@ -681,6 +715,22 @@ public class NovelSettingServiceImpl implements NovelSettingService {
     
     // ==================== 辅助方法 ====================
     
+    /**
+     * 设定写入后同步提及索引与检索缓存
+     */
+    private void onSettingChanged(NovelSettingItem saved) {
+        if (saved == null) {
+            return;
+        }
+        mentionIndex.onSettingSaved(saved);
+        novelSettingCache.evict(saved.getNovelId(), saved.getId());
+    }
+    
+    private void onSettingDeleted(String novelId, String settingItemId) {
+        mentionIndex.onSettingDeleted(novelId, settingItemId);
+        novelSettingCache.evict(novelId, settingItemId);
+    }
+    
     /**
      * 检查是否会形成循环引用
      */
@@ -730,7 +780,8 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                 }
                 
                 parent.setUpdatedAt(LocalDateTime.now());
-                return settingItemRepository.save(parent);
+                return settingItemRepository.save(parent)
+                        .doOnSuccess(saved -> novelSettingCache.evict(saved.getNovelId(), saved.getId()));
             })
             .then()
             .onErrorResume(e -> {
@@ -768,109 +819,114 @@ public class NovelSettingServiceImpl implements NovelSettingService {
     @Override
     public Flux<NovelSettingItem> findRelevantSettings(String novelId, String contextText, String currentSceneId,
                                                        List<String> activeGroupIds, int topK) {
+        String query = retrievalQuery(contextText);
         log.info("检索相关设定: novelId={}, contextLength={}, sceneId={}, activeGroups={}, topK={}", 
                 novelId, (contextText != null ? contextText.length() : 0), currentSceneId, activeGroupIds, topK);
+        if (query.isEmpty()) {
+            log.warn("上下文为空，无法生成查询向量，返回空结果");
+            return Flux.empty();
+        }
         
-        // 1. 使用LLM从上下文中提取关键词 - 暂时注释掉以避免额外的AI调用
-        // Mono<List<String>> keywordsMono = keywordExtractionService != null ? 
-        //         keywordExtractionService.extractKeywords(contextText) : 
-        //         Mono.just(Collections.emptyList());
-        Mono<List<String>> keywordsMono = Mono.just(Collections.emptyList());
-        
-        // 2. 生成查询向量
-        Mono<float[]> queryVectorMono = contextText != null && !contextText.isEmpty() ? 
-                embeddingService.generateEmbedding(contextText) : 
-                Mono.just(new float[0]);
-        
-        return Mono.zip(keywordsMono, queryVectorMono)
-                .flatMapMany(tuple -> {
-                    List<String> keywords = tuple.getT1();
-                    float[] queryVector = tuple.getT2();
-                    
-                    if (queryVector.length == 0) {
-                        log.warn("无法生成查询向量，返回空结果");
-                        return Flux.empty();
+        // 1. 查询向量（相同查询文本命中嵌入服务的向量缓存）
+        // 2. 向量检索，多取一倍候选供重排序
+        // 3. 一次批量回填设定条目（优先取小说设定缓存）
+        // 4. 单次打分 + 堆选前 topK
+        return embeddingService.generateEmbedding(query)
+                .flatMapMany(queryVector -> vectorStore.search(queryVector, Map.of("novelId", novelId), topK * 2))
+                .collectList()
+                .flatMapMany(hits -> {
+                    Map<String, Double> vectorScores = new LinkedHashMap<>();
+                    for (SearchResult hit : hits) {
+                        Object settingItemId = hit.getMetadata() != null ? hit.getMetadata().get("novelSettingItemId") : null;
+                        if (settingItemId == null) {
+                            log.warn("检索结果缺少设定条目ID: {}", hit.getMetadata());
+                            continue;
+                        }
+                        vectorScores.merge(settingItemId.toString(), hit.getScore(), Math::max);
                     }
-                    
-                    // 构建元数据过滤条件
-                    Map<String, Object> filterMetadata = new HashMap<>();
-                    filterMetadata.put("novelId", novelId);
-                    
-                    // 增加关键词过滤（如果有）
-                    if (!keywords.isEmpty()) {
-                        log.info("使用关键词进行过滤: {}", keywords);
-                        filterMetadata.put("keywords", keywords);
+                    if (vectorScores.isEmpty()) {
+                        log.warn("未找到相关设定条目");
+                        return Flux.empty();
                     }
-                    
-                    // 初步检索，获取比最终所需多一些的结果以便后处理
-                    int initialTopK = topK * 2;
-                    
-                    return vectorStore.search(queryVector, filterMetadata, initialTopK)
-                            .flatMap(result -> {
-                                String settingItemId = (String) result.getMetadata().get("novelSettingItemId");
-                                if (settingItemId == null) {
-                                    log.warn("检索结果缺少设定条目ID: {}", result.getMetadata());
-                                    return Mono.empty();
-                                }
-                                return getSettingItemById(settingItemId)
-                                       .map(item -> {
-                                           // 保存原始相似度分数，用于后续重排序
-                                           if (item.getMetadata() == null) {
-                                               item.setMetadata(new HashMap<>());
-                                           }
-                                           item.getMetadata().put("_score", result.getScore());
-                                           return item;
-                                       });
-                            })
-                            .collectList()
-                            .flatMapMany(initialResults -> {
-                                if (initialResults.isEmpty()) {
-                                    log.warn("未找到相关设定条目");
-                                    return Flux.empty();
-                                }
-                                
-                                log.info("初步检索到 {} 个设定条目", initialResults.size());
-                                
-                                // 如果有关键词，进行关键词匹配过滤
-                                List<NovelSettingItem> filteredResults = initialResults;
-                                if (!keywords.isEmpty()) {
-                                    filteredResults = initialResults.stream()
-                                        .filter(item -> {
-                                            // 构建完整文本用于匹配
-                                            String fullText = item.getName() + " " + 
-                                                             item.getType() + " " + 
-                                                             (item.getDescription() != null ? item.getDescription() : "");
-                                            
-                                            // 检查是否至少匹配一个关键词
-                                            return keywords.stream()
-                                                    .anyMatch(keyword -> 
-                                                        fullText.toLowerCase().contains(keyword.toLowerCase()));
-                                        })
-                                        .collect(Collectors.toList());
-                                    
-                                    log.info("关键词过滤后剩余 {} 个设定条目", filteredResults.size());
-                                    
-                                    // 如果过滤后结果太少，回退到原始结果
-                                    if (filteredResults.size() < Math.max(3, topK / 2)) {
-                                        log.info("过滤后结果太少，回退到原始结果");
-                                        filteredResults = initialResults;
-                                    }
-                                }
-                                
-                                // 进行结果优化和重排序
-                                List<NovelSettingItem> rerankedResults = reorderResults(
-                                        filteredResults, currentSceneId, activeGroupIds);
-                                
-                                // 选择前topK个结果
-                                int resultCount = Math.min(topK, rerankedResults.size());
-                                
-                                log.info("重排序后返回 {} 个设定条目", resultCount);
-                                
-                                return Flux.fromIterable(rerankedResults.subList(0, resultCount));
+                    return Mono.zip(novelSettingCache.getAll(novelId, vectorScores.keySet()),
+                                    activeGroupItemIds(activeGroupIds))
+                            .flatMapIterable(tuple -> {
+                                List<NovelSettingItem> ranked = SettingRanker.topK(tuple.getT1(), vectorScores,
+                                        currentSceneId, tuple.getT2(), topK);
+                                log.info("检索到 {} 个候选，重排序后返回 {} 个设定条目", tuple.getT1().size(), ranked.size());
+                                return ranked;
                             });
                 });
     }
     
+    /**
+     * 检索用的查询文本：压缩空白并截断到嵌入模型能有效利用的长度，
+     * 同一段上下文得到相同的查询文本，从而复用向量缓存
+     */
+    static String retrievalQuery(String contextText) {
+        if (contextText == null) {
+            return "";
+        }
+        String normalized = WHITESPACE.matcher(contextText).replaceAll(" ").strip();
+        return normalized.length() > MAX_QUERY_LENGTH ? normalized.substring(0, MAX_QUERY_LENGTH) : normalized;
+    }
+    
+    /**
+     * 激活设定组包含的设定ID（一次查询）
+     */
+    private Mono<Set<String>> activeGroupItemIds(List<String> activeGroupIds) {
+        if (activeGroupIds == null || activeGroupIds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return settingGroupRepository.findAllById(activeGroupIds)
+                .filter(group -> group.getItemIds() != null)
+                .flatMapIterable(SettingGroup::getItemIds)
+                .collect(Collectors.toSet());
+    }
+    
+    @Override
+    public Flux<NovelSettingItem> findContextSettings(String novelId, String contextText, String currentSceneId,
+                                                      int topK) {
+        return mentionIndex.contextSettings(novelId, contextText)
+                .flatMapMany(context -> {
+                    if (context.detected().isEmpty()) {
+                        // always 的设定不代表文本中有提及，没有检测到提及时仍需向量检索补充
+                        log.debug("未检测到设定提及，回退到向量检索: novelId={}, always={}", novelId, context.always().size());
+                        return Mono.zip(novelSettingCache.getAll(novelId, context.always()),
+                                        findRelevantSettings(novelId, contextText, currentSceneId, null, topK).collectList())
+                                .flatMapIterable(tuple -> mergeContextSettings(tuple.getT1(), tuple.getT2(), topK));
+                    }
+                    log.info("名称匹配命中 {} 个上下文设定（always {} 个）: novelId={}",
+                            context.detected().size(), context.always().size(), novelId);
+                    // 按命中顺序返回（always 在前，其余按首次提及顺序），总数不超过 topK
+                    List<String> ids = new ArrayList<>(context.always());
+                    ids.addAll(context.detected());
+                    return novelSettingCache.getAll(novelId, ids.subList(0, Math.min(ids.size(), Math.max(topK, 0))))
+                            .flatMapIterable(items -> items);
+                });
+    }
+    
+    /**
+     * always 的设定在前，向量检索结果按得分顺序补充，去重后截断到 topK
+     */
+    static List<NovelSettingItem> mergeContextSettings(List<NovelSettingItem> always, List<NovelSettingItem> retrieved,
+                                                       int topK) {
+        Map<String, NovelSettingItem> merged = new LinkedHashMap<>();
+        for (NovelSettingItem item : always) {
+            if (merged.size() >= topK) {
+                break;
+            }
+            merged.putIfAbsent(item.getId(), item);
+        }
+        for (NovelSettingItem item : retrieved) {
+            if (merged.size() >= topK) {
+                break;
+            }
+            merged.putIfAbsent(item.getId(), item);
+        }
+        return new ArrayList<>(merged.values());
+    }
+    
     @Override
     public Flux<NovelSettingItem> extractSettingsFromText(String novelId, String text, String type, String userId) {
         log.info("从文本中提取设定: novelId={}, textLength={}, type={}", novelId, text.length(), type);
@@ -1018,87 +1074,4 @@ public class NovelSettingServiceImpl implements NovelSettingService {
                     return Mono.empty();
                 });
     }
-    
-    /**
-     * 重新排序检索结果
-     */
-    private List<NovelSettingItem> reorderResults(List<NovelSettingItem> items, 
-            String currentSceneId, List<String> activeGroupIds) {
-        // 使用得分系统对结果进行重排序
-        return items.stream()
-                .map(item -> {
-                    double score = calculateItemScore(item, currentSceneId, activeGroupIds);
-                    return Map.entry(item, score);
-                })
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue())) // 降序排序
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * 计算设定条目的得分
-     * 综合考虑优先级、当前场景相关性、设定组激活状态等因素
-     */
-    private double calculateItemScore(NovelSettingItem item, String currentSceneId, List<String> activeGroupIds) {
-        double score = 0.0;
-        
-        // 如果有向量搜索得分，添加到总分中 (0.0-1.0范围)
-        if (item.getMetadata() != null && item.getMetadata().containsKey("_score")) {
-            try {
-                double vectorScore = ((Number) item.getMetadata().get("_score")).doubleValue();
-                // 向量搜索得分通常是0-1范围内的值，可能需要根据实际情况调整权重
-                score += vectorScore * 0.5; // 赋予50%的权重
-                log.debug("添加向量相似度得分: itemId={}, vectorScore={}", item.getId(), vectorScore);
-            } catch (Exception e) {
-                log.warn("无法解析向量相似度得分: {}", e.getMessage());
-            }
-        }
-        
-        // 基于优先级的得分（优先级越高，得分越高）
-        // 优先级从1到5，1为最高
-        if (item.getPriority() != null) {
-            // 转换为0-1范围的得分，优先级1得1分，优先级5得0.2分
-            double priorityScore = (6 - item.getPriority()) / 5.0;
-            score += priorityScore * 0.3; // 赋予30%的权重
-        }
-        
-        // 当前场景相关性得分
-        if (currentSceneId != null && item.getSceneIds() != null && item.getSceneIds().contains(currentSceneId)) {
-            score += 0.5; // 与当前场景直接相关的设定条目额外加分
-        }
-        
-        // 设定组激活状态得分
-        if (activeGroupIds != null && !activeGroupIds.isEmpty()) {
-            // 获取该设定条目所属的所有设定组
-            // 这里假设我们已经在元数据中查询到了组ID，如果实际使用需要改为数据库查询
-            // 这里是简化实现
-            settingGroupRepository.findByNovelId(item.getNovelId())
-                    .filter(group -> group.getItemIds() != null && 
-                            group.getItemIds().contains(item.getId()))
-                    .map(SettingGroup::getId)
-                    .filter(activeGroupIds::contains)
-                    .count()
-                    .subscribe(count -> {
-                        // 如果设定条目属于激活的设定组，给予额外得分
-                        if (count > 0) {
-                            // 这里无法直接修改外部的score变量，实际实现需要调整
-                        }
-                    });
-        }
-        
-        // 生成源和状态得分
-        if ("USER".equals(item.getGeneratedBy())) {
-            score += 0.2; // 用户创建的设定条目更可信
-        } else if ("AI_SCENE_SUGGESTION".equals(item.getGeneratedBy()) || 
-                "AI_GENERAL_SUGGESTION".equals(item.getGeneratedBy())) {
-            if ("ACCEPTED".equals(item.getStatus())) {
-                score += 0.15; // 已接受的AI建议
-            } else if ("SUGGESTED".equals(item.getStatus())) {
-                score += 0.05; // 未审核的AI建议
-            }
-            // REJECTED的不加分
-        }
-        
-        return score;
-    }
-} 
\ No newline at end of file
+}
@@ -20,6 +20,7 @@ import com.ainovel.server.repository.ModelPricingRepository;
 import com.ainovel.server.repository.PublicModelConfigRepository;
 import com.ainovel.server.service.ApiKeyValidator;
 import com.ainovel.server.service.PublicModelConfigService;
+import com.ainovel.server.service.ai.factory.AIProviderPool;
 import com.ainovel.server.service.ai.pricing.TokenUsageTrackingService;
 import com.ainovel.server.web.dto.response.PublicModelResponseDto;
 
@@ -39,18 +40,21 @@ public class PublicModelConfigServiceImpl implements PublicModelConfigService {
     private final TokenUsageTrackingService tokenUsageTrackingService;
     private final ApiKeyValidator apiKeyValidator;
     private final StringEncryptor encryptor;
+    private final AIProviderPool providerPool;
     
     @Autowired
     public PublicModelConfigServiceImpl(PublicModelConfigRepository publicModelConfigRepository,
                                        ModelPricingRepository modelPricingRepository,
                                        TokenUsageTrackingService tokenUsageTrackingService,
                                        ApiKeyValidator apiKeyValidator,
-                                       StringEncryptor encryptor) {
+                                       StringEncryptor encryptor,
+                                       AIProviderPool providerPool) {
         this.publicModelConfigRepository = publicModelConfigRepository;
         this.modelPricingRepository = modelPricingRepository;
         this.tokenUsageTrackingService = tokenUsageTrackingService;
         this.apiKeyValidator = apiKeyValidator;
         this.encryptor = encryptor;
+        this.providerPool = providerPool;
     }
     
     @Override
@@ -100,7 +104,8 @@ public class PublicModelConfigServiceImpl implements PublicModelConfigService {
                     existingConfig.setUpdatedAt(LocalDateTime.now());
                     
                     return publicModelConfigRepository.save(existingConfig);
-                });
+                })
+                .doOnSuccess(saved -> providerPool.invalidateConfig(id));
     }
     
     @Override
@@ -108,7 +113,8 @@ public class PublicModelConfigServiceImpl implements PublicModelConfigService {
     public Mono<Void> deleteConfig(String id) {
         return publicModelConfigRepository.findById(id)
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("模型配置不存在: " + id)))
-                .flatMap(config -> publicModelConfigRepository.deleteById(id));
+                .flatMap(config -> publicModelConfigRepository.deleteById(id))
+                .doOnSuccess(v -> providerPool.invalidateConfig(id));
     }
     
     @Override
@@ -164,7 +170,8 @@ public class PublicModelConfigServiceImpl implements PublicModelConfigService {
                     config.setEnabled(enabled);
                     config.setUpdatedAt(LocalDateTime.now());
                     return publicModelConfigRepository.save(config);
-                });
+                })
+                .doOnSuccess(saved -> providerPool.invalidateConfig(id));
     }
     
     @Override
@@ -304,7 +311,8 @@ public class PublicModelConfigServiceImpl implements PublicModelConfigService {
                     config.updateValidationStatus();
                     config.setUpdatedAt(LocalDateTime.now());
                     return publicModelConfigRepository.save(config);
-                });
+                })
+                .doOnSuccess(saved -> providerPool.invalidateConfig(configId));
     }
 
     @Override
@@ -160,16 +160,16 @@ public class SceneServiceImpl implements SceneService {
                         }
                         return sceneRepository.save(updatedScene)
                                 .doOnSuccess(savedScene -> {
-                                    // 异步触发小说元数据更新
-                                    metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                    // 登记小说字数增量
+                                    metadataService.recordWordCountDelta(savedScene.getNovelId(), wordCountOf(savedScene));
                                 });
                     });
         }
 
         return sceneRepository.save(updatedScene)
                 .doOnSuccess(savedScene -> {
-                    // 异步触发小说元数据更新
-                    metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                    // 登记小说字数增量
+                    metadataService.recordWordCountDelta(savedScene.getNovelId(), wordCountOf(savedScene));
                     // 记录写作事件（新建场景，delta=after-0）
                     try {
                         int after = savedScene.getWordCount() != null ? savedScene.getWordCount() : 0;
@@ -245,8 +245,8 @@ public class SceneServiceImpl implements SceneService {
 
                         return sceneRepository.saveAll(chapterScenes)
                                 .doOnNext(savedScene -> {
-                                    // 对每个保存的场景异步触发小说元数据更新
-                                    metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                    // 登记小说字数增量，同一小说的增量合并写入
+                                    metadataService.recordWordCountDelta(savedScene.getNovelId(), wordCountOf(savedScene));
                                 });
                     });
 
@@ -309,8 +309,8 @@ public class SceneServiceImpl implements SceneService {
                     // 保存更新后的场景
                     return sceneRepository.save(updatedScene)
                             .doOnSuccess(savedScene -> {
-                                // 异步触发小说元数据更新
-                                metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                // 登记小说字数增量
+                                recordWordCountChange(finalExistingScene, savedScene);
                                 // 若内容变化，记录写作事件
                                 try {
                                     boolean contentChanged = !Objects.equals(finalExistingScene.getContent(), updatedScene.getContent());
@@ -365,17 +365,9 @@ public class SceneServiceImpl implements SceneService {
     public Mono<Void> deleteScene(String id) {
         return sceneRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("场景不存在: " + id)))
-                .flatMap(scene -> {
-                    String novelId = scene.getNovelId();
-                    return sceneRepository.delete(scene)
-                            .then(Mono.defer(() -> {
-                                // 触发小说元数据更新（如果有novelId）
-                                if (novelId != null && !novelId.isEmpty()) {
-                                    return metadataService.updateNovelMetadata(novelId).then();
-                                }
-                                return Mono.empty();
-                            }));
-                });
+                .flatMap(scene -> sceneRepository.delete(scene)
+                        // 登记小说字数增量
+                        .doOnSuccess(v -> metadataService.recordWordCountDelta(scene.getNovelId(), -wordCountOf(scene))));
     }
 
     @Override
@@ -395,15 +387,11 @@ public class SceneServiceImpl implements SceneService {
 
                     // 获取novelId用于后续更新元数据
                     String novelId = scenes.get(0).getNovelId();
+                    int removedWords = scenes.stream().mapToInt(SceneServiceImpl::wordCountOf).sum();
 
                     return sceneRepository.deleteByChapterId(chapterId)
-                            .then(Mono.defer(() -> {
-                                // 触发小说元数据更新
-                                if (novelId != null && !novelId.isEmpty()) {
-                                    return metadataService.updateNovelMetadata(novelId).then();
-                                }
-                                return Mono.empty();
-                            }));
+                            // 登记小说字数增量
+                            .doOnSuccess(v -> metadataService.recordWordCountDelta(novelId, -removedWords));
                 });
     }
 
@@ -428,6 +416,9 @@ public class SceneServiceImpl implements SceneService {
                         return Mono.just(scene);
                     }
 
+                    // 写入前字数（scene 随后被原地修改）
+                    final int wordCountBefore = wordCountOf(scene);
+
                     // 保存当前内容到历史
                     HistoryEntry entry = new HistoryEntry();
                     entry.setUpdatedAt(LocalDateTime.now());
@@ -463,8 +454,8 @@ public class SceneServiceImpl implements SceneService {
                                         .thenReturn(savedScene);
                             })
                             .doOnSuccess(savedScene -> {
-                                // 异步触发小说元数据更新
-                                metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                // 登记小说字数增量
+                                metadataService.recordWordCountDelta(savedScene.getNovelId(), wordCountOf(savedScene) - wordCountBefore);
                                 try {
                                     // 记录写作事件
                                     com.ainovel.server.domain.model.analytics.WritingEvent event =
@@ -473,10 +464,9 @@ public class SceneServiceImpl implements SceneService {
                                             .novelId(savedScene.getNovelId())
                                             .chapterId(savedScene.getChapterId())
                                             .sceneId(savedScene.getId())
-                                            .wordCountBefore(scene.getWordCount())
+                                            .wordCountBefore(wordCountBefore)
                                             .wordCountAfter(savedScene.getWordCount())
-                                            .deltaWords((savedScene.getWordCount() != null ? savedScene.getWordCount() : 0)
-                                                - (scene.getWordCount() != null ? scene.getWordCount() : 0))
+                                            .deltaWords(wordCountOf(savedScene) - wordCountBefore)
                                             .source("MANUAL")
                                             .reason(reason)
                                             .timestamp(java.time.LocalDateTime.now())
@@ -514,6 +504,7 @@ public class SceneServiceImpl implements SceneService {
 
                     // 获取历史版本内容
                     final String historyContent = history.get(historyIndex).getContent();
+                    final int wordCountBefore = wordCountOf(scene);
 
                     // 添加当前版本到历史记录
                     HistoryEntry currentVersion = new HistoryEntry();
@@ -543,8 +534,8 @@ public class SceneServiceImpl implements SceneService {
 
                     return sceneRepository.save(updatedScene)
                             .doOnSuccess(savedScene -> {
-                                // 异步触发小说元数据更新
-                                metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                // 登记小说字数增量
+                                metadataService.recordWordCountDelta(savedScene.getNovelId(), wordCountOf(savedScene) - wordCountBefore);
                             });
                 });
     }
@@ -704,6 +695,7 @@ public class SceneServiceImpl implements SceneService {
     public Mono<Boolean> deleteSceneById(String id) {
         return sceneRepository.findById(id)
                 .flatMap(scene -> sceneRepository.delete(scene)
+                        .doOnSuccess(v -> metadataService.recordWordCountDelta(scene.getNovelId(), -wordCountOf(scene)))
                         .thenReturn(true))
                 .defaultIfEmpty(false);
     }
@@ -713,16 +705,33 @@ public class SceneServiceImpl implements SceneService {
         return sceneRepository.findById(id)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("场景不存在: " + id)))
                 .flatMap(scene -> {
+                    final int wordCountBefore = wordCountOf(scene);
                     scene.setWordCount(wordCount);
                     scene.setUpdatedAt(LocalDateTime.now());
                     return sceneRepository.save(scene)
                             .doOnSuccess(savedScene -> {
-                                // 异步触发小说元数据更新
-                                metadataService.triggerNovelMetadataUpdate(savedScene).subscribe();
+                                // 登记小说字数增量
+                                metadataService.recordWordCountDelta(savedScene.getNovelId(), wordCountOf(savedScene) - wordCountBefore);
                             });
                 });
     }
 
+    /**
+     * 登记场景更新带来的小说字数变化；场景移到其他小说时分别记入
+     */
+    private void recordWordCountChange(Scene before, Scene after) {
+        if (Objects.equals(before.getNovelId(), after.getNovelId())) {
+            metadataService.recordWordCountDelta(after.getNovelId(), wordCountOf(after) - wordCountOf(before));
+        } else {
+            metadataService.recordWordCountDelta(before.getNovelId(), -wordCountOf(before));
+            metadataService.recordWordCountDelta(after.getNovelId(), wordCountOf(after));
+        }
+    }
+
+    private static int wordCountOf(Scene scene) {
+        return scene.getWordCount() != null ? scene.getWordCount() : 0;
+    }
+
     private String extractUserId(Authentication authentication) {
         if (authentication == null || authentication.getPrincipal() == null) {
             return "system";
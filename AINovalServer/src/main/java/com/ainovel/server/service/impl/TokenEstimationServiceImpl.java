@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import com.ainovel.server.service.TokenEstimationService;
 import com.ainovel.server.service.UserAIModelConfigService;
 import com.ainovel.server.service.AIService;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
 import com.ainovel.server.web.dto.TokenEstimationRequest;
 import com.ainovel.server.web.dto.TokenEstimationResponse;
 import com.ainovel.server.domain.model.UserAIModelConfig;
@@ -26,8 +27,9 @@ public class TokenEstimationServiceImpl implements TokenEstimationService {
 
     private final UserAIModelConfigService userAIModelConfigService;
     private final AIService aiService;
+    private final TokenCounter tokenCounter;
 
-    // Token估算常量 - 基于经验值
+    // 仅有字数、没有原文时使用的Token比率 - 基于经验值
     private static final Map<String, Double> TOKEN_RATIO_MAP = new HashMap<>();
     
     static {
@@ -58,9 +60,11 @@ public class TokenEstimationServiceImpl implements TokenEstimationService {
     @Autowired
     public TokenEstimationServiceImpl(
             UserAIModelConfigService userAIModelConfigService,
-            AIService aiService) {
+            AIService aiService,
+            TokenCounter tokenCounter) {
         this.userAIModelConfigService = userAIModelConfigService;
         this.aiService = aiService;
+        this.tokenCounter = tokenCounter;
     }
 
     @Override
@@ -175,18 +179,13 @@ public class TokenEstimationServiceImpl implements TokenEstimationService {
     }
 
     /**
-     * 估算文本的Token数量
+     * 估算文本的Token数量（按模型对应的本地BPE词表计数）
      */
     private long estimateTokensForText(String text, String modelName) {
         if (text == null || text.isEmpty()) {
             return 0;
         }
-        
-        // 简单的字数统计作为估算基础
-        int wordCount = text.length(); // 对中文而言，字符数近似等于字数
-        
-        double ratio = TOKEN_RATIO_MAP.getOrDefault(modelName, TOKEN_RATIO_MAP.get("default"));
-        return Math.round(wordCount * ratio);
+        return tokenCounter.countTokens(text, modelName);
     }
 
     /**
@@ -1,18 +1,34 @@
 package com.ainovel.server.service.impl;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.springframework.stereotype.Component;
 
+import com.ainovel.server.common.util.TextFileCharsetUtil;
 import com.ainovel.server.domain.dto.ParsedNovelData;
 import com.ainovel.server.domain.dto.ParsedSceneData;
 import com.ainovel.server.service.NovelParser;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * TXT格式小说解析器实现
@@ -42,183 +58,544 @@ public class TxtNovelParser implements NovelParser {
             Pattern.CASE_INSENSITIVE
     );
 
+    // 段落标点，用于区分正文段落与标题
+    private static final Pattern PARAGRAPH_PUNCTUATION_PATTERN = Pattern.compile("[，。！？；,.!?;]");
+
+    // 行分类标记：分类只依赖行文本本身，可以并行计算；是否分章还取决于状态机
+    private static final int LINE_UNCLASSIFIED = 0;
+    private static final int LINE_CLASSIFIED = 1;
+    private static final int LINE_EMPTY = 1 << 1;
+    private static final int LINE_TITLE = 1 << 2;
+    private static final int LINE_GENERIC = 1 << 3;
+    private static final int LINE_BACKUP_CHECKED = 1 << 4;
+    private static final int LINE_BACKUP = 1 << 5;
+    private static final int LINE_HEADING_CANDIDATE = LINE_TITLE | LINE_GENERIC | LINE_BACKUP;
+
+    /** 并行解析时单个区间的最小字节数 */
+    private static final long MIN_PARALLEL_RANGE_BYTES = 1024L * 1024;
+
+    /** 并行解析的区间下限（测试中调小以产生大量区间） */
+    long minParallelRangeBytes = MIN_PARALLEL_RANGE_BYTES;
+
     @Override
     public ParsedNovelData parseStream(Stream<String> lines) {
         ParsedNovelData parsedNovelData = new ParsedNovelData();
         parsedNovelData.setNovelTitle("导入的小说"); // 默认标题，可以从文件名推断
 
-        AtomicReference<String> currentChapterTitle = new AtomicReference<>("");
-        StringBuilder currentContent = new StringBuilder();
-        AtomicInteger chapterCount = new AtomicInteger(0);
-        AtomicInteger lineCount = new AtomicInteger(0);
-        AtomicInteger emptyLineCount = new AtomicInteger(0);
-        AtomicInteger consecutiveEmptyLineCount = new AtomicInteger(0); // 记录连续空行数
-        AtomicReference<String> lastNonEmptyLine = new AtomicReference<>(""); // 记录上一个非空行
-
-        // 使用reduce操作处理流
+        ChapterAccumulator accumulator = new ChapterAccumulator();
         lines.forEach(line -> {
-            lineCount.incrementAndGet();
-            String trimmedLine = line.trim();
-            boolean isEmpty = trimmedLine.isEmpty();
+            ParsedSceneData chapter = accumulator.accept(line);
+            if (chapter != null) {
+                parsedNovelData.addScene(chapter);
+            }
+        });
 
-            if (isEmpty) {
-                emptyLineCount.incrementAndGet();
-                consecutiveEmptyLineCount.incrementAndGet(); // 增加连续空行计数
-                
-                // 空行仍需添加到内容中
-                if (currentContent.length() > 0) {
-                    currentContent.append("\n");
-                }
-                return;
-            } else {
-                // 按优先级 1) 正则章节标题 2) 通用"第N章"识别逻辑 3) 备用章节检测
+        // 处理最后一章
+        ParsedSceneData lastChapter = accumulator.finish();
+        if (lastChapter != null) {
+            parsedNovelData.addScene(lastChapter);
+        }
 
-                // 1) 正则章节标题检测
-                Matcher matcher = CHAPTER_TITLE_PATTERN.matcher(trimmedLine);
+        log.info("TXT解析完成，共解析出{}个章节", parsedNovelData.getScenes().size());
+        return parsedNovelData;
+    }
 
-                // 2) 通用"第N章"识别逻辑
-                boolean isGenericMatch = false;
-                if (!matcher.matches() && GENERIC_CHAPTER_PATTERN.matcher(trimmedLine).matches()) {
-                    isGenericMatch = true;
-                    log.debug("使用通用章节识别: '{}'", trimmedLine);
-                }
+    /**
+     * 增量解析：按需拉取文本行，每识别出一章即向下游发出，内存中只保留当前章节。
+     * 章节划分与 parseStream 完全一致。
+     */
+    @Override
+    public Flux<ParsedSceneData> parseIncrementally(Stream<String> lines) {
+        return Flux.defer(() -> {
+            ChapterAccumulator accumulator = new ChapterAccumulator();
+            // 每行最多结束一个章节，因此 handle 的"每个输入至多发出一个元素"语义恰好满足
+            return Flux.fromStream(lines)
+                    .<ParsedSceneData>handle((line, sink) -> {
+                        ParsedSceneData chapter = accumulator.accept(line);
+                        if (chapter != null) {
+                            sink.next(chapter);
+                        }
+                    })
+                    .concatWith(Mono.fromSupplier(accumulator::finish));
+        });
+    }
 
-                // 3) 备用章节识别逻辑：仅在未匹配以上两种时触发，基于空行与长度判断
-                boolean isBackupChapterDetected = false;
-                if (!matcher.matches() && !isGenericMatch &&
-                        (emptyLineCount.get() >= 2 || consecutiveEmptyLineCount.get() >= 2) &&
-                        trimmedLine.length() < 50) {
-                    Matcher backupMatcher = BACKUP_CHAPTER_PATTERN.matcher(trimmedLine);
-                    if (backupMatcher.matches() && !isContentParagraph(trimmedLine)) {
-                        isBackupChapterDetected = true;
-                        log.debug("使用备用章节识别: '{}'", trimmedLine);
+    /**
+     * 一遍扫描文件生成章节偏移索引，只在内存中保留当前章节
+     * 章节划分、标题、顺序与 parseStream 完全一致
+     *
+     * @param lineFilter 与导入时相同的行预处理（被过滤的行不参与章节识别）
+     */
+    public ChapterOffsetIndex buildIndex(Path file, Charset charset, Predicate<String> lineFilter) throws IOException {
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        ChapterAccumulator accumulator = new ChapterAccumulator();
+        List<ChapterOffsetIndex.Entry> entries = new ArrayList<>();
+
+        TextFileCharsetUtil.forEachLine(file, charset, (line, start, end) -> {
+            if (!lineFilter.test(line)) {
+                return;
+            }
+            ParsedSceneData chapter = accumulator.accept(line, start, end);
+            if (chapter != null) {
+                // 触发分章的行不属于上一章
+                entries.add(toIndexEntry(chapter, accumulator.finishedStart, start));
+            }
+        });
+        ParsedSceneData last = accumulator.finish();
+        if (last != null) {
+            entries.add(toIndexEntry(last, accumulator.finishedStart, fileSize));
+        }
+
+        log.info("TXT章节索引完成，共{}个章节，文件大小{}字节", entries.size(), fileSize);
+        return new ChapterOffsetIndex(charset, fileSize, lastModified, entries);
+    }
+
+    /**
+     * 按索引读取单个章节，结果与 parseStream 输出的对应章节相同
+     */
+    public ParsedSceneData readChapter(Path file, ChapterOffsetIndex index, int chapterIndex,
+            Predicate<String> lineFilter) throws IOException {
+        ChapterOffsetIndex.Entry entry = index.get(chapterIndex);
+        StringBuilder content = new StringBuilder();
+        // 章节内部的行不会触发分章，按 ChapterAccumulator 的追加规则拼接即可
+        index.readRaw(file, chapterIndex).lines()
+                .filter(lineFilter)
+                .forEach(line -> {
+                    String trimmedLine = line.trim();
+                    if (content.length() > 0) {
+                        content.append("\n");
                     }
+                    content.append(trimmedLine);
+                });
+        return ParsedSceneData.builder()
+                .sceneTitle(entry.title())
+                .sceneContent(normalizeContent(content.toString()))
+                .order(entry.order())
+                .build();
+    }
+
+    private ChapterOffsetIndex.Entry toIndexEntry(ParsedSceneData chapter, long start, long end) {
+        return toIndexEntry(chapter, start, end, chapter.getSceneContent().length());
+    }
+
+    private ChapterOffsetIndex.Entry toIndexEntry(ParsedSceneData chapter, long start, long end, int charCount) {
+        return new ChapterOffsetIndex.Entry(start, Math.toIntExact(end - start), chapter.getOrder(),
+                chapter.getSceneTitle(), charCount);
+    }
+
+    /**
+     * 并行解析：输出与 parseStream 完全一致
+     *
+     * 1. 按行对齐的字节区间切分文件，在 ForkJoinPool 中并行解码并对每行做正则分类（耗时的部分）；
+     * 2. 顺序合并：按分类结果重放分章状态机，只记录章节边界，不再执行正则、不拼接正文；
+     * 3. 按章节边界并行读取并生成各章正文。
+     *
+     * @param lineFilter 与 parseStream 输入流相同的行预处理
+     */
+    public ParsedNovelData parseParallel(Path file, Charset charset, Predicate<String> lineFilter, ForkJoinPool pool)
+            throws IOException {
+        ChapterOffsetIndex index = locateChaptersParallel(file, charset, lineFilter, pool);
+        List<ParsedSceneData> scenes = mapChaptersParallel(file, index, lineFilter, pool, chapter -> chapter);
+
+        ParsedNovelData parsedNovelData = new ParsedNovelData();
+        parsedNovelData.setNovelTitle("导入的小说");
+        scenes.forEach(parsedNovelData::addScene);
+        log.info("TXT并行解析完成，共解析出{}个章节", scenes.size());
+        return parsedNovelData;
+    }
+
+    /**
+     * 并行建立章节偏移索引，结果与 buildIndex 相同
+     */
+    public ChapterOffsetIndex buildIndexParallel(Path file, Charset charset, Predicate<String> lineFilter, ForkJoinPool pool)
+            throws IOException {
+        ChapterOffsetIndex located = locateChaptersParallel(file, charset, lineFilter, pool);
+        List<Integer> charCounts = mapChaptersParallel(file, located, lineFilter, pool,
+                chapter -> chapter.getSceneContent().length());
+
+        List<ChapterOffsetIndex.Entry> entries = new ArrayList<>(located.size());
+        for (int i = 0; i < located.size(); i++) {
+            ChapterOffsetIndex.Entry entry = located.get(i);
+            entries.add(new ChapterOffsetIndex.Entry(entry.offset(), entry.length(), entry.order(), entry.title(), charCounts.get(i)));
+        }
+        return new ChapterOffsetIndex(located.getCharset(), located.getFileSize(), located.getFileLastModified(), entries);
+    }
+
+    /**
+     * 并行定位章节边界（前两步），返回的索引中字数为 -1（未统计），可直接用于 readChapter 按章读取
+     */
+    public ChapterOffsetIndex locateChaptersParallel(Path file, Charset charset, Predicate<String> lineFilter, ForkJoinPool pool)
+            throws IOException {
+        long fileSize = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long rangeSize = Math.max(minParallelRangeBytes, fileSize / (pool.getParallelism() * 4L));
+        long[] boundaries = TextFileCharsetUtil.splitAtLineBoundaries(file, rangeSize);
+
+        // 1) 并行分类
+        List<ForkJoinTask<RangeScan>> tasks = new ArrayList<>(boundaries.length - 1);
+        for (int i = 0; i + 1 < boundaries.length; i++) {
+            long from = boundaries[i];
+            long to = boundaries[i + 1];
+            tasks.add(pool.submit(() -> scanRange(file, charset, from, to, lineFilter)));
+        }
+
+        // 2) 顺序合并章节边界
+        ChapterAccumulator accumulator = new ChapterAccumulator(false);
+        List<ChapterOffsetIndex.Entry> entries = new ArrayList<>();
+        for (ForkJoinTask<RangeScan> task : tasks) {
+            RangeScan scan = task.join();
+            for (int i = 0; i < scan.count; i++) {
+                ParsedSceneData chapter = accumulator.accept(scan.headings.get(i), scan.kinds[i], scan.starts[i], scan.ends[i]);
+                if (chapter != null) {
+                    entries.add(toIndexEntry(chapter, accumulator.finishedStart, scan.starts[i], -1));
                 }
+            }
+        }
+        ParsedSceneData last = accumulator.finish();
+        if (last != null) {
+            entries.add(toIndexEntry(last, accumulator.finishedStart, fileSize, -1));
+        }
 
-                boolean handledByTitleDetection = false;
+        log.info("TXT并行章节定位完成，共{}个章节，{}个区间，文件大小{}字节", entries.size(), tasks.size(), fileSize);
+        return new ChapterOffsetIndex(charset, fileSize, lastModified, entries);
+    }
 
-                if (matcher.matches() || isGenericMatch || isBackupChapterDetected) {
-                    // 如果当前有内容，则保存上一章节
-                    if (currentContent.length() > 0) {
-                        saveCurrentChapter(parsedNovelData, currentChapterTitle.get(),
-                                currentContent.toString(), chapterCount.get());
-                        currentContent.setLength(0); // 清空内容缓冲
-                    }
+    /**
+     * 按索引并行读取各章并转换，结果保持章节顺序
+     */
+    private <T> List<T> mapChaptersParallel(Path file, ChapterOffsetIndex index, Predicate<String> lineFilter,
+            ForkJoinPool pool, Function<ParsedSceneData, T> mapper) {
+        IntFunction<T> readAndMap = i -> {
+            try {
+                return mapper.apply(readChapter(file, index, i, lineFilter));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        return pool.submit(() -> IntStream.range(0, index.size()).parallel().mapToObj(readAndMap).toList()).join();
+    }
 
-                    // 计算新的章节序号
-                    int newChapterNum = chapterCount.incrementAndGet();
-
-                    // 提取章节标题
-                    String titleText;
-                    if (matcher.matches()) {
-                        titleText = matcher.group(1);
-                        if (titleText == null || titleText.trim().isEmpty()) {
-                            titleText = "第" + newChapterNum + "章";
-                        } else {
-                            titleText = titleText.trim();
-                        }
-                        currentChapterTitle.set(trimmedLine);
-                        log.debug("通过正则表达式识别到章节标题: {}", trimmedLine);
-                    } else if (isGenericMatch) {
-                        titleText = trimmedLine;
-                        currentChapterTitle.set(trimmedLine);
-                        log.debug("通过通用方式识别到章节标题: {}", trimmedLine);
-                    } else {
-                        // 使用备用识别的标题
-                        titleText = trimmedLine;
-                        currentChapterTitle.set(trimmedLine);
-                        log.debug("通过备用方式识别到章节标题: {}", trimmedLine);
-                    }
+    /**
+     * 解码并分类一个字节区间内的所有行
+     */
+    private RangeScan scanRange(Path file, Charset charset, long from, long to, Predicate<String> lineFilter)
+            throws IOException {
+        RangeScan scan = new RangeScan((int) Math.min(1 << 20, Math.max(16, (to - from) / 32)));
+        TextFileCharsetUtil.forEachLine(file, charset, from, to, (line, start, end) -> {
+            if (!lineFilter.test(line)) {
+                return;
+            }
+            String trimmedLine = line.trim();
+            int kind = classify(trimmedLine);
+            scan.add(kind, start, end, (kind & LINE_HEADING_CANDIDATE) != 0 ? trimmedLine : null);
+        });
+        return scan;
+    }
 
-                    log.debug("识别到章节标题[{}]: {}", newChapterNum, currentChapterTitle.get());
+    /**
+     * 一个区间的分类结果：每行的分类与字节区间，只保留候选标题行的文本
+     */
+    private static final class RangeScan {
+        private int count;
+        private int[] kinds;
+        private long[] starts;
+        private long[] ends;
+        private final Map<Integer, String> headings = new HashMap<>();
+
+        RangeScan(int capacity) {
+            kinds = new int[capacity];
+            starts = new long[capacity];
+            ends = new long[capacity];
+        }
 
-                    handledByTitleDetection = true;
-                } else {
-                    // 尚未识别章节标题，后续可能基于空行分章
+        void add(int kind, long start, long end, String heading) {
+            if (count == kinds.length) {
+                int capacity = count * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            if (heading != null) {
+                headings.put(count, heading);
+            }
+            kinds[count] = kind;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+    }
+
+    /**
+     * 标题相关的行分类（正则标题、通用"第N章"），与状态无关
+     */
+    private static int classifyHeading(String trimmedLine) {
+        if (trimmedLine.isEmpty()) {
+            return LINE_CLASSIFIED | LINE_EMPTY;
+        }
+        if (CHAPTER_TITLE_PATTERN.matcher(trimmedLine).matches()) {
+            return LINE_CLASSIFIED | LINE_TITLE;
+        }
+        if (GENERIC_CHAPTER_PATTERN.matcher(trimmedLine).matches()) {
+            return LINE_CLASSIFIED | LINE_GENERIC;
+        }
+        return LINE_CLASSIFIED;
+    }
+
+    /**
+     * 完整的行分类（含备用标题判断），供并行解析预先计算
+     */
+    private static int classify(String trimmedLine) {
+        int kind = classifyHeading(trimmedLine) | LINE_BACKUP_CHECKED;
+        if ((kind & (LINE_EMPTY | LINE_TITLE | LINE_GENERIC)) == 0 && isBackupCandidate(trimmedLine)) {
+            kind |= LINE_BACKUP;
+        }
+        return kind;
+    }
+
+    /**
+     * 是否符合备用章节标题的形式（是否真正分章还取决于前面的空行）
+     */
+    private static boolean isBackupCandidate(String trimmedLine) {
+        return trimmedLine.length() < 50
+                && BACKUP_CHAPTER_PATTERN.matcher(trimmedLine).matches()
+                && !isContentParagraph(trimmedLine);
+    }
+
+    /**
+     * 逐行章节识别状态机（非线程安全，每次解析创建一个）
+     *
+     * 不收集正文时只跟踪章节边界，供并行解析的顺序合并阶段使用
+     */
+    private final class ChapterAccumulator {
+
+        private final boolean collectContent;
+        private String currentChapterTitle = "";
+        private final StringBuilder currentContent = new StringBuilder();
+        private boolean contentStarted = false; // 不收集正文时代替 currentContent.length() > 0
+        private int chapterCount = 0;
+        private int lineCount = 0;
+        private int emptyLineCount = 0;
+        private int consecutiveEmptyLineCount = 0; // 记录连续空行数
+
+        // 字节偏移（仅建立章节索引时使用）
+        private long lineStart = 0;
+        private long lineEnd = 0;
+        private long chapterStart = 0; // 当前章节首行的起始偏移
+        private long finishedStart = 0; // 最近结束的章节的起始偏移
+
+        ChapterAccumulator() {
+            this(true);
+        }
+
+        ChapterAccumulator(boolean collectContent) {
+            this.collectContent = collectContent;
+        }
+
+        /**
+         * 处理一行文本，并记录该行在文件中的字节区间
+         */
+        ParsedSceneData accept(String line, long lineStart, long lineEnd) {
+            this.lineStart = lineStart;
+            this.lineEnd = lineEnd;
+            return accept(line);
+        }
+
+        /**
+         * 处理一行已分类的文本（并行合并阶段），trimmedLine 只在候选标题行上提供
+         */
+        ParsedSceneData accept(String trimmedLine, int kind, long lineStart, long lineEnd) {
+            this.lineStart = lineStart;
+            this.lineEnd = lineEnd;
+            return accept(trimmedLine, kind);
+        }
+
+        /**
+         * 处理一行文本
+         *
+         * @return 因本行而结束的上一章节；没有章节结束时返回 null
+         */
+        ParsedSceneData accept(String line) {
+            return accept(line.trim(), LINE_UNCLASSIFIED);
+        }
+
+        private ParsedSceneData accept(String trimmedLine, int kind) {
+            lineCount++;
+            if (kind == LINE_UNCLASSIFIED) {
+                kind = classifyHeading(trimmedLine);
+            }
+
+            if ((kind & LINE_EMPTY) != 0) {
+                emptyLineCount++;
+                consecutiveEmptyLineCount++; // 增加连续空行计数
+
+                // 空行仍需添加到内容中
+                if (hasContent()) {
+                    appendNewline();
                 }
+                return null;
+            }
 
-                // 3) 基于连续空行分章逻辑 - 仅当未通过标题检测切分章节时执行
-                if (!handledByTitleDetection) {
-                    boolean shouldSplitByEmptyLines = consecutiveEmptyLineCount.get() >= 2 &&
-                            currentContent.length() > 0 &&
-                            chapterCount.get() > 0; // 确保不是第一章开始
+            ParsedSceneData finished = null;
 
-                    if (shouldSplitByEmptyLines) {
-                        log.debug("基于连续空行分章: 发现{}个连续空行", consecutiveEmptyLineCount.get());
+            // 按优先级 1) 正则章节标题 2) 通用"第N章"识别逻辑 3) 备用章节检测
 
-                        if (currentContent.length() > 0) {
-                            saveCurrentChapter(parsedNovelData, currentChapterTitle.get(),
-                                    currentContent.toString(), chapterCount.get());
-                            currentContent.setLength(0);
-                        }
+            // 1) 正则章节标题检测
+            boolean isTitleMatch = (kind & LINE_TITLE) != 0;
 
-                        int nextChapterNum = chapterCount.incrementAndGet();
-                        String newTitle = "第" + nextChapterNum + "章";
-                        currentChapterTitle.set(newTitle);
-                        log.debug("基于连续空行创建新章节[{}]: {}", nextChapterNum, newTitle);
-                        // 空行分章后立即继续内容合并，不将当前行添加为正文内容，后续循环会处理
-                        // 重置计数器
-                        consecutiveEmptyLineCount.set(0);
-                        emptyLineCount.set(0);
-                        // 继续到下一循环
-                        return;
-                    }
+            // 2) 通用"第N章"识别逻辑
+            boolean isGenericMatch = false;
+            if (!isTitleMatch && (kind & LINE_GENERIC) != 0) {
+                isGenericMatch = true;
+                log.debug("使用通用章节识别: '{}'", trimmedLine);
+            }
+
+            // 3) 备用章节识别逻辑：仅在未匹配以上两种时触发，基于空行与长度判断
+            boolean isBackupChapterDetected = false;
+            if (!isTitleMatch && !isGenericMatch &&
+                    (emptyLineCount >= 2 || consecutiveEmptyLineCount >= 2)) {
+                boolean backupCandidate = (kind & LINE_BACKUP_CHECKED) != 0
+                        ? (kind & LINE_BACKUP) != 0
+                        : isBackupCandidate(trimmedLine);
+                if (backupCandidate) {
+                    isBackupChapterDetected = true;
+                    log.debug("使用备用章节识别: '{}'", trimmedLine);
                 }
+            }
 
-                // 重置连续空行计数器
-                consecutiveEmptyLineCount.set(0);
-                emptyLineCount.set(0);
+            boolean handledByTitleDetection = false;
 
-                // 内容行，添加到当前内容
-                if (currentContent.length() > 0) {
-                    currentContent.append("\n");
+            if (isTitleMatch || isGenericMatch || isBackupChapterDetected) {
+                // 如果当前有内容，则保存上一章节
+                if (hasContent()) {
+                    finished = buildChapter(currentChapterTitle, takeContent(), chapterCount);
+                    finishedStart = chapterStart;
                 }
-                currentContent.append(trimmedLine); // 去除尾部空白
+                chapterStart = lineStart; // 标题行属于新章节
 
-                // 保存当前行作为最近的非空行
-                lastNonEmptyLine.set(trimmedLine);
+                // 计算新的章节序号
+                int newChapterNum = ++chapterCount;
 
-                // 如果是第一行但不是章节标题，可能需要创建默认第一章
-                if (lineCount.get() <= 3 && chapterCount.get() == 0 && currentChapterTitle.get().isEmpty()) {
-                    currentChapterTitle.set("第1章");
-                    chapterCount.incrementAndGet();
-                    log.debug("创建默认第一章");
+                // 章节标题统一使用整行文本
+                currentChapterTitle = trimmedLine;
+                if (isTitleMatch) {
+                    log.debug("通过正则表达式识别到章节标题: {}", trimmedLine);
+                } else if (isGenericMatch) {
+                    log.debug("通过通用方式识别到章节标题: {}", trimmedLine);
+                } else {
+                    log.debug("通过备用方式识别到章节标题: {}", trimmedLine);
                 }
+
+                log.debug("识别到章节标题[{}]: {}", newChapterNum, currentChapterTitle);
+
+                handledByTitleDetection = true;
             }
-        });
 
-        // 处理最后一章
-        if (currentContent.length() > 0) {
+            // 3) 基于连续空行分章逻辑 - 仅当未通过标题检测切分章节时执行
+            if (!handledByTitleDetection) {
+                boolean shouldSplitByEmptyLines = consecutiveEmptyLineCount >= 2 &&
+                        hasContent() &&
+                        chapterCount > 0; // 确保不是第一章开始
+
+                if (shouldSplitByEmptyLines) {
+                    log.debug("基于连续空行分章: 发现{}个连续空行", consecutiveEmptyLineCount);
+
+                    finished = buildChapter(currentChapterTitle, takeContent(), chapterCount);
+                    finishedStart = chapterStart;
+                    chapterStart = lineEnd; // 本行被丢弃，新章节从下一行开始
+
+                    int nextChapterNum = ++chapterCount;
+                    currentChapterTitle = "第" + nextChapterNum + "章";
+                    log.debug("基于连续空行创建新章节[{}]: {}", nextChapterNum, currentChapterTitle);
+                    // 空行分章后不将当前行添加为正文内容；重置计数器
+                    consecutiveEmptyLineCount = 0;
+                    emptyLineCount = 0;
+                    return finished;
+                }
+            }
+
+            // 重置连续空行计数器
+            consecutiveEmptyLineCount = 0;
+            emptyLineCount = 0;
+
+            // 内容行，添加到当前内容
+            if (hasContent()) {
+                appendNewline();
+            }
+            appendLine(trimmedLine); // 去除尾部空白
+
+            // 如果是第一行但不是章节标题，可能需要创建默认第一章
+            if (lineCount <= 3 && chapterCount == 0 && currentChapterTitle.isEmpty()) {
+                currentChapterTitle = "第1章";
+                chapterCount++;
+                log.debug("创建默认第一章");
+            }
+            return finished;
+        }
+
+        /**
+         * 输入结束，返回最后一章（没有剩余内容时返回 null）
+         */
+        ParsedSceneData finish() {
+            if (!hasContent()) {
+                return null;
+            }
             // 如果没有识别到任何章节标题，但有内容，创建一个默认的第一章
-            if (chapterCount.get() == 0) {
-                currentChapterTitle.set("第1章");
-                chapterCount.incrementAndGet();
+            if (chapterCount == 0) {
+                currentChapterTitle = "第1章";
+                chapterCount++;
                 log.debug("创建默认唯一章节");
             }
+            ParsedSceneData last = buildChapter(currentChapterTitle, takeContent(), chapterCount - 1);
+            finishedStart = chapterStart;
+            return last;
+        }
 
-            saveCurrentChapter(parsedNovelData, currentChapterTitle.get(),
-                    currentContent.toString(), chapterCount.get() - 1);
+        private boolean hasContent() {
+            return collectContent ? currentContent.length() > 0 : contentStarted;
         }
 
-        log.info("TXT解析完成，共解析出{}个章节", parsedNovelData.getScenes().size());
-        return parsedNovelData;
+        private void appendNewline() {
+            if (collectContent) {
+                currentContent.append("\n");
+            }
+        }
+
+        private void appendLine(String trimmedLine) {
+            if (collectContent) {
+                currentContent.append(trimmedLine);
+            }
+            contentStarted = true;
+        }
+
+        /**
+         * 取出当前章节正文并清空缓冲；不收集正文时返回 null
+         */
+        private String takeContent() {
+            contentStarted = false;
+            if (!collectContent) {
+                return null;
+            }
+            String content = currentContent.toString();
+            currentContent.setLength(0);
+            return content;
+        }
     }
 
     /**
      * 判断是否是正常内容段落，而不是章节标题 通常段落都比较长，且包含标点符号
      */
-    private boolean isContentParagraph(String line) {
+    private static boolean isContentParagraph(String line) {
         // 如果长度大于50，很可能是内容段落而非标题
         if (line.length() > 50) {
             return true;
         }
 
         // 检查是否包含常见的段落标点
-        Pattern punctPattern = Pattern.compile("[，。！？；,.!?;]");
-        return punctPattern.matcher(line).find() && line.length() > 20;
+        return PARAGRAPH_PUNCTUATION_PATTERN.matcher(line).find() && line.length() > 20;
     }
 
-    private void saveCurrentChapter(ParsedNovelData parsedNovelData, String title, String content, int order) {
+    private ParsedSceneData buildChapter(String title, String content, int order) {
         // 如果是第一章并且没有标题，可能是前言或引言
         if (order == 0 && (title == null || title.isEmpty())) {
             title = "前言";
@@ -231,12 +608,12 @@ public class TxtNovelParser implements NovelParser {
 
         ParsedSceneData sceneData = ParsedSceneData.builder()
                 .sceneTitle(title)
-                .sceneContent(normalizeContent(content))
+                .sceneContent(content != null ? normalizeContent(content) : null)
                 .order(order)
                 .build();
 
-        parsedNovelData.addScene(sceneData);
-        log.debug("保存章节[{}]: {}, 内容长度: {}", order, title, content.length());
+        log.debug("保存章节[{}]: {}, 内容长度: {}", order, title, content != null ? content.length() : -1);
+        return sceneData;
     }
 
     @Override
@@ -51,6 +51,9 @@ import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.ainovel.server.service.impl.content.ContentProviderFactory;
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.ContextSectionAssembler;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
 
 // 🚀 新增：导入提示词提供器相关类
 import com.ainovel.server.service.prompt.PromptProviderFactory;
@@ -104,6 +107,12 @@ public class UniversalAIServiceImpl implements UniversalAIService {
     @Autowired
     private VirtualThreadPlaceholderResolver placeholderResolver;
 
+    @Autowired
+    private RequestContextLoader contextLoader;
+
+    @Autowired
+    private TokenCounter tokenCounter;
+
     @Autowired
     private NovelAIService novelAIService;
 
@@ -297,7 +306,7 @@ public class UniversalAIServiceImpl implements UniversalAIService {
         // 🚀 使用统一的PromptProvider架构获取预览数据
         Mono<String> contextDataMono = getContextData(request).cache();
         
-        return buildPromptParameters(request, contextDataMono)
+        return contextLoader.withSession("preview", buildPromptParameters(request, contextDataMono)
                 .flatMap(parameters -> {
                     log.debug("开始生成预览，参数数量: {}", parameters.size());
 
@@ -352,12 +361,12 @@ public class UniversalAIServiceImpl implements UniversalAIService {
                             .systemPrompt(systemPrompt)
                             .userPrompt(userPrompt)
                             .context("") // 上下文返回空字符串
-                            .estimatedTokens(estimateTokens(fullPreview))
+                            .estimatedTokens(estimateTokens(fullPreview, modelName))
                             .modelName(modelName)
                             .modelProvider(modelProvider)
                             .modelConfigId(modelConfigId)
                             .build();
-                })
+                }))
                 .doOnSuccess(response -> log.info("🚀 通用AI预览完成 - 模型: {}, 估算tokens: {}, 功能类型: {}", 
                                                  response.getModelName(), response.getEstimatedTokens(), featureType))
                 .doOnError(error -> log.error("通用AI预览失败: {}", error.getMessage(), error));
@@ -667,7 +676,8 @@ public class UniversalAIServiceImpl implements UniversalAIService {
             }));
         }
 
-        return Mono.zip(systemPromptMono, userPromptMono)
+        // 上下文数据与占位符解析共享同一请求级会话，相同的小说/场景/设定只查询一次
+        return contextLoader.withSession("build_prompts", Mono.zip(systemPromptMono, userPromptMono)
                 .map(tuple -> {
                     String systemPrompt = tuple.getT1();
                     String userPrompt   = tuple.getT2();
@@ -677,7 +687,7 @@ public class UniversalAIServiceImpl implements UniversalAIService {
                     prompts.put("user", userPrompt);
 
                     return prompts;
-                });
+                }));
     }
 
     /**
@@ -1046,19 +1056,21 @@ public class UniversalAIServiceImpl implements UniversalAIService {
 
     /**
      * 获取上下文数据 - 重构版本使用ContentProvider系统
+     * 各来源并发获取，最终按稳定度确定性排序后拼接（见 ContextSectionAssembler），保证提示词前缀可被提供商缓存
      */
     private Mono<String> getContextData(UniversalAIRequestDto request) {
-        List<Mono<String>> contextSources = new ArrayList<>();
+        List<Mono<List<ContextSectionAssembler.Section>>> contextSources = new ArrayList<>();
 
         // 🚀 优先使用前端传来的contextSelections（通过ContentProvider系统）
         if (request.getContextSelections() != null && !request.getContextSelections().isEmpty()) {
             log.info("处理前端上下文选择，数量: {}", request.getContextSelections().size());
-            contextSources.add(getSelectedContextData(request));
+            contextSources.add(getSelectedContextSections(request));
             
             // 当有明确的上下文选择时，只保留小说基本信息和RAG检索
             // 其他上下文（场景、章节、设定）都通过ContentProvider获取，避免重复
             if (request.getNovelId() != null) {
-                contextSources.add(getNovelBasicInfo(request.getNovelId()));
+                contextSources.add(toSection("novel_basic_info", request.getNovelId(), -1,
+                        getNovelBasicInfo(request.getNovelId())));
             }
             
             // 获取RAG检索结果
@@ -1072,17 +1084,20 @@ public class UniversalAIServiceImpl implements UniversalAIService {
             
             // 获取小说基本信息
             if (request.getNovelId() != null) {
-                contextSources.add(getNovelBasicInfo(request.getNovelId()));
+                contextSources.add(toSection("novel_basic_info", request.getNovelId(), 0,
+                        getNovelBasicInfo(request.getNovelId())));
             }
 
             // 🚀 使用ContentProvider获取场景上下文
             if (request.getSceneId() != null) {
-                contextSources.add(getContextFromProvider("scene", "scene_" + request.getSceneId(), request));
+                contextSources.add(toSection("scene", request.getSceneId(), 1,
+                        getContextFromProvider("scene", "scene_" + request.getSceneId(), request)));
             }
 
             // 🚀 使用ContentProvider获取章节上下文（传入纯UUID，不再拼接前缀）
             if (request.getChapterId() != null) {
-                contextSources.add(getContextFromProvider("chapter", request.getChapterId(), request));
+                contextSources.add(toSection("chapter", request.getChapterId(), 2,
+                        getContextFromProvider("chapter", request.getChapterId(), request)));
             }
 
             // // 🚀 暂时保留相关设定的原有实现，因为这个需要智能检索
@@ -1098,13 +1113,28 @@ public class UniversalAIServiceImpl implements UniversalAIService {
             }
         }
 
-        // 合并所有上下文
+        // 并发获取，确定性合并所有上下文
         return Flux.merge(contextSources)
-                .filter(context -> context != null && !context.isEmpty())
-                .collect(Collectors.joining("\n\n"))
+                .flatMapIterable(sections -> sections)
+                .collectList()
+                .map(sections -> {
+                    String content = ContextSectionAssembler.assemble(sections);
+                    log.debug("上下文组装完成: 片段数={}, 总长度={}", sections.size(), content.length());
+                    return content;
+                })
                 .defaultIfEmpty("");
     }
 
+    /**
+     * 将单个来源的内容包装为上下文片段
+     */
+    private Mono<List<ContextSectionAssembler.Section>> toSection(String type, String id, int sequence, Mono<String> contentMono) {
+        return contentMono
+                .filter(content -> content != null && !content.isEmpty())
+                .map(content -> List.of(new ContextSectionAssembler.Section(type, id, content, sequence)))
+                .defaultIfEmpty(List.of());
+    }
+
     /**
      * 🚀 新增：通过ContentProvider获取上下文数据的统一方法
      */
@@ -1129,13 +1159,14 @@ public class UniversalAIServiceImpl implements UniversalAIService {
 
     /**
      * 🚀 新增：处理前端选择的上下文数据（使用预处理去重逻辑）
+     * 返回带类型与选择顺序的片段，由 ContextSectionAssembler 统一排序拼接
      */
-    private Mono<String> getSelectedContextData(UniversalAIRequestDto request) {
+    private Mono<List<ContextSectionAssembler.Section>> getSelectedContextSections(UniversalAIRequestDto request) {
 
         // 🚀 第一步：日志并快速返回
         if (request.getContextSelections() == null || request.getContextSelections().isEmpty()) {
             log.info("没有选择任何上下文数据");
-            return Mono.just("");
+            return Mono.just(List.of());
         }
 
         log.info("原始上下文选择数量: {}, 详情: {}", 
@@ -1149,7 +1180,7 @@ public class UniversalAIServiceImpl implements UniversalAIService {
                 .flatMap(optimizedSelections -> {
                     if (optimizedSelections.isEmpty()) {
                         log.info("预处理后没有有效的上下文选择");
-                        return Mono.just("");
+                        return Mono.just(List.<ContextSectionAssembler.Section>of());
                     }
 
                     log.info("预处理后的上下文选择数量: {}, 详情: {}", 
@@ -1159,9 +1190,11 @@ public class UniversalAIServiceImpl implements UniversalAIService {
                                      .collect(Collectors.joining(", ")));
 
                     // 🚀 第三步：根据优化后的选择列表获取内容
-                    List<Mono<String>> contentMappings = new ArrayList<>();
+                    List<Mono<ContextSectionAssembler.Section>> contentMappings = new ArrayList<>();
 
-                    for (UniversalAIRequestDto.ContextSelectionDto contextSelection : optimizedSelections) {
+                    for (int i = 0; i < optimizedSelections.size(); i++) {
+                        UniversalAIRequestDto.ContextSelectionDto contextSelection = optimizedSelections.get(i);
+                        final int sequence = i;
                         String rawId = contextSelection.getId();
                         // 兼容前端扁平化ID，例如 flat_chapter_xxx → chapter_xxx
                         final String resolvedId = (rawId != null && rawId.startsWith("flat_"))
@@ -1177,14 +1210,15 @@ public class UniversalAIServiceImpl implements UniversalAIService {
                             Optional<ContentProvider> providerOptional = contentProviderFactory.getProvider(type.toLowerCase());
                             if (providerOptional.isPresent()) {
                                 ContentProvider provider = providerOptional.get();
-                                Mono<String> contentMono = provider.getContent(resolvedId, request)
+                                Mono<ContextSectionAssembler.Section> contentMono = provider.getContent(resolvedId, request)
                                         .map(ContentResult::getContent)
                                         .filter(content -> content != null && !content.trim().isEmpty())
                                         .doOnNext(content -> log.info("成功获取内容: type={}, id={}, length={}", 
                                                                      type, resolvedId, content.length()))
+                                        .map(content -> new ContextSectionAssembler.Section(type, resolvedId, content, sequence))
                                         .onErrorResume(error -> {
                                             log.error("获取{}内容失败: id={}, error={}", type, resolvedId, error.getMessage(), error);
-                                            return Mono.just("");
+                                            return Mono.empty();
                                         });
                                 contentMappings.add(contentMono);
                             } else {
@@ -1195,19 +1229,17 @@ public class UniversalAIServiceImpl implements UniversalAIService {
 
                     if (contentMappings.isEmpty()) {
                         log.warn("没有有效的内容提供器，返回空内容");
-                        return Mono.just("");
+                        return Mono.just(List.<ContextSectionAssembler.Section>of());
                     }
 
                     return Flux.merge(contentMappings)
-                            .filter(content -> !content.isEmpty())
-                            .collect(Collectors.joining("\n\n"))
-                            .map(combinedContent -> {
-                                if (combinedContent.isEmpty()) {
+                            .collectList()
+                            .doOnNext(sections -> {
+                                if (sections.isEmpty()) {
                                     log.warn("所有内容获取后为空");
-                                    return "";
+                                } else {
+                                    log.info("获取上下文片段完成，片段数: {}", sections.size());
                                 }
-                                log.info("合并上下文完成，最终内容长度: {} 字符", combinedContent.length());
-                                return combinedContent;
                             });
                 });
     }
@@ -1544,23 +1576,17 @@ public class UniversalAIServiceImpl implements UniversalAIService {
 
 
     /**
-     * 估算Token数量
+     * 估算Token数量（本地BPE词表计数）
      */
     private Integer estimateTokens(String text) {
-        if (text == null) return 0;
-        // 简单估算：英文按4个字符一个token，中文按1.5个字符一个token
-        int chineseChars = 0;
-        int otherChars = 0;
-        
-        for (char c : text.toCharArray()) {
-            if (c >= 0x4e00 && c <= 0x9fff) {
-                chineseChars++;
-            } else {
-                otherChars++;
-            }
-        }
-        
-        return (int) (chineseChars / 1.5 + otherChars / 4.0);
+        return tokenCounter.countTokens(text);
+    }
+
+    /**
+     * 按模型对应的词表估算Token数量
+     */
+    private Integer estimateTokens(String text, String modelName) {
+        return tokenCounter.countTokens(text, modelName);
     }
 
 
@@ -1689,17 +1715,17 @@ public class UniversalAIServiceImpl implements UniversalAIService {
      * 🚀 新增：估算token数量和积分成本
      */
     private Mono<TokenCostInfo> estimateTokensAndCost(AIRequest aiRequest, String provider, String modelId, AIFeatureType featureType) {
-        // 简单估算输入token数量（基于提示词和消息内容）
+        // 按模型词表估算输入token数量（基于提示词和消息内容）
         int calculatedInputTokens = 0;
         
         if (aiRequest.getPrompt() != null) {
-            calculatedInputTokens += estimateTokens(aiRequest.getPrompt());
+            calculatedInputTokens += estimateTokens(aiRequest.getPrompt(), modelId);
         }
         
         if (aiRequest.getMessages() != null) {
             for (var message : aiRequest.getMessages()) {
                 if (message.getContent() != null) {
-                    calculatedInputTokens += estimateTokens(message.getContent());
+                    calculatedInputTokens += estimateTokens(message.getContent(), modelId);
                 }
             }
         }
@@ -1826,11 +1852,10 @@ public class UniversalAIServiceImpl implements UniversalAIService {
         String contextText = request.getPrompt() != null ? request.getPrompt() : 
                            request.getSelectedText() != null ? request.getSelectedText() : "";
         
-        return novelSettingService.findRelevantSettings(
+        return novelSettingService.findContextSettings(
                 request.getNovelId(), 
                 contextText, 
                 request.getSceneId(), 
-                null, 
                 5
         )
         .collectList()
@@ -1931,10 +1956,10 @@ public class UniversalAIServiceImpl implements UniversalAIService {
      */
     private Mono<PromptGenerationResult> generateNewPromptPreset(UniversalAIRequestDto request, String configHash) {
         Mono<String> contextDataMono = getContextData(request).cache();
-        return Mono.zip(
+        return contextLoader.withSession("generate_preset", Mono.zip(
                 getSystemPrompt(request, contextDataMono),
                 getUserPrompt(request, contextDataMono)
-        ).flatMap(tuple -> {
+        )).flatMap(tuple -> {
             String systemPrompt = tuple.getT1();
             String userPrompt = tuple.getT2();
             
@@ -15,6 +15,7 @@ import com.ainovel.server.domain.model.UserAIModelConfig;
 import com.ainovel.server.repository.UserAIModelConfigRepository;
 import com.ainovel.server.service.ApiKeyValidator;
 import com.ainovel.server.service.UserAIModelConfigService; // Add Jasypt import
+import com.ainovel.server.service.ai.factory.AIProviderPool;
 
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
@@ -27,14 +28,17 @@ public class UserAIModelConfigServiceImpl implements UserAIModelConfigService {
     private final UserAIModelConfigRepository configRepository;
     private final ApiKeyValidator apiKeyValidator;
     private final StringEncryptor encryptor;
+    private final AIProviderPool providerPool;
 
     @Autowired
     public UserAIModelConfigServiceImpl(UserAIModelConfigRepository configRepository,
             ApiKeyValidator apiKeyValidator,
-            StringEncryptor encryptor) {
+            StringEncryptor encryptor,
+            AIProviderPool providerPool) {
         this.configRepository = configRepository;
         this.apiKeyValidator = apiKeyValidator;
         this.encryptor = encryptor;
+        this.providerPool = providerPool;
     }
 
     @Override
@@ -134,12 +138,14 @@ public class UserAIModelConfigServiceImpl implements UserAIModelConfigService {
                     } else {
                         return configRepository.save(config);
                     }
-                });
+                })
+                .doOnSuccess(saved -> providerPool.invalidateConfig(configId));
     }
 
     @Override
     public Mono<Void> deleteConfiguration(String userId, String configId) {
-        return configRepository.deleteByUserIdAndId(userId, configId);
+        return configRepository.deleteByUserIdAndId(userId, configId)
+                .doOnSuccess(v -> providerPool.invalidateConfig(configId));
     }
 
     @Override
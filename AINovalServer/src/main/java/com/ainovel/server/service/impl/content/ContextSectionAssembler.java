@@ -0,0 +1,111 @@
+package com.ainovel.server.service.impl.content;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 上下文片段组装器
+ *
+ * 各内容提供器并发返回的片段按"稳定度"确定性排序后再拼接：
+ * 设定 → 小说基本信息 → 全书摘要/全文 → 卷与前文章节 → 当前章节 → 当前场景 → 片段/其他。
+ * 同一层级内按选择顺序排列（与提供器完成的先后无关），保证相同选择得到字节级一致的前缀，
+ * 从而命中 OpenAI / Gemini 的自动前缀缓存；Anthropic 仅在上下文位于系统提示词时由 cacheSystemMessages 整体缓存。
+ */
+public final class ContextSectionAssembler {
+
+    /** 片段之间的分隔符（与原合并逻辑保持一致） */
+    public static final String SECTION_SEPARATOR = "\n\n";
+
+    private static final Comparator<Section> SECTION_ORDER = Comparator
+            .comparingInt((Section s) -> stabilityRank(s.type()))
+            .thenComparingInt(Section::sequence);
+
+    private ContextSectionAssembler() {
+    }
+
+    /**
+     * 上下文片段
+     *
+     * @param type     内容类型（即 ContentProvider 类型）
+     * @param id       内容ID
+     * @param content  已渲染的内容
+     * @param sequence 在（去重后的）选择列表中的位置
+     */
+    public record Section(String type, String id, String content, int sequence) {
+    }
+
+    /**
+     * 类型的稳定度排名，数值越小越稳定、越靠前
+     */
+    public static int stabilityRank(String type) {
+        switch (normalize(type)) {
+            case "setting":
+            case "settings":
+            case "character":
+            case "location":
+            case "item":
+            case "lore":
+            case "setting_group":
+            case "setting_groups":
+            case "settings_by_type":
+            case "all_settings":
+                return 0;
+            case "novel_basic_info":
+                return 1;
+            case "full_outline":
+            case "full_novel_summary":
+            case "full_novel_text":
+                return 2;
+            case "act":
+            case "acts":
+            case "previous_chapters_summary":
+            case "previous_chapters_content":
+                return 3;
+            case "chapter":
+            case "chapters":
+            case "recent_chapters_summary":
+            case "recent_chapters_content":
+            case "current_chapter_summary":
+            case "current_chapter_content":
+                return 4;
+            case "scene":
+            case "scenes":
+            case "current_scene_summary":
+            case "current_scene_content":
+                return 5;
+            default:
+                return 6;
+        }
+    }
+
+    /**
+     * 确定性排序并拼接片段，忽略空内容
+     */
+    public static String assemble(List<Section> sections) {
+        if (sections == null || sections.isEmpty()) {
+            return "";
+        }
+        List<Section> ordered = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            if (section != null && section.content() != null && !section.content().isEmpty()) {
+                ordered.add(section);
+            }
+        }
+        ordered.sort(SECTION_ORDER);
+
+        StringBuilder sb = new StringBuilder();
+        for (Section section : ordered) {
+            if (sb.length() > 0) {
+                sb.append(SECTION_SEPARATOR);
+            }
+            sb.append(section.content());
+        }
+        return sb.toString();
+    }
+
+    private static String normalize(String type) {
+        return type == null ? "" : type.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ainovel.server.service.impl.content;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.MongoQueryCounterAspect;
+import com.ainovel.server.config.MongoRequestQueryCounter;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.domain.model.SettingGroup;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.NovelSettingService;
+import com.ainovel.server.service.SceneService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 请求级上下文加载器
+ *
+ * 一次 UniversalAIRequestDto 可能同时选择章节、场景、full_novel_text、previous_chapters_summary 等，
+ * 各内容提供器和占位符解析器会分别查询同一本小说与同一批场景。
+ * 本加载器把一次请求内的小说、结构、场景与设定查询结果以 cache() 后的 Mono 记在 Reactor Context 的会话中，
+ * 同一请求内相同的查询只发往 MongoDB 一次；不在会话中调用时直接委托给原服务，行为不变。
+ *
+ * 注意：会话内的对象在提供器之间共享，调用方只读不写。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestContextLoader {
+
+    /** Reactor Context 中会话的键 */
+    public static final String CONTEXT_KEY = RequestContextLoader.class.getName();
+
+    private final NovelService novelService;
+    private final SceneService sceneService;
+    private final NovelSettingService novelSettingService;
+    private final MongoQueryCounterAspect mongoQueryCounterAspect;
+
+    /**
+     * 在请求级会话中执行；已处于会话中时复用外层会话。
+     * 结束时上报该请求发出的MongoDB查询数量。
+     *
+     * @param scope 请求范围，用作指标标签
+     */
+    public <T> Mono<T> withSession(String scope, Mono<T> source) {
+        return Mono.deferContextual(ctx -> {
+            if (ctx.hasKey(CONTEXT_KEY)) {
+                return source;
+            }
+            Session session = new Session();
+            MongoRequestQueryCounter queryCounter = new MongoRequestQueryCounter();
+            return source
+                    .doFinally(signal -> {
+                        mongoQueryCounterAspect.recordRequestQueries(scope, queryCounter.get());
+                        log.debug("请求上下文会话结束: scope={}, 共享查询={}, MongoDB查询={}",
+                                scope, session.entries.size(), queryCounter.get());
+                    })
+                    .contextWrite(c -> c.put(CONTEXT_KEY, session)
+                            .put(MongoRequestQueryCounter.CONTEXT_KEY, queryCounter));
+        });
+    }
+
+    public Mono<Novel> findNovelById(String novelId) {
+        return memoize("novel:" + novelId, () -> novelService.findNovelById(novelId));
+    }
+
+    public Flux<Scene> findScenesByNovelIdInOrder(String novelId) {
+        return memoizeList("novelScenes:" + novelId, () -> novelService.findScenesByNovelIdInOrder(novelId));
+    }
+
+    public Flux<Scene> findSceneByChapterIdOrdered(String chapterId) {
+        return memoizeList("chapterScenes:" + chapterId, () -> sceneService.findSceneByChapterIdOrdered(chapterId));
+    }
+
+    public Mono<Scene> findSceneById(String sceneId) {
+        return memoize("scene:" + sceneId, () -> sceneService.findSceneById(sceneId));
+    }
+
+    public Mono<NovelSettingItem> getSettingItemById(String itemId) {
+        return memoize("settingItem:" + itemId, () -> novelSettingService.getSettingItemById(itemId));
+    }
+
+    public Mono<SettingGroup> getSettingGroupById(String groupId) {
+        return memoize("settingGroup:" + groupId, () -> novelSettingService.getSettingGroupById(groupId));
+    }
+
+    /**
+     * 按类型获取小说的全部设定条目（不分页）
+     */
+    public Flux<NovelSettingItem> getSettingItemsByType(String novelId, String type) {
+        return memoizeList("settingsByType:" + novelId + ":" + type,
+                () -> novelSettingService.getNovelSettingItems(novelId, type, null, null, null, null, Pageable.unpaged()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> memoize(String key, Supplier<Mono<T>> loader) {
+        return Mono.deferContextual(ctx -> {
+            Session session = ctx.getOrDefault(CONTEXT_KEY, null);
+            if (session == null) {
+                return loader.get();
+            }
+            return (Mono<T>) session.entries.computeIfAbsent(key, k -> loader.get().cache());
+        });
+    }
+
+    private <T> Flux<T> memoizeList(String key, Supplier<Flux<T>> loader) {
+        return Flux.deferContextual(ctx -> {
+            if (!ctx.hasKey(CONTEXT_KEY)) {
+                return loader.get();
+            }
+            Mono<List<T>> list = memoize(key, () -> loader.get().collectList());
+            return list.flatMapIterable(items -> items);
+        });
+    }
+
+    /**
+     * 请求级会话：查询键 -> 已缓存的结果
+     */
+    private static final class Session {
+        private final ConcurrentMap<String, Mono<?>> entries = new ConcurrentHashMap<>();
+    }
+}
@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.ainovel.server.domain.model.Novel;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -29,10 +28,7 @@ public class ActProvider implements ContentProvider {
     private static final String TYPE_ACT = "act";
 
     @Autowired
-    private NovelService novelService;
-
-    @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -70,7 +66,7 @@ public class ActProvider implements ContentProvider {
         
         log.debug("获取Act内容长度: novelId={}, actId={}", novelId, actId);
         
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     // 从小说结构中找到指定的Act
                     Novel.Act targetAct = null;
@@ -105,7 +101,7 @@ public class ActProvider implements ContentProvider {
                     
                     // 获取所有场景的内容长度并累加
                     return Flux.fromIterable(allSceneIds)
-                            .flatMap(sceneId -> sceneService.findSceneById(sceneId)
+                            .flatMap(sceneId -> contextLoader.findSceneById(sceneId)
                                     .map(scene -> {
                                         String content = scene.getContent();
                                         if (content == null || content.isEmpty()) {
@@ -150,7 +146,7 @@ public class ActProvider implements ContentProvider {
      * 获取Act内容（包含该Act下的所有章节和场景）
      */
     private Mono<String> getActContent(String novelId, String actId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     log.info("获取Act内容 - 小说ID: {}, ActID: {}", novelId, actId);
                     
@@ -203,7 +199,7 @@ public class ActProvider implements ContentProvider {
                     
                     // 获取所有场景的详细信息
                     return Flux.fromIterable(allSceneIds)
-                            .flatMap(sceneId -> sceneService.findSceneById(sceneId)
+                            .flatMap(sceneId -> contextLoader.findSceneById(sceneId)
                                     .onErrorResume(e -> {
                                         log.warn("获取场景 {} 失败: {}", sceneId, e.getMessage());
                                         return Mono.empty();
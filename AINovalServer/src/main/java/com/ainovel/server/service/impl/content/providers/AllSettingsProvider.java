@@ -1,13 +1,12 @@
 package com.ainovel.server.service.impl.content.providers;
 
-import com.ainovel.server.service.NovelSettingService;
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 import lombok.extern.slf4j.Slf4j;
@@ -23,7 +22,7 @@ public class AllSettingsProvider implements ContentProvider {
     private static final String TYPE_ALL_SETTINGS = "all_settings";
 
     @Autowired
-    private NovelSettingService novelSettingService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -36,8 +35,7 @@ public class AllSettingsProvider implements ContentProvider {
             return Mono.just(new ContentResult("", TYPE_ALL_SETTINGS, id));
         }
 
-        return novelSettingService
-                .getNovelSettingItems(targetNovelId, null, null, null, null, null, Pageable.unpaged())
+        return contextLoader.getSettingItemsByType(targetNovelId, null)
                 .map(promptXmlFormatter::formatSettingWithoutId)
                 .collectList()
                 .map(list -> String.join("\n", list))
@@ -58,8 +56,7 @@ public class AllSettingsProvider implements ContentProvider {
             return Mono.just("");
         }
 
-        return novelSettingService
-                .getNovelSettingItems(novelId, null, null, null, null, null, Pageable.unpaged())
+        return contextLoader.getSettingItemsByType(novelId, null)
                 .map(promptXmlFormatter::formatSettingWithoutId)
                 .collectList()
                 .map(list -> String.join("\n", list))
@@ -74,8 +71,7 @@ public class AllSettingsProvider implements ContentProvider {
             return Mono.just(0);
         }
 
-        return novelSettingService
-                .getNovelSettingItems(novelId, null, null, null, null, null, Pageable.unpaged())
+        return contextLoader.getSettingItemsByType(novelId, null)
                 .map(setting -> {
                     String description = setting.getDescription();
                     return description != null ? description.length() : 0;
@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.SceneService;
-import com.ainovel.server.service.NovelService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -24,10 +23,7 @@ public class ChapterProvider implements ContentProvider {
     private static final String TYPE_CHAPTER = "chapter";
 
     @Autowired
-    private SceneService sceneService;
-
-    @Autowired
-    private NovelService novelService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -69,7 +65,7 @@ public class ChapterProvider implements ContentProvider {
         String normalizedChapterId = normalizeChapterIdForQuery(chapterId);
         
         // 获取该章节下所有场景的内容长度总和
-        return sceneService.findSceneByChapterIdOrdered(normalizedChapterId)
+        return contextLoader.findSceneByChapterIdOrdered(normalizedChapterId)
                 .map(scene -> {
                     String content = scene.getContent();
                     if (content == null || content.isEmpty()) {
@@ -114,7 +110,7 @@ public class ChapterProvider implements ContentProvider {
     private Mono<String> getChapterContentWithScenes(String novelId, String chapterId) {
         // 🚀 修复：确保章节ID格式正确（去掉前缀），适配数据库字段格式变更
         String normalizedChapterId = normalizeChapterIdForQuery(chapterId);
-        return sceneService.findSceneByChapterIdOrdered(normalizedChapterId)
+        return contextLoader.findSceneByChapterIdOrdered(normalizedChapterId)
                 .collectList()
                 .map(scenes -> {
                     // 获取章节在小说中的顺序号，而不是硬编码为1
@@ -130,7 +126,7 @@ public class ChapterProvider implements ContentProvider {
      * 获取章节在小说中的顺序号
      */
     private Mono<Integer> getChapterSequenceNumber(String novelId, String chapterId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .map(novel -> {
                     if (novel.getStructure() == null || novel.getStructure().getActs() == null) {
                         return 1;
@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.SceneService;
-import com.ainovel.server.service.NovelService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -25,10 +24,7 @@ public class CurrentChapterContentProvider implements ContentProvider {
     private static final String TYPE = "current_chapter_content";
 
     @Autowired
-    private SceneService sceneService;
-
-    @Autowired
-    private NovelService novelService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -70,7 +66,7 @@ public class CurrentChapterContentProvider implements ContentProvider {
         }
         // 统计该章节下所有场景的内容长度
         String normalizedChapterId = normalizeChapterIdForQuery(chapterId);
-        return sceneService.findSceneByChapterIdOrdered(normalizedChapterId)
+        return contextLoader.findSceneByChapterIdOrdered(normalizedChapterId)
                 .map(scene -> estimateSceneContentLength(scene.getContent(), scene.getId()))
                 .reduce(0, Integer::sum)
                 .onErrorResume(error -> {
@@ -81,7 +77,7 @@ public class CurrentChapterContentProvider implements ContentProvider {
 
     private Mono<String> getChapterContentWithScenes(String novelId, String chapterId) {
         String normalizedChapterId = normalizeChapterIdForQuery(chapterId);
-        return sceneService.findSceneByChapterIdOrdered(normalizedChapterId)
+        return contextLoader.findSceneByChapterIdOrdered(normalizedChapterId)
                 .collectList()
                 .map(scenes -> getChapterSequenceNumber(novelId, chapterId)
                         .map(chapterNumber -> promptXmlFormatter.formatChapter(chapterId, chapterNumber, scenes))
@@ -91,7 +87,7 @@ public class CurrentChapterContentProvider implements ContentProvider {
     }
 
     private Mono<Integer> getChapterSequenceNumber(String novelId, String chapterId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .map(novel -> {
                     if (novel.getStructure() == null || novel.getStructure().getActs() == null) {
                         return 1;
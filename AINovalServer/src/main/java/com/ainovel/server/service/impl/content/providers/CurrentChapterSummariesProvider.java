@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.SceneService;
-import com.ainovel.server.service.NovelService;
 import com.ainovel.server.common.util.RichTextUtil;
 import com.ainovel.server.domain.model.Scene;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,10 +21,7 @@ public class CurrentChapterSummariesProvider implements ContentProvider {
     private static final String TYPE = "current_chapter_summary";
 
     @Autowired
-    private SceneService sceneService;
-
-    @Autowired
-    private NovelService novelService;
+    private RequestContextLoader contextLoader;
 
     // PromptXmlFormatter 未使用，移除可以降低警告
 
@@ -57,18 +53,18 @@ public class CurrentChapterSummariesProvider implements ContentProvider {
         String chapterId = (String) contextParameters.getOrDefault("chapterId", contextParameters.get("currentChapterId"));
         chapterId = normalizeChapterIdForQuery(chapterId);
         if (chapterId == null || chapterId.isBlank()) return Mono.just(0);
-        return sceneService.findSceneByChapterIdOrdered(chapterId)
+        return contextLoader.findSceneByChapterIdOrdered(chapterId)
                 .map(this::estimateSceneSummaryLength)
                 .reduce(0, Integer::sum)
                 .onErrorResume(e -> Mono.just(0));
     }
 
     private Mono<String> buildChapterSummaries(String novelId, String chapterId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     java.util.Map<String, Integer> chapterOrderMap = com.ainovel.server.common.util.ChapterOrderUtil.buildChapterOrderMap(novel);
                     int chapterOrder = com.ainovel.server.common.util.ChapterOrderUtil.getChapterOrder(chapterOrderMap, chapterId);
-                    return sceneService.findSceneByChapterIdOrdered(chapterId)
+                    return contextLoader.findSceneByChapterIdOrdered(chapterId)
                             .collectList()
                             .map(scenes -> {
                                 StringBuilder sb = new StringBuilder();
@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -20,7 +20,7 @@ public class CurrentSceneContentProvider implements ContentProvider {
     private static final String TYPE = "current_scene_content";
 
     @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -32,7 +32,7 @@ public class CurrentSceneContentProvider implements ContentProvider {
             log.warn("CurrentSceneContentProvider: sceneId 为空");
             return Mono.just(new ContentResult("", TYPE, id));
         }
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(scene -> new ContentResult(promptXmlFormatter.formatScene(scene), TYPE, id))
                 .defaultIfEmpty(new ContentResult("", TYPE, id))
                 .onErrorReturn(new ContentResult("", TYPE, id));
@@ -45,7 +45,7 @@ public class CurrentSceneContentProvider implements ContentProvider {
     public Mono<String> getContentForPlaceholder(String userId, String novelId, String contentId, java.util.Map<String, Object> parameters) {
         String sceneId = (String) parameters.getOrDefault("sceneId", parameters.get("currentSceneId"));
         if (sceneId == null || sceneId.isEmpty()) return Mono.just("");
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(scene -> promptXmlFormatter.formatScene(scene))
                 .onErrorReturn("[场景内容获取失败]");
     }
@@ -54,7 +54,7 @@ public class CurrentSceneContentProvider implements ContentProvider {
     public Mono<Integer> getEstimatedContentLength(java.util.Map<String, Object> contextParameters) {
         String sceneId = (String) contextParameters.getOrDefault("sceneId", contextParameters.get("currentSceneId"));
         if (sceneId == null || sceneId.isBlank()) return Mono.just(0);
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(scene -> {
                     String content = scene.getContent();
                     if (content == null) return 0;
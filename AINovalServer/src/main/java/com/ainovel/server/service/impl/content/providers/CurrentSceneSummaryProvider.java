@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.common.util.RichTextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +22,7 @@ public class CurrentSceneSummaryProvider implements ContentProvider {
     private static final String TYPE = "current_scene_summary";
 
     @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Override
     public Mono<ContentResult> getContent(String id, UniversalAIRequestDto request) {
@@ -31,7 +31,7 @@ public class CurrentSceneSummaryProvider implements ContentProvider {
             log.warn("CurrentSceneSummaryProvider: sceneId 为空");
             return Mono.just(new ContentResult("", TYPE, id));
         }
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(scene -> new ContentResult(buildSceneSummaryXml(scene), TYPE, id))
                 .defaultIfEmpty(new ContentResult("", TYPE, id))
                 .onErrorReturn(new ContentResult("", TYPE, id));
@@ -44,7 +44,7 @@ public class CurrentSceneSummaryProvider implements ContentProvider {
     public Mono<String> getContentForPlaceholder(String userId, String novelId, String contentId, java.util.Map<String, Object> parameters) {
         String sceneId = (String) parameters.getOrDefault("sceneId", parameters.get("currentSceneId"));
         if (sceneId == null || sceneId.isEmpty()) return Mono.just("");
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(this::buildSceneSummaryXml)
                 .defaultIfEmpty("")
                 .onErrorReturn("[场景摘要获取失败]");
@@ -54,7 +54,7 @@ public class CurrentSceneSummaryProvider implements ContentProvider {
     public Mono<Integer> getEstimatedContentLength(java.util.Map<String, Object> contextParameters) {
         String sceneId = (String) contextParameters.getOrDefault("sceneId", contextParameters.get("currentSceneId"));
         if (sceneId == null || sceneId.isBlank()) return Mono.just(0);
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(this::estimateSceneSummaryLength)
                 .defaultIfEmpty(0)
                 .onErrorResume(e -> Mono.just(0));
@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.ainovel.server.domain.model.Scene;
 
@@ -24,7 +24,7 @@ public class FullNovelSummaryProvider implements ContentProvider {
     private static final String TYPE_FULL_NOVEL_SUMMARY = "full_novel_summary";
 
     @Autowired
-    private NovelService novelService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -71,7 +71,7 @@ public class FullNovelSummaryProvider implements ContentProvider {
         log.debug("获取完整小说摘要长度: novelId={}", novelId);
         
         // 获取整个小说的所有场景摘要长度
-        return novelService.findScenesByNovelIdInOrder(novelId)
+        return contextLoader.findScenesByNovelIdInOrder(novelId)
                 .map(scene -> {
                     String summary = scene.getSummary();
                     if (summary == null || summary.isEmpty()) {
@@ -93,11 +93,11 @@ public class FullNovelSummaryProvider implements ContentProvider {
      * 获取完整小说摘要内容
      */
     private Mono<String> getFullNovelSummaryContent(String novelId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     log.info("获取完整小说摘要 - 小说ID: {}, 标题: {}", novelId, novel.getTitle());
                     // 获取所有有摘要的场景
-                    return novelService.findScenesByNovelIdInOrder(novelId)
+                    return contextLoader.findScenesByNovelIdInOrder(novelId)
                             .doOnNext(scene -> log.debug("检查场景摘要 - ID: {}, 标题: {}, 摘要: {}", 
                                                         scene.getId(), scene.getTitle(), 
                                                         scene.getSummary() != null ? scene.getSummary().substring(0, Math.min(100, scene.getSummary().length())) + "..." : "无摘要"))
@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.ainovel.server.common.util.ChapterOrderUtil;
 import com.ainovel.server.common.util.RichTextUtil;
@@ -28,7 +28,7 @@ public class FullNovelTextProvider implements ContentProvider {
     private static final String TYPE_FULL_NOVEL_TEXT = "full_novel_text";
 
     @Autowired
-    private NovelService novelService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -75,7 +75,7 @@ public class FullNovelTextProvider implements ContentProvider {
         log.debug("获取完整小说内容长度: novelId={}", novelId);
         
         // 获取整个小说的所有场景内容长度
-        return novelService.findScenesByNovelIdInOrder(novelId)
+        return contextLoader.findScenesByNovelIdInOrder(novelId)
                 .map(scene -> {
                     String content = scene.getContent();
                     if (content == null || content.isEmpty()) {
@@ -118,11 +118,11 @@ public class FullNovelTextProvider implements ContentProvider {
      * 获取完整小说文本内容
      */
     private Mono<String> getFullNovelTextContent(String novelId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     log.info("获取完整小说文本 - 小说ID: {}, 标题: {}", novelId, novel.getTitle());
                     // 获取所有场景，按章节和序号排序
-                    return novelService.findScenesByNovelIdInOrder(novelId)
+                    return contextLoader.findScenesByNovelIdInOrder(novelId)
                             .filter(scene -> scene.getContent() != null && !RichTextUtil.deltaJsonToPlainText(scene.getContent()).trim().isEmpty())
                             .collectList()
                             .map(scenes -> {
@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
 import com.ainovel.server.domain.model.Novel;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +24,7 @@ public class NovelBasicInfoProvider implements ContentProvider {
     private static final String TYPE_NOVEL_BASIC_INFO = "novel_basic_info";
 
     @Autowired
-    private NovelService novelService;
+    private RequestContextLoader contextLoader;
 
     @Override
     public Mono<ContentResult> getContent(String id, UniversalAIRequestDto request) {
@@ -68,7 +68,7 @@ public class NovelBasicInfoProvider implements ContentProvider {
         
         log.debug("获取小说基本信息长度: novelId={}", novelId);
         
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .map(novel -> {
                     int totalLength = 0;
                     
@@ -112,7 +112,7 @@ public class NovelBasicInfoProvider implements ContentProvider {
      * 获取小说基本信息内容
      */
     private Mono<String> getNovelBasicInfoContent(String novelId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .map(novel -> {
                     log.info("获取小说基本信息 - ID: {}, 标题: {}", novelId, novel.getTitle());
                     
@@ -159,7 +159,7 @@ public class NovelBasicInfoProvider implements ContentProvider {
      * 获取单个字段值（用于占位符解析）
      */
     public Mono<String> getFieldValue(String novelId, String fieldName) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .map(novel -> {
                     return switch (fieldName.toLowerCase()) {
                         case "noveltitle", "title" -> novel.getTitle() != null ? novel.getTitle() : "";
@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,10 +22,7 @@ public class PreviousChaptersContentProvider implements ContentProvider {
     private static final String TYPE = "previous_chapters_content";
 
     @Autowired
-    private NovelService novelService;
-
-    @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -54,7 +50,7 @@ public class PreviousChaptersContentProvider implements ContentProvider {
         if (novelId == null || novelId.isBlank()) return Mono.just(0);
         return getPreviousChapterIds(novelId, currentChapterId)
                 .flatMap(chapterIds -> reactor.core.publisher.Flux.fromIterable(chapterIds)
-                        .flatMap(chapterId -> sceneService.findSceneByChapterIdOrdered(chapterId))
+                        .flatMap(chapterId -> contextLoader.findSceneByChapterIdOrdered(chapterId))
                         .map(scene -> scene.getContent() != null ? scene.getContent().length() : 0)
                         .reduce(0, Integer::sum)
                 )
@@ -62,10 +58,10 @@ public class PreviousChaptersContentProvider implements ContentProvider {
     }
 
     private Mono<String> getPreviousChaptersContent(String novelId, String currentChapterId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> getPreviousChapterIds(novel, currentChapterId)
                         .flatMap(chapterIds -> reactor.core.publisher.Flux.fromIterable(chapterIds)
-                                .flatMap(chapterId -> sceneService.findSceneByChapterIdOrdered(chapterId)
+                                .flatMap(chapterId -> contextLoader.findSceneByChapterIdOrdered(chapterId)
                                         .collectList()
                                         .map(scenes -> promptXmlFormatter.formatChapter(chapterId, com.ainovel.server.common.util.ChapterOrderUtil
                                                 .getChapterOrder(com.ainovel.server.common.util.ChapterOrderUtil
@@ -77,7 +73,7 @@ public class PreviousChaptersContentProvider implements ContentProvider {
     }
 
     private Mono<List<String>> getPreviousChapterIds(String novelId, String currentChapterId) {
-        return novelService.findNovelById(novelId).map(novel -> getAllPreviousChapterIds(novel, currentChapterId));
+        return contextLoader.findNovelById(novelId).map(novel -> getAllPreviousChapterIds(novel, currentChapterId));
     }
 
     private Mono<List<String>> getPreviousChapterIds(Novel novel, String currentChapterId) {
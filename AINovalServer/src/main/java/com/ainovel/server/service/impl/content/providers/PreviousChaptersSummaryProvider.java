@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.domain.model.Scene;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,10 +25,7 @@ public class PreviousChaptersSummaryProvider implements ContentProvider {
     private static final String TYPE = "previous_chapters_summary";
 
     @Autowired
-    private NovelService novelService;
-
-    @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Override
     public Mono<ContentResult> getContent(String id, UniversalAIRequestDto request) {
@@ -54,7 +50,7 @@ public class PreviousChaptersSummaryProvider implements ContentProvider {
         if (novelId == null || novelId.isBlank()) return Mono.just(0);
         return getPreviousChapterIds(novelId, currentChapterId)
                 .flatMap(chapterIds -> reactor.core.publisher.Flux.fromIterable(chapterIds)
-                        .flatMap(chapterId -> sceneService.findSceneByChapterIdOrdered(chapterId))
+                        .flatMap(chapterId -> contextLoader.findSceneByChapterIdOrdered(chapterId))
                         .map(scene -> {
                             String summary = scene.getSummary();
                             if (summary != null && !summary.isEmpty()) return summary.length();
@@ -66,13 +62,13 @@ public class PreviousChaptersSummaryProvider implements ContentProvider {
     }
 
     private Mono<String> getPreviousChaptersSummary(String novelId, String currentChapterId) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> getPreviousChapterIds(novel, currentChapterId)
                         .flatMap(chapterIds -> {
                             Map<String, Integer> chapterOrderMap = ChapterOrderUtil.buildChapterOrderMap(novel);
 
                             return reactor.core.publisher.Flux.fromIterable(chapterIds)
-                                    .flatMap(chapterId -> sceneService.findSceneByChapterIdOrdered(chapterId)
+                                    .flatMap(chapterId -> contextLoader.findSceneByChapterIdOrdered(chapterId)
                                             .collectList()
                                             .map(scenes -> formatSummaries(java.util.List.of(chapterId), scenes, chapterOrderMap)))
                                     .collectList()
@@ -111,7 +107,7 @@ public class PreviousChaptersSummaryProvider implements ContentProvider {
     }
 
     private Mono<List<String>> getPreviousChapterIds(String novelId, String currentChapterId) {
-        return novelService.findNovelById(novelId).map(novel -> getAllPreviousChapterIds(novel, currentChapterId));
+        return contextLoader.findNovelById(novelId).map(novel -> getAllPreviousChapterIds(novel, currentChapterId));
     }
 
     private Mono<List<String>> getPreviousChapterIds(Novel novel, String currentChapterId) {
@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.domain.model.Novel;
 import com.ainovel.server.common.util.PromptXmlFormatter;
@@ -30,10 +29,7 @@ public class RecentChaptersProvider implements ContentProvider {
     private static final int DEFAULT_CHAPTER_COUNT = 5;
 
     @Autowired
-    private NovelService novelService;
-
-    @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -89,7 +85,7 @@ public class RecentChaptersProvider implements ContentProvider {
      * 获取前五章的内容
      */
     private Mono<String> getRecentChaptersContent(String novelId, String currentChapterId, int chapterCount) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     List<String> recentChapterIds = getRecentChapterIds(novel, currentChapterId, chapterCount);
                     
@@ -106,7 +102,7 @@ public class RecentChaptersProvider implements ContentProvider {
      * 获取前五章的内容长度估算
      */
     private Mono<Integer> getRecentChaptersContentLength(String novelId, String currentChapterId, int chapterCount) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     List<String> recentChapterIds = getRecentChapterIds(novel, currentChapterId, chapterCount);
                     
@@ -198,7 +194,7 @@ public class RecentChaptersProvider implements ContentProvider {
     private reactor.core.publisher.Flux<String> getChapterContents(List<String> chapterIds) {
         return reactor.core.publisher.Flux.fromIterable(chapterIds)
                 .flatMap(chapterId -> 
-                    sceneService.findSceneByChapterIdOrdered(chapterId)
+                    contextLoader.findSceneByChapterIdOrdered(chapterId)
                             .collectList()
                             .map(scenes -> formatChapterScenes(chapterId, scenes))
                             .onErrorReturn("")
@@ -231,7 +227,7 @@ public class RecentChaptersProvider implements ContentProvider {
     private Mono<Integer> estimateChaptersContentLength(List<String> chapterIds) {
         return reactor.core.publisher.Flux.fromIterable(chapterIds)
                 .flatMap(chapterId -> 
-                    sceneService.findSceneByChapterIdOrdered(chapterId)
+                    contextLoader.findSceneByChapterIdOrdered(chapterId)
                             .map(scene -> estimateSceneContentLength(scene))
                             .reduce(0, Integer::sum)
                             .onErrorReturn(0)
@@ -2,9 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelService;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.domain.model.Novel;
 
@@ -30,10 +29,7 @@ public class RecentChaptersSummaryProvider implements ContentProvider {
     private static final int DEFAULT_CHAPTER_COUNT = 5;
 
     @Autowired
-    private NovelService novelService;
-
-    @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     
 
@@ -88,7 +84,7 @@ public class RecentChaptersSummaryProvider implements ContentProvider {
      * 获取前五章的摘要
      */
     private Mono<String> getRecentChaptersSummary(String novelId, String currentChapterId, int chapterCount) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     List<String> recentChapterIds = getRecentChapterIds(novel, currentChapterId, chapterCount);
                     
@@ -105,7 +101,7 @@ public class RecentChaptersSummaryProvider implements ContentProvider {
      * 获取前五章的摘要长度估算
      */
     private Mono<Integer> getRecentChaptersSummaryLength(String novelId, String currentChapterId, int chapterCount) {
-        return novelService.findNovelById(novelId)
+        return contextLoader.findNovelById(novelId)
                 .flatMap(novel -> {
                     List<String> recentChapterIds = getRecentChapterIds(novel, currentChapterId, chapterCount);
                     
@@ -197,7 +193,7 @@ public class RecentChaptersSummaryProvider implements ContentProvider {
     private reactor.core.publisher.Flux<String> getChapterSummaries(List<String> chapterIds, Map<String, Integer> chapterOrderMap) {
         return reactor.core.publisher.Flux.fromIterable(chapterIds)
                 .flatMap(chapterId -> 
-                    sceneService.findSceneByChapterIdOrdered(chapterId)
+                    contextLoader.findSceneByChapterIdOrdered(chapterId)
                             .collectList()
                             .map(scenes -> formatChapterSceneSummaries(chapterId, scenes, chapterOrderMap))
                             .onErrorReturn("")
@@ -259,7 +255,7 @@ public class RecentChaptersSummaryProvider implements ContentProvider {
     private Mono<Integer> estimateChaptersSummaryLength(List<String> chapterIds) {
         return reactor.core.publisher.Flux.fromIterable(chapterIds)
                 .flatMap(chapterId -> 
-                    sceneService.findSceneByChapterIdOrdered(chapterId)
+                    contextLoader.findSceneByChapterIdOrdered(chapterId)
                             .map(scene -> estimateSceneSummaryLength(scene))
                             .reduce(0, Integer::sum)
                             .onErrorReturn(0)
@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -23,7 +23,7 @@ public class SceneProvider implements ContentProvider {
     private static final String TYPE_SCENE = "scene";
 
     @Autowired
-    private SceneService sceneService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -31,7 +31,7 @@ public class SceneProvider implements ContentProvider {
     @Override
     public Mono<ContentResult> getContent(String id, UniversalAIRequestDto request) {
         String sceneId = extractIdFromContextId(id);
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(scene -> {
                     // 使用XML格式化器生成正确的XML
                     String content = promptXmlFormatter.formatScene(scene);
@@ -51,7 +51,7 @@ public class SceneProvider implements ContentProvider {
         log.debug("获取场景内容用于占位符: userId={}, novelId={}, contentId={}", userId, novelId, contentId);
         
         // contentId就是sceneId
-        return sceneService.findSceneById(contentId)
+        return contextLoader.findSceneById(contentId)
                 .map(scene -> promptXmlFormatter.formatScene(scene))
                 .onErrorReturn("[场景内容获取失败]");
     }
@@ -66,7 +66,7 @@ public class SceneProvider implements ContentProvider {
         log.debug("获取场景内容长度: sceneId={}", sceneId);
         
         // 查询场景，仅获取content字段的长度
-        return sceneService.findSceneById(sceneId)
+        return contextLoader.findSceneById(sceneId)
                 .map(scene -> {
                     String content = scene.getContent();
                     if (content == null || content.isEmpty()) {
@@ -2,8 +2,8 @@ package com.ainovel.server.service.impl.content.providers;
 
 import com.ainovel.server.service.impl.content.ContentProvider;
 import com.ainovel.server.service.impl.content.ContentResult;
+import com.ainovel.server.service.impl.content.RequestContextLoader;
 import com.ainovel.server.web.dto.request.UniversalAIRequestDto;
-import com.ainovel.server.service.NovelSettingService;
 import com.ainovel.server.common.util.PromptXmlFormatter;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,7 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 public class SettingProvider implements ContentProvider {
 
     @Autowired
-    private NovelSettingService novelSettingService;
+    private RequestContextLoader contextLoader;
 
     @Autowired
     private PromptXmlFormatter promptXmlFormatter;
@@ -31,9 +31,9 @@ public class SettingProvider implements ContentProvider {
         // 先判断是否为设定组
         if (id != null && (id.startsWith("setting_group_") || id.startsWith("setting_groups_"))) {
             String groupId = extractIdFromContextId(id);
-            return novelSettingService.getSettingGroupById(groupId)
+            return contextLoader.getSettingGroupById(groupId)
                     .flatMap(group -> Flux.fromIterable(group.getItemIds() != null ? group.getItemIds() : Collections.emptyList())
-                            .flatMap(novelSettingService::getSettingItemById)
+                            .flatMap(contextLoader::getSettingItemById)
                             // 设定组下隐藏UUID
                             .map(promptXmlFormatter::formatSettingWithoutId)
                             .collectList()
@@ -45,7 +45,7 @@ public class SettingProvider implements ContentProvider {
         // 按设定类型分组：id形如 type_xxx
         if (id != null && id.startsWith("type_")) {
             String type = id.substring("type_".length());
-            return novelSettingService.getNovelSettingItems(request.getNovelId(), type, null, null, null, null, org.springframework.data.domain.Pageable.unpaged())
+            return contextLoader.getSettingItemsByType(request.getNovelId(), type)
                     .map(promptXmlFormatter::formatSettingWithoutId)
                     .collectList()
                     .map(list -> String.join("\n", list))
@@ -55,7 +55,7 @@ public class SettingProvider implements ContentProvider {
 
         // 默认按单个设定项处理
         String settingId = extractIdFromContextId(id);
-        return novelSettingService.getSettingItemById(settingId)
+        return contextLoader.getSettingItemById(settingId)
                 .map(setting -> {
                     String content = promptXmlFormatter.formatSetting(setting);
                     String settingType = setting.getType() != null ? setting.getType().toLowerCase() : "setting";
@@ -78,7 +78,7 @@ public class SettingProvider implements ContentProvider {
         // 处理设定类型：id形如 type_xxx
         if (contentId != null && contentId.startsWith("type_")) {
             String type = contentId.substring("type_".length());
-            return novelSettingService.getNovelSettingItems(novelId, type, null, null, null, null, org.springframework.data.domain.Pageable.unpaged())
+            return contextLoader.getSettingItemsByType(novelId, type)
                     .map(promptXmlFormatter::formatSettingWithoutId)
                     .collectList()
                     .map(list -> String.join("\n", list));
@@ -90,15 +90,15 @@ public class SettingProvider implements ContentProvider {
             groupIdForLookup = extractIdFromContextId(groupIdForLookup);
         }
 
-        return novelSettingService.getSettingGroupById(groupIdForLookup)
+        return contextLoader.getSettingGroupById(groupIdForLookup)
                 .flatMap(group -> Flux.fromIterable(group.getItemIds() != null ? group.getItemIds() : Collections.emptyList())
-                        .flatMap(novelSettingService::getSettingItemById)
+                        .flatMap(contextLoader::getSettingItemById)
                         // 设定组下隐藏UUID
                         .map(promptXmlFormatter::formatSettingWithoutId)
                         .collectList()
                         .map(list -> String.join("\n", list)))
                 // 如果找不到设定组，则回退到单条设定
-                .switchIfEmpty(novelSettingService.getSettingItemById(contentId)
+                .switchIfEmpty(contextLoader.getSettingItemById(contentId)
                         .map(promptXmlFormatter::formatSetting))
                 .onErrorReturn("[设定内容获取失败]");
     }
@@ -110,7 +110,7 @@ public class SettingProvider implements ContentProvider {
         if (settingGroupId != null && !settingGroupId.isBlank()) {
             log.debug("获取设定组内容长度: settingGroupId={}", settingGroupId);
             
-            return novelSettingService.getSettingGroupById(settingGroupId)
+            return contextLoader.getSettingGroupById(settingGroupId)
                     .flatMap(group -> {
                         if (group.getItemIds() == null || group.getItemIds().isEmpty()) {
                             return Mono.just(0);
@@ -118,7 +118,7 @@ public class SettingProvider implements ContentProvider {
                         
                         // 获取该组下所有设定项的内容长度并累加
                         return Flux.fromIterable(group.getItemIds())
-                                .flatMap(itemId -> novelSettingService.getSettingItemById(itemId)
+                                .flatMap(itemId -> contextLoader.getSettingItemById(itemId)
                                         .map(setting -> {
                                             String description = setting.getDescription();
                                             
@@ -144,7 +144,7 @@ public class SettingProvider implements ContentProvider {
         if (settingId != null && !settingId.isBlank()) {
             log.debug("获取设定项内容长度: settingId={}", settingId);
             
-            return novelSettingService.getSettingItemById(settingId)
+            return contextLoader.getSettingItemById(settingId)
                     .map(setting -> {
                         String description = setting.getDescription();
                         
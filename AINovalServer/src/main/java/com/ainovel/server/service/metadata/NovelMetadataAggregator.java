@@ -0,0 +1,354 @@
+package com.ainovel.server.service.metadata;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * 小说字数元数据聚合器
+ *
+ * 场景写入只登记字数增量，按小说合并后在每个刷新周期以一次原子更新写入（$inc 语义的流水线更新），
+ * 自动保存风暴下每本小说每个周期最多一次写入，不再整本重算，也不再整文档覆盖小说。
+ * 无法得知增量的写入登记为待重算，同样合并到刷新周期。
+ * 增量可能因并发产生少量漂移，有写入的小说会在定时对账中按场景字数重新汇总。
+ *
+ * 同一本小说的增量写入与重算互斥，重算会吸收尚未写入的增量，避免同一变更既被重算计入又被累加。
+ * 小说首次有写入时在库中记录 metadata.dirtyAt，重算成功后清除；进程异常退出丢失的增量
+ * 由定时对账按长时间未清除的标记重算补齐。关闭时写入全部待写入的变更。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NovelMetadataAggregator {
+
+    /** 阅读速度：每分钟字数 */
+    private static final int WORDS_PER_MINUTE = 300;
+
+    /** 估计阅读时间表达式：不足一分钟按一分钟计 */
+    private static final Document READ_TIME_EXPRESSION = new Document("$cond", List.of(
+            new Document("$gt", List.of("$metadata.wordCount", 0)),
+            new Document("$max", List.of(1, new Document("$floor",
+                    new Document("$divide", List.of("$metadata.wordCount", WORDS_PER_MINUTE))))),
+            0));
+
+    /** 脏标记超过该时长仍未清除，视为登记它的节点已丢失增量，由任意节点重算 */
+    static final Duration STALE_DIRTY_AGE = Duration.ofHours(1);
+
+    /** 每轮对账最多处理的过期脏标记数 */
+    private static final int STALE_DIRTY_BATCH = 100;
+
+    /** 等待同一小说正在进行的写入完成：最多重试次数与间隔 */
+    private static final int ACQUIRE_ATTEMPTS = 100;
+    private static final Duration ACQUIRE_BACKOFF = Duration.ofMillis(20);
+
+    /** 关闭时写入待写入变更的最长等待时间 */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /** novelId -> 尚未写入的字数变更 */
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+    /** 上次对账以来有写入的小说 */
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+    /** 正在写入（增量或重算）的小说 */
+    private final Set<String> writing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 登记场景字数增量，在下个刷新周期合并写入
+     */
+    public void recordDelta(String novelId, int delta) {
+        if (!StringUtils.hasText(novelId)) {
+            return;
+        }
+        pending.compute(novelId, (id, update) -> (update != null ? update : PendingUpdate.EMPTY).plus(delta));
+        touch(novelId);
+    }
+
+    /**
+     * 登记整本重算（增量未知的写入），在下个刷新周期执行
+     */
+    public void requestReconcile(String novelId) {
+        if (!StringUtils.hasText(novelId)) {
+            return;
+        }
+        pending.compute(novelId, (id, update) -> (update != null ? update : PendingUpdate.EMPTY).withReconcile());
+        touch(novelId);
+    }
+
+    /**
+     * 待写入的小说数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 定期写入合并后的字数变更
+     */
+    @Scheduled(fixedDelayString = "${novel.metadata.flush-interval:PT2S}")
+    public void flushPendingUpdates() {
+        flushAll().subscribe();
+    }
+
+    /**
+     * 定期对账：按场景字数重新汇总上次对账以来有写入的小说
+     */
+    @Scheduled(fixedDelayString = "${novel.metadata.reconcile-interval:PT30M}")
+    public void reconcileTouchedNovels() {
+        reconcileTouched().subscribe();
+    }
+
+    /**
+     * 关闭前写入全部待写入的变更；未能写入的由库中的脏标记在之后对账
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            log.info("关闭前写入 {} 本小说的字数变更", pending.size());
+            try {
+                flushAll().block(SHUTDOWN_TIMEOUT);
+                if (!pending.isEmpty()) {
+                    // 仍有写入中的小说，等待其完成后再写入后续变更
+                    Thread.sleep(ACQUIRE_BACKOFF.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("关闭前写入小说字数失败: {}", e.getMessage());
+                break;
+            }
+        }
+    }
+
+    /**
+     * 写入全部待写入的变更
+     */
+    public Mono<Void> flushAll() {
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(new ArrayList<>(pending.keySet()))
+                .flatMap(this::flush, 8)
+                .then();
+    }
+
+    /**
+     * 对账上次对账以来有写入的小说，以及脏标记长时间未清除的小说；
+     * 仍有待写入或正在写入增量的留到下一轮，避免重复计入
+     */
+    public Mono<Void> reconcileTouched() {
+        List<String> novelIds = new ArrayList<>();
+        for (String novelId : new ArrayList<>(touched)) {
+            if (!pending.containsKey(novelId) && !writing.contains(novelId) && touched.remove(novelId)) {
+                novelIds.add(novelId);
+            }
+        }
+        return Flux.fromIterable(novelIds)
+                .concatWith(staleDirtyNovels())
+                .distinct()
+                .collectList()
+                .flatMap(ids -> {
+                    if (ids.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    log.info("对账小说字数: {} 本", ids.size());
+                    return Flux.fromIterable(ids)
+                            .flatMap(novelId -> reconcile(novelId, false)
+                                    .onErrorResume(e -> {
+                                        log.warn("对账小说 {} 字数失败: {}", novelId, e.getMessage());
+                                        return Mono.empty();
+                                    }), 4)
+                            .then();
+                });
+    }
+
+    /**
+     * 按场景字数重新汇总小说字数并原子写入
+     *
+     * 等待该小说正在进行的增量写入完成后执行；尚未写入的增量已反映在场景字数中，一并吸收
+     *
+     * @param novelId 小说ID
+     * @param touch 是否同时刷新最后编辑时间与更新时间（对账不改变小说的排序）
+     * @return 更新后的小说，小说不存在时为空
+     */
+    public Mono<Novel> reconcile(String novelId, boolean touch) {
+        return acquire(novelId)
+                .then(Mono.defer(() -> {
+                    PendingUpdate absorbed = pending.remove(novelId);
+                    if (absorbed != null) {
+                        log.debug("重算小说 {} 字数，吸收待写入增量 {}", novelId, absorbed.delta());
+                    }
+                    return release(novelId, recount(novelId, touch || (absorbed != null && absorbed.reconcile())));
+                }));
+    }
+
+    /**
+     * 重算并清除脏标记，调用方需已持有该小说的写入权
+     */
+    private Mono<Novel> recount(String novelId, boolean touch) {
+        touched.remove(novelId);
+        LocalDateTime startedAt = LocalDateTime.now();
+        // 只取场景字数，不加载正文
+        Query sceneQuery = Query.query(Criteria.where("novelId").is(novelId));
+        sceneQuery.fields().include("wordCount");
+        return reactiveMongoTemplate.find(sceneQuery, Scene.class)
+                .reduce(0, (sum, scene) -> sum + (scene.getWordCount() != null ? scene.getWordCount() : 0))
+                .flatMap(totalWordCount -> {
+                    Update update = new Update()
+                            .set("metadata.wordCount", totalWordCount)
+                            .set("metadata.readTime", readTime(totalWordCount));
+                    if (touch) {
+                        LocalDateTime now = LocalDateTime.now();
+                        update.set("metadata.lastEditedAt", now).set("updatedAt", now);
+                    }
+                    return reactiveMongoTemplate.findAndModify(
+                            Query.query(Criteria.where("id").is(novelId)), update,
+                            FindAndModifyOptions.options().returnNew(true), Novel.class);
+                })
+                .flatMap(novel -> clearDirty(novelId, startedAt).thenReturn(novel))
+                // 失败时保留脏标记，留待下一轮对账
+                .doOnError(e -> touched.add(novelId));
+    }
+
+    private Mono<Void> flush(String novelId) {
+        if (!writing.add(novelId)) {
+            // 重算或上一次写入仍在进行，变更留到下个周期
+            return Mono.empty();
+        }
+        PendingUpdate update = pending.remove(novelId);
+        if (update == null) {
+            writing.remove(novelId);
+            return Mono.empty();
+        }
+        Mono<?> write = update.reconcile() ? recount(novelId, true) : applyDelta(novelId, update.delta());
+        return release(novelId, write
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("写入小说 {} 字数失败，等待对账修正: {}", novelId, e.getMessage());
+                    touched.add(novelId);
+                    return Mono.empty();
+                }));
+    }
+
+    /**
+     * 写入结束时释放写入权；在结束信号传给下游之前释放，调用方收到完成后即可再次写入
+     */
+    private <T> Mono<T> release(String novelId, Mono<T> write) {
+        return write
+                .doOnTerminate(() -> writing.remove(novelId))
+                .doOnCancel(() -> writing.remove(novelId));
+    }
+
+    /**
+     * 获取小说的写入权，正在写入时短暂等待
+     */
+    private Mono<Void> acquire(String novelId) {
+        return Mono.defer(() -> writing.add(novelId)
+                        ? Mono.<Void>empty()
+                        : Mono.<Void>error(new IllegalStateException("小说字数正在写入: " + novelId)))
+                .retryWhen(Retry.fixedDelay(ACQUIRE_ATTEMPTS, ACQUIRE_BACKOFF));
+    }
+
+    /**
+     * 登记有写入的小说；本轮首次写入时在库中记录脏标记
+     */
+    private void touch(String novelId) {
+        if (touched.add(novelId)) {
+            reactiveMongoTemplate.updateFirst(Query.query(Criteria.where("id").is(novelId)),
+                            new Update().set("metadata.dirtyAt", LocalDateTime.now()), Novel.class)
+                    .subscribe(result -> { }, e -> log.warn("记录小说 {} 脏标记失败: {}", novelId, e.getMessage()));
+        }
+    }
+
+    /**
+     * 清除重算开始前记录的脏标记；重算期间新记录的标记保留
+     */
+    private Mono<?> clearDirty(String novelId, LocalDateTime startedAt) {
+        return reactiveMongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(novelId).and("metadata.dirtyAt").lte(startedAt)),
+                new Update().unset("metadata.dirtyAt"), Novel.class);
+    }
+
+    /**
+     * 脏标记长时间未清除、且不在本节点处理中的小说
+     */
+    private Flux<String> staleDirtyNovels() {
+        Query query = Query.query(Criteria.where("metadata.dirtyAt").lt(LocalDateTime.now().minus(STALE_DIRTY_AGE)))
+                .limit(STALE_DIRTY_BATCH);
+        query.fields().include("id");
+        return reactiveMongoTemplate.find(query, Novel.class)
+                .map(Novel::getId)
+                .filter(novelId -> !pending.containsKey(novelId) && !writing.contains(novelId))
+                .onErrorResume(e -> {
+                    log.warn("查询过期脏标记失败: {}", e.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * 以流水线更新原子累加字数（不小于 0），并重算阅读时间
+     */
+    private Mono<?> applyDelta(String novelId, long delta) {
+        Document wordCount = new Document("$max", List.of(0, new Document("$add",
+                List.of(new Document("$ifNull", List.of("$metadata.wordCount", 0)), delta))));
+        List<AggregationOperation> stages = List.of(
+                context -> new Document("$set", new Document("metadata.wordCount", wordCount)
+                        .append("metadata.lastEditedAt", "$$NOW")
+                        .append("updatedAt", "$$NOW")),
+                context -> new Document("$set", new Document("metadata.readTime", READ_TIME_EXPRESSION)));
+        return reactiveMongoTemplate.updateFirst(Query.query(Criteria.where("id").is(novelId)),
+                AggregationUpdate.from(stages), Novel.class);
+    }
+
+    static int readTime(int wordCount) {
+        int readTime = wordCount / WORDS_PER_MINUTE;
+        if (readTime < 1 && wordCount > 0) {
+            readTime = 1; // 最小阅读时间为1分钟
+        }
+        return readTime;
+    }
+
+    /**
+     * 合并后的字数变更
+     */
+    record PendingUpdate(long delta, boolean reconcile) {
+
+        static final PendingUpdate EMPTY = new PendingUpdate(0, false);
+
+        PendingUpdate plus(int value) {
+            return new PendingUpdate(delta + value, reconcile);
+        }
+
+        PendingUpdate withReconcile() {
+            return new PendingUpdate(delta, true);
+        }
+    }
+}
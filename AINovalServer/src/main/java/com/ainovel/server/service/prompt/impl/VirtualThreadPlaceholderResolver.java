@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 import jakarta.annotation.PreDestroy;
 
 import java.util.Map;
@@ -159,10 +161,21 @@ public class VirtualThreadPlaceholderResolver {
             String novelId, 
             Map<String, Object> parameters) {
             
+        // 虚拟线程中的 block() 不会继承订阅方的 Reactor Context，需显式传递（请求级上下文会话等）
+        return Mono.deferContextual(contextView -> resolveAllPlaceholdersParallel(placeholders, userId, novelId, parameters, contextView));
+    }
+
+    private Mono<Map<String, String>> resolveAllPlaceholdersParallel(
+            List<PlaceholderInfo> placeholders, 
+            String userId, 
+            String novelId, 
+            Map<String, Object> parameters,
+            ContextView contextView) {
+
         // 使用虚拟线程并行处理所有占位符
         List<CompletableFuture<Map.Entry<String, String>>> futures = placeholders.stream()
                 .map(placeholder -> CompletableFuture
-                        .supplyAsync(() -> resolveSinglePlaceholder(placeholder, userId, novelId, parameters), VIRTUAL_EXECUTOR)
+                        .supplyAsync(() -> resolveSinglePlaceholder(placeholder, userId, novelId, parameters, contextView), VIRTUAL_EXECUTOR)
                         .exceptionally(throwable -> {
                             log.error("占位符解析失败: {}", placeholder.getFullPlaceholder(), throwable);
                             return Map.entry(placeholder.getFullPlaceholder(), "[内容获取失败]");
@@ -195,7 +208,8 @@ public class VirtualThreadPlaceholderResolver {
             PlaceholderInfo placeholder, 
             String userId, 
             String novelId, 
-            Map<String, Object> parameters) {
+            Map<String, Object> parameters,
+            ContextView contextView) {
 
         String cacheKey = generateCacheKey(placeholder, userId, novelId);
         
@@ -222,6 +236,7 @@ public class VirtualThreadPlaceholderResolver {
             String content = providerOptional.get()
                     .getContentForPlaceholder(userId, novelId, contentId, parameters)
                     .onErrorReturn("[内容获取失败: " + placeholder.getType() + "]")
+                    .contextWrite(Context.of(contextView))
                     .block(); // 在虚拟线程中阻塞是安全的
 
             // 缓存结果
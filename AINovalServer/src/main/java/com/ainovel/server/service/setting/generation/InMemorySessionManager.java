@@ -1,48 +1,107 @@
 package com.ainovel.server.service.setting.generation;
 
+import com.ainovel.server.config.SettingGenerationSessionProperties;
 import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
 import com.ainovel.server.domain.model.setting.generation.SettingNode;
+import com.ainovel.server.service.setting.generation.cluster.GenerationEventBus;
+import com.ainovel.server.service.setting.generation.cluster.LocalSessionStore;
+import com.ainovel.server.service.setting.generation.cluster.MongoSessionStore;
+import com.ainovel.server.service.setting.generation.cluster.SessionStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 内存会话管理器
- * 在内存中管理设定生成会话
+ * 设定生成会话管理器
+ *
+ * 会话保存在有上限的本地缓存中（按最近最少使用淘汰），
+ * setting.generation.session.store=mongo 时同时写入 MongoDB，本地未命中时从库中加载，任意节点都能接续会话：
+ * - 普通修改先标记为待写回，按 flush-interval 批量写回；状态变化、错误与新建会话立即写回
+ * - 写回后通过事件总线通知其他节点丢弃旧副本
+ * - 会话元数据中的运行期对象（如策略适配器）不写入存储，从库中加载的会话会缺少这些对象
  */
 @Slf4j
 @Service
 public class InMemorySessionManager {
-    
-    private final Map<String, SettingGenerationSession> sessions = new ConcurrentHashMap<>();
-    
+
+    private static final String INVALIDATION_TOPIC = "sessions";
+
+    private final SettingGenerationSessionProperties properties;
+    private final SessionStore store;
+    private final GenerationEventBus eventBus;
+    private final String nodeId;
+    private final Cache<String, SettingGenerationSession> sessions;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public InMemorySessionManager(SettingGenerationSessionProperties properties, ReactiveMongoTemplate mongoTemplate,
+                                  GenerationEventBus eventBus) {
+        this(properties,
+                properties.getStore() == SettingGenerationSessionProperties.Store.MONGO
+                        ? new MongoSessionStore(mongoTemplate, GenerationEventBus.LOCAL_NODE_ID)
+                        : new LocalSessionStore(),
+                eventBus, GenerationEventBus.LOCAL_NODE_ID);
+    }
+
+    InMemorySessionManager(SettingGenerationSessionProperties properties, SessionStore store,
+                           GenerationEventBus eventBus, String nodeId) {
+        this.properties = properties;
+        this.store = store;
+        this.eventBus = eventBus;
+        this.nodeId = nodeId;
+        // 不共享存储时缓存是唯一副本，空闲回收时间与会话有效期一致
+        this.sessions = Caffeine.newBuilder()
+            .maximumSize(properties.getLocalMaxSessions())
+            .expireAfterAccess(store.isShared() ? properties.getLocalIdleTimeout() : properties.getTtl())
+            .<String, SettingGenerationSession>removalListener((sessionId, session, cause) -> {
+                if (cause.wasEvicted() && sessionId != null && session != null && dirty.remove(sessionId)) {
+                    store.save(session).subscribe(null,
+                        e -> log.warn("Failed to persist evicted session {}: {}", sessionId, e.getMessage()));
+                }
+            })
+            .build();
+        if (eventBus.isDistributed() && store.isShared()) {
+            eventBus.listen(INVALIDATION_TOPIC).subscribe(this::onInvalidation,
+                e -> log.warn("Session invalidation subscription terminated: {}", e.getMessage()));
+        }
+        log.info("Setting generation session manager initialized: store={}, eventBus={}, localMaxSessions={}",
+            properties.getStore(), properties.getEventBus(), properties.getLocalMaxSessions());
+    }
+
     /**
      * 创建新会话
      */
-    public Mono<SettingGenerationSession> createSession(String userId, String novelId, 
+    public Mono<SettingGenerationSession> createSession(String userId, String novelId,
                                                        String initialPrompt, String strategy) {
         return createSession(userId, novelId, initialPrompt, strategy, null);
     }
-    
+
     /**
      * 创建新会话（支持promptTemplateId）
      */
-    public Mono<SettingGenerationSession> createSession(String userId, String novelId, 
+    public Mono<SettingGenerationSession> createSession(String userId, String novelId,
                                                        String initialPrompt, String strategy, String promptTemplateId) {
         return createSession(null, userId, novelId, initialPrompt, strategy, promptTemplateId);
     }
-    
+
     /**
      * 创建新会话（支持前端传入sessionId）
      * @param sessionId 前端生成的sessionId（可选，如果为null则后端自动生成UUID）
      */
-    public Mono<SettingGenerationSession> createSession(String sessionId, String userId, String novelId, 
+    public Mono<SettingGenerationSession> createSession(String sessionId, String userId, String novelId,
                                                        String initialPrompt, String strategy, String promptTemplateId) {
         // 如果前端没有提供sessionId，则后端生成
         if (sessionId == null || sessionId.isBlank()) {
@@ -51,9 +110,9 @@ public class InMemorySessionManager {
         } else {
             log.info("使用前端提供的sessionId: {}", sessionId);
         }
-        
+
         LocalDateTime now = LocalDateTime.now();
-        
+
         SettingGenerationSession session = SettingGenerationSession.builder()
             .sessionId(sessionId)
             .userId(userId)
@@ -64,37 +123,37 @@ public class InMemorySessionManager {
             .status(SettingGenerationSession.SessionStatus.INITIALIZING)
             .createdAt(now)
             .updatedAt(now)
-            .expiresAt(now.plusHours(24))
+            .expiresAt(now.plus(properties.getTtl()))
             .build();
-        
-        sessions.put(sessionId, session);
-        log.info("Created session: {} for user: {}, strategy: {}, templateId: {}", 
+
+        put(session);
+        log.info("Created session: {} for user: {}, strategy: {}, templateId: {}",
             sessionId, userId, strategy, promptTemplateId);
-        
-        return Mono.just(session);
+
+        return flush(session).thenReturn(session);
     }
-    
+
     /**
      * 创建会话（基于历史记录数据）
      */
     public Mono<SettingGenerationSession> createSessionFromHistoryData(
-            String sessionId, String userId, String novelId, String initialPrompt, 
+            String sessionId, String userId, String novelId, String initialPrompt,
             String strategy, Map<String, SettingNode> nodes, java.util.List<String> rootNodeIds) {
-        return createSessionFromHistoryData(sessionId, userId, novelId, initialPrompt, 
+        return createSessionFromHistoryData(sessionId, userId, novelId, initialPrompt,
             strategy, nodes, rootNodeIds, null);
     }
-    
+
     /**
      * 创建会话（基于历史记录数据，支持promptTemplateId）
      */
     public Mono<SettingGenerationSession> createSessionFromHistoryData(
-            String sessionId, String userId, String novelId, String initialPrompt, 
-            String strategy, Map<String, SettingNode> nodes, java.util.List<String> rootNodeIds, 
+            String sessionId, String userId, String novelId, String initialPrompt,
+            String strategy, Map<String, SettingNode> nodes, java.util.List<String> rootNodeIds,
             String promptTemplateId) {
         log.info("Attempting to create session from history: {}", sessionId);
-        
+
         LocalDateTime now = LocalDateTime.now();
-        
+
         SettingGenerationSession session = SettingGenerationSession.builder()
             .sessionId(sessionId)
             .userId(userId)
@@ -109,57 +168,62 @@ public class InMemorySessionManager {
             .rootNodeIds(rootNodeIds)
             .createdAt(now)
             .updatedAt(now)
-            .expiresAt(now.plusHours(24))
+            .expiresAt(now.plus(properties.getTtl()))
             .build();
-        
-        sessions.put(sessionId, session);
-        log.info("Created session from history data: {} for user: {}, nodes: {}, templateId: {}", 
+
+        put(session);
+        log.info("Created session from history data: {} for user: {}, nodes: {}, templateId: {}",
             sessionId, userId, nodes.size(), promptTemplateId);
-        
-        return Mono.just(session);
+
+        return flush(session).thenReturn(session);
     }
-    
+
     /**
      * 获取会话
+     * 本地缓存未命中时从存储加载
      */
     public Mono<SettingGenerationSession> getSession(String sessionId) {
-        SettingGenerationSession session = sessions.get(sessionId);
-        if (session == null) {
+        if (sessionId == null) {
             return Mono.empty();
         }
-        
-        // 检查是否过期
-        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
-            sessions.remove(sessionId);
-            log.info("Session expired and removed: {}", sessionId);
-            return Mono.empty();
-        }
-        log.debug("Session found: {}", sessionId); // 降级为DEBUG，避免频繁日志
-        
-        return Mono.just(session);
+        SettingGenerationSession cached = sessions.getIfPresent(sessionId);
+        Mono<SettingGenerationSession> source = cached != null ? Mono.just(cached) : load(sessionId);
+        return source.flatMap(session -> {
+            // 检查是否过期
+            if (session.getExpiresAt() != null && session.getExpiresAt().isBefore(LocalDateTime.now())) {
+                sessions.invalidate(sessionId);
+                dirty.remove(sessionId);
+                log.info("Session expired and removed: {}", sessionId);
+                return store.delete(sessionId).onErrorResume(e -> Mono.empty()).then(Mono.empty());
+            }
+            log.debug("Session found: {}", sessionId); // 降级为DEBUG，避免频繁日志
+            return Mono.just(session);
+        });
     }
-    
+
     /**
      * 保存会话
+     * 本地立即生效，存储按批量间隔写回
      */
     public Mono<SettingGenerationSession> saveSession(SettingGenerationSession session) {
         session.setUpdatedAt(LocalDateTime.now());
-        sessions.put(session.getSessionId(), session);
+        put(session);
         return Mono.just(session);
     }
-    
+
     /**
      * 更新会话状态
      */
-    public Mono<SettingGenerationSession> updateSessionStatus(String sessionId, 
+    public Mono<SettingGenerationSession> updateSessionStatus(String sessionId,
                                                             SettingGenerationSession.SessionStatus status) {
         return getSession(sessionId)
             .flatMap(session -> {
                 session.setStatus(status);
                 return saveSession(session);
-            });
+            })
+            .flatMap(session -> flush(session).thenReturn(session));
     }
-    
+
     /**
      * 添加节点到会话
      */
@@ -170,7 +234,7 @@ public class InMemorySessionManager {
                 return saveSession(session);
             });
     }
-    
+
     /**
      * 从会话中删除节点
      */
@@ -181,7 +245,7 @@ public class InMemorySessionManager {
                 return saveSession(session);
             });
     }
-    
+
     /**
      * 设置错误信息
      */
@@ -191,25 +255,48 @@ public class InMemorySessionManager {
                 session.setStatus(SettingGenerationSession.SessionStatus.ERROR);
                 session.setErrorMessage(errorMessage);
                 return saveSession(session);
-            });
+            })
+            .flatMap(session -> flush(session).thenReturn(session));
     }
-    
+
     /**
      * 删除会话
      */
     public Mono<Void> deleteSession(String sessionId) {
-        sessions.remove(sessionId);
+        sessions.invalidate(sessionId);
+        dirty.remove(sessionId);
         log.info("Deleted session: {}", sessionId);
-        return Mono.empty();
+        return store.delete(sessionId)
+            .then(publishInvalidation(sessionId));
     }
-    
+
     /**
-     * 获取所有活跃会话数
+     * 获取本节点缓存的会话数
      */
     public int getActiveSessionCount() {
-        return sessions.size();
+        return (int) sessions.estimatedSize();
+    }
+
+    /**
+     * 批量写回待写回的会话
+     */
+    @Scheduled(fixedDelayString = "${setting.generation.session.flush-interval:PT1S}")
+    public void flushDirtySessions() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Flux.fromIterable(new ArrayList<>(dirty))
+            .flatMap(sessionId -> {
+                SettingGenerationSession session = sessions.getIfPresent(sessionId);
+                if (session == null) {
+                    dirty.remove(sessionId);
+                    return Mono.<Void>empty();
+                }
+                return flush(session);
+            }, 8)
+            .subscribe();
     }
-    
+
     /**
      * 定期清理过期会话
      */
@@ -217,16 +304,83 @@ public class InMemorySessionManager {
     public void cleanupExpiredSessions() {
         LocalDateTime now = LocalDateTime.now();
         int removedCount = 0;
-        
-        for (Map.Entry<String, SettingGenerationSession> entry : sessions.entrySet()) {
+
+        for (Map.Entry<String, SettingGenerationSession> entry : sessions.asMap().entrySet()) {
             if (entry.getValue().getExpiresAt().isBefore(now)) {
-                sessions.remove(entry.getKey());
+                sessions.invalidate(entry.getKey());
+                dirty.remove(entry.getKey());
                 removedCount++;
             }
         }
-        
+
         if (removedCount > 0) {
             log.info("Cleaned up {} expired sessions", removedCount);
         }
     }
-}
\ No newline at end of file
+
+    private void put(SettingGenerationSession session) {
+        sessions.put(session.getSessionId(), session);
+        if (store.isShared()) {
+            dirty.add(session.getSessionId());
+        }
+    }
+
+    /**
+     * 本地未命中时从存储加载；并发加载同一会话时保留先放入缓存的实例
+     */
+    private Mono<SettingGenerationSession> load(String sessionId) {
+        if (!store.isShared()) {
+            return Mono.empty();
+        }
+        return store.load(sessionId)
+            .map(loaded -> {
+                SettingGenerationSession existing = sessions.asMap().putIfAbsent(sessionId, loaded);
+                if (existing == null) {
+                    log.info("Loaded session {} from store", sessionId);
+                }
+                return existing != null ? existing : loaded;
+            })
+            .onErrorResume(e -> {
+                log.warn("Failed to load session {} from store: {}", sessionId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 立即写回单个会话，失败时保留待写回标记等待下次批量写回
+     */
+    private Mono<Void> flush(SettingGenerationSession session) {
+        String sessionId = session.getSessionId();
+        if (!store.isShared() || !dirty.remove(sessionId)) {
+            return Mono.empty();
+        }
+        return store.save(session)
+            .then(publishInvalidation(sessionId))
+            .onErrorResume(e -> {
+                dirty.add(sessionId);
+                log.warn("Failed to persist session {}: {}", sessionId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> publishInvalidation(String sessionId) {
+        if (!eventBus.isDistributed() || !store.isShared()) {
+            return Mono.empty();
+        }
+        return eventBus.publish(INVALIDATION_TOPIC, nodeId + "|" + sessionId);
+    }
+
+    /**
+     * 其他节点写回会话后丢弃本地副本，下次读取时重新加载；本地有未写回的修改时保留本地副本
+     */
+    private void onInvalidation(String message) {
+        int separator = message.indexOf('|');
+        if (separator <= 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String sessionId = message.substring(separator + 1);
+        if (!dirty.contains(sessionId)) {
+            sessions.invalidate(sessionId);
+        }
+    }
+}
@@ -27,7 +27,6 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
@@ -48,6 +47,9 @@ import java.util.stream.Collectors;
 @SuppressWarnings({"unused"})
 public class SettingGenerationService implements ISettingGenerationService {
     
+    /** 工具上下文中批量创建工具的键，用于在循环结束时取出未落地的暂存节点 */
+    private static final String BATCH_CREATE_TOOL_KEY = "batchCreateTool";
+
     private final InMemorySessionManager sessionManager;
     private final SettingValidationService validationService;
     private final StructuredSettingOutputValidator structuredOutputValidator;
@@ -83,14 +85,20 @@ public class SettingGenerationService implements ISettingGenerationService {
     @Value("${setting.generation.text-phase.iterations:3}")
     private int textPhaseIterations;
     
-    // 存储每个会话的事件发射器
-    private final Map<String, Sinks.Many<SettingGenerationEvent>> eventSinks = new ConcurrentHashMap<>();
+    // 会话事件流（有界重放，可跨节点转发）
+    private final com.ainovel.server.service.setting.generation.cluster.SettingGenerationEventHub eventHub;
 
     // 增加会话锁，防止并发修改
     private final Map<String, Object> sessionLocks = new ConcurrentHashMap<>();
     // 生成完成过程的并发防抖标记
     private final java.util.Set<String> completingSessions = java.util.Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
-    private final java.util.Set<String> completedSessions = java.util.Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
+    // 已完成标记只需覆盖迟到的重复完成请求，按时间回收，避免随会话数无限增长
+    private final java.util.Set<String> completedSessions = java.util.Collections.newSetFromMap(
+            com.github.benmanes.caffeine.cache.Caffeine.newBuilder()
+                    .expireAfterWrite(java.time.Duration.ofHours(1))
+                    .maximumSize(10_000)
+                    .<String, Boolean>build()
+                    .asMap());
 
     // 在途工具编排任务：按会话跟踪 taskId -> 启动时间戳
     private final Map<String, java.util.concurrent.ConcurrentHashMap<String, Long>> inFlightTasks = new ConcurrentHashMap<>();
@@ -132,9 +140,8 @@ public class SettingGenerationService implements ISettingGenerationService {
                                 session.getMetadata().put("modelConfigId", modelConfigId);
                                 session.getMetadata().put("strategyAdapter", strategyAdapter);
                                 
-                                // 创建事件流（缓存所有事件，支持大量节点）
-                                Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                                eventSinks.put(session.getSessionId(), sink);
+                                // 创建事件流（保留最近事件用于重放，更早的由设定树快照补齐）
+                                eventHub.open(session.getSessionId());
                                 
                                 // 发送开始事件
                                 emitEvent(session.getSessionId(), new SettingGenerationEvent.SessionStartedEvent(
@@ -197,9 +204,8 @@ public class SettingGenerationService implements ISettingGenerationService {
                     .orElse(Mono.error(new IllegalArgumentException("Cannot create strategy from template: " + promptTemplateId)))
                     .flatMap(strategyAdapter -> sessionManager.createSession(userId, novelId, initialPrompt, strategyAdapter.getStrategyId(), promptTemplateId)
                         .flatMap(session -> {
-                            // 事件流（缓存所有事件，支持大量节点）
-                            Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                            eventSinks.put(session.getSessionId(), sink);
+                            // 事件流（保留最近事件用于重放，更早的由设定树快照补齐）
+                            eventHub.open(session.getSessionId());
                             emitEvent(session.getSessionId(), new SettingGenerationEvent.SessionStartedEvent(initialPrompt, strategyAdapter.getStrategyId()));
 
                             // 设定生成遵循"前端先独立预估→用户确认→开始生成"，后端不再内嵌预估事件
@@ -1217,6 +1223,7 @@ public class SettingGenerationService implements ISettingGenerationService {
                     })
                     .flatMap(history -> {
                         // 完成后标记完成
+                        reportUnresolvedNodes(session.getSessionId(), context);
                         markGenerationComplete(session.getSessionId(), "Adjustment completed");
                         return Mono.empty();
                     })
@@ -1316,16 +1323,13 @@ public class SettingGenerationService implements ISettingGenerationService {
     
     @Override
     public Flux<SettingGenerationEvent> getGenerationEventStream(String sessionId) {
-        Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(sessionId);
-        if (sink == null) {
+        if (!eventHub.contains(sessionId)) {
             // 为修改操作或其他情况创建新的事件流
             log.info("Creating new event stream for session: {}", sessionId);
-            sink = Sinks.many().replay().all();
-            eventSinks.put(sessionId, sink);
         }
         
-        // 核心事件流：来自会话sink
-        reactor.core.publisher.Flux<SettingGenerationEvent> core = sink.asFlux()
+        // 核心事件流：来自会话事件流（早期事件已淘汰或会话在其他节点生成时先推送设定树快照）
+        reactor.core.publisher.Flux<SettingGenerationEvent> core = eventHub.stream(sessionId, sessionManager.getSession(sessionId))
             // 订阅即推送一条就绪事件（补全必要字段）
             .startWith(buildProgressEvent(sessionId, "STREAM_READY"));
 
@@ -1358,24 +1362,21 @@ public class SettingGenerationService implements ISettingGenerationService {
  */
 @Override
 public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId) {
-    Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(sessionId);
-    if (sink == null) {
+    if (!eventHub.contains(sessionId)) {
         // 为修改操作创建新的事件流
         log.info("Creating new modification event stream for session: {}", sessionId);
-        sink = Sinks.many().replay().all();
-        eventSinks.put(sessionId, sink);
     }
     
-    return sink.asFlux()
+    return eventHub.stream(sessionId, sessionManager.getSession(sessionId))
         .doOnCancel(() -> {
             log.info("Modification event stream cancelled for session: {}", sessionId);
             // 只清理事件流，不删除session
-            eventSinks.remove(sessionId);
+            eventHub.remove(sessionId);
         })
         .doOnTerminate(() -> {
             log.info("Modification event stream terminated for session: {}", sessionId);
             // 只清理事件流，不删除session，保持session用于后续操作
-            eventSinks.remove(sessionId);
+            eventHub.remove(sessionId);
         });
 }
     
@@ -1391,10 +1392,9 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
             log.info("Starting node modification for session: {}", sessionId);
             
             // 确保事件流提前创建，以便在任何阶段都能发送错误事件
-            if (!eventSinks.containsKey(sessionId)) {
+            if (!eventHub.contains(sessionId)) {
                 log.info("Creating new event stream for modification on session: {}", sessionId);
-                Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                eventSinks.put(sessionId, sink);
+                eventHub.ensure(sessionId);
             }
             
             // 步骤 1: 优先从内存中获取会话
@@ -1419,10 +1419,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                     emitEvent(sessionId, errorEvent);
                     
                     // 完成事件流
-                    Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(sessionId);
-                    if (sink != null) {
-                        sink.tryEmitComplete();
-                    }
+                    eventHub.complete(sessionId);
                     
                     return Mono.error(new IllegalArgumentException("会话已过期或不存在: " + sessionId + " - 原因: " + error.getMessage()));
                 })
@@ -1445,10 +1442,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                         emitEvent(sessionId, errorEvent);
                         
                         // 完成事件流
-                        Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(sessionId);
-                        if (sink != null) {
-                            sink.tryEmitComplete();
-                        }
+                        eventHub.complete(sessionId);
                         
                         return Mono.error(new IllegalArgumentException("Node not found: " + nodeId));
                     }
@@ -1760,9 +1754,8 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                 session.setFromExistingHistory(true);
                 session.setSourceHistoryId(historyId);
                 
-                // 创建事件流（缓存所有事件，支持大量节点）
-                Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                eventSinks.put(session.getSessionId(), sink);
+                // 创建事件流（保留最近事件用于重放，更早的由设定树快照补齐）
+                eventHub.open(session.getSessionId());
                 
                 // 发送会话创建事件
                 emitEvent(session.getSessionId(), new SettingGenerationEvent.SessionStartedEvent(
@@ -2016,6 +2009,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                             30
                         )
                     .flatMap(conversationHistory -> {
+                        reportUnresolvedNodes(session.getSessionId(), context);
                         if (session.getStatus() != SettingGenerationSession.SessionStatus.COMPLETED) {
                             markGenerationComplete(session.getSessionId(), "Generation completed");
                         }
@@ -2314,6 +2308,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                     // ✅ 成功路径自动发送完成事件并结束事件流
                     .then(Mono.fromRunnable(() -> {
                         log.info("Auto-completing modification for session {}", session.getSessionId());
+                        reportUnresolvedNodes(session.getSessionId(), context);
                         SettingGenerationEvent.GenerationCompletedEvent event = 
                             new SettingGenerationEvent.GenerationCompletedEvent(
                                 session.getGeneratedNodes().size(),
@@ -2321,10 +2316,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                                 "MODIFICATION_SUCCESS"
                             );
                         emitEvent(session.getSessionId(), event);
-                        Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(session.getSessionId());
-                        if (sink != null) {
-                            sink.tryEmitComplete();
-                        }
+                        eventHub.complete(session.getSessionId());
                     }))
                     .doFinally(signalType -> {
                         // 确保在所有情况下都清理工具上下文
@@ -2428,6 +2420,18 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
         return context;
     }
     
+    /**
+     * 同一会话的节点校验与写入串行执行（会话节点表非线程安全），供并发的批量创建调用共用
+     */
+    private static CreateSettingNodeTool.SettingNodeHandler sessionScoped(SettingGenerationSession session,
+                                                                          CreateSettingNodeTool.SettingNodeHandler handler) {
+        return node -> {
+            synchronized (session) {
+                return handler.handleNodeCreation(node);
+            }
+        };
+    }
+    
     /**
      * 注册生成工具（更新版本）
      */
@@ -2477,8 +2481,29 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
         };
         
         // 注册工具（不再注册"生成完成"工具，避免触发额外一次模型调用）
-        context.registerTool(new CreateSettingNodeTool(nodeHandler));
-        context.registerTool(new BatchCreateNodesTool(nodeHandler, crossBatchTempIdMap));
+        context.registerTool(new CreateSettingNodeTool(sessionScoped(session, nodeHandler)));
+        BatchCreateNodesTool batchCreateTool = new BatchCreateNodesTool(sessionScoped(session, nodeHandler), crossBatchTempIdMap,
+            nodeId -> {
+                synchronized (session) {
+                    return session.getGeneratedNodes().containsKey(nodeId);
+                }
+            });
+        context.registerTool(batchCreateTool);
+        context.setData(BATCH_CREATE_TOOL_KEY, batchCreateTool);
+    }
+    
+    /**
+     * 本轮工具循环结束时报告父节点始终未被创建的暂存节点，这些节点不会再落地
+     */
+    private void reportUnresolvedNodes(String sessionId, ToolExecutionService.ToolCallContext context) {
+        if (!(context.getData(BATCH_CREATE_TOOL_KEY) instanceof BatchCreateNodesTool batchCreateTool)) {
+            return;
+        }
+        List<String> unresolved = batchCreateTool.drainUnresolved();
+        if (!unresolved.isEmpty()) {
+            emitErrorEvent(sessionId, "PARENT_NOT_FOUND",
+                "以下设定的父节点未被创建，已跳过: " + String.join("; ", unresolved), null, true);
+        }
     }
     
     /**
@@ -2585,8 +2610,15 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
         // };
 
         // 注册工具
-        context.registerTool(new CreateSettingNodeTool(nodeHandler));
-        context.registerTool(new BatchCreateNodesTool(nodeHandler, crossBatchTempIdMap));
+        context.registerTool(new CreateSettingNodeTool(sessionScoped(session, nodeHandler)));
+        BatchCreateNodesTool batchCreateTool = new BatchCreateNodesTool(sessionScoped(session, nodeHandler), crossBatchTempIdMap,
+            nodeId -> {
+                synchronized (session) {
+                    return session.getGeneratedNodes().containsKey(nodeId);
+                }
+            });
+        context.registerTool(batchCreateTool);
+        context.setData(BATCH_CREATE_TOOL_KEY, batchCreateTool);
         // 不再注册 MarkModificationCompleteTool，改为自动完成
     }
     
@@ -2655,10 +2687,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
         event.setSessionId(sessionId);
         event.setTimestamp(LocalDateTime.now());
         
-        Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(sessionId);
-        if (sink != null) {
-            sink.tryEmitNext(event);
-        }
+        eventHub.emit(sessionId, event);
     }
     
     /**
@@ -2711,10 +2740,7 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                 emitEvent(sessionId, event);
 
                 // 完成事件流
-                Sinks.Many<SettingGenerationEvent> sink = eventSinks.get(sessionId);
-                if (sink != null) {
-                    sink.tryEmitComplete();
-                }
+                eventHub.complete(sessionId);
 
                 // 生成完成后自动创建历史记录（兼容旧行为）
                 // 防御：若没有生成任何节点则跳过自动保存，避免生成空历史
@@ -2864,8 +2890,12 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
      * 清理会话资源
      */
     private void cleanupSession(String sessionId) {
-        eventSinks.remove(sessionId);
+        eventHub.remove(sessionId);
         sessionLocks.remove(sessionId);
+        // 完成标记由带过期时间的集合自行回收；已完成会话的在途任务记录一并移除
+        if (completedSessions.contains(sessionId)) {
+            inFlightTasks.remove(sessionId);
+        }
         log.debug("Cleaned up session: {}", sessionId);
     }
 
@@ -3282,9 +3312,8 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                                 return sessionManager.createSession(userId, novelId, initialPrompt, 
                                                                    strategyAdapter.getStrategyId(), promptTemplateId)
                                     .flatMap(session -> {
-                                        // 创建事件流（缓存所有事件，支持大量节点）
-                                        Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                                        eventSinks.put(session.getSessionId(), sink);
+                                        // 创建事件流（保留最近事件用于重放，更早的由设定树快照补齐）
+                                        eventHub.open(session.getSessionId());
                                         
                                         // 发送开始事件
                                         emitEvent(session.getSessionId(), new SettingGenerationEvent.SessionStartedEvent(
@@ -3830,9 +3859,8 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                                     
                                     log.info("[StructuredOutput-Reuse] 成功复用 {} 个设定节点", reuseNodes.size());
                                     
-                                    // 创建事件流sink并发送事件（缓存所有事件，支持大量节点）
-                                    Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                                    eventSinks.put(session.getSessionId(), sink);
+                                    // 创建事件流并发送事件
+                                    eventHub.open(session.getSessionId());
                                     
                                     // 发送节点创建事件
                                     for (SettingNode node : reuseNodes) {
@@ -3941,9 +3969,8 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                             session.getMetadata().put("mode", "STRUCTURED_OUTPUT");
                             session.getMetadata().put("maxIterations", iterations);
                             
-                            // 2️⃣ 创建事件流sink（缓存所有事件）
-                            Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                            eventSinks.put(session.getSessionId(), sink);
+                            // 2️⃣ 创建事件流
+                            eventHub.open(session.getSessionId());
                             
                             // 3️⃣ 添加复用节点并发送事件
                             if (!reuseSettings.isEmpty()) {
@@ -4031,9 +4058,8 @@ public Flux<SettingGenerationEvent> getModificationEventStream(String sessionId)
                                 session.getMetadata().put("mode", "STRUCTURED_OUTPUT");
                                 session.getMetadata().put("maxIterations", iterations);
                                 
-                                // 4. 创建事件流sink（必须在生成开始前创建，缓存所有事件）
-                                Sinks.Many<SettingGenerationEvent> sink = Sinks.many().replay().all();
-                                eventSinks.put(session.getSessionId(), sink);
+                                // 4. 创建事件流（必须在生成开始前创建）
+                                eventHub.open(session.getSessionId());
                                 
                                 // 5. 获取AI模型提供商并在后台异步执行生成
                                 novelAIService.getAIModelProviderByConfigId(userId, modelConfigId)
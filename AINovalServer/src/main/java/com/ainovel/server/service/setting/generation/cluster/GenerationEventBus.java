@@ -0,0 +1,46 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 设定生成事件总线，在节点之间转发会话事件与会话失效通知
+ */
+public interface GenerationEventBus {
+
+    /**
+     * 本进程的节点标识，用于过滤自己发布的消息
+     */
+    String LOCAL_NODE_ID = nodeId();
+
+    /**
+     * 是否跨节点分发；为 false 时调用方可跳过序列化与发布
+     */
+    boolean isDistributed();
+
+    /**
+     * 发布消息
+     *
+     * @param topic 主题（不含频道前缀）
+     * @param payload 消息内容
+     */
+    Mono<Void> publish(String topic, String payload);
+
+    /**
+     * 订阅主题，取消订阅即退订
+     */
+    Flux<String> listen(String topic);
+
+    private static String nodeId() {
+        String hostname;
+        try {
+            hostname = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            hostname = "unknown";
+        }
+        return hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 进程内事件总线
+ *
+ * 单节点部署时使用：消息只在本进程内分发，发布方通过节点标识过滤掉自己的消息，
+ * 因此对会话事件而言等同于不转发。
+ */
+public class LocalGenerationEventBus implements GenerationEventBus {
+
+    private final ConcurrentMap<String, Sinks.Many<String>> topics = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+
+    @Override
+    public Mono<Void> publish(String topic, String payload) {
+        return Mono.fromRunnable(() -> {
+            Sinks.Many<String> sink = topics.get(topic);
+            if (sink != null) {
+                sink.emitNext(payload, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            }
+        });
+    }
+
+    @Override
+    public Flux<String> listen(String topic) {
+        return topics.computeIfAbsent(topic, key -> Sinks.many().multicast().directBestEffort()).asFlux();
+    }
+}
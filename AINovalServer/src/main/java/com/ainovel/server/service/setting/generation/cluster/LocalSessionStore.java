@@ -0,0 +1,31 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 本节点存储：会话只保存在内存缓存中，不做持久化
+ */
+public class LocalSessionStore implements SessionStore {
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public Mono<SettingGenerationSession> load(String sessionId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> save(SettingGenerationSession session) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> delete(String sessionId) {
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,115 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.ainovel.server.domain.model.setting.generation.PersistedGenerationSession;
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于 MongoDB 的会话存储
+ *
+ * 每个会话一个文档，按会话ID整体覆盖写入；过期时间建有 TTL 索引，过期会话由 MongoDB 自动删除。
+ * 会话元数据中的运行期对象（如策略适配器）不写入，只保留字符串、数字、布尔及其集合，
+ * 从库中加载的会话在需要时由调用方重新构建这些对象。
+ */
+public class MongoSessionStore implements SessionStore {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final String holder;
+
+    public MongoSessionStore(ReactiveMongoTemplate mongoTemplate, String holder) {
+        this.mongoTemplate = mongoTemplate;
+        this.holder = holder;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public Mono<SettingGenerationSession> load(String sessionId) {
+        return mongoTemplate.findById(sessionId, PersistedGenerationSession.class)
+                .mapNotNull(PersistedGenerationSession::getSession);
+    }
+
+    @Override
+    public Mono<Void> save(SettingGenerationSession session) {
+        return Mono.defer(() -> {
+            LocalDateTime expiresAt = session.getExpiresAt() != null ? session.getExpiresAt() : LocalDateTime.now().plusHours(24);
+            PersistedGenerationSession document = PersistedGenerationSession.builder()
+                    .id(session.getSessionId())
+                    .session(persistable(session))
+                    .writtenBy(holder)
+                    .expiresAt(expiresAt.atZone(ZoneId.systemDefault()).toInstant())
+                    .build();
+            return mongoTemplate.save(document).then();
+        });
+    }
+
+    @Override
+    public Mono<Void> delete(String sessionId) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(sessionId)), PersistedGenerationSession.class)
+                .then();
+    }
+
+    /**
+     * 复制会话并过滤元数据中无法持久化的值；节点与根节点列表在复制时拷贝，避免与生成线程并发修改
+     */
+    static SettingGenerationSession persistable(SettingGenerationSession session) {
+        Map<String, Object> metadata = new HashMap<>();
+        if (session.getMetadata() != null) {
+            for (Map.Entry<String, Object> entry : new ArrayList<>(session.getMetadata().entrySet())) {
+                if (isPlainValue(entry.getValue())) {
+                    metadata.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return SettingGenerationSession.builder()
+                .sessionId(session.getSessionId())
+                .userId(session.getUserId())
+                .novelId(session.getNovelId())
+                .initialPrompt(session.getInitialPrompt())
+                .strategy(session.getStrategy())
+                .promptTemplateId(session.getPromptTemplateId())
+                .status(session.getStatus())
+                .fromExistingHistory(session.isFromExistingHistory())
+                .sourceHistoryId(session.getSourceHistoryId())
+                .generatedNodes(session.getGeneratedNodes() != null ? new LinkedHashMap<>(session.getGeneratedNodes()) : new HashMap<>())
+                .rootNodeIds(session.getRootNodeIds() != null ? new ArrayList<>(session.getRootNodeIds()) : new ArrayList<>())
+                .metadata(metadata)
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .expiresAt(session.getExpiresAt())
+                .errorMessage(session.getErrorMessage())
+                .build();
+    }
+
+    static boolean isPlainValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Enum<?> || value instanceof LocalDateTime || value instanceof Instant) {
+            return true;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().allMatch(MongoSessionStore::isPlainValue);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.keySet().stream().allMatch(key -> key instanceof String)
+                    && map.values().stream().allMatch(MongoSessionStore::isPlainValue);
+        }
+        return false;
+    }
+}
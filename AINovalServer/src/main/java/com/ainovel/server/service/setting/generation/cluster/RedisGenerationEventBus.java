@@ -0,0 +1,57 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于 Redis 发布订阅的事件总线
+ *
+ * 每个主题对应一个 Redis 频道，所有订阅共用一个监听容器（一条连接）。
+ * 发布订阅不保证送达，断线期间的事件由订阅端通过会话快照补齐。
+ */
+@Slf4j
+public class RedisGenerationEventBus implements GenerationEventBus {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisMessageListenerContainer container;
+    private final String channelPrefix;
+
+    public RedisGenerationEventBus(ReactiveStringRedisTemplate redisTemplate,
+                                   ReactiveRedisMessageListenerContainer container, String channelPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.container = container;
+        this.channelPrefix = channelPrefix;
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    @Override
+    public Mono<Void> publish(String topic, String payload) {
+        return redisTemplate.convertAndSend(channelPrefix + topic, payload)
+                .doOnError(e -> log.warn("发布设定生成事件失败: topic={}, error={}", topic, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public Flux<String> listen(String topic) {
+        return container.receive(ChannelTopic.of(channelPrefix + topic))
+                .map(ReactiveSubscription.Message::getMessage);
+    }
+
+    /**
+     * 关闭监听容器，随 Spring 容器销毁调用
+     */
+    public void close() {
+        container.destroy();
+    }
+}
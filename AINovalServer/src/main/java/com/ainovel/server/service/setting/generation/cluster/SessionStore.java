@@ -0,0 +1,31 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 设定生成会话存储，决定会话在多大范围内共享
+ */
+public interface SessionStore {
+
+    /**
+     * 存储是否在节点之间共享；不共享时内存缓存就是会话的唯一副本
+     */
+    boolean isShared();
+
+    /**
+     * 读取会话，不存在时为空
+     */
+    Mono<SettingGenerationSession> load(String sessionId);
+
+    /**
+     * 写入会话
+     */
+    Mono<Void> save(SettingGenerationSession session);
+
+    /**
+     * 删除会话
+     */
+    Mono<Void> delete(String sessionId);
+}
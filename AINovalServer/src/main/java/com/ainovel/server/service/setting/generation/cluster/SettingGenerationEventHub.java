@@ -0,0 +1,374 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.config.SettingGenerationSessionProperties;
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationEvent;
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
+import com.ainovel.server.domain.model.setting.generation.SettingNode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 设定生成事件流
+ *
+ * 每个会话一个事件流，只保留最近 replayLimit 个事件用于重放（原先保留全部事件，长会话内存无上限）。
+ * 订阅时若早期事件已被淘汰，或会话正在其他节点生成而本节点没有历史，
+ * 先推送当前设定树快照（会话开始 + 按父先子后顺序的节点创建事件），再接上实时事件，
+ * 快照已覆盖的节点事件不再重放。
+ *
+ * 事件总线为分布式时，本节点发出的事件同时发布到总线，其他节点上订阅同一会话的客户端也能收到。
+ */
+@Slf4j
+@Component
+public class SettingGenerationEventHub {
+
+    private static final String EVENTS_TOPIC_PREFIX = "events:";
+
+    private final SettingGenerationSessionProperties properties;
+    private final GenerationEventBus bus;
+    private final String nodeId;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SettingGenerationEventHub(SettingGenerationSessionProperties properties, GenerationEventBus bus,
+                                     ObjectMapper objectMapper) {
+        this(properties, bus, GenerationEventBus.LOCAL_NODE_ID, objectMapper);
+    }
+
+    SettingGenerationEventHub(SettingGenerationSessionProperties properties, GenerationEventBus bus, String nodeId,
+                              ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.bus = bus;
+        this.nodeId = nodeId;
+        this.objectMapper = objectMapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * 跨节点传递的事件消息
+     *
+     * @param origin 发出事件的节点
+     * @param complete 是否为事件流结束信号
+     * @param event 事件内容
+     */
+    record Envelope(String origin, boolean complete, SettingGenerationEvent event) {
+    }
+
+    private record Sequenced(long sequence, SettingGenerationEvent event) {
+    }
+
+    /**
+     * 为新一轮生成打开事件流，替换该会话已有的事件流
+     */
+    public void open(String sessionId) {
+        Channel channel = new Channel(sessionId);
+        Channel previous = channels.put(sessionId, channel);
+        if (previous != null) {
+            previous.detach();
+        }
+        attachRemote(channel);
+    }
+
+    /**
+     * 事件流不存在时创建
+     */
+    public void ensure(String sessionId) {
+        channel(sessionId);
+    }
+
+    /**
+     * 是否存在该会话的事件流
+     */
+    public boolean contains(String sessionId) {
+        return channels.containsKey(sessionId);
+    }
+
+    /**
+     * 发送事件；本节点没有该会话的事件流时只发布到总线
+     */
+    public void emit(String sessionId, SettingGenerationEvent event) {
+        Channel channel = channels.get(sessionId);
+        if (channel != null) {
+            channel.emit(event);
+        }
+        publish(sessionId, new Envelope(nodeId, false, event));
+    }
+
+    /**
+     * 结束事件流
+     */
+    public void complete(String sessionId) {
+        Channel channel = channels.get(sessionId);
+        if (channel != null) {
+            channel.complete();
+        }
+        publish(sessionId, new Envelope(nodeId, true, null));
+    }
+
+    /**
+     * 移除事件流（不结束已有订阅）
+     */
+    public void remove(String sessionId) {
+        Channel channel = channels.remove(sessionId);
+        if (channel != null) {
+            channel.detach();
+        }
+    }
+
+    /**
+     * 订阅会话事件流
+     *
+     * @param sessionId 会话ID
+     * @param sessionSource 需要快照时用于读取当前设定树
+     */
+    public Flux<SettingGenerationEvent> stream(String sessionId, Mono<SettingGenerationSession> sessionSource) {
+        return Flux.defer(() -> {
+            Channel existing = channels.get(sessionId);
+            Channel channel = existing != null ? existing : channel(sessionId);
+            long joinedAt = channel.sequence();
+            boolean truncated = joinedAt > properties.getReplayLimit();
+            if (existing != null && !truncated) {
+                return channel.asFlux().map(Sequenced::event);
+            }
+            return sessionSource
+                    .filter(session -> truncated || session.getStatus() == SettingGenerationSession.SessionStatus.GENERATING)
+                    .map(SettingGenerationEventHub::snapshot)
+                    .onErrorResume(e -> {
+                        log.warn("读取会话快照失败: sessionId={}, error={}", sessionId, e.getMessage());
+                        return Mono.empty();
+                    })
+                    .defaultIfEmpty(List.of())
+                    .flatMapMany(snapshot -> {
+                        if (snapshot.isEmpty()) {
+                            return channel.asFlux().map(Sequenced::event);
+                        }
+                        log.info("事件流推送设定树快照: sessionId={}, 节点数={}, 已淘汰事件={}", sessionId,
+                                snapshot.size() - 1, truncated);
+                        return Flux.fromIterable(snapshot).concatWith(channel.asFlux()
+                                .filter(item -> item.sequence() > joinedAt || !isTreeEvent(item.event()))
+                                .map(Sequenced::event));
+                    });
+        });
+    }
+
+    /**
+     * 当前事件流数量
+     */
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    /**
+     * 回收长时间无活动且无订阅者的事件流
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void sweepIdleChannels() {
+        long idleBefore = System.currentTimeMillis() - properties.getChannelIdleTimeout().toMillis();
+        int removed = 0;
+        for (Map.Entry<String, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            if (channel.idleSince() < idleBefore && channel.subscriberCount() == 0
+                    && channels.remove(entry.getKey(), channel)) {
+                channel.detach();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("回收空闲的设定生成事件流 {} 个，剩余 {} 个", removed, channels.size());
+        }
+    }
+
+    /**
+     * 将会话的设定树转换为快照事件：会话开始 + 按父先子后顺序的节点创建事件
+     */
+    static List<SettingGenerationEvent> snapshot(SettingGenerationSession session) {
+        List<SettingGenerationEvent> events = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        SettingGenerationEvent started = new SettingGenerationEvent.SessionStartedEvent(
+                session.getInitialPrompt(), session.getStrategy());
+        started.setSessionId(session.getSessionId());
+        started.setTimestamp(now);
+        events.add(started);
+
+        Map<String, SettingNode> nodes = session.getGeneratedNodes();
+        if (nodes == null || nodes.isEmpty()) {
+            return events;
+        }
+        Map<String, List<SettingNode>> children = new HashMap<>();
+        List<SettingNode> roots = new ArrayList<>();
+        for (SettingNode node : nodes.values()) {
+            if (node.getParentId() == null || !nodes.containsKey(node.getParentId())) {
+                roots.add(node);
+            } else {
+                children.computeIfAbsent(node.getParentId(), key -> new ArrayList<>()).add(node);
+            }
+        }
+        if (session.getRootNodeIds() != null && !session.getRootNodeIds().isEmpty()) {
+            List<String> order = session.getRootNodeIds();
+            roots.sort((a, b) -> Integer.compare(rank(order, a.getId()), rank(order, b.getId())));
+        }
+
+        Set<String> visited = new HashSet<>();
+        Deque<SettingNode> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            SettingNode node = queue.poll();
+            if (!visited.add(node.getId())) {
+                continue;
+            }
+            SettingGenerationEvent created = new SettingGenerationEvent.NodeCreatedEvent(node, parentPath(node, nodes));
+            created.setSessionId(session.getSessionId());
+            created.setTimestamp(now);
+            events.add(created);
+            queue.addAll(children.getOrDefault(node.getId(), List.of()));
+        }
+        return events;
+    }
+
+    private static int rank(List<String> order, String id) {
+        int index = order.indexOf(id);
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+
+    private static String parentPath(SettingNode node, Map<String, SettingNode> nodes) {
+        List<String> path = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String currentId = node.getParentId();
+        while (currentId != null && seen.add(currentId)) {
+            SettingNode parent = nodes.get(currentId);
+            if (parent == null) {
+                break;
+            }
+            path.add(0, parent.getName());
+            currentId = parent.getParentId();
+        }
+        return "/" + String.join("/", path);
+    }
+
+    private static boolean isTreeEvent(SettingGenerationEvent event) {
+        return event instanceof SettingGenerationEvent.SessionStartedEvent
+                || event instanceof SettingGenerationEvent.NodeCreatedEvent
+                || event instanceof SettingGenerationEvent.NodeUpdatedEvent
+                || event instanceof SettingGenerationEvent.NodeDeletedEvent;
+    }
+
+    private Channel channel(String sessionId) {
+        Channel channel = channels.computeIfAbsent(sessionId, Channel::new);
+        attachRemote(channel);
+        return channel;
+    }
+
+    private void publish(String sessionId, Envelope envelope) {
+        if (!bus.isDistributed()) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(envelope);
+        } catch (Exception e) {
+            log.warn("序列化设定生成事件失败: sessionId={}, error={}", sessionId, e.getMessage());
+            return;
+        }
+        bus.publish(EVENTS_TOPIC_PREFIX + sessionId, payload).subscribe();
+    }
+
+    private void attachRemote(Channel channel) {
+        if (!bus.isDistributed() || !channel.remoteAttached.compareAndSet(false, true)) {
+            return;
+        }
+        channel.remote = bus.listen(EVENTS_TOPIC_PREFIX + channel.sessionId)
+                .subscribe(payload -> onRemote(channel, payload),
+                        e -> log.warn("设定生成事件订阅中断: sessionId={}, error={}", channel.sessionId, e.getMessage()));
+    }
+
+    private void onRemote(Channel channel, String payload) {
+        Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(payload, Envelope.class);
+        } catch (Exception e) {
+            log.warn("解析设定生成事件失败: sessionId={}, error={}", channel.sessionId, e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.origin())) {
+            return;
+        }
+        if (envelope.complete()) {
+            channel.complete();
+        } else if (envelope.event() != null) {
+            channel.emit(envelope.event());
+        }
+    }
+
+    /**
+     * 单个会话的事件流；写入串行化，避免并发 tryEmitNext 时事件被丢弃
+     */
+    private final class Channel {
+
+        private final String sessionId;
+        private final Sinks.Many<Sequenced> sink;
+        private final AtomicBoolean remoteAttached = new AtomicBoolean();
+        private volatile Disposable remote;
+        private volatile long lastActive = System.currentTimeMillis();
+        private long sequence;
+
+        Channel(String sessionId) {
+            this.sessionId = sessionId;
+            this.sink = Sinks.many().replay().limit(Math.max(1, properties.getReplayLimit()));
+        }
+
+        synchronized void emit(SettingGenerationEvent event) {
+            lastActive = System.currentTimeMillis();
+            sink.tryEmitNext(new Sequenced(++sequence, event));
+        }
+
+        synchronized void complete() {
+            lastActive = System.currentTimeMillis();
+            sink.tryEmitComplete();
+        }
+
+        synchronized long sequence() {
+            return sequence;
+        }
+
+        Flux<Sequenced> asFlux() {
+            lastActive = System.currentTimeMillis();
+            return sink.asFlux();
+        }
+
+        long idleSince() {
+            return lastActive;
+        }
+
+        int subscriberCount() {
+            return sink.currentSubscriberCount();
+        }
+
+        void detach() {
+            Disposable subscription = remote;
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+    }
+}
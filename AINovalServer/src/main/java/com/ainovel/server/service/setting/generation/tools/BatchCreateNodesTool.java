@@ -13,6 +13,7 @@ import dev.langchain4j.model.chat.request.json.JsonStringSchema;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * 批量创建节点工具
@@ -23,10 +24,21 @@ public class BatchCreateNodesTool implements ToolDefinition {
     private final CreateSettingNodeTool.SettingNodeHandler handler;
     // 改为通过调用方注入的上下文级临时ID映射，避免全局污染
     private final java.util.Map<String, String> crossBatchTempIdMap;
+    // 判断父ID是否为会话中已存在的节点；为 null 时未知父ID原样透传（交由校验处理）
+    private final Predicate<String> existingNode;
+    // 父临时ID尚未出现的节点，按父临时ID暂存，父节点一经创建即落地（可跨调用、跨轮次）
+    private final Map<String, List<PendingNode>> parkedByParent = new LinkedHashMap<>();
     
     public BatchCreateNodesTool(CreateSettingNodeTool.SettingNodeHandler handler, java.util.Map<String, String> crossBatchTempIdMap) {
+        this(handler, crossBatchTempIdMap, null);
+    }
+    
+    public BatchCreateNodesTool(CreateSettingNodeTool.SettingNodeHandler handler,
+                                java.util.Map<String, String> crossBatchTempIdMap,
+                                Predicate<String> existingNode) {
         this.handler = handler;
         this.crossBatchTempIdMap = (crossBatchTempIdMap != null) ? crossBatchTempIdMap : new java.util.concurrent.ConcurrentHashMap<>();
+        this.existingNode = existingNode;
     }
     
     @Override
@@ -39,6 +51,12 @@ public class BatchCreateNodesTool implements ToolDefinition {
         return "批量创建多个设定节点。首选方式，用于一次性创建多个相关设定项，大幅提升效率。强烈建议使用此工具而非 `create_setting_node`。";
     }
     
+    @Override
+    public boolean isConcurrencySafe() {
+        // 仅临时ID映射与暂存表的读写在上下文级映射上串行，互不依赖的子树可并发落地
+        return true;
+    }
+    
     @Override
     public ToolSpecification getSpecification() {
         // 定义单个节点的schema
@@ -101,61 +119,102 @@ public class BatchCreateNodesTool implements ToolDefinition {
             }
         }
         
-        Map<String, String> tempIdToRealId = new HashMap<>();
-        List<String> createdNodeIds = new ArrayList<>();
+        List<PendingNode> batch = new ArrayList<>();
         List<String> errors = new ArrayList<>();
-        
         for (Map<String, Object> nodeData : nodeList) {
             try {
-                // 解析节点数据
-                String providedId = (String) nodeData.get("id");
-                String name = (String) nodeData.get("name");
-                String type = (String) nodeData.get("type");
-                String description = (String) nodeData.get("description");
-                String parentId = (String) nodeData.get("parentId");
-                String tempId = (String) nodeData.get("tempId");
-                Map<String, Object> attributes = (Map<String, Object>) nodeData.getOrDefault("attributes", new HashMap<>());
-                
-                // 处理临时ID映射
-                // 1) 先在本批次的临时映射中查找
-                if (parentId != null && tempIdToRealId.containsKey(parentId)) {
-                    parentId = tempIdToRealId.get(parentId);
-                } else if (parentId != null && crossBatchTempIdMap.containsKey(parentId)) {
-                    // 2) 如果本批次没有，再回退到上下文级映射
-                    parentId = crossBatchTempIdMap.get(parentId);
+                batch.add(PendingNode.from(nodeData));
+            } catch (Exception e) {
+                errors.add(String.format("Error creating node: %s", e.getMessage()));
+                log.error("Failed to parse node in batch", e);
+            }
+        }
+        
+        return materialize(batch, errors);
+    }
+    
+    /**
+     * 父节点优先落地：父节点已存在的立即创建，父临时ID在本批次中的等待其创建，
+     * 父临时ID尚未出现的暂存到后续调用。
+     * 只有临时ID映射与暂存表的读写持有上下文级映射的锁，节点创建（handler）在锁外执行，
+     * 同一上下文中互不依赖的调用可以并发落地
+     */
+    private Map<String, Object> materialize(List<PendingNode> batch, List<String> errors) {
+        Map<String, String> tempIdToRealId = new LinkedHashMap<>();
+        List<String> createdNodeIds = new ArrayList<>();
+        Set<String> batchTempIds = new HashSet<>();
+        for (PendingNode node : batch) {
+            if (node.tempId() != null) {
+                batchTempIds.add(node.tempId());
+            }
+        }
+        
+        Map<String, List<PendingNode>> waitingInBatch = new LinkedHashMap<>();
+        Deque<PendingNode> ready = new ArrayDeque<>();
+        synchronized (crossBatchTempIdMap) {
+            for (PendingNode node : batch) {
+                String parentRef = node.parentRef();
+                if (parentRef == null || crossBatchTempIdMap.containsKey(parentRef)) {
+                    ready.add(node);
+                } else if (batchTempIds.contains(parentRef) && !parentRef.equals(node.tempId())) {
+                    waitingInBatch.computeIfAbsent(parentRef, k -> new ArrayList<>()).add(node);
+                } else if (existingNode == null || existingNode.test(parentRef)) {
+                    ready.add(node);
+                } else {
+                    parkedByParent.computeIfAbsent(parentRef, k -> new ArrayList<>()).add(node);
                 }
-                
-                // 🔧 支持指定ID：如果提供了ID则使用，否则生成新UUID
-                String nodeId = (providedId != null && !providedId.trim().isEmpty()) 
-                                ? providedId.trim() 
-                                : UUID.randomUUID().toString();
-                
-                SettingNode node = SettingNode.builder()
-                    .id(nodeId)
-                    .parentId(parentId)
-                    .name(name)
-                    .type(SettingType.fromValue(type))
-                    .description(description)
-                    .attributes(attributes)
-                    .generationStatus(SettingNode.GenerationStatus.COMPLETED)
-                    .build();
-                
-                // 处理节点
-                boolean success = handler.handleNodeCreation(node);
-                if (success) {
-                    createdNodeIds.add(nodeId);
-                    if (tempId != null) {
-                        tempIdToRealId.put(tempId, nodeId);
-                        // 同时写入上下文级映射，以便后续批次解析
-                        crossBatchTempIdMap.put(tempId, nodeId);
+            }
+        }
+        
+        Deque<String> failedTempIds = new ArrayDeque<>();
+        List<String> pendingNodes = new ArrayList<>();
+        while (true) {
+            while (!ready.isEmpty()) {
+                PendingNode pending = ready.poll();
+                String nodeId = create(pending, tempIdToRealId, errors);
+                if (nodeId == null) {
+                    if (pending.tempId() != null) {
+                        failedTempIds.add(pending.tempId());
                     }
-                } else {
-                    errors.add(String.format("Failed to create node: %s", name));
+                    continue;
+                }
+                createdNodeIds.add(nodeId);
+                if (pending.tempId() != null) {
+                    ready.addAll(Optional.ofNullable(waitingInBatch.remove(pending.tempId())).orElse(List.of()));
+                    synchronized (crossBatchTempIdMap) {
+                        // 写入上下文级映射，以便后续批次解析；同时取出等待该父节点的暂存节点
+                        crossBatchTempIdMap.put(pending.tempId(), nodeId);
+                        ready.addAll(Optional.ofNullable(parkedByParent.remove(pending.tempId())).orElse(List.of()));
+                    }
+                }
+            }
+            
+            // 本批次内父节点创建失败的子节点（可能多层）
+            while (!failedTempIds.isEmpty()) {
+                String parentRef = failedTempIds.poll();
+                for (PendingNode child : Optional.ofNullable(waitingInBatch.remove(parentRef)).orElse(List.of())) {
+                    errors.add(String.format("Parent node %s was not created: %s", parentRef, child.name()));
+                    if (child.tempId() != null) {
+                        failedTempIds.add(child.tempId());
+                    }
+                }
+            }
+            
+            synchronized (crossBatchTempIdMap) {
+                // 父节点已由并发的其他调用创建
+                for (String parentRef : new ArrayList<>(waitingInBatch.keySet())) {
+                    if (crossBatchTempIdMap.containsKey(parentRef)) {
+                        ready.addAll(waitingInBatch.remove(parentRef));
+                    }
+                }
+                if (ready.isEmpty()) {
+                    // 其余子节点的父节点被暂存或正由其他调用创建，随之暂存（可能多层）
+                    waitingInBatch.forEach((parentRef, children) ->
+                        parkedByParent.computeIfAbsent(parentRef, k -> new ArrayList<>()).addAll(children));
+                    parkedByParent.forEach((parentRef, children) -> children.forEach(child ->
+                        pendingNodes.add(String.format("%s (waiting for parent %s)", child.name(), parentRef))));
+                    break;
                 }
-                
-            } catch (Exception e) {
-                errors.add(String.format("Error creating node: %s", e.getMessage()));
-                log.error("Failed to create node in batch", e);
             }
         }
         
@@ -169,11 +228,77 @@ public class BatchCreateNodesTool implements ToolDefinition {
         if (!errors.isEmpty()) {
             result.put("errors", errors);
         }
+        if (!pendingNodes.isEmpty()) {
+            result.put("pendingNodes", pendingNodes);
+        }
         
-        log.info("Batch created {} nodes", createdNodeIds.size());
+        log.info("Batch created {} nodes, {} pending parent", createdNodeIds.size(), pendingNodes.size());
         return result;
     }
     
+    /**
+     * 本轮生成结束时调用：取出父节点始终没有出现的暂存节点，不再等待
+     * @return 未能创建的节点说明，为空表示没有遗留
+     */
+    public List<String> drainUnresolved() {
+        synchronized (crossBatchTempIdMap) {
+            List<String> unresolved = new ArrayList<>();
+            parkedByParent.forEach((parentRef, children) -> children.forEach(child ->
+                unresolved.add(String.format("%s (parent %s was never created)", child.name(), parentRef))));
+            parkedByParent.clear();
+            if (!unresolved.isEmpty()) {
+                log.warn("Batch ended with {} nodes whose parent never arrived", unresolved.size());
+            }
+            return unresolved;
+        }
+    }
+    
+    /**
+     * 解析父ID并创建节点，失败时返回 null
+     */
+    private String create(PendingNode pending, Map<String, String> tempIdToRealId, List<String> errors) {
+        try {
+            // 处理临时ID映射
+            // 1) 先在本批次的临时映射中查找
+            String parentId = pending.parentRef();
+            if (parentId != null && tempIdToRealId.containsKey(parentId)) {
+                parentId = tempIdToRealId.get(parentId);
+            } else if (parentId != null && crossBatchTempIdMap.containsKey(parentId)) {
+                // 2) 如果本批次没有，再回退到上下文级映射
+                parentId = crossBatchTempIdMap.get(parentId);
+            }
+            
+            // 🔧 支持指定ID：如果提供了ID则使用，否则生成新UUID
+            String nodeId = (pending.providedId() != null && !pending.providedId().trim().isEmpty()) 
+                            ? pending.providedId().trim() 
+                            : UUID.randomUUID().toString();
+            
+            SettingNode node = SettingNode.builder()
+                .id(nodeId)
+                .parentId(parentId)
+                .name(pending.name())
+                .type(SettingType.fromValue(pending.type()))
+                .description(pending.description())
+                .attributes(pending.attributes())
+                .generationStatus(SettingNode.GenerationStatus.COMPLETED)
+                .build();
+            
+            // 处理节点
+            if (!handler.handleNodeCreation(node)) {
+                errors.add(String.format("Failed to create node: %s", pending.name()));
+                return null;
+            }
+            if (pending.tempId() != null) {
+                tempIdToRealId.put(pending.tempId(), nodeId);
+            }
+            return nodeId;
+        } catch (Exception e) {
+            errors.add(String.format("Error creating node: %s", e.getMessage()));
+            log.error("Failed to create node in batch", e);
+            return null;
+        }
+    }
+    
     private Map<String, Object> createErrorResult(String message) {
         Map<String, Object> result = new HashMap<>();
         result.put("success", false);
@@ -181,4 +306,25 @@ public class BatchCreateNodesTool implements ToolDefinition {
         result.put("createdNodeIds", Collections.emptyList());
         return result;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 待创建的节点
+     */
+    private record PendingNode(String providedId, String name, String type, String description,
+                               String parentRef, String tempId, Map<String, Object> attributes) {
+        
+        @SuppressWarnings("unchecked")
+        static PendingNode from(Map<String, Object> nodeData) {
+            String parentId = (String) nodeData.get("parentId");
+            String tempId = (String) nodeData.get("tempId");
+            return new PendingNode(
+                (String) nodeData.get("id"),
+                (String) nodeData.get("name"),
+                (String) nodeData.get("type"),
+                (String) nodeData.get("description"),
+                parentId != null && !parentId.isBlank() ? parentId : null,
+                tempId != null && !tempId.isBlank() ? tempId : null,
+                (Map<String, Object>) nodeData.getOrDefault("attributes", new HashMap<>()));
+        }
+    }
+}
@@ -27,6 +27,12 @@ public class TextToSettingsDataTool implements ToolDefinition {
         return "将输入的设定文本解析为结构化设定数据（纯JSON，不落库不改会话）。";
     }
 
+    @Override
+    public boolean isConcurrencySafe() {
+        // 纯数据解析，无共享状态
+        return true;
+    }
+
     @Override
     public ToolSpecification getSpecification() {
         // 对齐 BatchCreateNodesTool：要求直接产出可创建的节点列表
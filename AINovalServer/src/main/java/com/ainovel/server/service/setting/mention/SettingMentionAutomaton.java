@@ -0,0 +1,245 @@
+package com.ainovel.server.service.setting.mention;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 设定名称/别名多模式匹配自动机（Aho-Corasick）
+ *
+ * 编译后不可变，可被多个线程同时扫描：
+ * - 一次线性扫描找出文本中出现的全部名称与别名，耗时与文本长度成正比，与设定数量无关
+ * - 匹配不区分大小写；以英文字母或数字开头/结尾的名称要求词边界，避免 "Al" 命中 "Also"
+ * - 少于 {@link #MIN_TERM_LENGTH} 个字符的名称不参与匹配，避免单字误命中
+ * - 同一名称可属于多个设定（如重名角色），命中时全部返回
+ */
+public final class SettingMentionAutomaton {
+
+    /** 参与匹配的最短名称长度 */
+    public static final int MIN_TERM_LENGTH = 2;
+
+    private static final SettingMentionAutomaton EMPTY = compile(Map.of());
+
+    /** 节点 n 的出边位于 edgeChars/edgeTargets 的 [edgeStart[n], edgeStart[n + 1]) 区间，按字符升序 */
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    /** 节点命中的名称（含失败链上的后缀名称） */
+    private final int[][] outputs;
+    private final int[] termLength;
+    private final boolean[] boundaryStart;
+    private final boolean[] boundaryEnd;
+    private final String[][] termOwners;
+
+    private SettingMentionAutomaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] fail, int[][] outputs,
+                                    int[] termLength, boolean[] boundaryStart, boolean[] boundaryEnd,
+                                    String[][] termOwners) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.termLength = termLength;
+        this.boundaryStart = boundaryStart;
+        this.boundaryEnd = boundaryEnd;
+        this.termOwners = termOwners;
+    }
+
+    public static SettingMentionAutomaton empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 编译自动机
+     *
+     * @param termsBySetting 设定ID到其名称与别名的映射
+     */
+    public static SettingMentionAutomaton compile(Map<String, ? extends Collection<String>> termsBySetting) {
+        Map<String, Set<String>> ownersByTerm = new LinkedHashMap<>();
+        termsBySetting.forEach((settingId, terms) -> {
+            for (String term : terms) {
+                String normalized = normalize(term);
+                if (normalized != null) {
+                    ownersByTerm.computeIfAbsent(normalized, t -> new LinkedHashSet<>()).add(settingId);
+                }
+            }
+        });
+
+        // 1. 构建字典树
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        children.add(new TreeMap<>());
+        own.add(new ArrayList<>());
+        int termCount = ownersByTerm.size();
+        int[] termLength = new int[termCount];
+        boolean[] boundaryStart = new boolean[termCount];
+        boolean[] boundaryEnd = new boolean[termCount];
+        String[][] termOwners = new String[termCount][];
+        int termIndex = 0;
+        for (Map.Entry<String, Set<String>> entry : ownersByTerm.entrySet()) {
+            String term = entry.getKey();
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(c, next);
+                    children.add(new TreeMap<>());
+                    own.add(new ArrayList<>());
+                }
+                node = next;
+            }
+            own.get(node).add(termIndex);
+            termLength[termIndex] = term.length();
+            boundaryStart[termIndex] = isWordChar(term.charAt(0));
+            boundaryEnd[termIndex] = isWordChar(term.charAt(term.length() - 1));
+            termOwners[termIndex] = entry.getValue().toArray(String[]::new);
+            termIndex++;
+        }
+
+        // 2. 广度优先计算失败指针，并把失败链上的命中合并到节点输出
+        int nodeCount = children.size();
+        int[] fail = new int[nodeCount];
+        int[][] outputs = new int[nodeCount][];
+        outputs[0] = new int[0];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail[child] = 0;
+            outputs[child] = toArray(own.get(child), outputs[0]);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                char c = edge.getKey();
+                int child = edge.getValue();
+                int f = fail[node];
+                while (f != 0 && !children.get(f).containsKey(c)) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(c);
+                fail[child] = target != null ? target : 0;
+                outputs[child] = toArray(own.get(child), outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+
+        // 3. 压平出边，扫描时二分查找
+        int[] edgeStart = new int[nodeCount + 1];
+        int edgeCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edgeCount;
+            edgeCount += children.get(node).size();
+        }
+        edgeStart[nodeCount] = edgeCount;
+        char[] edgeChars = new char[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            int i = edgeStart[node];
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                edgeChars[i] = edge.getKey();
+                edgeTargets[i] = edge.getValue();
+                i++;
+            }
+        }
+        return new SettingMentionAutomaton(edgeStart, edgeChars, edgeTargets, fail, outputs, termLength,
+                boundaryStart, boundaryEnd, termOwners);
+    }
+
+    /**
+     * 扫描文本，返回被提及的设定ID（按首次出现顺序）
+     */
+    public Set<String> scan(CharSequence text) {
+        Set<String> mentioned = new LinkedHashSet<>();
+        if (text == null || termOwners.length == 0) {
+            return mentioned;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = transition(state, c);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = transition(state, c);
+            }
+            state = Math.max(next, 0);
+            for (int term : outputs[state]) {
+                if (boundaryStart[term] && isWordChar(charAt(text, i - termLength[term]))) {
+                    continue;
+                }
+                if (boundaryEnd[term] && isWordChar(charAt(text, i + 1))) {
+                    continue;
+                }
+                for (String owner : termOwners[term]) {
+                    mentioned.add(owner);
+                }
+            }
+        }
+        return mentioned;
+    }
+
+    /**
+     * 参与匹配的名称数
+     */
+    public int termCount() {
+        return termOwners.length;
+    }
+
+    private int transition(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String term) {
+        if (term == null) {
+            return null;
+        }
+        String trimmed = term.strip();
+        if (trimmed.length() < MIN_TERM_LENGTH) {
+            return null;
+        }
+        // 逐字符转小写，保证与扫描时的长度一致
+        char[] chars = trimmed.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static char charAt(CharSequence text, int index) {
+        return index >= 0 && index < text.length() ? text.charAt(index) : ' ';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        int[] result = new int[own.size() + inherited.length];
+        for (int i = 0; i < own.size(); i++) {
+            result[i] = own.get(i);
+        }
+        System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+        return result;
+    }
+}
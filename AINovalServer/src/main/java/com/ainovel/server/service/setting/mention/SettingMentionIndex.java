@@ -0,0 +1,270 @@
+package com.ainovel.server.service.setting.mention;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 设定提及索引
+ *
+ * 为每部小说缓存一个由追踪中的设定名称与别名编译出的 {@link SettingMentionAutomaton}，
+ * 用于 aiContextTracking=detected 的设定：扫描一遍上下文文本即可知道哪些设定被提及，
+ * 无需向量检索或调用模型。
+ *
+ * - 首次使用时按小说加载（只投影匹配所需字段，不读取向量）
+ * - 设定增删改时只修补该小说缓存中的对应条目，下次扫描前重新编译该小说的自动机
+ * - 写入后过期作为兜底，覆盖绕过设定服务的批量写入
+ */
+@Slf4j
+@Component
+public class SettingMentionIndex {
+
+    /** 单次上下文最多注入的"检测到"设定数 */
+    static final int MAX_DETECTED = 20;
+
+    private static final String TRACKING_NO_TRACK = "no_track";
+    private static final String CONTEXT_ALWAYS = "always";
+    private static final String CONTEXT_DETECTED = "detected";
+
+    /** 属性中可能存放别名的键 */
+    private static final List<String> ALIAS_ATTRIBUTE_KEYS = List.of("别名", "aliases", "alias");
+    private static final Pattern ALIAS_SEPARATOR = Pattern.compile("[,，、;；/]");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Cache<String, NovelMentions> cache = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .build();
+
+    public SettingMentionIndex(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 单个设定在索引中的快照
+     */
+    record TrackedSetting(String id, String aiContextTracking, List<String> terms) {
+    }
+
+    /**
+     * 扫描文本，返回被提及的设定ID（按首次出现顺序）
+     */
+    public Mono<Set<String>> detect(String novelId, String text) {
+        if (!StringUtils.hasText(novelId) || !StringUtils.hasText(text)) {
+            return Mono.just(Set.of());
+        }
+        return mentions(novelId).map(mentions -> mentions.automaton().scan(text));
+    }
+
+    /**
+     * 应注入AI上下文的设定ID，always 与文本中检测到的分开给出，
+     * 调用方据此判断是否有真正的提及命中（always 的设定无论文本如何都会出现）
+     *
+     * @param always 始终注入的设定
+     * @param detected 在文本中被提及的 detected（或未配置）设定，按首次提及顺序，不与 always 重复
+     */
+    public record ContextSettings(List<String> always, List<String> detected) {
+    }
+
+    /**
+     * 计算应注入AI上下文的设定ID：
+     * always 的设定始终包含；detected（或未配置）的设定仅在文本中被提及时包含；
+     * dont_include 与 never 的设定不自动注入。
+     */
+    public Mono<ContextSettings> contextSettings(String novelId, String text) {
+        if (!StringUtils.hasText(novelId)) {
+            return Mono.just(new ContextSettings(List.of(), List.of()));
+        }
+        return mentions(novelId).map(mentions -> {
+            Set<String> always = new LinkedHashSet<>();
+            mentions.settings().values().stream()
+                    .filter(setting -> CONTEXT_ALWAYS.equals(setting.aiContextTracking()))
+                    .forEach(setting -> always.add(setting.id()));
+            List<String> detected = new ArrayList<>();
+            if (StringUtils.hasText(text)) {
+                for (String id : mentions.automaton().scan(text)) {
+                    if (detected.size() >= MAX_DETECTED) {
+                        break;
+                    }
+                    TrackedSetting setting = mentions.settings().get(id);
+                    if (setting != null && isDetectable(setting) && !always.contains(id)) {
+                        detected.add(id);
+                    }
+                }
+            }
+            return new ContextSettings(new ArrayList<>(always), detected);
+        });
+    }
+
+    /**
+     * 设定保存后修补对应小说的索引（该小说未被缓存时无需处理）
+     */
+    public void onSettingSaved(NovelSettingItem item) {
+        if (item == null || item.getNovelId() == null || item.getId() == null) {
+            return;
+        }
+        NovelMentions mentions = cache.getIfPresent(item.getNovelId());
+        if (mentions == null) {
+            return;
+        }
+        TrackedSetting tracked = toTracked(item);
+        if (tracked != null) {
+            mentions.put(tracked);
+        } else {
+            mentions.remove(item.getId());
+        }
+    }
+
+    /**
+     * 设定删除后从对应小说的索引中移除
+     */
+    public void onSettingDeleted(String novelId, String settingId) {
+        if (novelId == null) {
+            return;
+        }
+        NovelMentions mentions = cache.getIfPresent(novelId);
+        if (mentions != null) {
+            mentions.remove(settingId);
+        }
+    }
+
+    /**
+     * 丢弃某部小说的索引，下次使用时重新加载
+     */
+    public void invalidate(String novelId) {
+        if (novelId != null) {
+            cache.invalidate(novelId);
+        }
+    }
+
+    private Mono<NovelMentions> mentions(String novelId) {
+        NovelMentions cached = cache.getIfPresent(novelId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        Query query = Query.query(Criteria.where("novelId").is(novelId));
+        query.fields().include("_id", "name", "aliases", "attributes", "status",
+                "nameAliasTracking", "aiContextTracking");
+        return mongoTemplate.find(query, NovelSettingItem.class)
+                .collectList()
+                .map(items -> {
+                    NovelMentions mentions = new NovelMentions();
+                    for (NovelSettingItem item : items) {
+                        TrackedSetting tracked = toTracked(item);
+                        if (tracked != null) {
+                            mentions.settings().put(tracked.id(), tracked);
+                        }
+                    }
+                    // 并发加载时保留先放入的实例，避免覆盖期间到达的增量修补
+                    NovelMentions existing = cache.asMap().putIfAbsent(novelId, mentions);
+                    log.debug("加载小说 {} 的设定提及索引: {} 个设定", novelId, mentions.settings().size());
+                    return existing != null ? existing : mentions;
+                });
+    }
+
+    private static boolean isDetectable(TrackedSetting setting) {
+        return setting.aiContextTracking() == null || CONTEXT_DETECTED.equals(setting.aiContextTracking());
+    }
+
+    /**
+     * 转为索引快照；未生效的设定返回 null，不追踪名称的设定不参与匹配但仍可 always 注入
+     */
+    static TrackedSetting toTracked(NovelSettingItem item) {
+        String status = item.getStatus();
+        if (item.getId() == null || "inactive".equalsIgnoreCase(status) || "SUGGESTED".equals(status)
+                || "REJECTED".equals(status)) {
+            return null;
+        }
+        List<String> terms = TRACKING_NO_TRACK.equals(item.getNameAliasTracking()) ? List.of() : termsOf(item);
+        return new TrackedSetting(item.getId(), item.getAiContextTracking(), terms);
+    }
+
+    static List<String> termsOf(NovelSettingItem item) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerm(terms, item.getName());
+        if (item.getAliases() != null) {
+            item.getAliases().forEach(alias -> addTerm(terms, alias));
+        }
+        Map<String, String> attributes = item.getAttributes();
+        if (attributes != null) {
+            for (String key : ALIAS_ATTRIBUTE_KEYS) {
+                String value = attributes.get(key);
+                if (value != null) {
+                    for (String alias : ALIAS_SEPARATOR.split(value)) {
+                        addTerm(terms, alias);
+                    }
+                }
+            }
+        }
+        return List.copyOf(terms);
+    }
+
+    private static void addTerm(Collection<String> terms, String term) {
+        if (StringUtils.hasText(term)) {
+            terms.add(term.strip());
+        }
+    }
+
+    /**
+     * 单部小说的索引：设定快照 + 按需重新编译的自动机。
+     * 修补与编译在同一把锁下进行，编译期间到达的修补不会被旧自动机覆盖。
+     */
+    static final class NovelMentions {
+
+        private final Map<String, TrackedSetting> settings = new ConcurrentHashMap<>();
+        private volatile SettingMentionAutomaton automaton;
+
+        Map<String, TrackedSetting> settings() {
+            return settings;
+        }
+
+        synchronized void put(TrackedSetting setting) {
+            settings.put(setting.id(), setting);
+            automaton = null;
+        }
+
+        synchronized void remove(String settingId) {
+            if (settings.remove(settingId) != null) {
+                automaton = null;
+            }
+        }
+
+        SettingMentionAutomaton automaton() {
+            SettingMentionAutomaton current = automaton;
+            if (current == null) {
+                synchronized (this) {
+                    current = automaton;
+                    if (current == null) {
+                        Map<String, List<String>> terms = new LinkedHashMap<>();
+                        settings.values().forEach(setting -> terms.put(setting.id(), setting.terms()));
+                        current = terms.isEmpty() ? SettingMentionAutomaton.empty()
+                                : SettingMentionAutomaton.compile(terms);
+                        automaton = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+}
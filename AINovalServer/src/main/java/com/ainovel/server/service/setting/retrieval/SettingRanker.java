@@ -0,0 +1,104 @@
+package com.ainovel.server.service.setting.retrieval;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+
+/**
+ * 设定检索结果重排序
+ *
+ * 综合向量相似度、优先级、当前场景相关性、设定组激活状态与来源计算得分，
+ * 每个候选只计算一次，用大小为 topK 的小顶堆选出前 topK 个。
+ * 得分相同时保持向量检索的原始顺序。
+ */
+public final class SettingRanker {
+
+    private static final double VECTOR_WEIGHT = 0.5;
+    private static final double PRIORITY_WEIGHT = 0.3;
+    private static final double CURRENT_SCENE_BONUS = 0.5;
+    private static final double ACTIVE_GROUP_BONUS = 0.3;
+
+    private SettingRanker() {
+    }
+
+    private record Scored(NovelSettingItem item, double score, int order) {
+    }
+
+    private static final Comparator<Scored> ASCENDING = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingInt(Scored::order).reversed());
+
+    /**
+     * 选出得分最高的 topK 个设定
+     *
+     * @param candidates 按向量检索顺序排列的候选
+     * @param vectorScores 设定ID到向量相似度的映射
+     * @param currentSceneId 当前场景ID
+     * @param activeGroupItemIds 激活设定组包含的设定ID
+     * @param topK 返回数量
+     */
+    public static List<NovelSettingItem> topK(List<NovelSettingItem> candidates, Map<String, Double> vectorScores,
+                                              String currentSceneId, Set<String> activeGroupItemIds, int topK) {
+        if (candidates.isEmpty() || topK <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Scored> heap = new PriorityQueue<>(topK + 1, ASCENDING);
+        for (int i = 0; i < candidates.size(); i++) {
+            NovelSettingItem item = candidates.get(i);
+            heap.offer(new Scored(item, score(item, vectorScores.get(item.getId()), currentSceneId,
+                    activeGroupItemIds), i));
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+        List<Scored> top = new ArrayList<>(heap);
+        top.sort(ASCENDING.reversed());
+        List<NovelSettingItem> result = new ArrayList<>(top.size());
+        for (Scored scored : top) {
+            result.add(scored.item());
+        }
+        return result;
+    }
+
+    static double score(NovelSettingItem item, Double vectorScore, String currentSceneId,
+                        Set<String> activeGroupItemIds) {
+        double score = 0.0;
+
+        // 向量相似度 (0.0-1.0)
+        if (vectorScore != null) {
+            score += vectorScore * VECTOR_WEIGHT;
+        }
+
+        // 优先级从1到5，1为最高：优先级1得1分，优先级5得0.2分
+        if (item.getPriority() != null) {
+            score += (6 - item.getPriority()) / 5.0 * PRIORITY_WEIGHT;
+        }
+
+        // 与当前场景直接相关
+        if (currentSceneId != null && item.getSceneIds() != null && item.getSceneIds().contains(currentSceneId)) {
+            score += CURRENT_SCENE_BONUS;
+        }
+
+        // 属于激活的设定组
+        if (activeGroupItemIds != null && activeGroupItemIds.contains(item.getId())) {
+            score += ACTIVE_GROUP_BONUS;
+        }
+
+        // 生成源和状态
+        if ("USER".equals(item.getGeneratedBy())) {
+            score += 0.2;
+        } else if ("AI_SCENE_SUGGESTION".equals(item.getGeneratedBy())
+                || "AI_GENERAL_SUGGESTION".equals(item.getGeneratedBy())) {
+            if ("ACCEPTED".equals(item.getStatus())) {
+                score += 0.15;
+            } else if ("SUGGESTED".equals(item.getStatus())) {
+                score += 0.05;
+            }
+        }
+        return score;
+    }
+}
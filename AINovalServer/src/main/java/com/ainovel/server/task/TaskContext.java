@@ -1,5 +1,9 @@
 package com.ainovel.server.task;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 import reactor.core.publisher.Mono;
 
 /**
@@ -73,4 +77,46 @@ public interface TaskContext<P> {
      * @return 子任务ID的Mono
      */
     Mono<String> submitSubTask(String taskType, Object parameters);
-} 
\ No newline at end of file
+    
+    /**
+     * 获取本次执行的续跑步骤（子任务全部结束后重新入队时设置）
+     * @return 续跑步骤，首次执行时为null
+     */
+    default String getContinuationStep() {
+        return null;
+    }
+    
+    /**
+     * 获取挂起时保存的中间数据
+     * @return 中间数据，首次执行时为空Map
+     */
+    default Map<String, Object> getWorkflowState() {
+        return Map.of();
+    }
+    
+    /**
+     * 工作流等待是否因超过截止时间而结束
+     * @return 超时返回true
+     */
+    default boolean isWorkflowTimedOut() {
+        return false;
+    }
+    
+    /**
+     * 挂起当前任务，直到给定子任务全部结束后从指定步骤继续
+     * 调用成功后执行器应立即返回，返回的结果不会被记录为任务完成
+     * @param subTaskIds 需要等待的子任务ID
+     * @param continuationStep 续跑步骤
+     * @param state 续跑需要的中间数据（持久化保存）
+     * @param timeout 最长等待时间
+     * @return 挂起操作的完成信号
+     */
+    Mono<Void> awaitSubTasks(List<String> subTaskIds, String continuationStep,
+                             Map<String, Object> state, Duration timeout);
+    
+    /**
+     * 当前执行是否已挂起等待子任务
+     * @return 已挂起返回true
+     */
+    boolean isSuspended();
+}
@@ -1,14 +1,19 @@
 package com.ainovel.server.task;
 
 import com.ainovel.server.task.event.internal.TaskProgressEvent;
+import com.ainovel.server.task.model.BackgroundTask;
 import com.ainovel.server.task.service.TaskStateService;
 import com.ainovel.server.task.service.TaskSubmissionService;
+import com.ainovel.server.task.service.TaskWorkflowService;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -40,6 +45,9 @@ public class TaskContextImpl<P> implements TaskContext<P> {
     private final TaskStateService taskStateService;
     private final TaskSubmissionService taskSubmissionService;
     private final ApplicationEventPublisher eventPublisher;
+    private final TaskWorkflowService workflowService;
+    private final BackgroundTask.WorkflowState workflow;
+    private volatile boolean suspended;
     
     /**
      * 构造函数
@@ -53,6 +61,8 @@ public class TaskContextImpl<P> implements TaskContext<P> {
      * @param taskStateService 任务状态服务
      * @param taskSubmissionService 任务提交服务
      * @param eventPublisher 事件发布器
+     * @param workflowService 工作流服务（挂起与续跑）
+     * @param workflow 任务当前的工作流状态（续跑时非null）
      */
     public TaskContextImpl(
             String taskId,
@@ -63,7 +73,9 @@ public class TaskContextImpl<P> implements TaskContext<P> {
             String parentTaskId,
             TaskStateService taskStateService,
             TaskSubmissionService taskSubmissionService,
-            ApplicationEventPublisher eventPublisher) {
+            ApplicationEventPublisher eventPublisher,
+            TaskWorkflowService workflowService,
+            BackgroundTask.WorkflowState workflow) {
         this.taskId = taskId;
         this.taskType = taskType;
         this.userId = userId;
@@ -73,6 +85,8 @@ public class TaskContextImpl<P> implements TaskContext<P> {
         this.taskStateService = taskStateService;
         this.taskSubmissionService = taskSubmissionService;
         this.eventPublisher = eventPublisher;
+        this.workflowService = workflowService;
+        this.workflow = workflow;
     }
     
     @Override
@@ -113,6 +127,39 @@ public class TaskContextImpl<P> implements TaskContext<P> {
         return taskSubmissionService.submitTask(userId, taskType, parameters, effectiveParentId);
     }
     
+    @Override
+    public String getContinuationStep() {
+        return workflow != null ? workflow.getContinuationStep() : null;
+    }
+    
+    @Override
+    public Map<String, Object> getWorkflowState() {
+        return workflow != null && workflow.getState() != null ? workflow.getState() : Map.of();
+    }
+    
+    @Override
+    public boolean isWorkflowTimedOut() {
+        return workflow != null && workflow.isTimedOut();
+    }
+    
+    @Override
+    public Mono<Void> awaitSubTasks(List<String> subTaskIds, String continuationStep,
+                                    Map<String, Object> state, Duration timeout) {
+        return workflowService.suspend(taskId, subTaskIds, continuationStep, state, timeout)
+                .flatMap(accepted -> {
+                    if (!accepted) {
+                        return Mono.error(new IllegalStateException("任务挂起失败，任务已不在运行状态: " + taskId));
+                    }
+                    suspended = true;
+                    return Mono.<Void>empty();
+                });
+    }
+    
+    @Override
+    public boolean isSuspended() {
+        return suspended;
+    }
+    
     /**
      * 创建TaskContext的构建器
      * 
@@ -137,6 +184,8 @@ public class TaskContextImpl<P> implements TaskContext<P> {
         private TaskStateService taskStateService;
         private TaskSubmissionService taskSubmissionService;
         private ApplicationEventPublisher eventPublisher;
+        private TaskWorkflowService workflowService;
+        private BackgroundTask.WorkflowState workflow;
         
         private Builder() {
             // 默认生成一个UUID作为任务ID
@@ -188,6 +237,16 @@ public class TaskContextImpl<P> implements TaskContext<P> {
             return this;
         }
         
+        public Builder<P> workflowService(TaskWorkflowService workflowService) {
+            this.workflowService = workflowService;
+            return this;
+        }
+        
+        public Builder<P> workflow(BackgroundTask.WorkflowState workflow) {
+            this.workflow = workflow;
+            return this;
+        }
+        
         /**
          * 构建TaskContext实例
          * 
@@ -199,13 +258,14 @@ public class TaskContextImpl<P> implements TaskContext<P> {
             }
             
             if (taskType == null || userId == null || parameters == null || 
-                taskStateService == null || taskSubmissionService == null || eventPublisher == null) {
+                taskStateService == null || taskSubmissionService == null || eventPublisher == null ||
+                workflowService == null) {
                 throw new IllegalStateException("缺少必要的TaskContext参数");
             }
             
             return new TaskContextImpl<>(
                     taskId, taskType, userId, parameters, executionNodeId, parentTaskId,
-                    taskStateService, taskSubmissionService, eventPublisher);
+                    taskStateService, taskSubmissionService, eventPublisher, workflowService, workflow);
         }
     }
 } 
\ No newline at end of file
@@ -12,6 +12,7 @@ import com.ainovel.server.task.producer.TaskMessageProducer;
 import com.ainovel.server.task.service.TaskExecutorService;
 import com.ainovel.server.task.service.TaskStateService;
 import com.ainovel.server.task.service.TaskSubmissionService;
+import com.ainovel.server.task.service.TaskWorkflowService;
 import com.ainovel.server.config.TaskConversionConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -60,6 +61,7 @@ public class TaskConsumer {
     private final ApplicationEventPublisher eventPublisher;
     private final TaskMessageProducer taskMessageProducer;
     private final TaskConversionConfig taskConversionConfig;
+    private final TaskWorkflowService taskWorkflowService;
     private final ObjectMapper objectMapper;
     
     private final String nodeId;
@@ -80,6 +82,7 @@ public class TaskConsumer {
             ApplicationEventPublisher eventPublisher,
             TaskMessageProducer taskMessageProducer,
             TaskConversionConfig taskConversionConfig,
+            TaskWorkflowService taskWorkflowService,
             @Qualifier("taskObjectMapper") ObjectMapper objectMapper) {
         this.taskExecutorService = taskExecutorService;
         this.taskStateService = taskStateService;
@@ -87,6 +90,7 @@ public class TaskConsumer {
         this.eventPublisher = eventPublisher;
         this.taskMessageProducer = taskMessageProducer;
         this.taskConversionConfig = taskConversionConfig;
+        this.taskWorkflowService = taskWorkflowService;
         this.objectMapper = objectMapper;
         
         // 生成节点ID
@@ -532,7 +536,11 @@ public class TaskConsumer {
                                                      finalTaskId, finalTaskType, error.getMessage(), error))
                                             .flatMap(result -> {
                         // 处理执行结果
-                                                if (result.isSuccess()) {
+                                                if (result.isSuccess() && context.isSuspended()) {
+                                                    // 已挂起等待子任务，状态为 WAITING，由最后一个子任务结束时重新入队
+                                                    log.info("任务已挂起等待子任务，不记录完成: taskId={}", finalTaskId);
+                                                    return Mono.<Void>empty();
+                                                } else if (result.isSuccess()) {
                                                     // 成功完成
                             return handleSuccessResult(task, result.getResult());
                                                 } else if (result.isRetryable() && finalRetryCount < maxRetryAttempts) {
@@ -585,6 +593,8 @@ public class TaskConsumer {
                 .taskStateService(taskStateService)
                 .taskSubmissionService(taskSubmissionService)
                 .eventPublisher(eventPublisher)
+                .workflowService(taskWorkflowService)
+                .workflow(task.getWorkflow())
                 .build();
     }
     
@@ -38,4 +38,19 @@ public class BatchGenerateSummaryParameters {
      * 是否覆盖已有摘要
      */
     private boolean overwriteExisting;
-} 
\ No newline at end of file
+    
+    /**
+     * 是否强制重新生成（忽略正文、模型、提示词版本均未变化的摘要缓存）
+     */
+    private boolean forceRegenerate;
+    
+    /**
+     * 是否打包请求：多个短场景合并为一次请求，按token预算分包
+     */
+    private boolean packed;
+    
+    /**
+     * 打包模式下每包的输入token预算（不大于0时使用默认值）
+     */
+    private int packTokenBudget;
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.ainovel.server.task.dto.batchsummary;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量生成摘要的预演结果（不提交任务、不调用模型）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGenerateSummaryPlan {
+
+    /**
+     * 章节范围内的场景总数
+     */
+    private int totalScenes;
+
+    /**
+     * 实际需要调用模型的次数（打包模式下为包数）
+     */
+    private int llmCalls;
+
+    /**
+     * 需要生成摘要的场景数量
+     */
+    private int scenesToGenerate;
+
+    /**
+     * 因overwriteExisting=false且摘要已存在而跳过的场景数量
+     */
+    private int skippedExisting;
+
+    /**
+     * 正文、模型、提示词版本均未变化而复用摘要的场景数量
+     */
+    private int skippedUnchanged;
+
+    /**
+     * 正文为空而跳过的场景数量
+     */
+    private int skippedEmpty;
+
+    /**
+     * 使用的模型
+     */
+    private String modelName;
+
+    /**
+     * 预估输入token数
+     */
+    private long estimatedInputTokens;
+
+    /**
+     * 预估输出token数
+     */
+    private long estimatedOutputTokens;
+
+    /**
+     * 预估消耗积分（按模型定价估算，使用自有API Key时不实际扣除；无定价时为0）
+     */
+    private long estimatedCredits;
+}
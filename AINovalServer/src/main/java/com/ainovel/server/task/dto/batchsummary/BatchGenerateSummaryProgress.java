@@ -40,7 +40,12 @@ public class BatchGenerateSummaryProgress {
     private int conflictCount;
     
     /**
-     * 因已存在摘要而跳过的场景数
+     * 因已存在摘要、正文为空或正文未变化而跳过的场景数
      */
     private int skippedCount;
+    
+    /**
+     * 其中因正文、模型与提示词均未变化而复用已有摘要的场景数（已计入 skippedCount）
+     */
+    private int unchangedCount;
 } 
\ No newline at end of file
@@ -38,10 +38,15 @@ public class BatchGenerateSummaryResult {
     private int conflictCount;
     
     /**
-     * 因overwriteExisting=false且摘要已存在而跳过的场景数量
+     * 因overwriteExisting=false且摘要已存在、或正文为空而跳过的场景数量
      */
     private int skippedCount;
     
+    /**
+     * 正文、模型、提示词版本均未变化而复用已有摘要的场景数量
+     */
+    private int unchangedCount;
+    
     /**
      * 存储失败场景ID及其失败原因
      */
@@ -0,0 +1,40 @@
+package com.ainovel.server.task.dto.summarygeneration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 打包生成场景摘要任务的参数DTO（一次请求总结多个场景）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateSummaryPackParameters {
+    
+    /**
+     * 小说ID
+     */
+    private String novelId;
+    
+    /**
+     * 本包包含的场景ID（按章节顺序）
+     */
+    @Builder.Default
+    private List<String> sceneIds = new ArrayList<>();
+    
+    /**
+     * 选定的 AI 模型配置ID（如果为空则使用用户默认模型）
+     */
+    private String aiConfigId;
+    
+    /**
+     * 是否强制重新生成（为false时，正文、模型、提示词版本均未变化则直接复用已有摘要）
+     */
+    private boolean forceRegenerate;
+}
@@ -0,0 +1,38 @@
+package com.ainovel.server.task.dto.summarygeneration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 打包生成场景摘要任务的结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateSummaryPackResult {
+    
+    /**
+     * 成功生成（或复用）摘要的场景结果
+     */
+    @Builder.Default
+    private List<GenerateSummaryResult> results = new ArrayList<>();
+    
+    /**
+     * 失败场景ID及其失败原因
+     */
+    @Builder.Default
+    private Map<String, String> failedSceneDetails = new HashMap<>();
+    
+    /**
+     * 实际发出的模型请求数（含缺失条目重试与拆分重试）
+     */
+    private int llmCalls;
+}
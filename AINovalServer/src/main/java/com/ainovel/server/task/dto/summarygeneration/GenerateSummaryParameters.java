@@ -44,4 +44,9 @@ public class GenerateSummaryParameters {
      * 选定的 AI 模型配置ID（如果为空则使用用户默认模型）
      */
     private String aiConfigId;
-} 
\ No newline at end of file
+    
+    /**
+     * 是否强制重新生成（为false时，正文、模型、提示词版本均未变化则直接复用已有摘要）
+     */
+    private boolean forceRegenerate;
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.ainovel.server.task.event.internal;
+
+/**
+ * 任务续跑事件
+ * 等待子任务的父任务从 WAITING 切回 QUEUED 时发布，只用于重新分发已存在的任务，
+ * 与 TaskSubmittedEvent 区分，避免提交侧的监听器把续跑当作一次新的提交
+ */
+public class TaskResumedEvent extends TaskApplicationEvent {
+    private final Object parameters;
+    private final String parentTaskId;
+    private final String continuationStep;
+    private final boolean timedOut;
+    
+    public TaskResumedEvent(Object source, String taskId, String taskType, String userId, Object parameters,
+                            String parentTaskId, String continuationStep, boolean timedOut) {
+        super(source, taskId, taskType, userId);
+        this.parameters = parameters;
+        this.parentTaskId = parentTaskId;
+        this.continuationStep = continuationStep;
+        this.timedOut = timedOut;
+    }
+    
+    public Object getParameters() {
+        return parameters;
+    }
+    
+    public String getParentTaskId() {
+        return parentTaskId;
+    }
+    
+    /**
+     * 获取续跑步骤
+     * 
+     * @return 续跑步骤
+     */
+    public String getContinuationStep() {
+        return continuationStep;
+    }
+    
+    /**
+     * 等待是否因超时结束
+     * 
+     * @return 超时返回true
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
@@ -1,15 +1,15 @@
 package com.ainovel.server.task.executor;
 
-import com.ainovel.server.domain.model.Novel;
-import com.ainovel.server.domain.model.Novel.Chapter;
 import com.ainovel.server.domain.model.Scene;
-import com.ainovel.server.service.NovelService;
-import com.ainovel.server.service.SceneService;
 import com.ainovel.server.task.BackgroundTaskExecutable;
 import com.ainovel.server.task.TaskContext;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryParameters;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryProgress;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryPackParameters;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryParameters;
+import com.ainovel.server.task.service.BatchSummaryPlanner;
+import com.ainovel.server.task.service.BatchSummaryPlanner.Decision;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,153 +17,123 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 批量生成场景摘要的任务执行器
+ * 只为规划结果中需要生成的场景提交子任务，正文未变化的场景直接复用已有摘要；
+ * 打包模式下每包提交一个 GENERATE_SUMMARY_PACK 子任务
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class BatchGenerateSummaryTaskExecutable implements BackgroundTaskExecutable<BatchGenerateSummaryParameters, BatchGenerateSummaryResult> {
 
-    private final NovelService novelService;
-    private final SceneService sceneService;
+    private final BatchSummaryPlanner batchSummaryPlanner;
 
     @Override
     public Mono<BatchGenerateSummaryResult> execute(TaskContext<BatchGenerateSummaryParameters> context) {
         BatchGenerateSummaryParameters parameters = context.getParameters();
         String novelId = parameters.getNovelId();
-        String startChapterId = parameters.getStartChapterId();
-        String endChapterId = parameters.getEndChapterId();
         String aiConfigId = parameters.getAiConfigId();
-        boolean overwriteExisting = parameters.isOverwriteExisting();
         String userId = context.getUserId();
 
-        log.info("开始批量生成场景摘要，小说ID: {}, 起始章节: {}, 结束章节: {}, 用户ID: {}, AI配置ID: {}, 覆盖已有摘要: {}", 
-            novelId, startChapterId, endChapterId, userId, aiConfigId, overwriteExisting);
+        log.info("开始批量生成场景摘要，小说ID: {}, 起始章节: {}, 结束章节: {}, 用户ID: {}, AI配置ID: {}, 覆盖已有摘要: {}, 强制重新生成: {}", 
+            novelId, parameters.getStartChapterId(), parameters.getEndChapterId(), userId, aiConfigId,
+            parameters.isOverwriteExisting(), parameters.isForceRegenerate());
         
-        // 1. 参数验证
-        return novelService.findNovelById(novelId)
-            .switchIfEmpty(Mono.error(new IllegalArgumentException("找不到小说: " + novelId)))
-            .flatMap(novel -> {
-                if (!novel.getAuthor().getId().equals(userId)) {
-                    log.error("用户 {} 无权访问小说 {}", userId, novelId);
-                    return Mono.error(new IllegalArgumentException("无权访问该小说"));
-                }
+        // 参数验证、章节范围与场景分类均由规划器完成
+        return batchSummaryPlanner.plan(userId, parameters)
+            .flatMap(plan -> {
+                int totalScenes = plan.totalScenes();
+                List<Scene> toGenerate = plan.get(Decision.GENERATE);
+                int skippedCount = plan.count(Decision.SKIP_EXISTING) + plan.count(Decision.EMPTY);
+                int unchangedCount = plan.count(Decision.SKIP_UNCHANGED);
+                Map<String, String> failedSceneDetails = new ConcurrentHashMap<>();
                 
-                // 2. 查找章节顺序
-                Map<String, Integer> chapterOrderMap = getChapterOrderMap(novel);
+                // 跳过的场景不会产生子任务，计入初始进度，状态聚合器据此判断全部完成
+                BatchGenerateSummaryProgress initialProgress = BatchGenerateSummaryProgress.builder()
+                    .totalScenes(totalScenes)
+                    .skippedCount(skippedCount + unchangedCount)
+                    .unchangedCount(unchangedCount)
+                    .build();
                 
-                if (!chapterOrderMap.containsKey(startChapterId) || !chapterOrderMap.containsKey(endChapterId)) {
-                    log.error("章节ID不存在: startChapterId={}, endChapterId={}", startChapterId, endChapterId);
-                    return Mono.error(new IllegalArgumentException("章节ID不存在"));
-                }
-                
-                int startOrder = chapterOrderMap.get(startChapterId);
-                int endOrder = chapterOrderMap.get(endChapterId);
-                
-                if (startOrder > endOrder) {
-                    log.error("起始章节顺序({})大于结束章节顺序({})", startOrder, endOrder);
-                    return Mono.error(new IllegalArgumentException("起始章节必须在结束章节之前或相同"));
-                }
-                
-                // 3. 获取该范围内所有章节ID
-                List<String> chapterIds = getChapterIdsInRange(novel, startOrder, endOrder);
-                
-                // 查询这些章节下的所有场景
-                return sceneService.findScenesByChapterIds(chapterIds)
+                return context.updateProgress(initialProgress)
+                    .then(Mono.fromRunnable(() -> log.info("指定章节范围内找到 {} 个场景，需生成 {} 个，跳过 {} 个，未变化 {} 个",
+                        totalScenes, toGenerate.size(), skippedCount, unchangedCount)))
+                    .thenMany(parameters.isPacked()
+                        ? Flux.fromIterable(plan.packs()).flatMap(pack -> submitPack(context, pack, failedSceneDetails))
+                        : Flux.fromIterable(toGenerate).flatMap(scene -> submitScene(context, scene, failedSceneDetails)))
                     .collectList()
-                    .flatMap(scenes -> {
-                        int totalScenes = scenes.size();
-                        double progressStep = totalScenes > 0 ? 100.0 / totalScenes : 0;
-                        double initialProgress = 0;
-                        
-                        Map<String, String> failedSceneDetails = new HashMap<>();
-                        List<String> processedSceneIds = new ArrayList<>();
+                    .map(results -> {
+                        long failedCount = results.stream().filter(r -> r.startsWith("FAILED")).count();
                         
-                        return context.updateProgress(initialProgress)
-                            .then(Mono.fromRunnable(() -> log.info("指定章节范围内找到 {} 个场景", totalScenes)))
-                            .thenMany(Flux.fromIterable(scenes))
-                            .flatMap(scene -> {
-                                String sceneId = scene.getId();
-                                int version = scene.getVersion();
-                                
-                                if (!overwriteExisting && scene.getSummary() != null && !scene.getSummary().trim().isEmpty()) {
-                                    log.info("场景 {} 已有摘要且设置了不覆盖，跳过生成", sceneId);
-                                    return Mono.just("SKIPPED");
-                                }
-                                
-                                // 创建子任务参数
-                                GenerateSummaryParameters subTaskParams = GenerateSummaryParameters.builder()
-                                    .sceneId(sceneId)
-                                    .novelId(novelId)
-                                    .aiConfigId(aiConfigId)
-                                    .useAIEnhancement(true)
-                                    .build();
-                                
-                                // 提交子任务
-                                return context.submitSubTask("GENERATE_SUMMARY", subTaskParams)
-                                    .doOnNext(subTaskId -> log.info("为场景 {} 提交子任务 {}", sceneId, subTaskId))
-                                    .map(subTaskId -> "SUBMITTED");
-                            })
-                            .onErrorResume(e -> {
-                                String sceneId = "unknown";
-                                log.error("为场景 {} 提交子任务失败: {}", sceneId, e.getMessage());
-                                return Mono.just("FAILED:" + sceneId);
-                            })
-                            .collectList()
-                            .map(results -> {
-                                long skippedCount = results.stream().filter(r -> r.equals("SKIPPED")).count();
-                                long failedCount = results.stream().filter(r -> r.startsWith("FAILED")).count();
-                                
-                                // 构建结果
-                                return BatchGenerateSummaryResult.builder()
-                                    .totalScenes(totalScenes)
-                                    .successCount(0) // 初始为0，后续由状态聚合器更新
-                                    .failedCount((int)failedCount)
-                                    .conflictCount(0) // 初始为0，后续由状态聚合器更新
-                                    .skippedCount((int)skippedCount)
-                                    .failedSceneDetails(failedSceneDetails)
-                                    .build();
-                            });
+                        // 构建结果
+                        return BatchGenerateSummaryResult.builder()
+                            .totalScenes(totalScenes)
+                            .successCount(0) // 初始为0，后续由状态聚合器更新
+                            .failedCount((int) failedCount)
+                            .conflictCount(0) // 初始为0，后续由状态聚合器更新
+                            .skippedCount(skippedCount)
+                            .unchangedCount(unchangedCount)
+                            .failedSceneDetails(failedSceneDetails)
+                            .build();
                     });
             });
     }
 
-    private Map<String, Integer> getChapterOrderMap(Novel novel) {
-        Map<String, Integer> chapterOrderMap = new HashMap<>();
+    private Mono<String> submitScene(TaskContext<BatchGenerateSummaryParameters> context, Scene scene,
+                                     Map<String, String> failedSceneDetails) {
+        BatchGenerateSummaryParameters parameters = context.getParameters();
+        String sceneId = scene.getId();
         
-        for (Novel.Act act : novel.getStructure().getActs()) {
-            for (Novel.Chapter chapter : act.getChapters()) {
-                chapterOrderMap.put(chapter.getId(), chapter.getOrder());
-            }
-        }
+        // 创建子任务参数
+        GenerateSummaryParameters subTaskParams = GenerateSummaryParameters.builder()
+            .sceneId(sceneId)
+            .novelId(parameters.getNovelId())
+            .aiConfigId(parameters.getAiConfigId())
+            .useAIEnhancement(true)
+            .forceRegenerate(parameters.isForceRegenerate())
+            .build();
         
-        return chapterOrderMap;
+        // 提交子任务
+        return context.submitSubTask("GENERATE_SUMMARY", subTaskParams)
+            .doOnNext(subTaskId -> log.info("为场景 {} 提交子任务 {}", sceneId, subTaskId))
+            .map(subTaskId -> "SUBMITTED")
+            .onErrorResume(e -> {
+                log.error("为场景 {} 提交子任务失败: {}", sceneId, e.getMessage());
+                failedSceneDetails.put(sceneId, e.getMessage());
+                return Mono.just("FAILED:" + sceneId);
+            });
     }
-    
-    private List<String> getChapterIdsInRange(Novel novel, int startOrder, int endOrder) {
-        List<String> chapterIds = new ArrayList<>();
+
+    private Flux<String> submitPack(TaskContext<BatchGenerateSummaryParameters> context, List<Scene> pack,
+                                    Map<String, String> failedSceneDetails) {
+        BatchGenerateSummaryParameters parameters = context.getParameters();
+        List<String> sceneIds = pack.stream().map(Scene::getId).toList();
         
-        for (Novel.Act act : novel.getStructure().getActs()) {
-            for (Novel.Chapter chapter : act.getChapters()) {
-                int order = chapter.getOrder();
-                if (order >= startOrder && order <= endOrder) {
-                    chapterIds.add(chapter.getId());
-                }
-            }
-        }
+        GenerateSummaryPackParameters subTaskParams = GenerateSummaryPackParameters.builder()
+            .novelId(parameters.getNovelId())
+            .sceneIds(sceneIds)
+            .aiConfigId(parameters.getAiConfigId())
+            .forceRegenerate(parameters.isForceRegenerate())
+            .build();
         
-        return chapterIds;
+        // 按场景返回提交状态，失败数与非打包模式口径一致
+        return context.submitSubTask("GENERATE_SUMMARY_PACK", subTaskParams)
+            .doOnNext(subTaskId -> log.info("为 {} 个场景提交打包子任务 {}", sceneIds.size(), subTaskId))
+            .flatMapMany(subTaskId -> Flux.fromIterable(sceneIds).map(id -> "SUBMITTED"))
+            .onErrorResume(e -> {
+                log.error("提交打包子任务失败，场景数: {}, 原因: {}", sceneIds.size(), e.getMessage());
+                sceneIds.forEach(id -> failedSceneDetails.put(id, e.getMessage()));
+                return Flux.fromIterable(sceneIds).map(id -> "FAILED:" + id);
+            });
     }
 
     @Override
     public String getTaskType() {
         return "BATCH_GENERATE_SUMMARY";
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.ainovel.server.task.executor;
+
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.NovelAIService;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.ainovel.server.service.cache.SceneSummaryCache;
+import com.ainovel.server.task.BackgroundTaskExecutable;
+import com.ainovel.server.task.TaskContext;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryPackParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryPackResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryResult;
+import com.ainovel.server.task.service.EnhancedRateLimiterService;
+import com.ainovel.server.task.service.SummaryPacker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 打包生成场景摘要任务执行器 (响应式)
+ * 一次请求总结多个短场景，整包只申请一次限流许可
+ */
+@Slf4j
+@Component
+public class GenerateSummaryPackTaskExecutable extends BaseAITaskExecutor
+        implements BackgroundTaskExecutable<GenerateSummaryPackParameters, GenerateSummaryPackResult> {
+
+    private final SceneService sceneService;
+    private final NovelAIService novelAIService;
+    private final SceneSummaryCache sceneSummaryCache;
+    private final SummaryPacker summaryPacker;
+
+    public GenerateSummaryPackTaskExecutable(
+            SceneService sceneService,
+            NovelAIService novelAIService,
+            UserAIModelConfigService userAIModelConfigService,
+            EnhancedRateLimiterService rateLimiterService,
+            SceneSummaryCache sceneSummaryCache,
+            SummaryPacker summaryPacker) {
+        super(userAIModelConfigService, rateLimiterService);
+        this.sceneService = sceneService;
+        this.novelAIService = novelAIService;
+        this.sceneSummaryCache = sceneSummaryCache;
+        this.summaryPacker = summaryPacker;
+    }
+
+    @Override
+    public Mono<GenerateSummaryPackResult> execute(TaskContext<GenerateSummaryPackParameters> context) {
+        GenerateSummaryPackParameters parameters = context.getParameters();
+        String userId = context.getUserId();
+        String aiConfigId = parameters.getAiConfigId();
+        String requestId = context.getTaskId();
+        List<String> sceneIds = parameters.getSceneIds();
+
+        log.info("[任务:{}] 开始打包生成 {} 个场景摘要，用户ID: {}, AI配置ID: {}", requestId, sceneIds.size(), userId, aiConfigId);
+
+        Map<String, String> failedSceneDetails = new HashMap<>();
+        return Flux.fromIterable(sceneIds)
+            .concatMap(sceneId -> sceneService.findSceneById(sceneId)
+                .switchIfEmpty(Mono.fromRunnable(() -> failedSceneDetails.put(sceneId, "场景不存在"))))
+            .collectList()
+            .zipWith(sceneSummaryCache.resolveKey(userId, aiConfigId, true))
+            .flatMap(tuple -> {
+                SceneSummaryCache.SummaryKey summaryKey = tuple.getT2();
+                List<GenerateSummaryResult> results = new ArrayList<>();
+                List<Scene> toGenerate = new ArrayList<>();
+                for (Scene scene : tuple.getT1()) {
+                    if (scene.getContent() == null || scene.getContent().trim().isEmpty()) {
+                        failedSceneDetails.put(scene.getId(), "场景内容为空，无法生成摘要");
+                    } else if (!parameters.isForceRegenerate() && sceneSummaryCache.isFresh(scene, summaryKey)) {
+                        results.add(result(scene.getId(), scene.getSummary()));
+                    } else {
+                        toGenerate.add(scene);
+                    }
+                }
+                if (toGenerate.isEmpty()) {
+                    return Mono.just(buildResult(results, failedSceneDetails, 0));
+                }
+
+                AtomicInteger llmCalls = new AtomicInteger();
+                return executeWithRateLimit(userId, true, aiConfigId, requestId,
+                        resolveProvider(userId, aiConfigId, summaryKey)
+                            .flatMap(provider -> summaryPacker.summarize(provider, userId, parameters.getNovelId(), toGenerate, llmCalls)),
+                        parameters)
+                    .flatMapMany(summaries -> Flux.fromIterable(toGenerate)
+                        .concatMap(scene -> {
+                            String summary = summaries.get(scene.getId());
+                            if (summary == null) {
+                                failedSceneDetails.put(scene.getId(), "打包响应中缺少该场景的摘要");
+                                return Mono.empty();
+                            }
+                            return save(scene, summary, sceneSummaryCache.provenance(scene, summaryKey))
+                                .switchIfEmpty(Mono.fromRunnable(() -> failedSceneDetails.put(scene.getId(), "场景更新失败，版本冲突")));
+                        }))
+                    .collectList()
+                    .map(saved -> {
+                        results.addAll(saved);
+                        log.info("[任务:{}] 打包摘要完成，成功 {} 个，失败 {} 个，请求 {} 次",
+                                requestId, results.size(), failedSceneDetails.size(), llmCalls.get());
+                        return buildResult(results, failedSceneDetails, llmCalls.get());
+                    });
+            });
+    }
+
+    private Mono<AIModelProvider> resolveProvider(String userId, String aiConfigId, SceneSummaryCache.SummaryKey summaryKey) {
+        if (aiConfigId != null && !aiConfigId.isBlank()) {
+            return novelAIService.getAIModelProviderByConfigId(userId, aiConfigId);
+        }
+        return novelAIService.getAIModelProvider(userId, summaryKey.modelName());
+    }
+
+    /**
+     * 写入摘要；版本冲突时基于最新版本重试一次，仍失败则返回空
+     */
+    private Mono<GenerateSummaryResult> save(Scene scene, String summary, Scene.SummaryProvenance provenance) {
+        String sceneId = scene.getId();
+        return sceneSummaryCache.saveSummary(scene, scene.getVersion(), summary, provenance)
+            .flatMap(success -> success
+                ? Mono.just(true)
+                : sceneService.findSceneById(sceneId)
+                    .flatMap(latest -> sceneSummaryCache.saveSummary(latest, latest.getVersion(), summary, provenance)))
+            .filter(Boolean::booleanValue)
+            .map(success -> result(sceneId, summary));
+    }
+
+    private GenerateSummaryResult result(String sceneId, String summary) {
+        return GenerateSummaryResult.builder()
+            .sceneId(sceneId)
+            .summary(summary)
+            .processingTimeMs(System.currentTimeMillis())
+            .completedAt(Instant.now())
+            .build();
+    }
+
+    private GenerateSummaryPackResult buildResult(List<GenerateSummaryResult> results, Map<String, String> failedSceneDetails, int llmCalls) {
+        return GenerateSummaryPackResult.builder()
+            .results(results)
+            .failedSceneDetails(failedSceneDetails)
+            .llmCalls(llmCalls)
+            .build();
+    }
+
+    @Override
+    public String getTaskType() {
+        return "GENERATE_SUMMARY_PACK";
+    }
+}
@@ -4,6 +4,7 @@ import com.ainovel.server.domain.model.Scene;
 import com.ainovel.server.service.NovelAIService;
 import com.ainovel.server.service.SceneService;
 import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.cache.SceneSummaryCache;
 import com.ainovel.server.task.BackgroundTaskExecutable;
 import com.ainovel.server.task.TaskContext;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryParameters;
@@ -13,11 +14,6 @@ import com.ainovel.server.web.dto.SummarizeSceneRequest;
 import com.ainovel.server.domain.model.UserAIModelConfig;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import reactor.core.publisher.Mono;
@@ -35,18 +31,18 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
 
     private final SceneService sceneService;
     private final NovelAIService novelAIService;
-    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final SceneSummaryCache sceneSummaryCache;
     
     public GenerateSummaryTaskExecutable(
             SceneService sceneService,
             NovelAIService novelAIService, 
             UserAIModelConfigService userAIModelConfigService,
-            ReactiveMongoTemplate reactiveMongoTemplate,
-            EnhancedRateLimiterService rateLimiterService) {
+            EnhancedRateLimiterService rateLimiterService,
+            SceneSummaryCache sceneSummaryCache) {
         super(userAIModelConfigService, rateLimiterService);
         this.sceneService = sceneService;
         this.novelAIService = novelAIService;
-        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.sceneSummaryCache = sceneSummaryCache;
     }
 
     @Override
@@ -63,7 +59,10 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
 
         return sceneService.findSceneById(sceneId)
             .switchIfEmpty(Mono.error(new IllegalStateException("场景不存在: " + sceneId)))
-            .flatMap(scene -> {
+            .zipWith(sceneSummaryCache.resolveKey(userId, aiConfigId))
+            .flatMap(tuple -> {
+                Scene scene = tuple.getT1();
+                SceneSummaryCache.SummaryKey summaryKey = tuple.getT2();
                 int actualVersion = scene.getVersion();
                 String content = scene.getContent();
 
@@ -72,6 +71,20 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
                     return Mono.error(new IllegalArgumentException("场景内容为空，无法生成摘要"));
                 }
 
+                // 正文、模型、提示词版本均未变化时，已有摘要即本次生成的结果
+                if (!parameters.isForceRegenerate() && sceneSummaryCache.isFresh(scene, summaryKey)) {
+                    log.info("[任务:{}] 场景 {} 正文未变化，复用已有摘要", requestId, sceneId);
+                    return Mono.just(GenerateSummaryResult.builder()
+                        .sceneId(sceneId)
+                        .summary(scene.getSummary())
+                        .processingTimeMs(System.currentTimeMillis())
+                        .completedAt(Instant.now())
+                        .build());
+                }
+
+                // 生成依据按发起生成时的正文计算，期间正文被修改时指纹不匹配，下次会重新生成
+                Scene.SummaryProvenance provenance = sceneSummaryCache.provenance(scene, summaryKey);
+
                 SummarizeSceneRequest summarizeRequest = new SummarizeSceneRequest();
                 summarizeRequest.setAiConfigId(aiConfigId);
                 log.info("[任务:{}] 调用AI服务生成场景 {} 摘要", requestId, sceneId);
@@ -87,7 +100,7 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
                             }
                             log.info("[任务:{}] 场景 {} 摘要生成成功，长度: {}", requestId, sceneId, generatedSummary.length());
 
-                            return updateSceneSummaryAtomic(sceneId, actualVersion, generatedSummary)
+                            return sceneSummaryCache.saveSummary(scene, actualVersion, generatedSummary, provenance)
                                 .flatMap(updateSuccess -> {
                                     if (updateSuccess) {
                                         return Mono.just(GenerateSummaryResult.builder()
@@ -101,7 +114,7 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
                                         return sceneService.findSceneById(sceneId)
                                             .switchIfEmpty(Mono.error(new IllegalStateException("场景不存在: " + sceneId)))
                                             .flatMap(latestScene -> 
-                                                updateSceneSummaryAtomic(sceneId, latestScene.getVersion(), generatedSummary)
+                                                sceneSummaryCache.saveSummary(latestScene, latestScene.getVersion(), generatedSummary, provenance)
                                                     .flatMap(retrySuccess -> {
                                                         if (retrySuccess) {
                                                             return Mono.just(GenerateSummaryResult.builder()
@@ -122,30 +135,6 @@ public class GenerateSummaryTaskExecutable extends BaseAITaskExecutor
             });
     }
 
-    private Mono<Boolean> updateSceneSummaryAtomic(String sceneId, int expectedVersion, String summary) {
-        Query query = Query.query(Criteria.where("_id").is(sceneId)
-                .and("version").is(expectedVersion));
-        
-        Update update = new Update()
-                .set("summary", summary)
-                .inc("version", 1);
-        
-        return reactiveMongoTemplate.updateFirst(query, update, Scene.class)
-                .map(updateResult -> updateResult.getModifiedCount() > 0)
-                .onErrorResume(OptimisticLockingFailureException.class, e -> {
-                    log.warn("原子更新场景 {} 摘要时发生乐观锁冲突 (期望版本: {})", sceneId, expectedVersion);
-                    return Mono.just(false);
-                })
-                .onErrorResume(e -> {
-                    log.error("原子更新场景 {} 摘要时发生其他错误", sceneId, e);
-                    return Mono.just(false);
-                });
-    }
-    
-
-    
-
-
     @Override
     public String getTaskType() {
         return "GENERATE_SUMMARY";
@@ -9,6 +9,7 @@ import com.ainovel.server.task.TaskContext;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupParameters;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupProgress;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupResult;
+import com.ainovel.server.task.service.permit.TaskPermitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +35,11 @@ public class KnowledgeExtractionGroupTaskExecutor
     private final AIService aiService;
     private final ObjectMapper objectMapper;
     private final com.ainovel.server.service.KnowledgeExtractionTaskService taskRecordService;
+    private final TaskPermitService taskPermitService;
+    
+    // 提取组并发许可键：父任务挂起等待期间不持有拆书许可，由该上限约束同时进行的组提取（LLM调用）数量，
+    // 上限由 task.permits.task-types.KNOWLEDGE_EXTRACTION_GROUP 配置（集群级）
+    private static final String GROUP_PERMIT_TYPE = "KNOWLEDGE_EXTRACTION_GROUP";
     
     @Override
     public String getTaskType() {
@@ -177,15 +183,21 @@ public class KnowledgeExtractionGroupTaskExecutor
                     KnowledgeExtractionStrategy strategy = new KnowledgeExtractionStrategy(provider, objectMapper);
                     
                     // ✅ 一次性为整个组的所有类型调用LLM（传递章节数量、模型配置信息）
-                    return strategy.extractKnowledgeForGroup(
-                            types,
-                            parameters.getContent(),
-                            null, // novelId
-                            context.getUserId(), // ✅ 传递userId用于计费
-                            parameters.getChapterCount(),  // ✅ 传递章节数量
-                            parameters.getModelConfigId(),  // ✅ 传递模型配置ID用于计费识别
-                            parameters.getModelType()  // ✅ 传递模型类型用于计费识别
-                    )
+                    // 先按提取组并发许可排队，再按供应商的并发许可（task.permits.providers）排队，未配置的供应商不限制
+                    return taskPermitService.withPermit(
+                            taskPermitService.acquireForTaskType(GROUP_PERMIT_TYPE, null, position ->
+                                    log.info("提取组排队等待执行许可: taskId={}, 排队位置={}", context.getTaskId(), position)),
+                            groupPermit -> taskPermitService.withPermit(
+                                    taskPermitService.acquireForProvider(provider.getProviderName(), null),
+                                    permit -> strategy.extractKnowledgeForGroup(
+                                            types,
+                                            parameters.getContent(),
+                                            null, // novelId
+                                            context.getUserId(), // ✅ 传递userId用于计费
+                                            parameters.getChapterCount(),  // ✅ 传递章节数量
+                                            parameters.getModelConfigId(),  // ✅ 传递模型配置ID用于计费识别
+                                            parameters.getModelType()  // ✅ 传递模型类型用于计费识别
+                                    )))
                     .doOnNext(settings -> {
                         log.info("✅ 组AI响应解析成功: types={}, 设定数量={}", 
                                 types.stream().map(KnowledgeExtractionType::getValue).collect(Collectors.toList()),
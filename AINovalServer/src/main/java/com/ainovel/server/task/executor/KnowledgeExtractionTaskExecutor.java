@@ -8,11 +8,15 @@ import com.ainovel.server.service.IndexingService;
 import com.ainovel.server.service.fanqie.FanqieNovelService;
 import com.ainovel.server.task.BackgroundTaskExecutable;
 import com.ainovel.server.task.TaskContext;
+import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupParameters;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionParameters;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionProgress;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionResult;
 import com.ainovel.server.task.dto.knowledge.KnowledgeExtractionGroupResult;
-import com.ainovel.server.task.service.SubTaskCompletionService;
+import com.ainovel.server.task.model.BackgroundTask;
+import com.ainovel.server.task.model.TaskStatus;
+import com.ainovel.server.task.service.permit.TaskPermitService;
+import com.ainovel.server.web.dto.ChapterDetailDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -50,13 +54,26 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
     private final com.ainovel.server.repository.SceneRepository sceneRepository;
     private final com.ainovel.server.repository.NovelRepository novelRepository;
     private final com.ainovel.server.service.ImportService importService;
-    private final SubTaskCompletionService subTaskCompletionService;
     private final IndexingService indexingService;
+    private final TaskPermitService taskPermitService;
     
-    // 拆书任务并发限制：最多允许5个拆书任务同时执行
+    /** 子任务全部结束后的续跑步骤：聚合结果并创建知识库 */
+    private static final String STEP_AGGREGATE = "AGGREGATE_SUB_TASKS";
+    
+    /** 等待子任务的最长时间 */
+    private static final Duration SUB_TASK_TIMEOUT = Duration.ofMinutes(30);
+    
+    /**
+     * 写入工作流状态、供聚合步骤使用的字段
+     * 正文（content）与章节正文不写入任务文档，续跑时按章节区间（chapterSpans）从子任务的输入内容还原
+     */
+    private static final List<String> WORKFLOW_STATE_FIELDS = List.of(
+            "title", "author", "description", "coverImageUrl", "fanqieNovelId",
+            "isUserImported", "chapterCount", "chapterSpans");
+    
+    // 拆书任务并发许可键：上限由 task.permits.task-types.KNOWLEDGE_EXTRACTION 配置（集群级）
     // 避免过多并发导致数据库连接和外部API压力过大
-    private static final java.util.concurrent.Semaphore EXTRACTION_SEMAPHORE = 
-            new java.util.concurrent.Semaphore(5);
+    private static final String EXTRACTION_PERMIT_TYPE = "KNOWLEDGE_EXTRACTION";
     
     // 前端访问的公开URL（用于生成图片链接，直连API模式下封面URL已是完整路径，此配置仅作兼容保留）
     @org.springframework.beans.factory.annotation.Value("${fanqie.api.fallback-base-url:http://qkfqapi.vv9v.cn}")
@@ -82,24 +99,22 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
         KnowledgeExtractionParameters parameters = context.getParameters();
         String taskId = context.getTaskId();
         
+        // 子任务全部结束后重新入队：直接进入聚合步骤，不再占用拆书并发许可
+        if (STEP_AGGREGATE.equals(context.getContinuationStep())) {
+            log.info("子任务已全部结束，继续聚合知识提取结果: taskId={}", taskId);
+            return recordOutcome(aggregateAfterSubTasks(context, parameters), context, parameters, taskId);
+        }
+        
         log.info("开始执行知识提取任务: taskId={}, importRecordId={}", 
                 taskId, parameters.getImportRecordId());
         
-        // 使用 Semaphore 控制并发，避免过多拆书任务同时执行
-        return Mono.fromCallable(() -> {
-                    log.info("等待获取拆书任务执行许可: taskId={}, availablePermits={}", 
-                            taskId, EXTRACTION_SEMAPHORE.availablePermits());
-                    EXTRACTION_SEMAPHORE.acquire();
-                    log.info("获取拆书任务执行许可成功: taskId={}, availablePermits={}", 
-                            taskId, EXTRACTION_SEMAPHORE.availablePermits());
-                    return true;
-                })
-                .subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic())
-                .flatMap(acquired -> doExecute(context, parameters, taskId))
-                .doFinally(signal -> {
-                    EXTRACTION_SEMAPHORE.release();
-                    log.info("释放拆书任务执行许可: taskId={}, signal={}, availablePermits={}", 
-                            taskId, signal, EXTRACTION_SEMAPHORE.availablePermits());
+        // 使用集群级执行许可控制并发，排队期间不占用线程
+        return taskPermitService.withPermit(
+                taskPermitService.acquireForTaskType(EXTRACTION_PERMIT_TYPE, null, position ->
+                        log.info("拆书任务排队等待执行许可: taskId={}, 排队位置={}", taskId, position)),
+                permit -> {
+                    log.info("获取拆书任务执行许可成功: taskId={}, 等待{}ms", taskId, permit.getWaitTime().toMillis());
+                    return doExecute(context, parameters, taskId);
                 });
     }
     
@@ -122,7 +137,7 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                 .build();
         
         // ✅ 立即创建任务记录（使用占位符数据）
-        return createInitialTaskRecord(taskId, parameters)
+        Mono<KnowledgeExtractionResult> execution = createInitialTaskRecord(taskId, parameters)
                 .then(context.updateProgress(progress))
                 .then(getNovelContent(parameters))
                 .flatMap(contentData -> {
@@ -141,13 +156,29 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                                             return result;
                                         });
                             }));
-                })
+                });
+        return recordOutcome(execution, context, parameters, taskId);
+    }
+    
+    /**
+     * 记录父任务的最终结果（成功/失败）；挂起等待子任务时不记录
+     */
+    private Mono<KnowledgeExtractionResult> recordOutcome(
+            Mono<KnowledgeExtractionResult> execution,
+            TaskContext<KnowledgeExtractionParameters> context,
+            KnowledgeExtractionParameters parameters,
+            String taskId) {
+        return execution
                 .doOnSuccess(result -> {
+                    if (context.isSuspended()) {
+                        log.info("知识提取任务已挂起等待子任务: taskId={}", taskId);
+                        return;
+                    }
                     log.info("知识提取任务（父任务）完成: taskId={}, success={}", 
                             taskId, result.getSuccess());
                     
                     // 记录任务成功
-                    if (result.getSuccess()) {
+                    if (Boolean.TRUE.equals(result.getSuccess())) {
                         taskRecordService.recordTaskSuccess(
                                 taskId, 
                                 result.getKnowledgeBaseId(), 
@@ -363,38 +394,38 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                 // 从previewSession获取章节详情
                 return importService.getChapterDetailsFromPreviewSession(sessionId, parameters.getChapterCount())
                 .map(chapterDetails -> {
-                    // 转换为标准格式（与番茄小说相同）
-                    List<Map<String, Object>> chapterDetailsList = chapterDetails.stream()
-                            .map(detail -> {
-                                Map<String, Object> map = new HashMap<>();
-                                map.put("index", detail.getIndex());
-                                map.put("chapterId", detail.getChapterId());
-                                map.put("title", detail.getTitle());
-                                map.put("content", detail.getContent());
-                                map.put("wordCount", detail.getWordCount());
-                                map.put("formattedContent", 
-                                        String.format("【第%d章 %s】\n%s", 
-                                                detail.getIndex(), 
-                                                detail.getTitle(), 
-                                                detail.getContent()));
-                                return map;
-                            })
-                            .collect(Collectors.toList());
-                    
-                    // 合并所有章节内容用于AI分析
-                    String mergedContent = chapterDetailsList.stream()
-                            .map(ch -> (String) ch.get("formattedContent"))
-                            .collect(Collectors.joining("\n\n"));
+                    // 合并所有章节内容用于AI分析，同时记录每章正文在合并内容中的区间（与番茄小说相同的标题格式）
+                    StringBuilder mergedContent = new StringBuilder();
+                    List<Map<String, Object>> chapterSpans = new ArrayList<>();
+                    for (ChapterDetailDto detail : chapterDetails) {
+                        if (mergedContent.length() > 0) {
+                            mergedContent.append("\n\n");
+                        }
+                        mergedContent.append(String.format("【第%d章 %s】\n", detail.getIndex(), detail.getTitle()));
+                        Map<String, Object> span = new HashMap<>();
+                        span.put("index", detail.getIndex());
+                        span.put("chapterId", detail.getChapterId());
+                        span.put("title", detail.getTitle());
+                        span.put("wordCount", detail.getWordCount());
+                        if (detail.getContent() != null) {
+                            span.put("start", mergedContent.length());
+                            mergedContent.append(detail.getContent());
+                            span.put("end", mergedContent.length());
+                        } else {
+                            mergedContent.append("null");
+                        }
+                        chapterSpans.add(span);
+                    }
                     
                     Map<String, Object> data = new HashMap<>();
                     data.put("title", parameters.getTitle());
                     data.put("description", parameters.getDescription());
-                    data.put("content", mergedContent); // 合并后的内容用于AI分析
-                    data.put("chapterDetails", chapterDetailsList); // ✅ 章节详情列表
+                    data.put("content", mergedContent.toString()); // 合并后的内容用于AI分析
+                    data.put("chapterSpans", chapterSpans); // ✅ 章节区间（不含正文）
                     data.put("isUserImported", true);
-                    data.put("chapterCount", chapterDetailsList.size());
+                    data.put("chapterCount", chapterSpans.size());
                     
-                    log.info("用户导入文本: 成功获取章节详情, chapters={}", chapterDetailsList.size());
+                    log.info("用户导入文本: 成功获取章节详情, chapters={}", chapterSpans.size());
                     
                     return data;
                 })
@@ -433,84 +464,6 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
         }
     }
     
-    /**
-     * 等待番茄小说下载任务完成
-     * 
-     * @param celeryTaskId Celery任务ID
-     * @return 完成信号
-     */
-    private Mono<Void> waitForDownloadTask(String celeryTaskId) {
-        log.info("开始等待下载任务完成: celeryTaskId={}", celeryTaskId);
-        
-        return Mono.defer(() -> checkDownloadTaskStatus(celeryTaskId, 0))
-                .then();
-    }
-    
-    /**
-     * 递归检查下载任务状态
-     * 
-     * @param celeryTaskId Celery任务ID
-     * @param attemptCount 尝试次数
-     * @return 任务状态
-     */
-    private Mono<String> checkDownloadTaskStatus(String celeryTaskId, int attemptCount) {
-        final int MAX_ATTEMPTS = 180; // 最多等待60次（约15分钟）
-        final int POLL_INTERVAL_SECONDS = 10; // 每5秒检查一次
-        
-        if (attemptCount >= MAX_ATTEMPTS) {
-            return Mono.error(new RuntimeException(
-                    "下载任务超时: 等待时间超过" + (MAX_ATTEMPTS * POLL_INTERVAL_SECONDS) + "秒"));
-        }
-        
-        return fanqieNovelService.getTaskStatus(celeryTaskId)
-                .flatMap(task -> {
-                    String status = task.getStatus();
-                    Integer progress = task.getProgress();
-                    
-                    log.info("下载任务状态检查 [尝试 {}/{}]: status={}, progress={}%", 
-                            attemptCount + 1, MAX_ATTEMPTS, status, progress);
-                    
-                    // 支持多种完成状态：SUCCESS, COMPLETED
-                    if ("completed".equalsIgnoreCase(status) || "success".equalsIgnoreCase(status)) {
-                        log.info("✅ 下载任务完成: celeryTaskId={}, status={}", celeryTaskId, status);
-                        return Mono.just(status);
-                    } else if ("failed".equalsIgnoreCase(status) || "failure".equalsIgnoreCase(status)) {
-                        // 支持 FAILED 和 FAILURE 两种失败状态
-                        String errorMsg = task.getMessage() != null ? task.getMessage() : "未知错误";
-                        log.error("❌ 下载任务失败: celeryTaskId={}, status={}, error={}", celeryTaskId, status, errorMsg);
-                        return Mono.error(new RuntimeException("下载任务失败: " + errorMsg));
-                    } else if ("terminated".equalsIgnoreCase(status)) {
-                        log.error("❌ 下载任务被终止: celeryTaskId={}", celeryTaskId);
-                        return Mono.error(new RuntimeException("下载任务被终止"));
-                    } else {
-                        // 任务仍在进行中，等待后重试
-                        return Mono.delay(java.time.Duration.ofSeconds(POLL_INTERVAL_SECONDS))
-                                .flatMap(tick -> checkDownloadTaskStatus(celeryTaskId, attemptCount + 1));
-                    }
-                })
-                .onErrorResume(error -> {
-                    String errorMsg = error.getMessage();
-                    if (errorMsg != null && 
-                        (errorMsg.contains("下载任务失败") || 
-                         errorMsg.contains("下载任务被终止") ||
-                         errorMsg.contains("下载任务超时"))) {
-                        // 这些是业务错误，直接传播，不再重试
-                        log.error("下载任务终止，停止轮询: {}", errorMsg);
-                        return Mono.error(error);
-                    }
-                    
-                    // 其他错误（如网络错误），重试
-                    if (attemptCount < MAX_ATTEMPTS) {
-                        log.warn("检查任务状态失败，将在{}秒后重试: error={}", 
-                                POLL_INTERVAL_SECONDS, error.getMessage());
-                        return Mono.delay(java.time.Duration.ofSeconds(POLL_INTERVAL_SECONDS))
-                                .flatMap(tick -> checkDownloadTaskStatus(celeryTaskId, attemptCount + 1));
-                    } else {
-                        return Mono.error(new RuntimeException("无法获取下载任务状态，已达到最大重试次数", error));
-                    }
-                });
-    }
-    
     /**
      * HTML转纯文本
      * 移除HTML标签，保留文本内容
@@ -603,71 +556,106 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                 }, 3) // 最多3个并发提交
                 .collectList()
                 .flatMap(subTaskIds -> {
-                    log.info("所有子任务已提交，共{}个，开始等待全部完成", subTaskIds.size());
+                    log.info("所有子任务已提交，共{}个，父任务挂起等待全部完成", subTaskIds.size());
                     
-                    // 等待所有子任务完成
-                    return waitForAllSubTasksComplete(context.getTaskId(), subTaskIds)
-                            .flatMap(results -> {
-                                // 所有子任务完成，聚合结果并创建知识库
-                                log.info("所有子任务已完成，开始聚合结果并创建知识库");
-                                return aggregateResultsAndCreateKnowledgeBase(contentData, results, parameters);
-                            });
+                    // 只持久化续跑所需的元数据后挂起（正文已在子任务输入中）；最后一个子任务结束时父任务重新入队执行聚合步骤
+                    Map<String, Object> workflowState = new HashMap<>();
+                    WORKFLOW_STATE_FIELDS.forEach(field -> {
+                        Object value = contentData.get(field);
+                        if (value != null) {
+                            workflowState.put(field, value);
+                        }
+                    });
+                    workflowState.put("subTaskIds", subTaskIds);
+                    return context.awaitSubTasks(subTaskIds, STEP_AGGREGATE, workflowState, SUB_TASK_TIMEOUT)
+                            // 挂起后的占位结果，不会被记录为任务完成
+                            .thenReturn(KnowledgeExtractionResult.builder().build());
                 });
     }
     
     /**
-     * 等待所有子任务完成（事件驱动模式）
-     * 
-     * 使用 SubTaskCompletionService 监听子任务完成事件，避免轮询数据库。
-     * 超时时间设置为 30 分钟。
+     * 续跑步骤：读取已结束子任务的结果，聚合并创建知识库
      */
-    private Mono<List<KnowledgeExtractionGroupResult>> waitForAllSubTasksComplete(
-            String parentTaskId, 
-            List<String> subTaskIds) {
-        
-        log.info("开始等待{}个子任务完成（事件驱动模式）: parentTaskId={}", subTaskIds.size(), parentTaskId);
-        
-        // 使用事件驱动方式等待，超时30分钟
-        return subTaskCompletionService.waitForSubTasks(parentTaskId, subTaskIds, Duration.ofMinutes(30))
-                .flatMap(subTaskResults -> {
-                    // 统计完成情况
-                    long completedCount = subTaskResults.stream()
-                            .filter(SubTaskCompletionService.SubTaskResult::isSuccess)
-                            .count();
-                    long failedCount = subTaskResults.size() - completedCount;
-                    
-                    if (failedCount > 0) {
-                        log.warn("⚠️ 部分子任务失败: 完成={}, 失败={}", completedCount, failedCount);
-                    } else {
-                        log.info("✅ 所有子任务已完成: 共{}个", completedCount);
-                    }
-                    
-                    // 转换为 KnowledgeExtractionGroupResult 列表
-                    return convertSubTaskResults(subTaskResults);
-                })
-                .onErrorResume(error -> {
-                    if (error instanceof java.util.concurrent.TimeoutException) {
-                        log.error("子任务执行超时: 等待时间超过30分钟, parentTaskId={}", parentTaskId);
-                        return Mono.error(new RuntimeException("子任务执行超时: 等待时间超过30分钟"));
+    private Mono<KnowledgeExtractionResult> aggregateAfterSubTasks(
+            TaskContext<KnowledgeExtractionParameters> context,
+            KnowledgeExtractionParameters parameters) {
+        
+        if (context.isWorkflowTimedOut()) {
+            log.error("子任务执行超时: 等待时间超过{}分钟, parentTaskId={}", SUB_TASK_TIMEOUT.toMinutes(), context.getTaskId());
+            return Mono.error(new RuntimeException("子任务执行超时: 等待时间超过" + SUB_TASK_TIMEOUT.toMinutes() + "分钟"));
+        }
+        
+        Map<String, Object> workflowState = context.getWorkflowState();
+        Object subTaskIdsValue = workflowState.get("subTaskIds");
+        Set<String> subTaskIds = subTaskIdsValue instanceof Collection<?> ids
+                ? ids.stream().map(String::valueOf).collect(Collectors.toSet())
+                : Collections.emptySet();
+        
+        return taskStateService.getSubTasks(context.getTaskId())
+                .filter(subTask -> subTaskIds.isEmpty() || subTaskIds.contains(subTask.getId()))
+                .collectList()
+                .flatMap(subTasks -> {
+                    List<KnowledgeExtractionGroupResult> results = convertSubTaskResults(subTasks);
+                    Map<String, Object> contentData = new HashMap<>(workflowState);
+                    List<Map<String, Object>> chapterDetails = restoreChapterDetails(workflowState, subTasks);
+                    if (chapterDetails != null) {
+                        contentData.put("chapterDetails", chapterDetails);
                     }
-                    log.error("等待子任务失败: parentTaskId={}, error={}", parentTaskId, error.getMessage());
-                    return Mono.error(error);
+                    log.info("所有子任务已结束，开始聚合结果并创建知识库");
+                    return aggregateResultsAndCreateKnowledgeBase(contentData, results, parameters);
                 });
     }
     
+    /**
+     * 按章节区间从子任务的输入内容（合并后的正文）中还原章节详情
+     * 没有章节区间（番茄小说、无预览会话的用户文本）或找不到子任务输入时返回 null，聚合时跳过 Scene 创建
+     */
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> restoreChapterDetails(Map<String, Object> workflowState, List<BackgroundTask> subTasks) {
+        if (!(workflowState.get("chapterSpans") instanceof List<?> spans) || spans.isEmpty()) {
+            return null;
+        }
+        String content = subTasks.stream()
+                .filter(subTask -> subTask.getParameters() != null)
+                .map(subTask -> objectMapper.convertValue(subTask.getParameters(), KnowledgeExtractionGroupParameters.class).getContent())
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        if (content == null) {
+            log.warn("未找到子任务输入内容，无法还原章节正文: chapters={}", spans.size());
+            return null;
+        }
+        List<Map<String, Object>> chapterDetails = new ArrayList<>();
+        for (Object item : spans) {
+            Map<String, Object> detail = new HashMap<>((Map<String, Object>) item);
+            if (detail.get("start") instanceof Number start && detail.get("end") instanceof Number end
+                    && end.intValue() <= content.length()) {
+                detail.put("content", content.substring(start.intValue(), end.intValue()));
+            }
+            chapterDetails.add(detail);
+        }
+        return chapterDetails;
+    }
+    
     /**
      * 转换子任务结果为知识提取组结果
      */
-    private Mono<List<KnowledgeExtractionGroupResult>> convertSubTaskResults(
-            List<SubTaskCompletionService.SubTaskResult> subTaskResults) {
+    private List<KnowledgeExtractionGroupResult> convertSubTaskResults(List<BackgroundTask> subTasks) {
         
         List<KnowledgeExtractionGroupResult> results = new ArrayList<>();
+        long completedCount = subTasks.stream().filter(t -> t.getStatus() == TaskStatus.COMPLETED).count();
+        long failedCount = subTasks.size() - completedCount;
+        if (failedCount > 0) {
+            log.warn("⚠️ 部分子任务失败: 完成={}, 失败={}", completedCount, failedCount);
+        } else {
+            log.info("✅ 所有子任务已完成: 共{}个", completedCount);
+        }
         
-        for (SubTaskCompletionService.SubTaskResult subTaskResult : subTaskResults) {
-            if (subTaskResult.isSuccess() && subTaskResult.getResult() != null) {
+        for (BackgroundTask subTask : subTasks) {
+            if (subTask.getStatus() == TaskStatus.COMPLETED && subTask.getResult() != null) {
                 try {
                     KnowledgeExtractionGroupResult result = objectMapper.convertValue(
-                            subTaskResult.getResult(), 
+                            subTask.getResult(), 
                             KnowledgeExtractionGroupResult.class);
                     results.add(result);
                     log.info("收集到子任务结果: groupName={}, 设定数量={}", 
@@ -675,16 +663,16 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                             result.getSettings() != null ? result.getSettings().size() : 0);
                 } catch (Exception e) {
                     log.error("解析子任务结果失败: taskId={}, error={}", 
-                            subTaskResult.getTaskId(), e.getMessage());
+                            subTask.getId(), e.getMessage());
                 }
-            } else if (!subTaskResult.isSuccess()) {
-                log.warn("子任务失败，跳过结果: taskId={}, error={}", 
-                        subTaskResult.getTaskId(), subTaskResult.getErrorInfo());
+            } else if (subTask.getStatus() != TaskStatus.COMPLETED) {
+                log.warn("子任务未成功，跳过结果: taskId={}, status={}, error={}", 
+                        subTask.getId(), subTask.getStatus(), subTask.getErrorInfo());
             }
         }
         
         log.info("共收集到{}个子任务结果", results.size());
-        return Mono.just(results);
+        return results;
     }
     
     /**
@@ -1074,6 +1062,7 @@ public class KnowledgeExtractionTaskExecutor implements BackgroundTaskExecutable
                         for (Novel.Chapter chapter : act.getChapters()) {
                             if (chapter.getId().equals(chapterId)) {
                                 chapter.setSceneIds(sceneIds);
+                                novel.setUpdatedAt(LocalDateTime.now());
                                 return novelRepository.save(novel).then();
                             }
                         }
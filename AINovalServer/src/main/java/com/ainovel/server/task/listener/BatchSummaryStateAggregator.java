@@ -2,6 +2,8 @@ package com.ainovel.server.task.listener;
 
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryProgress;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryResult;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryPackParameters;
+import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryPackResult;
 import com.ainovel.server.task.dto.summarygeneration.GenerateSummaryResult;
 import com.ainovel.server.task.event.internal.TaskCompletedEvent;
 import com.ainovel.server.task.event.internal.TaskFailedEvent;
@@ -15,9 +17,11 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -29,6 +33,9 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class BatchSummaryStateAggregator {
 
+    /** 批量摘要的子任务类型：单场景、打包多场景 */
+    private static final Set<String> SUMMARY_TASK_TYPES = Set.of("GENERATE_SUMMARY", "GENERATE_SUMMARY_PACK");
+
     private final TaskStateService taskStateService;
     // 缓存处理过的事件ID，避免重复处理
     private final ConcurrentHashMap<String, Boolean> processedEventIds = new ConcurrentHashMap<>();
@@ -44,7 +51,7 @@ public class BatchSummaryStateAggregator {
             return;
         }
 
-        if (!"GENERATE_SUMMARY".equals(event.getTaskType())) {
+        if (!SUMMARY_TASK_TYPES.contains(event.getTaskType())) {
             return; // 只处理摘要生成任务
         }
 
@@ -69,6 +76,12 @@ public class BatchSummaryStateAggregator {
                     }))
                     .filter(parentTask -> "BATCH_GENERATE_SUMMARY".equals(parentTask.getTaskType()))
                     .flatMap(parentTask -> {
+                        // 打包子任务一次完成多个场景
+                        if (event.getResult() instanceof GenerateSummaryPackResult packResult) {
+                            return updateParentTaskProgress(parentTask, packResult.getResults().size(), 0,
+                                    packResult.getFailedSceneDetails().size(), packResult.getFailedSceneDetails());
+                        }
+                        
                         // 获取子任务结果
                         if (!(event.getResult() instanceof GenerateSummaryResult)) {
                             log.warn("子任务结果类型不匹配: {}", 
@@ -77,9 +90,11 @@ public class BatchSummaryStateAggregator {
                         }
                         
                         GenerateSummaryResult result = (GenerateSummaryResult) event.getResult();
+                        // 版本冲突 - 判断条件需要根据实际业务逻辑调整
+                        boolean hasConflict = result.getModelName() != null && result.getModelName().contains("conflict");
                         
                         // 更新父任务进度
-                        return updateParentTaskProgress(parentTask, result, true, null);
+                        return updateParentTaskProgress(parentTask, hasConflict ? 0 : 1, hasConflict ? 1 : 0, 0, Map.of());
                     });
             })
             .subscribe(
@@ -99,7 +114,7 @@ public class BatchSummaryStateAggregator {
             return;
         }
 
-        if (!"GENERATE_SUMMARY".equals(event.getTaskType())) {
+        if (!SUMMARY_TASK_TYPES.contains(event.getTaskType())) {
             return; // 只处理摘要生成任务
         }
 
@@ -117,8 +132,8 @@ public class BatchSummaryStateAggregator {
                 String parentTaskId = task.getParentTaskId();
                 log.debug("处理摘要生成子任务 {} 失败事件，父任务: {}", taskId, parentTaskId);
                 
-                // 获取子任务的场景ID
-                String sceneId = null;
+                // 获取子任务的场景ID（打包子任务包含多个场景）
+                List<String> sceneIds = new ArrayList<>();
                 String errorMessage = null;
                 
                 if (event.getErrorInfo() != null) {
@@ -128,16 +143,22 @@ public class BatchSummaryStateAggregator {
                     
                     // 从子任务参数中获取场景ID
                     Object params = task.getParameters();
-                    if (params != null && params instanceof Map) {
+                    if (params instanceof GenerateSummaryPackParameters packParams) {
+                        sceneIds.addAll(packParams.getSceneIds());
+                    } else if (params != null && params instanceof Map) {
                         Map<String, Object> paramMap = (Map<String, Object>) params;
                         if (paramMap.containsKey("sceneId")) {
-                            sceneId = (String) paramMap.get("sceneId");
+                            sceneIds.add((String) paramMap.get("sceneId"));
+                        } else if (paramMap.get("sceneIds") instanceof List<?> ids) {
+                            ids.forEach(id -> sceneIds.add(String.valueOf(id)));
                         }
                     }
                 }
                 
-                final String finalSceneId = sceneId;
                 final String finalErrorMessage = errorMessage != null ? errorMessage : "未知错误";
+                Map<String, String> failures = new HashMap<>();
+                sceneIds.forEach(id -> failures.put(id, finalErrorMessage));
+                final int failedCount = Math.max(1, sceneIds.size());
                 
                 return taskStateService.getTask(parentTaskId)
                     .switchIfEmpty(Mono.<BackgroundTask>defer(() -> {
@@ -147,9 +168,7 @@ public class BatchSummaryStateAggregator {
                     .filter(parentTask -> "BATCH_GENERATE_SUMMARY".equals(parentTask.getTaskType()))
                     .flatMap(parentTask -> {
                         // 更新父任务进度
-                        Map.Entry<String, String> failedEntry = finalSceneId != null ? 
-                                new AbstractMap.SimpleEntry<>(finalSceneId, finalErrorMessage) : null;
-                        return updateParentTaskProgress(parentTask, null, false, failedEntry);
+                        return updateParentTaskProgress(parentTask, 0, 0, failedCount, failures);
                     });
             })
             .subscribe(
@@ -162,13 +181,14 @@ public class BatchSummaryStateAggregator {
      * 更新父任务进度
      * 
      * @param parentTask 父任务
-     * @param result 子任务结果 (可能为null，如果是失败)
-     * @param isSuccess 子任务是否成功
-     * @param failedEntry 失败的场景ID和错误消息 (如果是失败)
+     * @param succeeded 本次完成的成功场景数
+     * @param conflicts 本次完成的版本冲突场景数
+     * @param failed 本次完成的失败场景数
+     * @param failures 失败的场景ID和错误消息
      * @return 完成信号
      */
-    private Mono<Void> updateParentTaskProgress(BackgroundTask parentTask, GenerateSummaryResult result, 
-                                        boolean isSuccess, Map.Entry<String, String> failedEntry) {
+    private Mono<Void> updateParentTaskProgress(BackgroundTask parentTask, int succeeded, int conflicts,
+                                        int failed, Map<String, String> failures) {
         // 获取当前进度
         BatchGenerateSummaryProgress currentProgress = null;
         if (parentTask.getProgress() instanceof BatchGenerateSummaryProgress) {
@@ -196,7 +216,8 @@ public class BatchSummaryStateAggregator {
                     .successCount(0)
                     .failedCount(0)
                     .conflictCount(0)
-                    .skippedCount(currentProgress.getSkippedCount())
+                    .skippedCount(currentProgress.getSkippedCount() - currentProgress.getUnchangedCount())
+                    .unchangedCount(currentProgress.getUnchangedCount())
                     .failedSceneDetails(new HashMap<>())
                     .build();
         }
@@ -204,7 +225,8 @@ public class BatchSummaryStateAggregator {
         // 创建状态统计的副本，以确保它们在lambda中是有效不变的
         final int totalScenes = currentProgress.getTotalScenes();
         final int skippedCount = currentProgress.getSkippedCount();
-        final int processedCount = currentProgress.getProcessedCount() + 1;
+        final int unchangedCount = currentProgress.getUnchangedCount();
+        final int processedCount = currentProgress.getProcessedCount() + succeeded + conflicts + failed;
         final int startingSuccessCount = currentProgress.getSuccessCount();
         final int startingFailedCount = currentProgress.getFailedCount();
         final int startingConflictCount = currentProgress.getConflictCount();
@@ -218,56 +240,31 @@ public class BatchSummaryStateAggregator {
         BatchGenerateSummaryProgress.BatchGenerateSummaryProgressBuilder progressBuilder = BatchGenerateSummaryProgress.builder()
                 .totalScenes(totalScenes)
                 .processedCount(processedCount)
-                .skippedCount(skippedCount);
+                .skippedCount(skippedCount)
+                .unchangedCount(unchangedCount);
         
         BatchGenerateSummaryResult.BatchGenerateSummaryResultBuilder resultBuilder = BatchGenerateSummaryResult.builder()
                 .totalScenes(totalScenes)
-                .skippedCount(skippedCount);
+                // 进度中的跳过数包含正文未变化的场景，结果中单独统计；父任务结果在执行器返回前尚未写入，以进度为准
+                .skippedCount(skippedCount - unchangedCount)
+                .unchangedCount(unchangedCount);
                 
         // 复制失败细节映射
         Map<String, String> failedSceneDetails = new HashMap<>(
                 currentResult.getFailedSceneDetails() != null ? 
                 currentResult.getFailedSceneDetails() : new HashMap<>());
         
-        // 根据任务状态更新计数器
-        if (isSuccess) {
-            // 子任务成功
-            boolean hasConflict = result != null && result.getModelName() != null && 
-                                result.getModelName().contains("conflict");
-            if (hasConflict) {
-                // 版本冲突 - 判断条件需要根据实际业务逻辑调整
-                progressBuilder.successCount(startingSuccessCount)
-                              .failedCount(startingFailedCount)
-                              .conflictCount(startingConflictCount + 1);
-                
-                resultBuilder.successCount(startingResultSuccessCount)
-                           .failedCount(startingResultFailedCount)
-                           .conflictCount(startingResultConflictCount + 1);
-            } else {
-                // 正常成功
-                progressBuilder.successCount(startingSuccessCount + 1)
-                              .failedCount(startingFailedCount)
-                              .conflictCount(startingConflictCount);
-                
-                resultBuilder.successCount(startingResultSuccessCount + 1)
-                           .failedCount(startingResultFailedCount)
-                           .conflictCount(startingResultConflictCount);
-            }
-        } else {
-            // 子任务失败
-            progressBuilder.successCount(startingSuccessCount)
-                          .failedCount(startingFailedCount + 1)
-                          .conflictCount(startingConflictCount);
-            
-            resultBuilder.successCount(startingResultSuccessCount)
-                       .failedCount(startingResultFailedCount + 1)
-                       .conflictCount(startingResultConflictCount);
-            
-            // 添加失败细节
-            if (failedEntry != null) {
-                failedSceneDetails.put(failedEntry.getKey(), failedEntry.getValue());
-            }
-        }
+        // 根据子任务结果更新计数器
+        progressBuilder.successCount(startingSuccessCount + succeeded)
+                      .failedCount(startingFailedCount + failed)
+                      .conflictCount(startingConflictCount + conflicts);
+        
+        resultBuilder.successCount(startingResultSuccessCount + succeeded)
+                   .failedCount(startingResultFailedCount + failed)
+                   .conflictCount(startingResultConflictCount + conflicts);
+        
+        // 添加失败细节
+        failedSceneDetails.putAll(failures);
         
         // 设置失败详情
         resultBuilder.failedSceneDetails(failedSceneDetails);
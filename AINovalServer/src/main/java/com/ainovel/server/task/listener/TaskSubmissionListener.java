@@ -1,5 +1,6 @@
 package com.ainovel.server.task.listener;
 
+import com.ainovel.server.task.event.internal.TaskResumedEvent;
 import com.ainovel.server.task.event.internal.TaskSubmittedEvent;
 import com.ainovel.server.task.transport.TaskTransport;
 import lombok.extern.slf4j.Slf4j;
@@ -62,6 +63,36 @@ public class TaskSubmissionListener {
         }).subscribeOn(Schedulers.boundedElastic());
     }
     
+    /**
+     * 监听任务续跑事件，重新分发等待子任务结束的父任务
+     * 
+     * @param event 任务续跑事件
+     * @return 包含操作完成信号的Mono
+     */
+    @EventListener
+    public Mono<Void> onTaskResumed(TaskResumedEvent event) {
+        return Mono.defer(() -> {
+            if (!checkAndMarkEventProcessed(event.getEventId())) {
+                log.debug("事件已处理，跳过续跑分发: {} - {}", event.getEventId(), event.getTaskId());
+                return Mono.empty();
+            }
+            
+            log.info("收到任务续跑事件，重新分发任务: taskId={}, taskType={}, 续跑步骤={}", 
+                     event.getTaskId(), event.getTaskType(), event.getContinuationStep());
+            
+            return taskTransport.dispatchTask(
+                event.getTaskId(), 
+                event.getUserId(), 
+                event.getTaskType(),
+                event.getParameters()
+            ).doOnError(e -> {
+                log.error("续跑分发失败: taskId={}, taskType={}, error={}", 
+                         event.getTaskId(), event.getTaskType(), e.getMessage(), e);
+                processedEventIds.remove(event.getEventId());
+            });
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+    
     /**
      * 检查事件是否已处理并标记为已处理 (幂等性)
      * 
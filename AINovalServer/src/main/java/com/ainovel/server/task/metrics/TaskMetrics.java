@@ -11,6 +11,7 @@ import jakarta.annotation.PostConstruct;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * 任务系统的指标收集器，记录各种任务执行指标
@@ -29,6 +30,9 @@ public class TaskMetrics {
     // 任务耗时指标
     private final Map<String, Timer> taskExecutionTimers = new ConcurrentHashMap<>();
     
+    // 执行许可等待耗时指标
+    private final Map<String, Timer> permitWaitTimers = new ConcurrentHashMap<>();
+    
     // 活跃任务数量
     private final Map<String, AtomicInteger> activeTasksGauges = new ConcurrentHashMap<>();
     
@@ -164,4 +168,33 @@ public class TaskMetrics {
                   .register(meterRegistry)
         ).increment();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 注册执行许可的排队长度与持有数指标
+     */
+    public void registerPermitGauges(String permitKey, Supplier<Number> queueLength, Supplier<Number> active) {
+        Gauge.builder("tasks.permit.queue", queueLength)
+             .tag("key", permitKey)
+             .description("等待执行许可的任务数")
+             .register(meterRegistry);
+        Gauge.builder("tasks.permit.active", active)
+             .tag("key", permitKey)
+             .description("本节点持有的执行许可数")
+             .register(meterRegistry);
+    }
+    
+    /**
+     * 记录执行许可等待时间
+     *
+     * @param outcome acquired 或 timeout
+     */
+    public void recordPermitWait(String permitKey, long waitMillis, String outcome) {
+        permitWaitTimers.computeIfAbsent(permitKey + "|" + outcome, k ->
+            Timer.builder("tasks.permit.wait")
+                 .tag("key", permitKey)
+                 .tag("outcome", outcome)
+                 .description("等待执行许可的时间")
+                 .register(meterRegistry)
+        ).record(waitMillis, java.util.concurrent.TimeUnit.MILLISECONDS);
+    }
+}
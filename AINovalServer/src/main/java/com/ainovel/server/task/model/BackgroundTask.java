@@ -1,7 +1,9 @@
 package com.ainovel.server.task.model;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.annotation.Id;
@@ -98,6 +100,11 @@ public class BackgroundTask {
      */
     private Map<String, Integer> subTaskStatusSummary;
     
+    /**
+     * 工作流挂起状态（父任务等待子任务时持久化，重启或跨节点后可继续）
+     */
+    private WorkflowState workflow;
+    
     /**
      * 版本号，用于乐观锁
      */
@@ -134,6 +141,53 @@ public class BackgroundTask {
         private Instant updatedAt;
     }
     
+    /**
+     * 父任务的工作流状态：等待哪些子任务，以及子任务全部结束后从哪一步继续
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WorkflowState {
+        
+        /**
+         * 子任务全部结束后执行的续跑步骤
+         */
+        private String continuationStep;
+        
+        /**
+         * 尚未结束的子任务ID
+         */
+        @Builder.Default
+        private List<String> pendingSubTaskIds = new ArrayList<>();
+        
+        /**
+         * 已结束（完成、失败或取消）的子任务ID
+         */
+        @Builder.Default
+        private List<String> finishedSubTaskIds = new ArrayList<>();
+        
+        /**
+         * 续跑步骤需要的中间数据
+         */
+        private Map<String, Object> state;
+        
+        /**
+         * 开始等待的时间
+         */
+        private Instant waitingSince;
+        
+        /**
+         * 等待截止时间，超过后不再等待未结束的子任务
+         */
+        private Instant deadline;
+        
+        /**
+         * 是否因超过截止时间而继续
+         */
+        private boolean timedOut;
+    }
+    
     /**
      * 添加子任务状态计数
      * @param status 状态
@@ -0,0 +1,51 @@
+package com.ainovel.server.task.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 执行许可租约，每个许可键一个文档，leases 长度即集群中正在使用的许可数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "task_permit_leases")
+public class TaskPermitLeases {
+
+    /**
+     * 许可键，如 task:KNOWLEDGE_EXTRACTION、provider:gemini
+     */
+    @Id
+    private String id;
+
+    @Builder.Default
+    private List<Lease> leases = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lease {
+
+        private String id;
+
+        /**
+         * 持有租约的节点
+         */
+        private String holder;
+
+        private Instant acquiredAt;
+
+        private Instant expiresAt;
+    }
+}
@@ -14,6 +14,11 @@ public enum TaskStatus {
      */
     RUNNING,
     
+    /**
+     * 等待子任务完成（工作流挂起，不占用执行线程与并发名额；最后一个子任务结束时重新入队）
+     */
+    WAITING,
+    
     /**
      * 执行完成（成功）
      */
@@ -58,6 +63,6 @@ public enum TaskStatus {
      * @return 如果是活跃状态返回true，否则返回false
      */
     public boolean isActive() {
-        return this == QUEUED || this == RUNNING || this == RETRYING;
+        return this == QUEUED || this == RUNNING || this == RETRYING || this == WAITING;
     }
 } 
\ No newline at end of file
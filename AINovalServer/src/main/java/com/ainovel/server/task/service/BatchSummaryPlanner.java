@@ -0,0 +1,213 @@
+package com.ainovel.server.task.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.CreditService;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.UserPromptService;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
+import com.ainovel.server.service.cache.SceneSummaryCache;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryParameters;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryPlan;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 批量摘要规划
+ *
+ * 确定章节范围内每个场景是否真的需要调用模型：正文为空、已有摘要且不覆盖、
+ * 摘要由当前正文/模型/提示词版本生成（未变化）的场景都会跳过。
+ * 批量任务执行和预演接口共用同一份规划，预演结果即实际会发生的调用次数。
+ * 打包模式下需要生成的场景按token预算分包，每包一次请求。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchSummaryPlanner {
+
+    /** 单个摘要的预估输出token数 */
+    static final int ESTIMATED_SUMMARY_TOKENS = 300;
+
+    private final NovelService novelService;
+    private final SceneService sceneService;
+    private final SceneSummaryCache sceneSummaryCache;
+    private final UserPromptService userPromptService;
+    private final TokenCounter tokenCounter;
+    private final CreditService creditService;
+    private final SummaryPacker summaryPacker;
+
+    public enum Decision {
+        /** 需要调用模型生成 */
+        GENERATE,
+        /** 已有摘要且不覆盖 */
+        SKIP_EXISTING,
+        /** 正文、模型、提示词版本均未变化 */
+        SKIP_UNCHANGED,
+        /** 正文为空 */
+        EMPTY
+    }
+
+    /**
+     * @param packs 打包模式下需要生成的场景分包结果，非打包模式为空
+     */
+    public record Plan(SceneSummaryCache.SummaryKey key, Map<Decision, List<Scene>> scenes, List<List<Scene>> packs) {
+
+        public List<Scene> get(Decision decision) {
+            return scenes.getOrDefault(decision, List.of());
+        }
+
+        public int count(Decision decision) {
+            return get(decision).size();
+        }
+
+        public int totalScenes() {
+            return scenes.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    /**
+     * 规划章节范围内的场景摘要生成
+     */
+    public Mono<Plan> plan(String userId, BatchGenerateSummaryParameters parameters) {
+        return findChapterIds(userId, parameters)
+                .flatMap(chapterIds -> Mono.zip(
+                        sceneService.findScenesByChapterIds(chapterIds).collectList(),
+                        sceneSummaryCache.resolveKey(userId, parameters.getAiConfigId(), parameters.isPacked())))
+                .map(tuple -> {
+                    SceneSummaryCache.SummaryKey key = tuple.getT2();
+                    Map<Decision, List<Scene>> byDecision = new HashMap<>();
+                    for (Scene scene : tuple.getT1()) {
+                        byDecision.computeIfAbsent(decide(scene, key, parameters), d -> new ArrayList<>()).add(scene);
+                    }
+                    List<List<Scene>> packs = parameters.isPacked()
+                            ? summaryPacker.pack(byDecision.getOrDefault(Decision.GENERATE, List.of()), key.modelName(), parameters.getPackTokenBudget())
+                            : List.of();
+                    return new Plan(key, byDecision, packs);
+                });
+    }
+
+    /**
+     * 预演：统计实际需要的模型调用次数，并估算token与积分
+     */
+    public Mono<BatchGenerateSummaryPlan> estimate(String userId, BatchGenerateSummaryParameters parameters) {
+        return Mono.zip(plan(userId, parameters),
+                        userPromptService.getPromptTemplate(userId, AIFeatureType.SCENE_TO_SUMMARY).defaultIfEmpty(""))
+                .flatMap(tuple -> {
+                    Plan plan = tuple.getT1();
+                    String modelName = plan.key().modelName();
+                    List<Scene> toGenerate = plan.get(Decision.GENERATE);
+
+                    // 系统提示词（非打包模式还有用户模板）每次调用都会发送，只计算一次
+                    int llmCalls = parameters.isPacked() ? plan.packs().size() : toGenerate.size();
+                    String promptText = parameters.isPacked() ? SceneSummaryCache.PACKED_SYSTEM_PROMPT : SceneSummaryCache.SYSTEM_PROMPT + tuple.getT2();
+                    long inputTokens = (long) llmCalls * tokenCounter.countTokens(promptText, modelName);
+                    for (Scene scene : toGenerate) {
+                        inputTokens += tokenCounter.countTokens(RichTextUtil.deltaJsonToPlainText(scene.getContent()), modelName);
+                    }
+                    long outputTokens = (long) toGenerate.size() * ESTIMATED_SUMMARY_TOKENS;
+
+                    BatchGenerateSummaryPlan.BatchGenerateSummaryPlanBuilder result = BatchGenerateSummaryPlan.builder()
+                            .totalScenes(plan.totalScenes())
+                            .llmCalls(llmCalls)
+                            .scenesToGenerate(toGenerate.size())
+                            .skippedExisting(plan.count(Decision.SKIP_EXISTING))
+                            .skippedUnchanged(plan.count(Decision.SKIP_UNCHANGED))
+                            .skippedEmpty(plan.count(Decision.EMPTY))
+                            .modelName(modelName)
+                            .estimatedInputTokens(inputTokens)
+                            .estimatedOutputTokens(outputTokens);
+                    if (toGenerate.isEmpty()) {
+                        return Mono.just(result.estimatedCredits(0).build());
+                    }
+                    return creditService.calculateCreditCost(plan.key().provider(), modelName, AIFeatureType.SCENE_TO_SUMMARY,
+                                    saturatedInt(inputTokens), saturatedInt(outputTokens))
+                            .onErrorResume(e -> {
+                                log.warn("估算批量摘要积分失败，模型: {}, 原因: {}", modelName, e.getMessage());
+                                return Mono.just(0L);
+                            })
+                            .defaultIfEmpty(0L)
+                            .map(credits -> result.estimatedCredits(credits).build());
+                });
+    }
+
+    private Decision decide(Scene scene, SceneSummaryCache.SummaryKey key, BatchGenerateSummaryParameters parameters) {
+        if (scene.getContent() == null || scene.getContent().trim().isEmpty()) {
+            return Decision.EMPTY;
+        }
+        if (!parameters.isOverwriteExisting() && scene.getSummary() != null && !scene.getSummary().trim().isEmpty()) {
+            return Decision.SKIP_EXISTING;
+        }
+        if (!parameters.isForceRegenerate() && sceneSummaryCache.isFresh(scene, key)) {
+            return Decision.SKIP_UNCHANGED;
+        }
+        return Decision.GENERATE;
+    }
+
+    private Mono<List<String>> findChapterIds(String userId, BatchGenerateSummaryParameters parameters) {
+        String novelId = parameters.getNovelId();
+        String startChapterId = parameters.getStartChapterId();
+        String endChapterId = parameters.getEndChapterId();
+        return novelService.findNovelById(novelId)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("找不到小说: " + novelId)))
+                .flatMap(novel -> {
+                    if (!novel.getAuthor().getId().equals(userId)) {
+                        log.error("用户 {} 无权访问小说 {}", userId, novelId);
+                        return Mono.error(new IllegalArgumentException("无权访问该小说"));
+                    }
+
+                    Map<String, Integer> chapterOrderMap = getChapterOrderMap(novel);
+                    if (!chapterOrderMap.containsKey(startChapterId) || !chapterOrderMap.containsKey(endChapterId)) {
+                        log.error("章节ID不存在: startChapterId={}, endChapterId={}", startChapterId, endChapterId);
+                        return Mono.error(new IllegalArgumentException("章节ID不存在"));
+                    }
+
+                    int startOrder = chapterOrderMap.get(startChapterId);
+                    int endOrder = chapterOrderMap.get(endChapterId);
+                    if (startOrder > endOrder) {
+                        log.error("起始章节顺序({})大于结束章节顺序({})", startOrder, endOrder);
+                        return Mono.error(new IllegalArgumentException("起始章节必须在结束章节之前或相同"));
+                    }
+
+                    return Mono.just(getChapterIdsInRange(novel, startOrder, endOrder));
+                });
+    }
+
+    private Map<String, Integer> getChapterOrderMap(Novel novel) {
+        Map<String, Integer> chapterOrderMap = new HashMap<>();
+        for (Novel.Act act : novel.getStructure().getActs()) {
+            for (Novel.Chapter chapter : act.getChapters()) {
+                chapterOrderMap.put(chapter.getId(), chapter.getOrder());
+            }
+        }
+        return chapterOrderMap;
+    }
+
+    private List<String> getChapterIdsInRange(Novel novel, int startOrder, int endOrder) {
+        List<String> chapterIds = new ArrayList<>();
+        for (Novel.Act act : novel.getStructure().getActs()) {
+            for (Novel.Chapter chapter : act.getChapters()) {
+                int order = chapter.getOrder();
+                if (order >= startOrder && order <= endOrder) {
+                    chapterIds.add(chapter.getId());
+                }
+            }
+        }
+        return chapterIds;
+    }
+
+    private static int saturatedInt(long value) {
+        return (int) Math.min(Integer.MAX_VALUE, value);
+    }
+}
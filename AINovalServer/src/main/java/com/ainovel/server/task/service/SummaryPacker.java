@@ -0,0 +1,229 @@
+package com.ainovel.server.task.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.ainovel.server.common.util.RichTextUtil;
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
+import com.ainovel.server.service.cache.SceneSummaryCache;
+import com.ainovel.server.utils.JsonRepairUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 场景摘要打包器
+ *
+ * 把多个短场景按token预算装进一次请求，要求模型按编号返回JSON数组，再拆回各场景：
+ * - 使用请求内的短编号（1..n）而不是场景ID，避免模型改写长ID
+ * - 输出被截断或格式错误时先用 JsonRepairUtils 尽量恢复已完整输出的条目
+ * - 缺失的条目作为更小的包重新请求；整包无法解析时对半拆分重试，单个场景仍失败才放弃
+ * - 只有模型输出无法解析或不完整时才拆分；认证失败、限流、服务端错误等请求异常直接向上传播，
+ *   由任务重试机制处理，避免把同一个错误放大成一连串拆分请求
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SummaryPacker {
+
+    /** 默认每包输入token预算 */
+    public static final int DEFAULT_PACK_TOKEN_BUDGET = 6000;
+
+    /** 每包最多场景数，限制单次输出长度 */
+    static final int MAX_ITEMS_PER_PACK = 20;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final TokenCounter tokenCounter;
+
+    /**
+     * 按顺序把场景装箱，每包输入token不超过预算（单个超出预算的场景独占一包）
+     */
+    public List<List<Scene>> pack(List<Scene> scenes, String modelName, int tokenBudget) {
+        int budget = tokenBudget > 0 ? tokenBudget : DEFAULT_PACK_TOKEN_BUDGET;
+        List<List<Scene>> packs = new ArrayList<>();
+        List<Scene> current = new ArrayList<>();
+        long currentTokens = 0;
+        for (Scene scene : scenes) {
+            int tokens = tokenCounter.countTokens(plainText(scene), modelName);
+            if (!current.isEmpty() && (currentTokens + tokens > budget || current.size() >= MAX_ITEMS_PER_PACK)) {
+                packs.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(scene);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            packs.add(current);
+        }
+        return packs;
+    }
+
+    /**
+     * 为一包场景生成摘要
+     *
+     * @param llmCalls 实际发出的请求数（含拆分重试）
+     * @return 场景ID到摘要的映射，不包含最终仍失败的场景；请求本身失败时以该错误结束
+     */
+    public Mono<Map<String, String>> summarize(AIModelProvider provider, String userId, String novelId,
+                                               List<Scene> pack, AtomicInteger llmCalls) {
+        if (pack.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        llmCalls.incrementAndGet();
+        return provider.generateContent(buildRequest(userId, novelId, provider.getModelName(), pack))
+                .map(response -> parse(response.getContent(), pack.size()))
+                .flatMap(byIndex -> {
+                    Map<String, String> summaries = new LinkedHashMap<>();
+                    List<Scene> missing = new ArrayList<>();
+                    for (int i = 0; i < pack.size(); i++) {
+                        String summary = byIndex.get(i + 1);
+                        if (summary != null) {
+                            summaries.put(pack.get(i).getId(), summary);
+                        } else {
+                            missing.add(pack.get(i));
+                        }
+                    }
+                    if (missing.isEmpty()) {
+                        return Mono.just(summaries);
+                    }
+                    if (missing.size() < pack.size()) {
+                        // 部分条目缺失（通常是输出被截断），缺失的场景作为新包重试
+                        log.info("打包摘要缺失 {}/{} 个场景，重新请求缺失部分", missing.size(), pack.size());
+                        return summarize(provider, userId, novelId, missing, llmCalls)
+                                .map(retried -> merge(summaries, retried));
+                    }
+                    if (pack.size() == 1) {
+                        log.warn("场景 {} 摘要生成失败", pack.get(0).getId());
+                        return Mono.just(summaries);
+                    }
+                    // 整包都无法解析，对半拆分
+                    int mid = pack.size() / 2;
+                    return Flux.concat(
+                                    summarize(provider, userId, novelId, pack.subList(0, mid), llmCalls),
+                                    summarize(provider, userId, novelId, pack.subList(mid, pack.size()), llmCalls))
+                            .reduce(summaries, this::merge);
+                });
+    }
+
+    AIRequest buildRequest(String userId, String novelId, String modelName, List<Scene> pack) {
+        AIRequest request = new AIRequest();
+        request.setUserId(userId);
+        request.setNovelId(novelId);
+        request.setModel(modelName);
+        request.setTemperature(0.7);
+
+        AIRequest.Message systemMessage = new AIRequest.Message();
+        systemMessage.setRole("system");
+        systemMessage.setContent(SceneSummaryCache.PACKED_SYSTEM_PROMPT);
+        request.getMessages().add(systemMessage);
+
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("以下共 ").append(pack.size()).append(" 个场景：\n\n");
+        for (int i = 0; i < pack.size(); i++) {
+            prompt.append("### 场景 ").append(i + 1).append('\n')
+                    .append(plainText(pack.get(i))).append("\n\n");
+        }
+        AIRequest.Message userMessage = new AIRequest.Message();
+        userMessage.setRole("user");
+        userMessage.setContent(prompt.toString());
+        request.getMessages().add(userMessage);
+        return request;
+    }
+
+    /**
+     * 解析打包响应，返回编号到摘要的映射（忽略越界编号与空摘要）
+     */
+    static Map<Integer, String> parse(String content, int itemCount) {
+        Map<Integer, String> result = new HashMap<>();
+        JsonNode root = readJson(content);
+        if (root != null) {
+            collect(root, result, itemCount);
+        }
+        return result;
+    }
+
+    private static void collect(JsonNode node, Map<Integer, String> result, int itemCount) {
+        if (node.isObject() && node.has("summaries")) {
+            collect(node.get("summaries"), result, itemCount);
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                JsonNode item = node.get(i);
+                if (item.has("summary")) {
+                    put(result, item.has("id") ? item.get("id").asText() : String.valueOf(i + 1),
+                            item.get("summary").asText(null), itemCount);
+                } else if (item.isObject()) {
+                    collect(item, result, itemCount);
+                }
+            }
+        } else if (node.isObject()) {
+            // 兼容 {"1": "摘要", "2": "摘要"} 形式
+            node.fields().forEachRemaining(entry -> {
+                if (entry.getValue().isTextual()) {
+                    put(result, entry.getKey(), entry.getValue().asText(), itemCount);
+                }
+            });
+        }
+    }
+
+    private static JsonNode readJson(String content) {
+        if (content == null || content.isBlank()) {
+            return null;
+        }
+        String trimmed = content.trim();
+        if (trimmed.startsWith("```")) {
+            trimmed = trimmed.replaceAll("^```[a-zA-Z]*\\s*", "").replaceAll("\\s*```$", "");
+        }
+        try {
+            return OBJECT_MAPPER.readTree(trimmed);
+        } catch (Exception e) {
+            String repaired = JsonRepairUtils.extractJsonFromResponse(trimmed);
+            if (repaired == null) {
+                return null;
+            }
+            try {
+                return OBJECT_MAPPER.readTree(repaired);
+            } catch (Exception ex) {
+                log.warn("打包摘要响应无法解析为JSON: {}", ex.getMessage());
+                return null;
+            }
+        }
+    }
+
+    private static void put(Map<Integer, String> result, String id, String summary, int itemCount) {
+        if (summary == null || summary.isBlank()) {
+            return;
+        }
+        try {
+            int index = Integer.parseInt(id.trim());
+            if (index >= 1 && index <= itemCount) {
+                result.putIfAbsent(index, summary.trim());
+            }
+        } catch (NumberFormatException e) {
+            log.debug("忽略无法识别的场景编号: {}", id);
+        }
+    }
+
+    private Map<String, String> merge(Map<String, String> into, Map<String, String> other) {
+        into.putAll(other);
+        return into;
+    }
+
+    private static String plainText(Scene scene) {
+        return RichTextUtil.deltaJsonToPlainText(scene.getContent());
+    }
+}
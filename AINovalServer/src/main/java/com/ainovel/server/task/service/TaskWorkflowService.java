@@ -0,0 +1,216 @@
+package com.ainovel.server.task.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ainovel.server.task.event.internal.TaskCancelledEvent;
+import com.ainovel.server.task.event.internal.TaskCompletedEvent;
+import com.ainovel.server.task.event.internal.TaskFailedEvent;
+import com.ainovel.server.task.event.internal.TaskResumedEvent;
+import com.ainovel.server.task.model.BackgroundTask;
+import com.ainovel.server.task.model.TaskStatus;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 父子任务工作流服务
+ *
+ * 替代在内存中持有 Sink 等待子任务的方式：
+ * 1. 父任务提交子任务后调用 {@link #suspend}，把待完成子任务和续跑步骤写入 BackgroundTask.workflow，状态置为 WAITING，执行器随即返回；
+ * 2. 每个子任务结束时原子地把自己从父任务的待完成列表中移除（任何节点都可以处理）；
+ * 3. 最后一个子任务结束时父任务原子地从 WAITING 切回 QUEUED，发布 TaskResumedEvent 重新分发，执行器按续跑步骤继续。
+ *
+ * 等待期间不占用线程、并发名额和内存；状态全部在 MongoDB 中，节点重启或多节点部署都能继续。
+ * 定时对账兜底处理丢失的完成事件，以及超过截止时间的等待。
+ */
+@Slf4j
+@Service
+public class TaskWorkflowService {
+
+    /** 进入等待后多久才参与定时对账（给完成事件留出处理时间） */
+    private static final Duration RECONCILE_GRACE = Duration.ofMinutes(1);
+
+    /** 每次对账处理的最大任务数 */
+    private static final int RECONCILE_BATCH_SIZE = 100;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TaskStateService taskStateService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TaskWorkflowService(ReactiveMongoTemplate mongoTemplate,
+                               TaskStateService taskStateService,
+                               ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.taskStateService = taskStateService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 挂起正在运行的父任务，直到给定子任务全部结束
+     *
+     * @param taskId 父任务ID
+     * @param subTaskIds 需要等待的子任务ID
+     * @param continuationStep 子任务全部结束后执行的步骤
+     * @param state 续跑步骤需要的中间数据
+     * @param timeout 最长等待时间
+     * @return 挂起成功返回 true；任务已不在 RUNNING 状态时返回 false
+     */
+    public Mono<Boolean> suspend(String taskId, List<String> subTaskIds, String continuationStep,
+                                 Map<String, Object> state, Duration timeout) {
+        Instant now = Instant.now();
+        BackgroundTask.WorkflowState workflow = BackgroundTask.WorkflowState.builder()
+                .continuationStep(continuationStep)
+                .pendingSubTaskIds(new ArrayList<>(subTaskIds))
+                .finishedSubTaskIds(new ArrayList<>())
+                .state(state)
+                .waitingSince(now)
+                .deadline(now.plus(timeout))
+                .build();
+
+        Query query = new Query(Criteria.where("_id").is(taskId).and("status").is(TaskStatus.RUNNING));
+        Update update = new Update()
+                .set("status", TaskStatus.WAITING)
+                .set("workflow", workflow)
+                .set("timestamps.updatedAt", now);
+
+        return mongoTemplate.updateFirst(query, update, BackgroundTask.class)
+                .flatMap(result -> {
+                    if (result.getModifiedCount() == 0) {
+                        log.warn("挂起任务失败，任务不在RUNNING状态: taskId={}", taskId);
+                        return Mono.just(false);
+                    }
+                    log.info("父任务进入等待: taskId={}, 子任务数={}, 续跑步骤={}", taskId, subTaskIds.size(), continuationStep);
+                    // 挂起前已经结束的子任务不会再收到事件，这里立即对账一次
+                    return reconcile(taskId).thenReturn(true);
+                });
+    }
+
+    /**
+     * 记录子任务结束；父任务的最后一个子任务结束时重新入队
+     */
+    public Mono<Void> onSubTaskFinished(String parentTaskId, String subTaskId) {
+        Query query = new Query(Criteria.where("_id").is(parentTaskId)
+                .and("status").is(TaskStatus.WAITING)
+                .and("workflow.pendingSubTaskIds").is(subTaskId));
+        Update update = new Update()
+                .pull("workflow.pendingSubTaskIds", subTaskId)
+                .addToSet("workflow.finishedSubTaskIds", subTaskId)
+                .set("timestamps.updatedAt", Instant.now());
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), BackgroundTask.class)
+                .flatMap(parent -> {
+                    List<String> pending = parent.getWorkflow().getPendingSubTaskIds();
+                    log.debug("子任务结束: parentTaskId={}, subTaskId={}, 剩余={}", parentTaskId, subTaskId,
+                            pending != null ? pending.size() : 0);
+                    return pending == null || pending.isEmpty() ? resume(parentTaskId, false) : Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * 对账：检查父任务等待的子任务中已经结束但未被记录的部分
+     */
+    public Mono<Void> reconcile(String parentTaskId) {
+        return taskStateService.getTask(parentTaskId)
+                .filter(task -> task.getStatus() == TaskStatus.WAITING && task.getWorkflow() != null)
+                .flatMapMany(task -> {
+                    BackgroundTask.WorkflowState workflow = task.getWorkflow();
+                    List<String> pending = workflow.getPendingSubTaskIds();
+                    if (pending == null || pending.isEmpty()) {
+                        return resume(parentTaskId, false).flux();
+                    }
+                    if (workflow.getDeadline() != null && Instant.now().isAfter(workflow.getDeadline())) {
+                        log.warn("父任务等待超时，不再等待剩余{}个子任务: taskId={}", pending.size(), parentTaskId);
+                        return resume(parentTaskId, true).flux();
+                    }
+                    return Flux.fromIterable(pending)
+                            .concatMap(subTaskId -> taskStateService.getTask(subTaskId)
+                                    .filter(subTask -> subTask.getStatus() != null && subTask.getStatus().isTerminal())
+                                    .flatMap(subTask -> onSubTaskFinished(parentTaskId, subTaskId).thenReturn(true)));
+                })
+                .then();
+    }
+
+    /**
+     * 把 WAITING 的父任务切回 QUEUED 并重新分发；只有一个调用方能成功切换
+     */
+    private Mono<Boolean> resume(String taskId, boolean timedOut) {
+        Criteria criteria = Criteria.where("_id").is(taskId).and("status").is(TaskStatus.WAITING);
+        if (!timedOut) {
+            criteria = criteria.and("workflow.pendingSubTaskIds").size(0);
+        }
+        Update update = new Update()
+                .set("status", TaskStatus.QUEUED)
+                .set("workflow.timedOut", timedOut)
+                .set("timestamps.updatedAt", Instant.now());
+
+        return mongoTemplate.findAndModify(new Query(criteria), update,
+                        FindAndModifyOptions.options().returnNew(true), BackgroundTask.class)
+                .map(task -> {
+                    log.info("子任务已全部结束，父任务重新入队: taskId={}, 续跑步骤={}, timedOut={}",
+                            taskId, task.getWorkflow().getContinuationStep(), timedOut);
+                    eventPublisher.publishEvent(new TaskResumedEvent(this, task.getId(), task.getTaskType(),
+                            task.getUserId(), task.getParameters(), task.getParentTaskId(),
+                            task.getWorkflow().getContinuationStep(), timedOut));
+                    return true;
+                })
+                .defaultIfEmpty(false);
+    }
+
+    @EventListener
+    public void onTaskCompleted(TaskCompletedEvent event) {
+        onChildEvent(event.getParentTaskId(), event.getTaskId());
+    }
+
+    @EventListener
+    public void onTaskFailed(TaskFailedEvent event) {
+        onChildEvent(event.getParentTaskId(), event.getTaskId());
+    }
+
+    @EventListener
+    public void onTaskCancelled(TaskCancelledEvent event) {
+        onChildEvent(event.getParentTaskId(), event.getTaskId());
+    }
+
+    private void onChildEvent(String parentTaskId, String taskId) {
+        if (parentTaskId == null || parentTaskId.isEmpty()) {
+            return;
+        }
+        onSubTaskFinished(parentTaskId, taskId)
+                .subscribe(null, e -> log.error("记录子任务结束失败: parentTaskId={}, taskId={}, error={}",
+                        parentTaskId, taskId, e.getMessage()));
+    }
+
+    /**
+     * 定时对账：处理丢失的子任务完成事件（如节点在子任务完成后崩溃）与超时的等待
+     * 各节点都会执行，所有状态切换均为原子操作，重复执行无副作用
+     */
+    @Scheduled(fixedDelayString = "${task.workflow.reconcile-interval-ms:60000}")
+    public void reconcileWaitingTasks() {
+        Query query = new Query(Criteria.where("status").is(TaskStatus.WAITING)
+                .and("timestamps.updatedAt").lt(Instant.now().minus(RECONCILE_GRACE)))
+                .limit(RECONCILE_BATCH_SIZE);
+        mongoTemplate.find(query, BackgroundTask.class)
+                .concatMap(task -> reconcile(task.getId())
+                        .onErrorResume(e -> {
+                            log.warn("工作流对账失败: taskId={}, error={}", task.getId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+}
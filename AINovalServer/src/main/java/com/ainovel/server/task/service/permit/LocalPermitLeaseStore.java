@@ -0,0 +1,27 @@
+package com.ainovel.server.task.service.permit;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 单节点租约存储：并发上限完全由本节点计数控制，不访问外部存储
+ */
+public class LocalPermitLeaseStore implements PermitLeaseStore {
+
+    @Override
+    public Mono<Boolean> tryAcquire(String key, int limit, String leaseId, Duration ttl) {
+        return Mono.just(true);
+    }
+
+    @Override
+    public Mono<Void> release(String key, String leaseId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> renew(String key, Collection<String> leaseIds, Duration ttl) {
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,92 @@
+package com.ainovel.server.task.service.permit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.ainovel.server.task.model.TaskPermitLeases;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于 MongoDB 的集群租约存储
+ *
+ * 每个许可键一个文档，占用许可即在 leases 数组未满时原子地追加一条租约：
+ * 查询条件 "leases.{limit-1} 不存在" 保证数组长度小于上限，文档不存在时通过 upsert 创建，
+ * 文档已满时 upsert 会因主键冲突失败，同样视为许可已满。
+ * 租约带过期时间，节点宕机后过期租约在下一次许可已满时被清理。
+ */
+@Slf4j
+public class MongoPermitLeaseStore implements PermitLeaseStore {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final String holder;
+
+    public MongoPermitLeaseStore(ReactiveMongoTemplate mongoTemplate, String holder) {
+        this.mongoTemplate = mongoTemplate;
+        this.holder = holder;
+    }
+
+    @Override
+    public Mono<Boolean> tryAcquire(String key, int limit, String leaseId, Duration ttl) {
+        return push(key, limit, leaseId, ttl)
+                .flatMap(acquired -> acquired ? Mono.just(true)
+                        : purgeExpired(key).flatMap(purged -> purged ? push(key, limit, leaseId, ttl) : Mono.just(false)));
+    }
+
+    @Override
+    public Mono<Void> release(String key, String leaseId) {
+        Update update = new Update().pull("leases", Query.query(Criteria.where("id").is(leaseId)).getQueryObject());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)), update, TaskPermitLeases.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> renew(String key, Collection<String> leaseIds, Duration ttl) {
+        if (leaseIds.isEmpty()) {
+            return Mono.empty();
+        }
+        Update update = new Update()
+                .set("leases.$[lease].expiresAt", Instant.now().plus(ttl))
+                .filterArray(Criteria.where("lease.id").in(leaseIds));
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)), update, TaskPermitLeases.class)
+                .then();
+    }
+
+    private Mono<Boolean> push(String key, int limit, String leaseId, Duration ttl) {
+        Instant now = Instant.now();
+        TaskPermitLeases.Lease lease = TaskPermitLeases.Lease.builder()
+                .id(leaseId)
+                .holder(holder)
+                .acquiredAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+        Query query = Query.query(Criteria.where("_id").is(key).and("leases." + (limit - 1)).exists(false));
+        return mongoTemplate.upsert(query, new Update().push("leases", lease), TaskPermitLeases.class)
+                .map(result -> result.getModifiedCount() > 0 || result.getUpsertedId() != null)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+
+    /**
+     * 清理过期租约，返回是否有租约被清理
+     */
+    private Mono<Boolean> purgeExpired(String key) {
+        Update update = new Update().pull("leases",
+                Query.query(Criteria.where("expiresAt").lt(Instant.now())).getQueryObject());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(key)), update, TaskPermitLeases.class)
+                .map(result -> {
+                    if (result.getModifiedCount() > 0) {
+                        log.warn("清理过期的执行许可租约: key={}", key);
+                        return true;
+                    }
+                    return false;
+                });
+    }
+}
@@ -0,0 +1,33 @@
+package com.ainovel.server.task.service.permit;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 许可租约存储，决定许可在多大范围内共享
+ */
+public interface PermitLeaseStore {
+
+    /**
+     * 尝试占用一个许可
+     *
+     * @param key 许可键
+     * @param limit 该键的并发上限
+     * @param leaseId 租约ID
+     * @param ttl 租约有效期
+     * @return 占用成功返回 true；许可已满返回 false
+     */
+    Mono<Boolean> tryAcquire(String key, int limit, String leaseId, Duration ttl);
+
+    /**
+     * 归还许可
+     */
+    Mono<Void> release(String key, String leaseId);
+
+    /**
+     * 续约本节点持有的租约
+     */
+    Mono<Void> renew(String key, Collection<String> leaseIds, Duration ttl);
+}
@@ -0,0 +1,64 @@
+package com.ainovel.server.task.service.permit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+
+/**
+ * 已获取的执行许可，使用完毕后必须调用 {@link #release()}（可重复调用）
+ */
+@Getter
+public class TaskPermit {
+
+    private final String key;
+    private final String leaseId;
+
+    /**
+     * 入队时排在前面的等待者数量，0 表示未排队
+     */
+    private final int queuedAhead;
+
+    /**
+     * 从申请到获得许可的等待时长
+     */
+    private final Duration waitTime;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final Consumer<TaskPermit> releaser;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    TaskPermit(String key, String leaseId, int queuedAhead, Duration waitTime, Consumer<TaskPermit> releaser) {
+        this.key = key;
+        this.leaseId = leaseId;
+        this.queuedAhead = queuedAhead;
+        this.waitTime = waitTime;
+        this.releaser = releaser;
+    }
+
+    /**
+     * 不受并发限制的许可键使用的空许可
+     */
+    static TaskPermit unlimited(String key) {
+        return new TaskPermit(key, null, 0, Duration.ZERO, permit -> { });
+    }
+
+    /**
+     * 归还许可
+     */
+    public Mono<Void> release() {
+        return Mono.fromRunnable(() -> {
+            if (released.compareAndSet(false, true)) {
+                releaser.accept(this);
+            }
+        });
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+}
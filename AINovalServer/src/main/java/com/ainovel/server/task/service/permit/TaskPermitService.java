@@ -0,0 +1,350 @@
+package com.ainovel.server.task.service.permit;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ainovel.server.config.TaskPermitProperties;
+import com.ainovel.server.task.metrics.TaskMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * 非阻塞的执行许可服务
+ *
+ * 替代在 boundedElastic 线程上阻塞 acquire 的静态 Semaphore：
+ * - 等待者只是队列中的一个回调，不占用线程；许可归还或重试时按先进先出依次发放
+ * - 本地快速路径：本节点已用满上限时直接排队，不访问共享存储
+ * - 集群上限：本地有空位时再到 {@link PermitLeaseStore} 占用带过期时间的租约，持有期间定期续约
+ * - 按任务类型、按AI供应商分别配置上限（task.permits.task-types / task.permits.providers），未配置的键不限制
+ * - 排队长度、持有数与等待时间记录在 {@link TaskMetrics}
+ */
+@Slf4j
+@Service
+public class TaskPermitService {
+
+    private final TaskPermitProperties properties;
+    private final PermitLeaseStore leaseStore;
+    private final TaskMetrics taskMetrics;
+    private final ConcurrentMap<String, PermitQueue> queues = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TaskPermitService(TaskPermitProperties properties, ReactiveMongoTemplate mongoTemplate, TaskMetrics taskMetrics) {
+        this(properties,
+                properties.getStore() == TaskPermitProperties.Store.MONGO
+                        ? new MongoPermitLeaseStore(mongoTemplate, holderId())
+                        : new LocalPermitLeaseStore(),
+                taskMetrics);
+    }
+
+    TaskPermitService(TaskPermitProperties properties, PermitLeaseStore leaseStore, TaskMetrics taskMetrics) {
+        this.properties = properties;
+        this.leaseStore = leaseStore;
+        this.taskMetrics = taskMetrics;
+        log.info("执行许可服务初始化: store={}, taskTypes={}, providers={}",
+                properties.getStore(), properties.getTaskTypes(), properties.getProviders());
+    }
+
+    /**
+     * 按任务类型获取执行许可
+     *
+     * @param taskType 任务类型
+     * @param timeout 最长等待时间，为空时使用默认配置
+     * @param onQueued 需要排队时回调排队位置（从1开始）
+     */
+    public Mono<TaskPermit> acquireForTaskType(String taskType, Duration timeout, IntConsumer onQueued) {
+        return acquire("task:" + taskType, properties.getTaskTypes().get(taskType), timeout, onQueued);
+    }
+
+    /**
+     * 按AI供应商获取执行许可
+     */
+    public Mono<TaskPermit> acquireForProvider(String provider, Duration timeout) {
+        String name = provider != null ? provider.toLowerCase(Locale.ROOT) : "unknown";
+        return acquire("provider:" + name, properties.getProviders().get(name), timeout, position -> { });
+    }
+
+    /**
+     * 获取执行许可
+     *
+     * @param key 许可键
+     * @param limit 并发上限，为空或不大于0表示不限制
+     * @param timeout 最长等待时间，为空时使用默认配置
+     * @param onQueued 需要排队时回调排队位置（从1开始）
+     */
+    public Mono<TaskPermit> acquire(String key, Integer limit, Duration timeout, IntConsumer onQueued) {
+        if (limit == null || limit <= 0) {
+            return Mono.fromSupplier(() -> TaskPermit.unlimited(key));
+        }
+        Duration maxWait = timeout != null ? timeout : properties.getAcquireTimeout();
+        return Mono.<TaskPermit>create(sink -> {
+                    PermitQueue queue = queue(key, limit);
+                    Waiter waiter = new Waiter(sink);
+                    int position = queue.enqueue(waiter);
+                    sink.onCancel(() -> cancel(queue, waiter));
+                    if (position > 0) {
+                        log.info("执行许可已满，进入排队: key={}, 排队位置={}, 上限={}", key, position, limit);
+                        onQueued.accept(position);
+                    }
+                    drain(queue);
+                })
+                .timeout(maxWait)
+                .onErrorMap(TimeoutException.class, e -> {
+                    taskMetrics.recordPermitWait(key, maxWait.toMillis(), "timeout");
+                    return new RuntimeException("等待执行许可超时: key=" + key + ", 等待时间超过" + maxWait.toMinutes() + "分钟");
+                });
+    }
+
+    /**
+     * 在许可保护下执行，结束（成功、失败或取消）时归还许可
+     */
+    public <T> Mono<T> withPermit(Mono<TaskPermit> permit, Function<TaskPermit, Mono<T>> action) {
+        return Mono.usingWhen(permit, action, TaskPermit::release, (p, e) -> p.release(), TaskPermit::release);
+    }
+
+    /**
+     * 当前排队数
+     */
+    public int getQueueLength(String key) {
+        PermitQueue queue = queues.get(key);
+        return queue != null ? queue.queueLength() : 0;
+    }
+
+    /**
+     * 本节点当前持有数
+     */
+    public int getActiveCount(String key) {
+        PermitQueue queue = queues.get(key);
+        return queue != null ? queue.activeCount() : 0;
+    }
+
+    /**
+     * 续约本节点持有的所有租约
+     */
+    @Scheduled(fixedDelayString = "${task.permits.renew-interval-ms:30000}")
+    public void renewLeases() {
+        for (PermitQueue queue : queues.values()) {
+            List<String> leaseIds = queue.heldLeaseIds();
+            if (leaseIds.isEmpty()) {
+                continue;
+            }
+            leaseStore.renew(queue.key, leaseIds, properties.getLeaseTtl())
+                    .subscribe(null, e -> log.warn("执行许可续约失败: key={}, error={}", queue.key, e.getMessage()));
+        }
+    }
+
+    private PermitQueue queue(String key, int limit) {
+        return queues.computeIfAbsent(key, k -> {
+            PermitQueue queue = new PermitQueue(k, limit);
+            taskMetrics.registerPermitGauges(k, queue::queueLength, queue::activeCount);
+            return queue;
+        });
+    }
+
+    /**
+     * 本地还有空位且无进行中的占用尝试时，为队首等待者占用一个租约
+     */
+    private void drain(PermitQueue queue) {
+        synchronized (queue) {
+            if (queue.acquiring || queue.waiters.isEmpty() || queue.active >= queue.limit) {
+                return;
+            }
+            queue.acquiring = true;
+            queue.active++;
+        }
+        String leaseId = UUID.randomUUID().toString();
+        leaseStore.tryAcquire(queue.key, queue.limit, leaseId, properties.getLeaseTtl())
+                .onErrorResume(e -> {
+                    log.warn("占用执行许可租约失败，稍后重试: key={}, error={}", queue.key, e.getMessage());
+                    return Mono.just(false);
+                })
+                .subscribe(acquired -> onLeaseResult(queue, leaseId, acquired));
+    }
+
+    private void onLeaseResult(PermitQueue queue, String leaseId, boolean acquired) {
+        Waiter waiter = null;
+        synchronized (queue) {
+            queue.acquiring = false;
+            if (acquired) {
+                Waiter candidate;
+                while ((candidate = queue.waiters.poll()) != null) {
+                    if (candidate.claim()) {
+                        waiter = candidate;
+                        break;
+                    }
+                }
+            }
+            if (waiter != null) {
+                queue.leaseIds.add(leaseId);
+            } else {
+                queue.active--;
+            }
+        }
+
+        if (!acquired) {
+            // 集群许可已满（其他节点持有），稍后重试
+            scheduleRetry(queue);
+            return;
+        }
+        if (waiter == null) {
+            // 租约占用期间所有等待者都已离开
+            leaseStore.release(queue.key, leaseId).subscribe(null, e -> log.warn("归还执行许可租约失败: key={}, error={}", queue.key, e.getMessage()));
+        } else {
+            grant(queue, waiter, leaseId);
+        }
+        drain(queue);
+    }
+
+    private void grant(PermitQueue queue, Waiter waiter, String leaseId) {
+        Duration waited = Duration.ofNanos(System.nanoTime() - waiter.startNanos);
+        TaskPermit permit = new TaskPermit(queue.key, leaseId, waiter.position, waited, p -> release(queue, p));
+        waiter.permit = permit;
+        taskMetrics.recordPermitWait(queue.key, waited.toMillis(), "acquired");
+        if (waiter.cancelled) {
+            permit.release().subscribe();
+            return;
+        }
+        if (waiter.position > 0) {
+            log.info("获取执行许可: key={}, 排队位置={}, 等待{}ms", queue.key, waiter.position, waited.toMillis());
+        }
+        waiter.sink.success(permit);
+    }
+
+    private void cancel(PermitQueue queue, Waiter waiter) {
+        waiter.cancelled = true;
+        if (waiter.abandon()) {
+            synchronized (queue) {
+                queue.waiters.remove(waiter);
+            }
+            return;
+        }
+        // 已被发放许可但订阅者已取消，归还许可
+        TaskPermit permit = waiter.permit;
+        if (permit != null) {
+            permit.release().subscribe();
+        }
+    }
+
+    private void release(PermitQueue queue, TaskPermit permit) {
+        synchronized (queue) {
+            queue.active--;
+            queue.leaseIds.remove(permit.getLeaseId());
+        }
+        leaseStore.release(queue.key, permit.getLeaseId())
+                .onErrorResume(e -> {
+                    log.warn("归还执行许可租约失败，等待租约过期: key={}, error={}", queue.key, e.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> drain(queue))
+                .subscribe();
+    }
+
+    private void scheduleRetry(PermitQueue queue) {
+        synchronized (queue) {
+            if (queue.retryScheduled || queue.waiters.isEmpty()) {
+                return;
+            }
+            queue.retryScheduled = true;
+        }
+        Mono.delay(properties.getPollInterval())
+                .subscribe(tick -> {
+                    synchronized (queue) {
+                        queue.retryScheduled = false;
+                    }
+                    drain(queue);
+                });
+    }
+
+    private static String holderId() {
+        String hostname;
+        try {
+            hostname = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            hostname = "unknown";
+        }
+        return hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 单个许可键的本地状态，所有字段在 synchronized(this) 下访问
+     */
+    private static final class PermitQueue {
+        final String key;
+        final int limit;
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        final Set<String> leaseIds = new HashSet<>();
+        int active;
+        boolean acquiring;
+        boolean retryScheduled;
+
+        PermitQueue(String key, int limit) {
+            this.key = key;
+            this.limit = limit;
+        }
+
+        /**
+         * 入队并返回排队位置，无需等待时返回0
+         */
+        synchronized int enqueue(Waiter waiter) {
+            int ahead = waiters.size();
+            waiters.addLast(waiter);
+            waiter.position = ahead > 0 || active >= limit ? ahead + 1 : 0;
+            return waiter.position;
+        }
+
+        synchronized int queueLength() {
+            return waiters.size();
+        }
+
+        synchronized int activeCount() {
+            return active;
+        }
+
+        synchronized List<String> heldLeaseIds() {
+            return List.copyOf(leaseIds);
+        }
+    }
+
+    private static final class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int ABANDONED = 2;
+
+        final MonoSink<TaskPermit> sink;
+        final long startNanos = System.nanoTime();
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        int position;
+        volatile boolean cancelled;
+        volatile TaskPermit permit;
+
+        Waiter(MonoSink<TaskPermit> sink) {
+            this.sink = sink;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(WAITING, ABANDONED);
+        }
+    }
+}
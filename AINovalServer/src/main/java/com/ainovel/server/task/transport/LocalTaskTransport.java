@@ -9,6 +9,7 @@ import com.ainovel.server.task.model.BackgroundTask;
 import com.ainovel.server.task.model.TaskStatus;
 import lombok.extern.slf4j.Slf4j;
 import com.ainovel.server.task.service.TaskSubmissionService;
+import com.ainovel.server.task.service.TaskWorkflowService;
 import com.ainovel.server.config.TaskConversionConfig;
 import com.ainovel.server.task.event.internal.TaskStartedEvent;
 import com.ainovel.server.task.event.internal.TaskCompletedEvent;
@@ -42,6 +43,7 @@ public class LocalTaskTransport implements TaskTransport {
     private final ApplicationEventPublisher eventPublisher;
     private final TaskSubmissionService taskSubmissionService;
     private final TaskConversionConfig taskConversionConfig;
+    private final TaskWorkflowService taskWorkflowService;
 
     // 无界多播 sink（背压策略：buffer），用于本地队列
     private final Sinks.Many<String> taskSink;
@@ -57,6 +59,7 @@ public class LocalTaskTransport implements TaskTransport {
                               ApplicationEventPublisher eventPublisher,
                               TaskSubmissionService taskSubmissionService,
                               TaskConversionConfig taskConversionConfig,
+                              TaskWorkflowService taskWorkflowService,
                               @org.springframework.beans.factory.annotation.Value("${task.local.concurrency:4}") int concurrency,
                               @org.springframework.beans.factory.annotation.Value("${task.retry.delays:15000,60000,300000}") String retryDelaysStr) {
         this.taskStateService = taskStateService;
@@ -64,6 +67,7 @@ public class LocalTaskTransport implements TaskTransport {
         this.eventPublisher = eventPublisher;
         this.taskSubmissionService = taskSubmissionService;
         this.taskConversionConfig = taskConversionConfig;
+        this.taskWorkflowService = taskWorkflowService;
         // ✅ 修复：使用 multicast() 替代 unicast()，支持并发提交任务
         // unicast() 只支持单订阅者且不支持并发写入，会导致 FAIL_NON_SERIALIZED 错误
         this.taskSink = Sinks.many().multicast().onBackpressureBuffer();
@@ -179,9 +183,18 @@ public class LocalTaskTransport implements TaskTransport {
                             .taskStateService(taskStateService)
                             .taskSubmissionService(taskSubmissionService)
                             .eventPublisher(eventPublisher)
+                            .workflowService(taskWorkflowService)
+                            .workflow(task.getWorkflow())
                             .build();
                         return taskExecutorService.executeTask((BackgroundTaskExecutable<Object, Object>) executable, (TaskContext<Object>) context)
-                            .flatMap(result -> handleResult(task, result));
+                            .flatMap(result -> {
+                                if (result.isSuccess() && context.isSuspended()) {
+                                    // 已挂起等待子任务，由最后一个子任务结束时重新入队
+                                    log.info("任务已挂起等待子任务，不记录完成: taskId={}", taskId);
+                                    return Mono.<Void>empty();
+                                }
+                                return handleResult(task, result);
+                            });
                     })
             );
     }
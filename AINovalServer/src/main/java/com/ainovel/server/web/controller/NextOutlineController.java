@@ -567,6 +567,7 @@ public class NextOutlineController {
             case QUEUED:
                 return "task_queued";
             case RUNNING:
+            case WAITING:
                 return "task_progress";
             case COMPLETED:
                 return "task_completed";
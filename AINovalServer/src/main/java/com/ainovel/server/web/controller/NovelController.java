@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +17,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -36,6 +40,8 @@ import com.ainovel.server.web.dto.JobIdResponse;
 import com.ainovel.server.web.dto.LoadMoreScenesRequestDto;
 import com.ainovel.server.web.dto.NovelChapterDto;
 import com.ainovel.server.web.dto.NovelChapterSceneDto;
+import com.ainovel.server.web.dto.NovelSummaryOverviewDto;
+import com.ainovel.server.web.dto.NovelSummaryPageDto;
 import com.ainovel.server.web.dto.NovelWithScenesDto;
 import com.ainovel.server.web.dto.NovelWithSummariesDto;
 import com.ainovel.server.web.dto.PaginatedScenesRequestDto;
@@ -366,6 +372,78 @@ public class NovelController extends ReactiveBaseController {
         return novelService.findNovelsByAuthorId(authorIdDto.getAuthorId());
     }
 
+    /**
+     * 分页获取当前用户的小说摘要（书架列表）
+     * 按最近更新时间倒序的游标分页，只返回列表展示所需字段；支持 If-None-Match 条件请求
+     *
+     * @param cursor 上一页返回的 nextCursor，首页不传
+     * @param limit 每页数量（1-100）
+     * @return 小说摘要分页
+     */
+    @GetMapping("/summaries")
+    public Mono<ResponseEntity<NovelSummaryPageDto>> getNovelSummaries(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal com.ainovel.server.security.CurrentUser currentUser) {
+        if (currentUser == null || !StringUtils.hasText(currentUser.getId())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return novelService.findNovelSummaries(currentUser.getId(), cursor, limit)
+                .map(page -> conditionalResponse(page, page.getVersion(), ifNoneMatch))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * 获取当前用户的小说统计概览（仪表盘）
+     *
+     * @return 小说数、总字数、总章节数与最近更新时间
+     */
+    @GetMapping("/summaries/overview")
+    public Mono<ResponseEntity<NovelSummaryOverviewDto>> getNovelSummaryOverview(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal com.ainovel.server.security.CurrentUser currentUser) {
+        if (currentUser == null || !StringUtils.hasText(currentUser.getId())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return novelService.getNovelSummaryOverview(currentUser.getId())
+                .map(overview -> conditionalResponse(overview, overview.getVersion(), ifNoneMatch));
+    }
+
+    /**
+     * 按版本号生成 ETag；与 If-None-Match 匹配时返回 304
+     */
+    private static <T> ResponseEntity<T> conditionalResponse(T body, String version, String ifNoneMatch) {
+        String etag = "\"" + version + "\"";
+        if (etagMatches(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    private static boolean etagMatches(String etag, String ifNoneMatch) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 搜索小说
      *
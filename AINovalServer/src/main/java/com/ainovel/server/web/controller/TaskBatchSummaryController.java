@@ -2,6 +2,8 @@ package com.ainovel.server.web.controller;
 
 import com.ainovel.server.security.CurrentUser;
 import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryParameters;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryPlan;
+import com.ainovel.server.task.service.BatchSummaryPlanner;
 import com.ainovel.server.task.service.TaskSubmissionService;
 import com.ainovel.server.web.dto.TaskSubmissionResponse;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,7 @@ import java.util.Map;
 public class TaskBatchSummaryController {
 
     private final TaskSubmissionService taskSubmissionService;
+    private final BatchSummaryPlanner batchSummaryPlanner;
 
     /**
      * 提交批量生成摘要任务
@@ -93,4 +96,33 @@ public class TaskBatchSummaryController {
                 return Mono.just(ResponseEntity.status(status).body(errorResponse));
             });
     }
-} 
\ No newline at end of file
+
+    /**
+     * 预演批量生成摘要任务：不提交任务、不调用模型，返回实际需要的模型调用次数与预估积分
+     * 
+     * @param currentUser 当前用户
+     * @param request 与提交任务相同的请求参数
+     * @return 预演结果的Mono
+     */
+    @PostMapping("/batch-generate-summary/plan")
+    public Mono<ResponseEntity<BatchGenerateSummaryPlan>> planBatchGenerateSummaryTask(
+            @AuthenticationPrincipal CurrentUser currentUser,
+            @Valid @RequestBody BatchGenerateSummaryParameters request) {
+        
+        String userId = currentUser.getId();
+        if (request.getNovelId() == null || request.getStartChapterId() == null || request.getEndChapterId() == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        
+        return batchSummaryPlanner.estimate(userId, request)
+            .map(plan -> {
+                log.info("用户 {} 预演批量生成摘要, 小说: {}, 场景: {}, 需调用模型: {} 次, 预估积分: {}",
+                        userId, request.getNovelId(), plan.getTotalScenes(), plan.getLlmCalls(), plan.getEstimatedCredits());
+                return ResponseEntity.ok(plan);
+            })
+            .onErrorResume(IllegalArgumentException.class, e -> {
+                log.warn("预演批量生成摘要失败: {}", e.getMessage());
+                return Mono.just(ResponseEntity.badRequest().build());
+            });
+    }
+}
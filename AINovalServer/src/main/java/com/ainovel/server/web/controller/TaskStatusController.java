@@ -152,7 +152,7 @@ public class TaskStatusController {
     private String mapTaskStatusToEventType(TaskStatus status) {
         return switch (status) {
             case QUEUED -> "TASK_SUBMITTED";
-            case RUNNING -> "TASK_STARTED";
+            case RUNNING, WAITING -> "TASK_STARTED";
             case COMPLETED -> "TASK_COMPLETED";
             case FAILED, DEAD_LETTER -> "TASK_FAILED";
             case CANCELLED -> "TASK_CANCELLED";
@@ -53,6 +53,11 @@ public class ImportSessionInfo {
      */
     private LocalDateTime expiresAt;
 
+    /**
+     * 预览时确定的小说标题
+     */
+    private String novelTitle;
+
     /**
      * 解析状态
      */
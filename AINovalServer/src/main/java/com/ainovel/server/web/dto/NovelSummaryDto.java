@@ -0,0 +1,73 @@
+package com.ainovel.server.web.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 小说摘要数据传输对象
+ * 小说列表页使用，不包含卷/章节结构
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NovelSummaryDto {
+
+    /**
+     * 小说ID
+     */
+    private String id;
+
+    /**
+     * 标题
+     */
+    private String title;
+
+    /**
+     * 封面
+     */
+    private String coverImage;
+
+    /**
+     * 状态
+     */
+    private String status;
+
+    /**
+     * 总字数
+     */
+    private int wordCount;
+
+    /**
+     * 章节数
+     */
+    private int chapterCount;
+
+    /**
+     * 最后编辑的章节ID
+     */
+    private String lastEditedChapterId;
+
+    /**
+     * 最后编辑时间
+     */
+    private LocalDateTime lastEditedAt;
+
+    /**
+     * 是否归档
+     */
+    private Boolean isArchived;
+
+    /**
+     * 是否已就绪
+     */
+    private Boolean isReady;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
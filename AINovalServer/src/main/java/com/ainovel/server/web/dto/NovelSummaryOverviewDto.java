@@ -0,0 +1,46 @@
+package com.ainovel.server.web.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 作者小说概览统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NovelSummaryOverviewDto {
+
+    /**
+     * 小说数
+     */
+    private long novelCount;
+
+    /**
+     * 总字数
+     */
+    private long totalWordCount;
+
+    /**
+     * 总章节数
+     */
+    private long totalChapterCount;
+
+    /**
+     * 最近一次更新时间
+     */
+    private LocalDateTime lastUpdatedAt;
+
+    /**
+     * 内容版本，用作 ETag
+     */
+    @JsonIgnore
+    private String version;
+}
@@ -0,0 +1,41 @@
+package com.ainovel.server.web.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 小说摘要分页结果（游标翻页）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NovelSummaryPageDto {
+
+    /**
+     * 本页小说，按最近更新时间倒序
+     */
+    private List<NovelSummaryDto> items;
+
+    /**
+     * 下一页游标，没有更多时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 本页内容版本，用作 ETag
+     */
+    @JsonIgnore
+    private String version;
+}
@@ -0,0 +1,99 @@
+package com.ainovel.server.common.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ContentFingerprintUtil 单元测试
+ * 验证精确指纹对空白差异不敏感、SimHash 能区分近似重复与无关章节
+ */
+class ContentFingerprintUtilTest {
+
+    private static final String CHARS = "天地玄黄宇宙洪荒日月盈昃辰宿列张寒来暑往秋收冬藏闰余成岁律吕调阳云腾致雨露结为霜";
+
+    /**
+     * 测试重新排版（缩进、换行、全角空格）后精确指纹不变
+     */
+    @Test
+    void testContentHashIgnoresWhitespace() {
+        String original = "第一章 开始\n　　他推开门，走了进去。\n\n　　屋里很安静。";
+        String reformatted = "第一章开始\r\n他推开门，走了进去。\n屋里很安静。  ";
+
+        assertEquals(
+                ContentFingerprintUtil.contentHash(ContentFingerprintUtil.normalize(original)),
+                ContentFingerprintUtil.contentHash(ContentFingerprintUtil.normalize(reformatted)));
+        assertNotEquals(
+                ContentFingerprintUtil.contentHash(ContentFingerprintUtil.normalize(original)),
+                ContentFingerprintUtil.contentHash(ContentFingerprintUtil.normalize(original + "多一句")));
+    }
+
+    /**
+     * 测试少量改字的章节为近似重复，无关章节不是
+     */
+    @Test
+    void testSimHashSeparatesNearDuplicatesFromUnrelatedText() {
+        Random random = new Random(1);
+        String chapter = randomText(random, 3000);
+        StringBuilder edited = new StringBuilder(chapter);
+        for (int i = 0; i < 3; i++) {
+            edited.setCharAt(random.nextInt(edited.length()), '改');
+        }
+        String unrelated = randomText(random, 3000);
+
+        long base = ContentFingerprintUtil.simHash(chapter);
+        assertTrue(ContentFingerprintUtil.isNearDuplicate(base, ContentFingerprintUtil.simHash(edited.toString())));
+        assertFalse(ContentFingerprintUtil.isNearDuplicate(base, ContentFingerprintUtil.simHash(unrelated)));
+    }
+
+    /**
+     * 测试汉明距离不超过阈值的指纹至少共享一个分块组合键
+     */
+    @Test
+    void testNearDuplicatesShareABand() {
+        Random random = new Random(2);
+        for (int round = 0; round < 1000; round++) {
+            long a = random.nextLong();
+            long b = a;
+            for (int flip = 0; flip < ContentFingerprintUtil.NEAR_DUPLICATE_DISTANCE; flip++) {
+                b ^= 1L << random.nextInt(64);
+            }
+            List<Integer> bandsA = ContentFingerprintUtil.simHashBands(a);
+            List<Integer> bandsB = ContentFingerprintUtil.simHashBands(b);
+            assertTrue(bandsA.stream().anyMatch(bandsB::contains));
+        }
+    }
+
+    /**
+     * 测试组合键的选择性：一批 200 个指纹的键只命中少量无关的已有指纹
+     */
+    @Test
+    void testBandKeysAreSelective() {
+        Random random = new Random(3);
+        Set<Integer> batchKeys = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            batchKeys.addAll(ContentFingerprintUtil.simHashBands(random.nextLong()));
+        }
+        int hits = 0;
+        int existing = 10_000;
+        for (int i = 0; i < existing; i++) {
+            if (ContentFingerprintUtil.simHashBands(random.nextLong()).stream().anyMatch(batchKeys::contains)) {
+                hits++;
+            }
+        }
+        assertTrue(hits < existing * 0.04, "无关指纹命中数过多: " + hits);
+    }
+
+    private String randomText(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(CHARS.charAt(random.nextInt(CHARS.length())));
+        }
+        return sb.toString();
+    }
+}
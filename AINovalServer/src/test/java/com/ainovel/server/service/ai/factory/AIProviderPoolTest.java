@@ -0,0 +1,84 @@
+package com.ainovel.server.service.ai.factory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.config.AIProviderPoolProperties;
+import com.ainovel.server.service.ai.AIModelProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * AIProviderPool 单元测试
+ * 验证按配置指纹复用实例、配置变化时失效以及命中率与构建耗时指标
+ */
+class AIProviderPoolTest {
+
+    private AIModelProviderFactory factory;
+    private AIProviderPoolProperties properties;
+    private SimpleMeterRegistry registry;
+    private AIProviderPool pool;
+
+    @BeforeEach
+    void setUp() {
+        factory = mock(AIModelProviderFactory.class);
+        when(factory.createProvider(anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> mock(AIModelProvider.class));
+        when(factory.createToolCallProvider(anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> mock(AIModelProvider.class));
+        properties = new AIProviderPoolProperties();
+        registry = new SimpleMeterRegistry();
+        pool = new AIProviderPool(factory, properties, registry);
+    }
+
+    /**
+     * 测试相同配置复用实例，密钥、端点或工具调用分支不同时新建
+     */
+    @Test
+    void testReusesInstanceForSameFingerprint() {
+        AIModelProvider first = pool.getProvider("OpenAI", "gpt-4o", "sk-1", null);
+        AIModelProvider second = pool.getProvider("openai", "gpt-4o", "sk-1", " ");
+
+        assertSame(first, second);
+        assertNotSame(first, pool.getProvider("openai", "gpt-4o", "sk-2", null));
+        assertNotSame(first, pool.getProvider("openai", "gpt-4o", "sk-1", "https://proxy.example.com/v1"));
+        assertNotSame(first, pool.getToolCallProvider("openai", "gpt-4o", "sk-1", null));
+        verify(factory, times(3)).createProvider(anyString(), anyString(), any(), any());
+
+        assertEquals(1, registry.get("cache.gets").tags("cache", AIProviderPool.CACHE_NAME, "result", "hit")
+                .functionCounter().count());
+        assertEquals(4, registry.get("ai.provider.pool.construction").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    /**
+     * 测试配置变更只失效由该配置解析出的实例
+     */
+    @Test
+    void testInvalidateConfig() {
+        AIModelProvider user = pool.getProvider("cfg-1", "openai", "gpt-4o", "sk-1", null);
+        AIModelProvider other = pool.getProvider("cfg-2", "anthropic", "claude-3-haiku", "sk-3", null);
+
+        pool.invalidateConfig("cfg-1");
+
+        assertEquals(1, pool.size());
+        assertNotSame(user, pool.getProvider("cfg-1", "openai", "gpt-4o", "sk-1", null));
+        assertSame(other, pool.getProvider("cfg-2", "anthropic", "claude-3-haiku", "sk-3", null));
+    }
+
+    /**
+     * 测试关闭实例池后每次都新建
+     */
+    @Test
+    void testDisabledPoolAlwaysConstructs() {
+        properties.setEnabled(false);
+
+        assertNotSame(pool.getProvider("openai", "gpt-4o", "sk-1", null),
+                pool.getProvider("openai", "gpt-4o", "sk-1", null));
+        assertEquals(0, pool.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ainovel.server.service.ai.tokenizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TokenCounter 单元测试与长中文文本基准
+ */
+class TokenCounterTest {
+
+    private static final String CHINESE_PARAGRAPH =
+            "夜色渐深，城南的巷子里只剩下几盏昏黄的灯笼。林远提着剑，踏着青石板一步步走向那座早已荒废的道观，"
+            + "风从破败的窗棂间穿过，发出呜咽般的声响。他想起师父临终前的嘱托，心中不由一紧。";
+
+    /**
+     * 测试模型族识别
+     */
+    @Test
+    void testFamilyResolution() {
+        assertEquals(TokenizerFamily.OPENAI_O200K, TokenizerFamily.forModel("gpt-4o-mini"));
+        assertEquals(TokenizerFamily.OPENAI_CL100K, TokenizerFamily.forModel("gpt-4-turbo"));
+        assertEquals(TokenizerFamily.CLAUDE, TokenizerFamily.forModel("anthropic/claude-3-5-sonnet"));
+        assertEquals(TokenizerFamily.GEMINI, TokenizerFamily.forModel("gemini-2.0-flash"));
+        assertEquals(TokenizerFamily.CHINESE_NATIVE, TokenizerFamily.forModel("deepseek-chat"));
+        assertEquals(TokenizerFamily.DEFAULT, TokenizerFamily.forModel(null));
+    }
+
+    /**
+     * 测试BPE计数结果与缓存一致性
+     */
+    @Test
+    void testCountsWithBpeVocabulary() {
+        TokenCounter counter = new TokenCounter();
+
+        assertEquals(0, counter.countTokens(null));
+        assertEquals(2, counter.countTokens("hello world", "gpt-4"));
+
+        String longText = CHINESE_PARAGRAPH.repeat(20);
+        int first = counter.countTokens(longText, "gpt-4o");
+        assertTrue(first > 0);
+        assertEquals(first, counter.countTokens(longText, "gpt-4o"), "缓存命中结果应一致");
+        assertTrue(counter.countTokens(longText, "claude-3-haiku") > first, "Claude 中文校准系数大于1");
+    }
+
+    /**
+     * 测试文本中出现特殊标记时按普通文本计数，不抛出异常
+     */
+    @Test
+    void testSpecialTokensCountedAsOrdinaryText() {
+        TokenCounter counter = new TokenCounter();
+        String text = "章节结束<|endoftext|>下一章";
+
+        int tokens = assertDoesNotThrow(() -> counter.countTokens(text, "gpt-4"));
+        assertTrue(tokens > 1);
+        assertTrue(counter.countTokens((text + "<|im_start|>").repeat(30), "gpt-4o") > 0);
+    }
+
+    /**
+     * 测试词表不可用时的字符比例估算
+     */
+    @Test
+    void testHeuristicCount() {
+        assertEquals(2, TokenCounter.heuristicCount("夜色渐"));
+        assertEquals(3, TokenCounter.heuristicCount("hello world!"));
+    }
+
+    /**
+     * 长中文文本基准：首次编码与按内容哈希命中缓存的耗时
+     */
+    @Test
+    void benchmarkLongChineseText() {
+        TokenCounter counter = new TokenCounter();
+        String chapter = CHINESE_PARAGRAPH.repeat(1000);
+
+        // 预热词表
+        counter.countTokens(CHINESE_PARAGRAPH.repeat(50), "gpt-4o");
+
+        int iterations = 20;
+        long encodeNanos = 0;
+        int tokens = 0;
+        for (int i = 0; i < iterations; i++) {
+            // 每次追加不同后缀，绕过缓存测量实际编码耗时
+            String text = chapter + i;
+            long start = System.nanoTime();
+            tokens = counter.countTokens(text, "gpt-4o");
+            encodeNanos += System.nanoTime() - start;
+        }
+
+        long cachedStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertEquals(tokens, counter.countTokens(chapter + (iterations - 1), "gpt-4o"));
+        }
+        long cachedNanos = System.nanoTime() - cachedStart;
+
+        int heuristic = TokenCounter.heuristicCount(chapter);
+        System.out.printf("%d字中文: BPE %d tokens (%.2f ms/次), 缓存命中 %.2f ms/次, 旧比例估算 %d tokens%n",
+                chapter.length(), tokens, encodeNanos / 1e6 / iterations, cachedNanos / 1e6 / iterations, heuristic);
+    }
+}
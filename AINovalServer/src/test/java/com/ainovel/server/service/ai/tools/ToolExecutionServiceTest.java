@@ -0,0 +1,361 @@
+package com.ainovel.server.service.ai.tools;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.setting.generation.SettingNode;
+import com.ainovel.server.service.setting.generation.tools.BatchCreateNodesTool;
+import com.ainovel.server.service.setting.generation.tools.CreateSettingNodeTool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+
+/**
+ * 工具调用并发执行与节点流式落地测试
+ * 使用脚本化的模拟模型（每轮固定延迟）与带固定耗时的工具，对比串行与按依赖并发的端到端耗时
+ */
+class ToolExecutionServiceTest {
+
+    private static final long MODEL_LATENCY_MS = 150;
+    private static final long LOOKUP_MS = 100;
+    private static final long NODE_MS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, SettingNode> nodes = new ConcurrentHashMap<>();
+    private final AtomicInteger callIds = new AtomicInteger();
+
+    private ToolRegistry registry;
+    private ToolExecutionService service;
+    private BatchCreateNodesTool batchTool;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ToolRegistry();
+        service = new ToolExecutionService(registry, objectMapper);
+    }
+
+    /**
+     * 测试子节点调用排在父节点调用之前时，按临时ID依赖先执行父节点调用
+     */
+    @Test
+    void testChildCallWaitsForParentCall() {
+        register("ctx", true, true);
+        assertTrue(batchTool.isConcurrencySafe());
+
+        List<ChatMessage> results = service.executeToolCalls(AiMessage.from(List.of(
+                createNodes(node("城门", "1-1", "1"), node("集市", "1-2", "1")),
+                createNodes(node("青阳镇", "1", null)))), "ctx");
+
+        assertEquals(2, results.size());
+        assertTrue(text(results.get(0)).contains("\"totalCreated\":2"));
+        assertEquals(3, nodes.size());
+        String townId = idOf("青阳镇");
+        assertEquals(townId, nodes.get(idOf("城门")).getParentId());
+        assertEquals(townId, nodes.get(idOf("集市")).getParentId());
+    }
+
+    /**
+     * 测试批次内父节点排在子节点之后时仍先创建父节点
+     */
+    @Test
+    void testBatchMaterializesParentFirst() {
+        register("ctx", true, true);
+
+        service.executeToolCalls(AiMessage.from(createNodes(
+                node("长老", "1-1-1", "1-1"), node("宗门大殿", "1-1", "1"), node("青云宗", "1", null))), "ctx");
+
+        assertEquals(3, nodes.size());
+        assertEquals(idOf("宗门大殿"), nodes.get(idOf("长老")).getParentId());
+        assertEquals(idOf("青云宗"), nodes.get(idOf("宗门大殿")).getParentId());
+    }
+
+    /**
+     * 测试父临时ID尚未出现的节点被暂存，父节点在后续轮次创建后立即落地
+     */
+    @Test
+    void testParkedNodesMaterializeWhenParentArrives() throws Exception {
+        register("ctx", true, true);
+
+        List<ChatMessage> first = service.executeToolCalls(AiMessage.from(
+                createNodes(node("剑诀", "2-1", "2"), node("剑意", "2-1-1", "2-1"))), "ctx");
+        assertTrue(nodes.isEmpty());
+        assertTrue(text(first.get(0)).contains("pendingNodes"));
+
+        List<ChatMessage> second = service.executeToolCalls(AiMessage.from(
+                createNodes(node("功法体系", "2", null))), "ctx");
+        Map<?, ?> result = objectMapper.readValue(text(second.get(0)), Map.class);
+        assertEquals(3, result.get("totalCreated"));
+        assertFalse(result.containsKey("pendingNodes"));
+        assertEquals(idOf("剑诀"), nodes.get(idOf("剑意")).getParentId());
+        assertTrue(batchTool.drainUnresolved().isEmpty());
+    }
+
+    /**
+     * 测试本轮结束时父节点始终未出现的暂存节点被报告并清除，不会在之后落地
+     */
+    @Test
+    void testDrainReportsNodesWhoseParentNeverArrived() {
+        register("ctx", true, true);
+
+        service.executeToolCalls(AiMessage.from(createNodes(node("剑诀", "2-1", "2"), node("剑意", "2-1-1", "2-1"))), "ctx");
+
+        List<String> unresolved = batchTool.drainUnresolved();
+        assertEquals(2, unresolved.size());
+        assertTrue(unresolved.get(0).contains("剑诀"));
+        assertTrue(batchTool.drainUnresolved().isEmpty());
+
+        service.executeToolCalls(AiMessage.from(createNodes(node("功法体系", "2", null))), "ctx");
+        assertEquals(1, nodes.size());
+    }
+
+    /**
+     * 测试同一轮中互不依赖的子树并发落地，跨调用的父子关系仍然正确
+     */
+    @Test
+    void testIndependentSubtreesMaterializeConcurrently() {
+        register("ctx", true, true);
+        List<ToolExecutionRequest> turn = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            turn.add(createNodes(node("子" + i, i + "-1", String.valueOf(i)), node("孙" + i, i + "-1-1", i + "-1")));
+            turn.add(createNodes(node("根" + i, String.valueOf(i), null)));
+        }
+
+        long start = System.nanoTime();
+        service.executeToolCalls(AiMessage.from(turn), "ctx");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(24, nodes.size());
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(idOf("根" + i), nodes.get(idOf("子" + i)).getParentId());
+            assertEquals(idOf("子" + i), nodes.get(idOf("孙" + i)).getParentId());
+        }
+        assertTrue(batchTool.drainUnresolved().isEmpty());
+        // 串行需要 24 * NODE_MS
+        assertTrue(elapsedMs < 24 * NODE_MS, "elapsed " + elapsedMs + " ms");
+    }
+
+    /**
+     * 测试不支持并发的工具保持原顺序，结果按请求顺序返回
+     */
+    @Test
+    void testUnsafeToolsKeepOrder() {
+        List<String> executed = new ArrayList<>();
+        registry.registerToolForContext("ctx", lookupTool("lookup_a", false, executed));
+        registry.registerToolForContext("ctx", lookupTool("lookup_b", false, executed));
+
+        List<ChatMessage> results = service.executeToolCalls(AiMessage.from(List.of(
+                request("lookup_b", "{}"), request("lookup_a", "{}"), request("lookup_b", "{}"))), "ctx");
+
+        assertEquals(List.of("lookup_b", "lookup_a", "lookup_b"), executed);
+        assertEquals(List.of("lookup_b", "lookup_a", "lookup_b"),
+                results.stream().map(r -> ((ToolExecutionResultMessage) r).toolName()).toList());
+    }
+
+    /**
+     * 测试执行计划：临时ID依赖、屏障与成环退化
+     */
+    @Test
+    void testPlan() {
+        List<ToolExecutionRequest> requests = List.of(
+                createNodes(node("a", "2", "1")), createNodes(node("b", "1", null)), createNodes(node("c", "3", null)));
+        ToolCallPlan plan = ToolCallPlan.build(requests, r -> true, objectMapper);
+        assertEquals(java.util.Set.of(1), plan.dependenciesOf(0));
+        assertTrue(plan.dependenciesOf(2).isEmpty());
+        assertTrue(plan.hasParallelism());
+
+        ToolCallPlan barrier = ToolCallPlan.build(requests, r -> false, objectMapper);
+        assertFalse(barrier.hasParallelism());
+
+        ToolCallPlan cycle = ToolCallPlan.build(List.of(
+                createNodes(node("a", "1", "2")), createNodes(node("b", "2", "1"))), r -> true, objectMapper);
+        assertEquals(List.of(0, 1), cycle.order());
+        assertFalse(cycle.hasParallelism());
+    }
+
+    /**
+     * 模拟一次设定生成：旧流程（逐个串行执行、父子跨调用失败后由模型重试一轮）与按依赖并发 + 暂存落地的端到端耗时对比
+     */
+    @Test
+    void benchmarkScriptedGeneration() {
+        long sequentialStart = System.nanoTime();
+        int sequentialRounds = runScript("generation-sequential", false);
+        long sequentialMs = (System.nanoTime() - sequentialStart) / 1_000_000;
+        int sequentialNodes = nodes.size();
+
+        nodes.clear();
+        long parallelStart = System.nanoTime();
+        int parallelRounds = runScript("generation-parallel", true);
+        long parallelMs = (System.nanoTime() - parallelStart) / 1_000_000;
+
+        assertEquals(sequentialNodes, nodes.size());
+        assertTrue(parallelRounds < sequentialRounds);
+        assertTrue(parallelMs < sequentialMs);
+        System.out.printf("串行执行: %d 轮 %d ms; 并发执行: %d 轮 %d ms; 端到端耗时减少 %.0f%%%n",
+                sequentialRounds, sequentialMs, parallelRounds, parallelMs,
+                100.0 * (sequentialMs - parallelMs) / sequentialMs);
+    }
+
+    /**
+     * 按脚本驱动工具循环：每轮先模拟模型延迟，再执行工具；有创建失败时模拟模型重发失败的调用
+     * @return 模型调用轮数
+     */
+    private int runScript(String contextId, boolean parallel) {
+        register(contextId, parallel, parallel);
+        List<String> executed = new ArrayList<>();
+        registry.registerToolForContext(contextId, lookupTool("lookup_world", parallel, executed));
+        registry.registerToolForContext(contextId, lookupTool("lookup_style", parallel, executed));
+
+        Deque<List<ToolExecutionRequest>> turns = new ArrayDeque<>();
+        turns.add(List.of(
+                request("lookup_world", "{}"),
+                request("lookup_style", "{}"),
+                createNodes(node("城门", "1-1", "1"), node("集市", "1-2", "1"), node("守卫", "1-1-1", "1-1")),
+                createNodes(node("青阳镇", "1", null), node("林家", "2", null))));
+        turns.add(List.of(
+                createNodes(node("剑诀", "3-1", "3"), node("剑意", "3-1-1", "3-1")),
+                createNodes(node("功法体系", "3", null)),
+                createNodes(node("林家家主", "2-1", "2"))));
+
+        int rounds = 0;
+        while (!turns.isEmpty()) {
+            List<ToolExecutionRequest> turn = turns.poll();
+            sleep(MODEL_LATENCY_MS);
+            rounds++;
+            List<ChatMessage> results = service.executeToolCalls(AiMessage.from(turn), contextId);
+            List<ToolExecutionRequest> retry = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                if (text(results.get(i)).contains("errorCount")) {
+                    retry.add(turn.get(i));
+                }
+            }
+            if (!retry.isEmpty()) {
+                turns.addFirst(retry);
+            }
+        }
+        sleep(MODEL_LATENCY_MS);
+        return rounds + 1;
+    }
+
+    private void register(String contextId, boolean concurrencySafe, boolean parkUnknownParents) {
+        CreateSettingNodeTool.SettingNodeHandler handler = node -> {
+            sleep(NODE_MS);
+            if (node.getParentId() != null && !nodes.containsKey(node.getParentId())) {
+                return false;
+            }
+            nodes.put(node.getId(), node);
+            return true;
+        };
+        Map<String, String> tempIdMap = new ConcurrentHashMap<>();
+        batchTool = parkUnknownParents
+                ? new BatchCreateNodesTool(handler, tempIdMap, nodes::containsKey)
+                : new BatchCreateNodesTool(handler, tempIdMap);
+        registry.registerToolForContext(contextId, concurrencySafe ? batchTool : sequential(batchTool));
+    }
+
+    private ToolDefinition lookupTool(String name, boolean concurrencySafe, List<String> executed) {
+        return new ToolDefinition() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return name;
+            }
+
+            @Override
+            public ToolSpecification getSpecification() {
+                return ToolSpecification.builder().name(name).build();
+            }
+
+            @Override
+            public Object execute(Map<String, Object> parameters) {
+                synchronized (executed) {
+                    executed.add(name);
+                }
+                sleep(LOOKUP_MS);
+                return Map.of("success", true);
+            }
+
+            @Override
+            public boolean isConcurrencySafe() {
+                return concurrencySafe;
+            }
+        };
+    }
+
+    /**
+     * 包装为不支持并发的工具，模拟旧的逐个串行执行
+     */
+    private static ToolDefinition sequential(ToolDefinition delegate) {
+        return new ToolDefinition() {
+            @Override
+            public String getName() {
+                return delegate.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return delegate.getDescription();
+            }
+
+            @Override
+            public ToolSpecification getSpecification() {
+                return delegate.getSpecification();
+            }
+
+            @Override
+            public Object execute(Map<String, Object> parameters) {
+                return delegate.execute(parameters);
+            }
+        };
+    }
+
+    private ToolExecutionRequest createNodes(String... nodeJson) {
+        return request("create_setting_nodes", "{\"nodes\":[" + String.join(",", nodeJson) + "]}");
+    }
+
+    private ToolExecutionRequest request(String name, String arguments) {
+        return ToolExecutionRequest.builder()
+                .id("call-" + callIds.incrementAndGet())
+                .name(name)
+                .arguments(arguments)
+                .build();
+    }
+
+    private static String node(String name, String tempId, String parentId) {
+        return String.format("{\"name\":\"%s\",\"type\":\"LOCATION\",\"description\":\"%s的描述\",\"tempId\":\"%s\"%s}",
+                name, name, tempId, parentId != null ? ",\"parentId\":\"" + parentId + "\"" : "");
+    }
+
+    private String idOf(String name) {
+        return nodes.values().stream().filter(n -> name.equals(n.getName())).findFirst().orElseThrow().getId();
+    }
+
+    private static String text(ChatMessage message) {
+        return ((ToolExecutionResultMessage) message).text();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ainovel.server.service.ai.transport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.config.AIHttpTransportProperties;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * AIHttpTransport 单元测试
+ * 使用本地HTTP服务验证共享客户端的按主机指标、连接超时与连接预热
+ */
+class AIHttpTransportTest {
+
+    private HttpServer server;
+    private String host;
+    private SimpleMeterRegistry registry;
+    private AIHttpTransportProperties properties;
+    private AIHttpTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            boolean head = "HEAD".equals(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(200, head ? -1 : body.length);
+            if (!head) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        host = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        registry = new SimpleMeterRegistry();
+        properties = new AIHttpTransportProperties();
+        properties.setHttp2(false);
+        transport = new AIHttpTransport(properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.close();
+        server.stop(0);
+    }
+
+    /**
+     * 测试业务请求按主机记录首字节耗时、状态码，并在完成后归还活跃计数
+     */
+    @Test
+    void testRecordsPerHostMetrics() throws Exception {
+        properties.setMetricHosts(List.of(host));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(host + "/v1/chat/completions")).build();
+
+        transport.jdkClient().send(request, HttpResponse.BodyHandlers.ofString());
+        transport.jdkClient().sendAsync(request, HttpResponse.BodyHandlers.ofString()).get();
+
+        assertEquals(2, registry.get("ai.http.client.ttfb").tag("host", host).timer().count());
+        assertEquals(2, registry.get("ai.http.client.requests").tags("host", host, "status", "200").counter().count());
+        assertEquals(0, registry.get("ai.http.client.requests.active").tag("host", host).gauge().value());
+        assertEquals(Set.of(host), transport.warmupTargets());
+    }
+
+    /**
+     * 测试未知主机（如用户自定义端点）的指标归入 other，最近访问记录仍保留真实主机
+     */
+    @Test
+    void testUnknownHostsShareOneTag() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(host + "/v1/models")).build();
+
+        transport.jdkClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(1, registry.get("ai.http.client.requests").tags("host", HostMetrics.OTHER_HOST, "status", "200").counter().count());
+        assertNull(registry.find("ai.http.client.requests").tag("host", host).counter());
+        assertEquals(Set.of(host), transport.lastUsed().keySet());
+    }
+
+    /**
+     * 测试模型指定的连接超时生效，无法在共享客户端上生效的设置直接拒绝
+     */
+    @Test
+    void testSharedClientBuilderHonorsConnectTimeout() {
+        Duration timeout = Duration.ofSeconds(300);
+
+        java.net.http.HttpClient client = new AIHttpTransport.SharedClientBuilder(transport).connectTimeout(timeout).build();
+
+        assertEquals(Optional.of(timeout), client.connectTimeout());
+        assertSame(client, new AIHttpTransport.SharedClientBuilder(transport).connectTimeout(timeout).build());
+        assertSame(transport.jdkClient(), new AIHttpTransport.SharedClientBuilder(transport).build());
+        assertThrows(UnsupportedOperationException.class,
+                () -> new AIHttpTransport.SharedClientBuilder(transport).proxy(ProxySelector.of(new InetSocketAddress("127.0.0.1", 8080))));
+    }
+
+    /**
+     * 测试预热配置的主机，且预热请求不计入业务指标、不刷新最近访问时间
+     */
+    @Test
+    void testWarmupConfiguredHosts() throws Exception {
+        properties.setWarmupHosts(List.of(host + "/api/v1", "::无效::"));
+        properties.setWarmupRecentHosts(false);
+
+        assertEquals(Set.of(host), transport.warmupTargets());
+        transport.warmUp(host).get();
+
+        assertEquals(1, registry.get("ai.http.client.warmup").tags("host", host, "outcome", "success").timer().count());
+        assertNull(registry.find("ai.http.client.ttfb").timer());
+        assertTrue(transport.lastUsed().isEmpty());
+    }
+}
@@ -0,0 +1,471 @@
+package com.ainovel.server.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ainovel.server.config.WritingAnalyticsProperties;
+import com.ainovel.server.domain.model.analytics.WritingDailyBucket;
+import com.ainovel.server.domain.model.analytics.WritingEvent;
+import com.ainovel.server.repository.WritingEventRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 写作统计测试：事件缓冲批量写入、日桶增量汇总、失败重试与基于日桶的查询
+ * 数据库为模拟的 ReactiveMongoTemplate，在内存中维护原始事件与日桶
+ */
+class WritingAnalyticsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    private final Map<String, WritingDailyBucket> buckets = new ConcurrentHashMap<>();
+    private final List<WritingEvent> rawEvents = new ArrayList<>();
+    private final AtomicInteger inserts = new AtomicInteger();
+    private final AtomicInteger bulkWrites = new AtomicInteger();
+    private final AtomicInteger insertFailures = new AtomicInteger();
+    private final AtomicInteger bucketFailures = new AtomicInteger();
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private WritingEventRepository repository;
+    private WritingAnalyticsProperties properties;
+    private WritingAnalyticsService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        repository = mock(WritingEventRepository.class);
+        properties = new WritingAnalyticsProperties();
+        properties.setBatchSize(100);
+
+        when(mongoTemplate.insert(anyCollection(), eq(WritingEvent.class))).thenAnswer(inv -> {
+            List<WritingEvent> events = new ArrayList<>(inv.<Collection<WritingEvent>>getArgument(0));
+            inserts.incrementAndGet();
+            // 有序插入：遇到重复ID或模拟故障时，之前的事件已经写入
+            int failAt = insertFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0 ? events.size() / 2 : events.size();
+            synchronized (rawEvents) {
+                for (int i = 0; i < failAt; i++) {
+                    WritingEvent event = events.get(i);
+                    if (rawEvents.stream().anyMatch(e -> e.getId().equals(event.getId()))) {
+                        return Flux.error(new DuplicateKeyException("重复的事件ID: " + event.getId()));
+                    }
+                    rawEvents.add(event);
+                }
+            }
+            return failAt < events.size()
+                    ? Flux.error(new DataAccessResourceFailureException("写入超时"))
+                    : Flux.fromIterable(events);
+        });
+        when(mongoTemplate.find(any(Query.class), eq(WritingEvent.class))).thenAnswer(inv -> {
+            Query query = inv.getArgument(0);
+            synchronized (rawEvents) {
+                return Flux.fromIterable(rawEvents.stream()
+                        .filter(e -> matches(query.getQueryObject(), e))
+                        .limit(query.getLimit() > 0 ? query.getLimit() : Long.MAX_VALUE)
+                        .toList());
+            }
+        });
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(WritingEvent.class))).thenAnswer(inv -> {
+            Query query = inv.getArgument(0);
+            UpdateDefinition update = inv.getArgument(1);
+            long count;
+            synchronized (rawEvents) {
+                List<WritingEvent> matched = rawEvents.stream().filter(e -> matches(query.getQueryObject(), e)).toList();
+                matched.forEach(e -> applyEventUpdate(e, update));
+                count = matched.size();
+            }
+            return Mono.just(UpdateResult.acknowledged(count, count, null));
+        });
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WritingDailyBucket.class)).thenAnswer(inv -> {
+            ReactiveBulkOperations bulk = mock(ReactiveBulkOperations.class);
+            when(bulk.upsert(any(Query.class), any(UpdateDefinition.class))).thenAnswer(call -> {
+                applyUpsert(call.getArgument(0, Query.class), call.getArgument(1, Update.class));
+                return bulk;
+            });
+            when(bulk.execute()).thenAnswer(call -> {
+                if (bucketFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    return Mono.error(new DataAccessResourceFailureException("日桶写入超时"));
+                }
+                bulkWrites.incrementAndGet();
+                return Mono.just(mock(BulkWriteResult.class));
+            });
+            return bulk;
+        });
+        when(mongoTemplate.find(any(Query.class), eq(WritingDailyBucket.class)))
+                .thenAnswer(inv -> Flux.fromIterable(matching(inv.getArgument(0, Query.class))));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("day"), eq(WritingDailyBucket.class), eq(String.class)))
+                .thenAnswer(inv -> Flux.fromIterable(matching(inv.getArgument(0, Query.class)))
+                        .map(WritingDailyBucket::getDay)
+                        .distinct());
+
+        service = new WritingAnalyticsService(repository, mongoTemplate, properties);
+    }
+
+    /**
+     * 测试事件在缓冲中合并，按批插入并以每个日桶一次 upsert 汇总
+     */
+    @Test
+    void testBufferedIngestion() {
+        for (int i = 0; i < 250; i++) {
+            record("u-1", i % 2 == 0 ? "n-1" : "n-2", TODAY, i % 5 == 0 ? -10 : 20, i % 4 == 0 ? "AI" : "MANUAL");
+        }
+        service.flush().block();
+
+        assertEquals(0, service.getBufferedCount());
+        assertEquals(250, rawEvents.size());
+        assertTrue(inserts.get() <= 3);
+        assertTrue(rawEvents.stream().allMatch(e -> e.getExpiresAt().equals(e.getTimestamp().plusDays(90))));
+        assertTrue(rawEvents.stream().allMatch(e -> e.getClaimToken() == null));
+
+        WritingDailyBucket n1 = buckets.get("u-1:" + TODAY + ":n-1");
+        assertEquals(125, n1.getEventCount());
+        long expectedNet = rawEvents.stream().filter(e -> "n-1".equals(e.getNovelId())).mapToLong(WritingEvent::getDeltaWords).sum();
+        assertEquals(expectedNet, n1.getNetWords());
+        assertEquals(n1.getAddedWords() - n1.getRemovedWords(), n1.getNetWords());
+        assertEquals(n1.getNetWords(), n1.getWordsBySource().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * 测试每日字数与来源统计只读日桶
+     */
+    @Test
+    void testDailyAndSourceReadBuckets() {
+        record("u-1", "n-1", TODAY.minusDays(1), 300, "MANUAL");
+        record("u-1", "n-1", TODAY, 100, "AI");
+        record("u-1", "n-2", TODAY, -40, "MANUAL");
+        record("u-2", "n-3", TODAY, 999, "MANUAL");
+        service.flush().block();
+
+        Map<String, Object> daily = service.aggregateUserDaily("u-1", TODAY.minusDays(7), TODAY, null, null, null).block();
+        assertEquals(Map.of(TODAY.minusDays(1).toString(), 300L, TODAY.toString(), 60L), daily.get("dailyWords"));
+        assertEquals(360L, daily.get("totalWords"));
+
+        Map<String, Object> novel = service.aggregateUserDaily("u-1", TODAY.minusDays(7), TODAY, "n-2", null, null).block();
+        assertEquals(-40L, novel.get("totalWords"));
+
+        Map<String, Object> sources = service.aggregateBySource("u-1", TODAY.minusDays(7), TODAY, null, null, null).block();
+        assertEquals(Map.of("MANUAL", 260L, "AI", 100L), sources.get("wordsBySource"));
+
+        verifyNoInteractions(repository);
+    }
+
+    /**
+     * 测试写作天数与连续天数基于日桶日期
+     */
+    @Test
+    void testWritingDays() {
+        for (int d : new int[] {0, 1, 2, 5, 6}) {
+            record("u-1", "n-1", TODAY.minusDays(d), 10, "MANUAL");
+            record("u-1", "n-2", TODAY.minusDays(d), 10, "MANUAL");
+        }
+        service.flush().block();
+
+        assertEquals(5L, service.countUniqueWritingDays("u-1").block());
+        assertEquals(3L, service.calculateConsecutiveWritingDays("u-1").block());
+        assertEquals(0L, service.calculateConsecutiveWritingDays("u-2").block());
+    }
+
+    /**
+     * 测试按场景细分的查询读取保留期内的原始事件
+     */
+    @Test
+    void testSceneFilterReadsRawEvents() {
+        WritingEvent event = event("u-1", "n-1", TODAY, 50, "MANUAL");
+        event.setSceneId("s-1");
+        when(repository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(eq("u-1"), any(), any(), any(Pageable.class)))
+                .thenReturn(Flux.just(event, event("u-1", "n-1", TODAY, 70, "MANUAL")));
+
+        Map<String, Object> daily = service.aggregateUserDaily("u-1", TODAY, TODAY, null, null, "s-1").block();
+
+        assertEquals(50, daily.get("totalWords"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(WritingDailyBucket.class));
+    }
+
+    /**
+     * 测试历史事件按范围认领后汇总到日桶，日桶写入后才设置过期时间；
+     * 其他节点刚认领的事件不被抢占，认领超时的事件被重新认领
+     */
+    @Test
+    void testRollUpPendingEvents() {
+        for (int i = 0; i < 7; i++) {
+            WritingEvent legacy = event("u-1", "n-1", TODAY.minusDays(i % 2), 10, "MANUAL");
+            legacy.setId("legacy-" + i);
+            rawEvents.add(legacy);
+        }
+        WritingEvent claimedElsewhere = event("u-1", "n-1", TODAY, 10, "MANUAL");
+        claimedElsewhere.setId("claimed");
+        claimedElsewhere.setClaimToken("other-node");
+        claimedElsewhere.setClaimedAt(LocalDateTime.now());
+        WritingEvent stale = event("u-1", "n-1", TODAY, 10, "MANUAL");
+        stale.setId("stale");
+        stale.setClaimToken("crashed-node");
+        stale.setClaimedAt(LocalDateTime.now().minusHours(1));
+        rawEvents.add(claimedElsewhere);
+        rawEvents.add(stale);
+        properties.setBatchSize(3);
+
+        assertEquals(8L, service.rollUpPendingEvents().block());
+
+        assertEquals(5, buckets.get("u-1:" + TODAY + ":n-1").getEventCount());
+        assertEquals(30, buckets.get("u-1:" + TODAY.minusDays(1) + ":n-1").getNetWords());
+        assertEquals(3, bulkWrites.get());
+        assertNull(claimedElsewhere.getExpiresAt());
+        assertEquals("other-node", claimedElsewhere.getClaimToken());
+        assertTrue(rawEvents.stream().filter(e -> e != claimedElsewhere)
+                .allMatch(e -> e.getExpiresAt() != null && e.getClaimToken() == null));
+        assertEquals(0L, service.rollUpPendingEvents().block());
+    }
+
+    /**
+     * 测试插入中途失败后重试只插入缺失的事件，不重复写入也不丢失
+     */
+    @Test
+    void testPartialInsertIsRetried() {
+        insertFailures.set(1);
+        for (int i = 0; i < 10; i++) {
+            record("u-1", "n-1", TODAY, 10, "MANUAL");
+        }
+        service.flush().block();
+
+        assertEquals(0, service.getBufferedCount());
+        assertEquals(10, rawEvents.size());
+        assertEquals(10, rawEvents.stream().map(WritingEvent::getId).distinct().count());
+        assertEquals(100, buckets.get("u-1:" + TODAY + ":n-1").getNetWords());
+        assertTrue(rawEvents.stream().allMatch(e -> e.getExpiresAt() != null && e.getClaimToken() == null));
+    }
+
+    /**
+     * 测试重试仍失败的批次重新入队，在下一次刷新中写入
+     */
+    @Test
+    void testFailedInsertIsRequeued() {
+        insertFailures.set(4);
+        for (int i = 0; i < 10; i++) {
+            record("u-1", "n-1", TODAY, 10, "MANUAL");
+        }
+        service.flush().block();
+
+        assertEquals(10, service.getBufferedCount());
+        assertTrue(buckets.isEmpty());
+
+        service.flush().block();
+
+        assertEquals(0, service.getBufferedCount());
+        assertEquals(10, rawEvents.size());
+        assertEquals(10, buckets.get("u-1:" + TODAY + ":n-1").getEventCount());
+    }
+
+    /**
+     * 测试日桶写入失败的事件保持待汇总状态，认领超时后重新汇总
+     */
+    @Test
+    void testFailedBucketWriteIsRolledUpLater() {
+        bucketFailures.set(1);
+        for (int i = 0; i < 3; i++) {
+            record("u-1", "n-1", TODAY, 10, "MANUAL");
+        }
+        service.flush().block();
+
+        assertEquals(3, rawEvents.size());
+        assertTrue(buckets.isEmpty());
+        assertTrue(rawEvents.stream().allMatch(e -> e.getExpiresAt() == null && e.getClaimToken() != null));
+        assertEquals(0L, service.rollUpPendingEvents().block(), "认领未超时的事件不应被重新认领");
+
+        rawEvents.forEach(e -> e.setClaimedAt(e.getClaimedAt().minus(properties.getClaimTimeout()).minusSeconds(1)));
+        assertEquals(3L, service.rollUpPendingEvents().block());
+        assertEquals(30, buckets.get("u-1:" + TODAY + ":n-1").getNetWords());
+        assertTrue(rawEvents.stream().allMatch(e -> e.getExpiresAt() != null && e.getClaimToken() == null));
+    }
+
+    /**
+     * 测试缓冲已满时新事件由记录方直接写入，不丢弃
+     */
+    @Test
+    void testOverflowIsWrittenDirectly() {
+        properties.setMaxBufferedEvents(2);
+        for (int i = 0; i < 5; i++) {
+            record("u-1", "n-1", TODAY, 10, "MANUAL");
+        }
+
+        assertEquals(2, service.getBufferedCount());
+        assertEquals(3, rawEvents.size());
+
+        service.flush().block();
+        assertEquals(5, rawEvents.size());
+        assertEquals(50, buckets.get("u-1:" + TODAY + ":n-1").getNetWords());
+    }
+
+    /**
+     * 测试关闭时写入缓冲中的全部事件
+     */
+    @Test
+    void testFlushOnShutdown() {
+        for (int i = 0; i < 20; i++) {
+            record("u-1", "n-1", TODAY, 10, "MANUAL");
+        }
+
+        service.flushOnShutdown();
+
+        assertEquals(0, service.getBufferedCount());
+        assertEquals(20, rawEvents.size());
+        assertEquals(20, buckets.get("u-1:" + TODAY + ":n-1").getEventCount());
+    }
+
+    private void record(String userId, String novelId, LocalDate day, int delta, String source) {
+        service.recordEvent(event(userId, novelId, day, delta, source)).block();
+    }
+
+    private static WritingEvent event(String userId, String novelId, LocalDate day, int delta, String source) {
+        return WritingEvent.builder()
+                .userId(userId)
+                .novelId(novelId)
+                .deltaWords(delta)
+                .source(source)
+                .timestamp(day.atTime(10, 0))
+                .build();
+    }
+
+    /**
+     * 模拟日桶 upsert：$setOnInsert / $inc / $set
+     */
+    private void applyUpsert(Query query, Update update) {
+        String bucketId = String.valueOf(query.getQueryObject().get("id"));
+        Document doc = update.getUpdateObject();
+        WritingDailyBucket bucket = buckets.computeIfAbsent(bucketId, id -> {
+            Document onInsert = doc.get("$setOnInsert", Document.class);
+            return WritingDailyBucket.builder()
+                    .id(id)
+                    .userId(onInsert.getString("userId"))
+                    .day(onInsert.getString("day"))
+                    .novelId(onInsert.getString("novelId"))
+                    .build();
+        });
+        Document inc = doc.get("$inc", Document.class);
+        synchronized (bucket) {
+            bucket.setNetWords(bucket.getNetWords() + inc.getLong("netWords"));
+            bucket.setAddedWords(bucket.getAddedWords() + inc.getLong("addedWords"));
+            bucket.setRemovedWords(bucket.getRemovedWords() + inc.getLong("removedWords"));
+            bucket.setEventCount(bucket.getEventCount() + inc.getLong("eventCount"));
+            inc.forEach((key, value) -> {
+                if (key.startsWith("wordsBySource.")) {
+                    bucket.getWordsBySource().merge(key.substring("wordsBySource.".length()), (Long) value, Long::sum);
+                }
+            });
+            bucket.setUpdatedAt(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 模拟原始事件的更新：认领标记的 $set / $unset，以及按事件时间计算过期时间的聚合更新
+     */
+    private void applyEventUpdate(WritingEvent event, UpdateDefinition update) {
+        if (update instanceof AggregationUpdate) {
+            event.setExpiresAt(event.getTimestamp().plus(properties.getEventRetention()));
+            event.setClaimToken(null);
+            event.setClaimedAt(null);
+            return;
+        }
+        Document doc = update.getUpdateObject();
+        Document set = doc.get("$set", Document.class);
+        if (set != null) {
+            if (set.containsKey("expiresAt")) {
+                event.setExpiresAt((LocalDateTime) set.get("expiresAt"));
+            }
+            if (set.containsKey("claimToken")) {
+                event.setClaimToken(set.getString("claimToken"));
+            }
+            if (set.containsKey("claimedAt")) {
+                event.setClaimedAt((LocalDateTime) set.get("claimedAt"));
+            }
+        }
+        Document unset = doc.get("$unset", Document.class);
+        if (unset != null) {
+            if (unset.containsKey("claimToken")) {
+                event.setClaimToken(null);
+            }
+            if (unset.containsKey("claimedAt")) {
+                event.setClaimedAt(null);
+            }
+        }
+    }
+
+    /**
+     * 按查询条件匹配原始事件：支持 $and / $or 与 $exists / $in / $lt
+     */
+    private static boolean matches(Document query, WritingEvent event) {
+        return query.entrySet().stream().allMatch(entry -> switch (entry.getKey()) {
+            case "$and" -> ((List<?>) entry.getValue()).stream().allMatch(c -> matches((Document) c, event));
+            case "$or" -> ((List<?>) entry.getValue()).stream().anyMatch(c -> matches((Document) c, event));
+            default -> matchesField(field(event, entry.getKey()), entry.getValue());
+        });
+    }
+
+    private static Object field(WritingEvent event, String name) {
+        return switch (name) {
+            case "id" -> event.getId();
+            case "expiresAt" -> event.getExpiresAt();
+            case "claimToken" -> event.getClaimToken();
+            case "claimedAt" -> event.getClaimedAt();
+            default -> throw new IllegalArgumentException("未模拟的字段: " + name);
+        };
+    }
+
+    private static boolean matchesField(Object actual, Object condition) {
+        if (!(condition instanceof Document op)) {
+            return condition.equals(actual);
+        }
+        if (op.containsKey("$exists")) {
+            return (actual != null) == op.getBoolean("$exists");
+        }
+        if (op.containsKey("$in")) {
+            return ((Collection<?>) op.get("$in")).contains(actual);
+        }
+        if (op.containsKey("$lt")) {
+            return actual != null && ((LocalDateTime) actual).isBefore((LocalDateTime) op.get("$lt"));
+        }
+        throw new IllegalArgumentException("未模拟的条件: " + op);
+    }
+
+    /**
+     * 按查询条件中的 userId / day 范围 / novelId 过滤内存日桶
+     */
+    private List<WritingDailyBucket> matching(Query query) {
+        Document criteria = query.getQueryObject();
+        Document day = criteria.get("day", Document.class);
+        return buckets.values().stream()
+                .filter(b -> b.getUserId().equals(criteria.getString("userId")))
+                .filter(b -> !criteria.containsKey("novelId") || criteria.getString("novelId").equals(b.getNovelId()))
+                .filter(b -> day == null || (b.getDay().compareTo(day.getString("$gte")) >= 0
+                        && b.getDay().compareTo(day.getString("$lte")) <= 0))
+                .toList();
+    }
+}
@@ -0,0 +1,247 @@
+package com.ainovel.server.service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.ainovel.server.config.ChapterPrefetchProperties;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Novel.Act;
+import com.ainovel.server.domain.model.Novel.Chapter;
+import com.ainovel.server.domain.model.Novel.Structure;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.repository.SceneRepository;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.UserPromptService;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 章节预取与章节场景缓存测试
+ * 场景仓库为内存模拟，每次按章节查询固定延迟
+ * 顺序阅读基准对比无预取与有预取时的章节切换延迟
+ */
+class ChapterPrefetcherTest {
+
+    private static final Duration QUERY_LATENCY = Duration.ofMillis(8);
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private SceneRepository sceneRepository;
+    private ChapterPrefetchProperties properties;
+    private ChapterSceneCache cache;
+    private ChapterPrefetcher prefetcher;
+    private Novel novel;
+
+    @BeforeEach
+    void setUp() {
+        sceneRepository = mock(SceneRepository.class);
+        when(sceneRepository.findByChapterId(anyString())).thenAnswer(inv -> {
+            String chapterId = inv.getArgument(0, String.class);
+            return Flux.defer(() -> {
+                queries.incrementAndGet();
+                return Flux.just(scene(chapterId, 0), scene(chapterId, 1));
+            }).delaySubscription(QUERY_LATENCY);
+        });
+        properties = new ChapterPrefetchProperties();
+        novel = buildNovel(40);
+        rebuild();
+    }
+
+    /**
+     * 测试预测顺序：当前章节、沿方向由近及远，反方向按配置数量
+     */
+    @Test
+    void testPredict() {
+        assertEquals(List.of(5, 6, 4, 7, 8), prefetcher.predict(5, true, 40));
+        assertEquals(List.of(5, 4, 6, 3, 2), prefetcher.predict(5, false, 40));
+        assertEquals(List.of(0, 1, 2, 3), prefetcher.predict(0, true, 4));
+    }
+
+    /**
+     * 测试导航后预取的章节直接命中缓存，并保持浏览方向
+     */
+    @Test
+    void testNavigationWarmsCache() throws Exception {
+        prefetcher.onNavigate(novel, "c-10");
+        awaitCached("u-1", "c-13");
+        assertTrue(cache.contains("u-1", "c-9"));
+        assertFalse(cache.contains("u-1", "c-14"));
+
+        int before = queries.get();
+        List<Scene> scenes = prefetcher.plainTextScenes(novel, "c-12").block();
+        assertEquals(2, scenes.size());
+        assertTrue(scenes.get(0).getContent().startsWith("第c-12章第0段"));
+        assertEquals(before, queries.get());
+        assertEquals(1.0, cache.hitRatio());
+
+        // 往回翻：反方向成为预取方向
+        prefetcher.onNavigate(novel, "c-5");
+        awaitCached("u-1", "c-2");
+        assertTrue(cache.contains("u-1", "c-6"));
+    }
+
+    /**
+     * 测试返回副本：调用方修改内容不影响缓存，两种形式互不干扰
+     */
+    @Test
+    void testReturnsCopies() {
+        List<Scene> plain = prefetcher.plainTextScenes(novel, "c-1").block();
+        plain.get(0).setContent("被修改");
+        List<Scene> raw = prefetcher.scenes(novel, "c-1").block();
+        assertTrue(raw.get(0).getContent().startsWith("{\"ops\""));
+        assertTrue(prefetcher.plainTextScenes(novel, "c-1").block().get(0).getContent().startsWith("第c-1章第0段"));
+        assertEquals(1, queries.get());
+
+        List<Scene> copies = prefetcher.scenes(novel, "c-1").block();
+        copies.get(0).getCharacterIds().add("角色");
+        copies.get(0).getHistory().add(Scene.HistoryEntry.builder().content("旧内容").build());
+        Scene cached = prefetcher.scenes(novel, "c-1").block().get(0);
+        assertTrue(cached.getCharacterIds().isEmpty());
+        assertTrue(cached.getHistory().isEmpty());
+    }
+
+    /**
+     * 测试场景保存/删除事件使缓存失效，包括场景移出原章节
+     */
+    @Test
+    void testInvalidationOnSceneWrites() {
+        SceneCacheInvalidator invalidator = new SceneCacheInvalidator(cache);
+        prefetcher.scenes(novel, "c-1").block();
+        prefetcher.scenes(novel, "c-2").block();
+
+        Scene moved = scene("c-2", 0);
+        moved.setId("c-1-s-0");
+        invalidator.onAfterSave(new AfterSaveEvent<>(moved, new Document(), "scenes"));
+        assertFalse(cache.contains("u-1", "c-1"));
+        assertFalse(cache.contains("u-1", "c-2"));
+
+        prefetcher.scenes(novel, "c-3").block();
+        invalidator.onAfterDelete(new AfterDeleteEvent<>(new Document("chapterId", "c-3"), Scene.class, "scenes"));
+        assertFalse(cache.contains("u-1", "c-3"));
+    }
+
+    /**
+     * 测试摘要的条件写入不触发映射事件，写入成功后由写入方直接失效缓存
+     */
+    @Test
+    void testSummarySaveEvictsChapter() {
+        ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+        when(template.updateFirst(any(Query.class), any(Update.class), eq(Scene.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        SceneSummaryCache summaryCache = new SceneSummaryCache(mock(UserAIModelConfigService.class),
+                mock(UserPromptService.class), template, cache);
+        prefetcher.scenes(novel, "c-1").block();
+
+        assertTrue(summaryCache.saveSummary(scene("c-1", 0), 0, "摘要", null).block());
+        assertFalse(cache.contains("u-1", "c-1"));
+    }
+
+    /**
+     * 顺序阅读 30 章（每次切换章节后加载当前及后两章）：无预取与有预取的章节切换延迟对比
+     */
+    @Test
+    void benchmarkSequentialReading() throws Exception {
+        properties.setEnabled(false);
+        rebuild();
+        long[] cold = read(30);
+        int coldQueries = queries.getAndSet(0);
+
+        properties.setEnabled(true);
+        rebuild();
+        long[] warm = read(30);
+        double hitRatio = cache.hitRatio();
+
+        assertTrue(hitRatio > 0.8, "命中率 " + hitRatio);
+        assertTrue(percentileMillis(warm, 0.95) < percentileMillis(cold, 0.95));
+        System.out.printf("无预取: 章节切换 平均 %.2f ms, p95 %.2f ms (%d 次查询); "
+                        + "预取: 章节切换 平均 %.2f ms, p95 %.2f ms, 命中率 %.0f%% (%d 次查询)%n",
+                averageMillis(cold), percentileMillis(cold, 0.95), coldQueries,
+                averageMillis(warm), percentileMillis(warm, 0.95), hitRatio * 100, queries.get());
+    }
+
+    /**
+     * 模拟顺序阅读，返回每次切换到新章节时取得当前章节内容的耗时（纳秒）
+     */
+    private long[] read(int chapters) throws InterruptedException {
+        long[] switches = new long[chapters];
+        for (int i = 0; i < chapters; i++) {
+            prefetcher.onNavigate(novel, "c-" + i);
+            long start = System.nanoTime();
+            prefetcher.plainTextScenes(novel, "c-" + i).block();
+            switches[i] = System.nanoTime() - start;
+            // 用户阅读/编辑当前章节的时间
+            Thread.sleep(20);
+            for (int j = i + 1; j < Math.min(i + 3, 40); j++) {
+                prefetcher.plainTextScenes(novel, "c-" + j).block();
+            }
+        }
+        return switches;
+    }
+
+    private static double averageMillis(long[] nanos) {
+        return Arrays.stream(nanos).average().orElse(0) / 1_000_000.0;
+    }
+
+    private static double percentileMillis(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private void rebuild() {
+        cache = new ChapterSceneCache(properties, new SimpleMeterRegistry());
+        prefetcher = new ChapterPrefetcher(sceneRepository, new NovelOrderIndexCache(), cache, properties);
+    }
+
+    private void awaitCached(String userId, String chapterId) throws InterruptedException {
+        for (int i = 0; i < 200 && !cache.contains(userId, chapterId); i++) {
+            Thread.sleep(5);
+        }
+        assertTrue(cache.contains(userId, chapterId));
+        // 等待加载完成
+        prefetcher.scenes(novel, chapterId).block();
+    }
+
+    private static Scene scene(String chapterId, int index) {
+        return Scene.builder()
+                .id(chapterId + "-s-" + index)
+                .novelId("novel-1")
+                .chapterId(chapterId)
+                .content("{\"ops\":[{\"insert\":\"第" + chapterId + "章第" + index + "段\\n\"}]}")
+                .build();
+    }
+
+    private static Novel buildNovel(int chapterCount) {
+        List<Chapter> chapters = new ArrayList<>();
+        for (int c = 0; c < chapterCount; c++) {
+            chapters.add(Chapter.builder().id("c-" + c).order(c).sceneIds(List.of("c-" + c + "-s-0", "c-" + c + "-s-1")).build());
+        }
+        Act act = Act.builder().id("a-0").order(0).chapters(chapters).build();
+        return Novel.builder()
+                .id("novel-1")
+                .author(Novel.Author.builder().id("u-1").build())
+                .structure(Structure.builder().acts(List.of(act)).build())
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.ainovel.server.service.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Novel.Act;
+import com.ainovel.server.domain.model.Novel.Chapter;
+import com.ainovel.server.domain.model.Novel.Structure;
+
+/**
+ * NovelOrderIndex 与 NovelOrderIndexCache 单元测试与5000章基准
+ */
+class NovelOrderIndexTest {
+
+    /**
+     * 测试结构顺序、卷区间与场景偏移
+     */
+    @Test
+    void testStructureOrderAndOffsets() {
+        Novel novel = buildNovel(3, 4, 2);
+        NovelOrderIndex index = NovelOrderIndex.build(novel);
+
+        assertEquals(12, index.size());
+        assertEquals(24, index.totalSceneCount());
+        assertEquals(0, index.indexOf("c-0-0"));
+        assertEquals(5, index.indexOf("c-1-1"));
+        assertEquals(-1, index.indexOf("missing"));
+        assertEquals(10, index.sceneOffset(5));
+        assertArrayEquals(new int[] {4, 8}, index.actRange("a-1"));
+        assertNull(index.actRange("missing"));
+        assertEquals(List.of("c-1-3", "c-2-0"), index.slice(7, 9));
+        assertEquals(List.of("c-0-3", "c-1-0", "c-1-1"),
+                index.chapters(novel, 3, 6).stream().map(Chapter::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * 测试全局序号与旧实现（卷/章节 order 稳定排序）一致
+     */
+    @Test
+    void testOrdinalsMatchLegacySort() {
+        Novel novel = buildNovel(3, 3, 1);
+        // 打乱 order：第二卷排到最前，第一卷内章节倒序
+        novel.getStructure().getActs().get(1).setOrder(-1);
+        List<Chapter> firstActChapters = novel.getStructure().getActs().get(0).getChapters();
+        for (int i = 0; i < firstActChapters.size(); i++) {
+            firstActChapters.get(i).setOrder(firstActChapters.size() - i);
+        }
+
+        NovelOrderIndex index = NovelOrderIndex.build(novel);
+        assertEquals(legacyOrderedChapterIds(novel), index.chapterIdsInOrdinalOrder());
+        assertEquals(0, index.ordinalOf("c-1-0"));
+        assertEquals(Integer.MAX_VALUE, index.ordinalOf("missing"));
+    }
+
+    /**
+     * 测试缓存以 updatedAt 为版本：版本不变时直接复用，版本变化后重建
+     */
+    @Test
+    void testCacheKeyedOnUpdatedAt() {
+        NovelOrderIndexCache cache = new NovelOrderIndexCache();
+        Novel novel = buildNovel(2, 2, 1);
+        novel.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+        NovelOrderIndex first = cache.get(novel);
+        assertSame(first, cache.get(novel));
+
+        novel.getStructure().getActs().get(1).getChapters().add(Chapter.builder().id("new").build());
+        novel.setUpdatedAt(novel.getUpdatedAt().plusSeconds(1));
+        NovelOrderIndex second = cache.get(novel);
+        assertNotSame(first, second);
+        assertEquals(4, second.indexOf("new"));
+    }
+
+    /**
+     * 测试没有 updatedAt 时退回到结构指纹比较
+     */
+    @Test
+    void testCacheFallsBackToFingerprint() {
+        NovelOrderIndexCache cache = new NovelOrderIndexCache();
+        Novel novel = buildNovel(2, 2, 1);
+        NovelOrderIndex first = cache.get(novel);
+        assertSame(first, cache.get(novel));
+
+        novel.getStructure().getActs().get(1).getChapters().add(Chapter.builder().id("new").build());
+        assertNotSame(first, cache.get(novel));
+    }
+
+    /**
+     * 测试 updatedAt 未刷新的结构写入（只更新场景列表）仍会重建索引
+     */
+    @Test
+    void testCacheDetectsStructureWriteWithoutUpdatedAt() {
+        NovelOrderIndexCache cache = new NovelOrderIndexCache();
+        Novel novel = buildNovel(2, 2, 1);
+        novel.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+        NovelOrderIndex first = cache.get(novel);
+        assertEquals(4, first.totalSceneCount());
+
+        novel.getStructure().getActs().get(0).getChapters().get(1).setSceneIds(List.of("x", "y", "z"));
+        NovelOrderIndex second = cache.get(novel);
+        assertNotSame(first, second);
+        assertEquals(6, second.totalSceneCount());
+        assertSame(second, cache.get(novel));
+    }
+
+    /**
+     * 5000章基准：旧实现每次排序并建表，与缓存索引（含 updatedAt + 指纹校验）的单次查找耗时对比
+     */
+    @Test
+    void benchmarkFiveThousandChapters() {
+        Novel novel = buildNovel(50, 100, 3);
+        novel.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+        NovelOrderIndexCache cache = new NovelOrderIndexCache();
+        int iterations = 2000;
+        String target = "c-42-17";
+
+        // 预热
+        for (int i = 0; i < 200; i++) {
+            legacyOrderedChapterIds(novel).indexOf(target);
+            cache.get(novel).indexOf(target);
+        }
+
+        long legacyStart = System.nanoTime();
+        int legacySink = 0;
+        for (int i = 0; i < iterations; i++) {
+            List<String> ordered = legacyOrderedChapterIds(novel);
+            Map<String, Integer> chapterOrderIndex = new HashMap<>();
+            for (int j = 0; j < ordered.size(); j++) {
+                chapterOrderIndex.put(ordered.get(j), j);
+            }
+            legacySink += chapterOrderIndex.get(target);
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+
+        long indexStart = System.nanoTime();
+        int indexSink = 0;
+        for (int i = 0; i < iterations; i++) {
+            NovelOrderIndex index = cache.get(novel);
+            indexSink += index.ordinalOf(target);
+            indexSink += index.slice(index.indexOf(target), index.indexOf(target) + 10).size() - 10;
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        assertEquals(legacySink, indexSink);
+        System.out.printf("5000章: 旧实现 %.1f µs/次, 顺序索引 %.1f µs/次%n",
+                legacyNanos / 1000.0 / iterations, indexNanos / 1000.0 / iterations);
+    }
+
+    private static List<String> legacyOrderedChapterIds(Novel novel) {
+        List<String> ordered = new ArrayList<>();
+        List<Act> sortedActs = novel.getStructure().getActs().stream()
+                .sorted((a, b) -> Integer.compare(a.getOrder(), b.getOrder()))
+                .collect(Collectors.toList());
+        for (Act act : sortedActs) {
+            act.getChapters().stream()
+                    .sorted((a, b) -> Integer.compare(a.getOrder(), b.getOrder()))
+                    .forEach(chapter -> ordered.add(chapter.getId()));
+        }
+        return ordered;
+    }
+
+    private static Novel buildNovel(int acts, int chaptersPerAct, int scenesPerChapter) {
+        List<Act> actList = new ArrayList<>();
+        for (int a = 0; a < acts; a++) {
+            List<Chapter> chapters = new ArrayList<>();
+            for (int c = 0; c < chaptersPerAct; c++) {
+                List<String> sceneIds = new ArrayList<>();
+                for (int s = 0; s < scenesPerChapter; s++) {
+                    sceneIds.add("s-" + a + "-" + c + "-" + s);
+                }
+                chapters.add(Chapter.builder().id("c-" + a + "-" + c).order(c).sceneIds(sceneIds).build());
+            }
+            actList.add(Act.builder().id("a-" + a).order(a).chapters(chapters).build());
+        }
+        return Novel.builder().id("novel-1").structure(Structure.builder().acts(actList).build()).build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ainovel.server.controller.AdminDashboardController.DashboardStats;
+import com.ainovel.server.domain.model.AdminDashboardSnapshot;
+import com.ainovel.server.repository.AIChatMessageRepository;
+import com.ainovel.server.repository.NovelRepository;
+import com.ainovel.server.repository.UserLoginLogRepository;
+import com.ainovel.server.repository.UserRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 管理员仪表板快照测试：读取只访问快照，后台按指标分组刷新并记录每个指标的刷新时间
+ */
+class AdminDashboardSnapshotTest {
+
+    private static final List<String> FAST_METRICS = List.of(
+            "totalUsers", "totalNovels", "aiRequestsToday", "newUsersToday", "loginsToday", "recentActivities");
+
+    private final AtomicReference<AdminDashboardSnapshot> stored = new AtomicReference<>();
+    private final AtomicInteger snapshotWrites = new AtomicInteger();
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private UserRepository userRepository;
+    private NovelRepository novelRepository;
+    private AdminDashboardServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        userRepository = mock(UserRepository.class);
+        novelRepository = mock(NovelRepository.class);
+        AIChatMessageRepository chatRepository = mock(AIChatMessageRepository.class);
+        UserLoginLogRepository loginLogRepository = mock(UserLoginLogRepository.class);
+
+        when(userRepository.count()).thenReturn(Mono.just(42L));
+        when(novelRepository.count()).thenReturn(Mono.just(7L));
+        when(userRepository.countByCreatedAtBetween(any(), any())).thenReturn(Mono.just(3L));
+        when(chatRepository.countByCreatedAtBetween(any(), any())).thenReturn(Mono.just(11L));
+        when(loginLogRepository.findByLoginTimeBetween(any(), any())).thenReturn(Flux.empty());
+
+        when(mongoTemplate.findById(AdminDashboardSnapshot.GLOBAL_ID, AdminDashboardSnapshot.class))
+                .thenAnswer(inv -> Mono.justOrEmpty(stored.get()));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(AdminDashboardSnapshot.class))).thenAnswer(inv -> {
+                    applySet(inv.getArgument(1, Update.class).getUpdateObject().get("$set", Document.class));
+                    snapshotWrites.incrementAndGet();
+                    return Mono.just(stored.get());
+                });
+
+        service = new AdminDashboardServiceImpl(userRepository, novelRepository, chatRepository, loginLogRepository);
+        ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    }
+
+    /**
+     * 测试快照完整时读取不访问业务集合，并带上各指标刷新时间
+     */
+    @Test
+    void testReadsSnapshotOnly() {
+        LocalDateTime refreshedAt = LocalDateTime.now().minusMinutes(3);
+        DashboardStats stats = new DashboardStats();
+        stats.setTotalUsers(100);
+        Map<String, LocalDateTime> updatedAt = new HashMap<>();
+        for (String metric : allMetrics()) {
+            updatedAt.put(metric, refreshedAt);
+        }
+        stored.set(AdminDashboardSnapshot.builder().id(AdminDashboardSnapshot.GLOBAL_ID)
+                .stats(stats).metricUpdatedAt(updatedAt).build());
+
+        DashboardStats result = service.getDashboardStats().block();
+
+        assertEquals(100, result.getTotalUsers());
+        assertEquals(refreshedAt, result.getMetricUpdatedAt().get("totalUsers"));
+        verifyNoInteractions(userRepository, novelRepository);
+        assertEquals(0, snapshotWrites.get());
+    }
+
+    /**
+     * 测试没有快照时先同步刷新一次；计算失败的指标不写入
+     */
+    @Test
+    void testColdStartRefreshes() {
+        DashboardStats result = service.getDashboardStats().block();
+
+        assertEquals(42, result.getTotalUsers());
+        assertEquals(7, result.getTotalNovels());
+        assertEquals(11, result.getAiRequestsToday());
+        assertEquals(1, snapshotWrites.get());
+        assertNotNull(result.getMetricUpdatedAt().get("totalNovels"));
+    }
+
+    /**
+     * 测试部分指标缺失的快照直接返回已有指标，不触发同步刷新
+     */
+    @Test
+    void testPartialSnapshotIsServed() {
+        DashboardStats stats = new DashboardStats();
+        stats.setTotalUsers(100);
+        Map<String, LocalDateTime> updatedAt = new HashMap<>();
+        updatedAt.put("totalUsers", LocalDateTime.now().minusMinutes(3));
+        stored.set(AdminDashboardSnapshot.builder().id(AdminDashboardSnapshot.GLOBAL_ID)
+                .stats(stats).metricUpdatedAt(updatedAt).build());
+
+        DashboardStats result = service.getDashboardStats().block();
+
+        assertEquals(100, result.getTotalUsers());
+        assertNull(result.getMetricUpdatedAt().get("activeUsers"));
+        verifyNoInteractions(userRepository, novelRepository);
+        assertEquals(0, snapshotWrites.get());
+    }
+
+    /**
+     * 测试首次启动时并发请求共享同一次刷新
+     */
+    @Test
+    void testConcurrentColdStartRefreshesOnce() {
+        when(userRepository.count()).thenReturn(Mono.just(42L).delayElement(Duration.ofMillis(100)));
+
+        List<DashboardStats> results = Flux.range(0, 5)
+                .flatMap(i -> service.getDashboardStats())
+                .collectList()
+                .block();
+
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(stats -> stats.getTotalUsers() == 42));
+        assertEquals(1, snapshotWrites.get());
+        verify(userRepository, times(1)).count();
+
+        stored.set(null);
+        service.getDashboardStats().block();
+        assertEquals(2, snapshotWrites.get(), "刷新结束后应清除，下一次冷启动重新刷新");
+    }
+
+    /**
+     * 测试定时刷新只计算本组中已到期的指标，其他节点刚刷新过的跳过
+     */
+    @Test
+    void testRefreshOnlyDueMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, LocalDateTime> updatedAt = new HashMap<>();
+        FAST_METRICS.forEach(metric -> updatedAt.put(metric, now.minusSeconds(5)));
+        updatedAt.put("totalUsers", now.minusMinutes(5));
+        stored.set(AdminDashboardSnapshot.builder().id(AdminDashboardSnapshot.GLOBAL_ID)
+                .stats(new DashboardStats()).metricUpdatedAt(updatedAt).build());
+
+        service.refreshDueMetrics(true, Duration.ofMinutes(1)).block();
+
+        assertEquals(1, snapshotWrites.get());
+        assertEquals(42, stored.get().getStats().getTotalUsers());
+        assertEquals(0, stored.get().getStats().getTotalNovels());
+        verify(novelRepository, never()).count();
+
+        service.refreshDueMetrics(true, Duration.ofMinutes(1)).block();
+        assertEquals(1, snapshotWrites.get());
+    }
+
+    /**
+     * 模拟 $set stats.x / metricUpdatedAt.x
+     */
+    @SuppressWarnings("unchecked")
+    private void applySet(Document set) {
+        AdminDashboardSnapshot snapshot = stored.get() != null ? stored.get()
+                : AdminDashboardSnapshot.builder().id(AdminDashboardSnapshot.GLOBAL_ID).stats(new DashboardStats()).build();
+        set.forEach((key, value) -> {
+            if (key.startsWith("stats.")) {
+                ReflectionTestUtils.setField(snapshot.getStats(), key.substring("stats.".length()), value);
+            } else if (key.startsWith("metricUpdatedAt.")) {
+                snapshot.getMetricUpdatedAt().put(key.substring("metricUpdatedAt.".length()), (LocalDateTime) value);
+            } else if (key.equals("refreshedAt")) {
+                snapshot.setRefreshedAt((LocalDateTime) value);
+            }
+        });
+        stored.set(snapshot);
+    }
+
+    private static List<String> allMetrics() {
+        return List.of("totalUsers", "totalNovels", "aiRequestsToday", "newUsersToday", "loginsToday",
+                "recentActivities", "activeUsers", "creditsConsumed", "userGrowthData", "requestsData",
+                "dailyLoginData", "dailyRegistrationData", "userNovelStats");
+    }
+}
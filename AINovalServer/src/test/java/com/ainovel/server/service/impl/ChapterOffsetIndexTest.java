@@ -0,0 +1,95 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ainovel.server.common.util.TextFileCharsetUtil;
+import com.ainovel.server.domain.dto.ParsedSceneData;
+
+/**
+ * 章节偏移索引单元测试
+ * 验证按索引切片读取的章节与整体解析结果完全一致
+ */
+class ChapterOffsetIndexTest {
+
+    private static final String[] LINES = {
+            "第一章 开始", "第2章 继续", "正文 第三章", "Chapter 12 End", "序章",
+            "这是一段很长的正文内容，包含标点。还有更多文字在这里出现，超过二十个字符。",
+            "短句", "", "   ", "广告：访问站点", "  缩进的正文  ", "第十章", "（一）小标题", "尾声"
+    };
+
+    private static final Predicate<String> KEEP_LINE =
+            line -> !line.trim().isEmpty() && !line.contains("广告") && !line.contains("站点");
+
+    private final TxtNovelParser parser = new TxtNovelParser();
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 测试随机文本（混合换行符、UTF-8/GBK）下索引读取与 parseStream 输出一致
+     */
+    @Test
+    void testIndexedChaptersMatchFullParse() throws Exception {
+        Random random = new Random(42);
+        String[] newlines = {"\n", "\r\n", "\r"};
+        for (int round = 0; round < 50; round++) {
+            StringBuilder text = new StringBuilder();
+            int lineCount = 20 + random.nextInt(300);
+            for (int i = 0; i < lineCount; i++) {
+                text.append(LINES[random.nextInt(LINES.length)]).append(newlines[random.nextInt(newlines.length)]);
+            }
+            Charset charset = random.nextBoolean() ? StandardCharsets.UTF_8 : Charset.forName("GBK");
+            Path file = tempDir.resolve("novel-" + round + ".txt");
+            Files.write(file, text.toString().getBytes(charset));
+
+            for (Predicate<String> filter : List.of(KEEP_LINE, line -> true)) {
+                List<ParsedSceneData> expected;
+                try (Stream<String> lines = TextFileCharsetUtil.lines(file, charset).filter(filter)) {
+                    expected = parser.parseStream(lines).getScenes();
+                }
+
+                ChapterOffsetIndex built = parser.buildIndex(file, charset, filter);
+                Path sidecar = ChapterOffsetIndex.sidecarOf(file);
+                built.write(sidecar);
+                ChapterOffsetIndex index = ChapterOffsetIndex.read(sidecar);
+
+                assertNotNull(index);
+                assertTrue(index.matches(file));
+                assertEquals(expected.size(), index.size());
+                for (int i = 0; i < index.size(); i++) {
+                    ParsedSceneData chapter = parser.readChapter(file, index, i, filter);
+                    assertEquals(expected.get(i).getSceneTitle(), chapter.getSceneTitle());
+                    assertEquals(expected.get(i).getSceneContent(), chapter.getSceneContent());
+                    assertEquals(expected.get(i).getOrder(), chapter.getOrder());
+                    assertEquals(expected.get(i).getSceneContent().length(), index.get(i).charCount());
+                }
+            }
+        }
+    }
+
+    /**
+     * 测试文件被修改后索引失效
+     */
+    @Test
+    void testIndexDetectsModifiedFile() throws Exception {
+        Path file = tempDir.resolve("novel.txt");
+        Files.writeString(file, "第一章 开始\n正文\n第二章 继续\n正文\n");
+        ChapterOffsetIndex index = parser.buildIndex(file, StandardCharsets.UTF_8, KEEP_LINE);
+        assertEquals(2, index.size());
+
+        Files.writeString(file, "第一章 开始\n更多正文\n");
+        assertFalse(index.matches(file));
+    }
+}
@@ -0,0 +1,143 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.ainovel.server.domain.model.AIChatMessage;
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.domain.model.ChatSessionSummary;
+import com.ainovel.server.domain.model.UserAIModelConfig;
+import com.ainovel.server.repository.ChatSessionSummaryRepository;
+import com.ainovel.server.service.AIService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * ChatSessionSummarizer 单元测试
+ * 验证只折叠上次总结之后新移出窗口的消息
+ */
+class ChatSessionSummarizerTest {
+
+    private ChatSessionSummaryRepository repository;
+    private AIService aiService;
+    private ChatSessionSummarizer summarizer;
+    private final LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ChatSessionSummaryRepository.class);
+        aiService = mock(AIService.class);
+        UserAIModelConfigService configService = mock(UserAIModelConfigService.class);
+        summarizer = new ChatSessionSummarizer(repository, aiService, configService, new TokenCounter());
+
+        UserAIModelConfig config = new UserAIModelConfig();
+        config.setId("cfg1");
+        config.setModelName("gpt-4o-mini");
+        when(configService.getValidatedToolDefaultConfiguration("u1")).thenReturn(Mono.just(config));
+        when(configService.getDecryptedApiKey("u1", "cfg1")).thenReturn(Mono.just("sk-test-key-0000"));
+        when(repository.findById(anyString())).thenReturn(Mono.empty());
+        when(repository.save(any(ChatSessionSummary.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(aiService.generateContent(any(AIRequest.class), anyString(), any())).thenAnswer(inv -> {
+            AIResponse response = new AIResponse();
+            response.setContent("新的总结");
+            return Mono.just(response);
+        });
+    }
+
+    /**
+     * 测试已折叠的消息不会再次进入待折叠列表
+     */
+    @Test
+    void testPendingMessagesSkipCoveredPrefix() {
+        List<AIChatMessage> evicted = messages(10);
+        ChatSessionSummary summary = ChatSessionSummary.builder().coveredUntil(base.plusSeconds(5)).build();
+
+        List<AIChatMessage> pending = ChatSessionSummarizer.pendingMessages(summary, evicted);
+
+        assertEquals(4, pending.size());
+        assertEquals("消息6", pending.get(0).getContent());
+        assertEquals(10, ChatSessionSummarizer.pendingMessages(null, evicted).size());
+    }
+
+    /**
+     * 测试折叠请求只包含旧总结与新增消息，并推进覆盖位置
+     */
+    @Test
+    void testFoldSendsOnlyNewMessages() {
+        ChatSessionSummary current = ChatSessionSummary.builder().id("s1").content("旧总结")
+                .coveredUntil(base.plusSeconds(5)).coveredMessageCount(6).build();
+        List<AIChatMessage> pending = ChatSessionSummarizer.pendingMessages(current, messages(10));
+
+        ChatSessionSummary updated = summarizer.fold("s1", "u1", current, pending).block();
+
+        ArgumentCaptor<AIRequest> captor = ArgumentCaptor.forClass(AIRequest.class);
+        verify(aiService).generateContent(captor.capture(), eq("sk-test-key-0000"), any());
+        String input = captor.getValue().getMessages().get(1).getContent();
+        assertTrue(input.contains("旧总结"));
+        assertTrue(input.contains("消息9"));
+        assertFalse(input.contains("消息5"));
+
+        assertNotNull(updated);
+        assertEquals("新的总结", updated.getContent());
+        assertEquals(10, updated.getCoveredMessageCount());
+        assertEquals(base.plusSeconds(9), updated.getCoveredUntil());
+        assertEquals("新的总结", summarizer.getSummary("s1").block().getContent());
+    }
+
+    /**
+     * 测试折叠期间会话被清除时，写入的总结被撤销且不进入缓存
+     */
+    @Test
+    void testClearDuringFoldDiscardsResult() {
+        when(repository.deleteById(anyString())).thenReturn(Mono.empty());
+        when(aiService.generateContent(any(AIRequest.class), anyString(), any())).thenAnswer(inv -> {
+            summarizer.clear("s1").block();
+            AIResponse response = new AIResponse();
+            response.setContent("新的总结");
+            return Mono.just(response);
+        });
+
+        ChatSessionSummary updated = summarizer.fold("s1", "u1", null, messages(4)).block();
+
+        assertNull(updated);
+        verify(repository, times(2)).deleteById("s1");
+        assertNull(summarizer.getSummary("s1").block());
+    }
+
+    /**
+     * 测试待折叠消息不足一批时不触发模型调用
+     */
+    @Test
+    void testSmallBacklogDoesNotTriggerFold() {
+        ChatSessionSummary current = ChatSessionSummary.builder().id("s1").content("旧总结")
+                .coveredUntil(base.plusSeconds(7)).coveredMessageCount(8).build();
+        List<AIChatMessage> pending = ChatSessionSummarizer.pendingMessages(current, messages(10));
+
+        summarizer.foldInBackground("s1", "u1", current, pending);
+
+        assertEquals(2, pending.size());
+        verifyNoInteractions(aiService);
+    }
+
+    private List<AIChatMessage> messages(int count) {
+        List<AIChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(AIChatMessage.builder().id("m" + i).sessionId("s1").userId("u1")
+                    .role(i % 2 == 0 ? "user" : "assistant").content("消息" + i)
+                    .createdAt(base.plusSeconds(i)).build());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,299 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.AIChatMessage;
+import com.ainovel.server.repository.AIChatMessageRepository;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * MongoChatMemoryStore 单元测试
+ * 使用内存列表模拟仓库，验证只追加新增消息、窗口命中不回查数据库
+ */
+class MongoChatMemoryStoreTest {
+
+    private AIChatMessageRepository repository;
+    private List<AIChatMessage> stored;
+    private List<Integer> insertBatchSizes;
+    private MongoChatMemoryStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(AIChatMessageRepository.class);
+        stored = new CopyOnWriteArrayList<>();
+        insertBatchSizes = new CopyOnWriteArrayList<>();
+        store = new MongoChatMemoryStore(repository);
+
+        when(repository.findBySessionIdOrderByCreatedAtDesc(anyString(), anyInt())).thenAnswer(inv -> {
+            String sessionId = inv.getArgument(0);
+            int limit = inv.getArgument(1);
+            return Flux.fromIterable(stored)
+                    .filter(m -> sessionId.equals(m.getSessionId()))
+                    .sort(Comparator.comparing(AIChatMessage::getCreatedAt).reversed())
+                    .take(limit);
+        });
+        when(repository.insert(anyList())).thenAnswer(inv -> {
+            List<AIChatMessage> batch = new ArrayList<>((List<AIChatMessage>) inv.getArgument(0));
+            insertBatchSizes.add(batch.size());
+            stored.addAll(batch);
+            return Flux.fromIterable(batch);
+        });
+        when(repository.insert(any(AIChatMessage.class))).thenAnswer(inv -> {
+            AIChatMessage message = inv.getArgument(0);
+            message.setId("m" + stored.size());
+            stored.add(message);
+            return Mono.just(message);
+        });
+        when(repository.save(any(AIChatMessage.class))).thenAnswer(inv -> {
+            AIChatMessage message = inv.getArgument(0);
+            stored.removeIf(m -> message.getId().equals(m.getId()));
+            stored.add(message);
+            return Mono.just(message);
+        });
+        when(repository.deleteBySessionId(anyString())).thenAnswer(inv -> {
+            String sessionId = inv.getArgument(0);
+            stored.removeIf(m -> sessionId.equals(m.getSessionId()));
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * 测试每轮只插入新增消息，系统消息不重复写入
+     */
+    @Test
+    void testUpdateMessagesAppendsOnlyNewMessages() {
+        store.updateMessages("s1", List.of(SystemMessage.from("你是写作助手"), UserMessage.from("你好")));
+        store.updateMessages("s1", List.of(SystemMessage.from("你是写作助手"), UserMessage.from("你好"), AiMessage.from("你好，有什么可以帮你？")));
+
+        assertEquals(List.of(2, 1), insertBatchSizes);
+        assertEquals(3, stored.size());
+
+        List<ChatMessage> messages = store.getMessages("s1");
+        assertEquals(3, messages.size());
+        assertInstanceOf(AiMessage.class, messages.get(2));
+        verify(repository, times(1)).findBySessionIdOrderByCreatedAtDesc(eq("s1"), anyInt());
+    }
+
+    /**
+     * 测试窗口滑动（旧消息被LangChain4j淘汰）时仍能对齐，只追加最后一条
+     */
+    @Test
+    void testDiffAlignsWithSlidingWindow() {
+        List<AIChatMessage> known = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.now();
+        for (int i = 0; i < 6; i++) {
+            known.add(AIChatMessage.builder().sessionId("s1").role(i % 2 == 0 ? "user" : "assistant")
+                    .content("消息" + i).createdAt(base.plusSeconds(i)).build());
+        }
+        List<ChatMessage> incoming = List.of(UserMessage.from("消息4"), AiMessage.from("消息5"), UserMessage.from("消息6"));
+
+        List<AIChatMessage> additions = store.diff("s1", known, incoming);
+
+        assertEquals(1, additions.size());
+        assertEquals("消息6", additions.get(0).getContent());
+        assertNotNull(additions.get(0).getId());
+    }
+
+    /**
+     * 测试响应式追加与读取共用窗口，清空后窗口同步清空
+     */
+    @Test
+    void testReactiveAppendAndClear() {
+        AIChatMessage message = AIChatMessage.builder().sessionId("s2").role("user").content("继续")
+                .createdAt(LocalDateTime.now()).build();
+        store.recentMessages("s2", 10).collectList().block();
+
+        AIChatMessage saved = store.append(message).block();
+        store.append(saved).block();
+
+        assertEquals(1, stored.size(), "已写入窗口的消息不应重复写库");
+        assertEquals(1, store.recentMessages("s2", 10).collectList().block().size());
+
+        store.clear("s2").block();
+        assertTrue(store.recentMessages("s2", 10).collectList().block().isEmpty());
+        verify(repository, times(1)).findBySessionIdOrderByCreatedAtDesc(eq("s2"), anyInt());
+    }
+
+    /**
+     * 测试写入窗口后又被修改的消息按ID覆盖保存，窗口同步替换
+     */
+    @Test
+    void testAppendSavesEditedMessage() {
+        store.recentMessages("s5", 10).collectList().block();
+        AIChatMessage saved = store.append(AIChatMessage.builder().sessionId("s5").role("assistant").content("草稿")
+                .status("STREAMING").createdAt(LocalDateTime.now()).build()).block();
+
+        saved.setContent("完整回答");
+        saved.setStatus("DELIVERED");
+        store.append(saved).block();
+        AIChatMessage edited = AIChatMessage.builder().id(saved.getId()).sessionId("s5").role("assistant")
+                .content("修订后的回答").status("DELIVERED").createdAt(saved.getCreatedAt()).build();
+        store.append(edited).block();
+        store.append(edited).block();
+
+        verify(repository, times(2)).save(any(AIChatMessage.class));
+        assertEquals(1, stored.size());
+        assertEquals("修订后的回答", stored.get(0).getContent());
+        List<AIChatMessage> window = store.recentMessages("s5", 10).collectList().block();
+        assertEquals(1, window.size());
+        assertEquals("修订后的回答", window.get(0).getContent());
+    }
+
+    /**
+     * 测试同步删除接口立即清空窗口，数据库删除异步完成
+     */
+    @Test
+    void testDeleteMessagesClearsWindow() {
+        store.updateMessages("s6", List.of(UserMessage.from("你好"), AiMessage.from("在的")));
+
+        store.deleteMessages("s6");
+
+        assertTrue(store.getMessages("s6").isEmpty());
+        assertTrue(stored.isEmpty());
+        verify(repository, times(1)).deleteBySessionId("s6");
+    }
+
+    /**
+     * 测试非阻塞线程上不等待冷加载，预加载后同步读取不再访问数据库
+     */
+    @Test
+    void testColdLoadOnNonBlockingThreadRequiresPreload() {
+        stored.add(AIChatMessage.builder().id("h1").sessionId("s7").role("user").content("历史")
+                .createdAt(LocalDateTime.now()).build());
+        when(repository.findBySessionIdOrderByCreatedAtDesc(eq("cold"), anyInt()))
+                .thenReturn(Flux.<AIChatMessage>empty().delaySubscription(Duration.ofMillis(200)));
+
+        assertThrows(IllegalStateException.class, () -> Mono.fromCallable(() -> store.getMessages("cold"))
+                .subscribeOn(Schedulers.parallel())
+                .block());
+
+        store.preload("s7").block();
+        List<ChatMessage> messages = Mono.fromCallable(() -> store.getMessages("s7"))
+                .subscribeOn(Schedulers.parallel())
+                .block();
+        assertEquals(1, messages.size());
+        verify(repository, times(1)).findBySessionIdOrderByCreatedAtDesc(eq("s7"), anyInt());
+    }
+
+    /**
+     * 测试未订阅的 clear 不清空窗口、不删除消息
+     */
+    @Test
+    void testClearIsLazy() {
+        store.updateMessages("s3", List.of(UserMessage.from("你好")));
+
+        Mono<Void> unsubscribed = store.clear("s3");
+        store.updateMessages("s3", List.of(UserMessage.from("你好"), AiMessage.from("在的")));
+
+        assertNotNull(unsubscribed);
+        assertEquals(2, stored.size());
+        assertEquals(2, store.getMessages("s3").size());
+        verify(repository, never()).deleteBySessionId(anyString());
+    }
+
+    /**
+     * 测试同步接口写入不阻塞调用方，写入失败时丢弃窗口，下次读取从数据库重建
+     */
+    @Test
+    void testUpdateMessagesFailureDropsWindow() {
+        store.getMessages("s4");
+        when(repository.insert(anyList())).thenReturn(Flux.error(new IllegalStateException("写入失败")));
+
+        assertDoesNotThrow(() -> store.updateMessages("s4", List.of(UserMessage.from("你好"))));
+        assertTrue(stored.isEmpty());
+        assertTrue(store.getMessages("s4").isEmpty());
+        verify(repository, times(2)).findBySessionIdOrderByCreatedAtDesc(eq("s4"), anyInt());
+    }
+
+    /**
+     * 测试长会话中 LangChain4j 滑动窗口记忆每轮只插入新增的一条，且不回查数据库
+     */
+    @Test
+    void testLongSessionAppendsOneMessagePerTurn() {
+        String sessionId = "long";
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 1000; i++) {
+            stored.add(AIChatMessage.builder().id(sessionId + "-" + i).sessionId(sessionId)
+                    .role(i % 2 == 0 ? "user" : "assistant").content("历史消息" + i)
+                    .createdAt(base.plusSeconds(i)).build());
+        }
+        ChatMemory memory = MessageWindowChatMemory.builder()
+                .id(sessionId)
+                .maxMessages(20)
+                .chatMemoryStore(store)
+                .build();
+
+        int turns = 50;
+        for (int turn = 0; turn < turns; turn++) {
+            memory.add(UserMessage.from("第" + turn + "轮提问"));
+            assertFalse(memory.messages().isEmpty());
+            memory.add(AiMessage.from("第" + turn + "轮回答"));
+        }
+
+        assertEquals(turns * 2, insertBatchSizes.size());
+        assertTrue(insertBatchSizes.stream().allMatch(size -> size == 1), "每次只应插入一条新消息");
+        assertEquals(1000 + turns * 2, stored.size());
+        verify(repository, times(1)).findBySessionIdOrderByCreatedAtDesc(eq(sessionId), anyInt());
+    }
+
+    /**
+     * 轮次延迟基准：不同会话长度下，一轮 LangChain4j 对话（用户消息 + 读取记忆 + AI回复）的耗时
+     * 旧实现每轮删除并逐条重写整个会话，耗时与会话长度成正比；新实现只追加新增消息且不阻塞调用方
+     */
+    @Test
+    void benchmarkTurnLatencyVersusSessionLength() {
+        int turns = 200;
+        for (int sessionLength : new int[] {10, 100, 1000}) {
+            String sessionId = "bench-" + sessionLength;
+            LocalDateTime base = LocalDateTime.now().minusDays(1);
+            for (int i = 0; i < sessionLength; i++) {
+                stored.add(AIChatMessage.builder().id(sessionId + "-" + i).sessionId(sessionId)
+                        .role(i % 2 == 0 ? "user" : "assistant").content("历史消息" + i)
+                        .createdAt(base.plusSeconds(i)).build());
+            }
+            insertBatchSizes.clear();
+            ChatMemory memory = MessageWindowChatMemory.builder()
+                    .id(sessionId)
+                    .maxMessages(20)
+                    .chatMemoryStore(store)
+                    .build();
+            // 冷加载会话窗口
+            store.preload(sessionId).block();
+
+            long start = System.nanoTime();
+            for (int turn = 0; turn < turns; turn++) {
+                memory.add(UserMessage.from("第" + turn + "轮提问"));
+                assertFalse(memory.messages().isEmpty());
+                memory.add(AiMessage.from("第" + turn + "轮回答"));
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertTrue(insertBatchSizes.stream().allMatch(size -> size == 1), "每次只应插入一条新消息");
+            assertEquals(turns * 2, insertBatchSizes.size());
+            System.out.printf("会话长度 %d: %.1f µs/轮, 每轮写入 %d 条%n",
+                    sessionLength, elapsed / 1e3 / turns, 2);
+        }
+    }
+}
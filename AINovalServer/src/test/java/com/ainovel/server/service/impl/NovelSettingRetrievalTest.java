@@ -0,0 +1,350 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.ainovel.server.domain.model.NovelSettingItem;
+import com.ainovel.server.repository.NovelSettingItemRepository;
+import com.ainovel.server.repository.SettingGroupRepository;
+import com.ainovel.server.service.EmbeddingService;
+import com.ainovel.server.service.cache.NovelSettingCache;
+import com.ainovel.server.service.setting.mention.SettingMentionIndex;
+import com.ainovel.server.service.vectorstore.SearchResult;
+import com.ainovel.server.service.vectorstore.VectorStore;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 设定检索流水线单元测试与 1k/10k 设定规模的延迟基准
+ * 使用内存数据模拟 Mongo（每次往返固定延迟），验证批量回填、缓存命中与写入失效
+ */
+class NovelSettingRetrievalTest {
+
+    private static final String NOVEL_ID = "novel-1";
+    private static final Duration ROUND_TRIP = Duration.ofMillis(1);
+
+    private final Map<String, NovelSettingItem> settings = new HashMap<>();
+    private final Map<String, List<SearchResult>> hitsByQuery = new HashMap<>();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+
+    private NovelSettingItemRepository settingItemRepository;
+    private ReactiveMongoTemplate mongoTemplate;
+    private VectorStore vectorStore;
+    private SettingMentionIndex mentionIndex;
+    private NovelSettingServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        settingItemRepository = mock(NovelSettingItemRepository.class);
+        SettingGroupRepository settingGroupRepository = mock(SettingGroupRepository.class);
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(settingItemRepository.findById(anyString())).thenAnswer(inv -> {
+            roundTrips.incrementAndGet();
+            return Mono.justOrEmpty(settings.get(inv.getArgument(0, String.class))).delayElement(ROUND_TRIP);
+        });
+        when(mongoTemplate.find(any(Query.class), eq(NovelSettingItem.class))).thenAnswer(inv -> {
+            roundTrips.incrementAndGet();
+            Document idFilter = (Document) inv.getArgument(0, Query.class).getQueryObject().get("_id");
+            Collection<String> ids = (Collection<String>) idFilter.get("$in");
+            return Flux.fromIterable(ids).mapNotNull(settings::get).delaySubscription(ROUND_TRIP);
+        });
+
+        vectorStore = mockVectorStore();
+        mentionIndex = mock(SettingMentionIndex.class);
+        service = new NovelSettingServiceImpl(settingItemRepository, settingGroupRepository, mongoTemplate,
+                mockEmbedding(), vectorStore, mentionIndex, new NovelSettingCache(mongoTemplate));
+    }
+
+    /**
+     * 测试候选一次批量回填，命中缓存后不再访问数据库，并按得分重排序
+     */
+    @Test
+    void testBatchHydrationAndRerank() {
+        populate(20, 1);
+        settings.get("s-3").setSceneIds(List.of("scene-1"));
+        hitsByQuery.put("林动进入了青阳镇", hits(List.of("s-1", "s-2", "s-3", "s-4"), 0.9));
+
+        List<NovelSettingItem> first = service.findRelevantSettings(NOVEL_ID, "林动进入了青阳镇", "scene-1", null, 2)
+                .collectList().block();
+
+        assertEquals(List.of("s-3", "s-1"), ids(first));
+        assertEquals(1, roundTrips.get());
+        verify(settingItemRepository, never()).findById(anyString());
+
+        List<NovelSettingItem> second = service.findRelevantSettings(NOVEL_ID, "  林动进入了青阳镇\n", "scene-1", null, 2)
+                .collectList().block();
+        assertEquals(ids(first), ids(second));
+        assertEquals(1, roundTrips.get());
+    }
+
+    /**
+     * 测试设定写入后缓存中的条目失效并重新回填
+     */
+    @Test
+    void testCacheEvictedOnSettingWrite() {
+        populate(5, 1);
+        hitsByQuery.put("q", hits(List.of("s-0", "s-1"), 0.8));
+        service.findRelevantSettings(NOVEL_ID, "q", null, null, 2).collectList().block();
+
+        NovelSettingItem renamed = NovelSettingItem.builder().id("s-0").novelId(NOVEL_ID).name("新名字").priority(1).build();
+        when(settingItemRepository.save(any(NovelSettingItem.class))).thenReturn(Mono.just(renamed));
+        service.updateTrackingConfig("s-0", null, "detected", null).block();
+        settings.put("s-0", renamed);
+
+        List<NovelSettingItem> result = service.findRelevantSettings(NOVEL_ID, "q", null, null, 2).collectList().block();
+        assertEquals("新名字", result.get(0).getName());
+    }
+
+    /**
+     * 测试只有 always 设定、没有检测到提及时回退到向量检索，合并结果不超过 topK
+     */
+    @Test
+    void testContextSettingsFallBackWhenNothingDetected() {
+        populate(20, 1);
+        hitsByQuery.put("他走进了院子", hits(List.of("s-10", "s-1", "s-2"), 0.9));
+        when(mentionIndex.contextSettings(NOVEL_ID, "他走进了院子"))
+                .thenReturn(Mono.just(new SettingMentionIndex.ContextSettings(List.of("s-10"), List.of())));
+
+        List<NovelSettingItem> result = service.findContextSettings(NOVEL_ID, "他走进了院子", null, 2)
+                .collectList().block();
+
+        assertEquals(List.of("s-10", "s-1"), ids(result));
+        verify(vectorStore).search(any(float[].class), anyMap(), anyInt());
+    }
+
+    /**
+     * 测试检测到提及时不调用向量检索，always 在前且总数不超过 topK
+     */
+    @Test
+    void testContextSettingsUseDetectedMentions() {
+        populate(20, 1);
+        when(mentionIndex.contextSettings(NOVEL_ID, "林动遇到了应欢欢"))
+                .thenReturn(Mono.just(new SettingMentionIndex.ContextSettings(List.of("s-10"), List.of("s-5", "s-6"))));
+
+        List<NovelSettingItem> result = service.findContextSettings(NOVEL_ID, "林动遇到了应欢欢", null, 2)
+                .collectList().block();
+
+        assertEquals(List.of("s-10", "s-5"), ids(result));
+        verify(vectorStore, never()).search(any(float[].class), anyMap(), anyInt());
+    }
+
+    /**
+     * 测试查询文本规范化：压缩空白并截断
+     */
+    @Test
+    void testRetrievalQuery() {
+        assertEquals("a b c", NovelSettingServiceImpl.retrievalQuery(" a\n\tb  c "));
+        assertEquals("", NovelSettingServiceImpl.retrievalQuery(null));
+        assertEquals(2000, NovelSettingServiceImpl.retrievalQuery("字".repeat(5000)).length());
+    }
+
+    /**
+     * 测试大量设定下每次冷查询只有一次批量回填往返，重复查询全部命中缓存
+     */
+    @Test
+    void testOneRoundTripPerColdQuery() {
+        populate(1_000, 3);
+        Random random = new Random(1);
+        List<String> queries = new ArrayList<>();
+        for (int q = 0; q < 20; q++) {
+            List<String> hitIds = new ArrayList<>();
+            for (int h = 0; h < 10; h++) {
+                hitIds.add("s-" + random.nextInt(1_000));
+            }
+            String query = "查询-" + q;
+            hitsByQuery.put(query, hits(hitIds, 0.5 + random.nextDouble() / 2));
+            queries.add(query);
+        }
+
+        for (String query : queries) {
+            int before = roundTrips.get();
+            List<NovelSettingItem> result = service.findRelevantSettings(NOVEL_ID, query, null, null, 5)
+                    .collectList().block();
+            assertEquals(5, result.size());
+            assertTrue(roundTrips.get() - before <= 1, "每次查询最多一次批量回填");
+        }
+        int coldTrips = roundTrips.getAndSet(0);
+        assertTrue(coldTrips <= queries.size());
+
+        for (String query : queries) {
+            service.findRelevantSettings(NOVEL_ID, query, null, null, 5).collectList().block();
+        }
+        assertEquals(0, roundTrips.get());
+        verify(settingItemRepository, never()).findById(anyString());
+    }
+
+    /**
+     * 测试回填进行中发生失效时，读到的旧条目只返回给本次调用、不写回缓存
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvictDuringLoadIsNotOverwritten() {
+        populate(3, 1);
+        NovelSettingCache cache = new NovelSettingCache(mongoTemplate);
+        when(mongoTemplate.find(any(Query.class), eq(NovelSettingItem.class))).thenAnswer(inv -> {
+            roundTrips.incrementAndGet();
+            Collection<String> ids = (Collection<String>) ((Document) inv.getArgument(0, Query.class)
+                    .getQueryObject().get("_id")).get("$in");
+            List<NovelSettingItem> snapshot = ids.stream().map(settings::get).filter(Objects::nonNull)
+                    .map(item -> item.toBuilder().build()).toList();
+            return Flux.defer(() -> {
+                // 查询已读到旧值，此时设定被修改并失效
+                settings.get("s-1").setName("新名字");
+                cache.evict(NOVEL_ID, "s-1");
+                return Flux.fromIterable(snapshot);
+            });
+        });
+
+        assertEquals("设定1", cache.getAll(NOVEL_ID, List.of("s-0", "s-1")).block().get(1).getName());
+        roundTrips.set(0);
+
+        List<NovelSettingItem> reloaded = cache.getAll(NOVEL_ID, List.of("s-0", "s-1")).block();
+        assertEquals(1, roundTrips.get());
+        assertEquals("新名字", reloaded.get(1).getName());
+    }
+
+    /**
+     * 测试返回的是条目副本，调用方修改不影响缓存
+     */
+    @Test
+    void testReturnedItemsAreCopies() {
+        populate(2, 1);
+        NovelSettingCache cache = new NovelSettingCache(mongoTemplate);
+
+        NovelSettingItem first = cache.getAll(NOVEL_ID, List.of("s-0")).block().get(0);
+        first.setName("被调用方改写");
+
+        NovelSettingItem second = cache.getAll(NOVEL_ID, List.of("s-0")).block().get(0);
+        assertEquals("设定0", second.getName());
+        assertNotSame(first, second);
+        assertEquals(1, roundTrips.get());
+    }
+
+    /**
+     * 1k / 10k 设定规模：逐条回填（旧实现）与批量回填 + 缓存的延迟对比
+     */
+    @Test
+    void benchmarkRetrievalLatency() {
+        for (int size : new int[]{1_000, 10_000}) {
+            settings.clear();
+            hitsByQuery.clear();
+            populate(size, 3);
+            Random random = new Random(size);
+            List<String> queries = new ArrayList<>();
+            for (int q = 0; q < 50; q++) {
+                List<String> hitIds = new ArrayList<>();
+                for (int h = 0; h < 10; h++) {
+                    hitIds.add("s-" + random.nextInt(size));
+                }
+                String query = "查询-" + q;
+                hitsByQuery.put(query, hits(hitIds, 0.5 + random.nextDouble() / 2));
+                queries.add(query);
+            }
+            service = new NovelSettingServiceImpl(settingItemRepository, mock(SettingGroupRepository.class),
+                    mongoTemplate, mockEmbedding(), mockVectorStore(), mock(SettingMentionIndex.class),
+                    new NovelSettingCache(mongoTemplate));
+
+            roundTrips.set(0);
+            long legacyStart = System.nanoTime();
+            for (String query : queries) {
+                legacyRetrieve(query).block();
+            }
+            long legacyNanos = System.nanoTime() - legacyStart;
+            int legacyTrips = roundTrips.getAndSet(0);
+
+            long coldStart = System.nanoTime();
+            for (String query : queries) {
+                service.findRelevantSettings(NOVEL_ID, query, null, null, 5).collectList().block();
+            }
+            long coldNanos = System.nanoTime() - coldStart;
+            int coldTrips = roundTrips.getAndSet(0);
+
+            long warmStart = System.nanoTime();
+            for (String query : queries) {
+                service.findRelevantSettings(NOVEL_ID, query, null, null, 5).collectList().block();
+            }
+            long warmNanos = System.nanoTime() - warmStart;
+            int warmTrips = roundTrips.getAndSet(0);
+
+            assertEquals(queries.size() * 10, legacyTrips);
+            assertTrue(coldTrips <= queries.size());
+            assertEquals(0, warmTrips);
+            System.out.printf("%d 设定: 逐条回填 %.2f ms/次 (%d 次往返), 批量回填 %.2f ms/次 (%d 次往返), 缓存命中 %.3f ms/次%n",
+                    size, legacyNanos / 1e6 / queries.size(), legacyTrips,
+                    coldNanos / 1e6 / queries.size(), coldTrips, warmNanos / 1e6 / queries.size());
+        }
+    }
+
+    /**
+     * 旧实现：每个候选单独查询一次
+     */
+    private Mono<List<NovelSettingItem>> legacyRetrieve(String query) {
+        return Flux.fromIterable(hitsByQuery.get(query))
+                .flatMap(hit -> settingItemRepository.findById((String) hit.getMetadata().get("novelSettingItemId")))
+                .collectList();
+    }
+
+    private EmbeddingService mockEmbedding() {
+        EmbeddingService embeddingService = mock(EmbeddingService.class);
+        when(embeddingService.generateEmbedding(anyString()))
+                .thenAnswer(inv -> Mono.just(new float[]{inv.getArgument(0, String.class).hashCode()}));
+        return embeddingService;
+    }
+
+    private VectorStore mockVectorStore() {
+        VectorStore vectorStore = mock(VectorStore.class);
+        when(vectorStore.search(any(float[].class), anyMap(), anyInt())).thenAnswer(inv -> {
+            float[] vector = inv.getArgument(0);
+            int limit = inv.getArgument(2);
+            return Flux.fromIterable(hitsByQuery.entrySet().stream()
+                    .filter(entry -> entry.getKey().hashCode() == (int) vector[0])
+                    .findFirst().map(Map.Entry::getValue).orElse(List.of()))
+                    .take(limit);
+        });
+        return vectorStore;
+    }
+
+    private void populate(int count, int priority) {
+        for (int i = 0; i < count; i++) {
+            settings.put("s-" + i, NovelSettingItem.builder()
+                    .id("s-" + i).novelId(NOVEL_ID).name("设定" + i).type("CHARACTER")
+                    .priority(priority).generatedBy("USER").build());
+        }
+    }
+
+    private static List<SearchResult> hits(List<String> ids, double topScore) {
+        List<SearchResult> results = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            SearchResult result = new SearchResult();
+            result.setId("chunk-" + ids.get(i));
+            result.setScore(topScore - i * 0.01);
+            result.setMetadata(Map.of("novelSettingItemId", ids.get(i)));
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static List<String> ids(List<NovelSettingItem> items) {
+        return items.stream().map(NovelSettingItem::getId).collect(Collectors.toList());
+    }
+}
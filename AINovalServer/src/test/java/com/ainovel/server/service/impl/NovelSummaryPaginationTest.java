@@ -0,0 +1,137 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+import com.ainovel.server.repository.NovelRepository;
+import com.ainovel.server.repository.SceneRepository;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.StorageService;
+import com.ainovel.server.service.cache.ChapterPrefetcher;
+import com.ainovel.server.service.cache.NovelOrderIndexCache;
+import com.ainovel.server.service.cache.NovelStructureCache;
+import com.ainovel.server.service.metadata.NovelMetadataAggregator;
+import com.ainovel.server.web.dto.NovelSummaryDto;
+import com.ainovel.server.web.dto.NovelSummaryPageDto;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 小说摘要游标分页测试：分页边界、游标编解码与版本号（ETag）
+ */
+class NovelSummaryPaginationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private NovelServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        service = new NovelServiceImpl(mock(NovelRepository.class), mock(SceneRepository.class),
+                mock(StorageService.class), mock(SceneService.class), mongoTemplate,
+                mock(NovelStructureCache.class), mock(NovelOrderIndexCache.class), mock(ChapterPrefetcher.class),
+                mock(NovelMetadataAggregator.class));
+    }
+
+    /**
+     * 测试多取一条判断下一页，游标指向本页最后一条
+     */
+    @Test
+    void testPageWithMore() {
+        stubAggregate(items(4));
+
+        NovelSummaryPageDto page = service.findNovelSummaries("u-1", null, 3).block();
+
+        assertEquals(3, page.getItems().size());
+        assertTrue(page.isHasMore());
+        NovelServiceImpl.SummaryCursor cursor = NovelServiceImpl.SummaryCursor.decode(page.getNextCursor());
+        assertEquals("n-2", cursor.id());
+        assertEquals(BASE.minusMinutes(2), cursor.updatedAt());
+        verify(mongoTemplate).aggregate(any(TypedAggregation.class), eq(NovelSummaryDto.class));
+    }
+
+    /**
+     * 测试最后一页没有游标
+     */
+    @Test
+    void testLastPage() {
+        stubAggregate(items(2));
+
+        NovelSummaryPageDto page = service.findNovelSummaries("u-1", null, 3).block();
+
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    /**
+     * 测试游标编解码，包括更新时间为空的记录
+     */
+    @Test
+    void testCursorRoundTrip() {
+        NovelServiceImpl.SummaryCursor cursor = new NovelServiceImpl.SummaryCursor(BASE, "n-1");
+        assertEquals(cursor, NovelServiceImpl.SummaryCursor.decode(cursor.encode()));
+
+        NovelServiceImpl.SummaryCursor nullTime = new NovelServiceImpl.SummaryCursor(null, "n-2");
+        assertEquals(nullTime, NovelServiceImpl.SummaryCursor.decode(nullTime.encode()));
+        assertNull(NovelServiceImpl.SummaryCursor.decode(""));
+    }
+
+    /**
+     * 测试非法游标被拒绝，不查询数据库
+     */
+    @Test
+    void testInvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findNovelSummaries("u-1", "不是游标", 20).block());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findNovelSummaries("u-1", "bm8tc2VwYXJhdG9y", 20).block());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    /**
+     * 测试版本号：内容不变时稳定，字数变化时改变
+     */
+    @Test
+    void testVersion() {
+        String first = NovelServiceImpl.toSummaryPage(items(3), 20).getVersion();
+        assertEquals(first, NovelServiceImpl.toSummaryPage(items(3), 20).getVersion());
+
+        List<NovelSummaryDto> changed = items(3);
+        changed.get(1).setWordCount(999);
+        assertNotEquals(first, NovelServiceImpl.toSummaryPage(changed, 20).getVersion());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubAggregate(List<NovelSummaryDto> items) {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(NovelSummaryDto.class)))
+                .thenReturn(Flux.fromIterable(items));
+    }
+
+    private static List<NovelSummaryDto> items(int count) {
+        List<NovelSummaryDto> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(NovelSummaryDto.builder()
+                    .id("n-" + i)
+                    .title("小说" + i)
+                    .wordCount(1000 * i)
+                    .chapterCount(i)
+                    .updatedAt(BASE.minusMinutes(i))
+                    .build());
+        }
+        return items;
+    }
+}
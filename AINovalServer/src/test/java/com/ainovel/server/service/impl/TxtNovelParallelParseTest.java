@@ -0,0 +1,182 @@
+package com.ainovel.server.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ainovel.server.common.util.TextFileCharsetUtil;
+import com.ainovel.server.domain.dto.ParsedSceneData;
+
+/**
+ * TXT 并行章节识别单元测试与吞吐基准
+ * 验证并行解析与顺序解析的输出完全一致（区间切得很小，章节与空行序列会跨越大量区间边界）
+ */
+class TxtNovelParallelParseTest {
+
+    private static final String[] LINES = {
+            "第一章 开始", "第2章 继续", "正文 第三章", "Chapter 12 End", "序章",
+            "这是一段很长的正文内容，包含标点。还有更多文字在这里出现，超过二十个字符。",
+            "短句", "", "   ", "广告：访问站点", "  缩进的正文  ", "第十章", "IV", "（一）小标题", "尾声",
+            "前言里的 第五章 提到"
+    };
+
+    private static final Predicate<String> KEEP_LINE =
+            line -> !line.trim().isEmpty() && !line.contains("广告") && !line.contains("站点");
+
+    private final TxtNovelParser parser = new TxtNovelParser();
+    private ForkJoinPool pool;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 测试随机语料（混合换行符、UTF-8/GBK、有无行过滤）下并行解析与 parseStream、buildIndex 输出一致
+     */
+    @Test
+    void testParallelOutputMatchesSequentialParser() throws Exception {
+        parser.minParallelRangeBytes = 64;
+        Random random = new Random(7);
+        String[] newlines = {"\n", "\r\n", "\r"};
+        for (int round = 0; round < 60; round++) {
+            StringBuilder text = new StringBuilder();
+            String newline = newlines[random.nextInt(2)];
+            int lineCount = 20 + random.nextInt(2000);
+            for (int i = 0; i < lineCount; i++) {
+                text.append(LINES[random.nextInt(LINES.length)])
+                        .append(random.nextInt(20) == 0 ? newlines[random.nextInt(newlines.length)] : newline);
+            }
+            if (random.nextBoolean()) {
+                text.append("最后一行无换行");
+            }
+            Charset charset = random.nextBoolean() ? StandardCharsets.UTF_8 : Charset.forName("GBK");
+            Path file = tempDir.resolve("novel-" + round + ".txt");
+            Files.write(file, text.toString().getBytes(charset));
+
+            for (Predicate<String> filter : List.of(KEEP_LINE, line -> true)) {
+                List<ParsedSceneData> expected;
+                try (Stream<String> lines = TextFileCharsetUtil.lines(file, charset).filter(filter)) {
+                    expected = parser.parseStream(lines).getScenes();
+                }
+                List<ParsedSceneData> actual = parser.parseParallel(file, charset, filter, pool).getScenes();
+                ChapterOffsetIndex sequentialIndex = parser.buildIndex(file, charset, filter);
+                ChapterOffsetIndex parallelIndex = parser.buildIndexParallel(file, charset, filter, pool);
+
+                assertEquals(expected.size(), actual.size(), "第" + round + "轮章节数不一致");
+                assertEquals(sequentialIndex.getEntries(), parallelIndex.getEntries());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getSceneTitle(), actual.get(i).getSceneTitle());
+                    assertEquals(expected.get(i).getSceneContent(), actual.get(i).getSceneContent());
+                    assertEquals(expected.get(i).getOrder(), actual.get(i).getOrder());
+                }
+            }
+        }
+    }
+
+    /**
+     * 测试区间切分落在行首，覆盖整个文件
+     */
+    @Test
+    void testRangesAlignWithLineBoundaries() throws Exception {
+        Path file = tempDir.resolve("ranges.txt");
+        Files.writeString(file, "第一章 开始\n正文一\r\n正文二\n\n第二章 继续\n结尾");
+        byte[] bytes = Files.readAllBytes(file);
+
+        long[] boundaries = TextFileCharsetUtil.splitAtLineBoundaries(file, 5);
+
+        assertEquals(0, boundaries[0]);
+        assertEquals(bytes.length, boundaries[boundaries.length - 1]);
+        for (int i = 1; i < boundaries.length - 1; i++) {
+            assertEquals('\n', bytes[(int) boundaries[i] - 1]);
+            assertTrue(boundaries[i] > boundaries[i - 1]);
+        }
+    }
+
+    /**
+     * 测试多区间并行解析时章节顺序与标题保持文件顺序
+     */
+    @Test
+    void testParallelKeepsChapterOrder() throws Exception {
+        parser.minParallelRangeBytes = 256;
+        StringBuilder text = new StringBuilder();
+        for (int chapter = 1; chapter <= 500; chapter++) {
+            text.append("第").append(chapter).append("章 标题\n");
+            for (int i = 0; i < 3; i++) {
+                text.append("　　这是一段正文内容，他说道：“我们走吧。”然后大家一起离开了这里。\n\n");
+            }
+        }
+        Path file = tempDir.resolve("ordered.txt");
+        Files.writeString(file, text);
+
+        List<ParsedSceneData> scenes = parser.parseParallel(file, StandardCharsets.UTF_8, line -> true, pool).getScenes();
+
+        assertEquals(500, scenes.size());
+        for (int i = 0; i < scenes.size(); i++) {
+            assertTrue(scenes.get(i).getSceneTitle().startsWith("第" + (i + 1) + "章"), scenes.get(i).getSceneTitle());
+        }
+    }
+
+    /**
+     * 吞吐基准：约64MB语料上顺序解析与并行解析的 MB/s 以及每核 MB/s
+     * 并行解析使用与导入服务相同的专用线程池（按CPU核数），不占用公共 ForkJoinPool
+     */
+    @Test
+    void benchmarkThroughputPerCore() throws Exception {
+        StringBuilder text = new StringBuilder();
+        int chapter = 0;
+        while (text.length() < 24_000_000) {
+            text.append("第").append(++chapter).append("章 标题\n");
+            for (int i = 0; i < 40; i++) {
+                text.append("　　这是一段正文内容，他说道：“我们走吧。”然后大家一起离开了这里。\n\n");
+            }
+        }
+        Path file = tempDir.resolve("benchmark.txt");
+        Files.writeString(file, text);
+        double megabytes = Files.size(file) / (1024.0 * 1024.0);
+        ForkJoinPool parsePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        int cores = parsePool.getParallelism();
+
+        try {
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                int sequentialCount;
+                try (Stream<String> lines = TextFileCharsetUtil.lines(file, StandardCharsets.UTF_8)) {
+                    sequentialCount = parser.parseStream(lines).getScenes().size();
+                }
+                double sequential = megabytes / ((System.nanoTime() - start) / 1e9);
+
+                start = System.nanoTime();
+                int parallelCount = parser.parseParallel(file, StandardCharsets.UTF_8, line -> true, parsePool).getScenes().size();
+                double parallel = megabytes / ((System.nanoTime() - start) / 1e9);
+
+                assertEquals(sequentialCount, parallelCount);
+                System.out.printf("%.0fMB, %d核: 顺序 %.1f MB/s, 并行 %.1f MB/s (%.1f MB/s/核)%n",
+                        megabytes, cores, sequential, parallel, parallel / cores);
+            }
+        } finally {
+            parsePool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ainovel.server.service.impl.content;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.service.impl.content.ContextSectionAssembler.Section;
+
+/**
+ * ContextSectionAssembler 单元测试
+ * 验证上下文片段的确定性排序
+ */
+class ContextSectionAssemblerTest {
+
+    /**
+     * 测试无论提供器完成顺序如何，拼接结果都一致，且稳定内容在前
+     */
+    @Test
+    void testOrderIndependentOfArrival() {
+        List<Section> sections = new ArrayList<>(List.of(
+                new Section("scene", "s1", "SCENE", 0),
+                new Section("character", "c1", "CHARACTER", 1),
+                new Section("chapter", "ch2", "CHAPTER-2", 3),
+                new Section("novel_basic_info", "n1", "INFO", -1),
+                new Section("chapter", "ch1", "CHAPTER-1", 2),
+                new Section("full_novel_summary", "n1", "SUMMARY", 4)));
+
+        String first = ContextSectionAssembler.assemble(sections);
+        Collections.reverse(sections);
+        String second = ContextSectionAssembler.assemble(sections);
+
+        assertEquals(first, second, "片段到达顺序不应影响结果");
+        assertEquals("CHARACTER\n\nINFO\n\nSUMMARY\n\nCHAPTER-1\n\nCHAPTER-2\n\nSCENE", first);
+    }
+
+    /**
+     * 测试空内容被忽略
+     */
+    @Test
+    void testEmptySectionsIgnored() {
+        String assembled = ContextSectionAssembler.assemble(List.of(
+                new Section("scene", "s1", "", 0),
+                new Section("snippet", "p1", "SNIPPET", 1)));
+
+        assertEquals("SNIPPET", assembled);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ainovel.server.service.impl.content;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.config.MongoQueryCounterAspect;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.NovelSettingService;
+import com.ainovel.server.service.SceneService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * RequestContextLoader 单元测试
+ * 验证同一请求会话内的查询去重，以及会话外的直接委托
+ */
+class RequestContextLoaderTest {
+
+    private NovelService novelService;
+    private SceneService sceneService;
+    private SimpleMeterRegistry meterRegistry;
+    private RequestContextLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        novelService = mock(NovelService.class);
+        sceneService = mock(SceneService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        loader = new RequestContextLoader(novelService, sceneService, mock(NovelSettingService.class),
+                new MongoQueryCounterAspect(meterRegistry));
+
+        when(novelService.findNovelById("n1")).thenAnswer(inv -> Mono.just(Novel.builder().id("n1").build()));
+        when(novelService.findScenesByNovelIdInOrder("n1")).thenAnswer(inv -> Flux.just(
+                Scene.builder().id("s1").build(), Scene.builder().id("s2").build()));
+    }
+
+    /**
+     * 测试会话内多个提供器共享同一次小说与场景查询
+     */
+    @Test
+    void testFetchesSharedWithinSession() {
+        Mono<List<Object>> request = Flux.merge(
+                        loader.findNovelById("n1"),
+                        loader.findNovelById("n1"),
+                        loader.findScenesByNovelIdInOrder("n1"),
+                        loader.findScenesByNovelIdInOrder("n1"))
+                .collectList();
+
+        List<Object> results = loader.withSession("test", request).block();
+
+        assertNotNull(results);
+        assertEquals(6, results.size());
+        verify(novelService, times(1)).findNovelById("n1");
+        verify(novelService, times(1)).findScenesByNovelIdInOrder("n1");
+        assertEquals(1L, meterRegistry.get("mongodb.queries.per_request").tag("scope", "test").summary().count());
+    }
+
+    /**
+     * 测试会话外直接委托给原服务
+     */
+    @Test
+    void testDelegatesWithoutSession() {
+        loader.findNovelById("n1").block();
+        loader.findNovelById("n1").block();
+
+        verify(novelService, times(2)).findNovelById("n1");
+    }
+}
@@ -0,0 +1,247 @@
+package com.ainovel.server.service.metadata;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 小说字数聚合器测试：增量合并、整本重算与对账、脏标记与关闭时写入
+ * 数据库为模拟的 ReactiveMongoTemplate，在内存中维护每本小说的字数与脏标记
+ */
+class NovelMetadataAggregatorTest {
+
+    private final Map<String, Integer> novelWordCounts = new ConcurrentHashMap<>();
+    private final Map<String, List<Scene>> scenesByNovel = new ConcurrentHashMap<>();
+    private final AtomicInteger deltaWrites = new AtomicInteger();
+    private final AtomicInteger reconcileWrites = new AtomicInteger();
+    private final Set<String> dirtyNovels = ConcurrentHashMap.newKeySet();
+    private final List<String> staleNovels = new ArrayList<>();
+    private Duration deltaLatency = Duration.ZERO;
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private NovelMetadataAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Novel.class))).thenAnswer(inv -> {
+            String novelId = idOf(inv.getArgument(0, Query.class));
+            if (inv.getArgument(1) instanceof Update marker) {
+                if (marker.getUpdateObject().containsKey("$unset")) {
+                    dirtyNovels.remove(novelId);
+                } else {
+                    dirtyNovels.add(novelId);
+                }
+                return Mono.just(UpdateResult.acknowledged(1, 1L, null));
+            }
+            int delta = deltaOf(inv.getArgument(1, AggregationUpdate.class));
+            return Mono.delay(deltaLatency).map(tick -> {
+                novelWordCounts.merge(novelId, delta, Integer::sum);
+                deltaWrites.incrementAndGet();
+                return UpdateResult.acknowledged(1, 1L, null);
+            });
+        });
+        when(mongoTemplate.find(any(Query.class), eq(Novel.class)))
+                .thenAnswer(inv -> Flux.fromIterable(staleNovels).map(id -> Novel.builder().id(id).build()));
+        when(mongoTemplate.find(any(Query.class), eq(Scene.class))).thenAnswer(inv -> {
+            Document query = inv.getArgument(0, Query.class).getQueryObject();
+            return Flux.fromIterable(scenesByNovel.getOrDefault(query.getString("novelId"), List.of()));
+        });
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Novel.class)))
+                .thenAnswer(inv -> {
+                    String novelId = idOf(inv.getArgument(0, Query.class));
+                    Document set = inv.getArgument(1, Update.class).getUpdateObject().get("$set", Document.class);
+                    novelWordCounts.put(novelId, set.getInteger("metadata.wordCount"));
+                    reconcileWrites.incrementAndGet();
+                    return Mono.just(Novel.builder().id(novelId).metadata(Novel.Metadata.builder()
+                            .wordCount(set.getInteger("metadata.wordCount")).build()).build());
+                });
+        aggregator = new NovelMetadataAggregator(mongoTemplate);
+    }
+
+    /**
+     * 测试同一小说的增量在一个周期内合并为一次写入
+     */
+    @Test
+    void testDeltasCoalescePerNovel() {
+        aggregator.recordDelta("n-1", 120);
+        aggregator.recordDelta("n-1", -20);
+        aggregator.recordDelta("n-1", 50);
+        aggregator.recordDelta("n-2", 7);
+
+        aggregator.flushAll().block();
+
+        assertEquals(2, deltaWrites.get());
+        assertEquals(150, novelWordCounts.get("n-1"));
+        assertEquals(7, novelWordCounts.get("n-2"));
+        assertEquals(0, aggregator.getPendingCount());
+
+        aggregator.flushAll().block();
+        assertEquals(2, deltaWrites.get());
+    }
+
+    /**
+     * 测试增量未知的写入合并为一次整本重算，已登记的增量不再重复计入
+     */
+    @Test
+    void testReconcileRequestReplacesDeltas() {
+        scenesByNovel.put("n-1", List.of(scene(300), scene(200)));
+        aggregator.recordDelta("n-1", 40);
+        aggregator.requestReconcile("n-1");
+        aggregator.requestReconcile("n-1");
+
+        aggregator.flushAll().block();
+
+        assertEquals(0, deltaWrites.get());
+        assertEquals(1, reconcileWrites.get());
+        assertEquals(500, novelWordCounts.get("n-1"));
+    }
+
+    /**
+     * 测试定时对账只处理有写入且没有待写入增量的小说
+     */
+    @Test
+    void testReconcileTouched() {
+        scenesByNovel.put("n-1", List.of(scene(80)));
+        scenesByNovel.put("n-2", List.of(scene(90)));
+        aggregator.recordDelta("n-1", 100);
+        aggregator.flushAll().block();
+        aggregator.recordDelta("n-2", 5);
+
+        aggregator.reconcileTouched().block();
+        assertEquals(80, novelWordCounts.get("n-1"));
+        assertEquals(1, reconcileWrites.get());
+
+        aggregator.flushAll().block();
+        aggregator.reconcileTouched().block();
+        assertEquals(90, novelWordCounts.get("n-2"));
+
+        aggregator.reconcileTouched().block();
+        assertEquals(2, reconcileWrites.get());
+    }
+
+    /**
+     * 测试阅读时间估算
+     */
+    @Test
+    void testReadTime() {
+        assertEquals(0, NovelMetadataAggregator.readTime(0));
+        assertEquals(1, NovelMetadataAggregator.readTime(10));
+        assertEquals(3, NovelMetadataAggregator.readTime(1000));
+    }
+
+    /**
+     * 测试显式重算吸收待写入增量，之后的刷新不再重复累加；重算清除脏标记
+     */
+    @Test
+    void testReconcileAbsorbsPendingDeltas() {
+        scenesByNovel.put("n-1", List.of(scene(300), scene(240)));
+        aggregator.recordDelta("n-1", 40);
+        assertTrue(dirtyNovels.contains("n-1"));
+
+        Novel novel = aggregator.reconcile("n-1", true).block();
+        aggregator.flushAll().block();
+
+        assertEquals(540, novel.getMetadata().getWordCount());
+        assertEquals(540, novelWordCounts.get("n-1"));
+        assertEquals(0, deltaWrites.get());
+        assertFalse(dirtyNovels.contains("n-1"));
+    }
+
+    /**
+     * 测试定时对账不处理正在写入增量的小说，写入完成后再重算
+     */
+    @Test
+    void testReconcileTouchedSkipsInFlightFlush() {
+        deltaLatency = Duration.ofMillis(200);
+        novelWordCounts.put("n-1", 460);
+        scenesByNovel.put("n-1", List.of(scene(500)));
+        aggregator.recordDelta("n-1", 40);
+
+        Mono<Void> flush = aggregator.flushAll().cache();
+        flush.subscribe();
+        aggregator.reconcileTouched().block();
+        assertEquals(0, reconcileWrites.get());
+
+        flush.block();
+        aggregator.reconcileTouched().block();
+        assertEquals(1, reconcileWrites.get());
+        assertEquals(500, novelWordCounts.get("n-1"));
+    }
+
+    /**
+     * 测试关闭时写入全部待写入的变更
+     */
+    @Test
+    void testFlushOnShutdown() {
+        aggregator.recordDelta("n-1", 12);
+        aggregator.recordDelta("n-2", 8);
+
+        aggregator.flushOnShutdown();
+
+        assertEquals(0, aggregator.getPendingCount());
+        assertEquals(12, novelWordCounts.get("n-1"));
+        assertEquals(8, novelWordCounts.get("n-2"));
+    }
+
+    /**
+     * 测试脏标记长时间未清除的小说（其他节点丢失的增量）在对账中重算
+     */
+    @Test
+    void testStaleDirtyMarkersAreReconciled() {
+        scenesByNovel.put("n-9", List.of(scene(70)));
+        staleNovels.add("n-9");
+        dirtyNovels.add("n-9");
+
+        aggregator.reconcileTouched().block();
+
+        assertEquals(70, novelWordCounts.get("n-9"));
+        assertFalse(dirtyNovels.contains("n-9"));
+    }
+
+    private static Scene scene(int wordCount) {
+        return Scene.builder().wordCount(wordCount).build();
+    }
+
+    private static String idOf(Query query) {
+        return String.valueOf(query.getQueryObject().get("id"));
+    }
+
+    /**
+     * 从流水线更新中取出累加的增量：{$max: [0, {$add: [{$ifNull: ...}, delta]}]}
+     */
+    private static int deltaOf(AggregationUpdate update) {
+        List<Document> pipeline = new ArrayList<>(update.toPipeline(Aggregation.DEFAULT_CONTEXT));
+        Document wordCount = pipeline.get(0).get("$set", Document.class).get("metadata.wordCount", Document.class);
+        List<?> max = wordCount.getList("$max", Object.class);
+        List<?> add = ((Document) max.get(1)).getList("$add", Object.class);
+        return ((Number) add.get(1)).intValue();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ainovel.server.service.setting.generation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.config.SettingGenerationSessionProperties;
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
+import com.ainovel.server.domain.model.setting.generation.SettingNode;
+import com.ainovel.server.service.setting.generation.cluster.GenerationEventBus;
+import com.ainovel.server.service.setting.generation.cluster.LocalGenerationEventBus;
+import com.ainovel.server.service.setting.generation.cluster.LocalSessionStore;
+import com.ainovel.server.service.setting.generation.cluster.SessionStore;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * InMemorySessionManager 单元测试
+ * 验证批量写回、状态变化立即写回、其他节点从存储加载与写回后的跨节点失效
+ */
+class InMemorySessionManagerTest {
+
+    private SettingGenerationSessionProperties properties;
+    private SharedStore store;
+    private GenerationEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SettingGenerationSessionProperties();
+        properties.setStore(SettingGenerationSessionProperties.Store.MONGO);
+        store = new SharedStore();
+        bus = new LocalGenerationEventBus() {
+            @Override
+            public boolean isDistributed() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 测试普通修改合并为一次批量写回，状态变化立即写回
+     */
+    @Test
+    void testWriteBehindAndImmediateStatusFlush() {
+        InMemorySessionManager manager = new InMemorySessionManager(properties, store, bus, "node-a");
+        SettingGenerationSession session = manager.createSession("s1", "u1", "novel-1", "修仙世界", "default", null).block();
+        assertEquals(1, store.saves.get());
+
+        for (int i = 0; i < 50; i++) {
+            manager.addNodeToSession("s1", SettingNode.builder().id("n" + i).name("节点" + i).build()).block();
+        }
+        assertEquals(1, store.saves.get());
+
+        manager.flushDirtySessions();
+        assertEquals(2, store.saves.get());
+        assertEquals(50, store.sessions.get("s1").getGeneratedNodes().size());
+
+        manager.flushDirtySessions();
+        assertEquals(2, store.saves.get());
+
+        manager.updateSessionStatus("s1", SettingGenerationSession.SessionStatus.GENERATING).block();
+        assertEquals(3, store.saves.get());
+        assertSame(session, manager.getSession("s1").block());
+    }
+
+    /**
+     * 测试其他节点本地未命中时从存储加载，写回后其他节点丢弃旧副本
+     */
+    @Test
+    void testLoadFromStoreAndCrossNodeInvalidation() {
+        InMemorySessionManager nodeA = new InMemorySessionManager(properties, store, bus, "node-a");
+        InMemorySessionManager nodeB = new InMemorySessionManager(properties, store, bus, "node-b");
+        nodeA.createSession("s1", "u1", "novel-1", "修仙世界", "default", null).block();
+
+        SettingGenerationSession onB = nodeB.getSession("s1").block();
+        assertNotNull(onB);
+        assertEquals(SettingGenerationSession.SessionStatus.INITIALIZING, onB.getStatus());
+        assertEquals(1, store.loads.get());
+        nodeB.getSession("s1").block();
+        assertEquals(1, store.loads.get());
+
+        store.copyOnSave = true;
+        nodeA.updateSessionStatus("s1", SettingGenerationSession.SessionStatus.COMPLETED).block();
+
+        assertEquals(SettingGenerationSession.SessionStatus.COMPLETED, nodeB.getSession("s1").block().getStatus());
+        assertEquals(2, store.loads.get());
+    }
+
+    /**
+     * 测试本节点存储时不写入存储，过期会话读取为空
+     */
+    @Test
+    void testLocalStoreAndExpiry() {
+        properties.setStore(SettingGenerationSessionProperties.Store.LOCAL);
+        InMemorySessionManager manager = new InMemorySessionManager(properties, new LocalSessionStore(), bus, "node-a");
+        SettingGenerationSession session = manager.createSession("u1", "novel-1", "修仙世界", "default").block();
+        assertNotNull(manager.getSession(session.getSessionId()).block());
+
+        session.setExpiresAt(session.getCreatedAt().minusSeconds(1));
+        assertNull(manager.getSession(session.getSessionId()).block());
+        assertEquals(0, manager.getActiveSessionCount());
+    }
+
+    /**
+     * 模拟多节点共享的存储；copyOnSave 时按值保存，模拟其他节点读到的是独立副本
+     */
+    private static class SharedStore implements SessionStore {
+
+        final Map<String, SettingGenerationSession> sessions = new ConcurrentHashMap<>();
+        final AtomicInteger saves = new AtomicInteger();
+        final AtomicInteger loads = new AtomicInteger();
+        volatile boolean copyOnSave;
+
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+
+        @Override
+        public Mono<SettingGenerationSession> load(String sessionId) {
+            return Mono.fromSupplier(() -> {
+                loads.incrementAndGet();
+                SettingGenerationSession stored = sessions.get(sessionId);
+                return stored == null ? null : copy(stored);
+            });
+        }
+
+        @Override
+        public Mono<Void> save(SettingGenerationSession session) {
+            return Mono.fromRunnable(() -> {
+                saves.incrementAndGet();
+                sessions.put(session.getSessionId(), copyOnSave ? copy(session) : session);
+            });
+        }
+
+        @Override
+        public Mono<Void> delete(String sessionId) {
+            return Mono.fromRunnable(() -> sessions.remove(sessionId));
+        }
+
+        private static SettingGenerationSession copy(SettingGenerationSession session) {
+            return SettingGenerationSession.builder()
+                    .sessionId(session.getSessionId()).userId(session.getUserId()).novelId(session.getNovelId())
+                    .status(session.getStatus()).generatedNodes(new ConcurrentHashMap<>(session.getGeneratedNodes()))
+                    .createdAt(session.getCreatedAt()).updatedAt(session.getUpdatedAt()).expiresAt(session.getExpiresAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ainovel.server.service.setting.generation.cluster;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.config.SettingGenerationSessionProperties;
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationEvent;
+import com.ainovel.server.domain.model.setting.generation.SettingGenerationSession;
+import com.ainovel.server.domain.model.setting.generation.SettingNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * SettingGenerationEventHub 单元测试
+ * 验证有界重放、设定树快照补齐与跨节点事件转发
+ */
+class SettingGenerationEventHubTest {
+
+    private SettingGenerationSessionProperties properties;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SettingGenerationSessionProperties();
+        properties.setReplayLimit(16);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+    }
+
+    /**
+     * 测试早期事件被淘汰后，新订阅先收到设定树快照，快照覆盖的节点事件不再重放
+     */
+    @Test
+    void testTruncatedReplayStartsWithSnapshot() {
+        SettingGenerationEventHub hub = new SettingGenerationEventHub(properties, new LocalGenerationEventBus(), "node-a", objectMapper);
+        SettingGenerationSession session = session(100);
+        hub.open("s1");
+        for (SettingNode node : session.getGeneratedNodes().values()) {
+            hub.emit("s1", new SettingGenerationEvent.NodeCreatedEvent(node, "/"));
+        }
+        hub.emit("s1", new SettingGenerationEvent.GenerationProgressEvent("进行中", null, null, null));
+        hub.complete("s1");
+
+        List<SettingGenerationEvent> events = hub.stream("s1", Mono.just(session)).collectList().block(Duration.ofSeconds(5));
+
+        assertInstanceOf(SettingGenerationEvent.SessionStartedEvent.class, events.get(0));
+        long created = events.stream().filter(SettingGenerationEvent.NodeCreatedEvent.class::isInstance).count();
+        assertEquals(100, created);
+        assertInstanceOf(SettingGenerationEvent.GenerationProgressEvent.class, events.get(events.size() - 1));
+        // 父节点先于子节点
+        SettingGenerationEvent.NodeCreatedEvent firstChild = (SettingGenerationEvent.NodeCreatedEvent) events.stream()
+                .filter(e -> e instanceof SettingGenerationEvent.NodeCreatedEvent c && c.getNode().getParentId() != null)
+                .findFirst().orElseThrow();
+        assertEquals("/根0", firstChild.getParentPath());
+    }
+
+    /**
+     * 测试重放未被截断时行为与原先一致：不推送快照，按顺序重放全部事件
+     */
+    @Test
+    void testReplayWithinLimit() {
+        SettingGenerationEventHub hub = new SettingGenerationEventHub(properties, new LocalGenerationEventBus(), "node-a", objectMapper);
+        SettingGenerationSession session = session(5);
+        hub.open("s1");
+        for (SettingNode node : session.getGeneratedNodes().values()) {
+            hub.emit("s1", new SettingGenerationEvent.NodeCreatedEvent(node, "/"));
+        }
+        hub.complete("s1");
+
+        List<SettingGenerationEvent> events = hub.stream("s1", Mono.just(session)).collectList().block(Duration.ofSeconds(5));
+        assertEquals(5, events.size());
+        assertTrue(events.stream().allMatch(SettingGenerationEvent.NodeCreatedEvent.class::isInstance));
+    }
+
+    /**
+     * 测试会话在其他节点生成时，本节点订阅先收到快照，再收到其他节点转发的实时事件与结束信号
+     */
+    @Test
+    void testRemoteEventsForwarded() {
+        GenerationEventBus bus = new LocalGenerationEventBus() {
+            @Override
+            public boolean isDistributed() {
+                return true;
+            }
+        };
+        SettingGenerationEventHub nodeA = new SettingGenerationEventHub(properties, bus, "node-a", objectMapper);
+        SettingGenerationEventHub nodeB = new SettingGenerationEventHub(properties, bus, "node-b", objectMapper);
+        SettingGenerationSession session = session(3);
+        session.setStatus(SettingGenerationSession.SessionStatus.GENERATING);
+
+        nodeA.open("s1");
+        List<SettingGenerationEvent> received = new ArrayList<>();
+        Disposable subscription = nodeB.stream("s1", Mono.just(session)).subscribe(received::add);
+        assertEquals(4, received.size());
+
+        SettingNode added = SettingNode.builder().id("n-new").name("新节点").parentId("n0").build();
+        nodeA.emit("s1", new SettingGenerationEvent.NodeCreatedEvent(added, "/根0"));
+        nodeA.complete("s1");
+
+        assertEquals(5, received.size());
+        SettingGenerationEvent.NodeCreatedEvent forwarded = (SettingGenerationEvent.NodeCreatedEvent) received.get(4);
+        assertEquals("n-new", forwarded.getNode().getId());
+        assertTrue(subscription.isDisposed());
+        // 本节点发出的事件不会被自己的订阅重复接收
+        assertEquals(1, nodeA.stream("s1", Mono.empty()).collectList().block(Duration.ofSeconds(5)).size());
+    }
+
+    /**
+     * 测试无订阅者的空闲事件流被回收
+     */
+    @Test
+    void testIdleChannelsSwept() throws InterruptedException {
+        properties.setChannelIdleTimeout(Duration.ZERO);
+        SettingGenerationEventHub hub = new SettingGenerationEventHub(properties, new LocalGenerationEventBus(), "node-a", objectMapper);
+        hub.open("s1");
+        hub.open("s2");
+        Disposable subscriber = hub.stream("s2", Mono.empty()).subscribe();
+        Thread.sleep(5);
+
+        hub.sweepIdleChannels();
+
+        assertFalse(hub.contains("s1"));
+        assertTrue(hub.contains("s2"));
+        subscriber.dispose();
+    }
+
+    private static SettingGenerationSession session(int nodeCount) {
+        SettingGenerationSession session = SettingGenerationSession.builder()
+                .sessionId("s1").initialPrompt("修仙世界").strategy("default")
+                .status(SettingGenerationSession.SessionStatus.COMPLETED)
+                .build();
+        for (int i = 0; i < nodeCount; i++) {
+            String parentId = i < 2 ? null : "n" + (i % 2);
+            session.addNode(SettingNode.builder().id("n" + i).name((parentId == null ? "根" : "节点") + i).parentId(parentId).build());
+        }
+        return session;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ainovel.server.service.setting.mention;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SettingMentionAutomaton 单元测试
+ * 验证中文名称、别名、重叠名称、大小写与英文词边界的匹配
+ */
+class SettingMentionAutomatonTest {
+
+    /**
+     * 测试中文名称与别名匹配，结果按首次出现顺序
+     */
+    @Test
+    void testChineseNamesAndAliases() {
+        SettingMentionAutomaton automaton = SettingMentionAutomaton.compile(Map.of(
+                "s1", List.of("林动", "小貂"),
+                "s2", List.of("青阳镇"),
+                "s3", List.of("大荒芜碑")));
+
+        Set<String> mentioned = automaton.scan("小貂跟着林动离开了青阳镇。");
+
+        assertEquals(List.of("s1", "s2"), List.copyOf(mentioned));
+    }
+
+    /**
+     * 测试重叠名称：短名称是长名称的后缀或子串时同时命中
+     */
+    @Test
+    void testOverlappingTerms() {
+        SettingMentionAutomaton automaton = SettingMentionAutomaton.compile(Map.of(
+                "sect", List.of("天玄宗"),
+                "hall", List.of("玄宗殿"),
+                "city", List.of("宗殿城")));
+
+        assertEquals(Set.of("sect", "hall", "city"), automaton.scan("他来到天玄宗殿城外"));
+        assertEquals(Set.of("hall"), automaton.scan("天玄玄宗殿"));
+    }
+
+    /**
+     * 测试英文名称不区分大小写且要求词边界
+     */
+    @Test
+    void testCaseInsensitiveWithWordBoundary() {
+        SettingMentionAutomaton automaton = SettingMentionAutomaton.compile(Map.of(
+                "al", List.of("Al"),
+                "excalibur", List.of("excalibur")));
+
+        assertEquals(Set.of("al", "excalibur"), automaton.scan("AL举起了EXCALIBUR。"));
+        assertTrue(automaton.scan("Also, the almanac").isEmpty());
+    }
+
+    /**
+     * 测试同名设定全部返回，过短名称被忽略
+     */
+    @Test
+    void testSharedTermAndShortTermsIgnored() {
+        SettingMentionAutomaton automaton = SettingMentionAutomaton.compile(Map.of(
+                "a", List.of("张三", "张"),
+                "b", List.of("张三")));
+
+        assertEquals(Set.of("a", "b"), automaton.scan("张三来了"));
+        assertTrue(automaton.scan("张飞来了").isEmpty());
+        assertTrue(SettingMentionAutomaton.empty().scan("张三来了").isEmpty());
+    }
+}
@@ -0,0 +1,193 @@
+package com.ainovel.server.task.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.ainovel.server.domain.model.AIFeatureType;
+import com.ainovel.server.domain.model.Novel;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.domain.model.UserAIModelConfig;
+import com.ainovel.server.service.CreditService;
+import com.ainovel.server.service.NovelService;
+import com.ainovel.server.service.SceneService;
+import com.ainovel.server.service.UserAIModelConfigService;
+import com.ainovel.server.service.UserPromptService;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
+import com.ainovel.server.service.cache.ChapterSceneCache;
+import com.ainovel.server.service.cache.SceneSummaryCache;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryParameters;
+import com.ainovel.server.task.dto.batchsummary.BatchGenerateSummaryPlan;
+import com.ainovel.server.task.service.BatchSummaryPlanner.Decision;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * BatchSummaryPlanner 单元测试
+ * 验证正文、模型、提示词版本未变化的场景不再调用模型，且预演结果与实际规划一致
+ */
+class BatchSummaryPlannerTest {
+
+    private static final String USER_ID = "u1";
+
+    private SceneService sceneService;
+    private UserAIModelConfigService configService;
+    private UserPromptService promptService;
+    private CreditService creditService;
+    private SceneSummaryCache summaryCache;
+    private BatchSummaryPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        NovelService novelService = mock(NovelService.class);
+        sceneService = mock(SceneService.class);
+        configService = mock(UserAIModelConfigService.class);
+        promptService = mock(UserPromptService.class);
+        creditService = mock(CreditService.class);
+        summaryCache = new SceneSummaryCache(configService, promptService, mock(ReactiveMongoTemplate.class),
+                mock(ChapterSceneCache.class));
+        TokenCounter tokenCounter = new TokenCounter();
+        planner = new BatchSummaryPlanner(novelService, sceneService, summaryCache, promptService, tokenCounter,
+                creditService, new SummaryPacker(tokenCounter));
+
+        when(novelService.findNovelById("n1")).thenReturn(Mono.just(novel()));
+        when(configService.getConfigurationById(USER_ID, "cfg")).thenReturn(Mono.just(config("gpt-4o")));
+        when(promptService.getPromptTemplate(USER_ID, AIFeatureType.SCENE_TO_SUMMARY)).thenReturn(Mono.just("请总结：{{content}}"));
+        when(creditService.calculateCreditCost(anyString(), anyString(), any(), anyInt(), anyInt())).thenReturn(Mono.just(7L));
+    }
+
+    /**
+     * 测试已由当前正文生成摘要的场景被跳过，修改过正文的场景重新生成
+     */
+    @Test
+    void testUnchangedScenesAreSkipped() {
+        SceneSummaryCache.SummaryKey key = summaryCache.resolveKey(USER_ID, "cfg").block();
+        Scene unchanged = scene("s1", "他推开门，走了进去。");
+        unchanged.setSummary("进门");
+        unchanged.setSummaryProvenance(summaryCache.provenance(unchanged, key));
+        Scene edited = scene("s2", "屋里很安静。");
+        edited.setSummary("安静");
+        edited.setSummaryProvenance(summaryCache.provenance(edited, key));
+        edited.setContent("屋里很安静，只有钟声。");
+        Scene fresh = scene("s3", "窗外下起了雨。");
+        Scene empty = scene("s4", " ");
+        when(sceneService.findScenesByChapterIds(anyList())).thenReturn(Flux.just(unchanged, edited, fresh, empty));
+
+        BatchSummaryPlanner.Plan plan = planner.plan(USER_ID, parameters(true, false)).block();
+
+        assertEquals(4, plan.totalScenes());
+        assertEquals(List.of(unchanged), plan.get(Decision.SKIP_UNCHANGED));
+        assertEquals(List.of(edited, fresh), plan.get(Decision.GENERATE));
+        assertEquals(List.of(empty), plan.get(Decision.EMPTY));
+
+        BatchSummaryPlanner.Plan forced = planner.plan(USER_ID, parameters(true, true)).block();
+        assertEquals(3, forced.count(Decision.GENERATE));
+    }
+
+    /**
+     * 测试更换模型后已有摘要不再视为未变化
+     */
+    @Test
+    void testModelChangeInvalidatesSummaries() {
+        SceneSummaryCache.SummaryKey key = summaryCache.resolveKey(USER_ID, "cfg").block();
+        Scene scene = scene("s1", "他推开门，走了进去。");
+        scene.setSummary("进门");
+        scene.setSummaryProvenance(summaryCache.provenance(scene, key));
+        when(sceneService.findScenesByChapterIds(anyList())).thenReturn(Flux.just(scene));
+        when(configService.getConfigurationById(USER_ID, "cfg")).thenReturn(Mono.just(config("claude-3-haiku")));
+
+        BatchSummaryPlanner.Plan plan = planner.plan(USER_ID, parameters(true, false)).block();
+
+        assertEquals(1, plan.count(Decision.GENERATE));
+    }
+
+    /**
+     * 测试找不到AI模型配置时规划以错误结束，而不是静默完成
+     */
+    @Test
+    void testMissingConfigFails() {
+        when(sceneService.findScenesByChapterIds(anyList())).thenReturn(Flux.just(scene("s1", "窗外下起了雨。")));
+        when(configService.getConfigurationById(USER_ID, "cfg")).thenReturn(Mono.empty());
+
+        assertThrows(IllegalStateException.class, () -> planner.plan(USER_ID, parameters(true, false)).block());
+        assertThrows(IllegalStateException.class, () -> summaryCache.resolveKey(USER_ID, "cfg", true).block());
+    }
+
+    /**
+     * 测试预演只统计需要调用模型的场景
+     */
+    @Test
+    void testEstimateCountsOnlyGeneratedScenes() {
+        Scene withSummary = scene("s1", "他推开门，走了进去。");
+        withSummary.setSummary("进门");
+        Scene fresh = scene("s2", "窗外下起了雨。");
+        when(sceneService.findScenesByChapterIds(anyList())).thenReturn(Flux.just(withSummary, fresh));
+
+        BatchGenerateSummaryPlan estimate = planner.estimate(USER_ID, parameters(false, false)).block();
+
+        assertEquals(2, estimate.getTotalScenes());
+        assertEquals(1, estimate.getLlmCalls());
+        assertEquals(1, estimate.getSkippedExisting());
+        assertEquals(BatchSummaryPlanner.ESTIMATED_SUMMARY_TOKENS, estimate.getEstimatedOutputTokens());
+        assertTrue(estimate.getEstimatedInputTokens() > 0);
+        assertEquals(7L, estimate.getEstimatedCredits());
+    }
+
+    /**
+     * 测试打包模式下调用次数为包数
+     */
+    @Test
+    void testPackedEstimateCountsPacks() {
+        Scene[] scenes = new Scene[45];
+        for (int i = 0; i < scenes.length; i++) {
+            scenes[i] = scene("s" + i, "第" + i + "个场景的正文。");
+        }
+        when(sceneService.findScenesByChapterIds(anyList())).thenReturn(Flux.just(scenes));
+        BatchGenerateSummaryParameters parameters = parameters(true, false);
+        parameters.setPacked(true);
+
+        BatchGenerateSummaryPlan estimate = planner.estimate(USER_ID, parameters).block();
+
+        assertEquals(45, estimate.getScenesToGenerate());
+        assertEquals(3, estimate.getLlmCalls());
+    }
+
+    private BatchGenerateSummaryParameters parameters(boolean overwriteExisting, boolean forceRegenerate) {
+        return BatchGenerateSummaryParameters.builder()
+                .novelId("n1")
+                .startChapterId("c1")
+                .endChapterId("c2")
+                .aiConfigId("cfg")
+                .overwriteExisting(overwriteExisting)
+                .forceRegenerate(forceRegenerate)
+                .build();
+    }
+
+    private Novel novel() {
+        Novel.Act act = Novel.Act.builder()
+                .chapters(List.of(
+                        Novel.Chapter.builder().id("c1").order(1).build(),
+                        Novel.Chapter.builder().id("c2").order(2).build()))
+                .build();
+        return Novel.builder()
+                .id("n1")
+                .author(Novel.Author.builder().id(USER_ID).build())
+                .structure(Novel.Structure.builder().acts(List.of(act)).build())
+                .build();
+    }
+
+    private UserAIModelConfig config(String modelName) {
+        return UserAIModelConfig.builder().provider("openai").modelName(modelName).build();
+    }
+
+    private Scene scene(String id, String content) {
+        return Scene.builder().id(id).content(content).build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.ainovel.server.task.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.domain.model.AIRequest;
+import com.ainovel.server.domain.model.AIResponse;
+import com.ainovel.server.domain.model.Scene;
+import com.ainovel.server.service.ai.AIModelProvider;
+import com.ainovel.server.service.ai.tokenizer.TokenCounter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * SummaryPacker 单元测试
+ * 使用本地模拟的模型提供商验证分包、结果拆分以及截断/格式错误时的重试
+ */
+class SummaryPackerTest {
+
+    private SummaryPacker packer;
+    private AIModelProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        packer = new SummaryPacker(new TokenCounter());
+        provider = mock(AIModelProvider.class);
+        when(provider.getModelName()).thenReturn("gpt-4o");
+    }
+
+    /**
+     * 测试分包遵守token预算与每包数量上限，且保持场景顺序
+     */
+    @Test
+    void testPackRespectsBudgetAndOrder() {
+        List<Scene> scenes = scenes(50, 200);
+
+        List<List<Scene>> packs = packer.pack(scenes, "gpt-4o", 1000);
+
+        assertTrue(packs.size() > 1);
+        List<Scene> flattened = new ArrayList<>();
+        for (List<Scene> pack : packs) {
+            assertTrue(pack.size() <= SummaryPacker.MAX_ITEMS_PER_PACK);
+            flattened.addAll(pack);
+        }
+        assertEquals(scenes, flattened);
+        assertEquals(3, packer.pack(scenes(45, 5), "gpt-4o", 0).size());
+    }
+
+    /**
+     * 测试一次请求返回全部场景的摘要
+     */
+    @Test
+    void testPackedResponseIsSplitPerScene() {
+        respondWith(count -> jsonArray(1, count));
+        List<Scene> pack = scenes(5, 20);
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<String, String> summaries = packer.summarize(provider, "u1", "n1", pack, calls).block();
+
+        assertEquals(1, calls.get());
+        assertEquals(5, summaries.size());
+        assertEquals("摘要3", summaries.get("s2"));
+    }
+
+    /**
+     * 测试输出被截断时保留已完整的条目，只重新请求缺失的场景
+     */
+    @Test
+    void testTruncatedResponseRetriesMissingScenes() {
+        respondWith(count -> count == 6
+                ? "[{\"id\":1,\"summary\":\"摘要1\"},{\"id\":2,\"summary\":\"摘要2\"},{\"id\":3,\"summ"
+                : jsonArray(1, count));
+        List<Scene> pack = scenes(6, 20);
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<String, String> summaries = packer.summarize(provider, "u1", "n1", pack, calls).block();
+
+        assertEquals(2, calls.get());
+        assertEquals(6, summaries.size());
+        assertEquals("摘要1", summaries.get("s0"));
+    }
+
+    /**
+     * 测试整包无法解析时对半拆分，单个场景仍失败则放弃该场景
+     */
+    @Test
+    void testUnparseableResponseSplitsPack() {
+        respondWith(count -> count > 2 ? "抱歉，内容太长了" : jsonArray(1, count));
+        List<Scene> pack = scenes(4, 20);
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<String, String> summaries = packer.summarize(provider, "u1", "n1", pack, calls).block();
+
+        assertEquals(3, calls.get());
+        assertEquals(4, summaries.size());
+
+        respondWith(count -> "无法处理");
+        Map<String, String> failed = packer.summarize(provider, "u1", "n1", scenes(1, 20), new AtomicInteger()).block();
+        assertTrue(failed.isEmpty());
+    }
+
+    /**
+     * 测试请求失败（如限流）时错误直接传播，不拆分重试
+     */
+    @Test
+    void testProviderErrorPropagatesWithoutSplitting() {
+        when(provider.generateContent(any(AIRequest.class)))
+                .thenReturn(Mono.error(new IllegalStateException("429 Too Many Requests")));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class,
+                () -> packer.summarize(provider, "u1", "n1", scenes(20, 20), calls).block());
+        assertEquals(1, calls.get());
+        verify(provider, times(1)).generateContent(any(AIRequest.class));
+    }
+
+    /**
+     * 测试兼容代码块包裹、对象映射和越界编号
+     */
+    @Test
+    void testParseTolerantFormats() {
+        assertEquals(Map.of(1, "甲", 2, "乙"),
+                SummaryPacker.parse("```json\n[{\"id\":1,\"summary\":\"甲\"},{\"id\":\"2\",\"summary\":\"乙\"}]\n```", 2));
+        assertEquals(Map.of(1, "甲", 2, "乙"), SummaryPacker.parse("{\"1\":\"甲\",\"2\":\"乙\",\"9\":\"越界\"}", 2));
+        assertEquals(Map.of(2, "乙"), SummaryPacker.parse("{\"summaries\":[{\"id\":2,\"summary\":\"乙\"}]}", 2));
+        assertTrue(SummaryPacker.parse("抱歉我无法完成", 2).isEmpty());
+    }
+
+    /**
+     * 模拟提供商：按请求中的场景数生成响应
+     */
+    private void respondWith(Function<Integer, String> responder) {
+        when(provider.generateContent(any(AIRequest.class))).thenAnswer(invocation -> {
+            AIRequest request = invocation.getArgument(0);
+            String prompt = request.getMessages().get(request.getMessages().size() - 1).getContent();
+            int count = prompt.split("### 场景 ", -1).length - 1;
+            AIResponse response = new AIResponse();
+            response.setContent(responder.apply(count));
+            return Mono.just(response);
+        });
+    }
+
+    private String jsonArray(int from, int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i + 1).append(",\"summary\":\"摘要").append(from + i).append("\"}");
+        }
+        return sb.append(']').toString();
+    }
+
+    private List<Scene> scenes(int count, int length) {
+        List<Scene> scenes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            scenes.add(Scene.builder().id("s" + i).content("他".repeat(length)).build());
+        }
+        return scenes;
+    }
+}
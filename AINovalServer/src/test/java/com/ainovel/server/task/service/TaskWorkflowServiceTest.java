@@ -0,0 +1,101 @@
+package com.ainovel.server.task.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.ainovel.server.task.event.internal.TaskSubmittedEvent;
+import com.ainovel.server.task.model.BackgroundTask;
+import com.ainovel.server.task.model.TaskStatus;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * TaskWorkflowService 单元测试
+ * 验证只有最后一个子任务结束时父任务才重新入队
+ */
+class TaskWorkflowServiceTest {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private TaskWorkflowService workflowService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        workflowService = new TaskWorkflowService(mongoTemplate, mock(TaskStateService.class), eventPublisher);
+    }
+
+    /**
+     * 测试仍有子任务未结束时父任务保持等待
+     */
+    @Test
+    void testPendingSubTasksKeepParentWaiting() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BackgroundTask.class)))
+                .thenReturn(Mono.just(parent(TaskStatus.WAITING, List.of("c2"))));
+
+        workflowService.onSubTaskFinished("p1", "c1").block();
+
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BackgroundTask.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * 测试最后一个子任务结束后父任务切回 QUEUED 并重新分发
+     */
+    @Test
+    void testLastSubTaskResumesParent() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BackgroundTask.class)))
+                .thenReturn(Mono.just(parent(TaskStatus.WAITING, List.of())))
+                .thenReturn(Mono.just(parent(TaskStatus.QUEUED, List.of())));
+
+        workflowService.onSubTaskFinished("p1", "c2").block();
+
+        ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        TaskSubmittedEvent event = assertInstanceOf(TaskSubmittedEvent.class, captor.getValue());
+        assertEquals("p1", event.getTaskId());
+        assertNotNull(event.getEventId());
+    }
+
+    /**
+     * 测试并发的重复结束事件只会让一个调用方完成恢复
+     */
+    @Test
+    void testResumeIsIdempotent() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BackgroundTask.class)))
+                .thenReturn(Mono.just(parent(TaskStatus.WAITING, List.of())))
+                .thenReturn(Mono.empty());
+
+        workflowService.onSubTaskFinished("p1", "c2").block();
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private BackgroundTask parent(TaskStatus status, List<String> pending) {
+        return BackgroundTask.builder()
+                .id("p1")
+                .userId("u1")
+                .taskType("KNOWLEDGE_EXTRACTION")
+                .status(status)
+                .workflow(BackgroundTask.WorkflowState.builder()
+                        .continuationStep("AGGREGATE_SUB_TASKS")
+                        .pendingSubTaskIds(new ArrayList<>(pending))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ainovel.server.task.service.permit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ainovel.server.config.TaskPermitProperties;
+import com.ainovel.server.task.metrics.TaskMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * TaskPermitService 单元测试
+ * 验证排队不占用线程、按顺序发放许可、超时与集群许可已满时的重试
+ */
+class TaskPermitServiceTest {
+
+    private TaskPermitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private TaskMetrics taskMetrics;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TaskPermitProperties();
+        properties.setStore(TaskPermitProperties.Store.LOCAL);
+        properties.setPollInterval(Duration.ofMillis(20));
+        meterRegistry = new SimpleMeterRegistry();
+        taskMetrics = new TaskMetrics(meterRegistry);
+        taskMetrics.init();
+    }
+
+    /**
+     * 测试超过上限的申请进入排队，归还后按先进先出发放
+     */
+    @Test
+    void testQueuedAcquireCompletesOnRelease() {
+        TaskPermitService service = new TaskPermitService(properties, new LocalPermitLeaseStore(), taskMetrics);
+        List<Integer> positions = new ArrayList<>();
+
+        TaskPermit first = service.acquire("task:T", 2, null, positions::add).block();
+        TaskPermit second = service.acquire("task:T", 2, null, positions::add).block();
+        List<TaskPermit> granted = new ArrayList<>();
+        Disposable third = service.acquire("task:T", 2, null, positions::add).subscribe(granted::add);
+
+        assertTrue(granted.isEmpty());
+        assertEquals(List.of(1), positions);
+        assertEquals(1, service.getQueueLength("task:T"));
+        assertEquals(1.0, meterRegistry.get("tasks.permit.queue").tag("key", "task:T").gauge().value());
+
+        first.release().block();
+        first.release().block();
+
+        assertEquals(1, granted.size());
+        assertEquals(1, granted.get(0).getQueuedAhead());
+        assertEquals(2, service.getActiveCount("task:T"));
+        assertEquals(0, service.getQueueLength("task:T"));
+
+        second.release().block();
+        granted.get(0).release().block();
+        third.dispose();
+        assertEquals(0, service.getActiveCount("task:T"));
+    }
+
+    /**
+     * 测试排队超时后返回错误并离开队列，不影响后续申请
+     */
+    @Test
+    void testAcquireTimeout() {
+        TaskPermitService service = new TaskPermitService(properties, new LocalPermitLeaseStore(), taskMetrics);
+        TaskPermit held = service.acquire("task:T", 1, null, p -> { }).block();
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.acquire("task:T", 1, Duration.ofMillis(50), p -> { }).block());
+        assertTrue(error.getMessage().contains("等待执行许可超时"));
+        assertEquals(0, service.getQueueLength("task:T"));
+
+        held.release().block();
+        assertNotNull(service.acquire("task:T", 1, null, p -> { }).block(Duration.ofSeconds(1)));
+        assertEquals(1, meterRegistry.get("tasks.permit.wait").tag("outcome", "timeout").timer().count());
+    }
+
+    /**
+     * 测试集群许可被其他节点占满时按间隔重试，不阻塞线程
+     */
+    @Test
+    void testRetriesWhenClusterIsFull() {
+        AtomicInteger attempts = new AtomicInteger();
+        PermitLeaseStore store = new PermitLeaseStore() {
+            @Override
+            public Mono<Boolean> tryAcquire(String key, int limit, String leaseId, Duration ttl) {
+                return Mono.just(attempts.incrementAndGet() > 2);
+            }
+
+            @Override
+            public Mono<Void> release(String key, String leaseId) {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<Void> renew(String key, Collection<String> leaseIds, Duration ttl) {
+                return Mono.empty();
+            }
+        };
+        TaskPermitService service = new TaskPermitService(properties, store, taskMetrics);
+
+        TaskPermit permit = service.acquire("provider:gemini", 3, Duration.ofSeconds(2), p -> { }).block();
+
+        assertNotNull(permit);
+        assertEquals(3, attempts.get());
+        assertEquals(1, service.getActiveCount("provider:gemini"));
+    }
+
+    /**
+     * 测试未配置上限的键直接放行
+     */
+    @Test
+    void testUnconfiguredKeyIsUnlimited() {
+        TaskPermitService service = new TaskPermitService(properties, new LocalPermitLeaseStore(), taskMetrics);
+
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(service.acquireForProvider("openai", null).block());
+        }
+        assertEquals(0, service.getActiveCount("provider:openai"));
+    }
+}